@@ -108,6 +108,27 @@ abstract class AbstractMessageSource implements MessageSource {
         }
     }
 
+    /**
+     * Notifies the listeners of a batch of messages.
+     * Listeners which do not accept batches are notified of each message in turn.
+     * @param messages
+     */
+    protected void fireMessagesReceived (List<Message> messages) {
+        if (messages.isEmpty ()) {
+            return;
+        }
+        
+        for (final MessageListener listener : messageListeners) {
+            if (listener instanceof BatchMessageListener) {
+                ((BatchMessageListener)listener).messagesReceived (messages);
+            } else {
+                for (final Message message : messages) {
+                    listener.messageReceived (message);
+                }
+            }
+        }
+    }
+
     /**
      * Check if the message source is running.
      * @return true if the message source is running
@@ -0,0 +1,391 @@
+/*
+ * Copyright (c) 2007 BUSINESS OBJECTS SOFTWARE LIMITED
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *  
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *  
+ *     * Neither the name of Business Objects nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+
+/*
+ * BoundedRingBuffer.java
+ * Created: 18-Oct-2026
+ */
+
+package org.openquark.samples.bam;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+
+/**
+ * A bounded, lock-free queue backed by a ring buffer.
+ * 
+ * Each slot of the ring has a sequence number which tells producers and consumers
+ * whether the slot is free or holds an element for them, so that producers and consumers
+ * only contend on the counters for the ends of the queue (compare-and-set), and never take a lock.
+ * Any number of threads may add and remove elements.
+ * 
+ * The blocking methods spin briefly and then park the calling thread until the queue state changes,
+ * which is how back-pressure is applied to a producer when the queue is full.
+ * 
+ * When the consumer stops taking elements (e.g. because it has failed), it closes the buffer so that 
+ * producers do not wait for space which will never become available. Elements added to a closed buffer are discarded.
+ */
+final class BoundedRingBuffer<E> {
+    
+    /** The number of times a blocked thread retries before parking. */
+    private static final int SPIN_COUNT = 100;
+    
+    /** The longest time that a blocked thread parks before checking the queue again. */
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final int mask;
+    
+    private final AtomicReferenceArray<E> elements;
+    
+    private final AtomicLongArray sequences;
+    
+    /** The position at which the next element will be added */
+    private final AtomicLong tail = new AtomicLong();
+    
+    /** The position from which the next element will be removed */
+    private final AtomicLong head = new AtomicLong();
+    
+    /** The thread (if any) waiting for an element to be added */
+    private volatile Thread waitingConsumer;
+    
+    /** The thread (if any) waiting for space in the queue */
+    private volatile Thread waitingProducer;
+    
+    /** Set when the buffer is closed, after which no more elements are added */
+    private volatile boolean closed = false;
+    
+    /** The number of times that producers have had to wait for space */
+    private final AtomicLong producerWaits = new AtomicLong();
+    
+    /**
+     * Construct a ring buffer.
+     * @param minCapacity the minimum capacity - the capacity is rounded up to a power of 2, and is at least 2
+     */
+    BoundedRingBuffer (int minCapacity) {
+        if (minCapacity < 1) {
+            throw new IllegalArgumentException ("The capacity must be positive");
+        }
+        
+        // With a single slot, the sequence number of a full slot would be the same as that of 
+        // the free slot for the next position, so there must be at least two slots.
+        int capacity = Integer.highestOneBit (minCapacity);
+        if (capacity < minCapacity) {
+            capacity <<= 1;
+        }
+        capacity = Math.max (capacity, 2);
+        
+        mask = capacity - 1;
+        elements = new AtomicReferenceArray<E> (capacity);
+        sequences = new AtomicLongArray (capacity);
+        for (int i = 0; i < capacity; ++i) {
+            sequences.set (i, i);
+        }
+    }
+    
+    /**
+     * @return the number of elements that the buffer can hold
+     */
+    int capacity () {
+        return mask + 1;
+    }
+    
+    /**
+     * @return the (approximate) number of elements in the buffer
+     */
+    int size () {
+        long size = tail.get () - head.get ();
+        return (int) Math.max (0, Math.min (size, capacity ()));
+    }
+    
+    /**
+     * @return the number of times that producers have had to wait for space in the buffer
+     */
+    long getProducerWaits () {
+        return producerWaits.get ();
+    }
+    
+    /**
+     * Closes the buffer, so that no more elements are added to it. 
+     * A producer waiting for space discards the elements that it has not yet added.
+     * The elements already in the buffer can still be removed.
+     */
+    void close () {
+        closed = true;
+        
+        Thread producer = waitingProducer;
+        if (producer != null) {
+            LockSupport.unpark (producer);
+        }
+    }
+    
+    /**
+     * @return true if the buffer has been closed
+     */
+    boolean isClosed () {
+        return closed;
+    }
+    
+    /**
+     * Adds an element to the buffer if there is space.
+     * @param element the element to add
+     * @return true if the element was added, false if the buffer is full or closed
+     */
+    boolean offer (E element) {
+        if (element == null) {
+            throw new NullPointerException ();
+        }
+        if (closed) {
+            return false;
+        }
+        
+        long position;
+        while (true) {
+            position = tail.get ();
+            int index = (int) position & mask;
+            long difference = sequences.get (index) - position;
+            
+            if (difference == 0) {
+                if (tail.compareAndSet (position, position + 1)) {
+                    break;
+                }
+            } else if (difference < 0) {
+                // The slot has not yet been consumed, so the buffer is full.
+                return false;
+            }
+        }
+        
+        int index = (int) position & mask;
+        elements.set (index, element);
+        sequences.set (index, position + 1);
+        
+        Thread consumer = waitingConsumer;
+        if (consumer != null) {
+            LockSupport.unpark (consumer);
+        }
+        return true;
+    }
+    
+    /**
+     * Adds as many of the given elements as there is space for, claiming the slots for them together.
+     * @param elementList the elements to add
+     * @param from the index in the list of the first element to add
+     * @return the number of elements added, which is zero if the buffer is full
+     */
+    private int offerSome (List<? extends E> elementList, int from) {
+        int remaining = elementList.size () - from;
+        long position;
+        int count;
+        while (true) {
+            position = tail.get ();
+            
+            // Count the free slots following the tail.
+            count = 0;
+            while (count < remaining && count <= mask 
+                    && sequences.get ((int) (position + count) & mask) == position + count) {
+                ++count;
+            }
+            
+            if (count > 0) {
+                if (tail.compareAndSet (position, position + count)) {
+                    break;
+                }
+            } else if (sequences.get ((int) position & mask) < position) {
+                // The slot has not yet been consumed, so the buffer is full.
+                return 0;
+            }
+        }
+        
+        for (int i = 0; i < count; ++i) {
+            int index = (int) (position + i) & mask;
+            elements.set (index, elementList.get (from + i));
+            sequences.set (index, position + i + 1);
+        }
+        
+        Thread consumer = waitingConsumer;
+        if (consumer != null) {
+            LockSupport.unpark (consumer);
+        }
+        return count;
+    }
+    
+    /**
+     * Removes an element from the buffer, if there is one.
+     * @return the element removed, or null if the buffer is empty
+     */
+    E poll () {
+        long position;
+        while (true) {
+            position = head.get ();
+            int index = (int) position & mask;
+            long difference = sequences.get (index) - (position + 1);
+            
+            if (difference == 0) {
+                if (head.compareAndSet (position, position + 1)) {
+                    break;
+                }
+            } else if (difference < 0) {
+                // The slot has not yet been filled, so the buffer is empty.
+                return null;
+            }
+        }
+        
+        int index = (int) position & mask;
+        E element = elements.get (index);
+        elements.set (index, null);
+        sequences.set (index, position + mask + 1);
+        
+        Thread producer = waitingProducer;
+        if (producer != null) {
+            LockSupport.unpark (producer);
+        }
+        return element;
+    }
+    
+    /**
+     * Removes up to maxElements elements from the buffer, adding them to the given list.
+     * @param list the list to add the elements to
+     * @param maxElements the maximum number of elements to remove
+     * @return the number of elements removed
+     */
+    int drainTo (List<? super E> list, int maxElements) {
+        int count = 0;
+        while (count < maxElements) {
+            E element = poll ();
+            if (element == null) {
+                break;
+            }
+            list.add (element);
+            ++count;
+        }
+        return count;
+    }
+    
+    /**
+     * Adds an element to the buffer, waiting for space to become available if the buffer is full.
+     * @param element the element to add
+     * @return true if the element was added, false if the buffer is closed
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    boolean put (E element) throws InterruptedException {
+        if (element == null) {
+            throw new NullPointerException ();
+        }
+        return putAll (Collections.singletonList (element)) == 1;
+    }
+    
+    /**
+     * Adds the elements of a list to the buffer in order, waiting for space to become available if the buffer is full.
+     * The slots for as many elements as there is space for are claimed together, so adding a list of elements
+     * costs fewer atomic operations and consumer wake-ups than adding the elements one at a time.
+     * Elements added by other threads may be interleaved with the elements of the list if the buffer fills up.
+     * If the buffer is closed, the elements which have not yet been added are discarded.
+     * @param elementList the elements to add
+     * @return the number of elements added, which is less than the size of the list only if the buffer was closed
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    int putAll (List<? extends E> elementList) throws InterruptedException {
+        for (final E element : elementList) {
+            if (element == null) {
+                throw new NullPointerException ();
+            }
+        }
+        
+        int spins = 0;
+        int nAdded = 0;
+        int nElements = elementList.size ();
+        while (nAdded < nElements && !closed) {
+            int count = offerSome (elementList, nAdded);
+            if (count > 0) {
+                nAdded += count;
+                spins = 0;
+                continue;
+            }
+            
+            if (spins < SPIN_COUNT) {
+                ++spins;
+                Thread.yield ();
+                continue;
+            }
+            
+            producerWaits.incrementAndGet ();
+            waitingProducer = Thread.currentThread ();
+            try {
+                // Check again, in case space was made (or the buffer was closed) before this thread was registered.
+                if (closed) {
+                    break;
+                }
+                count = offerSome (elementList, nAdded);
+                if (count > 0) {
+                    nAdded += count;
+                    continue;
+                }
+                LockSupport.parkNanos (MAX_PARK_NANOS);
+            } finally {
+                waitingProducer = null;
+            }
+            if (Thread.interrupted ()) {
+                throw new InterruptedException ();
+            }
+        }
+        return nAdded;
+    }
+    
+    /**
+     * Waits for the buffer to contain at least one element, or for the timeout to expire.
+     * @param timeoutNanos the longest time to wait, in nanoseconds
+     * @return true if the buffer is not empty
+     */
+    boolean awaitNotEmpty (long timeoutNanos) {
+        if (size () > 0) {
+            return true;
+        }
+        
+        waitingConsumer = Thread.currentThread ();
+        try {
+            // Check again, in case an element was added before this thread was registered.
+            if (size () > 0) {
+                return true;
+            }
+            LockSupport.parkNanos (Math.min (timeoutNanos, MAX_PARK_NANOS));
+        } finally {
+            waitingConsumer = null;
+        }
+        return size () > 0;
+    }
+}
@@ -39,11 +39,13 @@
 package org.openquark.samples.bam;
 
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Arrays;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 import java.util.logging.Logger;
 
 import org.openquark.cal.compiler.io.EntryPointSpec;
@@ -57,38 +59,148 @@ import org.openquark.samples.bam.model.MessageSourceDescription.MessagePropertyD
  * This class is used for running a single Job.
  * A Job consists of a single message source and
  * associated triggers and actions.
+ * 
+ * Messages are processed in a pipeline: the message source thread converts each message
+ * to the tuple expected by the gem graph and adds it to a bounded ring buffer, and 
+ * a worker thread takes the messages from the buffer in batches and feeds them to the CAL
+ * evaluation. When the buffer is full, the message source thread waits for space, so a source
+ * cannot run ahead of the CAL evaluation by more than the buffer capacity. If a worker stops 
+ * (e.g. because the gem graph fails to compile or run), it closes its buffer, and the messages 
+ * for it are dropped rather than leaving the message source thread waiting for space.
+ * 
+ * If the job description specifies a partition property and more than one worker, each worker
+ * runs its own evaluation of the gem graph, and messages are assigned to workers by the value of the 
+ * partition property. All the messages with the same key value are processed in order by the same worker,
+ * but the metrics are computed over the messages of each worker's partition rather than over all the messages.
  */
 class MonitorJob extends Thread  {
     
+    /** The capacity of the message buffer for each worker */
+    private static final int BUFFER_CAPACITY = 4096;
+    
+    /** The maximum number of messages taken from the buffer at a time */
+    private static final int BATCH_SIZE = 256;
+    
+    /** The interval between reports of the job throughput, in milliseconds */
+    private static final long STATISTICS_INTERVAL = 10000;
+    
     private final Logger logger = Logger.getLogger("BAM");
 
     /**
-     * This class is used to buffer messages between the CAL logic and the MessageSource
+     * This class is used to pass messages from the MessageSource to the workers.
      * 
-     * The GEM code uses the Iterator interface to get messages
-     * The MessageSource uses the MessageListerner interface to insert messages as they arrive
-     *
-     * @author Magnus Byne
+     * The MessageSource uses the MessageListener interface to insert messages as they arrive.
+     * Each message is converted to a list of property values, which is
+     * the java representation of the CAL message tuple. The order of the elements in the tuple 
+     * must match the order expected by the GEM graph - both are defined by the order of the 
+     * message property descriptions in the job description.
      */
-    private class MessageBuffer implements  Iterator<List<Object>>, MessageListener, MessageSource.StatusListener {
-        LinkedList<Message> queue = new LinkedList<Message>();
+    private class MessageDispatcher implements BatchMessageListener, MessageSource.StatusListener {
+    
+        /**
+         * this is called by the messageSource to add a batch of messages to the buffers.
+         * The messages are grouped by worker, so that each worker's buffer is filled with a single put.
+         * The calling thread waits if a buffer is full. The messages for a worker which has stopped are dropped.
+         * {@inheritDoc}
+         */
+        public void messagesReceived(List<Message> messages) {
+            List<List<List<Object>>> partitions = new ArrayList<List<List<Object>>>(workers.length);
+            for (int i = 0; i < workers.length; ++i) {
+                partitions.add(new ArrayList<List<Object>>());
+            }
+            for (final Message msg : messages) {
+                Object[] messageProperties = getMessageProperties(msg);
+                partitions.get(getPartition(messageProperties)).add(Arrays.asList(messageProperties));
+            }
+            messagesReceived.addAndGet(messages.size());
+            
+            for (int i = 0; i < workers.length; ++i) {
+                List<List<Object>> partition = partitions.get(i);
+                if (partition.isEmpty()) {
+                    continue;
+                }
+                
+                try {
+                    int nAdded = workers[i].buffer.putAll(partition);
+                    if (nAdded < partition.size()) {
+                        messagesDropped.addAndGet(partition.size() - nAdded);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    
+                    // Some of the messages for this worker may already have been added to its buffer.
+                    int nDropped = 0;
+                    for (int j = i; j < workers.length; ++j) {
+                        nDropped += partitions.get(j).size();
+                    }
+                    messagesDropped.addAndGet(nDropped);
+                    logger.warning(getName() + " up to " + nDropped + " messages dropped");
+                    return;
+                }
+            }
+        }
     
         /**
-         * this is called by the messageSource to add a message to the buffer.
+         * this is called by the messageSource to add a message to the buffer of the appropriate worker.
+         * The calling thread waits if the buffer is full. The message is dropped if the worker has stopped.
          * {@inheritDoc}
          */
-        public synchronized void messageReceived(Message msg) {
-            queue.addLast(msg);
-            notify();
+        public void messageReceived(Message msg) {
+            Object[] messageProperties = getMessageProperties(msg);
+            messagesReceived.incrementAndGet();
+            
+            Worker worker = workers[getPartition(messageProperties)];
+            try {
+                if (!worker.buffer.put(Arrays.asList(messageProperties))) {
+                    messagesDropped.incrementAndGet();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                messagesDropped.incrementAndGet();
+                logger.warning(getName() + " message dropped: " + msg);
+            }
+        }
+        
+        /**
+         * Converts a message to the values of its properties, in the order of the elements of the CAL message tuple
+         */
+        private Object[] getMessageProperties(Message msg) {
+            Object[] messageProperties = new Object[propertyNames.length];
+            for (int i = 0; i < propertyNames.length; ++i) {
+                messageProperties[i] = msg.getProperty(propertyNames[i]);
+            }
+            return messageProperties;
         }
 
         /**
-         * This is called by the messageSource when its status changes - we notify the consumer
+         * This is called by the messageSource when its status changes - we wake the workers
          * in case the source has finished
          * {@inheritDoc}
          */
-        public synchronized void statusChanged(int newStatus) {
-            notify();
+        public void statusChanged(int newStatus) {
+            if (newStatus == MessageSource.STATUS_IDLE) {
+                sourceFinished = true;
+            }
+            for (final Worker worker : workers) {
+                LockSupport.unpark(worker);
+            }
+        }
+    }
+    
+    /**
+     * This class is used to feed the messages in a worker's buffer to the CAL logic.
+     * 
+     * The GEM code uses the Iterator interface to get messages. 
+     * Messages are taken from the buffer in batches, so that the buffer is only accessed
+     * once for each batch rather than for each message.
+     */
+    private class MessageBatchIterator implements Iterator<List<Object>> {
+        private final Worker worker;
+        private final List<List<Object>> batch = new ArrayList<List<Object>>(BATCH_SIZE);
+        private int batchPosition = 0;
+        
+        MessageBatchIterator(Worker worker) {
+            this.worker = worker;
         }
         
         /**
@@ -96,19 +208,32 @@ class MonitorJob extends Thread  {
          *  or returns false if there are no more messages and the messageSource is not running
          * {@inheritDoc}
          */
-        public synchronized boolean hasNext() {
-            while (queue.isEmpty()) {
-                try {
-                    if (messageSource.isRunning()) {
-                        wait();
-                    } else {
-                        return false;
-                    }
-                } catch (InterruptedException e) {
+        public boolean hasNext() {
+            if (batchPosition < batch.size()) {
+                return true;
+            }
+            
+            batch.clear();
+            batchPosition = 0;
+            
+            while (true) {
+                // Check whether the source has finished before looking in the buffer,
+                // so that messages added just before the source finished are not missed.
+                boolean finished = sourceFinished || !messageSource.isRunning();
+                
+                int nMessages = worker.buffer.drainTo(batch, BATCH_SIZE);
+                if (nMessages > 0) {
+                    worker.messagesProcessed.addAndGet(nMessages);
+                    worker.batchesProcessed.incrementAndGet();
+                    return true;
+                }
+                
+                if (finished || Thread.interrupted()) {
                     return false;
                 }
+                
+                worker.buffer.awaitNotEmpty(TimeUnit.MILLISECONDS.toNanos(STATISTICS_INTERVAL));
             }
-            return true;
         }
 
         /**
@@ -116,24 +241,13 @@ class MonitorJob extends Thread  {
          * throws a NoSuchElementException if no more messages are available
          * {@inheritDoc}
          */
-        public synchronized List<Object> next () {
-            
+        public List<Object> next () {
             if (!hasNext()) {
                 throw new NoSuchElementException();
             }
             
-            // create a list from the message properties 
-            // this is the java representation of the CAL message tuple 
-            // the order of the elements in the tuple must match the order expected by the GEM graph
-            // both are defined by the order of the message property descriptions in the job description 
-            Collection<MessagePropertyDescription> propertyInfos = jobDescription.getMessagePropertyDescriptions();
-            List<Object> messageProperties = new ArrayList<Object>();
-            Message message=queue.removeFirst();
-
-            for (final MessagePropertyDescription propertyInfo : propertyInfos) {
-                messageProperties.add(message.getProperty(propertyInfo.name));
-            }
-            
+            List<Object> messageProperties = batch.get(batchPosition);
+            batch.set(batchPosition++, null);
             return messageProperties;
         }
         
@@ -145,12 +259,73 @@ class MonitorJob extends Thread  {
             throw new  UnsupportedOperationException();  
         }
     }
+    
+    /**
+     * A worker runs the CAL evaluation of the gem graph over the messages in its buffer.
+     */
+    private class Worker extends Thread {
+        final BoundedRingBuffer<List<Object>> buffer = new BoundedRingBuffer<List<Object>>(BUFFER_CAPACITY);
+        
+        final AtomicLong messagesProcessed = new AtomicLong();
+        final AtomicLong batchesProcessed = new AtomicLong();
+        final AtomicLong resultsProduced = new AtomicLong();
+        
+        Worker(String name) {
+            super(name);
+        }
+        
+        /**
+         * this starts the CAL processing of the messages from the buffer.
+         * The buffer is closed when the processing stops, so that no more messages are added to it.
+         * {@inheritDoc}
+         */
+        @Override
+        public void run() {
+            try {
+
+                //this starts the CAL processing of the message buffer 
+                Iterator<?> calResult =
+                    (Iterator<?>) MonitorApp.getInstance().getCalServices().runFunction(entryPointSpec, new Object[] { new MessageBatchIterator(this) });
+                    
+                //this retrieves the results from CAL - a Boolean value is returned for each
+                //message which indicates whether or not actions were performed for the message
+                while (calResult.hasNext()) {
+                    Object result = calResult.next();
+                    resultsProduced.incrementAndGet();
+                    logger.info (getName() + " result: " + result);
+                }
+
+            } catch (GemCompilationException ex) {
+                logger.warning(getName() + " CAL Compilation error: " + ex.getMessage());
+            } catch (CALExecutorException ex) {
+                logger.warning(getName() + " CAL Execution error: " + ex.getMessage());
+            } finally {
+                buffer.close();
+            }
+        }
+    }
        
-    private final MessageBuffer messageBuffer = new MessageBuffer();
+    private final MessageDispatcher messageDispatcher = new MessageDispatcher();
     private final MonitorJobDescription jobDescription;
     private final MessageSource messageSource;    
     private final EntryPointSpec entryPointSpec;
     
+    /** The names of the message properties, in the order of the elements of the CAL message tuple */
+    private final String[] propertyNames;
+    
+    /** The index of the property used to partition the messages, or -1 if the messages are not partitioned */
+    private final int partitionPropertyIndex;
+    
+    private final Worker[] workers;
+    
+    /** Set when the message source reports that it has finished */
+    private volatile boolean sourceFinished = false;
+    
+    // Pipeline statistics
+    private final AtomicLong messagesReceived = new AtomicLong();
+    private final AtomicLong messagesDropped = new AtomicLong();
+    private volatile long startTime = 0;
+    
     
     /**
      * Construct a monitor job
@@ -165,34 +340,114 @@ class MonitorJob extends Thread  {
         //set the thread name to the job id
         this.setName(jobDescription.getJobId());
         
-        //set up the message buffer so that it will receive messages and status notifications from the message source
-        messageSource.addMessageListener(messageBuffer);
-        messageSource.addStatusListener(messageBuffer);
+        List<String> names = new ArrayList<String>();
+        for (final MessagePropertyDescription propertyInfo : jobDescription.getMessagePropertyDescriptions()) {
+            names.add(propertyInfo.name);
+        }
+        this.propertyNames = names.toArray(new String[names.size()]);
+        
+        // the messages are only partitioned if there is more than one worker, and the partition property exists
+        int workerCount = Math.max(1, jobDescription.getWorkerCount());
+        this.partitionPropertyIndex = workerCount > 1 ? names.indexOf(jobDescription.getPartitionPropertyName()) : -1;
+        if (partitionPropertyIndex < 0) {
+            workerCount = 1;
+        }
+        
+        this.workers = new Worker[workerCount];
+        for (int i = 0; i < workerCount; ++i) {
+            workers[i] = new Worker(workerCount == 1 ? getName() : getName() + "-" + i);
+        }
+        
+        //set up the message dispatcher so that it will receive messages and status notifications from the message source
+        messageSource.addMessageListener(messageDispatcher);
+        messageSource.addStatusListener(messageDispatcher);
     }
     
     /**
-     * this starts the job processing messages from the message buffer
+     * Returns the worker for the given message.
+     * @param messageProperties the message property values
+     * @return the index of the worker which processes the message
+     */
+    private int getPartition(Object[] messageProperties) {
+        if (partitionPropertyIndex < 0) {
+            return 0;
+        }
+        
+        Object key = messageProperties[partitionPropertyIndex];
+        if (key == null) {
+            return 0;
+        }
+        
+        // spread the hash code bits, as the keys are often strings with similar hash codes
+        int hash = key.hashCode();
+        hash ^= (hash >>> 20) ^ (hash >>> 12);
+        hash ^= (hash >>> 7) ^ (hash >>> 4);
+        return (hash & Integer.MAX_VALUE) % workers.length;
+    }
+    
+    /**
+     * this starts the workers processing messages, and reports the job throughput until they finish
      * {@inheritDoc}
      */
     @Override
     public void run () {
+        startTime = System.currentTimeMillis();
+        
+        for (final Worker worker : workers) {
+            worker.start();
+        }
+        
         try {
-
-            //this starts the CAL processing of the message buffer 
-            Iterator<?> calResult =
-                (Iterator<?>) MonitorApp.getInstance().getCalServices().runFunction(entryPointSpec, new Object[] { messageBuffer });
-                
-            //this retrieves the results from CAL - a Boolean value is returned for each
-            //message which indicates whether or not actions were performed for the message
-            while (calResult.hasNext()) {
-                logger.info (getName() + " result: " + calResult.next());
+            for (final Worker worker : workers) {
+                while (worker.isAlive()) {
+                    worker.join(STATISTICS_INTERVAL);
+                    if (worker.isAlive()) {
+                        logger.info(getStatistics());
+                    }
+                }
             }
-
-        } catch (GemCompilationException ex) {
-            logger.warning(getName() + " CAL Compilation error: " + ex.getMessage());
-        } catch (CALExecutorException ex) {
-            logger.warning(getName() + " CAL Execution error: " + ex.getMessage());
-        } 
+        } catch (InterruptedException e) {
+            for (final Worker worker : workers) {
+                worker.interrupt();
+            }
+        }
+        
+        logger.info(getStatistics());
+    }
+    
+    /**
+     * Get a summary of the throughput of each stage of the job
+     * @return a description of the job statistics
+     */
+    String getStatistics () {
+        double seconds = Math.max(1, System.currentTimeMillis() - startTime) / 1000.0;
+        long received = messagesReceived.get();
+        
+        long backPressureWaits = 0;
+        for (final Worker worker : workers) {
+            backPressureWaits += worker.buffer.getProducerWaits();
+        }
+        
+        StringBuilder sb = new StringBuilder();
+        sb.append(getName()).append(" received ").append(received).append(" messages (")
+          .append(Math.round(received / seconds)).append(" msg/s), ")
+          .append(backPressureWaits).append(" back-pressure waits");
+        if (messagesDropped.get() > 0) {
+            sb.append(", ").append(messagesDropped.get()).append(" dropped");
+        }
+        
+        for (final Worker worker : workers) {
+            long processed = worker.messagesProcessed.get();
+            long batches = worker.batchesProcessed.get();
+            
+            sb.append("; ").append(worker.getName())
+              .append(" processed ").append(processed).append(" messages (")
+              .append(Math.round(processed / seconds)).append(" msg/s) in ")
+              .append(batches).append(" batches, ")
+              .append(worker.resultsProduced.get()).append(" results, ")
+              .append(worker.buffer.size()).append(" buffered");
+        }
+        return sb.toString();
     }
     
     /**
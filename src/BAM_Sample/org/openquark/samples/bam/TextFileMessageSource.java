@@ -40,11 +40,20 @@ package org.openquark.samples.bam;
 
 import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.openquark.cal.services.NullaryEnvironment;
 import org.openquark.cal.services.ResourcePath;
@@ -57,6 +66,14 @@ import org.openquark.samples.bam.model.MessageSourceDescription.MessagePropertyD
 /**
  * This message source reads messages form a text file.
  * 
+ * The file is read through a file channel into a direct buffer, and the columns of each 
+ * line are parsed in place into property values, so only string values need to be copied.
+ * The messages can be paced by a delay between messages (for demonstration purposes), or
+ * read as fast as possible and delivered to the listeners in batches.
+ * 
+ * When following the file, the source keeps reading lines as they are appended to the file 
+ * until it is stopped. The file is polled for new data with a delay which starts at 
+ * one millisecond and backs off while the file is idle.
  */
 public class TextFileMessageSource extends AbstractMessageSource {
     
@@ -71,19 +88,100 @@ public class TextFileMessageSource extends AbstractMessageSource {
         }
     }
     
+    /**
+     * A message holding the values of one line of the file.
+     * The column names are shared by all the messages from the file.
+     */
+    private static class LineMessage implements Message {
+        private final String messageType;
+        private final Map<String, Integer> columnIndices;
+        private final Object[] values;
+        
+        LineMessage (String messageType, Map<String, Integer> columnIndices, Object[] values) {
+            this.messageType = messageType;
+            this.columnIndices = columnIndices;
+            this.values = values;
+        }
+
+        /**
+         * @see org.openquark.samples.bam.Message#getType()
+         */
+        public String getType () {
+            return messageType;
+        }
+
+        /**
+         * @see org.openquark.samples.bam.Message#getPropertyNames()
+         */
+        public Collection<String> getPropertyNames () {
+            return columnIndices.keySet ();
+        }
+
+        /**
+         * @see org.openquark.samples.bam.Message#getProperty(java.lang.String)
+         */
+        public Object getProperty (String propertyName) {
+            Integer index = columnIndices.get (propertyName);
+            
+            return index == null ? null : values[index.intValue ()];
+        }
+        
+        @Override
+        public String toString() {
+            StringBuilder msg = new StringBuilder (messageType).append (" {");
+            for (final Map.Entry<String, Integer> entry : columnIndices.entrySet ()) {
+                msg.append (entry.getKey ()).append (" = ").append (values[entry.getValue ().intValue ()]).append (", ");
+            }
+            msg.append (" }");
+            
+            return msg.toString ();
+        }
+    }
+    
+    /** The size of the buffer used to read the file */
+    private static final int BUFFER_SIZE = 1 << 20;
+    
+    /** The maximum number of messages delivered to the listeners at a time */
+    private static final int BATCH_SIZE = 256;
+    
+    /** The longest delay between checks for new data when following the file, in milliseconds */
+    private static final long MAX_POLL_INTERVAL = 20;
+    
+    /** Powers of ten which can be represented exactly as doubles */
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15
+    };
+    
+    /** The maximum number of digits in a double parsed directly from the buffer */
+    private static final int MAX_FAST_DOUBLE_DIGITS = 15;
+    
     private final File inputFile; 
     
     private ArrayList<ColumnDef> columns = new ArrayList<ColumnDef> (); // of ColumnDefs
 
     private final String messageType; 
+    
+    private final long messageInterval;
+    
+    private final boolean follow;
 
-    private boolean cancelled = false;
+    private volatile boolean cancelled = false;
+    
+    // State used while reading the file
+    private final Charset charset = Charset.defaultCharset ();
+    private Map<String, Integer> columnIndices;
+    private boolean inHeader;
+    private final int[] fieldStarts = new int[64];
+    private final int[] fieldEnds = new int[64];
+    private char[] chars = new char[256];
+    private final List<Message> batch = new ArrayList<Message> (BATCH_SIZE);
     
     static TextFileMessageSource createInstance (MessageSourceDescription messageSourceDescription) {
         if (messageSourceDescription instanceof TextFileMessageSourceDescription) {
-            String textFilename = ((TextFileMessageSourceDescription)messageSourceDescription).getFileName();
+            TextFileMessageSourceDescription textFileDescription = (TextFileMessageSourceDescription)messageSourceDescription;
             
-            return new TextFileMessageSource (textFilename, messageSourceDescription.getName());
+            return new TextFileMessageSource (textFileDescription.getFileName(), messageSourceDescription.getName(), 
+                    textFileDescription.getMessageInterval(), textFileDescription.isFollowing());
         } else {
             return null;
         }
@@ -108,9 +206,23 @@ public class TextFileMessageSource extends AbstractMessageSource {
 
 
     public TextFileMessageSource (String fileName, String messageType) {
+        this (fileName, messageType, TextFileMessageSourceDescription.DEFAULT_MESSAGE_INTERVAL, false);
+    }
+    
+    /**
+     * Constructor TextFileMessageSource
+     * 
+     * @param fileName the name of the file to read
+     * @param messageType the type of the messages
+     * @param messageInterval the delay between messages in milliseconds, or 0 to read the file as fast as possible
+     * @param follow true if the file should be followed for new lines after the end is reached
+     */
+    public TextFileMessageSource (String fileName, String messageType, long messageInterval, boolean follow) {
         ResourcePath.FilePath filePath = new ResourcePath.FilePath(fileName.split("/|\\\\"));
         inputFile = NullaryEnvironment.getNullaryEnvironment().getFile(filePath, false);
         this.messageType = messageType;
+        this.messageInterval = messageInterval;
+        this.follow = follow;
     }
     
     private Collection<MessagePropertyDescription> getMessagePropertyInfos () throws IOException {
@@ -166,9 +278,9 @@ public class TextFileMessageSource extends AbstractMessageSource {
              */
             @Override
             public void run () {
-                FileReader reader;
+                FileInputStream inputStream;
                 try {
-                    reader = new FileReader (inputFile);
+                    inputStream = new FileInputStream (inputFile);
                 } catch (FileNotFoundException e) {
                     // TODO Auto-generated catch block
                     e.printStackTrace();
@@ -176,21 +288,22 @@ public class TextFileMessageSource extends AbstractMessageSource {
                     return;
                 }
                 
-                BufferedReader bufferedReader = new BufferedReader (reader);
+                FileChannel channel = inputStream.getChannel ();
 
                 try {
                     fireStatusChanged(STATUS_RUNNING);
                     
-                    processHeader (bufferedReader);
-                    processBody (bufferedReader);
+                    processFile (channel);
                 } catch (IOException e1) {
                     // TODO Auto-generated catch block
                     e1.printStackTrace();
+                } catch (InterruptedException e1) {
+                    // The source was interrupted - stop reading.
                 } finally {
                     fireStatusChanged(STATUS_IDLE);
                     
                     try {
-                        bufferedReader.close();
+                        channel.close();
                     } catch (IOException e2) {
                         // TODO Auto-generated catch block
                         e2.printStackTrace();
@@ -211,21 +324,31 @@ public class TextFileMessageSource extends AbstractMessageSource {
     private void processHeader (BufferedReader bufferedReader) throws IOException {
         String line = bufferedReader.readLine();
         
-        while (line != null) {
-            if (!isComment (line)) {
-                String [] pieces = line.split(",");
+        while (line != null && processHeaderLine (line)) {
+            line = bufferedReader.readLine();
+        }
+    }
+    
+    /**
+     * Method processHeaderLine
+     * 
+     * @param line
+     * @return Returns true if the header continues after this line
+     */
+    private boolean processHeaderLine (String line) {
+        if (!isComment (line)) {
+            String [] pieces = line.split(",");
+            
+            if (pieces.length == 2) {
+                int type = parseType (pieces [1]);
                 
-                if (pieces.length == 2) {
-                    int type = parseType (pieces [1]);
-                    
-                    columns.add (new ColumnDef (pieces[0], type));
-                } else {
-                    break;
-                }
+                columns.add (new ColumnDef (pieces[0], type));
+            } else {
+                return false;
             }
-            
-            line = bufferedReader.readLine();
         }
+        
+        return true;
     }
 
     /**
@@ -268,74 +391,318 @@ public class TextFileMessageSource extends AbstractMessageSource {
     }
 
     /**
-     * Method processBody
+     * Method processFile
      * 
-     * @param bufferedReader
+     * Reads the lines of the file from the channel, and delivers the messages for the body lines. 
+     * 
+     * @param channel
      */
-    private void processBody (BufferedReader bufferedReader) throws IOException {
-        String line = bufferedReader.readLine();
+    private void processFile (FileChannel channel) throws IOException, InterruptedException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect (BUFFER_SIZE);
+        startFile ();
+        
+        long pollInterval = 1;
         
-        while (line != null && !cancelled) {
-            if (!isComment (line)) {
-                processLine (line);
-            }                
+        while (!cancelled) {
+            int bytesRead = channel.read (buffer);
+            
+            if (bytesRead > 0) {
+                pollInterval = 1;
                 
-            line = bufferedReader.readLine();
+                buffer.flip ();
+                processLines (buffer);
+                deliverBatch ();
+                
+                if (!buffer.hasRemaining ()) {
+                    buffer.clear ();
+                } else if (buffer.position () > 0) {
+                    buffer.compact ();
+                } else {
+                    // The buffer holds a partial line which fills it - make room for the rest of the line.
+                    ByteBuffer largerBuffer = ByteBuffer.allocateDirect (buffer.capacity () * 2);
+                    largerBuffer.put (buffer);
+                    buffer = largerBuffer;
+                }
+                
+            } else if (!follow) {
+                // Process the last line, which is not terminated by a line break.
+                buffer.flip ();
+                if (buffer.hasRemaining ()) {
+                    processLine (buffer, buffer.position (), buffer.limit ());
+                }
+                deliverBatch ();
+                return;
+                
+            } else {
+                if (channel.size () < channel.position ()) {
+                    // The file has been truncated - start again from the beginning.
+                    channel.position (0);
+                    buffer.clear ();
+                    startFile ();
+                    continue;
+                }
+                
+                Thread.sleep (pollInterval);
+                pollInterval = Math.min (pollInterval * 2, MAX_POLL_INTERVAL);
+            }
         }
     }
+    
+    /**
+     * Method startFile
+     * 
+     * Resets the reading state, ready to read the header of the file.
+     */
+    private void startFile () {
+        columns.clear ();
+        columnIndices = null;
+        inHeader = true;
+        batch.clear ();
+    }
 
+    /**
+     * Method processLines
+     * 
+     * Processes the complete lines in the buffer, leaving the buffer positioned at the start of any partial line.
+     * 
+     * @param buffer
+     */
+    private void processLines (ByteBuffer buffer) throws InterruptedException {
+        int lineStart = buffer.position ();
+        int limit = buffer.limit ();
+        
+        for (int i = lineStart; i < limit && !cancelled; ++i) {
+            if (buffer.get (i) == '\n') {
+                processLine (buffer, lineStart, i);
+                lineStart = i + 1;
+            }
+        }
+        
+        buffer.position (cancelled ? limit : lineStart);
+    }
+    
     /**
      * Method processLine
      * 
-     * @param line
+     * @param buffer
+     * @param start the position of the start of the line in the buffer
+     * @param end the position of the end of the line in the buffer (excluding the line break)
      */
-    private void processLine (String line) {
-        DefaultMessage message = new DefaultMessage (messageType);
+    private void processLine (ByteBuffer buffer, int start, int end) throws InterruptedException {
+        if (end > start && buffer.get (end - 1) == '\r') {
+            --end;
+        }
         
-        String [] pieces = line.split(",");
+        if (inHeader) {
+            inHeader = processHeaderLine (decodeString (buffer, start, end));
+            if (!inHeader) {
+                columnIndices = new HashMap<String, Integer> ();
+                for (int i = 0; i < columns.size (); ++i) {
+                    columnIndices.put (columns.get (i).name, Integer.valueOf (i));
+                }
+                columnIndices = Collections.unmodifiableMap (columnIndices);
+            }
+            return;
+        }
         
-        if (pieces.length != columns.size()) {
-            throw new IllegalArgumentException ("Line does not match schema: " + line);
+        if (end == start || (end - start >= 2 && buffer.get (start) == '/' && buffer.get (start + 1) == '/')) {
+            // A comment.
+            return;
         }
         
-        for (int i = 0; i < pieces.length; i++) {
-            String string = pieces[i];
-            ColumnDef columnDef = columns.get(i);
-            
-            message.addValue(columnDef.name, decodeValue (string, columnDef.type));
+        // Find the fields - as with String.split, trailing empty fields are ignored.
+        int nFields = 0;
+        int fieldStart = start;
+        for (int i = start; i <= end; ++i) {
+            if (i == end || buffer.get (i) == ',') {
+                if (nFields == fieldStarts.length) {
+                    throw new IllegalArgumentException ("Line does not match schema: " + decodeString (buffer, start, end));
+                }
+                fieldStarts[nFields] = fieldStart;
+                fieldEnds[nFields] = i;
+                ++nFields;
+                fieldStart = i + 1;
+            }
+        }
+        while (nFields > 0 && fieldStarts[nFields - 1] == fieldEnds[nFields - 1]) {
+            --nFields;
         }
         
-        fireMessageReceived(message);
+        if (nFields != columns.size()) {
+            throw new IllegalArgumentException ("Line does not match schema: " + decodeString (buffer, start, end));
+        }
         
-        try {
-            Thread.sleep(1000);
-        } catch (InterruptedException e) {
-            // TODO Auto-generated catch block
-            e.printStackTrace();
+        Object[] values = new Object[nFields];
+        for (int i = 0; i < nFields; i++) {
+            values[i] = decodeValue (buffer, fieldStarts[i], fieldEnds[i], columns.get(i).type);
+        }
+        
+        deliverMessage (new LineMessage (messageType, columnIndices, values));
+    }
+    
+    /**
+     * Method deliverMessage
+     * 
+     * Adds a message to the current batch, or delivers it immediately if the messages are paced.
+     * 
+     * @param message
+     */
+    private void deliverMessage (Message message) throws InterruptedException {
+        if (messageInterval > 0) {
+            fireMessageReceived (message);
+            
+            Thread.sleep (messageInterval);
+        } else {
+            batch.add (message);
+            
+            if (batch.size () >= BATCH_SIZE) {
+                deliverBatch ();
+            }
+        }
+    }
+    
+    /**
+     * Method deliverBatch
+     * 
+     * Delivers the messages in the current batch.
+     */
+    private void deliverBatch () {
+        if (!batch.isEmpty ()) {
+            // The listeners may hold on to the list, so deliver a copy.
+            fireMessagesReceived (Arrays.asList (batch.toArray (new Message[batch.size ()])));
+            batch.clear ();
         }
     }
 
+    /**
+     * Method decodeString
+     * 
+     * @return Returns the string in the given range of the buffer
+     */
+    String decodeString (ByteBuffer buffer, int start, int end) {
+        int length = end - start;
+        if (chars.length < length) {
+            chars = new char[Math.max (length, chars.length * 2)];
+        }
+        
+        // Decode ASCII strings directly, and use the charset for anything else.
+        for (int i = 0; i < length; ++i) {
+            byte b = buffer.get (start + i);
+            if (b < 0) {
+                ByteBuffer slice = buffer.duplicate ();
+                slice.limit (end).position (start);
+                return charset.decode (slice).toString ();
+            }
+            chars[i] = (char) b;
+        }
+        
+        return new String (chars, 0, length);
+    }
+
     /**
      * Method decodeValue
      * 
      */
-    private Object decodeValue (String string, int type) {
+    private Object decodeValue (ByteBuffer buffer, int start, int end, int type) {
         switch (type) {
             case Message.STRING:
-                return string;
+                return decodeString (buffer, start, end);
                 
             case Message.INT:
-                return new Integer (Integer.parseInt(string));
+            {
+                long value = parseLong (buffer, start, end);
+                if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+                    return new Integer (Integer.parseInt(decodeString (buffer, start, end)));
+                }
+                return new Integer ((int) value);
+            }
             
             case Message.LONG:
-                return new Long (Long.parseLong(string));
+                return new Long (parseLong (buffer, start, end));
             
             case Message.DOUBLE:
-                return new Double (Double.parseDouble(string));
+                return new Double (parseDouble (buffer, start, end));
             
             default:
                 throw new IllegalArgumentException ("Unknown type: " + type);
         }
     }
+    
+    /**
+     * Method parseLong
+     * 
+     * Parses a decimal integer from the buffer. 
+     * Anything other than an optional minus sign followed by up to 18 digits is parsed by Long.parseLong, 
+     * so that the same values are accepted and the same exceptions are thrown.
+     * 
+     * @return Returns the integer in the given range of the buffer
+     */
+    long parseLong (ByteBuffer buffer, int start, int end) {
+        int i = start;
+        boolean negative = i < end && buffer.get (i) == '-';
+        if (negative) {
+            ++i;
+        }
+        
+        if (i == end || end - i > 18) {
+            return Long.parseLong (decodeString (buffer, start, end));
+        }
+        
+        long value = 0;
+        for (; i < end; ++i) {
+            int digit = buffer.get (i) - '0';
+            if (digit < 0 || digit > 9) {
+                return Long.parseLong (decodeString (buffer, start, end));
+            }
+            value = value * 10 + digit;
+        }
+        
+        return negative ? -value : value;
+    }
+    
+    /**
+     * Method parseDouble
+     * 
+     * Parses a decimal number from the buffer.
+     * Numbers with up to 15 digits and no exponent are converted exactly (as the digits and the power of ten
+     * are both exact doubles, their quotient is correctly rounded). Anything else is parsed by Double.parseDouble.
+     * 
+     * @return Returns the number in the given range of the buffer
+     */
+    double parseDouble (ByteBuffer buffer, int start, int end) {
+        int i = start;
+        boolean negative = i < end && buffer.get (i) == '-';
+        if (negative) {
+            ++i;
+        }
+        
+        long mantissa = 0;
+        int nDigits = 0;
+        int nFractionDigits = 0;
+        boolean seenPoint = false;
+        
+        for (; i < end; ++i) {
+            byte b = buffer.get (i);
+            if (b >= '0' && b <= '9') {
+                mantissa = mantissa * 10 + (b - '0');
+                ++nDigits;
+                if (seenPoint) {
+                    ++nFractionDigits;
+                }
+            } else if (b == '.' && !seenPoint) {
+                seenPoint = true;
+            } else {
+                nDigits = -1;
+                break;
+            }
+        }
+        
+        if (nDigits <= 0 || nDigits > MAX_FAST_DOUBLE_DIGITS) {
+            return Double.parseDouble (decodeString (buffer, start, end));
+        }
+        
+        double value = mantissa / POWERS_OF_TEN[nFractionDigits];
+        return negative ? -value : value;
+    }
 
 }
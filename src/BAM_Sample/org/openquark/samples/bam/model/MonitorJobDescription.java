@@ -92,6 +92,10 @@ public class MonitorJobDescription {
     
     private List<MonitorJobDescriptionListener> listeners = new ArrayList<MonitorJobDescriptionListener> (); //clients that receive modify notifications
     
+    private String partitionPropertyName = null; //the message property used to assign messages to workers, or null
+    
+    private int workerCount = 1; //the number of workers used to process the messages
+    
     public MonitorJobDescription (MessageSourceDescription messageSourceDescription) {
         jobId = "job" + ++jobNum;
         this.messageSourceDescription = messageSourceDescription;
@@ -128,6 +132,43 @@ public class MonitorJobDescription {
         return Collections.unmodifiableCollection (messagePropertyDescriptions);
     }
 
+    /**
+     * Get the name of the message property used to partition the messages between workers
+     * @return the name of the partition property, or null if the messages are not partitioned
+     */
+    public String getPartitionPropertyName () {
+        return partitionPropertyName;
+    }
+
+    /**
+     * Get the number of workers used to process the messages.
+     * The messages are only processed by more than one worker if a partition property is also set.
+     * @return the number of workers
+     */
+    public int getWorkerCount () {
+        return workerCount;
+    }
+
+    /**
+     * Sets how the messages are partitioned between workers. Each worker evaluates the triggers,
+     * actions and metrics over its own partition of the messages, and all the messages with the same value 
+     * for the partition property are processed by the same worker.
+     * <p>
+     * The monitor UI does not edit the partitioning. It is read from the PartitionProperty and WorkerCount
+     * attributes of the JobDescription element of a saved monitor document, so to partition a job, add these
+     * attributes to the document (or call this method when building a job description in code).
+     * @param partitionPropertyName the name of a message property, or null if the messages should not be partitioned
+     * @param workerCount the number of workers
+     */
+    public void setPartitioning (String partitionPropertyName, int workerCount) {
+        if (workerCount < 1) {
+            throw new IllegalArgumentException ("The worker count must be positive: " + workerCount);
+        }
+        
+        this.partitionPropertyName = partitionPropertyName;
+        this.workerCount = workerCount;
+    }
+
     public List<TriggerDescription> getTriggerDescriptions () {
         return Collections.unmodifiableList (triggerDescriptions);
     }
@@ -377,6 +418,11 @@ public class MonitorJobDescription {
         // Construct a new element for the job description.
         Element jobDescriptionElem = document.createElement (MonitorSaveConstants.JobDescription);
         parentElement.appendChild (jobDescriptionElem);
+        
+        if (partitionPropertyName != null) {
+            jobDescriptionElem.setAttribute (MonitorSaveConstants.PartitionPropertyAttr, partitionPropertyName);
+            jobDescriptionElem.setAttribute (MonitorSaveConstants.WorkerCountAttr, Integer.toString (workerCount));
+        }
 
         storeMessageSourceDescription (jobDescriptionElem);
         storeTriggerDescriptions (jobDescriptionElem);
@@ -456,11 +502,31 @@ public class MonitorJobDescription {
      * @param jobDescriptionElem
      */
     private void load (Element jobDescriptionElem) throws InvalidFileFormat, BadXMLDocumentException {
+        loadPartitioning (jobDescriptionElem);
         loadMessageSource (jobDescriptionElem);        
         loadTriggerDescriptions (jobDescriptionElem, messagePropertyDescriptions);
         loadActionDescriptions (jobDescriptionElem);
     }
 
+    /**
+     * Method loadPartitioning
+     * 
+     * @param jobDescriptionElem
+     * @throws InvalidFileFormat
+     */
+    private void loadPartitioning (Element jobDescriptionElem) throws InvalidFileFormat {
+        if (jobDescriptionElem.hasAttribute (MonitorSaveConstants.PartitionPropertyAttr)) {
+            String workerCountString = jobDescriptionElem.getAttribute (MonitorSaveConstants.WorkerCountAttr);
+            
+            try {
+                setPartitioning (jobDescriptionElem.getAttribute (MonitorSaveConstants.PartitionPropertyAttr), Integer.parseInt (workerCountString));
+            } catch (IllegalArgumentException e) {
+                // NumberFormatException is also an IllegalArgumentException
+                throw new InvalidFileFormat ("Invalid worker count: " + workerCountString);
+            }
+        }
+    }
+
     /**
      * Method loadMessageSource
      * 
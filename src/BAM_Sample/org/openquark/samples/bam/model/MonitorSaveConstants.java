@@ -56,6 +56,8 @@ public final class MonitorSaveConstants {
     public static final String RandomMessageSource = "RandomMessageSource";
     public static final String NameAttr = "Name";
     public static final String TextFileNameAttr = "TextFileName";
+    public static final String MessageIntervalAttr = "MessageInterval";
+    public static final String FollowAttr = "Follow";
     public static final String PropertyInfo = "PropertyInfo";
     public static final String DataTypeAttr = "DataType";
     public static final String TriggerDescriptions = "TriggerDescriptions";
@@ -78,5 +80,7 @@ public final class MonitorSaveConstants {
     public static final String MetricNameAttr = "MetricName";
     public static final String MetricDescriptions = "MetricDescription";
     public static final String MetricDescription = "MetricDescription";
+    public static final String PartitionPropertyAttr = "PartitionProperty";
+    public static final String WorkerCountAttr = "WorkerCount";
 
 }
@@ -52,18 +52,57 @@ import org.w3c.dom.Element;
  */
 public class TextFileMessageSourceDescription extends MessageSourceDescription {
     
+    /** The default delay between messages, which paces the messages for demonstration purposes */
+    public static final long DEFAULT_MESSAGE_INTERVAL = 1000;
+    
     private final String textFileName;
     
+    private final long messageInterval;
+    
+    private final boolean follow;
+    
     public TextFileMessageSourceDescription (String name, String textFileName) {
+        this (name, textFileName, DEFAULT_MESSAGE_INTERVAL, false);
+    }
+    
+    /**
+     * Constructor TextFileMessageSourceDescription
+     * 
+     * @param name
+     * @param textFileName
+     * @param messageInterval the delay between messages in milliseconds, or 0 to read the file as fast as possible
+     * @param follow true if the file should be followed for new lines after the end is reached
+     */
+    public TextFileMessageSourceDescription (String name, String textFileName, long messageInterval, boolean follow) {
         super (name);
         
+        if (messageInterval < 0) {
+            throw new IllegalArgumentException ("The message interval must not be negative: " + messageInterval);
+        }
+        
         this.textFileName = textFileName;
+        this.messageInterval = messageInterval;
+        this.follow = follow;
     }
     
     public String getFileName () {
         return textFileName;
     }
     
+    /**
+     * @return the delay between messages in milliseconds, or 0 if the file is read as fast as possible
+     */
+    public long getMessageInterval () {
+        return messageInterval;
+    }
+    
+    /**
+     * @return true if lines appended to the file are read after the end of the file is reached
+     */
+    public boolean isFollowing () {
+        return follow;
+    }
+    
     /**
      * {@inheritDoc}
      */
@@ -86,6 +125,13 @@ public class TextFileMessageSourceDescription extends MessageSourceDescription {
         sourceDescriptionElem.setAttribute(MonitorSaveConstants.NameAttr, getName());
         sourceDescriptionElem.setAttribute(MonitorSaveConstants.TextFileNameAttr, textFileName);
         
+        if (messageInterval != DEFAULT_MESSAGE_INTERVAL) {
+            sourceDescriptionElem.setAttribute(MonitorSaveConstants.MessageIntervalAttr, Long.toString(messageInterval));
+        }
+        if (follow) {
+            sourceDescriptionElem.setAttribute(MonitorSaveConstants.FollowAttr, Boolean.toString(follow));
+        }
+        
         return sourceDescriptionElem;
     }
 
@@ -102,7 +148,22 @@ public class TextFileMessageSourceDescription extends MessageSourceDescription {
         checkNonEmpty (name, "Invalid message source name");
         checkNonEmpty (textFileName, "Invalid message source file name");
         
-        return new TextFileMessageSourceDescription (name, textFileName);
+        long messageInterval = DEFAULT_MESSAGE_INTERVAL;
+        if (messageSourceElem.hasAttribute(MonitorSaveConstants.MessageIntervalAttr)) {
+            try {
+                messageInterval = Long.parseLong(messageSourceElem.getAttribute(MonitorSaveConstants.MessageIntervalAttr));
+            } catch (NumberFormatException e) {
+                messageInterval = -1;
+            }
+            
+            if (messageInterval < 0) {
+                throw new InvalidFileFormat ("Invalid message interval: " + messageSourceElem.getAttribute(MonitorSaveConstants.MessageIntervalAttr));
+            }
+        }
+        
+        boolean follow = Boolean.valueOf(messageSourceElem.getAttribute(MonitorSaveConstants.FollowAttr)).booleanValue();
+        
+        return new TextFileMessageSourceDescription (name, textFileName, messageInterval, follow);
     }
 
     /**
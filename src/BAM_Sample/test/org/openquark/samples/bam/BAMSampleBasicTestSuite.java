@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2007 BUSINESS OBJECTS SOFTWARE LIMITED
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *  
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *  
+ *     * Neither the name of Business Objects nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/*
+ * BAMSampleBasicTestSuite.java
+ * Created: 18-Oct-2026
+ */
+
+package org.openquark.samples.bam;
+
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * A JUnit test suite that includes all of the "fast" tests to be performed on
+ * the classes in the BAM_Sample project. By "fast", we mean that the tests in
+ * this suite should be kept relatively small so that developers can reasonably 
+ * run the test on a regular basis and before every check-in.
+ */
+public class BAMSampleBasicTestSuite extends TestSuite {
+
+    /**
+     * Constructor for BAMSampleBasicTestSuite
+     */
+    private BAMSampleBasicTestSuite () {
+        super ();
+    }
+
+    /**
+     * Constructs a test suite which contains all of the fast BAM_Sample tests.
+     * Any new fast tests created for the BAM_Sample project should have
+     * corresponding entries added in this method.
+     * 
+     * @return A test suite containing all of the BAM_Sample tests.
+     */
+    public static Test suite () {
+        TestSuite suite = new TestSuite ();
+        
+        suite.addTestSuite (BoundedRingBuffer_Test.class);
+        suite.addTestSuite (TextFileMessageSource_Test.class);
+        
+        return suite;
+    }
+}
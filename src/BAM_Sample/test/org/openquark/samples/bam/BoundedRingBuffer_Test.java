@@ -0,0 +1,433 @@
+/*
+ * Copyright (c) 2007 BUSINESS OBJECTS SOFTWARE LIMITED
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *  
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *  
+ *     * Neither the name of Business Objects nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/*
+ * BoundedRingBuffer_Test.java
+ * Created: 18-Oct-2026
+ */
+
+package org.openquark.samples.bam;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import junit.framework.TestCase;
+
+
+/**
+ * A set of JUnit test cases for {@link BoundedRingBuffer}, including handoff between
+ * several producer and consumer threads through a full and an empty buffer.
+ */
+public class BoundedRingBuffer_Test extends TestCase {
+
+    /** The longest time that a test waits for its threads to finish, in milli-seconds. */
+    private static final long THREAD_TIMEOUT = 30000;
+    
+    /**
+     * Constructor for BoundedRingBuffer_Test.
+     * @param name the name of the test
+     */
+    public BoundedRingBuffer_Test (String name) {
+        super (name);
+    }
+    
+    public void testCapacityIsRoundedUpToPowerOfTwo () {
+        assertEquals (2, new BoundedRingBuffer<Integer> (1).capacity ());
+        assertEquals (2, new BoundedRingBuffer<Integer> (2).capacity ());
+        assertEquals (8, new BoundedRingBuffer<Integer> (5).capacity ());
+        assertEquals (8, new BoundedRingBuffer<Integer> (8).capacity ());
+        assertEquals (1024, new BoundedRingBuffer<Integer> (1000).capacity ());
+        
+        try {
+            new BoundedRingBuffer<Integer> (0);
+            fail ("Expected an IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+    
+    public void testOfferAndPollAroundTheRing () {
+        BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<Integer> (4);
+        assertNull (buffer.poll ());
+        
+        // Fill and empty the buffer several times, so that the positions wrap around the ring.
+        int next = 0;
+        for (int round = 0; round < 5; ++round) {
+            for (int i = 0; i < 4; ++i) {
+                assertTrue (buffer.offer (Integer.valueOf (next + i)));
+            }
+            assertFalse (buffer.offer (Integer.valueOf (-1)));
+            assertEquals (4, buffer.size ());
+            
+            for (int i = 0; i < 4; ++i) {
+                assertEquals (Integer.valueOf (next + i), buffer.poll ());
+            }
+            assertNull (buffer.poll ());
+            assertEquals (0, buffer.size ());
+            next += 4;
+        }
+        
+        try {
+            buffer.offer (null);
+            fail ("Expected a NullPointerException");
+        } catch (NullPointerException e) {
+            // expected
+        }
+    }
+    
+    public void testDrainTo () {
+        BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<Integer> (8);
+        for (int i = 0; i < 5; ++i) {
+            buffer.offer (Integer.valueOf (i));
+        }
+        
+        List<Integer> list = new ArrayList<Integer> ();
+        assertEquals (3, buffer.drainTo (list, 3));
+        assertEquals (Arrays.asList (0, 1, 2), list);
+        assertEquals (2, buffer.drainTo (list, 10));
+        assertEquals (Arrays.asList (0, 1, 2, 3, 4), list);
+        assertEquals (0, buffer.drainTo (list, 10));
+    }
+    
+    public void testPutAll () throws InterruptedException {
+        BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<Integer> (8);
+        assertEquals (3, buffer.putAll (Arrays.asList (0, 1, 2)));
+        assertEquals (0, buffer.putAll (Arrays.<Integer>asList ()));
+        assertEquals (5, buffer.putAll (Arrays.asList (3, 4, 5, 6, 7)));
+        assertEquals (8, buffer.size ());
+        assertEquals (0, buffer.getProducerWaits ());
+        assertFalse (buffer.offer (Integer.valueOf (8)));
+        
+        List<Integer> list = new ArrayList<Integer> ();
+        buffer.drainTo (list, 10);
+        assertEquals (Arrays.asList (0, 1, 2, 3, 4, 5, 6, 7), list);
+        
+        try {
+            buffer.putAll (Arrays.asList (1, null));
+            fail ("Expected a NullPointerException");
+        } catch (NullPointerException e) {
+            // expected
+        }
+        assertEquals (0, buffer.size ());
+    }
+    
+    /**
+     * Checks that a list with more elements than the buffer can hold is added in parts as a consumer makes space.
+     */
+    public void testPutAllLargerThanCapacity () throws InterruptedException {
+        final BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<Integer> (4);
+        final List<Integer> elements = new ArrayList<Integer> ();
+        for (int i = 0; i < 1000; ++i) {
+            elements.add (Integer.valueOf (i));
+        }
+        
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable> ();
+        Thread producer = new Thread ("Producer") {
+            @Override
+            public void run () {
+                try {
+                    buffer.putAll (elements);
+                } catch (Throwable e) {
+                    failure.set (e);
+                }
+            }
+        };
+        producer.start ();
+        
+        List<Integer> received = new ArrayList<Integer> ();
+        long deadline = System.currentTimeMillis () + THREAD_TIMEOUT;
+        while (received.size () < elements.size () && System.currentTimeMillis () < deadline) {
+            if (buffer.drainTo (received, 3) == 0) {
+                buffer.awaitNotEmpty (TimeUnit.MILLISECONDS.toNanos (1));
+            }
+        }
+        producer.join (THREAD_TIMEOUT);
+        assertFalse (producer.isAlive ());
+        assertNull (failure.get ());
+        assertEquals (elements, received);
+    }
+    
+    /**
+     * Checks that a producer blocked on a full buffer is released when a consumer takes an element.
+     */
+    public void testPutWaitsWhileFull () throws InterruptedException {
+        final BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<Integer> (2);
+        assertTrue (buffer.put (Integer.valueOf (1)));
+        assertTrue (buffer.put (Integer.valueOf (2)));
+        assertEquals (0, buffer.getProducerWaits ());
+        
+        final AtomicBoolean added = new AtomicBoolean ();
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable> ();
+        Thread producer = new Thread ("Producer") {
+            @Override
+            public void run () {
+                try {
+                    added.set (buffer.put (Integer.valueOf (3)));
+                } catch (Throwable e) {
+                    failure.set (e);
+                }
+            }
+        };
+        producer.start ();
+        
+        Thread.sleep (100);
+        assertTrue (producer.isAlive ());
+        assertEquals (2, buffer.size ());
+        
+        assertEquals (Integer.valueOf (1), buffer.poll ());
+        producer.join (THREAD_TIMEOUT);
+        assertFalse (producer.isAlive ());
+        assertNull (failure.get ());
+        assertTrue (added.get ());
+        assertTrue (buffer.getProducerWaits () > 0);
+        
+        assertEquals (Integer.valueOf (2), buffer.poll ());
+        assertEquals (Integer.valueOf (3), buffer.poll ());
+        assertNull (buffer.poll ());
+    }
+    
+    /**
+     * Checks that a producer blocked on a full buffer can be interrupted.
+     */
+    public void testPutIsInterruptible () throws InterruptedException {
+        final BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<Integer> (1);
+        assertTrue (buffer.offer (Integer.valueOf (1)));
+        assertTrue (buffer.offer (Integer.valueOf (2)));
+        assertFalse (buffer.offer (Integer.valueOf (3)));
+        
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable> ();
+        Thread producer = new Thread ("Producer") {
+            @Override
+            public void run () {
+                try {
+                    buffer.put (Integer.valueOf (3));
+                } catch (Throwable e) {
+                    failure.set (e);
+                }
+            }
+        };
+        producer.start ();
+        
+        Thread.sleep (50);
+        producer.interrupt ();
+        producer.join (THREAD_TIMEOUT);
+        assertFalse (producer.isAlive ());
+        assertTrue (failure.get () instanceof InterruptedException);
+        assertEquals (2, buffer.size ());
+    }
+    
+    /**
+     * Checks that a producer blocked on a full buffer is released when the buffer is closed,
+     * discarding the elements it has not added, and that nothing more is added to a closed buffer.
+     */
+    public void testCloseReleasesProducer () throws InterruptedException {
+        final BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<Integer> (4);
+        assertEquals (3, buffer.putAll (Arrays.asList (1, 2, 3)));
+        
+        final AtomicInteger nAdded = new AtomicInteger (-1);
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable> ();
+        Thread producer = new Thread ("Producer") {
+            @Override
+            public void run () {
+                try {
+                    nAdded.set (buffer.putAll (Arrays.asList (4, 5, 6)));
+                } catch (Throwable e) {
+                    failure.set (e);
+                }
+            }
+        };
+        producer.start ();
+        
+        Thread.sleep (100);
+        assertTrue (producer.isAlive ());
+        assertFalse (buffer.isClosed ());
+        
+        buffer.close ();
+        producer.join (THREAD_TIMEOUT);
+        assertFalse (producer.isAlive ());
+        assertNull (failure.get ());
+        assertEquals (1, nAdded.get ());
+        assertTrue (buffer.isClosed ());
+        
+        assertFalse (buffer.offer (Integer.valueOf (7)));
+        assertFalse (buffer.put (Integer.valueOf (7)));
+        assertEquals (0, buffer.putAll (Arrays.asList (7, 8)));
+        
+        // The elements added before the buffer was closed can still be removed.
+        List<Integer> list = new ArrayList<Integer> ();
+        assertEquals (4, buffer.drainTo (list, 10));
+        assertEquals (Arrays.asList (1, 2, 3, 4), list);
+        assertFalse (buffer.offer (Integer.valueOf (7)));
+    }
+    
+    /**
+     * Checks that a consumer waiting on an empty buffer sees an element added by another thread.
+     */
+    public void testAwaitNotEmpty () throws InterruptedException {
+        final BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<Integer> (4);
+        assertFalse (buffer.awaitNotEmpty (TimeUnit.MILLISECONDS.toNanos (20)));
+        
+        Thread producer = new Thread ("Producer") {
+            @Override
+            public void run () {
+                try {
+                    Thread.sleep (50);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                buffer.offer (Integer.valueOf (1));
+            }
+        };
+        producer.start ();
+        
+        long deadline = System.currentTimeMillis () + THREAD_TIMEOUT;
+        while (!buffer.awaitNotEmpty (TimeUnit.SECONDS.toNanos (1))) {
+            assertTrue (System.currentTimeMillis () < deadline);
+        }
+        assertEquals (Integer.valueOf (1), buffer.poll ());
+        producer.join (THREAD_TIMEOUT);
+    }
+    
+    /**
+     * Passes messages from several producers to several consumers through a small buffer,
+     * so that the producers repeatedly find the buffer full and the consumers find it empty.
+     * Half of the producers add their messages one at a time, and the others add them in batches.
+     * Each message must be received exactly once, and each consumer must receive the messages of 
+     * each producer in the order in which they were added.
+     */
+    public void testMultipleProducersAndConsumers () throws InterruptedException {
+        final int nProducers = 4;
+        final int nConsumers = 3;
+        final int messagesPerProducer = 20000;
+        final int nMessages = nProducers * messagesPerProducer;
+        
+        final BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<Integer> (8);
+        final CountDownLatch start = new CountDownLatch (1);
+        final AtomicInteger nReceived = new AtomicInteger ();
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable> ();
+        final int[] receiveCounts = new int[nMessages];
+        
+        List<Thread> threads = new ArrayList<Thread> ();
+        for (int p = 0; p < nProducers; ++p) {
+            final int firstMessage = p * messagesPerProducer;
+            final boolean useBatches = p % 2 == 1;
+            threads.add (new Thread ("Producer " + p) {
+                @Override
+                public void run () {
+                    try {
+                        start.await ();
+                        if (useBatches) {
+                            // Add the messages in batches of varying sizes, some larger than the buffer.
+                            List<Integer> batch = new ArrayList<Integer> ();
+                            for (int i = 0; i < messagesPerProducer; ++i) {
+                                batch.add (Integer.valueOf (firstMessage + i));
+                                if (batch.size () == 1 + i % 13) {
+                                    buffer.putAll (batch);
+                                    batch.clear ();
+                                }
+                            }
+                            buffer.putAll (batch);
+                        } else {
+                            for (int i = 0; i < messagesPerProducer; ++i) {
+                                buffer.put (Integer.valueOf (firstMessage + i));
+                            }
+                        }
+                    } catch (Throwable e) {
+                        failure.compareAndSet (null, e);
+                    }
+                }
+            });
+        }
+        for (int c = 0; c < nConsumers; ++c) {
+            threads.add (new Thread ("Consumer " + c) {
+                @Override
+                public void run () {
+                    try {
+                        start.await ();
+                        
+                        // The last message received from each producer
+                        int[] lastReceived = new int[nProducers];
+                        Arrays.fill (lastReceived, -1);
+                        
+                        while (nReceived.get () < nMessages && failure.get () == null) {
+                            Integer message = buffer.poll ();
+                            if (message == null) {
+                                buffer.awaitNotEmpty (TimeUnit.MILLISECONDS.toNanos (1));
+                                continue;
+                            }
+                            
+                            int value = message.intValue ();
+                            int producer = value / messagesPerProducer;
+                            if (value <= lastReceived[producer]) {
+                                throw new AssertionError ("Message " + value + " received after message " + lastReceived[producer]);
+                            }
+                            lastReceived[producer] = value;
+                            
+                            synchronized (receiveCounts) {
+                                ++receiveCounts[value];
+                            }
+                            nReceived.incrementAndGet ();
+                        }
+                    } catch (Throwable e) {
+                        failure.compareAndSet (null, e);
+                    }
+                }
+            });
+        }
+        
+        for (final Thread thread : threads) {
+            thread.start ();
+        }
+        start.countDown ();
+        for (final Thread thread : threads) {
+            thread.join (THREAD_TIMEOUT);
+            assertFalse (thread.getName () + " did not finish", thread.isAlive ());
+        }
+        
+        if (failure.get () != null) {
+            throw new AssertionError (failure.get ());
+        }
+        assertEquals (nMessages, nReceived.get ());
+        synchronized (receiveCounts) {
+            for (int i = 0; i < nMessages; ++i) {
+                assertEquals ("Receive count of message " + i, 1, receiveCounts[i]);
+            }
+        }
+        assertNull (buffer.poll ());
+        assertEquals (0, buffer.size ());
+    }
+}
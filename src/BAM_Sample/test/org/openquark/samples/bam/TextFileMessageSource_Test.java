@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2007 BUSINESS OBJECTS SOFTWARE LIMITED
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *  
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *  
+ *     * Neither the name of Business Objects nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/*
+ * TextFileMessageSource_Test.java
+ * Created: 18-Oct-2026
+ */
+
+package org.openquark.samples.bam;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+
+/**
+ * A set of JUnit test cases which check that the parsers used by {@link TextFileMessageSource} 
+ * give the same results as {@link Long#parseLong(String)}, {@link Double#parseDouble(String)} and
+ * the default charset, including for the values which they hand over to those methods.
+ */
+public class TextFileMessageSource_Test extends TestCase {
+
+    /** Values for the integer parser, including overflow, signs alone and non-ASCII digits. */
+    private static final String[] LONG_VALUES = {
+        "0", "7", "-7", "-0", "0042", "2147483647", "2147483648", "-2147483649",
+        "123456789012345678", "999999999999999999", "-999999999999999999",
+        "1234567890123456789", "9223372036854775807", "-9223372036854775808",
+        "9223372036854775808", "-9223372036854775809", "99999999999999999999", "0000000000000000000000007",
+        "", "-", "+", "+5", "--5", "5-", "1-5", "1.5", ".", "1e3", " 5", "5 ", "0x10",
+        "\u0661\u0662\u0663", "-\u0661\u0662", "\uff11\uff12", "caf\u00e9", "\u20ac5"
+    };
+    
+    /** Values for the number parser, including exponents, points and signs alone, and non-ASCII characters. */
+    private static final String[] DOUBLE_VALUES = {
+        "0", "-0", "0.0", "-0.0", "1", "-1", "1.5", "-1.5", ".5", "-.5", "5.", "-5.",
+        "0.1", "0.2", "0.3", "3.14159265358979", "-2.71828182845904", "12345678901234.5",
+        "123456789012345", "1234567890123456", "9007199254740993", "0.000000000000001", "0.00000000000001",
+        "999999999999999", "99999999999999.99", "1" + "000000000000000000000",
+        "1e10", "1E-5", "-1.5e+3", "1e400", "1e-400", "2.5e", "e5",
+        "", "-", "+", ".", "-.", "..", "1..2", "1.2.3", "+1.5", "--1", "1-", " 1.5", "1.5 ",
+        "Infinity", "-Infinity", "NaN", "0x1p3", "1d", "1f",
+        "\u0661.\u0665", "1\u00b75", "\u00bd"
+    };
+    
+    private final TextFileMessageSource messageSource = new TextFileMessageSource ("test.txt", "Test");
+    
+    /**
+     * Constructor for TextFileMessageSource_Test.
+     * @param name the name of the test
+     */
+    public TextFileMessageSource_Test (String name) {
+        super (name);
+    }
+    
+    /**
+     * Encodes a value with the default charset, and places it in the middle of a buffer between other 
+     * characters, so that the parsers must respect the bounds they are given.
+     * @return the buffer, with the value from position 3 up to the limit minus 3
+     */
+    private static ByteBuffer makeBuffer (byte[] bytes, boolean direct) {
+        ByteBuffer buffer = direct ? ByteBuffer.allocateDirect (bytes.length + 6) : ByteBuffer.allocate (bytes.length + 6);
+        buffer.put ("9,-".getBytes ()).put (bytes).put ("-,9".getBytes ());
+        buffer.flip ();
+        return buffer;
+    }
+    
+    private static byte[] encode (String value) {
+        return value.getBytes (Charset.defaultCharset ());
+    }
+    
+    public void testDecodeString () {
+        String[] values = {"", "abc", "a,b", "caf\u00e9", "\u20ac", "\u65e5\u672c", "\u0661\u0662"};
+        for (final String value : values) {
+            byte[] bytes = encode (value);
+            String expected = new String (bytes, Charset.defaultCharset ());
+            for (final boolean direct : new boolean[] {false, true}) {
+                ByteBuffer buffer = makeBuffer (bytes, direct);
+                assertEquals (expected, messageSource.decodeString (buffer, 3, 3 + bytes.length));
+            }
+        }
+        
+        // The buffer used for the characters grows as needed.
+        StringBuilder sb = new StringBuilder ();
+        for (int i = 0; i < 1000; ++i) {
+            sb.append ((char) ('a' + i % 26));
+        }
+        byte[] bytes = encode (sb.toString ());
+        assertEquals (sb.toString (), messageSource.decodeString (makeBuffer (bytes, false), 3, 3 + bytes.length));
+    }
+    
+    public void testParseLongMatchesLongParseLong () {
+        for (final String value : LONG_VALUES) {
+            byte[] bytes = encode (value);
+            String decodedValue = new String (bytes, Charset.defaultCharset ());
+            
+            Long expected;
+            try {
+                expected = Long.valueOf (Long.parseLong (decodedValue));
+            } catch (NumberFormatException e) {
+                expected = null;
+            }
+            
+            for (final boolean direct : new boolean[] {false, true}) {
+                ByteBuffer buffer = makeBuffer (bytes, direct);
+                try {
+                    long actual = messageSource.parseLong (buffer, 3, 3 + bytes.length);
+                    assertNotNull ("Expected a NumberFormatException for \"" + value + "\"", expected);
+                    assertEquals ("Parsing \"" + value + "\"", expected.longValue (), actual);
+                } catch (NumberFormatException e) {
+                    assertNull ("Unexpected NumberFormatException for \"" + value + "\"", expected);
+                }
+            }
+        }
+    }
+    
+    public void testParseDoubleMatchesDoubleParseDouble () {
+        for (final String value : DOUBLE_VALUES) {
+            byte[] bytes = encode (value);
+            String decodedValue = new String (bytes, Charset.defaultCharset ());
+            
+            Double expected;
+            try {
+                expected = Double.valueOf (Double.parseDouble (decodedValue));
+            } catch (NumberFormatException e) {
+                expected = null;
+            }
+            
+            for (final boolean direct : new boolean[] {false, true}) {
+                ByteBuffer buffer = makeBuffer (bytes, direct);
+                try {
+                    double actual = messageSource.parseDouble (buffer, 3, 3 + bytes.length);
+                    assertNotNull ("Expected a NumberFormatException for \"" + value + "\"", expected);
+                    
+                    // Compare the bits, so that -0.0 is distinguished from 0.0 and the rounding must be identical.
+                    assertEquals ("Parsing \"" + value + "\"", 
+                            Double.doubleToRawLongBits (expected.doubleValue ()), Double.doubleToRawLongBits (actual));
+                } catch (NumberFormatException e) {
+                    assertNull ("Unexpected NumberFormatException for \"" + value + "\"", expected);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Compares the number parser with Double.parseDouble for random values with up to 15 digits, 
+     * which are converted without Double.parseDouble.
+     */
+    public void testParseDoubleIsCorrectlyRounded () {
+        Random random = new Random (18102026);
+        for (int i = 0; i < 100000; ++i) {
+            int nDigits = 1 + random.nextInt (15);
+            StringBuilder sb = new StringBuilder ();
+            if (random.nextBoolean ()) {
+                sb.append ('-');
+            }
+            int pointPosition = random.nextInt (nDigits + 1);
+            for (int digit = 0; digit < nDigits; ++digit) {
+                if (digit == pointPosition) {
+                    sb.append ('.');
+                }
+                sb.append ((char) ('0' + random.nextInt (10)));
+            }
+            
+            String value = sb.toString ();
+            byte[] bytes = encode (value);
+            double actual = messageSource.parseDouble (makeBuffer (bytes, false), 3, 3 + bytes.length);
+            assertEquals ("Parsing \"" + value + "\"", 
+                    Double.doubleToRawLongBits (Double.parseDouble (value)), Double.doubleToRawLongBits (actual));
+        }
+    }
+}
@@ -101,12 +101,13 @@ for i in $runlabels; do
             fi
 
             #if the zip file name contains the "con" string run it with the concurtrent flag
+            #as well as any defines given in the benchmark file
             if [ `echo $name | grep -c con` -ne 0 ]; then
                 echo Running with Concurrent
-                defines="-Dorg.openquark.cal.machine.lecc.concurrent_runtime"
+                runDefines="$defines -Dorg.openquark.cal.machine.lecc.concurrent_runtime"
             else
                 echo Running non-Concurrent
-                defines=""
+                runDefines="$defines"
             fi
 
             #make the benchmark script for just this pt command
@@ -123,7 +124,7 @@ for i in $runlabels; do
             pushd $name/Quark
 
             cat ../../benchscript
-            ./$startice $defines org.openquark.cal.ICE -script ../../benchscript &> ../../$name$i.log &
+            ./$startice $runDefines org.openquark.cal.ICE -script ../../benchscript &> ../../$name$i.log &
             wait $!
             popd
 
@@ -0,0 +1,729 @@
+/*
+ * Copyright (c) 2007 BUSINESS OBJECTS SOFTWARE LIMITED
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *  
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *  
+ *     * Neither the name of Business Objects nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+
+/*
+ * ShootoutBenchmarks.java
+ * Created: Oct 18, 2026
+ */
+package org.openquark.cal.benchmark.shootout.test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.openquark.cal.compiler.CompilerMessage;
+import org.openquark.cal.compiler.CompilerMessageLogger;
+import org.openquark.cal.compiler.MessageLogger;
+import org.openquark.cal.compiler.ModuleName;
+import org.openquark.cal.compiler.QualifiedName;
+import org.openquark.cal.compiler.io.EntryPoint;
+import org.openquark.cal.compiler.io.EntryPointSpec;
+import org.openquark.cal.compiler.io.InputPolicy;
+import org.openquark.cal.compiler.io.OutputPolicy;
+import org.openquark.cal.machine.CALExecutor;
+import org.openquark.cal.runtime.ExecutionContext;
+import org.openquark.cal.runtime.MachineConfiguration;
+import org.openquark.cal.runtime.MachineType;
+import org.openquark.cal.services.DefaultWorkspaceDeclarationProvider;
+import org.openquark.cal.services.Status;
+import org.openquark.cal.services.WorkspaceConfiguration;
+import org.openquark.cal.services.WorkspaceManager;
+
+
+/**
+ * A benchmark harness for the shootout programs, which runs each program's CAL implementation through a 
+ * CALExecutor on the lecc and g machines, next to its Java implementation, and reports statistics on the run times
+ * and the memory allocated.
+ * <p>
+ * The harness follows the approach of JMH (the Java Microbenchmark Harness), which can't be used directly
+ * as the CAL platform is built for Java 1.5:
+ * <ul>
+ *   <li>Each combination of benchmark, implementation and machine is run in a number of forked JVMs, so that the
+ *       results aren't skewed by the profile (JIT compiled code, heap layout) built up by other benchmarks.
+ *   <li>Each fork runs a number of warmup iterations, whose times are discarded, followed by the measured iterations.
+ *   <li>The score is the mean time per iteration over the measured iterations of all forks, with the error given
+ *       by the 99.9% confidence interval.
+ *   <li>As with the JMH GC profiler, the memory allocated by the benchmark thread and the number of and time taken by
+ *       garbage collections are recorded for each iteration, and reported as an allocation rate and normalized 
+ *       allocation per iteration.  Allocation figures require a JVM which supports 
+ *       com.sun.management.ThreadMXBean.getThreadAllocatedBytes().
+ * </ul>
+ * The results are printed as a table, and written to a CSV file so that they can be compared from release to release.
+ * <p>
+ * The harness should be run from the CAL_Benchmarks folder, so that the data files used as input by some of the 
+ * benchmarks can be found.  It compiles the workspace given by the org.openquark.cal.benchmark.workspace system property,
+ * or cal.benchmark.cws by default.  The machine type is passed to the forked JVMs using the machine type system property,
+ * which is why the workspace manager is created directly rather than through BasicCALServices.  For example:
+ * <pre>
+ *   java -Xmx512M -cp ... org.openquark.cal.benchmark.shootout.test.ShootoutBenchmarks -forks 3 -results results.csv nbody spectralnorm
+ * </pre>
+ * Run with -help for the full list of options.
+ */
+public final class ShootoutBenchmarks {
+    
+    /** The system property for the workspace to compile in the forked JVMs. */
+    private static final String WORKSPACE_FILE_PROPERTY = "org.openquark.cal.benchmark.workspace";
+    
+    /** The default workspace. */
+    private static final String DEFAULT_WORKSPACE_FILE_NAME = "cal.benchmark.cws";
+    
+    /** The client id for the workspace. */
+    private static final String WORKSPACE_CLIENT_ID = "benchmarks";
+    
+    /** The prefix of the lines written by a forked JVM to report the measurements for an iteration. */
+    private static final String ITERATION_RESULT_PREFIX = "#iteration";
+    
+    /** The name of the CAL implementations. */
+    private static final String CAL_IMPLEMENTATION = "cal";
+    
+    /** The name of the Java implementations. */
+    private static final String JAVA_IMPLEMENTATION = "java";
+    
+    /** The machine type reported for the Java implementations. */
+    private static final String NO_MACHINE = "-";
+    
+    /** The module containing the shootout programs. */
+    private static final String SHOOTOUT_MODULE_PREFIX = "Cal.Benchmarks.Shootout.";
+    
+    /** The package containing the Java implementations. */
+    private static final String JAVA_IMPLEMENTATION_PACKAGE = "org.openquark.cal.benchmarks.shootout.java.";
+    
+    /**
+     * Two sided 99.9% quantiles of Student's t distribution for 1 to 30 degrees of freedom.
+     */
+    private static final double[] STUDENT_T_999 = {
+        636.619, 31.599, 12.924, 8.610, 6.869, 5.959, 5.408, 5.041, 4.781, 4.587,
+        4.437, 4.318, 4.221, 4.140, 4.073, 4.015, 3.965, 3.922, 3.883, 3.850,
+        3.819, 3.792, 3.768, 3.745, 3.725, 3.707, 3.690, 3.674, 3.659, 3.646
+    };
+
+    /**
+     * A shootout program, with the arguments and input used to benchmark it.
+     */
+    private static final class Benchmark {
+        
+        /** The name of the benchmark.  This is the name of the Java implementation class. */
+        private final String name;
+        
+        /** The unqualified name of the module in Cal.Benchmarks.Shootout containing the CAL implementation. */
+        private final String calModuleName;
+        
+        /** The command line arguments for the program. */
+        private final String[] args;
+        
+        /** The name of the file to be used as standard input for the program, or null if none. */
+        private final String inputFileName;
+        
+        Benchmark(String name, String calModuleName, String[] args, String inputFileName) {
+            this.name = name;
+            this.calModuleName = calModuleName;
+            this.args = args;
+            this.inputFileName = inputFileName;
+        }
+    }
+    
+    /**
+     * The benchmarks, by name.
+     * The arguments are chosen so that each iteration takes somewhere between a tenth of a second and a few seconds,
+     * and the input files are those used for verifying the programs.
+     */
+    private static final Map<String, Benchmark> benchmarks = new LinkedHashMap<String, Benchmark>();
+    
+    static {
+        addBenchmark(new Benchmark("binarytrees", "BinaryTrees", new String[] {"14"}, null));
+        addBenchmark(new Benchmark("fannkuch", "Fannkuch", new String[] {"9"}, null));
+        addBenchmark(new Benchmark("fasta", "Fasta", new String[] {"250000"}, null));
+        addBenchmark(new Benchmark("knucleotide", "KNucleotide", new String[0], "data/knucleotide-input.txt"));
+        addBenchmark(new Benchmark("mandelbrot", "Mandelbrot", new String[] {"1000"}, null));
+        addBenchmark(new Benchmark("nbody", "NBody", new String[] {"1000000"}, null));
+        addBenchmark(new Benchmark("nsieve", "Nsieve", new String[] {"7"}, null));
+        addBenchmark(new Benchmark("nsievebits", "NsieveBits", new String[] {"7"}, null));
+        addBenchmark(new Benchmark("partialsums", "PartialSums", new String[] {"500000"}, null));
+        addBenchmark(new Benchmark("pidigits", "PiDigits", new String[] {"500"}, null));
+        addBenchmark(new Benchmark("recursive", "Recursive", new String[] {"7"}, null));
+        addBenchmark(new Benchmark("regexdna", "RegexDna", new String[0], "data/regexdna-input.txt"));
+        addBenchmark(new Benchmark("revcomp", "Revcomp", new String[0], "data/revcomp-input.txt"));
+        addBenchmark(new Benchmark("spectralnorm", "SpectralNorm", new String[] {"500"}, null));
+        addBenchmark(new Benchmark("sumcol", "Sumcol", new String[0], "data/sumcol-input.txt"));
+        addBenchmark(new Benchmark("meteor", "Meteor", new String[] {"2098"}, null));
+    }
+    
+    /**
+     * @param benchmark a benchmark to add to the map of benchmarks.
+     */
+    private static void addBenchmark(Benchmark benchmark) {
+        benchmarks.put(benchmark.name, benchmark);
+    }
+    
+    /**
+     * The measurements for one iteration of a benchmark.
+     */
+    private static final class IterationResult {
+        
+        /** The time taken by the iteration, in nanoseconds. */
+        private final long timeNanos;
+        
+        /** The number of bytes allocated by the benchmark thread, or -1 if unknown. */
+        private final long allocatedBytes;
+        
+        /** The number of garbage collections during the iteration. */
+        private final long gcCount;
+        
+        /** The time spent in garbage collection during the iteration, in milliseconds. */
+        private final long gcTimeMillis;
+        
+        IterationResult(long timeNanos, long allocatedBytes, long gcCount, long gcTimeMillis) {
+            this.timeNanos = timeNanos;
+            this.allocatedBytes = allocatedBytes;
+            this.gcCount = gcCount;
+            this.gcTimeMillis = gcTimeMillis;
+        }
+        
+        /**
+         * @return the line written by a forked JVM to report this result.
+         */
+        String toResultLine() {
+            return ITERATION_RESULT_PREFIX + "\t" + timeNanos + "\t" + allocatedBytes + "\t" + gcCount + "\t" + gcTimeMillis;
+        }
+        
+        /**
+         * @param line a line written by a forked JVM.
+         * @return the result reported by the line, or null if the line doesn't report a result.
+         */
+        static IterationResult fromResultLine(String line) {
+            if (!line.startsWith(ITERATION_RESULT_PREFIX + "\t")) {
+                return null;
+            }
+            String[] fields = line.split("\t");
+            return new IterationResult(Long.parseLong(fields[1]), Long.parseLong(fields[2]), Long.parseLong(fields[3]), Long.parseLong(fields[4]));
+        }
+    }
+    
+    /**
+     * Runs a single implementation of a benchmark in the current JVM.
+     */
+    private static abstract class BenchmarkRunner {
+        
+        /** The benchmark being run. */
+        final Benchmark benchmark;
+        
+        BenchmarkRunner(Benchmark benchmark) {
+            this.benchmark = benchmark;
+        }
+        
+        /**
+         * Runs the benchmark once.
+         * @throws Exception if the benchmark failed.
+         */
+        abstract void runOnce() throws Exception;
+        
+        /**
+         * Called after each run, to discard any state which would otherwise be carried over to the next run.
+         */
+        void afterRun() {
+        }
+    }
+    
+    /**
+     * Runs the CAL implementation of a benchmark through a CALExecutor.
+     */
+    private static final class CALBenchmarkRunner extends BenchmarkRunner {
+        
+        private final WorkspaceManager workspaceManager;
+        private final ExecutionContext executionContext;
+        private final CALExecutor executor;
+        private final EntryPoint entryPoint;
+        
+        CALBenchmarkRunner(Benchmark benchmark, WorkspaceManager workspaceManager) {
+            super(benchmark);
+            
+            this.workspaceManager = workspaceManager;
+            executionContext = workspaceManager.makeExecutionContextWithDefaultProperties();
+            executor = workspaceManager.makeExecutor(executionContext);
+            
+            ModuleName moduleName = ModuleName.make(SHOOTOUT_MODULE_PREFIX + benchmark.calModuleName);
+            EntryPointSpec entryPointSpec = EntryPointSpec.make(
+                QualifiedName.make(moduleName, "main"), new InputPolicy[] {InputPolicy.DEFAULT_INPUT_POLICY}, OutputPolicy.DEFAULT_OUTPUT_POLICY);
+            
+            CompilerMessageLogger messageLogger = new MessageLogger();
+            entryPoint = workspaceManager.getCompiler().getEntryPoint(entryPointSpec, moduleName, messageLogger);
+            if (entryPoint == null || messageLogger.getMaxSeverity().compareTo(CompilerMessage.Severity.ERROR) >= 0) {
+                throw new IllegalStateException("Unable to create an entry point for " + entryPointSpec + ": " + messageLogger);
+            }
+        }
+        
+        @Override
+        void runOnce() throws Exception {
+            executor.exec(entryPoint, new Object[] {Arrays.asList(benchmark.args)});
+        }
+        
+        @Override
+        void afterRun() {
+            // Don't let one run reuse the CAFs evaluated by the previous one.
+            workspaceManager.resetCachedResults(executionContext);
+        }
+    }
+    
+    /**
+     * Runs the Java implementation of a benchmark by calling its main method.
+     */
+    private static final class JavaBenchmarkRunner extends BenchmarkRunner {
+        
+        private final Method mainMethod;
+        
+        JavaBenchmarkRunner(Benchmark benchmark) throws ClassNotFoundException, NoSuchMethodException {
+            super(benchmark);
+            mainMethod = Class.forName(JAVA_IMPLEMENTATION_PACKAGE + benchmark.name).getMethod("main", new Class<?>[] {String[].class});
+        }
+        
+        @Override
+        void runOnce() throws Exception {
+            try {
+                mainMethod.invoke(null, new Object[] {benchmark.args.clone()});
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof Exception) {
+                    throw (Exception)cause;
+                }
+                throw e;
+            }
+        }
+    }
+    
+    /** Not intended to be instantiated. */
+    private ShootoutBenchmarks() {
+    }
+    
+    /**
+     * Runs the benchmarks.
+     * @param args the command line arguments.  Run with -help for a description.
+     * @throws Exception
+     */
+    public static void main(String[] args) throws Exception {
+        
+        if (args.length > 0 && args[0].equals("-fork")) {
+            // This is a forked JVM.
+            runFork(args[1], args[2], Integer.parseInt(args[3]), Integer.parseInt(args[4]));
+            return;
+        }
+        
+        List<String> machineTypes = Arrays.asList(new String[] {MachineType.LECC.toString(), MachineType.G.toString()});
+        List<String> implementations = Arrays.asList(new String[] {CAL_IMPLEMENTATION, JAVA_IMPLEMENTATION});
+        int nForks = 2;
+        int nWarmupIterations = 3;
+        int nIterations = 5;
+        String resultsFileName = "shootout-results.csv";
+        List<Benchmark> benchmarksToRun = new ArrayList<Benchmark>();
+        
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("-machines")) {
+                machineTypes = Arrays.asList(args[++i].split(","));
+            } else if (arg.equals("-implementations")) {
+                implementations = Arrays.asList(args[++i].split(","));
+            } else if (arg.equals("-forks")) {
+                nForks = Integer.parseInt(args[++i]);
+            } else if (arg.equals("-warmup")) {
+                nWarmupIterations = Integer.parseInt(args[++i]);
+            } else if (arg.equals("-iterations")) {
+                nIterations = Integer.parseInt(args[++i]);
+            } else if (arg.equals("-results")) {
+                resultsFileName = args[++i];
+            } else if (arg.startsWith("-")) {
+                usage();
+                return;
+            } else {
+                Benchmark benchmark = benchmarks.get(arg);
+                if (benchmark == null) {
+                    System.err.println("Unknown benchmark: " + arg);
+                    usage();
+                    return;
+                }
+                benchmarksToRun.add(benchmark);
+            }
+        }
+        
+        if (benchmarksToRun.isEmpty()) {
+            benchmarksToRun.addAll(benchmarks.values());
+        }
+        
+        PrintWriter resultsWriter = new PrintWriter(new FileWriter(resultsFileName));
+        try {
+            resultsWriter.println("Benchmark,Implementation,Machine,Forks,Samples,Score,Error,Unit,AllocRate (MB/sec),AllocNorm (B/op),GcCount,GcTime (ms)");
+            
+            System.out.println(String.format("%-14s %-5s %-5s %5s %12s %12s %14s %14s %8s %10s", 
+                    "Benchmark", "Impl", "Mach", "Cnt", "Score", "Error", "Alloc MB/sec", "Alloc B/op", "GC cnt", "GC ms"));
+            
+            for (final Benchmark benchmark : benchmarksToRun) {
+                for (final String implementation : implementations) {
+                    
+                    // The machine type doesn't matter for the Java implementation.
+                    List<String> implementationMachineTypes = implementation.equals(JAVA_IMPLEMENTATION) ? 
+                            Arrays.asList(new String[] {NO_MACHINE}) : machineTypes;
+                    
+                    for (final String machineType : implementationMachineTypes) {
+                        List<IterationResult> results = new ArrayList<IterationResult>();
+                        for (int fork = 0; fork < nForks; fork++) {
+                            results.addAll(runForkedJVM(benchmark, implementation, machineType, nWarmupIterations, nIterations));
+                        }
+                        report(benchmark, implementation, machineType, nForks, results, resultsWriter);
+                    }
+                }
+            }
+            
+        } finally {
+            resultsWriter.close();
+        }
+        
+        System.out.println();
+        System.out.println("Score and error (99.9% confidence interval) in ms/op.  Results written to " + new File(resultsFileName).getAbsolutePath());
+    }
+    
+    /**
+     * Prints the command line options.
+     */
+    private static void usage() {
+        System.out.println("ShootoutBenchmarks usage: [options] [benchmark ...]");
+        System.out.println();
+        System.out.println("-machines m1,m2          --the machines to run the CAL implementations on (default: lecc,g)");
+        System.out.println("-implementations i1,i2   --the implementations to run (default: cal,java)");
+        System.out.println("-forks n                 --the number of JVMs to fork for each benchmark (default: 2)");
+        System.out.println("-warmup n                --the number of warmup iterations in each fork (default: 3)");
+        System.out.println("-iterations n            --the number of measured iterations in each fork (default: 5)");
+        System.out.println("-results file            --the CSV file to write the results to (default: shootout-results.csv)");
+        System.out.println();
+        System.out.println("If no benchmarks are given, all are run.  The benchmarks are:");
+        for (final String name : benchmarks.keySet()) {
+            System.out.println("  " + name);
+        }
+    }
+    
+    /**
+     * Runs a benchmark in a new JVM, with the same class path and JVM arguments as the current JVM.
+     * @param benchmark the benchmark to run.
+     * @param implementation the implementation to run.
+     * @param machineType the machine type for the CAL implementation.
+     * @param nWarmupIterations the number of warmup iterations.
+     * @param nIterations the number of measured iterations.
+     * @return the results of the measured iterations.
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    private static List<IterationResult> runForkedJVM(Benchmark benchmark, String implementation, String machineType, int nWarmupIterations, int nIterations) throws IOException, InterruptedException {
+        
+        List<String> command = new ArrayList<String>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+        if (!machineType.equals(NO_MACHINE)) {
+            command.add("-D" + MachineConfiguration.MACHINE_TYPE_PROP + "=" + machineType);
+        }
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(ShootoutBenchmarks.class.getName());
+        command.add("-fork");
+        command.add(benchmark.name);
+        command.add(implementation);
+        command.add(String.valueOf(nWarmupIterations));
+        command.add(String.valueOf(nIterations));
+        
+        ProcessBuilder processBuilder = new ProcessBuilder(command);
+        processBuilder.redirectErrorStream(true);
+        Process process = processBuilder.start();
+        process.getOutputStream().close();
+        
+        List<IterationResult> results = new ArrayList<IterationResult>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                IterationResult result = IterationResult.fromResultLine(line);
+                if (result != null) {
+                    results.add(result);
+                } else {
+                    // Pass on anything else, such as compiler messages or exceptions.
+                    System.out.println("  [" + benchmark.name + " " + implementation + " " + machineType + "] " + line);
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        
+        int exitValue = process.waitFor();
+        if (exitValue != 0) {
+            System.out.println("  [" + benchmark.name + " " + implementation + " " + machineType + "] forked JVM exited with " + exitValue);
+        }
+        
+        return results;
+    }
+    
+    /**
+     * Runs the iterations of a benchmark in this JVM, which has been forked by the harness.
+     * The results of the measured iterations are written to standard output.
+     * 
+     * @param benchmarkName the name of the benchmark.
+     * @param implementation the implementation to run.
+     * @param nWarmupIterations the number of warmup iterations.
+     * @param nIterations the number of measured iterations.
+     * @throws Exception
+     */
+    private static void runFork(String benchmarkName, String implementation, int nWarmupIterations, int nIterations) throws Exception {
+        
+        Benchmark benchmark = benchmarks.get(benchmarkName);
+        
+        BenchmarkRunner runner;
+        if (implementation.equals(CAL_IMPLEMENTATION)) {
+            // The workspace manager picks up the machine type from the system property set by the parent JVM.
+            WorkspaceManager workspaceManager = WorkspaceManager.getWorkspaceManager(WorkspaceConfiguration.getDiscreteWorkspaceID(WORKSPACE_CLIENT_ID));
+            if (workspaceManager == null) {
+                throw new IllegalStateException("Unable to create the workspace manager.");
+            }
+            
+            Status initStatus = new Status("Init status.");
+            workspaceManager.initWorkspace(DefaultWorkspaceDeclarationProvider.getDefaultWorkspaceDeclarationProvider(WORKSPACE_FILE_PROPERTY, DEFAULT_WORKSPACE_FILE_NAME), initStatus);
+            // The first time the workspace is initialized, the missing workspace description is reported as info.
+            if (initStatus.getSeverity().compareTo(Status.Severity.ERROR) >= 0) {
+                throw new IllegalStateException("Unable to initialize the workspace: " + initStatus.getDebugMessage());
+            }
+            
+            CompilerMessageLogger messageLogger = new MessageLogger();
+            workspaceManager.compile(messageLogger, false, null);
+            if (messageLogger.getNErrors() > 0) {
+                throw new IllegalStateException("Unable to compile the workspace: " + messageLogger);
+            }
+            runner = new CALBenchmarkRunner(benchmark, workspaceManager);
+            
+        } else if (implementation.equals(JAVA_IMPLEMENTATION)) {
+            runner = new JavaBenchmarkRunner(benchmark);
+            
+        } else {
+            throw new IllegalArgumentException("Unknown implementation: " + implementation);
+        }
+        
+        PrintStream resultStream = System.out;
+        
+        for (int i = 0; i < nWarmupIterations; i++) {
+            runIteration(runner);
+        }
+        for (int i = 0; i < nIterations; i++) {
+            resultStream.println(runIteration(runner).toResultLine());
+        }
+        resultStream.flush();
+    }
+    
+    /**
+     * Runs one iteration of a benchmark, with standard output discarded.
+     * @param runner the runner for the benchmark.
+     * @return the measurements for the iteration.
+     * @throws Exception
+     */
+    private static IterationResult runIteration(BenchmarkRunner runner) throws Exception {
+        
+        PrintStream oldOut = System.out;
+        InputStream oldIn = System.in;
+        
+        InputStream input = null;
+        if (runner.benchmark.inputFileName != null) {
+            input = new FileInputStream(runner.benchmark.inputFileName);
+            System.setIn(input);
+        }
+        System.setOut(new NullPrintStream());
+        
+        try {
+            long gcCountBefore = getGcCount();
+            long gcTimeBefore = getGcTimeMillis();
+            long allocatedBefore = getAllocatedBytes();
+            long before = System.nanoTime();
+            
+            runner.runOnce();
+            
+            long after = System.nanoTime();
+            long allocatedAfter = getAllocatedBytes();
+            long allocatedBytes = (allocatedBefore < 0 || allocatedAfter < 0) ? -1 : allocatedAfter - allocatedBefore;
+            
+            return new IterationResult(after - before, allocatedBytes, getGcCount() - gcCountBefore, getGcTimeMillis() - gcTimeBefore);
+            
+        } finally {
+            System.setOut(oldOut);
+            System.setIn(oldIn);
+            if (input != null) {
+                input.close();
+            }
+            runner.afterRun();
+        }
+    }
+    
+    /**
+     * @return the total number of garbage collections in this JVM so far.
+     */
+    private static long getGcCount() {
+        long count = 0;
+        for (final GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gcBean.getCollectionCount());
+        }
+        return count;
+    }
+    
+    /**
+     * @return the total time spent in garbage collection in this JVM so far, in milliseconds.
+     */
+    private static long getGcTimeMillis() {
+        long time = 0;
+        for (final GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            time += Math.max(0, gcBean.getCollectionTime());
+        }
+        return time;
+    }
+    
+    /**
+     * @return the number of bytes allocated by the current thread so far, or -1 if this isn't supported by the JVM.
+     */
+    private static long getAllocatedBytes() {
+        // com.sun.management.ThreadMXBean isn't available on all JVMs, so it is accessed reflectively.
+        try {
+            ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+            Class<?> sunThreadBeanClass = Class.forName("com.sun.management.ThreadMXBean");
+            if (!sunThreadBeanClass.isInstance(threadBean)) {
+                return -1;
+            }
+            Method method = sunThreadBeanClass.getMethod("getThreadAllocatedBytes", new Class<?>[] {long.class});
+            return ((Long)method.invoke(threadBean, new Object[] {Long.valueOf(Thread.currentThread().getId())})).longValue();
+            
+        } catch (ClassNotFoundException e) {
+            return -1;
+        } catch (NoSuchMethodException e) {
+            return -1;
+        } catch (IllegalAccessException e) {
+            return -1;
+        } catch (InvocationTargetException e) {
+            return -1;
+        }
+    }
+    
+    /**
+     * Prints the statistics for the results of a benchmark, and writes them to the results file.
+     * @param benchmark the benchmark.
+     * @param implementation the implementation which was run.
+     * @param machineType the machine type, for the CAL implementation.
+     * @param nForks the number of forks.
+     * @param results the results of the measured iterations of all forks.
+     * @param resultsWriter the writer for the results file.
+     */
+    private static void report(Benchmark benchmark, String implementation, String machineType, int nForks, List<IterationResult> results, PrintWriter resultsWriter) {
+        
+        int n = results.size();
+        if (n == 0) {
+            System.out.println(String.format("%-14s %-5s %-5s %5s %12s", benchmark.name, implementation, machineType, "0", "failed"));
+            return;
+        }
+        
+        double sumMillis = 0;
+        long totalTimeNanos = 0;
+        long totalAllocatedBytes = 0;
+        boolean allocationKnown = true;
+        long totalGcCount = 0;
+        long totalGcTimeMillis = 0;
+        for (final IterationResult result : results) {
+            sumMillis += result.timeNanos / 1.0e6;
+            totalTimeNanos += result.timeNanos;
+            if (result.allocatedBytes < 0) {
+                allocationKnown = false;
+            } else {
+                totalAllocatedBytes += result.allocatedBytes;
+            }
+            totalGcCount += result.gcCount;
+            totalGcTimeMillis += result.gcTimeMillis;
+        }
+        double mean = sumMillis / n;
+        
+        double error = Double.NaN;
+        if (n > 1) {
+            double sumOfSquares = 0;
+            for (final IterationResult result : results) {
+                double deviation = result.timeNanos / 1.0e6 - mean;
+                sumOfSquares += deviation * deviation;
+            }
+            double standardDeviation = Math.sqrt(sumOfSquares / (n - 1));
+            error = getStudentT999(n - 1) * standardDeviation / Math.sqrt(n);
+        }
+        
+        double allocRate = Double.NaN;
+        double allocNorm = Double.NaN;
+        if (allocationKnown) {
+            allocRate = (totalAllocatedBytes / (1024.0 * 1024.0)) / (totalTimeNanos / 1.0e9);
+            allocNorm = (double)totalAllocatedBytes / n;
+        }
+        
+        System.out.println(String.format("%-14s %-5s %-5s %5d %12.3f %12.3f %14.3f %14.0f %8d %10d", 
+                benchmark.name, implementation, machineType, Integer.valueOf(n), Double.valueOf(mean), Double.valueOf(error), 
+                Double.valueOf(allocRate), Double.valueOf(allocNorm), Long.valueOf(totalGcCount), Long.valueOf(totalGcTimeMillis)));
+        
+        resultsWriter.println(String.format(Locale.US, "%s,%s,%s,%d,%d,%.6f,%.6f,ms/op,%.3f,%.1f,%d,%d",
+                benchmark.name, implementation, machineType, Integer.valueOf(nForks), Integer.valueOf(n), Double.valueOf(mean), Double.valueOf(error), 
+                Double.valueOf(allocRate), Double.valueOf(allocNorm), Long.valueOf(totalGcCount), Long.valueOf(totalGcTimeMillis)));
+        resultsWriter.flush();
+    }
+    
+    /**
+     * @param degreesOfFreedom the number of degrees of freedom.
+     * @return the two sided 99.9% quantile of Student's t distribution.
+     */
+    private static double getStudentT999(int degreesOfFreedom) {
+        if (degreesOfFreedom <= STUDENT_T_999.length) {
+            return STUDENT_T_999[degreesOfFreedom - 1];
+        } else if (degreesOfFreedom <= 40) {
+            return 3.551;
+        } else if (degreesOfFreedom <= 60) {
+            return 3.460;
+        } else if (degreesOfFreedom <= 120) {
+            return 3.373;
+        }
+        return 3.291;
+    }
+}
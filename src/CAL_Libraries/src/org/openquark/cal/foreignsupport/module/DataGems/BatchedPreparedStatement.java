@@ -0,0 +1,504 @@
+/*
+ * Copyright (c) 2007 BUSINESS OBJECTS SOFTWARE LIMITED
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *  
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *  
+ *     * Neither the name of Business Objects nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+
+/*
+ * BatchedPreparedStatement.java
+ * Created: Oct 18, 2026
+ */
+package org.openquark.cal.foreignsupport.module.DataGems;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+import org.openquark.util.datadictionary.ValueType;
+import org.openquark.util.time.Time;
+
+
+/**
+ * A prepared statement for writing large numbers of rows. The parameter sets added
+ * with {@link #addBatch()} are buffered, and each time enough of them have accumulated
+ * they are executed as one batch of the underlying statement.
+ * <p>
+ * Rows are not written on a timer: the rows of a partly filled batch are only written
+ * by {@link #executeBatch()}, {@link #executeUpdate()} or {@link #close()}. A client
+ * which adds rows slowly and needs them written promptly should call executeBatch.
+ * <p>
+ * If the batch size is not specified, it is adjusted automatically: starting from a
+ * small batch, the batch size is doubled for as long as the throughput (rows per
+ * millisecond) improves, and halved when it deteriorates markedly.
+ * <p>
+ * In asynchronous mode, batches are bound and executed on a separate writer thread
+ * while the client fills the next batch. At most one batch is executed at a time, so
+ * a client which produces rows faster than the database accepts them is held back
+ * when it completes the following batch. A failure of an asynchronous batch is
+ * reported by the next call to this statement.
+ * <p>
+ * The statistics of this statement (execution time, number of executions and rows)
+ * cover the batches executed through it.
+ */
+public final class BatchedPreparedStatement implements JDBCPreparedStatement {
+    
+    private static final Logger logger = Logger.getLogger(BatchedPreparedStatement.class);
+    
+    /** The initial and minimum batch sizes used when the batch size is adjusted automatically. */
+    private static final int MIN_AUTOMATIC_BATCH_SIZE = 64;
+    
+    /** The largest batch size used when the batch size is adjusted automatically. */
+    private static final int MAX_AUTOMATIC_BATCH_SIZE = 8192;
+    
+    /** 
+     * The fraction of the previous throughput below which the batch size is reduced.
+     * This avoids reacting to small variations in the time taken by the database.
+     */
+    private static final double THROUGHPUT_TOLERANCE = 0.8;
+    
+    /** The thread factory for the writer threads of asynchronous statements. */
+    private static final ThreadFactory writerThreadFactory = new ThreadFactory() {
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "BatchedPreparedStatement writer");
+            thread.setDaemon(true);
+            return thread;
+        }
+    };
+    
+    /** 
+     * The value of a statement parameter.
+     * This records a call to one of the set methods, so it can be replayed on the underlying statement.
+     */
+    private static final class ParameterValue {
+        private final int parameterIndex;
+        private final Object value;
+        
+        /** The type of a null value, or null if the value is not null. */
+        private final ValueType nullType;
+        
+        ParameterValue(int parameterIndex, Object value, ValueType nullType) {
+            this.parameterIndex = parameterIndex;
+            this.value = value;
+            this.nullType = nullType;
+        }
+        
+        /**
+         * Binds the value to the corresponding parameter of a statement.
+         */
+        void bind(JDBCPreparedStatement statement) throws DatabaseException {
+            if (nullType != null) {
+                statement.setNull(parameterIndex, nullType);
+            } else if (value instanceof Boolean) {
+                statement.setBoolean(parameterIndex, ((Boolean)value).booleanValue());
+            } else if (value instanceof Integer) {
+                statement.setInt(parameterIndex, ((Integer)value).intValue());
+            } else if (value instanceof Double) {
+                statement.setDouble(parameterIndex, ((Double)value).doubleValue());
+            } else if (value instanceof Time) {
+                statement.setTime(parameterIndex, (Time)value);
+            } else {
+                statement.setString(parameterIndex, (String)value);
+            }
+        }
+    }
+    
+    /** The statement through which the batches are executed. */
+    private final JDBCPreparedStatement statement;
+    
+    /** The fixed batch size, or zero if the batch size is adjusted automatically. */
+    private final int fixedBatchSize;
+    
+    /** The current batch size. This is adjusted by the thread executing the batches. */
+    private volatile int batchSize;
+    
+    /** The executor for the writer thread, or null if batches are executed synchronously. */
+    private final ExecutorService writer;
+    
+    /** The parameters set for the current row, by parameter index. Only accessed by the client. */
+    private final Map<Integer, ParameterValue> currentParameters = new TreeMap<Integer, ParameterValue>();
+    
+    /** The rows of the batch being filled. Only accessed by the client. */
+    private List<ParameterValue[]> currentBatch = new ArrayList<ParameterValue[]>();
+    
+    /** The batch being executed by the writer thread, or null if there is none. */
+    private Future<int[]> pendingBatch;
+    
+    /** The update counts of the batches executed since the last call to executeBatch. */
+    private final List<int[]> updateCounts = new ArrayList<int[]>();
+    
+    /** The throughput of the previous batch, in rows per milli-second, used for adjusting the batch size. */
+    private double previousThroughput = 0.0;
+    
+    // The statistics for the batches executed. These are updated by the thread executing the batch.
+    private volatile long executionTime = 0;
+    private volatile long maxExecutionTime = 0;
+    private volatile long executionCount = 0;
+    private volatile long rowCount = 0;
+    
+    /** Whether the statement has been closed. */
+    private boolean closed = false;
+
+    /**
+     * Constructor for BatchedPreparedStatement.
+     * @param statement     the statement through which the batches will be executed
+     * @param batchSize     the number of rows in each batch, or zero (or a negative number) to adjust the batch size automatically
+     * @param asynchronous  whether batches should be executed on a separate writer thread
+     */
+    public BatchedPreparedStatement(JDBCPreparedStatement statement, int batchSize, boolean asynchronous) {
+        if (statement == null) {
+            throw new NullPointerException("The argument 'statement' cannot be null.");
+        }
+        this.statement = statement;
+        this.fixedBatchSize = Math.max(batchSize, 0);
+        this.batchSize = batchSize > 0 ? batchSize : MIN_AUTOMATIC_BATCH_SIZE;
+        this.writer = asynchronous ? Executors.newSingleThreadExecutor(writerThreadFactory) : null;
+    }
+
+    /**
+     * @see org.openquark.cal.foreignsupport.module.DataGems.JDBCPreparedStatement#getSQLStatement()
+     */
+    public String getSQLStatement() {
+        return statement.getSQLStatement();
+    }
+    
+    /**
+     * Records the value of a parameter for the current row.
+     */
+    private JDBCPreparedStatement setParameter(int parameterIndex, Object value, ValueType nullType) throws DatabaseException {
+        checkNotClosed();
+        currentParameters.put(Integer.valueOf(parameterIndex), new ParameterValue(parameterIndex, value, nullType));
+        return this;
+    }
+
+    /**
+     * @see org.openquark.cal.foreignsupport.module.DataGems.JDBCPreparedStatement#setBoolean(int, boolean)
+     */
+    public JDBCPreparedStatement setBoolean(int parameterIndex, boolean x) throws DatabaseException {
+        return setParameter(parameterIndex, Boolean.valueOf(x), null);
+    }
+
+    /**
+     * @see org.openquark.cal.foreignsupport.module.DataGems.JDBCPreparedStatement#setInt(int, int)
+     */
+    public JDBCPreparedStatement setInt(int parameterIndex, int x) throws DatabaseException {
+        return setParameter(parameterIndex, Integer.valueOf(x), null);
+    }
+
+    /**
+     * @see org.openquark.cal.foreignsupport.module.DataGems.JDBCPreparedStatement#setDouble(int, double)
+     */
+    public JDBCPreparedStatement setDouble(int parameterIndex, double x) throws DatabaseException {
+        return setParameter(parameterIndex, Double.valueOf(x), null);
+    }
+
+    /**
+     * @see org.openquark.cal.foreignsupport.module.DataGems.JDBCPreparedStatement#setString(int, java.lang.String)
+     */
+    public JDBCPreparedStatement setString(int parameterIndex, String x) throws DatabaseException {
+        return setParameter(parameterIndex, x, null);
+    }
+
+    /**
+     * @see org.openquark.cal.foreignsupport.module.DataGems.JDBCPreparedStatement#setTime(int, org.openquark.util.time.Time)
+     */
+    public JDBCPreparedStatement setTime(int parameterIndex, Time x) throws DatabaseException {
+        return setParameter(parameterIndex, x, null);
+    }
+
+    /**
+     * @see org.openquark.cal.foreignsupport.module.DataGems.JDBCPreparedStatement#setNull(int, org.openquark.util.datadictionary.ValueType)
+     */
+    public JDBCPreparedStatement setNull(int parameterIndex, ValueType type) throws DatabaseException {
+        return setParameter(parameterIndex, null, type);
+    }
+
+    /**
+     * @see org.openquark.cal.foreignsupport.module.DataGems.JDBCPreparedStatement#clearParameters()
+     */
+    public void clearParameters() throws DatabaseException {
+        checkNotClosed();
+        currentParameters.clear();
+    }
+
+    /**
+     * Adds the current parameters as a row of the current batch, and executes the
+     * batch if it is full.
+     * As with a JDBC prepared statement, the parameters remain set for the next row.
+     * @see org.openquark.cal.foreignsupport.module.DataGems.JDBCPreparedStatement#addBatch()
+     */
+    public boolean addBatch() throws DatabaseException {
+        checkNotClosed();
+        checkPendingBatch(false);
+        
+        currentBatch.add(currentParameters.values().toArray(new ParameterValue[currentParameters.size()]));
+        if (currentBatch.size() >= batchSize) {
+            flush();
+        }
+        return true;
+    }
+    
+    /**
+     * Executes the rows of the current batch, on the writer thread if the statement is asynchronous.
+     */
+    private void flush() throws DatabaseException {
+        // Wait for the previous batch to complete, so that only one batch is executed at a time.
+        checkPendingBatch(true);
+        
+        if (currentBatch.isEmpty()) {
+            return;
+        }
+        
+        final List<ParameterValue[]> batch = currentBatch;
+        currentBatch = new ArrayList<ParameterValue[]>(batchSize);
+        
+        if (writer == null) {
+            updateCounts.add(executeRows(batch));
+        } else {
+            pendingBatch = writer.submit(new Callable<int[]>() {
+                public int[] call() throws DatabaseException {
+                    return executeRows(batch);
+                }
+            });
+        }
+    }
+    
+    /**
+     * Binds and executes a batch of rows through the underlying statement, and updates the statistics.
+     * @param rows  the rows to execute
+     * @return the update counts for the rows
+     */
+    private int[] executeRows(List<ParameterValue[]> rows) throws DatabaseException {
+        long startTime = System.currentTimeMillis();
+        for (final ParameterValue[] row : rows) {
+            for (final ParameterValue parameter : row) {
+                parameter.bind(statement);
+            }
+            statement.addBatch();
+        }
+        int[] counts = statement.executeBatch();
+        long time = System.currentTimeMillis() - startTime;
+        
+        executionTime += time;
+        maxExecutionTime = Math.max(maxExecutionTime, time);
+        ++executionCount;
+        rowCount += rows.size();
+        
+        adjustBatchSize(rows.size(), time);
+        return counts;
+    }
+    
+    /**
+     * Adjusts the batch size according to the throughput of the last batch, if the batch size is not fixed.
+     * @param nRows  the number of rows in the last batch
+     * @param time   the time taken to execute the last batch
+     */
+    private void adjustBatchSize(int nRows, long time) {
+        // Batches cut short by executeBatch or close say nothing about the effect of the batch size.
+        if (fixedBatchSize > 0 || nRows < batchSize) {
+            return;
+        }
+        
+        double throughput = nRows / (double)Math.max(time, 1);
+        if (throughput >= previousThroughput) {
+            batchSize = Math.min(batchSize * 2, MAX_AUTOMATIC_BATCH_SIZE);
+        } else if (throughput < previousThroughput * THROUGHPUT_TOLERANCE) {
+            batchSize = Math.max(batchSize / 2, MIN_AUTOMATIC_BATCH_SIZE);
+        }
+        previousThroughput = throughput;
+    }
+    
+    /**
+     * Checks the batch being executed by the writer thread, and records its update counts if it has completed.
+     * @param wait  whether to wait for the batch to complete
+     * @throws DatabaseException if the batch failed
+     */
+    private void checkPendingBatch(boolean wait) throws DatabaseException {
+        if (pendingBatch == null || (!wait && !pendingBatch.isDone())) {
+            return;
+        }
+        
+        Future<int[]> batch = pendingBatch;
+        pendingBatch = null;
+        try {
+            updateCounts.add(batch.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DatabaseException("Interrupted while waiting for a batch to be executed.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof DatabaseException) {
+                throw (DatabaseException)cause;
+            }
+            throw new DatabaseException(cause);
+        }
+    }
+
+    /**
+     * Executes all the rows added to the statement which have not yet been executed,
+     * and waits for them to complete.
+     * @return the update counts for all the rows executed since the last call to this method
+     * @see org.openquark.cal.foreignsupport.module.DataGems.JDBCPreparedStatement#executeBatch()
+     */
+    public int[] executeBatch() throws DatabaseException {
+        checkNotClosed();
+        flush();
+        checkPendingBatch(true);
+        
+        int nCounts = 0;
+        for (final int[] counts : updateCounts) {
+            nCounts += counts.length;
+        }
+        int[] result = new int[nCounts];
+        int offset = 0;
+        for (final int[] counts : updateCounts) {
+            System.arraycopy(counts, 0, result, offset, counts.length);
+            offset += counts.length;
+        }
+        updateCounts.clear();
+        return result;
+    }
+
+    /**
+     * Executes any outstanding batched rows, and then executes the statement with the current parameters.
+     * @see org.openquark.cal.foreignsupport.module.DataGems.JDBCPreparedStatement#executeUpdate()
+     */
+    public int executeUpdate() throws DatabaseException {
+        checkNotClosed();
+        flush();
+        checkPendingBatch(true);
+        
+        long startTime = System.currentTimeMillis();
+        for (final ParameterValue parameter : currentParameters.values()) {
+            parameter.bind(statement);
+        }
+        int count = statement.executeUpdate();
+        long time = System.currentTimeMillis() - startTime;
+        
+        executionTime += time;
+        maxExecutionTime = Math.max(maxExecutionTime, time);
+        ++executionCount;
+        ++rowCount;
+        return count;
+    }
+
+    /**
+     * Executes any outstanding batched rows, stops the writer thread and closes the
+     * underlying statement. For a statement checked out of the statement cache of a
+     * connection, this returns the statement to the cache.
+     * @see org.openquark.cal.foreignsupport.module.DataGems.JDBCPreparedStatement#close()
+     */
+    public void close() throws DatabaseException {
+        if (closed) {
+            return;
+        }
+        
+        try {
+            flush();
+            checkPendingBatch(true);
+        } finally {
+            closed = true;
+            logger.info("Executed " + rowCount + " rows in " + executionCount + " batches in " + executionTime + " ms: " + getSQLStatement());
+            
+            // The underlying statement may only be released once the writer thread has finished with it.
+            if (stopWriter()) {
+                try {
+                    statement.close();
+                } catch (DatabaseException e) {
+                    logger.warn("Failed to close the underlying statement: " + getSQLStatement(), e);
+                }
+            } else {
+                logger.warn("The writer thread did not stop, so the underlying statement was not closed: " + getSQLStatement());
+            }
+        }
+    }
+    
+    /**
+     * Stops the writer thread (if any), and waits for it to finish.
+     * @return true if there is no writer thread still running
+     */
+    private boolean stopWriter() {
+        if (writer == null) {
+            return true;
+        }
+        writer.shutdown();
+        try {
+            return writer.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+    
+    /**
+     * @throws DatabaseException if the statement has been closed.
+     */
+    private void checkNotClosed() throws DatabaseException {
+        if (closed) {
+            throw new DatabaseException("The batched statement has been closed: " + getSQLStatement());
+        }
+    }
+
+    /**
+     * @see org.openquark.cal.foreignsupport.module.DataGems.JDBCPreparedStatement#getTotalExecutionTime()
+     */
+    public long getTotalExecutionTime() {
+        return executionTime;
+    }
+
+    /**
+     * @see org.openquark.cal.foreignsupport.module.DataGems.JDBCPreparedStatement#getExecutionCount()
+     */
+    public long getExecutionCount() {
+        return executionCount;
+    }
+
+    /**
+     * @see org.openquark.cal.foreignsupport.module.DataGems.JDBCPreparedStatement#getRowCount()
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * @see org.openquark.cal.foreignsupport.module.DataGems.JDBCPreparedStatement#getMaxExecutionTime()
+     */
+    public long getMaxExecutionTime() {
+        return maxExecutionTime;
+    }
+}
@@ -0,0 +1,523 @@
+/*
+ * Copyright (c) 2007 BUSINESS OBJECTS SOFTWARE LIMITED
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *  
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *  
+ *     * Neither the name of Business Objects nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+
+/*
+ * CachedQueryResult.java
+ * Created: Oct 18, 2026
+ */
+package org.openquark.cal.foreignsupport.module.DataGems;
+
+import java.math.BigDecimal;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.openquark.util.database.SqlType;
+import org.openquark.util.time.Time;
+
+
+/**
+ * A query result whose rows are held in memory, so that it can be replayed any number of times
+ * (and positioned at any row) without going back to the database.
+ * <p>
+ * The rows are captured once from another {@link QueryResult} by {@link #readFrom(QueryResult)}.
+ * Each call to {@link #replay()} returns a new result with its own cursor over the same (shared, immutable) rows,
+ * which makes cached results safe to hand out to several clients at once.
+ * <p>
+ * The values are held as they were returned by the JDBC driver's <code>getObject</code>, and are converted 
+ * as needed by the typed accessors. Null values are replaced by the same defaults as for other results.
+ */
+public final class CachedQueryResult implements QueryResult {
+
+    /** The column names. */
+    private final String[] columnNames;
+
+    /** The column labels. */
+    private final String[] columnLabels;
+
+    /** The SQL type of each column. */
+    private final SqlType[] columnTypes;
+
+    /** The display size of each column. */
+    private final int[] columnDisplaySizes;
+
+    /** The values of each row (null for null values). */
+    private final Object[][] rows;
+
+    /** The current row (1-based), or 0 if the result is positioned before the first row. */
+    private int currentRow = 0;
+
+    /** Whether the last value fetched was null. */
+    private boolean lastFetchNull = false;
+
+    private CachedQueryResult(String[] columnNames, String[] columnLabels, SqlType[] columnTypes, int[] columnDisplaySizes, Object[][] rows) {
+        this.columnNames = columnNames;
+        this.columnLabels = columnLabels;
+        this.columnTypes = columnTypes;
+        this.columnDisplaySizes = columnDisplaySizes;
+        this.rows = rows;
+    }
+
+    /**
+     * Reads all the remaining rows of a query result into memory.
+     * The source result is expected to be positioned before its first row, and is not closed.
+     * @param source  the query result to be read
+     * @return        a cached copy of the query result
+     * @throws DatabaseException
+     */
+    public static CachedQueryResult readFrom(QueryResult source) throws DatabaseException {
+        int nColumns = source.getColumnCount();
+        String[] columnNames = new String[nColumns];
+        String[] columnLabels = new String[nColumns];
+        SqlType[] columnTypes = new SqlType[nColumns];
+        int[] columnDisplaySizes = new int[nColumns];
+        for (int col = 0; col < nColumns; ++col) {
+            columnNames[col] = source.getColumnName(col + 1);
+            columnLabels[col] = source.getColumnLabel(col + 1);
+            columnTypes[col] = source.getColumnType(col + 1);
+            columnDisplaySizes[col] = source.getColumnDisplaySize(col + 1);
+        }
+
+        List<Object[]> rows = new ArrayList<Object[]>();
+        while (source.moveNext()) {
+            Object[] row = new Object[nColumns];
+            for (int col = 0; col < nColumns; ++col) {
+                Object value = source.getCurrentRowObject(col + 1);
+                row[col] = source.wasLastFetchNull() ? null : detachValue(value);
+            }
+            rows.add(row);
+        }
+        return new CachedQueryResult(columnNames, columnLabels, columnTypes, columnDisplaySizes, rows.toArray(new Object[rows.size()][]));
+    }
+
+    /**
+     * Copies the contents of large object values, which are only valid while the source result is open.
+     */
+    private static Object detachValue(Object value) throws DatabaseException {
+        try {
+            if (value instanceof Clob) {
+                Clob clob = (Clob) value;
+                return clob.getSubString(1, (int) clob.length());
+            }
+            if (value instanceof Blob) {
+                Blob blob = (Blob) value;
+                return blob.getBytes(1, (int) blob.length());
+            }
+            return value;
+        } catch (SQLException e) {
+            throw new DatabaseException(e);
+        }
+    }
+
+    /**
+     * @return a new result over the same rows, positioned before the first row.
+     */
+    public CachedQueryResult replay() {
+        return new CachedQueryResult(columnNames, columnLabels, columnTypes, columnDisplaySizes, rows);
+    }
+
+    /**
+     * @return the number of rows in the result.
+     */
+    public int getRowCount() {
+        return rows.length;
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "Cached Resultset (" + rows.length + " rows)";
+    }
+
+    /**
+     * The rows remain available, so the result can still be repositioned after it is closed.
+     */
+    public void close() {
+        currentRow = 0;
+    }
+
+    /**
+     * @see org.openquark.cal.foreignsupport.module.DataGems.QueryResult#getColumnCount()
+     */
+    public int getColumnCount() {
+        return columnNames.length;
+    }
+
+    /**
+     * @see org.openquark.cal.foreignsupport.module.DataGems.QueryResult#getColumnLabel(int)
+     */
+    public String getColumnLabel(int column) {
+        return columnLabels[column - 1];
+    }
+
+    /**
+     * @see org.openquark.cal.foreignsupport.module.DataGems.QueryResult#getColumnName(int)
+     */
+    public String getColumnName(int column) {
+        return columnNames[column - 1];
+    }
+
+    /**
+     * @see org.openquark.cal.foreignsupport.module.DataGems.QueryResult#getColumnType(int)
+     */
+    public SqlType getColumnType(int column) {
+        return columnTypes[column - 1];
+    }
+
+    /**
+     * @see org.openquark.cal.foreignsupport.module.DataGems.QueryResult#getColumnDisplaySize(int)
+     */
+    public int getColumnDisplaySize(int column) {
+        return columnDisplaySizes[column - 1];
+    }
+
+    /**
+     * As with JDBC, the column labels are matched first, and the names are matched case-insensitively.
+     */
+    public int getColumnIndex(String columnName) {
+        for (int col = 0; col < columnLabels.length; ++col) {
+            if (columnLabels[col] != null && columnLabels[col].equalsIgnoreCase(columnName)) {
+                return col + 1;
+            }
+        }
+        for (int col = 0; col < columnNames.length; ++col) {
+            if (columnNames[col] != null && columnNames[col].equalsIgnoreCase(columnName)) {
+                return col + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @see org.openquark.cal.foreignsupport.module.DataGems.QueryResult#moveFirst()
+     */
+    public boolean moveFirst() {
+        return moveToRow(1);
+    }
+
+    /**
+     * @see org.openquark.cal.foreignsupport.module.DataGems.QueryResult#moveNext()
+     */
+    public boolean moveNext() {
+        if (currentRow <= rows.length) {
+            ++currentRow;
+        }
+        return currentRow <= rows.length;
+    }
+
+    /**
+     * @see org.openquark.cal.foreignsupport.module.DataGems.QueryResult#moveToRow(int)
+     */
+    public boolean moveToRow(int row) {
+        if (row < 1 || row > rows.length) {
+            return false;
+        }
+        currentRow = row;
+        return true;
+    }
+
+    /**
+     * @see org.openquark.cal.foreignsupport.module.DataGems.QueryResult#recordAt(int)
+     */
+    public boolean recordAt(int row) {
+        return moveToRow(row);
+    }
+
+    /**
+     * @see org.openquark.cal.foreignsupport.module.DataGems.QueryResult#resultGetRecord(int)
+     */
+    public RecordPlaceholder resultGetRecord(int row) {
+        return new RecordPlaceholder(this, row);
+    }
+
+    /**
+     * @see org.openquark.cal.foreignsupport.module.DataGems.QueryResult#wasLastFetchNull()
+     */
+    public boolean wasLastFetchNull() {
+        return lastFetchNull;
+    }
+
+    /**
+     * Returns the value of a column in the current row, and records whether it was null.
+     */
+    private Object fetch(int colIndex) throws DatabaseException {
+        if (currentRow < 1 || currentRow > rows.length) {
+            throw new DatabaseException("The resultset is not positioned on a row.");
+        }
+        if (colIndex < 1 || colIndex > columnNames.length) {
+            throw new DatabaseException("Invalid column index: " + colIndex);
+        }
+        Object value = rows[currentRow - 1][colIndex - 1];
+        lastFetchNull = value == null;
+        return value;
+    }
+
+    private int columnIndex(String colName) throws DatabaseException {
+        int colIndex = getColumnIndex(colName);
+        if (colIndex < 0) {
+            throw new DatabaseException("Invalid column name: " + colName);
+        }
+        return colIndex;
+    }
+
+    /**
+     * Returns a value as a number, or throws an exception if it cannot be converted.
+     */
+    private static Number toNumber(Object value) throws DatabaseException {
+        if (value instanceof Number) {
+            return (Number) value;
+        }
+        if (value instanceof Boolean) {
+            return Integer.valueOf(((Boolean) value).booleanValue() ? 1 : 0);
+        }
+        if (value instanceof String) {
+            try {
+                return new BigDecimal(((String) value).trim());
+            } catch (NumberFormatException e) {
+                // Fall through.
+            }
+        }
+        throw new DatabaseException("The value '" + value + "' cannot be converted to a number.");
+    }
+
+    /**
+     * @see org.openquark.cal.foreignsupport.module.DataGems.QueryResult#getCurrentRowString(int)
+     */
+    public String getCurrentRowString(int colIndex) throws DatabaseException {
+        Object value = fetch(colIndex);
+        if (value == null) {
+            return JDBC.Connection.NULL_STRING;
+        }
+        if (value instanceof byte[]) {
+            return new String((byte[]) value);
+        }
+        return value.toString();
+    }
+
+    /**
+     * @see org.openquark.cal.foreignsupport.module.DataGems.QueryResult#getCurrentRowString(java.lang.String)
+     */
+    public String getCurrentRowString(String colName) throws DatabaseException {
+        return getCurrentRowString(columnIndex(colName));
+    }
+
+    /**
+     * @see org.openquark.cal.foreignsupport.module.DataGems.QueryResult#getCurrentRowInt(int)
+     */
+    public int getCurrentRowInt(int colIndex) throws DatabaseException {
+        Object value = fetch(colIndex);
+        return value == null ? JDBC.Connection.NULL_INT : toNumber(value).intValue();
+    }
+
+    /**
+     * @see org.openquark.cal.foreignsupport.module.DataGems.QueryResult#getCurrentRowInt(java.lang.String)
+     */
+    public int getCurrentRowInt(String colName) throws DatabaseException {
+        return getCurrentRowInt(columnIndex(colName));
+    }
+
+    /**
+     * @see org.openquark.cal.foreignsupport.module.DataGems.QueryResult#getCurrentRowLong(int)
+     */
+    public long getCurrentRowLong(int colIndex) throws DatabaseException {
+        Object value = fetch(colIndex);
+        return value == null ? JDBC.Connection.NULL_LONG : toNumber(value).longValue();
+    }
+
+    /**
+     * @see org.openquark.cal.foreignsupport.module.DataGems.QueryResult#getCurrentRowLong(java.lang.String)
+     */
+    public long getCurrentRowLong(String colName) throws DatabaseException {
+        return getCurrentRowLong(columnIndex(colName));
+    }
+
+    /**
+     * @see org.openquark.cal.foreignsupport.module.DataGems.QueryResult#getCurrentRowDouble(int)
+     */
+    public double getCurrentRowDouble(int colIndex) throws DatabaseException {
+        Object value = fetch(colIndex);
+        return value == null ? JDBC.Connection.NULL_DOUBLE : toNumber(value).doubleValue();
+    }
+
+    /**
+     * @see org.openquark.cal.foreignsupport.module.DataGems.QueryResult#getCurrentRowDouble(java.lang.String)
+     */
+    public double getCurrentRowDouble(String colName) throws DatabaseException {
+        return getCurrentRowDouble(columnIndex(colName));
+    }
+
+    /**
+     * @see org.openquark.cal.foreignsupport.module.DataGems.QueryResult#getCurrentRowDecimal(int)
+     */
+    public BigDecimal getCurrentRowDecimal(int colIndex) throws DatabaseException {
+        Object value = fetch(colIndex);
+        if (value == null) {
+            return JDBC.Connection.NULL_DECIMAL;
+        }
+        Number number = toNumber(value);
+        if (number instanceof BigDecimal) {
+            return (BigDecimal) number;
+        }
+        return new BigDecimal(number.toString());
+    }
+
+    /**
+     * @see org.openquark.cal.foreignsupport.module.DataGems.QueryResult#getCurrentRowDecimal(java.lang.String)
+     */
+    public BigDecimal getCurrentRowDecimal(String colName) throws DatabaseException {
+        return getCurrentRowDecimal(columnIndex(colName));
+    }
+
+    /**
+     * @see org.openquark.cal.foreignsupport.module.DataGems.QueryResult#getCurrentRowDate(int)
+     */
+    public Date getCurrentRowDate(int colIndex) throws DatabaseException {
+        Object value = fetch(colIndex);
+        if (value == null) {
+            return JDBC.Connection.NULL_DATE;
+        }
+        if (value instanceof Date) {
+            return new java.sql.Date(((Date) value).getTime());
+        }
+        try {
+            return java.sql.Date.valueOf(value.toString().trim());
+        } catch (IllegalArgumentException e) {
+            throw new DatabaseException("The value '" + value + "' cannot be converted to a date.");
+        }
+    }
+
+    /**
+     * @see org.openquark.cal.foreignsupport.module.DataGems.QueryResult#getCurrentRowDate(java.lang.String)
+     */
+    public Date getCurrentRowDate(String colName) throws DatabaseException {
+        return getCurrentRowDate(columnIndex(colName));
+    }
+
+    /**
+     * @see org.openquark.cal.foreignsupport.module.DataGems.QueryResult#getCurrentRowTime(int)
+     */
+    public Time getCurrentRowTime(int colIndex) throws DatabaseException {
+        Object value = fetch(colIndex);
+        if (value == null) {
+            return JDBC.Connection.NULL_TIME;
+        }
+        if (value instanceof Timestamp) {
+            return Time.fromTimeStamp((Timestamp) value);
+        }
+        if (value instanceof Date) {
+            return Time.fromDate((Date) value);
+        }
+        try {
+            return Time.fromTimeStamp(Timestamp.valueOf(value.toString().trim()));
+        } catch (IllegalArgumentException e) {
+            throw new DatabaseException("The value '" + value + "' cannot be converted to a time.");
+        }
+    }
+
+    /**
+     * @see org.openquark.cal.foreignsupport.module.DataGems.QueryResult#getCurrentRowTime(java.lang.String)
+     */
+    public Time getCurrentRowTime(String colName) throws DatabaseException {
+        return getCurrentRowTime(columnIndex(colName));
+    }
+
+    /**
+     * @see org.openquark.cal.foreignsupport.module.DataGems.QueryResult#getCurrentRowBoolean(int)
+     */
+    public boolean getCurrentRowBoolean(int colIndex) throws DatabaseException {
+        Object value = fetch(colIndex);
+        if (value == null) {
+            return JDBC.Connection.NULL_BOOLEAN;
+        }
+        if (value instanceof Boolean) {
+            return ((Boolean) value).booleanValue();
+        }
+        if (value instanceof String) {
+            String s = ((String) value).trim();
+            return s.equals("1") || s.equalsIgnoreCase("true") || s.equalsIgnoreCase("Y");
+        }
+        return toNumber(value).doubleValue() != 0;
+    }
+
+    /**
+     * @see org.openquark.cal.foreignsupport.module.DataGems.QueryResult#getCurrentRowBoolean(java.lang.String)
+     */
+    public boolean getCurrentRowBoolean(String colName) throws DatabaseException {
+        return getCurrentRowBoolean(columnIndex(colName));
+    }
+
+    /**
+     * @see org.openquark.cal.foreignsupport.module.DataGems.QueryResult#getCurrentRowBytes(int)
+     */
+    public byte[] getCurrentRowBytes(int colIndex) throws DatabaseException {
+        Object value = fetch(colIndex);
+        if (value == null) {
+            return JDBC.Connection.NULL_BYTES;
+        }
+        if (value instanceof byte[]) {
+            return ((byte[]) value).clone();
+        }
+        return value.toString().getBytes();
+    }
+
+    /**
+     * @see org.openquark.cal.foreignsupport.module.DataGems.QueryResult#getCurrentRowBytes(java.lang.String)
+     */
+    public byte[] getCurrentRowBytes(String colName) throws DatabaseException {
+        return getCurrentRowBytes(columnIndex(colName));
+    }
+
+    /**
+     * @see org.openquark.cal.foreignsupport.module.DataGems.QueryResult#getCurrentRowObject(int)
+     */
+    public Object getCurrentRowObject(int colIndex) throws DatabaseException {
+        Object value = fetch(colIndex);
+        if (value instanceof byte[]) {
+            return ((byte[]) value).clone();
+        }
+        return value == null ? JDBC.Connection.NULL_OBJECT : value;
+    }
+
+    /**
+     * @see org.openquark.cal.foreignsupport.module.DataGems.QueryResult#getCurrentRowObject(java.lang.String)
+     */
+    public Object getCurrentRowObject(String colName) throws DatabaseException {
+        return getCurrentRowObject(columnIndex(colName));
+    }
+}
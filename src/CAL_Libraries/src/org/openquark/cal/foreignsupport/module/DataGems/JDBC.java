@@ -46,7 +46,11 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Timestamp;
 import java.sql.Types;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.apache.log4j.Logger;
 import org.openquark.util.ByteArrays;
@@ -92,9 +96,29 @@ public class JDBC {
             /** Calculate the time used for executing batches and updates */
             private long executionTime = 0;
             
+            /** The longest time used for executing a single batch or update */
+            private long maxExecutionTime = 0;
+            
+            /** The number of batches and updates executed */
+            private long executionCount = 0;
+            
+            /** The number of parameter sets executed */
+            private long rowCount = 0;
+            
+            /** The number of parameter sets added to the current batch */
+            private int batchRowCount = 0;
+            
+            /** The connection whose query result cache is invalidated by updates, or null if there is none */
+            private final Connection owner;
+            
             public JDBCPreparedStatementImpl(String stmt, java.sql.Connection conn) throws DatabaseException {
+                this(stmt, conn, null);
+            }
+            
+            JDBCPreparedStatementImpl(String stmt, java.sql.Connection conn, Connection owner) throws DatabaseException {
                 try {
                     this.originalSql = stmt;
+                    this.owner = owner;
                     this.statement = conn.prepareStatement(stmt);
                 } catch (SQLException sqle) {
                     throw new DatabaseException(sqle);
@@ -216,6 +240,7 @@ public class JDBC {
                 long start = System.currentTimeMillis();
                 try {
                     statement.addBatch();
+                    ++batchRowCount;
                     return true;
                 } catch (SQLException sqle) {
                     throw new DatabaseException(sqle);
@@ -233,12 +258,19 @@ public class JDBC {
                     //long freeMem = Runtime.getRuntime().freeMemory();
                     //logger.info("Executing batch... " + freeMem + " bytes free");
                     logger.info("Executing batch");
-                    return statement.executeBatch();
+                    int[] updateCounts = statement.executeBatch();
+                    rowCount += batchRowCount;
+                    return updateCounts;
                 } catch (SQLException sqle) {
                     throw new DatabaseException(sqle);
                 } finally {
+                    // Some of the rows of the batch may have been written even if it failed.
+                    if (owner != null) {
+                        owner.invalidateCachedResultsForUpdate(originalSql);
+                    }
                     long endTime = System.currentTimeMillis();
-                    executionTime += (endTime - startTime);
+                    recordExecution(endTime - startTime);
+                    batchRowCount = 0;
                     logger.info("Time to execute batch: " + (endTime - startTime) + " ms");
                 }
             }
@@ -250,16 +282,32 @@ public class JDBC {
                 long startTime = System.currentTimeMillis();
                 try {
                     logger.info("Executing update");
-                    return statement.executeUpdate();
+                    int updateCount = statement.executeUpdate();
+                    ++rowCount;
+                    return updateCount;
                 } catch (SQLException sqle) {
                     throw new DatabaseException(sqle);
                 } finally {
+                    // The update may have been applied even if it failed (e.g. if the connection was lost before replying).
+                    if (owner != null) {
+                        owner.invalidateCachedResultsForUpdate(originalSql);
+                    }
                     long endTime = System.currentTimeMillis();
-                    executionTime += (endTime - startTime);
+                    recordExecution(endTime - startTime);
                     logger.info("Time to execute update: " + (endTime - startTime) + " ms");
                 }
             }
             
+            /**
+             * Updates the execution statistics for a batch or update.
+             * @param time  the time taken by the execution, in milli-seconds
+             */
+            private void recordExecution(long time) {
+                executionTime += time;
+                maxExecutionTime = Math.max(maxExecutionTime, time);
+                ++executionCount;
+            }
+            
             /**
              * @see org.openquark.cal.foreignsupport.module.DataGems.JDBCPreparedStatement#close()
              */
@@ -271,12 +319,59 @@ public class JDBC {
                 }
             }
             
+            /**
+             * Resets the execution statistics of the statement.
+             */
+            void resetStatistics() {
+                executionTime = 0;
+                maxExecutionTime = 0;
+                executionCount = 0;
+                rowCount = 0;
+            }
+            
+            /**
+             * Clears the parameters and any unexecuted batch of the statement, so that it can be reused.
+             * @throws DatabaseException
+             */
+            void reset() throws DatabaseException {
+                try {
+                    statement.clearParameters();
+                    if (batchRowCount > 0) {
+                        statement.clearBatch();
+                        batchRowCount = 0;
+                    }
+                } catch (SQLException sqle) {
+                    throw new DatabaseException(sqle);
+                }
+            }
+            
             /**
              * @see org.openquark.cal.foreignsupport.module.DataGems.JDBCPreparedStatement#getTotalExecutionTime()
              */
             public long getTotalExecutionTime() {
                 return executionTime;
             }
+            
+            /**
+             * @see org.openquark.cal.foreignsupport.module.DataGems.JDBCPreparedStatement#getExecutionCount()
+             */
+            public long getExecutionCount() {
+                return executionCount;
+            }
+            
+            /**
+             * @see org.openquark.cal.foreignsupport.module.DataGems.JDBCPreparedStatement#getRowCount()
+             */
+            public long getRowCount() {
+                return rowCount;
+            }
+            
+            /**
+             * @see org.openquark.cal.foreignsupport.module.DataGems.JDBCPreparedStatement#getMaxExecutionTime()
+             */
+            public long getMaxExecutionTime() {
+                return maxExecutionTime;
+            }
         }
         
         /**
@@ -295,7 +390,7 @@ public class JDBC {
              * Construct a JDBCQueryResult from a ResultSet
              * @param sqlResults the underlying ResultSet
              */
-            private JDBCQueryResult(ResultSet sqlResults) {
+            JDBCQueryResult(ResultSet sqlResults) {
                 this.sqlResults = sqlResults;
             }
 
@@ -1060,22 +1155,53 @@ public class JDBC {
         // The JDBC (underlying) connection
         private java.sql.Connection jdbcConnection;
         private Statement jdbcStatement;
+        
+        /** The maximum number of idle prepared statements cached for a connection. */
+        static final int MAX_CACHED_STATEMENTS = 32;
+        
+        /** 
+         * The idle cached prepared statements, keyed by SQL text, in least-recently-used order.
+         * A statement is removed from the map while it is checked out, so the statements evicted
+         * from the map (and closed) are never in use.
+         */
+        private final Map<String, JDBCPreparedStatementImpl> statementCache = 
+            new LinkedHashMap<String, JDBCPreparedStatementImpl>(16, 0.75f, true) {
+                private static final long serialVersionUID = -4373447322932466390L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, JDBCPreparedStatementImpl> eldest) {
+                    if (size() <= MAX_CACHED_STATEMENTS) {
+                        return false;
+                    }
+                    closeCachedStatement(eldest.getValue());
+                    return true;
+                }
+            };
+        
+        /** Whether the statement cache has been closed along with the connection. Guarded by statementCache. */
+        private boolean statementCacheClosed = false;
 
+        /** The cache of query results for this connection, or null if results are not cached. */
+        private volatile QueryResultCache resultCache = null;
+        
+        /** The SQL statements added to the current batch, which may invalidate cached results when the batch is executed. */
+        private final List<String> batchedUpdates = new ArrayList<String>();
+        
         // Static singletons
         private static Date baseDate = new Date(0);
         private static Time baseTime = new Time(0);
 
-        // Default null substitutions
-        private static final String NULL_STRING = "";
-        private static final int NULL_INT = Integer.MIN_VALUE;
-        private static final long NULL_LONG = Long.MIN_VALUE;
-        private static final double NULL_DOUBLE = Double.NaN;
-        private static final BigDecimal NULL_DECIMAL = BigDecimal.ZERO;
-        private static final Date NULL_DATE = baseDate;
-        private static final Time NULL_TIME = baseTime;
-        private static final Object NULL_OBJECT = null;
-        private static final boolean NULL_BOOLEAN = false;
-        private static final byte[] NULL_BYTES = new byte[0];
+        // Default null substitutions (also used by ResultBatchReader)
+        static final String NULL_STRING = "";
+        static final int NULL_INT = Integer.MIN_VALUE;
+        static final long NULL_LONG = Long.MIN_VALUE;
+        static final double NULL_DOUBLE = Double.NaN;
+        static final BigDecimal NULL_DECIMAL = BigDecimal.ZERO;
+        static final Date NULL_DATE = baseDate;
+        static final Time NULL_TIME = baseTime;
+        static final Object NULL_OBJECT = null;
+        static final boolean NULL_BOOLEAN = false;
+        static final byte[] NULL_BYTES = new byte[0];
 
         /**
          * Construct an a Connection from and underlying JDBC Connection
@@ -1139,6 +1265,7 @@ public class JDBC {
          * @throws DatabaseException
          */
         public void close() throws DatabaseException {
+            closeCachedStatements();
             try {
                 java.sql.Connection conn = getJdbcConnection();
                 if (conn != null && !conn.isClosed()) {
@@ -1149,6 +1276,61 @@ public class JDBC {
             }
         }
 
+        /**
+         * Closes the idle cached prepared statements. Statements which are checked out
+         * are closed when they are returned.
+         */
+        private void closeCachedStatements() {
+            List<JDBCPreparedStatementImpl> statements;
+            synchronized (statementCache) {
+                statementCacheClosed = true;
+                statements = new ArrayList<JDBCPreparedStatementImpl>(statementCache.values());
+                statementCache.clear();
+            }
+            for (final JDBCPreparedStatementImpl statement : statements) {
+                closeCachedStatement(statement);
+            }
+        }
+        
+        /**
+         * Closes a cached prepared statement which is no longer needed, logging any failure.
+         */
+        private static void closeCachedStatement(JDBCPreparedStatementImpl statement) {
+            try {
+                statement.close();
+            } catch (DatabaseException e) {
+                logger.warn("Failed to close cached statement: " + statement.getSQLStatement(), e);
+            }
+        }
+        
+        /**
+         * Returns a checked out statement to the statement cache, so that it can be reused.
+         * The statement is closed instead if it cannot be reset, if the cache has been closed, 
+         * or if there is already an idle statement for the same SQL.
+         * @param statement  a statement checked out by getCachedPreparedStatement
+         */
+        private void returnCachedStatement(JDBCPreparedStatementImpl statement) {
+            try {
+                statement.reset();
+            } catch (DatabaseException e) {
+                logger.warn("Failed to reset cached statement: " + statement.getSQLStatement(), e);
+                closeCachedStatement(statement);
+                return;
+            }
+            
+            boolean keep;
+            synchronized (statementCache) {
+                String sql = statement.getSQLStatement();
+                keep = !statementCacheClosed && !statementCache.containsKey(sql);
+                if (keep) {
+                    statementCache.put(sql, statement);
+                }
+            }
+            if (!keep) {
+                closeCachedStatement(statement);
+            }
+        }
+
         /**
          * Perform a SQL query on a given connection, from a textual SQL
          * statement
@@ -1182,6 +1364,196 @@ public class JDBC {
             }
         }
         
+        /**
+         * Perform a SQL query on a given connection, returning a reader which
+         * fetches the results in columnar batches as they are requested.
+         * <p>
+         * The fetch size is passed on to the JDBC driver as a hint for the number of
+         * rows to retrieve from the database at a time. Note that some drivers only honour
+         * the fetch size in certain modes (e.g. with auto-commit turned off).
+         * @param sqlQuery   the query
+         * @param fetchSize  the JDBC fetch size, or zero to use the driver's default
+         * @param batchSize  the maximum number of rows in each batch, or zero to use the default batch size
+         * @return the reader for the query results
+         * @throws DatabaseException
+         */
+        public ResultBatchReader streamingQueryFromSQLString(String sqlQuery, int fetchSize, int batchSize) throws DatabaseException {
+            long startTime = System.currentTimeMillis();
+            Statement stmt = null;
+            try {
+                stmt = getJdbcConnection().createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                if (fetchSize > 0) {
+                    stmt.setFetchSize(fetchSize);
+                }
+                
+                logger.info("Executing SQL (fetch size " + fetchSize + "):\n" + sqlQuery);
+                return new ResultBatchReader(stmt.executeQuery(sqlQuery), stmt, batchSize);
+            }
+            catch (SQLException e) {
+                if (stmt != null) {
+                    try {
+                        stmt.close();
+                    } catch (SQLException closeException) {
+                        logger.warn("Failed to close statement", closeException);
+                    }
+                }
+                throw new DatabaseException(e);
+            }
+            finally {
+                long endTime = System.currentTimeMillis();
+                logger.info("Time to execute query: " + (endTime - startTime) + " ms");
+            }
+        }
+        
+        /**
+         * Enables caching of query results for this connection, replacing any existing cache.
+         * Only queries performed by {@link #cachedQueryFromSQLString(String, List, List)} use the cache.
+         * @param maxEntries  the maximum number of results to cache
+         * @param maxRows  the maximum number of rows in a result which can be cached, or zero for no limit
+         * @param timeToLive  the time (in milli-seconds) for which a result remains valid, or zero if results do not expire
+         * @return this connection
+         */
+        public Connection enableQueryResultCache(int maxEntries, int maxRows, long timeToLive) {
+            resultCache = new QueryResultCache(maxEntries, maxRows, timeToLive);
+            return this;
+        }
+        
+        /**
+         * Disables caching of query results for this connection, and discards any cached results.
+         * @return this connection
+         */
+        public Connection disableQueryResultCache() {
+            resultCache = null;
+            return this;
+        }
+        
+        /**
+         * @return the cache of query results for this connection, or null if results are not cached.
+         */
+        public QueryResultCache getQueryResultCache() {
+            return resultCache;
+        }
+        
+        /**
+         * Perform a SQL query on a given connection, using the cached result if there is one.
+         * @param sqlQuery  the query
+         * @param tableNames  the names of the tables read by the query, or null if these are not known
+         * @return the result set
+         * @throws DatabaseException
+         * @see #cachedQueryFromSQLString(String, List, List)
+         */
+        public QueryResult cachedQueryFromSQLString(String sqlQuery, List<String> tableNames) throws DatabaseException {
+            return cachedQueryFromSQLString(sqlQuery, null, tableNames);
+        }
+        
+        /**
+         * Perform a parameterized SQL query on a given connection, using the cached result if there is one.
+         * <p>
+         * The results of the query are read into memory, and are added to the query result cache of the connection (if there is one).
+         * A cached result is discarded when one of the specified tables is invalidated, 
+         * either explicitly or by an update made through this connection.
+         * Updates made through other connections are not detected, so the time-to-live of the cache should 
+         * be chosen accordingly.
+         * @param sqlQuery  the query, in which parameters are marked by '?'
+         * @param parameters  the values of the query parameters, or null if there are none.
+         *   {@link Time} values are passed as timestamps, and null values as SQL nulls.
+         * @param tableNames  the names of the tables read by the query, or null if these are not known
+         * @return the result set
+         * @throws DatabaseException
+         */
+        public QueryResult cachedQueryFromSQLString(String sqlQuery, List<?> parameters, List<String> tableNames) throws DatabaseException {
+            QueryResultCache cache = resultCache;
+            if (cache != null) {
+                QueryResult cachedResult = cache.lookup(sqlQuery, parameters);
+                if (cachedResult != null) {
+                    logger.debug("Using cached result for SQL:\n" + sqlQuery);
+                    return cachedResult;
+                }
+            }
+            
+            CachedQueryResult result = readQueryResult(sqlQuery, parameters);
+            if (cache != null) {
+                cache.store(sqlQuery, parameters, tableNames, result);
+            }
+            return result.replay();
+        }
+        
+        /**
+         * Executes a (parameterized) query and reads its results into memory.
+         */
+        private CachedQueryResult readQueryResult(String sqlQuery, List<?> parameters) throws DatabaseException {
+            long startTime = System.currentTimeMillis();
+            PreparedStatement stmt = null;
+            try {
+                logger.info("Executing SQL:\n" + sqlQuery);
+                stmt = getJdbcConnection().prepareStatement(sqlQuery, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                if (parameters != null) {
+                    int parameterIndex = 1;
+                    for (final Object value : parameters) {
+                        if (value == null) {
+                            stmt.setNull(parameterIndex, Types.NULL);
+                        } else if (value instanceof Time) {
+                            stmt.setTimestamp(parameterIndex, new Timestamp(((Time) value).toDate().getTime()));
+                        } else {
+                            stmt.setObject(parameterIndex, value);
+                        }
+                        ++parameterIndex;
+                    }
+                }
+                
+                JDBCQueryResult queryResult = new JDBCQueryResult(stmt.executeQuery());
+                try {
+                    return CachedQueryResult.readFrom(queryResult);
+                } finally {
+                    queryResult.close();
+                }
+            }
+            catch (SQLException e) {
+                throw new DatabaseException(e);
+            }
+            finally {
+                if (stmt != null) {
+                    try {
+                        stmt.close();
+                    } catch (SQLException closeException) {
+                        logger.warn("Failed to close statement", closeException);
+                    }
+                }
+                long endTime = System.currentTimeMillis();
+                logger.info("Time to execute query: " + (endTime - startTime) + " ms");
+            }
+        }
+        
+        /**
+         * Discards the cached results of the queries which read the specified table.
+         * @param tableName  the name of the table, which may be qualified and/or quoted
+         * @return the number of results discarded
+         */
+        public int invalidateCachedResults(String tableName) {
+            QueryResultCache cache = resultCache;
+            return cache == null ? 0 : cache.invalidateTable(tableName);
+        }
+        
+        /**
+         * Discards the cached results which may be affected by the specified update statement.
+         * @param updateSQL  the text of an update statement
+         */
+        void invalidateCachedResultsForUpdate(String updateSQL) {
+            QueryResultCache cache = resultCache;
+            if (cache != null) {
+                cache.invalidateForUpdate(updateSQL);
+            }
+        }
+        
+        /**
+         * Discards all the cached query results for this connection.
+         * @return the number of results discarded
+         */
+        public int clearQueryResultCache() {
+            QueryResultCache cache = resultCache;
+            return cache == null ? 0 : cache.invalidateAll();
+        }
+        
         /**
          * Creates a prepared Statement from the given SQL string.
          * @param sql
@@ -1189,7 +1561,217 @@ public class JDBC {
          * @throws DatabaseException
          */
         public JDBCPreparedStatement createPreparedStatement(String sql) throws DatabaseException {
-            return new JDBCPreparedStatementImpl(sql, jdbcConnection);
+            return new JDBCPreparedStatementImpl(sql, jdbcConnection, this);
+        }
+        
+        /**
+         * Checks a prepared statement for the given SQL string out of the statement
+         * cache of this connection, preparing a new statement if there is no idle
+         * statement for the SQL.
+         * <p>
+         * The statement belongs to the caller until it is closed. Closing it returns it
+         * to the cache (with its parameters cleared) rather than closing it, and an idle
+         * statement is only closed when it is evicted from the cache or when the connection
+         * is closed. Clients which use the same SQL at the same time get different statements.
+         * @param sql
+         * @return JDBCPreparedStatement
+         * @throws DatabaseException
+         */
+        public JDBCPreparedStatement getCachedPreparedStatement(String sql) throws DatabaseException {
+            JDBCPreparedStatementImpl statement;
+            synchronized (statementCache) {
+                statement = statementCache.remove(sql);
+            }
+            if (statement == null) {
+                statement = new JDBCPreparedStatementImpl(sql, jdbcConnection, this);
+            } else {
+                statement.resetStatistics();
+            }
+            return new CheckedOutPreparedStatement(statement);
+        }
+        
+        /**
+         * A prepared statement checked out of the statement cache of the connection.
+         * This gives the client sole use of a cached statement until the client closes it,
+         * which returns the statement to the cache. Once closed, this wrapper can no
+         * longer be used, so a client cannot disturb the statement's next user.
+         */
+        private final class CheckedOutPreparedStatement implements JDBCPreparedStatement {
+            
+            /** The cached statement, or null once it has been returned to the cache */
+            private JDBCPreparedStatementImpl statement;
+            
+            /** The SQL of the statement */
+            private final String sql;
+            
+            // The statistics of the statement, as they were when it was returned to the cache
+            private long executionTime;
+            private long executionCount;
+            private long rowCount;
+            private long maxExecutionTime;
+            
+            CheckedOutPreparedStatement(JDBCPreparedStatementImpl statement) {
+                this.statement = statement;
+                this.sql = statement.getSQLStatement();
+            }
+            
+            /**
+             * @return the cached statement
+             * @throws DatabaseException if this statement has been closed
+             */
+            private synchronized JDBCPreparedStatementImpl getStatement() throws DatabaseException {
+                if (statement == null) {
+                    throw new DatabaseException("The prepared statement has been closed: " + sql);
+                }
+                return statement;
+            }
+            
+            /**
+             * @see org.openquark.cal.foreignsupport.module.DataGems.JDBCPreparedStatement#getSQLStatement()
+             */
+            public String getSQLStatement() {
+                return sql;
+            }
+            
+            /**
+             * @see org.openquark.cal.foreignsupport.module.DataGems.JDBCPreparedStatement#setBoolean(int, boolean)
+             */
+            public JDBCPreparedStatement setBoolean(int parameterIndex, boolean x) throws DatabaseException {
+                getStatement().setBoolean(parameterIndex, x);
+                return this;
+            }
+            
+            /**
+             * @see org.openquark.cal.foreignsupport.module.DataGems.JDBCPreparedStatement#setInt(int, int)
+             */
+            public JDBCPreparedStatement setInt(int parameterIndex, int x) throws DatabaseException {
+                getStatement().setInt(parameterIndex, x);
+                return this;
+            }
+            
+            /**
+             * @see org.openquark.cal.foreignsupport.module.DataGems.JDBCPreparedStatement#setDouble(int, double)
+             */
+            public JDBCPreparedStatement setDouble(int parameterIndex, double x) throws DatabaseException {
+                getStatement().setDouble(parameterIndex, x);
+                return this;
+            }
+            
+            /**
+             * @see org.openquark.cal.foreignsupport.module.DataGems.JDBCPreparedStatement#setString(int, java.lang.String)
+             */
+            public JDBCPreparedStatement setString(int parameterIndex, String x) throws DatabaseException {
+                getStatement().setString(parameterIndex, x);
+                return this;
+            }
+            
+            /**
+             * @see org.openquark.cal.foreignsupport.module.DataGems.JDBCPreparedStatement#setTime(int, org.openquark.util.time.Time)
+             */
+            public JDBCPreparedStatement setTime(int parameterIndex, Time x) throws DatabaseException {
+                getStatement().setTime(parameterIndex, x);
+                return this;
+            }
+            
+            /**
+             * @see org.openquark.cal.foreignsupport.module.DataGems.JDBCPreparedStatement#setNull(int, org.openquark.util.datadictionary.ValueType)
+             */
+            public JDBCPreparedStatement setNull(int parameterIndex, ValueType type) throws DatabaseException {
+                getStatement().setNull(parameterIndex, type);
+                return this;
+            }
+            
+            /**
+             * @see org.openquark.cal.foreignsupport.module.DataGems.JDBCPreparedStatement#clearParameters()
+             */
+            public void clearParameters() throws DatabaseException {
+                getStatement().clearParameters();
+            }
+            
+            /**
+             * @see org.openquark.cal.foreignsupport.module.DataGems.JDBCPreparedStatement#addBatch()
+             */
+            public boolean addBatch() throws DatabaseException {
+                return getStatement().addBatch();
+            }
+            
+            /**
+             * @see org.openquark.cal.foreignsupport.module.DataGems.JDBCPreparedStatement#executeBatch()
+             */
+            public int[] executeBatch() throws DatabaseException {
+                return getStatement().executeBatch();
+            }
+            
+            /**
+             * @see org.openquark.cal.foreignsupport.module.DataGems.JDBCPreparedStatement#executeUpdate()
+             */
+            public int executeUpdate() throws DatabaseException {
+                return getStatement().executeUpdate();
+            }
+            
+            /**
+             * Returns the statement to the statement cache. Has no effect if it has already been returned.
+             * @see org.openquark.cal.foreignsupport.module.DataGems.JDBCPreparedStatement#close()
+             */
+            public void close() {
+                JDBCPreparedStatementImpl returnedStatement;
+                synchronized (this) {
+                    if (statement == null) {
+                        return;
+                    }
+                    returnedStatement = statement;
+                    statement = null;
+                    executionTime = returnedStatement.getTotalExecutionTime();
+                    executionCount = returnedStatement.getExecutionCount();
+                    rowCount = returnedStatement.getRowCount();
+                    maxExecutionTime = returnedStatement.getMaxExecutionTime();
+                }
+                returnCachedStatement(returnedStatement);
+            }
+            
+            /**
+             * @see org.openquark.cal.foreignsupport.module.DataGems.JDBCPreparedStatement#getTotalExecutionTime()
+             */
+            public synchronized long getTotalExecutionTime() {
+                return statement != null ? statement.getTotalExecutionTime() : executionTime;
+            }
+            
+            /**
+             * @see org.openquark.cal.foreignsupport.module.DataGems.JDBCPreparedStatement#getExecutionCount()
+             */
+            public synchronized long getExecutionCount() {
+                return statement != null ? statement.getExecutionCount() : executionCount;
+            }
+            
+            /**
+             * @see org.openquark.cal.foreignsupport.module.DataGems.JDBCPreparedStatement#getRowCount()
+             */
+            public synchronized long getRowCount() {
+                return statement != null ? statement.getRowCount() : rowCount;
+            }
+            
+            /**
+             * @see org.openquark.cal.foreignsupport.module.DataGems.JDBCPreparedStatement#getMaxExecutionTime()
+             */
+            public synchronized long getMaxExecutionTime() {
+                return statement != null ? statement.getMaxExecutionTime() : maxExecutionTime;
+            }
+        }
+        
+        /**
+         * Creates a batched prepared statement for the given SQL string, which buffers
+         * the parameter sets added to it and executes them in batches through a
+         * prepared statement checked out of the statement cache for the SQL.
+         * Closing the batched statement returns that statement to the cache.
+         * @param sql
+         * @param batchSize  the number of parameter sets in each batch, or zero to adjust the batch size automatically
+         * @param asynchronous  whether batches should be executed on a separate writer thread
+         * @return JDBCPreparedStatement
+         * @throws DatabaseException
+         * @see BatchedPreparedStatement
+         */
+        public JDBCPreparedStatement createBatchedPreparedStatement(String sql, int batchSize, boolean asynchronous) throws DatabaseException {
+            return new BatchedPreparedStatement(getCachedPreparedStatement(sql), batchSize, asynchronous);
         }
 
         /**
@@ -1207,6 +1789,8 @@ public class JDBC {
             } catch (SQLException e) {
                 throw new DatabaseException(e);
             } finally {
+                // The update may have been applied even if it failed.
+                invalidateCachedResultsForUpdate(updateSQL);
                 long end = System.currentTimeMillis();
                 logger.info("Time to execute update: " + (end - start) + " ms");
             }
@@ -1222,6 +1806,9 @@ public class JDBC {
                 logger.debug("Batching SQL: " + sql);
                 Statement stmt = getJdbcStatement();
                 stmt.addBatch(sql);
+                synchronized (batchedUpdates) {
+                    batchedUpdates.add(sql);
+                }
                 return true;
             } catch (SQLException e) {
                 throw new DatabaseException(e);
@@ -1244,6 +1831,15 @@ public class JDBC {
                 throw new DatabaseException(e);
             }
             finally {
+                // The batch is cleared even if it fails, and some of its statements may have been executed.
+                List<String> updates;
+                synchronized (batchedUpdates) {
+                    updates = new ArrayList<String>(batchedUpdates);
+                    batchedUpdates.clear();
+                }
+                for (final String updateSQL : updates) {
+                    invalidateCachedResultsForUpdate(updateSQL);
+                }
                 long endTime = System.currentTimeMillis();
                 logger.info("Time to execute batch: " + (endTime - startTime) + " ms");
             }
@@ -1278,6 +1874,9 @@ public class JDBC {
                 // Only rollback connections that are not set to auto-commit. 
                 if (!getAutoCommit()) {
                     jdbcConnection.rollback();
+                    
+                    // Cached results may include uncommitted changes.
+                    clearQueryResultCache();
                 }
                 return true;
             } catch (SQLException e) {
@@ -148,4 +148,24 @@ public interface JDBCPreparedStatement {
      */
     public long getTotalExecutionTime();
     
+    /**
+     * Returns the number of times that a batch or update has been executed.
+     * @return long
+     */
+    public long getExecutionCount();
+    
+    /**
+     * Returns the number of parameter sets (rows) that have been executed, counting
+     * each batched parameter set and each update as one row.
+     * @return long
+     */
+    public long getRowCount();
+    
+    /**
+     * Returns the longest time spent on executing a single batch or update.  The
+     * result is expressed as milli-seconds.
+     * @return long
+     */
+    public long getMaxExecutionTime();
+    
 }
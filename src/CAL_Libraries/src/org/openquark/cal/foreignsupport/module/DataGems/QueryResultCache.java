@@ -0,0 +1,553 @@
+/*
+ * Copyright (c) 2007 BUSINESS OBJECTS SOFTWARE LIMITED
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *  
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *  
+ *     * Neither the name of Business Objects nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+
+/*
+ * QueryResultCache.java
+ * Created: Oct 18, 2026
+ */
+package org.openquark.cal.foreignsupport.module.DataGems;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+
+/**
+ * A cache of query results, keyed by the (normalized) SQL text of the query and the values of its parameters.
+ * <p>
+ * Each cached result records the names of the tables which the query reads. The cached results for a table
+ * can be discarded explicitly with {@link #invalidateTable(String)}, or by passing the text of an update 
+ * statement to {@link #invalidateForUpdate(String)}.
+ * Results are also discarded when they are older than the time-to-live of the cache, and the least recently
+ * used results are discarded when the cache holds more than its maximum number of entries.
+ * <p>
+ * The cached results are held in memory as {@link CachedQueryResult}s, and each lookup returns a new cursor
+ * over the cached rows. Results with more than the maximum number of rows are not cached.
+ * <p>
+ * This class is thread-safe.
+ */
+public final class QueryResultCache {
+
+    /** A regular expression for an identifier, which may be quoted. */
+    private static final String IDENTIFIER_REGEX = "(?:[\\w$#]+|\"[^\"]+\"|\\[[^\\]]+\\]|`[^`]+`)";
+
+    /** A regular expression for a table name, which may be qualified and/or quoted. */
+    private static final String TABLE_NAME_REGEX = "(" + IDENTIFIER_REGEX + "(?:\\s*\\.\\s*" + IDENTIFIER_REGEX + ")*)";
+
+    /** A regular expression for an optional table alias following a table name. */
+    private static final String OPTIONAL_ALIAS_REGEX = "(?:\\s+(?:AS\\s+)?" + IDENTIFIER_REGEX + ")?";
+
+    /**
+     * The patterns for the forms of update statements which modify a single table, which is matched by the first group.
+     * Each pattern must match the whole statement. Other forms, such as multi-table updates and deletes 
+     * or statements which cascade to other tables, are not recognized.
+     */
+    private static final Pattern[] SINGLE_TABLE_UPDATE_PATTERNS = {
+        makeUpdatePattern("INSERT\\s+INTO\\s+" + TABLE_NAME_REGEX + "(?:\\s*\\(|\\s+(?:VALUES|SELECT|SET|DEFAULT\\s+VALUES)\\b).*"),
+        makeUpdatePattern("UPDATE\\s+" + TABLE_NAME_REGEX + OPTIONAL_ALIAS_REGEX + "\\s+SET\\b.*"),
+        makeUpdatePattern("DELETE\\s+(?:FROM\\s+)?" + TABLE_NAME_REGEX + OPTIONAL_ALIAS_REGEX + "(?:\\s+WHERE\\b.*)?"),
+        makeUpdatePattern("MERGE\\s+INTO\\s+" + TABLE_NAME_REGEX + OPTIONAL_ALIAS_REGEX + "\\s+USING\\b.*"),
+        makeUpdatePattern("TRUNCATE\\s+(?:TABLE\\s+)?" + TABLE_NAME_REGEX),
+        makeUpdatePattern("DROP\\s+TABLE\\s+(?:IF\\s+EXISTS\\s+)?" + TABLE_NAME_REGEX),
+        makeUpdatePattern("CREATE\\s+TABLE\\s+(?:IF\\s+NOT\\s+EXISTS\\s+)?" + TABLE_NAME_REGEX + "(?:\\s*\\(|\\s+AS\\b).*"),
+        makeUpdatePattern("ALTER\\s+TABLE\\s+" + TABLE_NAME_REGEX + "\\s+(?:ADD|ALTER|DROP|MODIFY|RENAME)\\b.*")
+    };
+
+    /** 
+     * The keywords which may appear where the patterns expect a table name, in statements modifying other tables 
+     * (for example, UPDATE ONLY t or DELETE LOW_PRIORITY FROM t).
+     */
+    private static final Set<String> NON_TABLE_KEYWORDS = new HashSet<String>(Arrays.asList(
+            "DELAYED", "FROM", "HIGH_PRIORITY", "IF", "IGNORE", "INTO", "LOW_PRIORITY", "ONLY", "QUICK", "TABLE", "TOP"));
+
+    /**
+     * A cached query result, and the information needed to invalidate it.
+     */
+    private static final class Entry {
+        final CachedQueryResult result;
+        final Set<String> tableNames;
+        final long creationTime;
+
+        Entry(CachedQueryResult result, Set<String> tableNames, long creationTime) {
+            this.result = result;
+            this.tableNames = tableNames;
+            this.creationTime = creationTime;
+        }
+    }
+
+    /**
+     * The key of a cached query result.
+     */
+    private static final class Key {
+        private final String sql;
+        private final List<?> parameters;
+
+        Key(String sql, List<?> parameters) {
+            this.sql = normalizeSql(sql);
+            this.parameters = parameters == null ? Collections.emptyList() : new ArrayList<Object>(parameters);
+        }
+
+        /**
+         * @see java.lang.Object#equals(java.lang.Object)
+         */
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return sql.equals(other.sql) && parameters.equals(other.parameters);
+        }
+
+        /**
+         * @see java.lang.Object#hashCode()
+         */
+        @Override
+        public int hashCode() {
+            return 31 * sql.hashCode() + parameters.hashCode();
+        }
+    }
+
+    /** The maximum number of results held in the cache. */
+    private final int maxEntries;
+
+    /** The maximum number of rows in a result which can be cached. */
+    private final int maxRows;
+
+    /** The time (in milli-seconds) for which a result remains valid, or zero if results do not expire. */
+    private final long timeToLive;
+
+    /** The cached results, in least-recently-used order. */
+    private final LinkedHashMap<Key, Entry> entries;
+
+    /** The keys of the cached results for each table, keyed by the normalized table name. */
+    private final Map<String, Set<Key>> keysByTable = new HashMap<String, Set<Key>>();
+
+    /** The keys of the cached results for which the tables are not known. */
+    private final Set<Key> keysWithUnknownTables = new HashSet<Key>();
+
+    /** The total number of rows in the cached results. */
+    private long cachedRowCount = 0;
+
+    /** The number of lookups which found a valid cached result. */
+    private long hitCount = 0;
+
+    /** The number of lookups which did not find a valid cached result. */
+    private long missCount = 0;
+
+    /**
+     * Constructor for a QueryResultCache.
+     * @param maxEntries  the maximum number of results to cache
+     * @param maxRows  the maximum number of rows in a result which can be cached, or zero for no limit
+     * @param timeToLive  the time (in milli-seconds) for which a result remains valid, or zero if results do not expire
+     */
+    public QueryResultCache(int maxEntries, int maxRows, long timeToLive) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("The maximum number of entries must be positive.");
+        }
+        this.maxEntries = maxEntries;
+        this.maxRows = maxRows;
+        this.timeToLive = timeToLive;
+        this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true);
+    }
+
+    /**
+     * Returns the cached result for a query, if there is a valid one.
+     * @param sql  the text of the query
+     * @param parameters  the values of the query parameters (may be null if there are none)
+     * @return a new cursor over the cached result, or null if the result is not cached
+     */
+    public synchronized QueryResult lookup(String sql, List<?> parameters) {
+        Key key = new Key(sql, parameters);
+        Entry entry = entries.get(key);
+        if (entry != null && isExpired(entry, System.currentTimeMillis())) {
+            remove(key);
+            entry = null;
+        }
+        if (entry == null) {
+            ++missCount;
+            return null;
+        }
+        ++hitCount;
+        return entry.result.replay();
+    }
+
+    /**
+     * Adds the result of a query to the cache, replacing any existing result for the query.
+     * The result is not cached if it has more rows than the maximum for the cache.
+     * @param sql  the text of the query
+     * @param parameters  the values of the query parameters (may be null if there are none)
+     * @param tableNames  the names of the tables read by the query, or null if these are not known.
+     *   Results for which the tables are not known are discarded whenever any table is invalidated.
+     * @param result  the result of the query
+     * @return whether the result was added to the cache
+     */
+    public synchronized boolean store(String sql, List<?> parameters, Collection<String> tableNames, CachedQueryResult result) {
+        if (maxRows > 0 && result.getRowCount() > maxRows) {
+            return false;
+        }
+
+        Key key = new Key(sql, parameters);
+        remove(key);
+
+        Set<String> normalizedTableNames = null;
+        if (tableNames != null) {
+            normalizedTableNames = new HashSet<String>();
+            for (final String tableName : tableNames) {
+                normalizedTableNames.add(normalizeTableName(tableName));
+            }
+        }
+
+        entries.put(key, new Entry(result, normalizedTableNames, System.currentTimeMillis()));
+        cachedRowCount += result.getRowCount();
+        if (normalizedTableNames == null) {
+            keysWithUnknownTables.add(key);
+        } else {
+            for (final String tableName : normalizedTableNames) {
+                Set<Key> keys = keysByTable.get(tableName);
+                if (keys == null) {
+                    keys = new HashSet<Key>();
+                    keysByTable.put(tableName, keys);
+                }
+                keys.add(key);
+            }
+        }
+
+        // Discard the least recently used results.
+        while (entries.size() > maxEntries) {
+            remove(entries.keySet().iterator().next());
+        }
+        return true;
+    }
+
+    /**
+     * Discards the cached results of the queries which read the specified table, 
+     * along with any results for which the tables are not known.
+     * @param tableName  the name of the table, which may be qualified and/or quoted
+     * @return the number of results discarded
+     */
+    public synchronized int invalidateTable(String tableName) {
+        int nRemoved = 0;
+        Set<Key> keys = keysByTable.get(normalizeTableName(tableName));
+        if (keys != null) {
+            for (final Key key : new ArrayList<Key>(keys)) {
+                if (remove(key)) {
+                    ++nRemoved;
+                }
+            }
+        }
+        for (final Key key : new ArrayList<Key>(keysWithUnknownTables)) {
+            if (remove(key)) {
+                ++nRemoved;
+            }
+        }
+        return nRemoved;
+    }
+
+    /**
+     * Discards the cached results which may be affected by the specified update statement.
+     * If the table modified by the statement cannot be determined, all the cached results are discarded.
+     * @param updateSql  the text of an update statement
+     * @return the number of results discarded
+     */
+    public int invalidateForUpdate(String updateSql) {
+        String tableName = getModifiedTable(updateSql);
+        if (tableName == null) {
+            return invalidateAll();
+        }
+        return invalidateTable(tableName);
+    }
+
+    /**
+     * Discards all the cached results.
+     * @return the number of results discarded
+     */
+    public synchronized int invalidateAll() {
+        int nRemoved = entries.size();
+        entries.clear();
+        keysByTable.clear();
+        keysWithUnknownTables.clear();
+        cachedRowCount = 0;
+        return nRemoved;
+    }
+
+    /**
+     * Discards the cached results which have expired.
+     * @return the number of results discarded
+     */
+    public synchronized int removeExpiredEntries() {
+        if (timeToLive <= 0) {
+            return 0;
+        }
+        long now = System.currentTimeMillis();
+        List<Key> expiredKeys = new ArrayList<Key>();
+        for (final Map.Entry<Key, Entry> mapEntry : entries.entrySet()) {
+            if (isExpired(mapEntry.getValue(), now)) {
+                expiredKeys.add(mapEntry.getKey());
+            }
+        }
+        for (final Key key : expiredKeys) {
+            remove(key);
+        }
+        return expiredKeys.size();
+    }
+
+    /**
+     * @return the number of results in the cache.
+     */
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    /**
+     * @return the total number of rows in the cached results.
+     */
+    public synchronized long getCachedRowCount() {
+        return cachedRowCount;
+    }
+
+    /**
+     * @return the number of lookups which found a valid cached result.
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return the number of lookups which did not find a valid cached result.
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public synchronized String toString() {
+        return "QueryResultCache (" + entries.size() + " results, " + cachedRowCount + " rows, " + hitCount + " hits, " + missCount + " misses)";
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return timeToLive > 0 && now - entry.creationTime >= timeToLive;
+    }
+
+    /**
+     * Removes a cached result.
+     * @return whether there was a cached result for the key
+     */
+    private boolean remove(Key key) {
+        Entry entry = entries.remove(key);
+        if (entry == null) {
+            return false;
+        }
+        cachedRowCount -= entry.result.getRowCount();
+        if (entry.tableNames == null) {
+            keysWithUnknownTables.remove(key);
+        } else {
+            for (final String tableName : entry.tableNames) {
+                Set<Key> keys = keysByTable.get(tableName);
+                if (keys != null && keys.remove(key) && keys.isEmpty()) {
+                    keysByTable.remove(tableName);
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Normalizes the text of a SQL statement, so that statements differing only in their layout
+     * share the same cached result.
+     * Runs of whitespace outside quoted strings and identifiers are collapsed to a single space, 
+     * and leading and trailing whitespace and any trailing semicolon are removed.
+     * @param sql  the text of a SQL statement
+     * @return the normalized text
+     */
+    static String normalizeSql(String sql) {
+        StringBuilder sb = new StringBuilder(sql.length());
+        char quote = 0;
+        boolean pendingSpace = false;
+        for (int i = 0, n = sql.length(); i < n; ++i) {
+            char c = sql.charAt(i);
+            if (quote != 0) {
+                sb.append(c);
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (Character.isWhitespace(c)) {
+                pendingSpace = sb.length() > 0;
+            } else {
+                if (pendingSpace) {
+                    sb.append(' ');
+                    pendingSpace = false;
+                }
+                sb.append(c);
+                if (c == '\'' || c == '"' || c == '`') {
+                    quote = c;
+                } else if (c == '[') {
+                    quote = ']';
+                }
+            }
+        }
+        while (sb.length() > 0 && sb.charAt(sb.length() - 1) == ';') {
+            sb.setLength(sb.length() - 1);
+            if (sb.length() > 0 && sb.charAt(sb.length() - 1) == ' ') {
+                sb.setLength(sb.length() - 1);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Normalizes a table name for matching.
+     * Any qualifiers and quotes are removed, and the name is converted to upper case.
+     * @param tableName  the name of a table, which may be qualified and/or quoted
+     * @return the normalized name
+     */
+    static String normalizeTableName(String tableName) {
+        String name = tableName.trim();
+
+        // Drop any qualifiers (such as the schema or catalog name).
+        int lastDot = -1;
+        char quote = 0;
+        for (int i = 0, n = name.length(); i < n; ++i) {
+            char c = name.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '"' || c == '`') {
+                quote = c;
+            } else if (c == '[') {
+                quote = ']';
+            } else if (c == '.') {
+                lastDot = i;
+            }
+        }
+        name = name.substring(lastDot + 1).trim();
+
+        if (name.length() >= 2) {
+            char first = name.charAt(0);
+            char last = name.charAt(name.length() - 1);
+            if ((first == '"' && last == '"') || (first == '`' && last == '`') || (first == '[' && last == ']')) {
+                name = name.substring(1, name.length() - 1);
+            }
+        }
+        return name.toUpperCase();
+    }
+
+    /**
+     * Returns the name of the table modified by an update statement.
+     * This recognizes only the simple single-table forms of INSERT, UPDATE, DELETE and MERGE statements, 
+     * along with statements which truncate, drop, alter or create a single table.
+     * Multi-table statements (such as UPDATE t1 JOIN t2 or DELETE a, b FROM), statements containing 
+     * comments or more than one statement, and any other forms are not recognized.
+     * @param updateSql  the text of an update statement
+     * @return the name of the table modified by the statement, or null if this cannot be determined
+     */
+    public static String getModifiedTable(String updateSql) {
+        String sql = normalizeSql(updateSql);
+        if (hasCommentOrSeparator(sql)) {
+            return null;
+        }
+        for (final Pattern pattern : SINGLE_TABLE_UPDATE_PATTERNS) {
+            Matcher matcher = pattern.matcher(sql);
+            if (matcher.matches()) {
+                String tableName = removeUnquotedWhitespace(matcher.group(1));
+                return NON_TABLE_KEYWORDS.contains(tableName.toUpperCase()) ? null : tableName;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns whether the text of a SQL statement contains a comment or a statement separator 
+     * outside of its quoted strings and identifiers.
+     * @param sql  the normalized text of a SQL statement
+     */
+    private static boolean hasCommentOrSeparator(String sql) {
+        char quote = 0;
+        for (int i = 0, n = sql.length(); i < n; ++i) {
+            char c = sql.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '\'' || c == '"' || c == '`') {
+                quote = c;
+            } else if (c == '[') {
+                quote = ']';
+            } else if (c == ';' || sql.startsWith("--", i) || sql.startsWith("/*", i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes the whitespace outside the quoted parts of a table name (such as the whitespace around the dots of a qualified name).
+     */
+    private static String removeUnquotedWhitespace(String tableName) {
+        StringBuilder sb = new StringBuilder(tableName.length());
+        char quote = 0;
+        for (int i = 0, n = tableName.length(); i < n; ++i) {
+            char c = tableName.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '"' || c == '`') {
+                quote = c;
+            } else if (c == '[') {
+                quote = ']';
+            } else if (Character.isWhitespace(c)) {
+                continue;
+            }
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    private static Pattern makeUpdatePattern(String regex) {
+        return Pattern.compile(regex, Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    }
+}
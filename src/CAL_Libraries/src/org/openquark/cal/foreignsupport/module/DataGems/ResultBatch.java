@@ -0,0 +1,378 @@
+/*
+ * Copyright (c) 2007 BUSINESS OBJECTS SOFTWARE LIMITED
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *  
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *  
+ *     * Neither the name of Business Objects nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+
+/*
+ * ResultBatch.java
+ * Created: Oct 18, 2026
+ */
+package org.openquark.cal.foreignsupport.module.DataGems;
+
+import java.math.BigDecimal;
+
+import org.openquark.util.time.Time;
+
+
+/**
+ * A batch of consecutive rows from a query result, stored column by column.
+ * Each column holds its values in an array of the Java type best suited to the
+ * column's SQL type (e.g. an <code>int[]</code> for an INTEGER column or a
+ * <code>double[]</code> for a DOUBLE column), together with a flag per row
+ * indicating whether the value was null.
+ * <p>
+ * In the column returned by each of the <code>get...Column</code> methods, null values
+ * are replaced by the null value of the type returned, whatever the SQL type of the column:
+ * {@link Integer#MIN_VALUE} for int, {@link Long#MIN_VALUE} for long, {@link Double#NaN} for double,
+ * zero for decimal and the empty string for string values. These are the same values that the
+ * <code>getCurrentRow</code> methods of {@link QueryResult} return for nulls, so a batch column holds
+ * the same values as reading the column row by row would produce. Since these values can also
+ * occur as actual column values, use {@link #isNull} or {@link #getNullColumn} to tell which
+ * values were null.
+ * <p>
+ * Batches are produced by a {@link ResultBatchReader}.
+ */
+public final class ResultBatch {
+
+    /** The kinds of storage used for the columns of a batch. */
+    static final int INT_COLUMN = 0;
+    static final int LONG_COLUMN = 1;
+    static final int DOUBLE_COLUMN = 2;
+    static final int BOOLEAN_COLUMN = 3;
+    static final int DECIMAL_COLUMN = 4;
+    static final int TIME_COLUMN = 5;
+    static final int STRING_COLUMN = 6;
+    
+    /** The number of rows in the batch. */
+    private final int rowCount;
+    
+    /** The storage kind of each column. */
+    private final int[] columnKinds;
+    
+    /** The values of each column, as an array of the type given by the column kind. */
+    private final Object[] columnValues;
+    
+    /** For each column, whether the value in each row was null. */
+    private final boolean[][] columnNulls;
+
+    /**
+     * Constructor for ResultBatch.
+     * @param rowCount      the number of rows in the batch
+     * @param columnKinds   the storage kind of each column
+     * @param columnValues  the value array of each column, with exactly rowCount elements
+     * @param columnNulls   the null flags of each column, with exactly rowCount elements
+     */
+    ResultBatch(int rowCount, int[] columnKinds, Object[] columnValues, boolean[][] columnNulls) {
+        this.rowCount = rowCount;
+        this.columnKinds = columnKinds;
+        this.columnValues = columnValues;
+        this.columnNulls = columnNulls;
+    }
+    
+    /**
+     * Creates the value array for a column of the given kind.
+     * @param columnKind  the storage kind of the column
+     * @param size        the number of rows
+     * @return an array of the Java type used for the column kind
+     */
+    static Object makeColumnArray(int columnKind, int size) {
+        switch (columnKind) {
+        case INT_COLUMN:        return new int[size];
+        case LONG_COLUMN:       return new long[size];
+        case DOUBLE_COLUMN:     return new double[size];
+        case BOOLEAN_COLUMN:    return new boolean[size];
+        case DECIMAL_COLUMN:    return new BigDecimal[size];
+        case TIME_COLUMN:       return new Time[size];
+        default:                return new String[size];
+        }
+    }
+
+    /**
+     * @return the number of rows in the batch.
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * @return the number of columns in the batch.
+     */
+    public int getColumnCount() {
+        return columnKinds.length;
+    }
+
+    /**
+     * Returns whether the value in each row of the specified column was null.
+     * @param colIndex  the column index (1-based)
+     * @return          a flag for each row in the batch, which is true if the value was null
+     */
+    public boolean[] getNullColumn(int colIndex) {
+        return columnNulls[colIndex - 1];
+    }
+
+    /**
+     * Returns whether the value in the specified row and column was null.
+     * @param rowIndex  the row index (0-based)
+     * @param colIndex  the column index (1-based)
+     * @return          true if the value was null
+     */
+    public boolean isNull(int rowIndex, int colIndex) {
+        return columnNulls[colIndex - 1][rowIndex];
+    }
+
+    /**
+     * Returns the int values of the specified column.
+     * Other numeric columns are converted as by a Java cast, with null values becoming {@link Integer#MIN_VALUE}.
+     * @param colIndex  the column index (1-based)
+     * @return          the int value of the column for each row in the batch
+     * @throws DatabaseException if the column does not hold numeric values
+     */
+    public int[] getIntColumn(int colIndex) throws DatabaseException {
+        Object values = columnValues[colIndex - 1];
+        boolean[] nulls = columnNulls[colIndex - 1];
+        switch (columnKinds[colIndex - 1]) {
+        case INT_COLUMN:
+            return (int[])values;
+            
+        case LONG_COLUMN: {
+            long[] longValues = (long[])values;
+            int[] result = new int[rowCount];
+            for (int i = 0; i < rowCount; ++i) {
+                result[i] = nulls[i] ? JDBC.Connection.NULL_INT : (int)longValues[i];
+            }
+            return result;
+        }
+        
+        case DOUBLE_COLUMN: {
+            double[] doubleValues = (double[])values;
+            int[] result = new int[rowCount];
+            for (int i = 0; i < rowCount; ++i) {
+                result[i] = nulls[i] ? JDBC.Connection.NULL_INT : (int)doubleValues[i];
+            }
+            return result;
+        }
+        
+        case DECIMAL_COLUMN: {
+            BigDecimal[] decimalValues = (BigDecimal[])values;
+            int[] result = new int[rowCount];
+            for (int i = 0; i < rowCount; ++i) {
+                result[i] = nulls[i] ? JDBC.Connection.NULL_INT : decimalValues[i].intValue();
+            }
+            return result;
+        }
+        
+        default:
+            throw makeColumnTypeException(colIndex, "int");
+        }
+    }
+
+    /**
+     * Returns the long values of the specified column.
+     * Other numeric columns are converted as by a Java cast, with null values becoming {@link Long#MIN_VALUE}.
+     * @param colIndex  the column index (1-based)
+     * @return          the long value of the column for each row in the batch
+     * @throws DatabaseException if the column does not hold numeric values
+     */
+    public long[] getLongColumn(int colIndex) throws DatabaseException {
+        Object values = columnValues[colIndex - 1];
+        boolean[] nulls = columnNulls[colIndex - 1];
+        switch (columnKinds[colIndex - 1]) {
+        case LONG_COLUMN:
+            return (long[])values;
+            
+        case INT_COLUMN: {
+            int[] intValues = (int[])values;
+            long[] result = new long[rowCount];
+            for (int i = 0; i < rowCount; ++i) {
+                result[i] = nulls[i] ? JDBC.Connection.NULL_LONG : intValues[i];
+            }
+            return result;
+        }
+        
+        case DOUBLE_COLUMN: {
+            double[] doubleValues = (double[])values;
+            long[] result = new long[rowCount];
+            for (int i = 0; i < rowCount; ++i) {
+                result[i] = nulls[i] ? JDBC.Connection.NULL_LONG : (long)doubleValues[i];
+            }
+            return result;
+        }
+        
+        case DECIMAL_COLUMN: {
+            BigDecimal[] decimalValues = (BigDecimal[])values;
+            long[] result = new long[rowCount];
+            for (int i = 0; i < rowCount; ++i) {
+                result[i] = nulls[i] ? JDBC.Connection.NULL_LONG : decimalValues[i].longValue();
+            }
+            return result;
+        }
+        
+        default:
+            throw makeColumnTypeException(colIndex, "long");
+        }
+    }
+
+    /**
+     * Returns the double values of the specified column.
+     * Other numeric columns are converted, with null values becoming {@link Double#NaN}.
+     * @param colIndex  the column index (1-based)
+     * @return          the double value of the column for each row in the batch
+     * @throws DatabaseException if the column does not hold numeric values
+     */
+    public double[] getDoubleColumn(int colIndex) throws DatabaseException {
+        Object values = columnValues[colIndex - 1];
+        boolean[] nulls = columnNulls[colIndex - 1];
+        switch (columnKinds[colIndex - 1]) {
+        case DOUBLE_COLUMN:
+            return (double[])values;
+            
+        case INT_COLUMN: {
+            int[] intValues = (int[])values;
+            double[] result = new double[rowCount];
+            for (int i = 0; i < rowCount; ++i) {
+                result[i] = nulls[i] ? JDBC.Connection.NULL_DOUBLE : intValues[i];
+            }
+            return result;
+        }
+        
+        case LONG_COLUMN: {
+            long[] longValues = (long[])values;
+            double[] result = new double[rowCount];
+            for (int i = 0; i < rowCount; ++i) {
+                result[i] = nulls[i] ? JDBC.Connection.NULL_DOUBLE : longValues[i];
+            }
+            return result;
+        }
+        
+        case DECIMAL_COLUMN: {
+            BigDecimal[] decimalValues = (BigDecimal[])values;
+            double[] result = new double[rowCount];
+            for (int i = 0; i < rowCount; ++i) {
+                result[i] = nulls[i] ? JDBC.Connection.NULL_DOUBLE : decimalValues[i].doubleValue();
+            }
+            return result;
+        }
+        
+        default:
+            throw makeColumnTypeException(colIndex, "double");
+        }
+    }
+
+    /**
+     * Returns the boolean values of the specified column.
+     * @param colIndex  the column index (1-based)
+     * @return          the boolean value of the column for each row in the batch
+     * @throws DatabaseException if the column does not hold boolean values
+     */
+    public boolean[] getBooleanColumn(int colIndex) throws DatabaseException {
+        if (columnKinds[colIndex - 1] != BOOLEAN_COLUMN) {
+            throw makeColumnTypeException(colIndex, "boolean");
+        }
+        return (boolean[])columnValues[colIndex - 1];
+    }
+
+    /**
+     * Returns the decimal values of the specified column.
+     * Integer columns are converted exactly, with null values becoming zero.
+     * @param colIndex  the column index (1-based)
+     * @return          the decimal value of the column for each row in the batch
+     * @throws DatabaseException if the column does not hold decimal or integer values
+     */
+    public BigDecimal[] getDecimalColumn(int colIndex) throws DatabaseException {
+        Object values = columnValues[colIndex - 1];
+        boolean[] nulls = columnNulls[colIndex - 1];
+        switch (columnKinds[colIndex - 1]) {
+        case DECIMAL_COLUMN:
+            return (BigDecimal[])values;
+            
+        case INT_COLUMN: {
+            int[] intValues = (int[])values;
+            BigDecimal[] result = new BigDecimal[rowCount];
+            for (int i = 0; i < rowCount; ++i) {
+                result[i] = nulls[i] ? JDBC.Connection.NULL_DECIMAL : BigDecimal.valueOf(intValues[i]);
+            }
+            return result;
+        }
+        
+        case LONG_COLUMN: {
+            long[] longValues = (long[])values;
+            BigDecimal[] result = new BigDecimal[rowCount];
+            for (int i = 0; i < rowCount; ++i) {
+                result[i] = nulls[i] ? JDBC.Connection.NULL_DECIMAL : BigDecimal.valueOf(longValues[i]);
+            }
+            return result;
+        }
+        
+        default:
+            throw makeColumnTypeException(colIndex, "decimal");
+        }
+    }
+
+    /**
+     * Returns the time values of the specified column.
+     * @param colIndex  the column index (1-based)
+     * @return          the time value of the column for each row in the batch
+     * @throws DatabaseException if the column does not hold date or time values
+     */
+    public Time[] getTimeColumn(int colIndex) throws DatabaseException {
+        if (columnKinds[colIndex - 1] != TIME_COLUMN) {
+            throw makeColumnTypeException(colIndex, "time");
+        }
+        return (Time[])columnValues[colIndex - 1];
+    }
+
+    /**
+     * Returns the string values of the specified column.
+     * Columns of other types are converted to strings, with null values becoming empty strings.
+     * @param colIndex  the column index (1-based)
+     * @return          the string value of the column for each row in the batch
+     */
+    public String[] getStringColumn(int colIndex) {
+        Object values = columnValues[colIndex - 1];
+        if (columnKinds[colIndex - 1] == STRING_COLUMN) {
+            return (String[])values;
+        }
+        
+        boolean[] nulls = columnNulls[colIndex - 1];
+        String[] result = new String[rowCount];
+        for (int i = 0; i < rowCount; ++i) {
+            result[i] = nulls[i] ? JDBC.Connection.NULL_STRING : String.valueOf(java.lang.reflect.Array.get(values, i));
+        }
+        return result;
+    }
+    
+    /**
+     * Builds the exception thrown when a column is requested as a type it cannot be converted to.
+     */
+    private DatabaseException makeColumnTypeException(int colIndex, String typeName) {
+        return new DatabaseException("Column " + colIndex + " of the result batch cannot be read as " + typeName + " values.");
+    }
+}
@@ -0,0 +1,298 @@
+/*
+ * Copyright (c) 2007 BUSINESS OBJECTS SOFTWARE LIMITED
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *  
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *  
+ *     * Neither the name of Business Objects nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+
+/*
+ * ResultBatchReader.java
+ * Created: Oct 18, 2026
+ */
+package org.openquark.cal.foreignsupport.module.DataGems;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+
+import org.apache.log4j.Logger;
+import org.openquark.util.time.Time;
+
+
+/**
+ * Reads a forward-only JDBC resultset in batches of rows, decoding each batch
+ * into a columnar {@link ResultBatch}.
+ * <p>
+ * Unlike a {@link QueryResult}, the reader never repositions the resultset, and rows
+ * are only fetched from the database when the next batch is requested. Together with
+ * the fetch size of the underlying statement, this bounds the memory used for reading
+ * a large resultset to roughly one batch (plus whatever the caller retains).
+ * <p>
+ * Column values are read with the typed resultset getter for the column's SQL type,
+ * in the same way as the <code>getCurrentRow</code> methods of
+ * {@link JDBC.Connection.JDBCQueryResult}.
+ */
+public final class ResultBatchReader {
+    
+    private static final Logger logger = Logger.getLogger(ResultBatchReader.class);
+    
+    /** The number of rows in a batch if no positive batch size is specified. */
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+
+    /** The resultset being read, or null once the reader has been closed. */
+    private ResultSet resultSet;
+    
+    /** The statement which produced the resultset, which is closed with the reader. May be null. */
+    private final Statement statement;
+    
+    /** The maximum number of rows in each batch. */
+    private final int batchSize;
+    
+    /** The storage kind of each column, determined from the resultset metadata when the first batch is read. */
+    private int[] columnKinds;
+    
+    /** The number of rows read so far. */
+    private long rowsRead = 0;
+
+    /**
+     * Constructor for ResultBatchReader.
+     * @param resultSet  the resultset to be read, positioned before the first row
+     * @param statement  the statement which produced the resultset, to be closed along with it, or null
+     * @param batchSize  the maximum number of rows in each batch. If this is not positive, the default batch size is used.
+     */
+    public ResultBatchReader(ResultSet resultSet, Statement statement, int batchSize) {
+        if (resultSet == null) {
+            throw new NullPointerException("The argument 'resultSet' cannot be null.");
+        }
+        this.resultSet = resultSet;
+        this.statement = statement;
+        this.batchSize = batchSize > 0 ? batchSize : DEFAULT_BATCH_SIZE;
+    }
+
+    /**
+     * Returns the storage kind to use for a column with the specified JDBC type.
+     * @param jdbcType  a type from {@link java.sql.Types}
+     * @return          one of the column kinds of {@link ResultBatch}
+     */
+    private static int getColumnKind(int jdbcType) {
+        switch (jdbcType) {
+        case Types.TINYINT :
+        case Types.SMALLINT :
+        case Types.INTEGER :    return ResultBatch.INT_COLUMN;
+        case Types.BIGINT :     return ResultBatch.LONG_COLUMN;
+        case Types.FLOAT :
+        case Types.REAL :
+        case Types.DOUBLE :     return ResultBatch.DOUBLE_COLUMN;
+        case Types.NUMERIC :
+        case Types.DECIMAL :    return ResultBatch.DECIMAL_COLUMN;
+        case Types.BIT :
+        case Types.BOOLEAN :    return ResultBatch.BOOLEAN_COLUMN;
+        case Types.DATE :
+        case Types.TIME :
+        case Types.TIMESTAMP :  return ResultBatch.TIME_COLUMN;
+        default :               return ResultBatch.STRING_COLUMN;
+        }
+    }
+
+    /**
+     * Reads the next batch of rows.
+     * The reader is closed automatically once the last row has been read.
+     * @return the next batch of rows, or null if there are no more rows
+     * @throws DatabaseException
+     */
+    public ResultBatch readBatch() throws DatabaseException {
+        if (resultSet == null) {
+            return null;
+        }
+        
+        try {
+            if (columnKinds == null) {
+                ResultSetMetaData metaData = resultSet.getMetaData();
+                columnKinds = new int[metaData.getColumnCount()];
+                for (int i = 0; i < columnKinds.length; ++i) {
+                    columnKinds[i] = getColumnKind(metaData.getColumnType(i + 1));
+                }
+            }
+            
+            int nColumns = columnKinds.length;
+            Object[] columnValues = new Object[nColumns];
+            boolean[][] columnNulls = new boolean[nColumns][];
+            for (int i = 0; i < nColumns; ++i) {
+                columnValues[i] = ResultBatch.makeColumnArray(columnKinds[i], batchSize);
+                columnNulls[i] = new boolean[batchSize];
+            }
+            
+            int nRows = 0;
+            while (nRows < batchSize && resultSet.next()) {
+                for (int i = 0; i < nColumns; ++i) {
+                    columnNulls[i][nRows] = readValue(i, columnValues[i], nRows);
+                }
+                ++nRows;
+            }
+            rowsRead += nRows;
+            
+            if (nRows < batchSize) {
+                // The resultset is exhausted.
+                logger.debug("Read " + rowsRead + " rows in batches of " + batchSize);
+                close();
+                
+                if (nRows == 0) {
+                    return null;
+                }
+                for (int i = 0; i < nColumns; ++i) {
+                    columnValues[i] = truncate(columnValues[i], nRows);
+                    columnNulls[i] = (boolean[])truncate(columnNulls[i], nRows);
+                }
+            }
+            
+            return new ResultBatch(nRows, columnKinds, columnValues, columnNulls);
+        }
+        catch (SQLException e) {
+            // Don't let a failure to close hide the original exception.
+            try {
+                close();
+            } catch (DatabaseException closeException) {
+                logger.warn("Failed to close the resultset after a read failure", closeException);
+            }
+            throw new DatabaseException(e);
+        }
+    }
+    
+    /**
+     * Reads the value of a column of the current row into a column array.
+     * @param column  the column (0-based)
+     * @param values  the value array for the column
+     * @param row     the index of the row within the batch
+     * @return        true if the value was null
+     * @throws SQLException
+     */
+    private boolean readValue(int column, Object values, int row) throws SQLException {
+        int colIndex = column + 1;
+        switch (columnKinds[column]) {
+        case ResultBatch.INT_COLUMN: {
+            int intVal = resultSet.getInt(colIndex);
+            boolean wasNull = resultSet.wasNull();
+            ((int[])values)[row] = wasNull ? JDBC.Connection.NULL_INT : intVal;
+            return wasNull;
+        }
+        
+        case ResultBatch.LONG_COLUMN: {
+            long longVal = resultSet.getLong(colIndex);
+            boolean wasNull = resultSet.wasNull();
+            ((long[])values)[row] = wasNull ? JDBC.Connection.NULL_LONG : longVal;
+            return wasNull;
+        }
+        
+        case ResultBatch.DOUBLE_COLUMN: {
+            double doubleVal = resultSet.getDouble(colIndex);
+            boolean wasNull = resultSet.wasNull();
+            ((double[])values)[row] = wasNull ? JDBC.Connection.NULL_DOUBLE : doubleVal;
+            return wasNull;
+        }
+        
+        case ResultBatch.BOOLEAN_COLUMN: {
+            boolean boolVal = resultSet.getBoolean(colIndex);
+            boolean wasNull = resultSet.wasNull();
+            ((boolean[])values)[row] = wasNull ? JDBC.Connection.NULL_BOOLEAN : boolVal;
+            return wasNull;
+        }
+        
+        case ResultBatch.DECIMAL_COLUMN: {
+            BigDecimal decimalVal = resultSet.getBigDecimal(colIndex);
+            boolean wasNull = resultSet.wasNull() || decimalVal == null;
+            ((BigDecimal[])values)[row] = wasNull ? JDBC.Connection.NULL_DECIMAL : decimalVal;
+            return wasNull;
+        }
+        
+        case ResultBatch.TIME_COLUMN: {
+            Timestamp timestampVal = resultSet.getTimestamp(colIndex);
+            boolean wasNull = resultSet.wasNull() || timestampVal == null;
+            ((Time[])values)[row] = wasNull ? JDBC.Connection.NULL_TIME : Time.fromTimeStamp(timestampVal);
+            return wasNull;
+        }
+        
+        default: {
+            String strVal = resultSet.getString(colIndex);
+            boolean wasNull = resultSet.wasNull() || strVal == null;
+            ((String[])values)[row] = wasNull ? JDBC.Connection.NULL_STRING : strVal;
+            return wasNull;
+        }
+        }
+    }
+    
+    /**
+     * Returns a copy of the first elements of an array.
+     * @param array   a Java array (of primitive or object type)
+     * @param length  the number of elements to copy
+     * @return        a new array of the same type with the specified length
+     */
+    private static Object truncate(Object array, int length) {
+        Object result = java.lang.reflect.Array.newInstance(array.getClass().getComponentType(), length);
+        System.arraycopy(array, 0, result, 0, length);
+        return result;
+    }
+    
+    /**
+     * @return the number of rows read so far.
+     */
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    /**
+     * Closes the resultset and the statement which produced it.
+     * Has no effect if the reader is already closed.
+     * @throws DatabaseException
+     */
+    public void close() throws DatabaseException {
+        if (resultSet == null) {
+            return;
+        }
+        
+        try {
+            try {
+                resultSet.close();
+            } finally {
+                if (statement != null) {
+                    statement.close();
+                }
+            }
+        }
+        catch (SQLException e) {
+            throw new DatabaseException(e);
+        }
+        finally {
+            resultSet = null;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2007 BUSINESS OBJECTS SOFTWARE LIMITED
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *  
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *  
+ *     * Neither the name of Business Objects nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+
+
+/*
+ * ChunkedFileReader.java
+ * Creation date: Oct 18, 2026.
+ */
+
+package org.openquark.cal.foreignsupport.module.File;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A ChunkedFileReader reads a file incrementally through a {@link FileChannel}, either as
+ * a sequence of fixed-size byte chunks or as batches of text lines. Only one chunk or batch
+ * is held in memory at a time, so the File module can fold over files which are much larger
+ * than the heap.
+ * <p>
+ * The reader closes itself when the end of the file is reached. {@link #close()} may be
+ * called any number of times, so that the reader can also be registered as a cleanable
+ * resource with the execution context.
+ * <p>
+ * A reader should be used either for chunks or for lines, but not both: the line reader
+ * buffers ahead of the channel position.
+ */
+public final class ChunkedFileReader {
+    
+    /** The default number of bytes to read per chunk. */
+    public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+    
+    /** The channel from which the file is read. */
+    private final FileChannel channel;
+    
+    /** The size of the chunks returned by {@link #readChunk()}, and of the line reader's buffer. */
+    private final int chunkSize;
+    
+    /** The buffer into which chunks are read. Allocated on the first call to {@link #readChunk()}. */
+    private ByteBuffer chunkBuffer;
+    
+    /** The reader used by {@link #readLines(int)}. Created on the first call. */
+    private BufferedReader lineReader;
+    
+    /** Whether the underlying channel has been closed. */
+    private boolean closed;
+    
+    /**
+     * Opens the specified file for chunked reading.
+     * @param file the file to be read.
+     * @param chunkSize the number of bytes per chunk. If not positive, {@link #DEFAULT_CHUNK_SIZE} is used.
+     * @throws IOException if the file cannot be opened.
+     */
+    public ChunkedFileReader(File file, int chunkSize) throws IOException {
+        this.channel = new FileInputStream(file).getChannel();
+        this.chunkSize = chunkSize > 0 ? chunkSize : DEFAULT_CHUNK_SIZE;
+    }
+    
+    /**
+     * Reads the next chunk of the file. Every chunk except the last one has exactly
+     * the chunk size given on construction, so that fixed-length records can be
+     * read by using the record length as the chunk size.
+     * 
+     * @return the next chunk, or null if the end of the file has been reached.
+     * @throws IOException if the file cannot be read.
+     */
+    public byte[] readChunk() throws IOException {
+        if (closed) {
+            return null;
+        }
+        
+        if (chunkBuffer == null) {
+            chunkBuffer = ByteBuffer.allocate(chunkSize);
+        }
+        // Closing the reader releases the buffer, so hold on to it until the last chunk has been copied out.
+        ByteBuffer buffer = chunkBuffer;
+        buffer.clear();
+        
+        // A channel read may return fewer bytes than requested, so keep reading until
+        // the chunk is full or the end of the file is reached.
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                close();
+                break;
+            }
+        }
+        
+        buffer.flip();
+        if (!buffer.hasRemaining()) {
+            return null;
+        }
+        
+        byte[] chunk = new byte[buffer.remaining()];
+        buffer.get(chunk);
+        return chunk;
+    }
+    
+    /**
+     * Reads the next batch of lines from the file, using the platform default character
+     * encoding in the same way as {@link java.io.FileReader}.
+     * 
+     * @param maxLines the maximum number of lines to read. At least one line is read if available.
+     * @return the lines read, without line terminators. The list is empty if and only if
+     *   the end of the file has been reached.
+     * @throws IOException if the file cannot be read.
+     */
+    public List<String> readLines(int maxLines) throws IOException {
+        if (closed) {
+            return Collections.emptyList();
+        }
+        
+        if (lineReader == null) {
+            lineReader = new BufferedReader(new InputStreamReader(Channels.newInputStream(channel)), chunkSize);
+        }
+        
+        int limit = Math.max(maxLines, 1);
+        List<String> lines = new ArrayList<String>(limit);
+        while (lines.size() < limit) {
+            String line = lineReader.readLine();
+            if (line == null) {
+                close();
+                break;
+            }
+            lines.add(line);
+        }
+        return lines;
+    }
+    
+    /**
+     * Closes the file. Has no effect if the file is already closed.
+     * @throws IOException if the file cannot be closed.
+     */
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            chunkBuffer = null;
+            if (lineReader != null) {
+                lineReader.close();
+                lineReader = null;
+            } else {
+                channel.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2007 BUSINESS OBJECTS SOFTWARE LIMITED
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *  
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *  
+ *     * Neither the name of Business Objects nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+
+
+/*
+ * ChunkedFileWriter.java
+ * Creation date: Oct 18, 2026.
+ */
+
+package org.openquark.cal.foreignsupport.module.File;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+
+/**
+ * A ChunkedFileWriter writes a file incrementally through a {@link FileChannel}, buffering
+ * the text or binary data given to it so that a lazily produced sequence of lines or chunks
+ * can be written out in constant memory.
+ * <p>
+ * Text is encoded with the platform default character encoding, as by {@link java.io.FileWriter}.
+ * Text and binary writes may be interleaved; pending data of one kind is flushed before data
+ * of the other kind is written. {@link #close()} may be called any number of times, so that
+ * the writer can also be registered as a cleanable resource with the execution context.
+ */
+public final class ChunkedFileWriter {
+    
+    /** The default size of the write buffer, in bytes. */
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    
+    /** The channel to which the file is written. */
+    private final FileChannel channel;
+    
+    /** Buffers binary data until it is written to the channel. */
+    private final ByteBuffer byteBuffer;
+    
+    /** Buffers and encodes text. Writes through to the channel when flushed. */
+    private final BufferedWriter textWriter;
+    
+    /** Whether textWriter may hold text which has not yet been written to the channel. */
+    private boolean hasPendingText;
+    
+    /** Whether the underlying channel has been closed. */
+    private boolean closed;
+    
+    /**
+     * Opens the specified file for chunked writing.
+     * @param file the file to be written.
+     * @param append true to append to the file, false to overwrite it.
+     * @param bufferSize the size of the write buffer. If not positive, {@link #DEFAULT_BUFFER_SIZE} is used.
+     * @throws IOException if the file cannot be opened.
+     */
+    public ChunkedFileWriter(File file, boolean append, int bufferSize) throws IOException {
+        if (bufferSize <= 0) {
+            bufferSize = DEFAULT_BUFFER_SIZE;
+        }
+        this.channel = new FileOutputStream(file, append).getChannel();
+        this.byteBuffer = ByteBuffer.allocate(bufferSize);
+        this.textWriter = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(channel)), bufferSize);
+    }
+    
+    /**
+     * Writes the specified text.
+     * @param text the text to be written.
+     * @throws IOException if the file cannot be written.
+     */
+    public void write(String text) throws IOException {
+        flushBytes();
+        textWriter.write(text);
+        hasPendingText = true;
+    }
+    
+    /**
+     * Writes the specified text followed by the platform line separator.
+     * @param line the line to be written.
+     * @throws IOException if the file cannot be written.
+     */
+    public void writeLine(String line) throws IOException {
+        flushBytes();
+        textWriter.write(line);
+        textWriter.newLine();
+        hasPendingText = true;
+    }
+    
+    /**
+     * Writes the specified binary data.
+     * @param bytes the data to be written.
+     * @throws IOException if the file cannot be written.
+     */
+    public void writeBytes(byte[] bytes) throws IOException {
+        flushText();
+        
+        if (bytes.length >= byteBuffer.capacity()) {
+            // Large chunks go straight to the channel rather than being copied through the buffer.
+            flushBytes();
+            writeFully(ByteBuffer.wrap(bytes));
+            return;
+        }
+        
+        if (bytes.length > byteBuffer.remaining()) {
+            flushBytes();
+        }
+        byteBuffer.put(bytes);
+    }
+    
+    /**
+     * Writes any buffered data and closes the file. Has no effect if the file is already closed.
+     * @throws IOException if the file cannot be written or closed.
+     */
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            try {
+                flushText();
+                flushBytes();
+            } finally {
+                // Closing the writer closes the channel.
+                textWriter.close();
+            }
+        }
+    }
+    
+    /**
+     * Writes any buffered text to the channel.
+     */
+    private void flushText() throws IOException {
+        if (hasPendingText) {
+            hasPendingText = false;
+            textWriter.flush();
+        }
+    }
+    
+    /**
+     * Writes any buffered binary data to the channel.
+     */
+    private void flushBytes() throws IOException {
+        if (byteBuffer.position() > 0) {
+            byteBuffer.flip();
+            writeFully(byteBuffer);
+            byteBuffer.clear();
+        }
+    }
+    
+    /**
+     * Writes all the remaining bytes of the given buffer to the channel.
+     */
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
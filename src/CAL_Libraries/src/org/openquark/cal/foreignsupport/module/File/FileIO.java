@@ -49,8 +49,11 @@ import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.RandomAccessFile;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 
 import org.openquark.util.IOStreams;
 
@@ -153,6 +156,42 @@ public final class FileIO {
         return readFileBinary(in, (int)fileLength);
     }
     
+    /**
+     * Read a region of the specified file into a byte array, by mapping the region into memory.
+     * The region is clipped to the end of the file, so the result may be shorter than the requested
+     * length, and is empty if the offset is at or beyond the end of the file.
+     * A negative offset or length results in an error, like the other failures of the read.
+     * @param fileName the name of the file to be read.
+     * @param offset the position in the file of the first byte to read. Must not be negative.
+     * @param length the maximum number of bytes to read. Must not be negative.
+     */
+    public static IOResult/*byte[]*/ readFileRegion(File fileName, long offset, int length) {
+        if (offset < 0 || length < 0) {
+            return IOResult.makeError(new IOException("Invalid file region: the offset (" + offset + ") and length (" + length + ") must not be negative."), fileName);
+        }
+        
+        try {
+            RandomAccessFile file = new RandomAccessFile(fileName, "r");
+            try {
+                FileChannel channel = file.getChannel();
+                long available = channel.size() - offset;
+                int regionLength = available <= 0 ? 0 : (int)Math.min(length, available);
+                
+                byte[] region = new byte[regionLength];
+                if (regionLength > 0) {
+                    MappedByteBuffer mappedRegion = channel.map(FileChannel.MapMode.READ_ONLY, offset, regionLength);
+                    mappedRegion.get(region);
+                }
+                return IOResult.makeResult(region);
+                
+            } finally {
+                file.close();
+            }
+        } catch (IOException e) {
+            return IOResult.makeError(e, fileName);
+        }
+    }
+    
     /**
      * Read the file specified by its file name or URL, and return the contents in a byte array.
      * @param fileNameOrUrl the url or name of the file to be read.
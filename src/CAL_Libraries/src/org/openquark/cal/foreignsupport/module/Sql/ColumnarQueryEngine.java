@@ -0,0 +1,2188 @@
+/*
+ * Copyright (c) 2007 BUSINESS OBJECTS SOFTWARE LIMITED
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *  
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *  
+ *     * Neither the name of Business Objects nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+
+/*
+ * ColumnarQueryEngine.java
+ * Created: Oct 18, 2026
+ */
+package org.openquark.cal.foreignsupport.module.Sql;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.openquark.cal.foreignsupport.module.Sql.DatabaseFunction.Conversion;
+import org.openquark.cal.foreignsupport.module.Sql.DatabaseFunction.Operator;
+import org.openquark.cal.foreignsupport.module.Sql.SqlExpression.ConstantExpression;
+import org.openquark.cal.foreignsupport.module.Sql.SqlExpression.FunctionExpression;
+import org.openquark.cal.foreignsupport.module.Sql.SqlExpression.ListExpression;
+import org.openquark.cal.foreignsupport.module.Sql.SqlExpression.ParameterExpression;
+import org.openquark.cal.foreignsupport.module.Sql.SqlExpression.QueryField;
+import org.openquark.cal.foreignsupport.module.Sql.SqlExpression.SubQueryExpression;
+import org.openquark.cal.foreignsupport.module.Sql.SqlQuery.SelectQuery;
+import org.openquark.cal.foreignsupport.module.Sql.SqlQuery.UnionQuery;
+import org.openquark.util.time.Time;
+import org.openquark.util.time.TimeZone;
+
+
+/**
+ * Evaluates queries in the {@link SqlQuery} model against a set of in-memory {@link ColumnarTable}s,
+ * instead of generating SQL text for a database server.
+ * <p>
+ * The query is processed a column at a time rather than a row at a time:
+ * <ul>
+ *   <li>The rows produced by the FROM clause are represented by a vector of row indices per query table,
+ *       so filtering and joining only move indices around and the table values are gathered lazily
+ *       for the fields which the query actually uses.
+ *   <li>Expressions are evaluated over whole columns, with tight loops over primitive arrays
+ *       for numeric arithmetic and comparisons.
+ *   <li>Joins are performed as hash joins on the equality conditions in the linking expression 
+ *       (any other conditions are applied to the matching pairs), and GROUP BY and DISTINCT use hash tables.
+ * </ul>
+ * <p>
+ * The engine supports the operators, conversions, aggregation functions, and most of the numeric, string and
+ * date functions of the query model, as well as uncorrelated subqueries.
+ * Some differences from a database server should be kept in mind:
+ * all numeric values are held as doubles (so dividing two integer values is not truncated, 
+ * and division by zero gives null); string comparisons are case sensitive; 
+ * and query parameters, correlated subqueries and database-specific functions are not supported
+ * (an exception is thrown for these).
+ * <p>
+ * An engine is immutable, so it can be used to run any number of queries (including concurrently) 
+ * against the same tables.
+ */
+public final class ColumnarQueryEngine {
+
+    /** The tables which can be referenced by the queries, keyed by table name. */
+    private final Map<String, ColumnarTable> tables;
+
+    /** The time zone in which the date parts of time values are determined. */
+    private final TimeZone timeZone;
+
+    /** A vector kind for values which are all null, and whose type is therefore unknown. */
+    private static final int NULL_KIND = -1;
+
+    /** The key used for null values when grouping rows. */
+    private static final Object NULL_KEY = new Object();
+
+    /** The names of the aggregation functions (as generated by Sql.defaultFunctionName). */
+    private static final Set<String> AGGREGATION_FUNCTION_NAMES = new HashSet<String>(Arrays.asList(new String[] {
+            "COUNT", "SUM", "AVG", "MIN", "MAX", "STDDEV", "STDDEVP", "VAR", "VARP",
+            "DISTINCT COUNT", "DISTINCT SUM", "DISTINCT AVG", "COUNT ALL" }));
+
+    /**
+     * Constructor for ColumnarQueryEngine.
+     * @param tables    the tables which can be referenced by the queries, keyed by table name
+     * @param timeZone  the time zone in which the date parts of time values are determined
+     */
+    public ColumnarQueryEngine(Map<String, ColumnarTable> tables, TimeZone timeZone) {
+        if (timeZone == null) {
+            throw new NullPointerException("A null value was specified for the time zone.");
+        }
+        this.tables = new LinkedHashMap<String, ColumnarTable>(tables);
+        this.timeZone = timeZone;
+    }
+
+    /**
+     * Constructor for ColumnarQueryEngine.
+     * @param tableNames  the names of the tables which can be referenced by the queries
+     * @param tables      the corresponding tables
+     * @param timeZone    the time zone in which the date parts of time values are determined
+     */
+    public ColumnarQueryEngine(List<?> tableNames, List<?> tables, TimeZone timeZone) {
+        this(makeTableMap(tableNames, tables), timeZone);
+    }
+
+    private static Map<String, ColumnarTable> makeTableMap(List<?> tableNames, List<?> tables) {
+        if (tableNames.size() != tables.size()) {
+            throw new IllegalArgumentException("The number of table names does not match the number of tables.");
+        }
+        Map<String, ColumnarTable> tableMap = new LinkedHashMap<String, ColumnarTable>();
+        for (int i = 0, n = tableNames.size(); i < n; ++i) {
+            tableMap.put((String) tableNames.get(i), (ColumnarTable) tables.get(i));
+        }
+        return tableMap;
+    }
+
+    /**
+     * @return the names of the tables which can be referenced by the queries.
+     */
+    public List<String> getTableNames() {
+        return new ArrayList<String>(tables.keySet());
+    }
+
+    /**
+     * Executes a query against the engine's tables.
+     * The result columns are named by the column aliases of the query, or by the field name 
+     * for unaliased fields, or else by the default alias (COL_VALUE1, COL_VALUE2, ...).
+     * @param query  the query to be executed
+     * @return       the query results
+     */
+    public ColumnarTable executeQuery(SqlQuery query) {
+        return executeQuery(query, Collections.<QueryTable>emptySet());
+    }
+
+    /////////////////////////////////////////////////////////////////////////////////
+    // Queries.
+
+    /**
+     * Executes a query, which may be a subquery of another query.
+     * As when generating SQL text for a subquery, the tables of the enclosing queries are not part of
+     * the FROM clause of the subquery, so references to them are correlated references (which are not supported).
+     * @param query            the query to be executed
+     * @param enclosingTables  the tables of the queries enclosing the query (empty if it is not a subquery)
+     * @return                 the query results
+     */
+    private ColumnarTable executeQuery(SqlQuery query, Set<QueryTable> enclosingTables) {
+        if (query instanceof UnionQuery) {
+            return executeUnionQuery((UnionQuery) query, enclosingTables);
+        }
+        return executeSelectQuery((SelectQuery) query, enclosingTables);
+    }
+
+    private ColumnarTable executeUnionQuery(UnionQuery query, Set<QueryTable> enclosingTables) {
+        ColumnarTable table1 = executeQuery(query.getQuery1(), enclosingTables);
+        ColumnarTable table2 = executeQuery(query.getQuery2(), enclosingTables);
+        int nColumns = table1.getColumnCount();
+        if (table2.getColumnCount() != nColumns) {
+            throw new IllegalArgumentException("Both queries in a Union must have the same number of columns.");
+        }
+
+        int rows1 = table1.getRowCount();
+        int rows2 = table2.getRowCount();
+        Vector[] columns = new Vector[nColumns];
+        for (int col = 0; col < nColumns; ++col) {
+            Object[] values = new Object[rows1 + rows2];
+            for (int row = 0; row < rows1; ++row) {
+                values[row] = table1.getValue(col, row);
+            }
+            for (int row = 0; row < rows2; ++row) {
+                values[rows1 + row] = table2.getValue(col, row);
+            }
+            columns[col] = Vector.fromValues(values);
+        }
+
+        int[] rows = identityRows(rows1 + rows2);
+        if (!query.isUnionAll()) {
+            rows = distinctRows(columns, rows);
+        }
+        return makeTable(table1.getColumnNames(), columns, rows);
+    }
+
+    private ColumnarTable executeSelectQuery(SelectQuery query, Set<QueryTable> enclosingTables) {
+        List<QueryColumn> columns = query.getColumns();
+        List<SqlOrdering> orderings = query.getOrderings();
+        List<SqlExpression> groups = query.getGroups();
+        SqlExpression restriction = query.getRestriction();
+        SqlExpression groupRestriction = query.getGroupRestriction();
+        boolean hasGroupRestriction = groupRestriction != null && !isTrueConstant(groupRestriction);
+
+        // The tables enclosing the subqueries of this query.
+        Set<QueryTable> subqueryEnclosingTables = new HashSet<QueryTable>(enclosingTables);
+        subqueryEnclosingTables.addAll(getQueryTables(query));
+
+        // FROM and WHERE.
+        Relation relation = evaluateFrom(query, enclosingTables, subqueryEnclosingTables);
+        if (restriction != null && !isTrueConstant(restriction)) {
+            relation = filter(relation, restriction, subqueryEnclosingTables);
+        }
+
+        // GROUP BY and HAVING.
+        boolean aggregated = !groups.isEmpty() || hasGroupRestriction;
+        for (int i = 0, n = columns.size(); i < n && !aggregated; ++i) {
+            aggregated = usesAggregation(columns.get(i).getExpression());
+        }
+        for (int i = 0, n = orderings.size(); i < n && !aggregated; ++i) {
+            aggregated = usesAggregation(orderings.get(i).getExpression());
+        }
+
+        RowScope rowScope = new RowScope(relation, subqueryEnclosingTables);
+        Scope scope = rowScope;
+        if (aggregated) {
+            GroupScope groupScope = groupRows(rowScope, groups);
+            if (hasGroupRestriction) {
+                groupScope = groupScope.restrict(evaluate(groupRestriction, groupScope));
+            }
+            scope = groupScope;
+        }
+
+        // SELECT.
+        int nColumns = columns.size();
+        List<String> columnNames = new ArrayList<String>(nColumns);
+        Vector[] columnValues = new Vector[nColumns];
+        for (int i = 0; i < nColumns; ++i) {
+            QueryColumn column = columns.get(i);
+            columnNames.add(columnName(column, i));
+            columnValues[i] = evaluate(column.getExpression(), scope);
+        }
+
+        // ORDER BY.
+        int[] rows = identityRows(scope.size());
+        int nOrderings = orderings.size();
+        Vector[] orderValues = new Vector[nOrderings];
+        boolean[] ascending = new boolean[nOrderings];
+        for (int i = 0; i < nOrderings; ++i) {
+            SqlOrdering ordering = orderings.get(i);
+            orderValues[i] = evaluate(ordering.getExpression(), scope);
+            ascending[i] = ordering.isAscending();
+        }
+        if (nOrderings > 0) {
+            rows = sortRows(rows, orderValues, ascending);
+        }
+
+        // Options.
+        List<QueryOption> options = query.getOptions();
+        for (int i = 0, n = options.size(); i < n; ++i) {
+            if (options.get(i) instanceof QueryOption.Distinct) {
+                rows = distinctRows(columnValues, rows);
+            }
+        }
+        for (int i = 0, n = options.size(); i < n; ++i) {
+            if (options.get(i) instanceof QueryOption.TopN) {
+                rows = topNRows((QueryOption.TopN) options.get(i), rows, orderValues);
+            }
+        }
+
+        return makeTable(columnNames, columnValues, rows);
+    }
+
+    /**
+     * Returns the name of a result column.
+     */
+    private static String columnName(QueryColumn column, int columnIndex) {
+        String alias = column.getAlias();
+        if (alias.length() > 0) {
+            return alias;
+        }
+        if (column.getExpression() instanceof QueryField) {
+            return ((QueryField) column.getExpression()).getFieldName();
+        }
+        return "COL_VALUE" + (columnIndex + 1);
+    }
+
+    /**
+     * Builds a table from the specified rows of the result column values.
+     */
+    private static ColumnarTable makeTable(List<String> columnNames, Vector[] columnValues, int[] rows) {
+        ColumnarTable.Builder builder = new ColumnarTable.Builder();
+        for (int col = 0; col < columnValues.length; ++col) {
+            Vector column = columnValues[col].gather(rows);
+            int kind = column.kind;
+            Object values;
+            switch (kind) {
+            case ColumnarTable.NUMBER_COLUMN:   values = column.numbers; break;
+            case ColumnarTable.BOOLEAN_COLUMN:  values = column.booleans; break;
+            case NULL_KIND:                     kind = ColumnarTable.STRING_COLUMN; values = new Object[rows.length]; break;
+            default:                            values = column.objects; break;
+            }
+            builder.addColumn(columnNames.get(col), kind, values, column.nulls);
+        }
+        return builder.build();
+    }
+
+    private static int[] identityRows(int size) {
+        int[] rows = new int[size];
+        for (int i = 0; i < size; ++i) {
+            rows[i] = i;
+        }
+        return rows;
+    }
+
+    /**
+     * Orders the rows by the specified ordering values.
+     * The sort is stable, and nulls are ordered before other values.
+     */
+    private static int[] sortRows(int[] rows, final Vector[] orderValues, final boolean[] ascending) {
+        Integer[] boxedRows = new Integer[rows.length];
+        for (int i = 0; i < rows.length; ++i) {
+            boxedRows[i] = Integer.valueOf(rows[i]);
+        }
+        Arrays.sort(boxedRows, new Comparator<Integer>() {
+            public int compare(Integer row1, Integer row2) {
+                for (int i = 0; i < orderValues.length; ++i) {
+                    int result = orderValues[i].compareRows(row1.intValue(), row2.intValue());
+                    if (result != 0) {
+                        return ascending[i] ? result : -result;
+                    }
+                }
+                return 0;
+            }
+        });
+        int[] sortedRows = new int[rows.length];
+        for (int i = 0; i < rows.length; ++i) {
+            sortedRows[i] = boxedRows[i].intValue();
+        }
+        return sortedRows;
+    }
+
+    /**
+     * Removes rows with duplicate values, keeping the first occurrence of each.
+     */
+    private static int[] distinctRows(Vector[] columnValues, int[] rows) {
+        Set<Object> seen = new HashSet<Object>();
+        IntList distinct = new IntList(rows.length);
+        for (int i = 0; i < rows.length; ++i) {
+            if (seen.add(groupKey(columnValues, rows[i]))) {
+                distinct.add(rows[i]);
+            }
+        }
+        return distinct.size() == rows.length ? rows : distinct.toArray();
+    }
+
+    /**
+     * Keeps the leading rows as specified by the TopN option.
+     */
+    private static int[] topNRows(QueryOption.TopN topN, int[] rows, Vector[] orderValues) {
+        int limit = topN.isPercent() ? (int) Math.ceil(rows.length * topN.getN() / 100.0) : topN.getN();
+        if (limit >= rows.length) {
+            return rows;
+        }
+        if (limit <= 0) {
+            return new int[0];
+        }
+        int end = limit;
+        if (topN.isWithTies() && orderValues.length > 0) {
+            int lastRow = rows[limit - 1];
+            while (end < rows.length && isTied(orderValues, lastRow, rows[end])) {
+                ++end;
+            }
+        }
+        int[] topRows = new int[end];
+        System.arraycopy(rows, 0, topRows, 0, end);
+        return topRows;
+    }
+
+    private static boolean isTied(Vector[] orderValues, int row1, int row2) {
+        for (int i = 0; i < orderValues.length; ++i) {
+            if (orderValues[i].compareRows(row1, row2) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /////////////////////////////////////////////////////////////////////////////////
+    // FROM clause and joins.
+
+    /**
+     * Evaluates the FROM clause of a query.
+     * Multiple join trees are combined by a cross join, as are any tables 
+     * which are referenced by the query expressions without being part of a join tree,
+     * other than the tables of the enclosing queries.
+     * @param query                    the query
+     * @param enclosingTables          the tables of the queries enclosing the query
+     * @param subqueryEnclosingTables  the tables enclosing the subqueries of the query
+     * @return                         the relation for the FROM clause
+     */
+    private Relation evaluateFrom(SelectQuery query, Set<QueryTable> enclosingTables, Set<QueryTable> subqueryEnclosingTables) {
+        Relation relation = null;
+        List<JoinNode> joins = query.getJoins();
+        for (int i = 0, n = joins.size(); i < n; ++i) {
+            Relation joinRelation = evaluateJoinNode(joins.get(i), subqueryEnclosingTables);
+            relation = relation == null ? joinRelation : join(relation, joinRelation, null, JoinType.INNER_JOIN, subqueryEnclosingTables);
+        }
+
+        for (final QueryTable queryTable : getQueryTables(query)) {
+            // A field of a table of an enclosing query is a correlated reference, which is reported when it is evaluated.
+            if (enclosingTables.contains(queryTable)) {
+                continue;
+            }
+            if (relation == null || relation.findAlias(queryTable.getTableAlias()) < 0) {
+                Relation tableRelation = scanQueryTable(queryTable, subqueryEnclosingTables);
+                relation = relation == null ? tableRelation : join(relation, tableRelation, null, JoinType.INNER_JOIN, subqueryEnclosingTables);
+            }
+        }
+
+        // A query without any tables produces a single row.
+        return relation == null ? Relation.SINGLE_ROW : relation;
+    }
+
+    /**
+     * Returns the tables of a query: the tables in its join trees, and the tables referenced by its expressions
+     * (but not by its subqueries).
+     */
+    private static Set<QueryTable> getQueryTables(SelectQuery query) {
+        Set<QueryTable> referencedTables = new LinkedHashSet<QueryTable>();
+        for (final JoinNode joinNode : query.getJoins()) {
+            collectJoinTables(joinNode, referencedTables);
+        }
+        for (final QueryColumn column : query.getColumns()) {
+            collectQueryTables(column.getExpression(), referencedTables);
+        }
+        collectQueryTables(query.getRestriction(), referencedTables);
+        for (final SqlOrdering ordering : query.getOrderings()) {
+            collectQueryTables(ordering.getExpression(), referencedTables);
+        }
+        for (final SqlExpression group : query.getGroups()) {
+            collectQueryTables(group, referencedTables);
+        }
+        collectQueryTables(query.getGroupRestriction(), referencedTables);
+        return referencedTables;
+    }
+
+    /**
+     * Adds the tables of a join tree to the set.
+     */
+    private static void collectJoinTables(JoinNode joinNode, Set<QueryTable> queryTables) {
+        if (joinNode instanceof JoinNode.JoinTable) {
+            queryTables.add(((JoinNode.JoinTable) joinNode).getTable());
+        } else {
+            JoinNode.JoinSubtree subtree = (JoinNode.JoinSubtree) joinNode;
+            collectJoinTables(subtree.getLeftNode(), queryTables);
+            collectJoinTables(subtree.getRightNode(), queryTables);
+        }
+    }
+
+    private Relation evaluateJoinNode(JoinNode joinNode, Set<QueryTable> subqueryEnclosingTables) {
+        if (joinNode instanceof JoinNode.JoinTable) {
+            return scanQueryTable(((JoinNode.JoinTable) joinNode).getTable(), subqueryEnclosingTables);
+        }
+        JoinNode.JoinSubtree subtree = (JoinNode.JoinSubtree) joinNode;
+        return join(evaluateJoinNode(subtree.getLeftNode(), subqueryEnclosingTables),
+                    evaluateJoinNode(subtree.getRightNode(), subqueryEnclosingTables),
+                    subtree.getLinkingExpression(),
+                    subtree.getJoinType(),
+                    subqueryEnclosingTables);
+    }
+
+    private Relation scanQueryTable(QueryTable queryTable, Set<QueryTable> subqueryEnclosingTables) {
+        ColumnarTable table;
+        if (queryTable instanceof QueryTable.BaseTable) {
+            table = lookupTable(((QueryTable.BaseTable) queryTable).getTableName());
+        } else {
+            table = executeQuery(((QueryTable.SubQueryTable) queryTable).getSubquery(), subqueryEnclosingTables);
+        }
+        return Relation.scan(queryTable.getTableAlias(), table);
+    }
+
+    private ColumnarTable lookupTable(String tableName) {
+        ColumnarTable table = tables.get(tableName);
+        if (table == null) {
+            for (final Map.Entry<String, ColumnarTable> entry : tables.entrySet()) {
+                if (entry.getKey().equalsIgnoreCase(tableName)) {
+                    return entry.getValue();
+                }
+            }
+            throw new IllegalArgumentException("There is no in-memory table named " + tableName + ".");
+        }
+        return table;
+    }
+
+    /**
+     * Joins two relations.
+     * Equality conditions between the two sides of the join are used as keys for a hash join, 
+     * which builds a hash table over the rows of the right relation and probes it with the rows of the left relation.
+     * The remaining conditions (if any) are evaluated over the matching pairs of rows.
+     * @param left       the left relation
+     * @param right      the right relation
+     * @param condition  the linking expression, or null for a cross join
+     * @param joinType   the type of join
+     * @param subqueryEnclosingTables  the tables enclosing any subqueries in the linking expression
+     * @return           the joined relation
+     */
+    private Relation join(Relation left, Relation right, SqlExpression condition, JoinType joinType, Set<QueryTable> subqueryEnclosingTables) {
+        List<SqlExpression> conjuncts = new ArrayList<SqlExpression>();
+        splitConjuncts(condition, conjuncts);
+
+        List<SqlExpression> leftKeys = new ArrayList<SqlExpression>();
+        List<SqlExpression> rightKeys = new ArrayList<SqlExpression>();
+        List<SqlExpression> residual = new ArrayList<SqlExpression>();
+        for (final SqlExpression conjunct : conjuncts) {
+            if (isOperatorExpression(conjunct, Operator.EQUAL_OPERATOR)) {
+                List<SqlExpression> args = ((FunctionExpression) conjunct).getArguments();
+                SqlExpression arg1 = args.get(0);
+                SqlExpression arg2 = args.get(1);
+                if (isBoundBy(arg1, left) && isBoundBy(arg2, right)) {
+                    leftKeys.add(arg1);
+                    rightKeys.add(arg2);
+                    continue;
+                }
+                if (isBoundBy(arg2, left) && isBoundBy(arg1, right)) {
+                    leftKeys.add(arg2);
+                    rightKeys.add(arg1);
+                    continue;
+                }
+            }
+            residual.add(conjunct);
+        }
+
+        // Find the candidate pairs of rows.
+        IntList leftRows = new IntList(Math.max(left.size, right.size));
+        IntList rightRows = new IntList(Math.max(left.size, right.size));
+        if (leftKeys.isEmpty()) {
+            for (int l = 0; l < left.size; ++l) {
+                for (int r = 0; r < right.size; ++r) {
+                    leftRows.add(l);
+                    rightRows.add(r);
+                }
+            }
+        } else {
+            Vector[] leftKeyValues = evaluateAll(leftKeys, new RowScope(left, subqueryEnclosingTables));
+            Vector[] rightKeyValues = evaluateAll(rightKeys, new RowScope(right, subqueryEnclosingTables));
+
+            // Build a chained hash table over the right rows.
+            // The rows are added in reverse so that each chain lists its rows in order.
+            Map<Object, Integer> chainHeads = new HashMap<Object, Integer>();
+            int[] nextInChain = new int[right.size];
+            for (int r = right.size - 1; r >= 0; --r) {
+                Object key = joinKey(rightKeyValues, r);
+                if (key != null) {
+                    Integer head = chainHeads.put(key, Integer.valueOf(r));
+                    nextInChain[r] = head == null ? -1 : head.intValue();
+                }
+            }
+
+            // Probe with the left rows.
+            for (int l = 0; l < left.size; ++l) {
+                Object key = joinKey(leftKeyValues, l);
+                Integer head = key == null ? null : chainHeads.get(key);
+                if (head != null) {
+                    for (int r = head.intValue(); r >= 0; r = nextInChain[r]) {
+                        leftRows.add(l);
+                        rightRows.add(r);
+                    }
+                }
+            }
+        }
+
+        // Apply the other join conditions to the candidates.
+        if (!residual.isEmpty()) {
+            Relation candidates = Relation.combine(left, right, leftRows.toArray(), rightRows.toArray());
+            RowScope candidateScope = new RowScope(candidates, subqueryEnclosingTables);
+            boolean[] keep = new boolean[candidates.size];
+            Arrays.fill(keep, true);
+            for (final SqlExpression conjunct : residual) {
+                Vector conditionValues = evaluate(conjunct, candidateScope);
+                for (int i = 0; i < keep.length; ++i) {
+                    keep[i] = keep[i] && conditionValues.isTrue(i);
+                }
+            }
+            IntList keptLeft = new IntList(keep.length);
+            IntList keptRight = new IntList(keep.length);
+            for (int i = 0; i < keep.length; ++i) {
+                if (keep[i]) {
+                    keptLeft.add(leftRows.get(i));
+                    keptRight.add(rightRows.get(i));
+                }
+            }
+            leftRows = keptLeft;
+            rightRows = keptRight;
+        }
+
+        // Add the unmatched rows for outer joins.
+        int joinTypeValue = joinType.getValue();
+        boolean keepLeft = joinTypeValue == JoinType.LEFT_OUTER_JOIN_VALUE || joinTypeValue == JoinType.FULL_OUTER_JOIN_VALUE;
+        boolean keepRight = joinTypeValue == JoinType.RIGHT_OUTER_JOIN_VALUE || joinTypeValue == JoinType.FULL_OUTER_JOIN_VALUE;
+        if (keepLeft || keepRight) {
+            boolean[] leftMatched = new boolean[left.size];
+            boolean[] rightMatched = new boolean[right.size];
+            for (int i = 0, n = leftRows.size(); i < n; ++i) {
+                leftMatched[leftRows.get(i)] = true;
+                rightMatched[rightRows.get(i)] = true;
+            }
+            if (keepLeft) {
+                for (int l = 0; l < left.size; ++l) {
+                    if (!leftMatched[l]) {
+                        leftRows.add(l);
+                        rightRows.add(-1);
+                    }
+                }
+            }
+            if (keepRight) {
+                for (int r = 0; r < right.size; ++r) {
+                    if (!rightMatched[r]) {
+                        leftRows.add(-1);
+                        rightRows.add(r);
+                    }
+                }
+            }
+        }
+
+        return Relation.combine(left, right, leftRows.toArray(), rightRows.toArray());
+    }
+
+    /**
+     * Returns the rows of the relation for which the condition is True.
+     */
+    private Relation filter(Relation relation, SqlExpression condition, Set<QueryTable> subqueryEnclosingTables) {
+        Vector conditionValues = evaluate(condition, new RowScope(relation, subqueryEnclosingTables));
+        IntList selected = new IntList(relation.size);
+        for (int i = 0; i < relation.size; ++i) {
+            if (conditionValues.isTrue(i)) {
+                selected.add(i);
+            }
+        }
+        return selected.size() == relation.size ? relation : relation.select(selected.toArray());
+    }
+
+    /**
+     * Splits an expression into the terms which are ANDed together, omitting constant True terms.
+     */
+    private static void splitConjuncts(SqlExpression expr, List<SqlExpression> conjuncts) {
+        if (expr == null || isTrueConstant(expr)) {
+            return;
+        }
+        if (isOperatorExpression(expr, Operator.AND_OPERATOR)) {
+            for (final SqlExpression arg : ((FunctionExpression) expr).getArguments()) {
+                splitConjuncts(arg, conjuncts);
+            }
+        } else {
+            conjuncts.add(expr);
+        }
+    }
+
+    /**
+     * Returns whether the expression references at least one field, and only fields of tables in the relation.
+     */
+    private static boolean isBoundBy(SqlExpression expr, Relation relation) {
+        Set<QueryTable> queryTables = new HashSet<QueryTable>();
+        if (!collectQueryTables(expr, queryTables) || queryTables.isEmpty()) {
+            return false;
+        }
+        for (final QueryTable queryTable : queryTables) {
+            if (relation.findAlias(queryTable.getTableAlias()) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Adds the query tables of the fields referenced by an expression to the set.
+     * Subqueries are not examined.
+     * @return false if the expression includes a subquery
+     */
+    private static boolean collectQueryTables(SqlExpression expr, Set<QueryTable> queryTables) {
+        if (expr instanceof QueryField) {
+            queryTables.add(((QueryField) expr).getQueryTable());
+            return true;
+        }
+        List<SqlExpression> subexpressions;
+        if (expr instanceof FunctionExpression) {
+            subexpressions = ((FunctionExpression) expr).getArguments();
+        } else if (expr instanceof ListExpression) {
+            subexpressions = ((ListExpression) expr).getListValues();
+        } else {
+            return !(expr instanceof SubQueryExpression);
+        }
+        boolean noSubqueries = true;
+        for (final SqlExpression subexpression : subexpressions) {
+            noSubqueries &= collectQueryTables(subexpression, queryTables);
+        }
+        return noSubqueries;
+    }
+
+    /////////////////////////////////////////////////////////////////////////////////
+    // Grouping and aggregation.
+
+    /**
+     * Assigns the rows to groups with the same values for the grouping expressions.
+     * If there are no grouping expressions, then all the rows belong to a single group.
+     */
+    private GroupScope groupRows(RowScope rowScope, List<SqlExpression> groups) {
+        int nRows = rowScope.size();
+        int[] groupOfRow = new int[nRows];
+        IntList representativeRows = new IntList(16);
+
+        if (groups.isEmpty()) {
+            representativeRows.add(nRows > 0 ? 0 : -1);
+        } else {
+            Vector[] groupValues = evaluateAll(groups, rowScope);
+            Map<Object, Integer> groupIds = new HashMap<Object, Integer>();
+            for (int row = 0; row < nRows; ++row) {
+                Object key = groupKey(groupValues, row);
+                Integer groupId = groupIds.get(key);
+                if (groupId == null) {
+                    groupId = Integer.valueOf(representativeRows.size());
+                    groupIds.put(key, groupId);
+                    representativeRows.add(row);
+                }
+                groupOfRow[row] = groupId.intValue();
+            }
+        }
+        return new GroupScope(rowScope, groupOfRow, representativeRows.toArray());
+    }
+
+    private static boolean isAggregationFunction(DatabaseFunction function) {
+        return function instanceof DatabaseFunction.Function
+            && AGGREGATION_FUNCTION_NAMES.contains(((DatabaseFunction.Function) function).getFunctionName());
+    }
+
+    /**
+     * Returns whether the expression includes an aggregation function (outside of any subqueries).
+     */
+    private static boolean usesAggregation(SqlExpression expr) {
+        if (expr instanceof FunctionExpression) {
+            FunctionExpression functionExpr = (FunctionExpression) expr;
+            if (isAggregationFunction(functionExpr.getDatabaseFunction())) {
+                return true;
+            }
+            for (final SqlExpression arg : functionExpr.getArguments()) {
+                if (usesAggregation(arg)) {
+                    return true;
+                }
+            }
+        } else if (expr instanceof ListExpression) {
+            for (final SqlExpression value : ((ListExpression) expr).getListValues()) {
+                if (usesAggregation(value)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Computes an aggregation function for each group.
+     * @param functionName  the name of the aggregation function
+     * @param arguments     the function arguments
+     * @param rowScope      the scope of the ungrouped rows
+     * @param groupOfRow    the group of each row, or -1 if the row is not in any group
+     * @param nGroups       the number of groups
+     * @return              the aggregated value for each group
+     */
+    private Vector aggregate(String functionName, List<SqlExpression> arguments, RowScope rowScope, int[] groupOfRow, int nGroups) {
+        if (functionName.equals("COUNT ALL") || arguments.isEmpty()) {
+            double[] counts = new double[nGroups];
+            for (int row = 0; row < groupOfRow.length; ++row) {
+                if (groupOfRow[row] >= 0) {
+                    ++counts[groupOfRow[row]];
+                }
+            }
+            return Vector.ofNumbers(counts, new boolean[nGroups]);
+        }
+
+        Vector values = evaluate(arguments.get(0), rowScope);
+        boolean[] isNull = values.nulls;
+
+        if (functionName.startsWith("DISTINCT ")) {
+            // Aggregate over the distinct values in each group.
+            List<Set<Object>> distinctValues = new ArrayList<Set<Object>>(nGroups);
+            for (int group = 0; group < nGroups; ++group) {
+                distinctValues.add(new HashSet<Object>());
+            }
+            for (int row = 0; row < groupOfRow.length; ++row) {
+                if (groupOfRow[row] >= 0 && !isNull[row]) {
+                    distinctValues.get(groupOfRow[row]).add(values.getKey(row));
+                }
+            }
+            double[] results = new double[nGroups];
+            boolean[] resultNulls = new boolean[nGroups];
+            String baseFunction = functionName.substring("DISTINCT ".length());
+            for (int group = 0; group < nGroups; ++group) {
+                Set<Object> groupValues = distinctValues.get(group);
+                if (baseFunction.equals("COUNT")) {
+                    results[group] = groupValues.size();
+                } else if (groupValues.isEmpty()) {
+                    resultNulls[group] = true;
+                } else {
+                    double total = 0;
+                    for (final Object value : groupValues) {
+                        total += ((Number) value).doubleValue();
+                    }
+                    results[group] = baseFunction.equals("AVG") ? total / groupValues.size() : total;
+                }
+            }
+            return Vector.ofNumbers(results, resultNulls);
+        }
+
+        if (functionName.equals("COUNT")) {
+            double[] counts = new double[nGroups];
+            for (int row = 0; row < groupOfRow.length; ++row) {
+                if (groupOfRow[row] >= 0 && !isNull[row]) {
+                    ++counts[groupOfRow[row]];
+                }
+            }
+            return Vector.ofNumbers(counts, new boolean[nGroups]);
+        }
+
+        if (functionName.equals("MIN") || functionName.equals("MAX")) {
+            boolean isMax = functionName.equals("MAX");
+            int[] bestRow = new int[nGroups];
+            Arrays.fill(bestRow, -1);
+            for (int row = 0; row < groupOfRow.length; ++row) {
+                int group = groupOfRow[row];
+                if (group >= 0 && !isNull[row]) {
+                    if (bestRow[group] < 0) {
+                        bestRow[group] = row;
+                    } else {
+                        int comparison = values.compareRows(row, bestRow[group]);
+                        if (isMax ? comparison > 0 : comparison < 0) {
+                            bestRow[group] = row;
+                        }
+                    }
+                }
+            }
+            return values.gather(bestRow);
+        }
+
+        if (values.kind == NULL_KIND) {
+            return Vector.ofNulls(nGroups);
+        }
+        values.checkKind(ColumnarTable.NUMBER_COLUMN, functionName);
+
+        // SUM, AVG and the variance functions are computed in a single pass using Welford's method.
+        double[] numbers = values.numbers;
+        long[] counts = new long[nGroups];
+        double[] sums = new double[nGroups];
+        double[] means = new double[nGroups];
+        double[] squaredDeviations = new double[nGroups];
+        for (int row = 0; row < groupOfRow.length; ++row) {
+            int group = groupOfRow[row];
+            if (group >= 0 && !isNull[row]) {
+                double value = numbers[row];
+                long count = ++counts[group];
+                sums[group] += value;
+                double delta = value - means[group];
+                means[group] += delta / count;
+                squaredDeviations[group] += delta * (value - means[group]);
+            }
+        }
+
+        double[] results = new double[nGroups];
+        boolean[] resultNulls = new boolean[nGroups];
+        for (int group = 0; group < nGroups; ++group) {
+            long count = counts[group];
+            if (functionName.equals("SUM")) {
+                results[group] = sums[group];
+                resultNulls[group] = count == 0;
+            } else if (functionName.equals("AVG")) {
+                results[group] = means[group];
+                resultNulls[group] = count == 0;
+            } else {
+                boolean population = functionName.endsWith("P");
+                long divisor = population ? count : count - 1;
+                if (divisor <= 0) {
+                    resultNulls[group] = true;
+                } else {
+                    double variance = squaredDeviations[group] / divisor;
+                    results[group] = functionName.startsWith("STDDEV") ? Math.sqrt(variance) : variance;
+                }
+            }
+        }
+        return Vector.ofNumbers(results, resultNulls);
+    }
+
+    /////////////////////////////////////////////////////////////////////////////////
+    // Expressions.
+
+    private Vector[] evaluateAll(List<SqlExpression> exprs, Scope scope) {
+        Vector[] values = new Vector[exprs.size()];
+        for (int i = 0; i < values.length; ++i) {
+            values[i] = evaluate(exprs.get(i), scope);
+        }
+        return values;
+    }
+
+    /**
+     * Evaluates an expression for all the rows (or groups) of a scope.
+     */
+    private Vector evaluate(SqlExpression expr, Scope scope) {
+        if (expr instanceof QueryField) {
+            return scope.fieldValues((QueryField) expr);
+        }
+        if (expr instanceof ConstantExpression) {
+            return Vector.constant(constantValue((ConstantExpression) expr), scope.size());
+        }
+        if (expr instanceof FunctionExpression) {
+            FunctionExpression functionExpr = (FunctionExpression) expr;
+            DatabaseFunction function = functionExpr.getDatabaseFunction();
+            if (isAggregationFunction(function)) {
+                return scope.aggregateValues(functionExpr);
+            }
+            List<SqlExpression> args = functionExpr.getArguments();
+            if (function instanceof Operator) {
+                return evaluateOperator((Operator) function, args, scope);
+            }
+            if (function instanceof Conversion) {
+                return evaluateConversion((Conversion) function, evaluate(args.get(0), scope));
+            }
+            return evaluateFunction(((DatabaseFunction.Function) function).getFunctionName(), evaluateAll(args, scope), scope.size());
+        }
+        if (expr instanceof SubQueryExpression) {
+            ColumnarTable result = executeQuery(((SubQueryExpression) expr).getSubquery(), scope.getSubqueryEnclosingTables());
+            Object value = result.getRowCount() == 0 ? null : result.getValue(0, 0);
+            return Vector.constant(value, scope.size());
+        }
+        if (expr instanceof ParameterExpression) {
+            throw new UnsupportedOperationException("Query parameters are not supported by the in-memory query engine.");
+        }
+        throw new UnsupportedOperationException("A list expression can only be used as the right operand of IN.");
+    }
+
+    private static Object constantValue(ConstantExpression expr) {
+        if (expr instanceof ConstantExpression.StringConstant) {
+            return ((ConstantExpression.StringConstant) expr).getStringValue();
+        }
+        if (expr instanceof ConstantExpression.NumericConstant) {
+            return Double.valueOf(((ConstantExpression.NumericConstant) expr).getStringValue());
+        }
+        if (expr instanceof ConstantExpression.BooleanConstant) {
+            return Boolean.valueOf(((ConstantExpression.BooleanConstant) expr).getBooleanValue());
+        }
+        if (expr instanceof ConstantExpression.TimeConstant) {
+            return ((ConstantExpression.TimeConstant) expr).getTimeValue();
+        }
+        return null;
+    }
+
+    private static boolean isTrueConstant(SqlExpression expr) {
+        return expr instanceof ConstantExpression.BooleanConstant
+            && ((ConstantExpression.BooleanConstant) expr).getBooleanValue();
+    }
+
+    private static boolean isOperatorExpression(SqlExpression expr, Operator operator) {
+        return expr instanceof FunctionExpression
+            && ((FunctionExpression) expr).getDatabaseFunction() == operator;
+    }
+
+    private Vector evaluateOperator(Operator op, List<SqlExpression> args, Scope scope) {
+        int size = scope.size();
+
+        if (op == Operator.EXISTS_OPERATOR) {
+            SqlExpression arg = args.get(0);
+            if (!(arg instanceof SubQueryExpression)) {
+                throw new UnsupportedOperationException("The EXISTS operator requires a subquery.");
+            }
+            boolean exists = executeQuery(((SubQueryExpression) arg).getSubquery(), scope.getSubqueryEnclosingTables()).getRowCount() > 0;
+            return Vector.constant(Boolean.valueOf(exists), size);
+        }
+        if (op == Operator.IN_OPERATOR) {
+            return evaluateIn(evaluate(args.get(0), scope), args.get(1), scope);
+        }
+        if (op == Operator.SIMPLE_CASE_OPERATOR || op == Operator.SEARCHED_CASE_OPERATOR) {
+            return evaluateCase(op == Operator.SIMPLE_CASE_OPERATOR, evaluateAll(args, scope), size);
+        }
+
+        Vector[] values = evaluateAll(args, scope);
+        if (op == Operator.AND_OPERATOR || op == Operator.OR_OPERATOR) {
+            Vector result = values[0];
+            for (int i = 1; i < values.length; ++i) {
+                result = logical(op == Operator.AND_OPERATOR, result, values[i]);
+            }
+            return result;
+        }
+        if (op == Operator.NOT_OPERATOR) {
+            Vector value = values[0];
+            if (value.kind == NULL_KIND) {
+                return value;
+            }
+            value.checkKind(ColumnarTable.BOOLEAN_COLUMN, op.getDescriptiveName());
+            boolean[] results = new boolean[size];
+            for (int i = 0; i < size; ++i) {
+                results[i] = !value.booleans[i];
+            }
+            return Vector.ofBooleans(results, value.nulls);
+        }
+        if (op == Operator.ISNULL_OPERATOR || op == Operator.ISNOTNULL_OPERATOR) {
+            boolean wantNull = op == Operator.ISNULL_OPERATOR;
+            boolean[] results = new boolean[size];
+            for (int i = 0; i < size; ++i) {
+                results[i] = values[0].nulls[i] == wantNull;
+            }
+            return Vector.ofBooleans(results, new boolean[size]);
+        }
+        if (op == Operator.EQUAL_OPERATOR || op == Operator.NOT_EQUAL_OPERATOR
+                || op == Operator.LESS_THAN_OPERATOR || op == Operator.LESS_THAN_OR_EQUAL_OPERATOR
+                || op == Operator.GREATER_THAN_OPERATOR || op == Operator.GREATER_THAN_OR_EQUAL_OPERATOR) {
+            return compare(op, values[0], values[1]);
+        }
+        if (op == Operator.BETWEEN_OPERATOR) {
+            return logical(true,
+                           compare(Operator.GREATER_THAN_OR_EQUAL_OPERATOR, values[0], values[1]),
+                           compare(Operator.LESS_THAN_OR_EQUAL_OPERATOR, values[0], values[2]));
+        }
+        if (op == Operator.LIKE_OPERATOR) {
+            return like(values[0], values[1]);
+        }
+        if (op == Operator.CONCAT_OPERATOR) {
+            return concat(values[0], values[1]);
+        }
+        if (op == Operator.NEGATE_OPERATOR || op == Operator.BITWISE_NOT_OPERATOR) {
+            Vector value = values[0];
+            if (value.kind == NULL_KIND) {
+                return value;
+            }
+            value.checkKind(ColumnarTable.NUMBER_COLUMN, op.getDescriptiveName());
+            double[] results = new double[size];
+            for (int i = 0; i < size; ++i) {
+                results[i] = op == Operator.NEGATE_OPERATOR ? -value.numbers[i] : ~(long) value.numbers[i];
+            }
+            return Vector.ofNumbers(results, value.nulls);
+        }
+        return arithmetic(op, values[0], values[1]);
+    }
+
+    /**
+     * Combines two Boolean values using SQL's three-valued logic.
+     */
+    private static Vector logical(boolean isAnd, Vector value1, Vector value2) {
+        int size = value1.size;
+        boolean[] results = new boolean[size];
+        boolean[] resultNulls = new boolean[size];
+        String opName = isAnd ? "And" : "Or";
+        if (value1.kind != NULL_KIND) {
+            value1.checkKind(ColumnarTable.BOOLEAN_COLUMN, opName);
+        }
+        if (value2.kind != NULL_KIND) {
+            value2.checkKind(ColumnarTable.BOOLEAN_COLUMN, opName);
+        }
+        for (int i = 0; i < size; ++i) {
+            boolean null1 = value1.nulls[i];
+            boolean null2 = value2.nulls[i];
+            // The value which decides the result on its own: False for AND, True for OR.
+            boolean decisive = !isAnd;
+            if ((!null1 && value1.booleans[i] == decisive) || (!null2 && value2.booleans[i] == decisive)) {
+                results[i] = decisive;
+            } else if (null1 || null2) {
+                resultNulls[i] = true;
+            } else {
+                results[i] = !decisive;
+            }
+        }
+        return Vector.ofBooleans(results, resultNulls);
+    }
+
+    /**
+     * Compares two values using a comparison operator.
+     */
+    private static Vector compare(Operator op, Vector value1, Vector value2) {
+        int size = value1.size;
+        if (value1.kind == NULL_KIND || value2.kind == NULL_KIND) {
+            return Vector.ofNulls(size);
+        }
+        boolean[] results = new boolean[size];
+        boolean[] resultNulls = orNulls(value1.nulls, value2.nulls);
+
+        if (value1.kind == ColumnarTable.NUMBER_COLUMN && value2.kind == ColumnarTable.NUMBER_COLUMN) {
+            double[] x = value1.numbers;
+            double[] y = value2.numbers;
+            if (op == Operator.EQUAL_OPERATOR) {
+                for (int i = 0; i < size; ++i) {
+                    results[i] = x[i] == y[i];
+                }
+            } else if (op == Operator.NOT_EQUAL_OPERATOR) {
+                for (int i = 0; i < size; ++i) {
+                    results[i] = x[i] != y[i];
+                }
+            } else if (op == Operator.LESS_THAN_OPERATOR) {
+                for (int i = 0; i < size; ++i) {
+                    results[i] = x[i] < y[i];
+                }
+            } else if (op == Operator.LESS_THAN_OR_EQUAL_OPERATOR) {
+                for (int i = 0; i < size; ++i) {
+                    results[i] = x[i] <= y[i];
+                }
+            } else if (op == Operator.GREATER_THAN_OPERATOR) {
+                for (int i = 0; i < size; ++i) {
+                    results[i] = x[i] > y[i];
+                }
+            } else {
+                for (int i = 0; i < size; ++i) {
+                    results[i] = x[i] >= y[i];
+                }
+            }
+            return Vector.ofBooleans(results, resultNulls);
+        }
+
+        for (int i = 0; i < size; ++i) {
+            if (!resultNulls[i]) {
+                int comparison = compareValues(value1.get(i), value2.get(i));
+                if (op == Operator.EQUAL_OPERATOR) {
+                    results[i] = comparison == 0;
+                } else if (op == Operator.NOT_EQUAL_OPERATOR) {
+                    results[i] = comparison != 0;
+                } else if (op == Operator.LESS_THAN_OPERATOR) {
+                    results[i] = comparison < 0;
+                } else if (op == Operator.LESS_THAN_OR_EQUAL_OPERATOR) {
+                    results[i] = comparison <= 0;
+                } else if (op == Operator.GREATER_THAN_OPERATOR) {
+                    results[i] = comparison > 0;
+                } else {
+                    results[i] = comparison >= 0;
+                }
+            }
+        }
+        return Vector.ofBooleans(results, resultNulls);
+    }
+
+    /**
+     * Applies a binary arithmetic or bitwise operator.
+     */
+    private static Vector arithmetic(Operator op, Vector value1, Vector value2) {
+        int size = value1.size;
+        if (value1.kind == NULL_KIND || value2.kind == NULL_KIND) {
+            return Vector.ofNulls(size);
+        }
+        if (op == Operator.PLUS_OPERATOR && value1.kind == ColumnarTable.STRING_COLUMN && value2.kind == ColumnarTable.STRING_COLUMN) {
+            return concat(value1, value2);
+        }
+        value1.checkKind(ColumnarTable.NUMBER_COLUMN, op.getDescriptiveName());
+        value2.checkKind(ColumnarTable.NUMBER_COLUMN, op.getDescriptiveName());
+
+        double[] x = value1.numbers;
+        double[] y = value2.numbers;
+        double[] results = new double[size];
+        boolean[] resultNulls = orNulls(value1.nulls, value2.nulls);
+        if (op == Operator.PLUS_OPERATOR) {
+            for (int i = 0; i < size; ++i) {
+                results[i] = x[i] + y[i];
+            }
+        } else if (op == Operator.MINUS_OPERATOR) {
+            for (int i = 0; i < size; ++i) {
+                results[i] = x[i] - y[i];
+            }
+        } else if (op == Operator.MULTIPLY_OPERATOR) {
+            for (int i = 0; i < size; ++i) {
+                results[i] = x[i] * y[i];
+            }
+        } else if (op == Operator.DIVIDE_OPERATOR || op == Operator.MODULUS_OPERATOR) {
+            boolean isDivide = op == Operator.DIVIDE_OPERATOR;
+            for (int i = 0; i < size; ++i) {
+                if (y[i] == 0) {
+                    resultNulls[i] = true;
+                } else {
+                    results[i] = isDivide ? x[i] / y[i] : x[i] % y[i];
+                }
+            }
+        } else if (op == Operator.BITWISE_AND_OPERATOR) {
+            for (int i = 0; i < size; ++i) {
+                results[i] = (long) x[i] & (long) y[i];
+            }
+        } else if (op == Operator.BITWISE_OR_OPERATOR) {
+            for (int i = 0; i < size; ++i) {
+                results[i] = (long) x[i] | (long) y[i];
+            }
+        } else if (op == Operator.BITWISE_XOR_OPERATOR) {
+            for (int i = 0; i < size; ++i) {
+                results[i] = (long) x[i] ^ (long) y[i];
+            }
+        } else {
+            throw new UnsupportedOperationException("The operator " + op.getDescriptiveName() + " is not supported by the in-memory query engine.");
+        }
+        return Vector.ofNumbers(results, resultNulls);
+    }
+
+    private static Vector concat(Vector value1, Vector value2) {
+        int size = value1.size;
+        Object[] results = new Object[size];
+        for (int i = 0; i < size; ++i) {
+            Object string1 = value1.get(i);
+            Object string2 = value2.get(i);
+            if (string1 != null && string2 != null) {
+                results[i] = toStringValue(string1) + toStringValue(string2);
+            }
+        }
+        return Vector.ofObjects(ColumnarTable.STRING_COLUMN, results);
+    }
+
+    private static Vector like(Vector values, Vector patterns) {
+        int size = values.size;
+        boolean[] results = new boolean[size];
+        boolean[] resultNulls = orNulls(values.nulls, patterns.nulls);
+        String lastPatternText = null;
+        Pattern pattern = null;
+        for (int i = 0; i < size; ++i) {
+            if (!resultNulls[i]) {
+                String patternText = (String) patterns.get(i);
+                if (!patternText.equals(lastPatternText)) {
+                    pattern = likePattern(patternText);
+                    lastPatternText = patternText;
+                }
+                results[i] = pattern.matcher((String) values.get(i)).matches();
+            }
+        }
+        return Vector.ofBooleans(results, resultNulls);
+    }
+
+    /**
+     * Converts a SQL LIKE pattern into a regular expression.
+     */
+    private static Pattern likePattern(String likePattern) {
+        StringBuilder regex = new StringBuilder();
+        for (int i = 0, n = likePattern.length(); i < n; ++i) {
+            char c = likePattern.charAt(i);
+            if (c == '%') {
+                regex.append(".*");
+            } else if (c == '_') {
+                regex.append('.');
+            } else if ("\\[]{}()<>*+-=!?^$|.".indexOf(c) >= 0) {
+                regex.append('\\').append(c);
+            } else {
+                regex.append(c);
+            }
+        }
+        return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+
+    /**
+     * Evaluates the IN operator.
+     * When the values being tested against are constants (or the results of a subquery), they are put in a hash set.
+     */
+    private Vector evaluateIn(Vector values, SqlExpression listExpr, Scope scope) {
+        int size = values.size;
+        List<Object> constantValues = null;
+        Vector[] listValues = null;
+        if (listExpr instanceof SubQueryExpression) {
+            ColumnarTable result = executeQuery(((SubQueryExpression) listExpr).getSubquery(), scope.getSubqueryEnclosingTables());
+            constantValues = result.getColumnValues(0);
+        } else {
+            List<SqlExpression> listExprs = listExpr instanceof ListExpression
+                    ? ((ListExpression) listExpr).getListValues()
+                    : java.util.Collections.singletonList(listExpr);
+            listValues = evaluateAll(listExprs, scope);
+            constantValues = new ArrayList<Object>();
+            for (int i = 0; i < listValues.length && constantValues != null; ++i) {
+                if (listValues[i].isConstant) {
+                    constantValues.add(listValues[i].constantValue);
+                } else {
+                    constantValues = null;
+                }
+            }
+        }
+
+        boolean[] results = new boolean[size];
+        boolean[] resultNulls = new boolean[size];
+        if (constantValues != null) {
+            Set<Object> valueSet = new HashSet<Object>();
+            boolean hasNull = false;
+            for (final Object value : constantValues) {
+                if (value == null) {
+                    hasNull = true;
+                } else {
+                    valueSet.add(normalizeKey(value));
+                }
+            }
+            for (int i = 0; i < size; ++i) {
+                if (values.nulls[i]) {
+                    resultNulls[i] = true;
+                } else if (valueSet.contains(values.getKey(i))) {
+                    results[i] = true;
+                } else {
+                    resultNulls[i] = hasNull;
+                }
+            }
+        } else {
+            for (int i = 0; i < size; ++i) {
+                if (values.nulls[i]) {
+                    resultNulls[i] = true;
+                    continue;
+                }
+                Object value = values.get(i);
+                boolean sawNull = false;
+                for (int j = 0; j < listValues.length && !results[i]; ++j) {
+                    Object listValue = listValues[j].get(i);
+                    if (listValue == null) {
+                        sawNull = true;
+                    } else {
+                        results[i] = compareValues(value, listValue) == 0;
+                    }
+                }
+                resultNulls[i] = !results[i] && sawNull;
+            }
+        }
+        return Vector.ofBooleans(results, resultNulls);
+    }
+
+    /**
+     * Evaluates a simple or searched CASE expression.
+     * The arguments are the value to be tested (for a simple CASE only), followed by the WHEN and THEN pairs, 
+     * and then the optional ELSE value.
+     */
+    private static Vector evaluateCase(boolean isSimple, Vector[] args, int size) {
+        int firstWhen = isSimple ? 1 : 0;
+        int nPairs = (args.length - firstWhen) / 2;
+        boolean hasElse = (args.length - firstWhen) % 2 != 0;
+        Object[] results = new Object[size];
+        for (int i = 0; i < size; ++i) {
+            Object result = hasElse ? args[args.length - 1].get(i) : null;
+            for (int pair = 0; pair < nPairs; ++pair) {
+                Vector when = args[firstWhen + 2 * pair];
+                boolean matches;
+                if (isSimple) {
+                    Object testValue = args[0].get(i);
+                    Object whenValue = when.get(i);
+                    matches = testValue != null && whenValue != null && compareValues(testValue, whenValue) == 0;
+                } else {
+                    matches = when.isTrue(i);
+                }
+                if (matches) {
+                    result = args[firstWhen + 2 * pair + 1].get(i);
+                    break;
+                }
+            }
+            results[i] = result;
+        }
+        return Vector.fromValues(results);
+    }
+
+    private static Vector evaluateConversion(Conversion conversion, Vector values) {
+        int size = values.size;
+        Object[] results = new Object[size];
+        for (int i = 0; i < size; ++i) {
+            Object value = values.get(i);
+            if (value == null) {
+                continue;
+            }
+            if (conversion == Conversion.CONVERSION_TO_STRING) {
+                results[i] = toStringValue(value);
+            } else if (conversion == Conversion.CONVERSION_TO_INT || conversion == Conversion.CONVERSION_TO_DOUBLE) {
+                Double number = toNumberValue(value);
+                if (number != null && conversion == Conversion.CONVERSION_TO_INT) {
+                    number = Double.valueOf((long) number.doubleValue());
+                }
+                results[i] = number;
+            } else if (value instanceof Time) {
+                results[i] = value;
+            } else {
+                throw new UnsupportedOperationException("Only time values can be converted to times by the in-memory query engine.");
+            }
+        }
+        return Vector.fromValues(results);
+    }
+
+    /**
+     * Evaluates a named scalar function.
+     * Null argument values give a null result, except for IFNULL and NULLIF.
+     */
+    private Vector evaluateFunction(String functionName, Vector[] args, int size) {
+        String name = functionName.toUpperCase();
+        if (name.equals("PI")) {
+            return Vector.constant(Double.valueOf(Math.PI), size);
+        }
+        if (name.equals("NOW")) {
+            return Vector.constant(Time.now(), size);
+        }
+        if (name.equals("IFNULL")) {
+            Object[] results = new Object[size];
+            for (int i = 0; i < size; ++i) {
+                Object value = args[0].get(i);
+                results[i] = value != null ? value : args[1].get(i);
+            }
+            return Vector.fromValues(results);
+        }
+        if (name.equals("NULLIF")) {
+            Object[] results = new Object[size];
+            for (int i = 0; i < size; ++i) {
+                Object value = args[0].get(i);
+                Object otherValue = args[1].get(i);
+                results[i] = value != null && otherValue != null && compareValues(value, otherValue) == 0 ? null : value;
+            }
+            return Vector.fromValues(results);
+        }
+
+        Object[] results = new Object[size];
+        Object[] argValues = new Object[args.length];
+        for (int i = 0; i < size; ++i) {
+            boolean anyNull = false;
+            for (int arg = 0; arg < args.length; ++arg) {
+                argValues[arg] = args[arg].get(i);
+                anyNull |= argValues[arg] == null;
+            }
+            if (!anyNull) {
+                results[i] = applyFunction(name, argValues);
+            }
+        }
+        return Vector.fromValues(results);
+    }
+
+    /**
+     * Applies a named scalar function to a set of (non-null) argument values.
+     */
+    private Object applyFunction(String name, Object[] args) {
+        // Numeric functions.
+        if (name.equals("ABS"))         { return Double.valueOf(Math.abs(number(args[0]))); }
+        if (name.equals("ACOS"))        { return Double.valueOf(Math.acos(number(args[0]))); }
+        if (name.equals("ASIN"))        { return Double.valueOf(Math.asin(number(args[0]))); }
+        if (name.equals("ATAN"))        { return Double.valueOf(Math.atan(number(args[0]))); }
+        if (name.equals("ATAN2"))       { return Double.valueOf(Math.atan2(number(args[0]), number(args[1]))); }
+        if (name.equals("CEILING"))     { return Double.valueOf(Math.ceil(number(args[0]))); }
+        if (name.equals("COS"))         { return Double.valueOf(Math.cos(number(args[0]))); }
+        if (name.equals("COT"))         { return Double.valueOf(1.0 / Math.tan(number(args[0]))); }
+        if (name.equals("DEGREES"))     { return Double.valueOf(Math.toDegrees(number(args[0]))); }
+        if (name.equals("EXP"))         { return Double.valueOf(Math.exp(number(args[0]))); }
+        if (name.equals("FLOOR"))       { return Double.valueOf(Math.floor(number(args[0]))); }
+        if (name.equals("LOG"))         { return Double.valueOf(Math.log(number(args[0]))); }
+        if (name.equals("LOG10"))       { return Double.valueOf(Math.log10(number(args[0]))); }
+        if (name.equals("MOD"))         { return Double.valueOf(number(args[0]) % number(args[1])); }
+        if (name.equals("POWER"))       { return Double.valueOf(Math.pow(number(args[0]), number(args[1]))); }
+        if (name.equals("RADIANS"))     { return Double.valueOf(Math.toRadians(number(args[0]))); }
+        if (name.equals("SIGN"))        { return Double.valueOf(Math.signum(number(args[0]))); }
+        if (name.equals("SIN"))         { return Double.valueOf(Math.sin(number(args[0]))); }
+        if (name.equals("SQRT"))        { return Double.valueOf(Math.sqrt(number(args[0]))); }
+        if (name.equals("TAN"))         { return Double.valueOf(Math.tan(number(args[0]))); }
+        if (name.equals("ROUND") || name.equals("TRUNCATE")) {
+            double scale = Math.pow(10, args.length > 1 ? number(args[1]) : 0);
+            double value = number(args[0]) * scale;
+            value = name.equals("ROUND") ? Math.signum(value) * Math.floor(Math.abs(value) + 0.5) : (double) (long) value;
+            return Double.valueOf(value / scale);
+        }
+
+        // String functions.
+        if (name.equals("ASCII"))       { String s = string(args[0]); return s.length() == 0 ? null : Double.valueOf(s.charAt(0)); }
+        if (name.equals("CHAR"))        { return String.valueOf((char) number(args[0])); }
+        if (name.equals("LCASE"))       { return string(args[0]).toLowerCase(); }
+        if (name.equals("UCASE"))       { return string(args[0]).toUpperCase(); }
+        if (name.equals("LENGTH"))      { return Double.valueOf(string(args[0]).length()); }
+        if (name.equals("LTRIM"))       { return string(args[0]).replaceAll("^\\s+", ""); }
+        if (name.equals("RTRIM"))       { return string(args[0]).replaceAll("\\s+$", ""); }
+        if (name.equals("SPACE"))       { return repeat(" ", (int) number(args[0])); }
+        if (name.equals("REPEAT"))      { return repeat(string(args[0]), (int) number(args[1])); }
+        if (name.equals("REPLACE"))     { return string(args[0]).replace(string(args[1]), string(args[2])); }
+        if (name.equals("LEFT")) {
+            String s = string(args[0]);
+            return s.substring(0, clamp((int) number(args[1]), 0, s.length()));
+        }
+        if (name.equals("RIGHT")) {
+            String s = string(args[0]);
+            return s.substring(s.length() - clamp((int) number(args[1]), 0, s.length()));
+        }
+        if (name.equals("SUBSTRING")) {
+            String s = string(args[0]);
+            int start = clamp((int) number(args[1]) - 1, 0, s.length());
+            int end = args.length > 2 ? clamp(start + (int) number(args[2]), start, s.length()) : s.length();
+            return s.substring(start, end);
+        }
+        if (name.equals("LOCATE")) {
+            int start = args.length > 2 ? Math.max((int) number(args[2]) - 1, 0) : 0;
+            return Double.valueOf(string(args[1]).indexOf(string(args[0]), start) + 1);
+        }
+        if (name.equals("INSERT")) {
+            String s = string(args[0]);
+            int start = clamp((int) number(args[1]) - 1, 0, s.length());
+            int end = clamp(start + (int) number(args[2]), start, s.length());
+            return s.substring(0, start) + string(args[3]) + s.substring(end);
+        }
+
+        // Date/time functions.
+        if (args.length == 1 && args[0] instanceof Time) {
+            int[] timeParts = ((Time) args[0]).timeParts(timeZone);
+            if (name.equals("YEAR"))    { return Double.valueOf(timeParts[0]); }
+            if (name.equals("QUARTER")) { return Double.valueOf((timeParts[1] + 2) / 3); }
+            if (name.equals("MONTH"))   { return Double.valueOf(timeParts[1]); }
+            if (name.equals("DAY"))     { return Double.valueOf(timeParts[2]); }
+            if (name.equals("HOUR"))    { return Double.valueOf(timeParts[3]); }
+            if (name.equals("MINUTE"))  { return Double.valueOf(timeParts[4]); }
+            if (name.equals("SECOND"))  { return Double.valueOf(timeParts[5]); }
+        }
+
+        throw new UnsupportedOperationException("The function " + name + " is not supported by the in-memory query engine.");
+    }
+
+    private static double number(Object value) {
+        if (!(value instanceof Double)) {
+            throw new IllegalArgumentException("Expected a numeric value but found: " + value);
+        }
+        return ((Double) value).doubleValue();
+    }
+
+    private static String string(Object value) {
+        if (!(value instanceof String)) {
+            throw new IllegalArgumentException("Expected a string value but found: " + value);
+        }
+        return (String) value;
+    }
+
+    private static String repeat(String s, int count) {
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < count; ++i) {
+            result.append(s);
+        }
+        return result.toString();
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.min(Math.max(value, min), max);
+    }
+
+    /**
+     * Converts a value to a string, showing whole numbers without a fractional part.
+     */
+    private static String toStringValue(Object value) {
+        if (value instanceof Double) {
+            double number = ((Double) value).doubleValue();
+            if (number == Math.rint(number) && Math.abs(number) < 1e15) {
+                return Long.toString((long) number);
+            }
+        }
+        return value.toString();
+    }
+
+    /**
+     * Converts a value to a number, or returns null if a string value is not a valid number.
+     */
+    private static Double toNumberValue(Object value) {
+        if (value instanceof Double) {
+            return (Double) value;
+        }
+        if (value instanceof Boolean) {
+            return Double.valueOf(((Boolean) value).booleanValue() ? 1 : 0);
+        }
+        if (value instanceof String) {
+            try {
+                return Double.valueOf(((String) value).trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        throw new UnsupportedOperationException("Time values cannot be converted to numbers by the in-memory query engine.");
+    }
+
+    /**
+     * Compares two non-null values of the same type.
+     */
+    @SuppressWarnings("unchecked")
+    private static int compareValues(Object value1, Object value2) {
+        if (value1 instanceof Double && value2 instanceof Double) {
+            return Double.compare(((Double) value1).doubleValue(), ((Double) value2).doubleValue());
+        }
+        if (value1.getClass() == value2.getClass() && value1 instanceof Comparable) {
+            return ((Comparable<Object>) value1).compareTo(value2);
+        }
+        throw new IllegalArgumentException("Cannot compare the values " + value1 + " and " + value2 + ".");
+    }
+
+    private static boolean[] orNulls(boolean[] nulls1, boolean[] nulls2) {
+        boolean[] result = new boolean[nulls1.length];
+        for (int i = 0; i < result.length; ++i) {
+            result[i] = nulls1[i] || nulls2[i];
+        }
+        return result;
+    }
+
+    /**
+     * Returns the value used to represent a value in a hash key.
+     * Numbers are normalized so that 0.0 and -0.0 are treated as the same key.
+     */
+    private static Object normalizeKey(Object value) {
+        if (value instanceof Double && ((Double) value).doubleValue() == 0) {
+            return Double.valueOf(0);
+        }
+        return value;
+    }
+
+    /**
+     * Returns the key for a row when grouping or removing duplicates, in which null values are equal.
+     */
+    private static Object groupKey(Vector[] values, int row) {
+        if (values.length == 1) {
+            return values[0].nulls[row] ? NULL_KEY : values[0].getKey(row);
+        }
+        List<Object> key = new ArrayList<Object>(values.length);
+        for (final Vector value : values) {
+            key.add(value.nulls[row] ? NULL_KEY : value.getKey(row));
+        }
+        return key;
+    }
+
+    /**
+     * Returns the key for a row when joining, or null if any of the key values are null (since these never match).
+     */
+    private static Object joinKey(Vector[] values, int row) {
+        if (values.length == 1) {
+            return values[0].nulls[row] ? null : values[0].getKey(row);
+        }
+        List<Object> key = new ArrayList<Object>(values.length);
+        for (final Vector value : values) {
+            if (value.nulls[row]) {
+                return null;
+            }
+            key.add(value.getKey(row));
+        }
+        return key;
+    }
+
+    /////////////////////////////////////////////////////////////////////////////////
+    // Supporting classes.
+
+    /**
+     * The values of an expression for each row (or group) being processed.
+     * Vectors are never modified once constructed, so their arrays may be shared with other vectors and tables.
+     */
+    private static final class Vector {
+        /** The kind of values (one of the ColumnarTable column kinds, or NULL_KIND). */
+        final int kind;
+
+        /** The number of values. */
+        final int size;
+
+        /** The values of a numeric vector. */
+        final double[] numbers;
+
+        /** The values of a Boolean vector. */
+        final boolean[] booleans;
+
+        /** The values of a string or time vector. */
+        final Object[] objects;
+
+        /** Whether each value is null. */
+        final boolean[] nulls;
+
+        /** Whether all the values are the same constant. */
+        final boolean isConstant;
+
+        /** The constant value, if the vector is constant. */
+        final Object constantValue;
+
+        private Vector(int kind, int size, double[] numbers, boolean[] booleans, Object[] objects, boolean[] nulls, boolean isConstant, Object constantValue) {
+            this.kind = kind;
+            this.size = size;
+            this.numbers = numbers;
+            this.booleans = booleans;
+            this.objects = objects;
+            this.nulls = nulls;
+            this.isConstant = isConstant;
+            this.constantValue = constantValue;
+        }
+
+        static Vector ofNumbers(double[] numbers, boolean[] nulls) {
+            return new Vector(ColumnarTable.NUMBER_COLUMN, nulls.length, numbers, null, null, nulls, false, null);
+        }
+
+        static Vector ofBooleans(boolean[] booleans, boolean[] nulls) {
+            return new Vector(ColumnarTable.BOOLEAN_COLUMN, nulls.length, null, booleans, null, nulls, false, null);
+        }
+
+        static Vector ofObjects(int kind, Object[] objects) {
+            boolean[] nulls = new boolean[objects.length];
+            for (int i = 0; i < objects.length; ++i) {
+                nulls[i] = objects[i] == null;
+            }
+            return new Vector(kind, objects.length, null, null, objects, nulls, false, null);
+        }
+
+        static Vector ofNulls(int size) {
+            boolean[] nulls = new boolean[size];
+            Arrays.fill(nulls, true);
+            return new Vector(NULL_KIND, size, null, null, null, nulls, false, null);
+        }
+
+        /**
+         * Returns a vector for a column of a table.
+         */
+        static Vector ofColumn(ColumnarTable table, int colIndex) {
+            int kind = table.getColumnKind(colIndex);
+            boolean[] nulls = table.getNullColumn(colIndex);
+            switch (kind) {
+            case ColumnarTable.NUMBER_COLUMN:   return ofNumbers(table.getNumberColumn(colIndex), nulls);
+            case ColumnarTable.BOOLEAN_COLUMN:  return ofBooleans(table.getBooleanColumn(colIndex), nulls);
+            default:                            return new Vector(kind, nulls.length, null, null, table.getObjectColumn(colIndex), nulls, false, null);
+            }
+        }
+
+        /**
+         * Returns a vector with the same value for each element.
+         */
+        static Vector constant(Object value, int size) {
+            Vector vector;
+            if (value == null) {
+                vector = ofNulls(size);
+            } else {
+                Object[] values = new Object[size];
+                Arrays.fill(values, value);
+                vector = fromValues(values, kindOf(value));
+            }
+            return new Vector(vector.kind, size, vector.numbers, vector.booleans, vector.objects, vector.nulls, true, value);
+        }
+
+        /**
+         * Returns a vector holding the specified values (Doubles, Strings, Booleans, Times or nulls).
+         */
+        static Vector fromValues(Object[] values) {
+            int kind = NULL_KIND;
+            for (int i = 0; i < values.length && kind == NULL_KIND; ++i) {
+                if (values[i] != null) {
+                    kind = kindOf(values[i]);
+                }
+            }
+            return fromValues(values, kind);
+        }
+
+        private static Vector fromValues(Object[] values, int kind) {
+            int size = values.length;
+            if (kind == NULL_KIND) {
+                return ofNulls(size);
+            }
+            for (int i = 0; i < size; ++i) {
+                if (values[i] != null && kindOf(values[i]) != kind) {
+                    throw new IllegalArgumentException("The values " + values[i] + " and " + values[0] + " do not have the same type.");
+                }
+            }
+            if (kind == ColumnarTable.NUMBER_COLUMN) {
+                double[] numbers = new double[size];
+                boolean[] nulls = new boolean[size];
+                for (int i = 0; i < size; ++i) {
+                    if (values[i] == null) {
+                        nulls[i] = true;
+                    } else {
+                        numbers[i] = ((Number) values[i]).doubleValue();
+                    }
+                }
+                return ofNumbers(numbers, nulls);
+            }
+            if (kind == ColumnarTable.BOOLEAN_COLUMN) {
+                boolean[] booleans = new boolean[size];
+                boolean[] nulls = new boolean[size];
+                for (int i = 0; i < size; ++i) {
+                    if (values[i] == null) {
+                        nulls[i] = true;
+                    } else {
+                        booleans[i] = ((Boolean) values[i]).booleanValue();
+                    }
+                }
+                return ofBooleans(booleans, nulls);
+            }
+            return ofObjects(kind, values);
+        }
+
+        private static int kindOf(Object value) {
+            if (value instanceof Number) {
+                return ColumnarTable.NUMBER_COLUMN;
+            }
+            if (value instanceof String) {
+                return ColumnarTable.STRING_COLUMN;
+            }
+            if (value instanceof Boolean) {
+                return ColumnarTable.BOOLEAN_COLUMN;
+            }
+            if (value instanceof Time) {
+                return ColumnarTable.TIME_COLUMN;
+            }
+            throw new IllegalArgumentException("Values of type " + value.getClass().getName() + " are not supported by the in-memory query engine.");
+        }
+
+        /**
+         * Returns a vector of the values at the specified indices, where an index of -1 gives a null value.
+         */
+        Vector gather(int[] indices) {
+            int n = indices.length;
+            boolean[] gatheredNulls = new boolean[n];
+            for (int i = 0; i < n; ++i) {
+                int index = indices[i];
+                gatheredNulls[i] = index < 0 || nulls[index];
+            }
+            switch (kind) {
+            case ColumnarTable.NUMBER_COLUMN: {
+                double[] gathered = new double[n];
+                for (int i = 0; i < n; ++i) {
+                    if (indices[i] >= 0) {
+                        gathered[i] = numbers[indices[i]];
+                    }
+                }
+                return ofNumbers(gathered, gatheredNulls);
+            }
+            case ColumnarTable.BOOLEAN_COLUMN: {
+                boolean[] gathered = new boolean[n];
+                for (int i = 0; i < n; ++i) {
+                    if (indices[i] >= 0) {
+                        gathered[i] = booleans[indices[i]];
+                    }
+                }
+                return ofBooleans(gathered, gatheredNulls);
+            }
+            case NULL_KIND:
+                return ofNulls(n);
+            default: {
+                Object[] gathered = new Object[n];
+                for (int i = 0; i < n; ++i) {
+                    if (indices[i] >= 0) {
+                        gathered[i] = objects[indices[i]];
+                    }
+                }
+                return new Vector(kind, n, null, null, gathered, gatheredNulls, false, null);
+            }
+            }
+        }
+
+        /**
+         * Returns the value at an index as a Double, String, Boolean or Time, or null.
+         */
+        Object get(int i) {
+            if (nulls[i]) {
+                return null;
+            }
+            switch (kind) {
+            case ColumnarTable.NUMBER_COLUMN:   return Double.valueOf(numbers[i]);
+            case ColumnarTable.BOOLEAN_COLUMN:  return Boolean.valueOf(booleans[i]);
+            default:                            return objects[i];
+            }
+        }
+
+        /**
+         * Returns the (non-null) value at an index, normalized for use in a hash key.
+         */
+        Object getKey(int i) {
+            if (kind == ColumnarTable.NUMBER_COLUMN) {
+                double number = numbers[i];
+                return Double.valueOf(number == 0 ? 0 : number);
+            }
+            return get(i);
+        }
+
+        /**
+         * Returns whether the value at an index is True (as opposed to False or null).
+         */
+        boolean isTrue(int i) {
+            return kind == ColumnarTable.BOOLEAN_COLUMN && !nulls[i] && booleans[i];
+        }
+
+        /**
+         * Compares the values at two indices, ordering nulls before other values.
+         */
+        int compareRows(int i, int j) {
+            if (nulls[i] || nulls[j]) {
+                return nulls[i] == nulls[j] ? 0 : (nulls[i] ? -1 : 1);
+            }
+            switch (kind) {
+            case ColumnarTable.NUMBER_COLUMN:   return Double.compare(numbers[i], numbers[j]);
+            case ColumnarTable.BOOLEAN_COLUMN:  return booleans[i] == booleans[j] ? 0 : (booleans[i] ? 1 : -1);
+            default:                            return compareValues(objects[i], objects[j]);
+            }
+        }
+
+        void checkKind(int expectedKind, String operation) {
+            if (kind != expectedKind) {
+                throw new IllegalArgumentException("The operation " + operation + " cannot be applied to values such as " + get(firstNonNull()) + ".");
+            }
+        }
+
+        private int firstNonNull() {
+            for (int i = 0; i < size; ++i) {
+                if (!nulls[i]) {
+                    return i;
+                }
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * A set of rows produced by the FROM clause of a query, represented by the index of the 
+     * row of each query table which contributes to the row (or -1 for the null row of an outer join).
+     */
+    private static final class Relation {
+        /** A relation with a single row and no tables, for queries without a FROM clause. */
+        static final Relation SINGLE_ROW = new Relation(new String[0], new ColumnarTable[0], new int[0][], 1, false);
+
+        /** The aliases of the query tables. */
+        final String[] aliases;
+
+        /** The table for each query table. */
+        final ColumnarTable[] tables;
+
+        /** The rows of each table which make up the rows of the relation. */
+        final int[][] rowIndices;
+
+        /** The number of rows in the relation. */
+        final int size;
+
+        /** Whether the rows of the relation are exactly the rows of its (single) table, in order. */
+        final boolean isTableScan;
+
+        private Relation(String[] aliases, ColumnarTable[] tables, int[][] rowIndices, int size, boolean isTableScan) {
+            this.aliases = aliases;
+            this.tables = tables;
+            this.rowIndices = rowIndices;
+            this.size = size;
+            this.isTableScan = isTableScan;
+        }
+
+        /**
+         * Returns a relation with the rows of a table.
+         */
+        static Relation scan(String alias, ColumnarTable table) {
+            int[][] rowIndices = new int[][] { identityRows(table.getRowCount()) };
+            return new Relation(new String[] { alias }, new ColumnarTable[] { table }, rowIndices, table.getRowCount(), true);
+        }
+
+        /**
+         * Returns a relation which combines the specified rows of two relations.
+         */
+        static Relation combine(Relation left, Relation right, int[] leftRows, int[] rightRows) {
+            int nLeft = left.aliases.length;
+            int nTables = nLeft + right.aliases.length;
+            String[] aliases = new String[nTables];
+            ColumnarTable[] tables = new ColumnarTable[nTables];
+            int[][] rowIndices = new int[nTables][];
+            for (int t = 0; t < nTables; ++t) {
+                Relation source = t < nLeft ? left : right;
+                int sourceTable = t < nLeft ? t : t - nLeft;
+                int[] sourceRows = t < nLeft ? leftRows : rightRows;
+                aliases[t] = source.aliases[sourceTable];
+                tables[t] = source.tables[sourceTable];
+                rowIndices[t] = new int[sourceRows.length];
+                for (int i = 0; i < sourceRows.length; ++i) {
+                    rowIndices[t][i] = sourceRows[i] < 0 ? -1 : source.rowIndices[sourceTable][sourceRows[i]];
+                }
+            }
+            return new Relation(aliases, tables, rowIndices, leftRows.length, false);
+        }
+
+        /**
+         * Returns a relation with the specified rows of this relation.
+         */
+        Relation select(int[] rows) {
+            int[][] selectedRowIndices = new int[aliases.length][];
+            for (int t = 0; t < aliases.length; ++t) {
+                selectedRowIndices[t] = new int[rows.length];
+                for (int i = 0; i < rows.length; ++i) {
+                    selectedRowIndices[t][i] = rowIndices[t][rows[i]];
+                }
+            }
+            return new Relation(aliases, tables, selectedRowIndices, rows.length, false);
+        }
+
+        /**
+         * Returns the index of the query table with the specified alias, or -1 if there is none.
+         */
+        int findAlias(String alias) {
+            for (int t = 0; t < aliases.length; ++t) {
+                if (aliases[t].equals(alias)) {
+                    return t;
+                }
+            }
+            for (int t = 0; t < aliases.length; ++t) {
+                if (aliases[t].equalsIgnoreCase(alias)) {
+                    return t;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * The context in which expressions are evaluated.
+     */
+    private abstract static class Scope {
+        /**
+         * @return the number of rows (or groups) in the scope.
+         */
+        abstract int size();
+
+        /**
+         * Returns the values of a field for each row (or group) of the scope.
+         */
+        abstract Vector fieldValues(QueryField field);
+
+        /**
+         * Returns the values of an aggregation function expression for each group of the scope.
+         */
+        abstract Vector aggregateValues(FunctionExpression aggregationExpr);
+
+        /**
+         * @return the tables enclosing the subqueries of the expressions evaluated in the scope.
+         */
+        abstract Set<QueryTable> getSubqueryEnclosingTables();
+    }
+
+    /**
+     * A scope for evaluating expressions over the rows of a relation.
+     */
+    private static final class RowScope extends Scope {
+        private final Relation relation;
+
+        /** The tables enclosing the subqueries of the expressions evaluated in the scope. */
+        private final Set<QueryTable> subqueryEnclosingTables;
+
+        /** The values of the fields which have been evaluated so far. */
+        private final Map<QueryField, Vector> fieldValueCache = new HashMap<QueryField, Vector>();
+
+        RowScope(Relation relation, Set<QueryTable> subqueryEnclosingTables) {
+            this.relation = relation;
+            this.subqueryEnclosingTables = subqueryEnclosingTables;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        int size() {
+            return relation.size;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        Vector fieldValues(QueryField field) {
+            Vector values = fieldValueCache.get(field);
+            if (values == null) {
+                String alias = field.getQueryTable().getTableAlias();
+                int tableIndex = relation.findAlias(alias);
+                if (tableIndex < 0) {
+                    throw new UnsupportedOperationException("The field " + alias + "." + field.getFieldName() 
+                            + " does not belong to a table of the query (correlated subqueries are not supported by the in-memory query engine).");
+                }
+                ColumnarTable table = relation.tables[tableIndex];
+                int colIndex = table.findColumn(field.getFieldName());
+                if (colIndex < 0) {
+                    throw new IllegalArgumentException("The table " + alias + " has no column named " + field.getFieldName() + ".");
+                }
+                values = Vector.ofColumn(table, colIndex);
+                if (!relation.isTableScan) {
+                    values = values.gather(relation.rowIndices[tableIndex]);
+                }
+                fieldValueCache.put(field, values);
+            }
+            return values;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        Vector aggregateValues(FunctionExpression aggregationExpr) {
+            throw new UnsupportedOperationException("Aggregation functions cannot be used in the WHERE clause, join conditions, or grouping expressions.");
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        Set<QueryTable> getSubqueryEnclosingTables() {
+            return subqueryEnclosingTables;
+        }
+    }
+
+    /**
+     * A scope for evaluating expressions over groups of the rows of a relation.
+     * Fields take their values from a representative row of each group, and 
+     * aggregation functions are computed over all the rows of each group.
+     */
+    private final class GroupScope extends Scope {
+        private final RowScope rowScope;
+
+        /** The group of each row, or -1 if the row is not in any group. */
+        private final int[] groupOfRow;
+
+        /** A row of each group (or -1 for an empty group). */
+        private final int[] representativeRows;
+
+        /** The values of the aggregation expressions which have been evaluated so far. */
+        private final Map<FunctionExpression, Vector> aggregateValueCache = new HashMap<FunctionExpression, Vector>();
+
+        GroupScope(RowScope rowScope, int[] groupOfRow, int[] representativeRows) {
+            this.rowScope = rowScope;
+            this.groupOfRow = groupOfRow;
+            this.representativeRows = representativeRows;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        int size() {
+            return representativeRows.length;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        Vector fieldValues(QueryField field) {
+            return rowScope.fieldValues(field).gather(representativeRows);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        Vector aggregateValues(FunctionExpression aggregationExpr) {
+            Vector values = aggregateValueCache.get(aggregationExpr);
+            if (values == null) {
+                String functionName = ((DatabaseFunction.Function) aggregationExpr.getDatabaseFunction()).getFunctionName();
+                values = aggregate(functionName, aggregationExpr.getArguments(), rowScope, groupOfRow, representativeRows.length);
+                aggregateValueCache.put(aggregationExpr, values);
+            }
+            return values;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        Set<QueryTable> getSubqueryEnclosingTables() {
+            return rowScope.getSubqueryEnclosingTables();
+        }
+
+        /**
+         * Returns a scope with only the groups for which the condition is True.
+         */
+        GroupScope restrict(Vector condition) {
+            int nGroups = representativeRows.length;
+            int[] newGroupIds = new int[nGroups];
+            IntList keptRows = new IntList(nGroups);
+            for (int group = 0; group < nGroups; ++group) {
+                if (condition.isTrue(group)) {
+                    newGroupIds[group] = keptRows.size();
+                    keptRows.add(representativeRows[group]);
+                } else {
+                    newGroupIds[group] = -1;
+                }
+            }
+            int[] newGroupOfRow = new int[groupOfRow.length];
+            for (int row = 0; row < groupOfRow.length; ++row) {
+                newGroupOfRow[row] = groupOfRow[row] < 0 ? -1 : newGroupIds[groupOfRow[row]];
+            }
+            return new GroupScope(rowScope, newGroupOfRow, keptRows.toArray());
+        }
+    }
+
+    /**
+     * A growable list of ints.
+     */
+    private static final class IntList {
+        private int[] values;
+        private int size;
+
+        IntList(int initialCapacity) {
+            values = new int[Math.max(initialCapacity, 4)];
+        }
+
+        void add(int value) {
+            if (size == values.length) {
+                int[] newValues = new int[size * 2];
+                System.arraycopy(values, 0, newValues, 0, size);
+                values = newValues;
+            }
+            values[size++] = value;
+        }
+
+        int get(int index) {
+            return values[index];
+        }
+
+        int size() {
+            return size;
+        }
+
+        int[] toArray() {
+            int[] result = new int[size];
+            System.arraycopy(values, 0, result, 0, size);
+            return result;
+        }
+    }
+}
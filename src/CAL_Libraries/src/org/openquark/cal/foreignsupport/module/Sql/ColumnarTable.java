@@ -0,0 +1,420 @@
+/*
+ * Copyright (c) 2007 BUSINESS OBJECTS SOFTWARE LIMITED
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *  
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *  
+ *     * Neither the name of Business Objects nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+
+/*
+ * ColumnarTable.java
+ * Created: Oct 18, 2026
+ */
+package org.openquark.cal.foreignsupport.module.Sql;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.openquark.util.time.Time;
+
+
+/**
+ * An immutable in-memory table which stores its values column by column.
+ * <p>
+ * Each column has one of four kinds: numeric columns keep their values in a <code>double[]</code>, 
+ * Boolean columns in a <code>boolean[]</code>, and string and time columns in an array of
+ * <code>String</code> or {@link Time} values. Each column also has a flag per row
+ * indicating whether the value is null.
+ * <p>
+ * Columnar tables are the input and output of the {@link ColumnarQueryEngine}.
+ */
+public final class ColumnarTable {
+
+    /** The kinds of columns which can be held in a table. */
+    public static final int NUMBER_COLUMN = 0;
+    public static final int STRING_COLUMN = 1;
+    public static final int BOOLEAN_COLUMN = 2;
+    public static final int TIME_COLUMN = 3;
+
+    /** The number of rows in the table. */
+    private final int rowCount;
+
+    /** The names of the columns. */
+    private final String[] columnNames;
+
+    /** The kind of each column. */
+    private final int[] columnKinds;
+
+    /** 
+     * The values of each column.
+     * This is a <code>double[]</code> for numeric columns, a <code>boolean[]</code> for Boolean columns,
+     * and an <code>Object[]</code> holding String or Time values for the other columns.
+     */
+    private final Object[] columnValues;
+
+    /** For each column, whether the value in each row is null. */
+    private final boolean[][] columnNulls;
+
+    /**
+     * A builder for columnar tables.
+     * The columns are added in order, and must all have the same number of values.
+     */
+    public static final class Builder {
+        private final List<String> names = new ArrayList<String>();
+        private final List<Integer> kinds = new ArrayList<Integer>();
+        private final List<Object> values = new ArrayList<Object>();
+        private final List<boolean[]> nulls = new ArrayList<boolean[]>();
+        private int rowCount = -1;
+
+        /**
+         * Adds a numeric column to the table.
+         * @param name        the name of the column
+         * @param columnData  the column values, which must be Numbers or null
+         * @return            this builder
+         */
+        public Builder addNumberColumn(String name, List<?> columnData) {
+            int size = columnData.size();
+            double[] numbers = new double[size];
+            boolean[] isNull = new boolean[size];
+            for (int i = 0; i < size; ++i) {
+                Object value = columnData.get(i);
+                if (value == null) {
+                    isNull[i] = true;
+                } else {
+                    numbers[i] = ((Number) value).doubleValue();
+                }
+            }
+            return addColumn(name, NUMBER_COLUMN, numbers, isNull);
+        }
+
+        /**
+         * Adds a string column to the table.
+         * @param name        the name of the column
+         * @param columnData  the column values, which must be Strings or null
+         * @return            this builder
+         */
+        public Builder addStringColumn(String name, List<?> columnData) {
+            return addObjectColumn(name, STRING_COLUMN, String.class, columnData);
+        }
+
+        /**
+         * Adds a Boolean column to the table.
+         * @param name        the name of the column
+         * @param columnData  the column values, which must be Booleans or null
+         * @return            this builder
+         */
+        public Builder addBooleanColumn(String name, List<?> columnData) {
+            int size = columnData.size();
+            boolean[] booleans = new boolean[size];
+            boolean[] isNull = new boolean[size];
+            for (int i = 0; i < size; ++i) {
+                Object value = columnData.get(i);
+                if (value == null) {
+                    isNull[i] = true;
+                } else {
+                    booleans[i] = ((Boolean) value).booleanValue();
+                }
+            }
+            return addColumn(name, BOOLEAN_COLUMN, booleans, isNull);
+        }
+
+        /**
+         * Adds a time column to the table.
+         * @param name        the name of the column
+         * @param columnData  the column values, which must be Times or null
+         * @return            this builder
+         */
+        public Builder addTimeColumn(String name, List<?> columnData) {
+            return addObjectColumn(name, TIME_COLUMN, Time.class, columnData);
+        }
+
+        /**
+         * Adds a column of String or Time values.
+         */
+        private Builder addObjectColumn(String name, int kind, Class<?> valueClass, List<?> columnData) {
+            int size = columnData.size();
+            Object[] objects = new Object[size];
+            boolean[] isNull = new boolean[size];
+            for (int i = 0; i < size; ++i) {
+                Object value = columnData.get(i);
+                if (value == null) {
+                    isNull[i] = true;
+                } else if (valueClass.isInstance(value)) {
+                    objects[i] = value;
+                } else {
+                    throw new IllegalArgumentException("The value " + value + " in column " + name + " is not a " + valueClass.getName() + ".");
+                }
+            }
+            return addColumn(name, kind, objects, isNull);
+        }
+
+        /**
+         * Adds a column whose values are already in the internal representation.
+         */
+        Builder addColumn(String name, int kind, Object columnValues, boolean[] isNull) {
+            if (name == null) {
+                throw new NullPointerException("A null value was specified for the column name.");
+            }
+            if (rowCount >= 0 && isNull.length != rowCount) {
+                throw new IllegalArgumentException("Column " + name + " has " + isNull.length + " values, but the table has " + rowCount + " rows.");
+            }
+            rowCount = isNull.length;
+            names.add(name);
+            kinds.add(Integer.valueOf(kind));
+            values.add(columnValues);
+            nulls.add(isNull);
+            return this;
+        }
+
+        /**
+         * @return a table holding the columns added to the builder.
+         */
+        public ColumnarTable build() {
+            int nColumns = names.size();
+            int[] columnKinds = new int[nColumns];
+            for (int i = 0; i < nColumns; ++i) {
+                columnKinds[i] = kinds.get(i).intValue();
+            }
+            return new ColumnarTable(Math.max(rowCount, 0),
+                                     names.toArray(new String[nColumns]),
+                                     columnKinds,
+                                     values.toArray(),
+                                     nulls.toArray(new boolean[nColumns][]));
+        }
+    }
+
+    /**
+     * Creates a table from lists of column values.
+     * @param columnNames  the names of the columns
+     * @param columnKinds  the kind of each column (NUMBER_COLUMN, STRING_COLUMN, BOOLEAN_COLUMN or TIME_COLUMN)
+     * @param columnData   for each column, a list of its values (which may include nulls)
+     * @return             a table with the specified columns
+     */
+    public static ColumnarTable makeTable(List<?> columnNames, List<?> columnKinds, List<?> columnData) {
+        int nColumns = columnNames.size();
+        if (columnKinds.size() != nColumns || columnData.size() != nColumns) {
+            throw new IllegalArgumentException("The numbers of column names, kinds and values do not match.");
+        }
+        Builder builder = new Builder();
+        for (int i = 0; i < nColumns; ++i) {
+            String name = (String) columnNames.get(i);
+            List<?> values = (List<?>) columnData.get(i);
+            switch (((Integer) columnKinds.get(i)).intValue()) {
+            case NUMBER_COLUMN:   builder.addNumberColumn(name, values); break;
+            case STRING_COLUMN:   builder.addStringColumn(name, values); break;
+            case BOOLEAN_COLUMN:  builder.addBooleanColumn(name, values); break;
+            case TIME_COLUMN:     builder.addTimeColumn(name, values); break;
+            default:
+                throw new IllegalArgumentException("Unknown column kind: " + columnKinds.get(i));
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Constructor for ColumnarTable.
+     * @param rowCount      the number of rows in the table
+     * @param columnNames   the names of the columns
+     * @param columnKinds   the kind of each column
+     * @param columnValues  the value array of each column, with exactly rowCount elements
+     * @param columnNulls   the null flags of each column, with exactly rowCount elements
+     */
+    private ColumnarTable(int rowCount, String[] columnNames, int[] columnKinds, Object[] columnValues, boolean[][] columnNulls) {
+        this.rowCount = rowCount;
+        this.columnNames = columnNames;
+        this.columnKinds = columnKinds;
+        this.columnValues = columnValues;
+        this.columnNulls = columnNulls;
+    }
+
+    /**
+     * @return the number of rows in the table.
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * @return the number of columns in the table.
+     */
+    public int getColumnCount() {
+        return columnNames.length;
+    }
+
+    /**
+     * @return the names of the columns in the table.
+     */
+    public List<String> getColumnNames() {
+        List<String> names = new ArrayList<String>(columnNames.length);
+        Collections.addAll(names, columnNames);
+        return names;
+    }
+
+    /**
+     * Returns the name of the specified column.
+     * @param colIndex  the column index (0-based)
+     * @return          the name of the column
+     */
+    public String getColumnName(int colIndex) {
+        return columnNames[colIndex];
+    }
+
+    /**
+     * Returns the kind of the specified column.
+     * @param colIndex  the column index (0-based)
+     * @return          one of NUMBER_COLUMN, STRING_COLUMN, BOOLEAN_COLUMN or TIME_COLUMN
+     */
+    public int getColumnKind(int colIndex) {
+        return columnKinds[colIndex];
+    }
+
+    /**
+     * Finds a column by name.
+     * An exact match is preferred, but column names are otherwise compared without regard to case,
+     * as SQL identifiers would be.
+     * @param columnName  the name of a column
+     * @return            the index of the column (0-based), or -1 if the table has no such column
+     */
+    public int findColumn(String columnName) {
+        for (int i = 0; i < columnNames.length; ++i) {
+            if (columnNames[i].equals(columnName)) {
+                return i;
+            }
+        }
+        for (int i = 0; i < columnNames.length; ++i) {
+            if (columnNames[i].equalsIgnoreCase(columnName)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns whether the value in each row of the specified column is null.
+     * The array is shared with the table and must not be modified.
+     * @param colIndex  the column index (0-based)
+     * @return          a flag for each row in the table, which is true if the value is null
+     */
+    public boolean[] getNullColumn(int colIndex) {
+        return columnNulls[colIndex];
+    }
+
+    /**
+     * Returns the values of a numeric column.
+     * The array is shared with the table and must not be modified.
+     * Null values are held as zero.
+     * @param colIndex  the column index (0-based)
+     * @return          the value of the column for each row in the table
+     */
+    public double[] getNumberColumn(int colIndex) {
+        checkColumnKind(colIndex, NUMBER_COLUMN);
+        return (double[]) columnValues[colIndex];
+    }
+
+    /**
+     * Returns the values of a Boolean column.
+     * The array is shared with the table and must not be modified.
+     * Null values are held as false.
+     * @param colIndex  the column index (0-based)
+     * @return          the value of the column for each row in the table
+     */
+    public boolean[] getBooleanColumn(int colIndex) {
+        checkColumnKind(colIndex, BOOLEAN_COLUMN);
+        return (boolean[]) columnValues[colIndex];
+    }
+
+    /**
+     * Returns the values of a string or time column.
+     * The array is shared with the table and must not be modified.
+     * Null values are held as null.
+     * @param colIndex  the column index (0-based)
+     * @return          the value of the column for each row in the table
+     */
+    Object[] getObjectColumn(int colIndex) {
+        if (columnKinds[colIndex] != STRING_COLUMN && columnKinds[colIndex] != TIME_COLUMN) {
+            throw new IllegalArgumentException("Column " + columnNames[colIndex] + " is not a string or time column.");
+        }
+        return (Object[]) columnValues[colIndex];
+    }
+
+    /**
+     * Returns a value from the table.
+     * @param colIndex  the column index (0-based)
+     * @param rowIndex  the row index (0-based)
+     * @return          the value as a Double, String, Boolean or Time, or null if the value is null
+     */
+    public Object getValue(int colIndex, int rowIndex) {
+        if (columnNulls[colIndex][rowIndex]) {
+            return null;
+        }
+        switch (columnKinds[colIndex]) {
+        case NUMBER_COLUMN:     return Double.valueOf(((double[]) columnValues[colIndex])[rowIndex]);
+        case BOOLEAN_COLUMN:    return Boolean.valueOf(((boolean[]) columnValues[colIndex])[rowIndex]);
+        default:                return ((Object[]) columnValues[colIndex])[rowIndex];
+        }
+    }
+
+    /**
+     * Returns the values of the specified column.
+     * @param colIndex  the column index (0-based)
+     * @return          the value of the column for each row, as a Double, String, Boolean or Time, or null if the value is null
+     */
+    public List<Object> getColumnValues(int colIndex) {
+        List<Object> values = new ArrayList<Object>(rowCount);
+        for (int row = 0; row < rowCount; ++row) {
+            values.add(getValue(colIndex, row));
+        }
+        return values;
+    }
+
+    /**
+     * Returns the values of the column with the specified name.
+     * @param columnName  the name of a column
+     * @return            the value of the column for each row, as a Double, String, Boolean or Time, or null if the value is null
+     */
+    public List<Object> getColumnValues(String columnName) {
+        int colIndex = findColumn(columnName);
+        if (colIndex < 0) {
+            throw new IllegalArgumentException("The table has no column named " + columnName + ".");
+        }
+        return getColumnValues(colIndex);
+    }
+
+    private void checkColumnKind(int colIndex, int expectedKind) {
+        if (columnKinds[colIndex] != expectedKind) {
+            throw new IllegalArgumentException("Column " + columnNames[colIndex] + " does not have the requested type.");
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return "ColumnarTable: " + getColumnNames() + " (" + rowCount + " rows)";
+    }
+}
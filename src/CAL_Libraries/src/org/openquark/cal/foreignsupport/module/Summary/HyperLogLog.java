@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2007 BUSINESS OBJECTS SOFTWARE LIMITED
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *  
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *  
+ *     * Neither the name of Business Objects nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+
+
+/*
+ * HyperLogLog.java
+ * Created: Oct 18, 2026
+ */
+package org.openquark.cal.foreignsupport.module.Summary;
+
+/**
+ * An immutable HyperLogLog sketch, used by the Summary module to estimate the number of
+ * distinct values in a data set in a single pass and in constant memory.
+ * <p>
+ * The sketch uses 2^10 one-byte registers, giving a standard error of about 3.25%.
+ * Adding a value returns the same sketch unless a register changes, in which case the
+ * registers are copied. Register changes become rare once the sketch has seen a few
+ * thousand distinct values, so the copying cost is bounded regardless of the size of
+ * the data set. Two sketches can be merged, so that partial sketches computed over
+ * separate chunks of the data can be combined.
+ */
+public final class HyperLogLog {
+    
+    /** The number of bits of the hash used to select a register. */
+    private static final int PRECISION = 10;
+    
+    /** The number of registers. */
+    private static final int N_REGISTERS = 1 << PRECISION;
+    
+    /** The bias correction constant for {@link #N_REGISTERS} registers. */
+    private static final double ALPHA = 0.7213 / (1.0 + 1.079 / N_REGISTERS);
+    
+    /** The sketch of the empty data set. */
+    public static final HyperLogLog EMPTY = new HyperLogLog(new byte[N_REGISTERS]);
+    
+    /** 
+     * For each register, the maximum over the hashes assigned to it of the position of
+     * the first 1 bit after the register index bits. Never modified after construction.
+     */
+    private final byte[] registers;
+    
+    private HyperLogLog(byte[] registers) {
+        this.registers = registers;
+    }
+    
+    /**
+     * @param value the value to add.
+     * @return the sketch of this sketch's data set with the value added.
+     */
+    public HyperLogLog add(double value) {
+        // doubleToLongBits maps all NaNs to the same bits. Map -0.0 to 0.0 so that they count as one value.
+        long hash = mix(Double.doubleToLongBits(value == 0.0 ? 0.0 : value));
+        
+        int index = (int)(hash >>> (64 - PRECISION));
+        byte rank = (byte)(Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1);
+        
+        if (registers[index] >= rank) {
+            return this;
+        }
+        
+        byte[] newRegisters = registers.clone();
+        newRegisters[index] = rank;
+        return new HyperLogLog(newRegisters);
+    }
+    
+    /**
+     * @param other the sketch to merge with this one.
+     * @return the sketch of the union of the data sets of this sketch and the other sketch.
+     */
+    public HyperLogLog merge(HyperLogLog other) {
+        if (other == this || other == EMPTY) {
+            return this;
+        }
+        if (this == EMPTY) {
+            return other;
+        }
+        
+        byte[] newRegisters = new byte[N_REGISTERS];
+        for (int i = 0; i < N_REGISTERS; ++i) {
+            newRegisters[i] = (byte)java.lang.Math.max(registers[i], other.registers[i]);
+        }
+        return new HyperLogLog(newRegisters);
+    }
+    
+    /**
+     * @return the estimated number of distinct values added to the sketch.
+     */
+    public int estimate() {
+        double sum = 0.0;
+        int nZeroRegisters = 0;
+        for (int i = 0; i < N_REGISTERS; ++i) {
+            sum += 1.0 / (1L << registers[i]);
+            if (registers[i] == 0) {
+                ++nZeroRegisters;
+            }
+        }
+        
+        double estimate = ALPHA * N_REGISTERS * N_REGISTERS / sum;
+        
+        // Use linear counting for small cardinalities, where the raw estimate is biased.
+        if (estimate <= 2.5 * N_REGISTERS && nZeroRegisters > 0) {
+            estimate = N_REGISTERS * java.lang.Math.log((double)N_REGISTERS / nZeroRegisters);
+        }
+        
+        return (int)java.lang.Math.round(estimate);
+    }
+    
+    /**
+     * The finalization step of MurmurHash3, which spreads the bits of the value over the whole hash.
+     */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -0,0 +1,291 @@
+/*
+ * Copyright (c) 2007 BUSINESS OBJECTS SOFTWARE LIMITED
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *  
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *  
+ *     * Neither the name of Business Objects nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+
+
+/*
+ * TDigest.java
+ * Created: Oct 18, 2026
+ */
+package org.openquark.cal.foreignsupport.module.Summary;
+
+import java.util.Arrays;
+
+/**
+ * An immutable t-digest, used by the Summary module to estimate quantiles of a data set
+ * in a single pass and in bounded memory.
+ * <p>
+ * The digest summarizes the values seen so far as a sorted list of centroids (a mean and a
+ * weight), whose sizes are bounded so that centroids near the tails stay small. Added values
+ * are first kept in a persistent linked list, so adding is a constant time operation which
+ * leaves the original digest unchanged. Once enough values are pending they are sorted and
+ * merged into a new list of centroids. Two digests can be merged, so that partial digests
+ * computed over separate chunks of the data can be combined.
+ * <p>
+ * While every centroid holds a single value the quantile estimates are exact, and agree with
+ * those of Summary.percentile.
+ */
+public final class TDigest {
+    
+    /** The compression parameter. The digest holds at most about this many centroids. */
+    private static final double COMPRESSION = 100.0;
+    
+    /** The number of pending values which triggers merging them into the centroids. */
+    private static final int MAX_PENDING = 500;
+    
+    /** The digest of the empty data set. */
+    public static final TDigest EMPTY = new TDigest(new double[0], new double[0], null, 0, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY);
+    
+    /** A value which has been added to a digest but not yet merged into its centroids. */
+    private static final class PendingValue {
+        final double value;
+        final PendingValue next;
+        
+        PendingValue(double value, PendingValue next) {
+            this.value = value;
+            this.next = next;
+        }
+    }
+    
+    /** The centroid means, in ascending order. Never modified after construction. */
+    private final double[] means;
+    
+    /** The centroid weights, corresponding to means. Never modified after construction. */
+    private final double[] weights;
+    
+    /** The values not yet merged into the centroids, most recently added first. May be null. */
+    private final PendingValue pending;
+    
+    /** The length of the pending list. */
+    private final int nPending;
+    
+    /** The smallest value added, or positive infinity if none. */
+    private final double min;
+    
+    /** The largest value added, or negative infinity if none. */
+    private final double max;
+    
+    private TDigest(double[] means, double[] weights, PendingValue pending, int nPending, double min, double max) {
+        this.means = means;
+        this.weights = weights;
+        this.pending = pending;
+        this.nPending = nPending;
+        this.min = min;
+        this.max = max;
+    }
+    
+    /**
+     * @param value the value to add. NaN values are ignored.
+     * @return the digest of this digest's data set with the value added.
+     */
+    public TDigest add(double value) {
+        if (Double.isNaN(value)) {
+            return this;
+        }
+        
+        TDigest result = new TDigest(means, weights, new PendingValue(value, pending), nPending + 1, java.lang.Math.min(min, value), java.lang.Math.max(max, value));
+        if (result.nPending >= MAX_PENDING) {
+            return result.compress(EMPTY);
+        }
+        return result;
+    }
+    
+    /**
+     * @param other the digest to merge with this one.
+     * @return the digest of the union of the data sets of this digest and the other digest.
+     */
+    public TDigest merge(TDigest other) {
+        if (other == EMPTY) {
+            return this;
+        }
+        if (this == EMPTY) {
+            return other;
+        }
+        return compress(other);
+    }
+    
+    /**
+     * @param rank the rank of the quantile, between 0 and 1 inclusive.
+     * @return the estimated quantile, interpolating between centroids in the same way as Summary.percentile
+     *   interpolates between values. NaN if the digest is empty or the rank is out of range.
+     */
+    public double quantile(double rank) {
+        if (nPending > 0) {
+            return compress(EMPTY).quantile(rank);
+        }
+        
+        int nCentroids = means.length;
+        if (nCentroids == 0 || !(rank >= 0.0 && rank <= 1.0)) {
+            return Double.NaN;
+        }
+        
+        double totalWeight = 0.0;
+        for (int i = 0; i < nCentroids; ++i) {
+            totalWeight += weights[i];
+        }
+        
+        // The 0-based position of the requested value in the sorted data set.
+        double target = rank * (totalWeight - 1.0);
+        
+        // The values of a centroid are taken to be centred on its mean, so its mean lies at the
+        // midpoint of the positions it covers.
+        double position = (weights[0] - 1.0) / 2.0;
+        if (target <= position) {
+            return interpolate(min, 0.0, means[0], position, target);
+        }
+        
+        for (int i = 0; i < nCentroids - 1; ++i) {
+            double nextPosition = position + (weights[i] + weights[i + 1]) / 2.0;
+            if (target <= nextPosition) {
+                return interpolate(means[i], position, means[i + 1], nextPosition, target);
+            }
+            position = nextPosition;
+        }
+        
+        return interpolate(means[nCentroids - 1], position, max, totalWeight - 1.0, target);
+    }
+    
+    /**
+     * Linear interpolation between (x0, value0) and (x1, value1).
+     */
+    private static double interpolate(double value0, double x0, double value1, double x1, double x) {
+        if (x1 <= x0) {
+            return value0;
+        }
+        return value0 + (value1 - value0) * (x - x0) / (x1 - x0);
+    }
+    
+    /**
+     * Merges the centroids and pending values of this digest and another digest into a new
+     * digest with no pending values.
+     */
+    private TDigest compress(TDigest other) {
+        int nValues = means.length + other.means.length + nPending + other.nPending;
+        if (nValues == 0) {
+            return EMPTY;
+        }
+        
+        double[] allMeans = new double[nValues];
+        double[] allWeights = new double[nValues];
+        
+        // Sort the pending values, then merge the three sorted sequences.
+        double[] pendingValues = new double[nPending + other.nPending];
+        int nPendingValues = 0;
+        for (PendingValue p = pending; p != null; p = p.next) {
+            pendingValues[nPendingValues++] = p.value;
+        }
+        for (PendingValue p = other.pending; p != null; p = p.next) {
+            pendingValues[nPendingValues++] = p.value;
+        }
+        Arrays.sort(pendingValues);
+        
+        int i = 0, j = 0, k = 0, n = 0;
+        while (n < nValues) {
+            double mean = Double.POSITIVE_INFINITY;
+            int source = -1;
+            if (i < means.length && means[i] <= mean) {
+                mean = means[i];
+                source = 0;
+            }
+            if (j < other.means.length && other.means[j] <= mean) {
+                mean = other.means[j];
+                source = 1;
+            }
+            if (k < nPendingValues && pendingValues[k] <= mean) {
+                mean = pendingValues[k];
+                source = 2;
+            }
+            
+            allMeans[n] = mean;
+            switch (source) {
+                case 0:  allWeights[n] = weights[i++]; break;
+                case 1:  allWeights[n] = other.weights[j++]; break;
+                default: allWeights[n] = 1.0; ++k; break;
+            }
+            ++n;
+        }
+        
+        double totalWeight = 0.0;
+        for (int m = 0; m < nValues; ++m) {
+            totalWeight += allWeights[m];
+        }
+        
+        // Greedily combine adjacent centroids while the combined centroid spans at most one
+        // unit of the k1 scale function, which keeps centroids near the tails small.
+        double[] newMeans = new double[nValues];
+        double[] newWeights = new double[nValues];
+        int nCentroids = 0;
+        double weightBefore = 0.0;
+        double kLeft = scale(0.0);
+        
+        newMeans[0] = allMeans[0];
+        newWeights[0] = allWeights[0];
+        for (int m = 1; m < nValues; ++m) {
+            double combinedWeight = newWeights[nCentroids] + allWeights[m];
+            if (scale((weightBefore + combinedWeight) / totalWeight) - kLeft <= 1.0) {
+                newMeans[nCentroids] += (allMeans[m] - newMeans[nCentroids]) * allWeights[m] / combinedWeight;
+                newWeights[nCentroids] = combinedWeight;
+            } else {
+                weightBefore += newWeights[nCentroids];
+                kLeft = scale(weightBefore / totalWeight);
+                ++nCentroids;
+                newMeans[nCentroids] = allMeans[m];
+                newWeights[nCentroids] = allWeights[m];
+            }
+        }
+        ++nCentroids;
+        
+        return new TDigest(
+            truncate(newMeans, nCentroids), 
+            truncate(newWeights, nCentroids), 
+            null, 
+            0, 
+            java.lang.Math.min(min, other.min), 
+            java.lang.Math.max(max, other.max));
+    }
+    
+    /**
+     * @return the first length elements of the given array.
+     */
+    private static double[] truncate(double[] array, int length) {
+        double[] result = new double[length];
+        System.arraycopy(array, 0, result, 0, length);
+        return result;
+    }
+    
+    /**
+     * The k1 scale function of the t-digest, mapping a quantile to the centroid index scale.
+     */
+    private static double scale(double q) {
+        return COMPRESSION / (2.0 * java.lang.Math.PI) * java.lang.Math.asin(2.0 * java.lang.Math.min(1.0, q) - 1.0);
+    }
+}
@@ -12,7 +12,7 @@
  * The constants and methods provided are intended to facilitate accessing the
  * Cal.Data.DataGems module from Java code.
  *  
- * Creation date: Thu Aug 23 12:30:29 PDT 2007
+ * Creation date: Sun Oct 18 11:09:30 UTC 2026
  * --!>
  *  
  */
@@ -76,6 +76,17 @@ public final class CAL_DataGems {
 		public static final QualifiedName JDBCResultSet = 
 			QualifiedName.make(CAL_DataGems.MODULE_NAME, "JDBCResultSet");
 
+		/**
+		 * A batch of consecutive rows from the results of a streaming query, stored column by column.
+		 * Each column holds its values in a primitive array suited to the column's SQL type (where possible),
+		 * so large results can be processed column-wise without building a record or list per row.
+		 * <p>
+		 * Null values are replaced by the same defaults as the extractor functions (such as <code>Cal.Data.DataGems.extractInt</code>) use.
+		 * The null flags of a column can be obtained with <code>Cal.Data.DataGems.resultBatchNullColumn</code>.
+		 */
+		public static final QualifiedName ResultBatch = 
+			QualifiedName.make(CAL_DataGems.MODULE_NAME, "ResultBatch");
+
 		/**
 		 * A type for representing a row in the resultset.
 		 */
@@ -363,6 +374,45 @@ public final class CAL_DataGems {
 				CAL_DataGems.MODULE_NAME, 
 				"bindTimeToPreparedStatement");
 
+		/**
+		 * Checks a prepared statement for a SQL string out of the statement cache of the connection,
+		 * preparing a new statement only if there is no idle statement for the SQL in the cache.
+		 * The statement belongs to the caller until it is closed with <code>Cal.Data.DataGems.closePreparedStatement</code>, which
+		 * clears its parameters and returns it to the cache. It must not be used after it has been closed.
+		 * @param connection (CAL type: <code>Cal.Data.DataGems.JDBCConnection</code>)
+		 *          a database connection
+		 * @param sql (CAL type: <code>Cal.Core.Prelude.String</code>)
+		 *          the SQL for the prepared statement
+		 * @return (CAL type: <code>Cal.Data.DataGems.JDBCPreparedStatement</code>) 
+		 *          the prepared statement for the specified SQL
+		 */
+		public static final SourceModel.Expr cachedPreparedStatement(SourceModel.Expr connection, SourceModel.Expr sql) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.cachedPreparedStatement), connection, sql});
+		}
+
+		/**
+		 * @see #cachedPreparedStatement(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 * @param connection
+		 * @param sql
+		 * @return the SourceModel.Expr representing an application of cachedPreparedStatement
+		 */
+		public static final SourceModel.Expr cachedPreparedStatement(SourceModel.Expr connection, java.lang.String sql) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.cachedPreparedStatement), connection, SourceModel.Expr.makeStringValue(sql)});
+		}
+
+		/**
+		 * Name binding for function: cachedPreparedStatement.
+		 * @see #cachedPreparedStatement(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName cachedPreparedStatement = 
+			QualifiedName.make(
+				CAL_DataGems.MODULE_NAME, 
+				"cachedPreparedStatement");
+
 		/**
 		 * Closes a prepared statement.
 		 * @param preparedStmt (CAL type: <code>Cal.Data.DataGems.JDBCPreparedStatement</code>)
@@ -602,6 +652,63 @@ public final class CAL_DataGems {
 				CAL_DataGems.MODULE_NAME, 
 				"connectionDatabaseProductName");
 
+		/**
+		 * Creates a prepared statement for writing large numbers of rows. The parameter sets added with
+		 * <code>Cal.Data.DataGems.preparedStatementAddBatch</code> are buffered and executed in batches through the cached prepared
+		 * statement for the SQL whenever a batch is full. Rows are not written on a timer: the rows of a partly filled
+		 * batch are only written by <code>Cal.Data.DataGems.preparedStatementExecuteBatch</code> (or an update), or when the statement is closed.
+		 * <code>Cal.Data.DataGems.preparedStatementExecuteBatch</code> executes the remaining rows and returns the update counts of all the rows.
+		 * <p>
+		 * The statement must be closed with <code>Cal.Data.DataGems.closePreparedStatement</code> once all the rows have been added,
+		 * which executes any remaining rows.
+		 * 
+		 * 
+		 * <dl><dt><b>See Also:</b>
+		 * <dd><b>Functions and Class Methods:</b> Cal.Data.DataGems.jdbcBatchedWrite
+		 * </dl>
+		 * 
+		 * @param connection (CAL type: <code>Cal.Data.DataGems.JDBCConnection</code>)
+		 *          a database connection
+		 * @param sql (CAL type: <code>Cal.Core.Prelude.String</code>)
+		 *          the SQL for the prepared statement
+		 * @param batchSize (CAL type: <code>Cal.Core.Prelude.Int</code>)
+		 *          the number of rows in each batch, or zero to adjust the batch size automatically
+		 * according to the throughput of the batches
+		 * @param asynchronous (CAL type: <code>Cal.Core.Prelude.Boolean</code>)
+		 *          if <code>Cal.Core.Prelude.True</code>, the batches are executed on a separate writer thread while the next 
+		 * batch is being filled. Errors are then reported by the next operation on the statement.
+		 * @return (CAL type: <code>Cal.Data.DataGems.JDBCPreparedStatement</code>) 
+		 *          the batched prepared statement for the specified SQL
+		 */
+		public static final SourceModel.Expr createBatchedPreparedStatement(SourceModel.Expr connection, SourceModel.Expr sql, SourceModel.Expr batchSize, SourceModel.Expr asynchronous) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.createBatchedPreparedStatement), connection, sql, batchSize, asynchronous});
+		}
+
+		/**
+		 * @see #createBatchedPreparedStatement(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 * @param connection
+		 * @param sql
+		 * @param batchSize
+		 * @param asynchronous
+		 * @return the SourceModel.Expr representing an application of createBatchedPreparedStatement
+		 */
+		public static final SourceModel.Expr createBatchedPreparedStatement(SourceModel.Expr connection, java.lang.String sql, int batchSize, boolean asynchronous) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.createBatchedPreparedStatement), connection, SourceModel.Expr.makeStringValue(sql), SourceModel.Expr.makeIntValue(batchSize), SourceModel.Expr.makeBooleanValue(asynchronous)});
+		}
+
+		/**
+		 * Name binding for function: createBatchedPreparedStatement.
+		 * @see #createBatchedPreparedStatement(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName createBatchedPreparedStatement = 
+			QualifiedName.make(
+				CAL_DataGems.MODULE_NAME, 
+				"createBatchedPreparedStatement");
+
 		/**
 		 * Creates a prepared statement from a SQL string.
 		 * @param connection (CAL type: <code>Cal.Data.DataGems.JDBCConnection</code>)
@@ -2685,6 +2792,60 @@ public final class CAL_DataGems {
 		public static final QualifiedName extractTuple7 = 
 			QualifiedName.make(CAL_DataGems.MODULE_NAME, "extractTuple7");
 
+		/**
+		 * Folds a function over the batches of a streaming query.
+		 * The batches are not retained, so the fold runs in constant memory (provided the accumulated value does not grow).
+		 * 
+		 * <dl><dt><b>See Also:</b>
+		 * <dd><b>Functions and Class Methods:</b> Cal.Data.DataGems.jdbcQueryToResultBatches
+		 * </dl>
+		 * 
+		 * @param foldFn (CAL type: <code>a -> Cal.Data.DataGems.ResultBatch -> a</code>)
+		 *          a folding function to be applied for each <code>Cal.Data.DataGems.ResultBatch</code>
+		 * @param initValue (CAL type: <code>a</code>)
+		 *          the starting value for the folding
+		 * @param connection (CAL type: <code>Cal.Data.DataGems.JDBCConnection</code>)
+		 *          a connection to the database against which the query will be performed
+		 * @param sql (CAL type: <code>Cal.Core.Prelude.String</code>)
+		 *          the SQL SELECT statement to be executed
+		 * @param fetchSize (CAL type: <code>Cal.Core.Prelude.Int</code>)
+		 *          the JDBC fetch size, or zero to use the driver's default
+		 * @param batchSize (CAL type: <code>Cal.Core.Prelude.Int</code>)
+		 *          the maximum number of rows in each batch, or zero to use the default
+		 * @return (CAL type: <code>a</code>) 
+		 *          the result of applying the folding function over the query result batches
+		 */
+		public static final SourceModel.Expr foldStrictOverResultBatches(SourceModel.Expr foldFn, SourceModel.Expr initValue, SourceModel.Expr connection, SourceModel.Expr sql, SourceModel.Expr fetchSize, SourceModel.Expr batchSize) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.foldStrictOverResultBatches), foldFn, initValue, connection, sql, fetchSize, batchSize});
+		}
+
+		/**
+		 * @see #foldStrictOverResultBatches(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 * @param foldFn
+		 * @param initValue
+		 * @param connection
+		 * @param sql
+		 * @param fetchSize
+		 * @param batchSize
+		 * @return the SourceModel.Expr representing an application of foldStrictOverResultBatches
+		 */
+		public static final SourceModel.Expr foldStrictOverResultBatches(SourceModel.Expr foldFn, SourceModel.Expr initValue, SourceModel.Expr connection, java.lang.String sql, int fetchSize, int batchSize) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.foldStrictOverResultBatches), foldFn, initValue, connection, SourceModel.Expr.makeStringValue(sql), SourceModel.Expr.makeIntValue(fetchSize), SourceModel.Expr.makeIntValue(batchSize)});
+		}
+
+		/**
+		 * Name binding for function: foldStrictOverResultBatches.
+		 * @see #foldStrictOverResultBatches(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName foldStrictOverResultBatches = 
+			QualifiedName.make(
+				CAL_DataGems.MODULE_NAME, 
+				"foldStrictOverResultBatches");
+
 		/**
 		 * Folds a function over the rows of the <code>Cal.Data.DataGems.ResultSet</code>.
 		 * @param foldFn (CAL type: <code>Cal.Data.DataGems.ResultRow -> a -> a</code>)
@@ -2746,6 +2907,174 @@ public final class CAL_DataGems {
 		public static final QualifiedName getColumnIndex = 
 			QualifiedName.make(CAL_DataGems.MODULE_NAME, "getColumnIndex");
 
+		/**
+		 * Writes a list of rows to the database with a batched prepared statement (see <code>Cal.Data.DataGems.createBatchedPreparedStatement</code>).
+		 * Each row is bound to the statement with the specified function and added to the batch.
+		 * <p>
+		 * The rows are written as the list is traversed, so the list does not need to be held in memory.
+		 * 
+		 * @param connection (CAL type: <code>Cal.Data.DataGems.JDBCConnection</code>)
+		 *          a database connection
+		 * @param sql (CAL type: <code>Cal.Core.Prelude.String</code>)
+		 *          the SQL for the prepared statement, typically an INSERT or UPDATE statement
+		 * @param batchSize (CAL type: <code>Cal.Core.Prelude.Int</code>)
+		 *          the number of rows in each batch, or zero to adjust the batch size automatically
+		 * @param asynchronous (CAL type: <code>Cal.Core.Prelude.Boolean</code>)
+		 *          whether the batches should be executed on a separate writer thread
+		 * @param bindFn (CAL type: <code>Cal.Data.DataGems.JDBCPreparedStatement -> a -> Cal.Data.DataGems.JDBCPreparedStatement</code>)
+		 *          a function to bind the values of a row to the statement, e.g. using <code>Cal.Data.DataGems.bindIntToPreparedStatement</code>
+		 * @param rows (CAL type: <code>[a]</code>)
+		 *          the rows to be written
+		 * @return (CAL type: <code>Cal.Data.DataGems.JDBCPreparedStatement</code>) 
+		 *          the closed statement, from which the statistics for the write can be obtained
+		 * (e.g. <code>Cal.Data.DataGems.preparedStatementGetRowCount</code>, <code>Cal.Data.DataGems.preparedStatementRowsPerSecond</code>)
+		 */
+		public static final SourceModel.Expr jdbcBatchedWrite(SourceModel.Expr connection, SourceModel.Expr sql, SourceModel.Expr batchSize, SourceModel.Expr asynchronous, SourceModel.Expr bindFn, SourceModel.Expr rows) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.jdbcBatchedWrite), connection, sql, batchSize, asynchronous, bindFn, rows});
+		}
+
+		/**
+		 * @see #jdbcBatchedWrite(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 * @param connection
+		 * @param sql
+		 * @param batchSize
+		 * @param asynchronous
+		 * @param bindFn
+		 * @param rows
+		 * @return the SourceModel.Expr representing an application of jdbcBatchedWrite
+		 */
+		public static final SourceModel.Expr jdbcBatchedWrite(SourceModel.Expr connection, java.lang.String sql, int batchSize, boolean asynchronous, SourceModel.Expr bindFn, SourceModel.Expr rows) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.jdbcBatchedWrite), connection, SourceModel.Expr.makeStringValue(sql), SourceModel.Expr.makeIntValue(batchSize), SourceModel.Expr.makeBooleanValue(asynchronous), bindFn, rows});
+		}
+
+		/**
+		 * Name binding for function: jdbcBatchedWrite.
+		 * @see #jdbcBatchedWrite(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName jdbcBatchedWrite = 
+			QualifiedName.make(CAL_DataGems.MODULE_NAME, "jdbcBatchedWrite");
+
+		/**
+		 * Execute a parameterized SQL SELECT statement against the specified connection to produce a <code>Cal.Data.DataGems.ResultSet</code>,
+		 * using the cached result of the statement for the parameter values if the connection has a query result cache 
+		 * and the result is cached.
+		 * 
+		 * <dl><dt><b>See Also:</b>
+		 * <dd><b>Functions and Class Methods:</b> Cal.Data.DataGems.jdbcCachedQueryToResultSet
+		 * </dl>
+		 * 
+		 * @param connection (CAL type: <code>Cal.Data.DataGems.JDBCConnection</code>)
+		 *          a connection to the database against which the query will be performed
+		 * @param tableNames (CAL type: <code>Cal.Core.Prelude.Maybe [Cal.Core.Prelude.String]</code>)
+		 *          the names of the tables read by the query, or <code>Cal.Core.Prelude.Nothing</code> if these are not known
+		 * @param sql (CAL type: <code>Cal.Core.Prelude.String</code>)
+		 *          the SQL SELECT statement to be executed, with parameters marked by '?'
+		 * @param parameters (CAL type: <code>[Cal.Core.Prelude.JObject]</code>)
+		 *          the values of the parameters. <code>Cal.Utilities.Time.Time</code> values are passed as timestamps.
+		 * @return (CAL type: <code>Cal.Data.DataGems.ResultSet</code>) 
+		 *          the results of the database query
+		 */
+		public static final SourceModel.Expr jdbcCachedParameterizedQueryToResultSet(SourceModel.Expr connection, SourceModel.Expr tableNames, SourceModel.Expr sql, SourceModel.Expr parameters) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.jdbcCachedParameterizedQueryToResultSet), connection, tableNames, sql, parameters});
+		}
+
+		/**
+		 * @see #jdbcCachedParameterizedQueryToResultSet(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 * @param connection
+		 * @param tableNames
+		 * @param sql
+		 * @param parameters
+		 * @return the SourceModel.Expr representing an application of jdbcCachedParameterizedQueryToResultSet
+		 */
+		public static final SourceModel.Expr jdbcCachedParameterizedQueryToResultSet(SourceModel.Expr connection, SourceModel.Expr tableNames, java.lang.String sql, SourceModel.Expr parameters) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.jdbcCachedParameterizedQueryToResultSet), connection, tableNames, SourceModel.Expr.makeStringValue(sql), parameters});
+		}
+
+		/**
+		 * Name binding for function: jdbcCachedParameterizedQueryToResultSet.
+		 * @see #jdbcCachedParameterizedQueryToResultSet(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName jdbcCachedParameterizedQueryToResultSet = 
+			QualifiedName.make(
+				CAL_DataGems.MODULE_NAME, 
+				"jdbcCachedParameterizedQueryToResultSet");
+
+		/**
+		 * Execute a SQL SELECT statement against the specified connection to produce a <code>Cal.Data.DataGems.ResultSet</code>,
+		 * using the cached result of the statement if the connection has a query result cache and the result is cached.
+		 * &lt;p&gt;
+		 * The result set is held in memory. The names of the tables read by the query are recorded with the cached result,
+		 * so that it can be discarded when one of the tables is updated through the connection or invalidated by
+		 * <code>Cal.Data.DataGems.jdbcInvalidateCachedResults</code>. For queries built with the <code>Cal.Data.Sql</code> module, 
+		 * the table names are given by <code>Sql.getQueryTableNames</code>.
+		 * If the tables are not known, the cached result is discarded whenever any table is invalidated.
+		 * @param connection (CAL type: <code>Cal.Data.DataGems.JDBCConnection</code>)
+		 *          a connection to the database against which the query will be performed
+		 * @param tableNames (CAL type: <code>Cal.Core.Prelude.Maybe [Cal.Core.Prelude.String]</code>)
+		 *          the names of the tables read by the query, or <code>Cal.Core.Prelude.Nothing</code> if these are not known
+		 * @param sql (CAL type: <code>Cal.Core.Prelude.String</code>)
+		 *          the SQL SELECT statement to be executed
+		 * @return (CAL type: <code>Cal.Data.DataGems.ResultSet</code>) 
+		 *          the results of the database query
+		 */
+		public static final SourceModel.Expr jdbcCachedQueryToResultSet(SourceModel.Expr connection, SourceModel.Expr tableNames, SourceModel.Expr sql) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.jdbcCachedQueryToResultSet), connection, tableNames, sql});
+		}
+
+		/**
+		 * @see #jdbcCachedQueryToResultSet(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 * @param connection
+		 * @param tableNames
+		 * @param sql
+		 * @return the SourceModel.Expr representing an application of jdbcCachedQueryToResultSet
+		 */
+		public static final SourceModel.Expr jdbcCachedQueryToResultSet(SourceModel.Expr connection, SourceModel.Expr tableNames, java.lang.String sql) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.jdbcCachedQueryToResultSet), connection, tableNames, SourceModel.Expr.makeStringValue(sql)});
+		}
+
+		/**
+		 * Name binding for function: jdbcCachedQueryToResultSet.
+		 * @see #jdbcCachedQueryToResultSet(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName jdbcCachedQueryToResultSet = 
+			QualifiedName.make(
+				CAL_DataGems.MODULE_NAME, 
+				"jdbcCachedQueryToResultSet");
+
+		/**
+		 * Discards all the cached query results for the connection.
+		 * @param connection (CAL type: <code>Cal.Data.DataGems.JDBCConnection</code>)
+		 *          the connection
+		 * @return (CAL type: <code>Cal.Core.Prelude.Int</code>) 
+		 *          the number of cached results discarded
+		 */
+		public static final SourceModel.Expr jdbcClearQueryResultCache(SourceModel.Expr connection) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.jdbcClearQueryResultCache), connection});
+		}
+
+		/**
+		 * Name binding for function: jdbcClearQueryResultCache.
+		 * @see #jdbcClearQueryResultCache(org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName jdbcClearQueryResultCache = 
+			QualifiedName.make(
+				CAL_DataGems.MODULE_NAME, 
+				"jdbcClearQueryResultCache");
+
 		/**
 		 * Closes a JDBC connection.
 		 * This should be used with caution as it will modify the JDBC connection provided.
@@ -2865,6 +3194,28 @@ public final class CAL_DataGems {
 				CAL_DataGems.MODULE_NAME, 
 				"jdbcConnectionWithDriverCheck");
 
+		/**
+		 * Disables caching of query results for the connection, and discards any cached results.
+		 * @param connection (CAL type: <code>Cal.Data.DataGems.JDBCConnection</code>)
+		 *          the connection
+		 * @return (CAL type: <code>Cal.Data.DataGems.JDBCConnection</code>) 
+		 *          the connection
+		 */
+		public static final SourceModel.Expr jdbcDisableQueryResultCache(SourceModel.Expr connection) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.jdbcDisableQueryResultCache), connection});
+		}
+
+		/**
+		 * Name binding for function: jdbcDisableQueryResultCache.
+		 * @see #jdbcDisableQueryResultCache(org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName jdbcDisableQueryResultCache = 
+			QualifiedName.make(
+				CAL_DataGems.MODULE_NAME, 
+				"jdbcDisableQueryResultCache");
+
 		/**
 		 * Load a JDBC driver.
 		 * @param driverClass (CAL type: <code>Cal.Core.Prelude.String</code>)
@@ -2896,6 +3247,49 @@ public final class CAL_DataGems {
 		public static final QualifiedName jdbcDriverLoad = 
 			QualifiedName.make(CAL_DataGems.MODULE_NAME, "jdbcDriverLoad");
 
+		/**
+		 * Enables caching of query results for the connection, replacing any existing cache.
+		 * Only the queries performed by <code>Cal.Data.DataGems.jdbcCachedQueryToResultSet</code> and <code>Cal.Data.DataGems.jdbcCachedParameterizedQueryToResultSet</code> use the cache.
+		 * @param connection (CAL type: <code>Cal.Data.DataGems.JDBCConnection</code>)
+		 *          the connection for which query results should be cached
+		 * @param maxEntries (CAL type: <code>Cal.Core.Prelude.Int</code>)
+		 *          the maximum number of results to cache
+		 * @param maxRows (CAL type: <code>Cal.Core.Prelude.Int</code>)
+		 *          the maximum number of rows in a result which can be cached, or zero for no limit
+		 * @param timeToLive (CAL type: <code>Cal.Core.Prelude.Long</code>)
+		 *          the time (in milliseconds) for which a cached result remains valid, or zero if results do not expire
+		 * @return (CAL type: <code>Cal.Data.DataGems.JDBCConnection</code>) 
+		 *          the connection
+		 */
+		public static final SourceModel.Expr jdbcEnableQueryResultCache(SourceModel.Expr connection, SourceModel.Expr maxEntries, SourceModel.Expr maxRows, SourceModel.Expr timeToLive) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.jdbcEnableQueryResultCache), connection, maxEntries, maxRows, timeToLive});
+		}
+
+		/**
+		 * @see #jdbcEnableQueryResultCache(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 * @param connection
+		 * @param maxEntries
+		 * @param maxRows
+		 * @param timeToLive
+		 * @return the SourceModel.Expr representing an application of jdbcEnableQueryResultCache
+		 */
+		public static final SourceModel.Expr jdbcEnableQueryResultCache(SourceModel.Expr connection, int maxEntries, int maxRows, long timeToLive) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.jdbcEnableQueryResultCache), connection, SourceModel.Expr.makeIntValue(maxEntries), SourceModel.Expr.makeIntValue(maxRows), SourceModel.Expr.makeLongValue(timeToLive)});
+		}
+
+		/**
+		 * Name binding for function: jdbcEnableQueryResultCache.
+		 * @see #jdbcEnableQueryResultCache(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName jdbcEnableQueryResultCache = 
+			QualifiedName.make(
+				CAL_DataGems.MODULE_NAME, 
+				"jdbcEnableQueryResultCache");
+
 		/**
 		 * Gets the auto-commit flag for a JDBC connection.
 		 * @param connection (CAL type: <code>Cal.Data.DataGems.JDBCConnection</code>)
@@ -3263,6 +3657,92 @@ public final class CAL_DataGems {
 				CAL_DataGems.MODULE_NAME, 
 				"jdbcGetTablesInfoWithFilters");
 
+		/**
+		 * Discards the cached results of the queries which read the specified table.
+		 * @param connection (CAL type: <code>Cal.Data.DataGems.JDBCConnection</code>)
+		 *          the connection
+		 * @param tableName (CAL type: <code>Cal.Core.Prelude.String</code>)
+		 *          the name of the table, which may be qualified and/or quoted
+		 * @return (CAL type: <code>Cal.Core.Prelude.Int</code>) 
+		 *          the number of cached results discarded
+		 */
+		public static final SourceModel.Expr jdbcInvalidateCachedResults(SourceModel.Expr connection, SourceModel.Expr tableName) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.jdbcInvalidateCachedResults), connection, tableName});
+		}
+
+		/**
+		 * @see #jdbcInvalidateCachedResults(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 * @param connection
+		 * @param tableName
+		 * @return the SourceModel.Expr representing an application of jdbcInvalidateCachedResults
+		 */
+		public static final SourceModel.Expr jdbcInvalidateCachedResults(SourceModel.Expr connection, java.lang.String tableName) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.jdbcInvalidateCachedResults), connection, SourceModel.Expr.makeStringValue(tableName)});
+		}
+
+		/**
+		 * Name binding for function: jdbcInvalidateCachedResults.
+		 * @see #jdbcInvalidateCachedResults(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName jdbcInvalidateCachedResults = 
+			QualifiedName.make(
+				CAL_DataGems.MODULE_NAME, 
+				"jdbcInvalidateCachedResults");
+
+		/**
+		 * Executes a SQL SELECT statement against the specified connection, and returns the results
+		 * as a lazy list of columnar <code>Cal.Data.DataGems.ResultBatch</code>es.
+		 * <p>
+		 * Rows are only fetched from the database as the list is traversed, one batch at a time, so
+		 * the memory used for the results is bounded by the batch size (and the batches retained by the caller)
+		 * rather than growing with the number of rows. The results are read once, in order, without the
+		 * repositioning done for a <code>Cal.Data.DataGems.ResultSet</code>. The query is closed once the last batch has been read.
+		 * 
+		 * @param connection (CAL type: <code>Cal.Data.DataGems.JDBCConnection</code>)
+		 *          a connection to the database against which the query will be performed
+		 * @param sql (CAL type: <code>Cal.Core.Prelude.String</code>)
+		 *          the SQL SELECT statement to be executed
+		 * @param fetchSize (CAL type: <code>Cal.Core.Prelude.Int</code>)
+		 *          the number of rows the JDBC driver should fetch from the database at a time, or zero to use the driver's default.
+		 * Note that some drivers only honour the fetch size in certain modes (e.g. with auto-commit turned off).
+		 * @param batchSize (CAL type: <code>Cal.Core.Prelude.Int</code>)
+		 *          the maximum number of rows in each batch, or zero to use the default (1024 rows)
+		 * @return (CAL type: <code>[Cal.Data.DataGems.ResultBatch]</code>) 
+		 *          the query results as a list of batches, each of which holds up to <code>batchSize</code> rows
+		 */
+		public static final SourceModel.Expr jdbcQueryToResultBatches(SourceModel.Expr connection, SourceModel.Expr sql, SourceModel.Expr fetchSize, SourceModel.Expr batchSize) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.jdbcQueryToResultBatches), connection, sql, fetchSize, batchSize});
+		}
+
+		/**
+		 * @see #jdbcQueryToResultBatches(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 * @param connection
+		 * @param sql
+		 * @param fetchSize
+		 * @param batchSize
+		 * @return the SourceModel.Expr representing an application of jdbcQueryToResultBatches
+		 */
+		public static final SourceModel.Expr jdbcQueryToResultBatches(SourceModel.Expr connection, java.lang.String sql, int fetchSize, int batchSize) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.jdbcQueryToResultBatches), connection, SourceModel.Expr.makeStringValue(sql), SourceModel.Expr.makeIntValue(fetchSize), SourceModel.Expr.makeIntValue(batchSize)});
+		}
+
+		/**
+		 * Name binding for function: jdbcQueryToResultBatches.
+		 * @see #jdbcQueryToResultBatches(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName jdbcQueryToResultBatches = 
+			QualifiedName.make(
+				CAL_DataGems.MODULE_NAME, 
+				"jdbcQueryToResultBatches");
+
 		/**
 		 * Execute a SQL SELECT statement against the specified connection to produce a <code>Cal.Data.DataGems.ResultSet</code>.
 		 * @param connection (CAL type: <code>Cal.Data.DataGems.JDBCConnection</code>)
@@ -3398,6 +3878,72 @@ public final class CAL_DataGems {
 				CAL_DataGems.MODULE_NAME, 
 				"preparedStatementExecuteUpdate");
 
+		/**
+		 * Retrieves the number of times that a batch or update has been executed with a prepared statement.
+		 * @param preparedStmt (CAL type: <code>Cal.Data.DataGems.JDBCPreparedStatement</code>)
+		 *          a prepared statement
+		 * @return (CAL type: <code>Cal.Core.Prelude.Long</code>) 
+		 *          the number of executions of the prepared statement
+		 */
+		public static final SourceModel.Expr preparedStatementGetExecutionCount(SourceModel.Expr preparedStmt) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.preparedStatementGetExecutionCount), preparedStmt});
+		}
+
+		/**
+		 * Name binding for function: preparedStatementGetExecutionCount.
+		 * @see #preparedStatementGetExecutionCount(org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName preparedStatementGetExecutionCount = 
+			QualifiedName.make(
+				CAL_DataGems.MODULE_NAME, 
+				"preparedStatementGetExecutionCount");
+
+		/**
+		 * Retrieves the longest time taken by a single execution of a prepared statement.
+		 * @param preparedStmt (CAL type: <code>Cal.Data.DataGems.JDBCPreparedStatement</code>)
+		 *          a prepared statement
+		 * @return (CAL type: <code>Cal.Core.Prelude.Long</code>) 
+		 *          the longest execution time of the prepared statement, in milliseconds
+		 */
+		public static final SourceModel.Expr preparedStatementGetMaxExecTime(SourceModel.Expr preparedStmt) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.preparedStatementGetMaxExecTime), preparedStmt});
+		}
+
+		/**
+		 * Name binding for function: preparedStatementGetMaxExecTime.
+		 * @see #preparedStatementGetMaxExecTime(org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName preparedStatementGetMaxExecTime = 
+			QualifiedName.make(
+				CAL_DataGems.MODULE_NAME, 
+				"preparedStatementGetMaxExecTime");
+
+		/**
+		 * Retrieves the number of rows (parameter sets) which have been executed with a prepared statement.
+		 * @param preparedStmt (CAL type: <code>Cal.Data.DataGems.JDBCPreparedStatement</code>)
+		 *          a prepared statement
+		 * @return (CAL type: <code>Cal.Core.Prelude.Long</code>) 
+		 *          the number of rows executed with the prepared statement
+		 */
+		public static final SourceModel.Expr preparedStatementGetRowCount(SourceModel.Expr preparedStmt) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.preparedStatementGetRowCount), preparedStmt});
+		}
+
+		/**
+		 * Name binding for function: preparedStatementGetRowCount.
+		 * @see #preparedStatementGetRowCount(org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName preparedStatementGetRowCount = 
+			QualifiedName.make(
+				CAL_DataGems.MODULE_NAME, 
+				"preparedStatementGetRowCount");
+
 		/**
 		 * Retrieves the SQL from a prepared statement.
 		 * @param preparedStmt (CAL type: <code>Cal.Data.DataGems.JDBCPreparedStatement</code>)
@@ -3442,6 +3988,406 @@ public final class CAL_DataGems {
 				CAL_DataGems.MODULE_NAME, 
 				"preparedStatementGetTotalExecTime");
 
+		/**
+		 * Calculates the throughput of a prepared statement, as the number of rows executed per second of execution time.
+		 * @param preparedStmt (CAL type: <code>Cal.Data.DataGems.JDBCPreparedStatement</code>)
+		 *          a prepared statement
+		 * @return (CAL type: <code>Cal.Core.Prelude.Double</code>) 
+		 *          the number of rows executed per second, or 0 if no time has been spent executing the statement
+		 */
+		public static final SourceModel.Expr preparedStatementRowsPerSecond(SourceModel.Expr preparedStmt) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.preparedStatementRowsPerSecond), preparedStmt});
+		}
+
+		/**
+		 * Name binding for function: preparedStatementRowsPerSecond.
+		 * @see #preparedStatementRowsPerSecond(org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName preparedStatementRowsPerSecond = 
+			QualifiedName.make(
+				CAL_DataGems.MODULE_NAME, 
+				"preparedStatementRowsPerSecond");
+
+		/**
+		 * Returns the values of a boolean <code>Cal.Data.DataGems.ResultBatch</code> column.
+		 * An error is thrown if the column does not have a boolean (or bit) SQL type.
+		 * @param resultBatch (CAL type: <code>Cal.Data.DataGems.ResultBatch</code>)
+		 *          a <code>Cal.Data.DataGems.ResultBatch</code>
+		 * @param columnN (CAL type: <code>Cal.Core.Prelude.Int</code>)
+		 *          the 1-based column ordinal
+		 * @return (CAL type: <code>Cal.Collections.Array.Array Cal.Core.Prelude.Boolean</code>) 
+		 *          an array with the column value for each row
+		 */
+		public static final SourceModel.Expr resultBatchBooleanColumn(SourceModel.Expr resultBatch, SourceModel.Expr columnN) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.resultBatchBooleanColumn), resultBatch, columnN});
+		}
+
+		/**
+		 * @see #resultBatchBooleanColumn(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 * @param resultBatch
+		 * @param columnN
+		 * @return the SourceModel.Expr representing an application of resultBatchBooleanColumn
+		 */
+		public static final SourceModel.Expr resultBatchBooleanColumn(SourceModel.Expr resultBatch, int columnN) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.resultBatchBooleanColumn), resultBatch, SourceModel.Expr.makeIntValue(columnN)});
+		}
+
+		/**
+		 * Name binding for function: resultBatchBooleanColumn.
+		 * @see #resultBatchBooleanColumn(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName resultBatchBooleanColumn = 
+			QualifiedName.make(
+				CAL_DataGems.MODULE_NAME, 
+				"resultBatchBooleanColumn");
+
+		/**
+		 * Returns the number of columns in a <code>Cal.Data.DataGems.ResultBatch</code>.
+		 * @param resultBatch (CAL type: <code>Cal.Data.DataGems.ResultBatch</code>)
+		 *          a <code>Cal.Data.DataGems.ResultBatch</code>
+		 * @return (CAL type: <code>Cal.Core.Prelude.Int</code>) 
+		 *          the number of columns in the batch
+		 */
+		public static final SourceModel.Expr resultBatchColumnCount(SourceModel.Expr resultBatch) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.resultBatchColumnCount), resultBatch});
+		}
+
+		/**
+		 * Name binding for function: resultBatchColumnCount.
+		 * @see #resultBatchColumnCount(org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName resultBatchColumnCount = 
+			QualifiedName.make(
+				CAL_DataGems.MODULE_NAME, 
+				"resultBatchColumnCount");
+
+		/**
+		 * Returns the values of a <code>Cal.Data.DataGems.ResultBatch</code> column as <code>Cal.Core.Prelude.Decimal</code>s.
+		 * Values of integer columns are converted, and an error is thrown for other columns.
+		 * Null values become zero; use <code>Cal.Data.DataGems.resultBatchIsNull</code> to tell which values were null.
+		 * @param resultBatch (CAL type: <code>Cal.Data.DataGems.ResultBatch</code>)
+		 *          a <code>Cal.Data.DataGems.ResultBatch</code>
+		 * @param columnN (CAL type: <code>Cal.Core.Prelude.Int</code>)
+		 *          the 1-based column ordinal
+		 * @return (CAL type: <code>Cal.Collections.Array.Array Cal.Core.Prelude.Decimal</code>) 
+		 *          an array with the column value for each row
+		 */
+		public static final SourceModel.Expr resultBatchDecimalColumn(SourceModel.Expr resultBatch, SourceModel.Expr columnN) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.resultBatchDecimalColumn), resultBatch, columnN});
+		}
+
+		/**
+		 * @see #resultBatchDecimalColumn(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 * @param resultBatch
+		 * @param columnN
+		 * @return the SourceModel.Expr representing an application of resultBatchDecimalColumn
+		 */
+		public static final SourceModel.Expr resultBatchDecimalColumn(SourceModel.Expr resultBatch, int columnN) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.resultBatchDecimalColumn), resultBatch, SourceModel.Expr.makeIntValue(columnN)});
+		}
+
+		/**
+		 * Name binding for function: resultBatchDecimalColumn.
+		 * @see #resultBatchDecimalColumn(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName resultBatchDecimalColumn = 
+			QualifiedName.make(
+				CAL_DataGems.MODULE_NAME, 
+				"resultBatchDecimalColumn");
+
+		/**
+		 * Returns the values of a <code>Cal.Data.DataGems.ResultBatch</code> column as <code>Cal.Core.Prelude.Double</code>s.
+		 * Values of other numeric columns are converted, and an error is thrown for non-numeric columns.
+		 * Null values become <code>Cal.Core.Prelude.notANumber</code>; use <code>Cal.Data.DataGems.resultBatchIsNull</code> to tell which values were null.
+		 * @param resultBatch (CAL type: <code>Cal.Data.DataGems.ResultBatch</code>)
+		 *          a <code>Cal.Data.DataGems.ResultBatch</code>
+		 * @param columnN (CAL type: <code>Cal.Core.Prelude.Int</code>)
+		 *          the 1-based column ordinal
+		 * @return (CAL type: <code>Cal.Collections.Array.Array Cal.Core.Prelude.Double</code>) 
+		 *          an array with the column value for each row
+		 */
+		public static final SourceModel.Expr resultBatchDoubleColumn(SourceModel.Expr resultBatch, SourceModel.Expr columnN) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.resultBatchDoubleColumn), resultBatch, columnN});
+		}
+
+		/**
+		 * @see #resultBatchDoubleColumn(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 * @param resultBatch
+		 * @param columnN
+		 * @return the SourceModel.Expr representing an application of resultBatchDoubleColumn
+		 */
+		public static final SourceModel.Expr resultBatchDoubleColumn(SourceModel.Expr resultBatch, int columnN) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.resultBatchDoubleColumn), resultBatch, SourceModel.Expr.makeIntValue(columnN)});
+		}
+
+		/**
+		 * Name binding for function: resultBatchDoubleColumn.
+		 * @see #resultBatchDoubleColumn(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName resultBatchDoubleColumn = 
+			QualifiedName.make(
+				CAL_DataGems.MODULE_NAME, 
+				"resultBatchDoubleColumn");
+
+		/**
+		 * Returns the values of a <code>Cal.Data.DataGems.ResultBatch</code> column as <code>Cal.Core.Prelude.Int</code>s.
+		 * Values of other numeric columns are truncated, and an error is thrown for non-numeric columns.
+		 * Null values become <code>Cal.Core.Prelude.minBound</code>; use <code>Cal.Data.DataGems.resultBatchIsNull</code> to tell which values were null.
+		 * @param resultBatch (CAL type: <code>Cal.Data.DataGems.ResultBatch</code>)
+		 *          a <code>Cal.Data.DataGems.ResultBatch</code>
+		 * @param columnN (CAL type: <code>Cal.Core.Prelude.Int</code>)
+		 *          the 1-based column ordinal
+		 * @return (CAL type: <code>Cal.Collections.Array.Array Cal.Core.Prelude.Int</code>) 
+		 *          an array with the column value for each row
+		 */
+		public static final SourceModel.Expr resultBatchIntColumn(SourceModel.Expr resultBatch, SourceModel.Expr columnN) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.resultBatchIntColumn), resultBatch, columnN});
+		}
+
+		/**
+		 * @see #resultBatchIntColumn(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 * @param resultBatch
+		 * @param columnN
+		 * @return the SourceModel.Expr representing an application of resultBatchIntColumn
+		 */
+		public static final SourceModel.Expr resultBatchIntColumn(SourceModel.Expr resultBatch, int columnN) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.resultBatchIntColumn), resultBatch, SourceModel.Expr.makeIntValue(columnN)});
+		}
+
+		/**
+		 * Name binding for function: resultBatchIntColumn.
+		 * @see #resultBatchIntColumn(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName resultBatchIntColumn = 
+			QualifiedName.make(CAL_DataGems.MODULE_NAME, "resultBatchIntColumn");
+
+		/**
+		 * Returns whether the value in a row and column of a <code>Cal.Data.DataGems.ResultBatch</code> was null.
+		 * The column functions replace null values by a null value of the type returned (for example <code>Cal.Core.Prelude.minBound</code>
+		 * for <code>Cal.Core.Prelude.Int</code> columns), which can also occur as an actual value, so this is the way to tell which values were null.
+		 * @param resultBatch (CAL type: <code>Cal.Data.DataGems.ResultBatch</code>)
+		 *          a <code>Cal.Data.DataGems.ResultBatch</code>
+		 * @param rowN (CAL type: <code>Cal.Core.Prelude.Int</code>)
+		 *          the 0-based row index
+		 * @param columnN (CAL type: <code>Cal.Core.Prelude.Int</code>)
+		 *          the 1-based column ordinal
+		 * @return (CAL type: <code>Cal.Core.Prelude.Boolean</code>) 
+		 *          <code>Cal.Core.Prelude.True</code> if the value was null
+		 */
+		public static final SourceModel.Expr resultBatchIsNull(SourceModel.Expr resultBatch, SourceModel.Expr rowN, SourceModel.Expr columnN) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.resultBatchIsNull), resultBatch, rowN, columnN});
+		}
+
+		/**
+		 * @see #resultBatchIsNull(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 * @param resultBatch
+		 * @param rowN
+		 * @param columnN
+		 * @return the SourceModel.Expr representing an application of resultBatchIsNull
+		 */
+		public static final SourceModel.Expr resultBatchIsNull(SourceModel.Expr resultBatch, int rowN, int columnN) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.resultBatchIsNull), resultBatch, SourceModel.Expr.makeIntValue(rowN), SourceModel.Expr.makeIntValue(columnN)});
+		}
+
+		/**
+		 * Name binding for function: resultBatchIsNull.
+		 * @see #resultBatchIsNull(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName resultBatchIsNull = 
+			QualifiedName.make(CAL_DataGems.MODULE_NAME, "resultBatchIsNull");
+
+		/**
+		 * Returns the values of a <code>Cal.Data.DataGems.ResultBatch</code> column as <code>Cal.Core.Prelude.Long</code>s.
+		 * Values of other numeric columns are truncated, and an error is thrown for non-numeric columns.
+		 * Null values become <code>Cal.Core.Prelude.minBound</code>; use <code>Cal.Data.DataGems.resultBatchIsNull</code> to tell which values were null.
+		 * @param resultBatch (CAL type: <code>Cal.Data.DataGems.ResultBatch</code>)
+		 *          a <code>Cal.Data.DataGems.ResultBatch</code>
+		 * @param columnN (CAL type: <code>Cal.Core.Prelude.Int</code>)
+		 *          the 1-based column ordinal
+		 * @return (CAL type: <code>Cal.Collections.Array.Array Cal.Core.Prelude.Long</code>) 
+		 *          an array with the column value for each row
+		 */
+		public static final SourceModel.Expr resultBatchLongColumn(SourceModel.Expr resultBatch, SourceModel.Expr columnN) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.resultBatchLongColumn), resultBatch, columnN});
+		}
+
+		/**
+		 * @see #resultBatchLongColumn(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 * @param resultBatch
+		 * @param columnN
+		 * @return the SourceModel.Expr representing an application of resultBatchLongColumn
+		 */
+		public static final SourceModel.Expr resultBatchLongColumn(SourceModel.Expr resultBatch, int columnN) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.resultBatchLongColumn), resultBatch, SourceModel.Expr.makeIntValue(columnN)});
+		}
+
+		/**
+		 * Name binding for function: resultBatchLongColumn.
+		 * @see #resultBatchLongColumn(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName resultBatchLongColumn = 
+			QualifiedName.make(
+				CAL_DataGems.MODULE_NAME, 
+				"resultBatchLongColumn");
+
+		/**
+		 * Returns whether the values of a <code>Cal.Data.DataGems.ResultBatch</code> column were null.
+		 * @param resultBatch (CAL type: <code>Cal.Data.DataGems.ResultBatch</code>)
+		 *          a <code>Cal.Data.DataGems.ResultBatch</code>
+		 * @param columnN (CAL type: <code>Cal.Core.Prelude.Int</code>)
+		 *          the 1-based column ordinal
+		 * @return (CAL type: <code>Cal.Collections.Array.Array Cal.Core.Prelude.Boolean</code>) 
+		 *          an array with an element for each row, which is <code>Cal.Core.Prelude.True</code> if the column value was null
+		 */
+		public static final SourceModel.Expr resultBatchNullColumn(SourceModel.Expr resultBatch, SourceModel.Expr columnN) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.resultBatchNullColumn), resultBatch, columnN});
+		}
+
+		/**
+		 * @see #resultBatchNullColumn(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 * @param resultBatch
+		 * @param columnN
+		 * @return the SourceModel.Expr representing an application of resultBatchNullColumn
+		 */
+		public static final SourceModel.Expr resultBatchNullColumn(SourceModel.Expr resultBatch, int columnN) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.resultBatchNullColumn), resultBatch, SourceModel.Expr.makeIntValue(columnN)});
+		}
+
+		/**
+		 * Name binding for function: resultBatchNullColumn.
+		 * @see #resultBatchNullColumn(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName resultBatchNullColumn = 
+			QualifiedName.make(
+				CAL_DataGems.MODULE_NAME, 
+				"resultBatchNullColumn");
+
+		/**
+		 * Returns the number of rows in a <code>Cal.Data.DataGems.ResultBatch</code>.
+		 * @param resultBatch (CAL type: <code>Cal.Data.DataGems.ResultBatch</code>)
+		 *          a <code>Cal.Data.DataGems.ResultBatch</code>
+		 * @return (CAL type: <code>Cal.Core.Prelude.Int</code>) 
+		 *          the number of rows in the batch
+		 */
+		public static final SourceModel.Expr resultBatchRowCount(SourceModel.Expr resultBatch) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.resultBatchRowCount), resultBatch});
+		}
+
+		/**
+		 * Name binding for function: resultBatchRowCount.
+		 * @see #resultBatchRowCount(org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName resultBatchRowCount = 
+			QualifiedName.make(CAL_DataGems.MODULE_NAME, "resultBatchRowCount");
+
+		/**
+		 * Returns the values of a <code>Cal.Data.DataGems.ResultBatch</code> column as strings.
+		 * Values of other columns are converted to strings, with null values becoming empty strings.
+		 * @param resultBatch (CAL type: <code>Cal.Data.DataGems.ResultBatch</code>)
+		 *          a <code>Cal.Data.DataGems.ResultBatch</code>
+		 * @param columnN (CAL type: <code>Cal.Core.Prelude.Int</code>)
+		 *          the 1-based column ordinal
+		 * @return (CAL type: <code>Cal.Collections.Array.Array Cal.Core.Prelude.String</code>) 
+		 *          an array with the column value for each row
+		 */
+		public static final SourceModel.Expr resultBatchStringColumn(SourceModel.Expr resultBatch, SourceModel.Expr columnN) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.resultBatchStringColumn), resultBatch, columnN});
+		}
+
+		/**
+		 * @see #resultBatchStringColumn(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 * @param resultBatch
+		 * @param columnN
+		 * @return the SourceModel.Expr representing an application of resultBatchStringColumn
+		 */
+		public static final SourceModel.Expr resultBatchStringColumn(SourceModel.Expr resultBatch, int columnN) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.resultBatchStringColumn), resultBatch, SourceModel.Expr.makeIntValue(columnN)});
+		}
+
+		/**
+		 * Name binding for function: resultBatchStringColumn.
+		 * @see #resultBatchStringColumn(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName resultBatchStringColumn = 
+			QualifiedName.make(
+				CAL_DataGems.MODULE_NAME, 
+				"resultBatchStringColumn");
+
+		/**
+		 * Returns the values of a date, time or timestamp <code>Cal.Data.DataGems.ResultBatch</code> column.
+		 * An error is thrown for columns of other types.
+		 * @param resultBatch (CAL type: <code>Cal.Data.DataGems.ResultBatch</code>)
+		 *          a <code>Cal.Data.DataGems.ResultBatch</code>
+		 * @param columnN (CAL type: <code>Cal.Core.Prelude.Int</code>)
+		 *          the 1-based column ordinal
+		 * @return (CAL type: <code>Cal.Collections.Array.Array Cal.Utilities.Time.Time</code>) 
+		 *          an array with the column value for each row
+		 */
+		public static final SourceModel.Expr resultBatchTimeColumn(SourceModel.Expr resultBatch, SourceModel.Expr columnN) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.resultBatchTimeColumn), resultBatch, columnN});
+		}
+
+		/**
+		 * @see #resultBatchTimeColumn(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 * @param resultBatch
+		 * @param columnN
+		 * @return the SourceModel.Expr representing an application of resultBatchTimeColumn
+		 */
+		public static final SourceModel.Expr resultBatchTimeColumn(SourceModel.Expr resultBatch, int columnN) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.resultBatchTimeColumn), resultBatch, SourceModel.Expr.makeIntValue(columnN)});
+		}
+
+		/**
+		 * Name binding for function: resultBatchTimeColumn.
+		 * @see #resultBatchTimeColumn(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName resultBatchTimeColumn = 
+			QualifiedName.make(
+				CAL_DataGems.MODULE_NAME, 
+				"resultBatchTimeColumn");
+
 		/**
 		 * Exposes a JDBC resultset as a <code>Cal.Data.DataGems.ResultSet</code>.
 		 * @param jdbcResultSet (CAL type: <code>Cal.Data.DataGems.JDBCResultSet</code>)
@@ -3600,6 +4546,6 @@ public final class CAL_DataGems {
 	 * A hash of the concatenated JavaDoc for this class (including inner classes).
 	 * This value is used when checking for changes to generated binding classes.
 	 */
-	public static final int javaDocHash = -1070891296;
+	public static final int javaDocHash = -1240810900;
 
 }
@@ -12,7 +12,7 @@
  * The constants and methods provided are intended to facilitate accessing the
  * Cal.Data.Sql module from Java code.
  *  
- * Creation date: Fri Jan 22 15:13:44 PST 2010
+ * Creation date: Sun Oct 18 09:45:47 UTC 2026
  * --!>
  *  
  */
@@ -82,6 +82,22 @@ public final class CAL_Sql {
 	 * and methods related to binding to CAL TypeConstructors in the Cal.Data.Sql module.
 	 */
 	public static final class TypeConstructors {
+		/**
+		 * The values of a column of a <code>Cal.Data.Sql.ColumnarTable</code>.
+		 * A value of <code>Cal.Core.Prelude.Nothing</code> is a null value.
+		 */
+		public static final QualifiedName ColumnarColumn = 
+			QualifiedName.make(CAL_Sql.MODULE_NAME, "ColumnarColumn");
+
+		/**
+		 * A table of values held in memory column by column.
+		 * Each column holds numbers, strings, Boolean values or times, any of which may be null.
+		 * Columnar tables are the tables queried by an <code>Cal.Data.Sql.InMemoryDatabase</code>, 
+		 * and the results of the queries.
+		 */
+		public static final QualifiedName ColumnarTable = 
+			QualifiedName.make(CAL_Sql.MODULE_NAME, "ColumnarTable");
+
 		/**
 		 * Database expression functions and operators.
 		 */
@@ -94,6 +110,24 @@ public final class CAL_Sql {
 		public static final QualifiedName Expr = 
 			QualifiedName.make(CAL_Sql.MODULE_NAME, "Expr");
 
+		/**
+		 * A set of named <code>Cal.Data.Sql.ColumnarTable</code>s against which queries can be evaluated in memory,
+		 * without going through a database server.
+		 * <p>
+		 * Queries are evaluated a column at a time: filters and joins work on vectors of row indices, field values are
+		 * only gathered for the columns which a query uses, and expressions are evaluated over whole columns.
+		 * Joins on equality conditions are done as hash joins, and grouping and <code>Cal.Data.Sql.Distinct</code> use hash tables.
+		 * This makes it practical to run interactive queries over extracts of a few million rows.
+		 * <p>
+		 * The supported queries are those which can be built with this module, with the following exceptions:
+		 * query parameters, correlated subqueries, opaque subqueries, and functions which are specific to a database
+		 * (or which have no equivalent in memory, such as <code>Cal.Data.Sql.dayNameExpr</code>) are not supported, and cause an error.
+		 * Note also that all numeric values are held as doubles (so integer division is not truncated, and
+		 * division by zero gives null) and that string comparisons are case sensitive.
+		 */
+		public static final QualifiedName InMemoryDatabase = 
+			QualifiedName.make(CAL_Sql.MODULE_NAME, "InMemoryDatabase");
+
 		/**
 		 * Information about a join between 2 tables.
 		 */
@@ -185,6 +219,166 @@ public final class CAL_Sql {
 	 * and methods related to binding to CAL DataConstructors in the Cal.Data.Sql module.
 	 */
 	public static final class DataConstructors {
+		/*
+		 * DataConstructors for the Cal.Data.Sql.ColumnarColumn data type.
+		 */
+
+		/**
+		 * A numeric column.
+		 * @param columnName (CAL type: <code>Cal.Core.Prelude.String</code>)
+		 *          the name of the column
+		 * @param values (CAL type: <code>[Cal.Core.Prelude.Maybe Cal.Core.Prelude.Double]</code>)
+		 *          the column values
+		 * @return SourceModel.Expr
+		 */
+		public static final SourceModel.Expr NumberColumn(SourceModel.Expr columnName, SourceModel.Expr values) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.DataCons.make(DataConstructors.NumberColumn), columnName, values});
+		}
+
+		/**
+		 * @see #NumberColumn(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 * @param columnName
+		 * @param values
+		 * @return org.openquark.cal.compiler.SourceModel.Expr
+		 */
+		public static final SourceModel.Expr NumberColumn(java.lang.String columnName, SourceModel.Expr values) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.DataCons.make(DataConstructors.NumberColumn), SourceModel.Expr.makeStringValue(columnName), values});
+		}
+
+		/**
+		 * Name binding for DataConstructor: Cal.Data.Sql.NumberColumn.
+		 * @see #NumberColumn(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName NumberColumn = 
+			QualifiedName.make(CAL_Sql.MODULE_NAME, "NumberColumn");
+
+		/**
+		 * Ordinal of DataConstructor Cal.Data.Sql.NumberColumn.
+		 * @see #NumberColumn(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final int NumberColumn_ordinal = 0;
+
+		/**
+		 * A string column.
+		 * @param columnName (CAL type: <code>Cal.Core.Prelude.String</code>)
+		 *          the name of the column
+		 * @param values (CAL type: <code>[Cal.Core.Prelude.Maybe Cal.Core.Prelude.String]</code>)
+		 *          the column values
+		 * @return SourceModel.Expr
+		 */
+		public static final SourceModel.Expr StringColumn(SourceModel.Expr columnName, SourceModel.Expr values) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.DataCons.make(DataConstructors.StringColumn), columnName, values});
+		}
+
+		/**
+		 * @see #StringColumn(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 * @param columnName
+		 * @param values
+		 * @return org.openquark.cal.compiler.SourceModel.Expr
+		 */
+		public static final SourceModel.Expr StringColumn(java.lang.String columnName, SourceModel.Expr values) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.DataCons.make(DataConstructors.StringColumn), SourceModel.Expr.makeStringValue(columnName), values});
+		}
+
+		/**
+		 * Name binding for DataConstructor: Cal.Data.Sql.StringColumn.
+		 * @see #StringColumn(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName StringColumn = 
+			QualifiedName.make(CAL_Sql.MODULE_NAME, "StringColumn");
+
+		/**
+		 * Ordinal of DataConstructor Cal.Data.Sql.StringColumn.
+		 * @see #StringColumn(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final int StringColumn_ordinal = 1;
+
+		/**
+		 * A Boolean column.
+		 * @param columnName (CAL type: <code>Cal.Core.Prelude.String</code>)
+		 *          the name of the column
+		 * @param values (CAL type: <code>[Cal.Core.Prelude.Maybe Cal.Core.Prelude.Boolean]</code>)
+		 *          the column values
+		 * @return SourceModel.Expr
+		 */
+		public static final SourceModel.Expr BooleanColumn(SourceModel.Expr columnName, SourceModel.Expr values) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.DataCons.make(DataConstructors.BooleanColumn), columnName, values});
+		}
+
+		/**
+		 * @see #BooleanColumn(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 * @param columnName
+		 * @param values
+		 * @return org.openquark.cal.compiler.SourceModel.Expr
+		 */
+		public static final SourceModel.Expr BooleanColumn(java.lang.String columnName, SourceModel.Expr values) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.DataCons.make(DataConstructors.BooleanColumn), SourceModel.Expr.makeStringValue(columnName), values});
+		}
+
+		/**
+		 * Name binding for DataConstructor: Cal.Data.Sql.BooleanColumn.
+		 * @see #BooleanColumn(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName BooleanColumn = 
+			QualifiedName.make(CAL_Sql.MODULE_NAME, "BooleanColumn");
+
+		/**
+		 * Ordinal of DataConstructor Cal.Data.Sql.BooleanColumn.
+		 * @see #BooleanColumn(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final int BooleanColumn_ordinal = 2;
+
+		/**
+		 * A time column.
+		 * @param columnName (CAL type: <code>Cal.Core.Prelude.String</code>)
+		 *          the name of the column
+		 * @param values (CAL type: <code>[Cal.Core.Prelude.Maybe Cal.Utilities.Time.Time]</code>)
+		 *          the column values
+		 * @return SourceModel.Expr
+		 */
+		public static final SourceModel.Expr TimeColumn(SourceModel.Expr columnName, SourceModel.Expr values) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.DataCons.make(DataConstructors.TimeColumn), columnName, values});
+		}
+
+		/**
+		 * @see #TimeColumn(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 * @param columnName
+		 * @param values
+		 * @return org.openquark.cal.compiler.SourceModel.Expr
+		 */
+		public static final SourceModel.Expr TimeColumn(java.lang.String columnName, SourceModel.Expr values) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.DataCons.make(DataConstructors.TimeColumn), SourceModel.Expr.makeStringValue(columnName), values});
+		}
+
+		/**
+		 * Name binding for DataConstructor: Cal.Data.Sql.TimeColumn.
+		 * @see #TimeColumn(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName TimeColumn = 
+			QualifiedName.make(CAL_Sql.MODULE_NAME, "TimeColumn");
+
+		/**
+		 * Ordinal of DataConstructor Cal.Data.Sql.TimeColumn.
+		 * @see #TimeColumn(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final int TimeColumn_ordinal = 3;
+
 		/*
 		 * DataConstructors for the Cal.Data.Sql.DbFunction data type.
 		 */
@@ -3526,6 +3720,188 @@ public final class CAL_Sql {
 		public static final QualifiedName charExpr = 
 			QualifiedName.make(CAL_Sql.MODULE_NAME, "charExpr");
 
+		/**
+		 * Returns the values of a Boolean column of a <code>Cal.Data.Sql.ColumnarTable</code>.
+		 * The column names are matched case-insensitively if there is no exact match.
+		 * @param table (CAL type: <code>Cal.Data.Sql.ColumnarTable</code>)
+		 *          a columnar table
+		 * @param columnName (CAL type: <code>Cal.Core.Prelude.String</code>)
+		 *          the name of a Boolean column
+		 * @return (CAL type: <code>[Cal.Core.Prelude.Maybe Cal.Core.Prelude.Boolean]</code>) 
+		 *          the column values, with <code>Cal.Core.Prelude.Nothing</code> for null values
+		 */
+		public static final SourceModel.Expr columnarTableBooleanColumn(SourceModel.Expr table, SourceModel.Expr columnName) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.columnarTableBooleanColumn), table, columnName});
+		}
+
+		/**
+		 * @see #columnarTableBooleanColumn(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 * @param table
+		 * @param columnName
+		 * @return the SourceModel.Expr representing an application of columnarTableBooleanColumn
+		 */
+		public static final SourceModel.Expr columnarTableBooleanColumn(SourceModel.Expr table, java.lang.String columnName) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.columnarTableBooleanColumn), table, SourceModel.Expr.makeStringValue(columnName)});
+		}
+
+		/**
+		 * Name binding for function: columnarTableBooleanColumn.
+		 * @see #columnarTableBooleanColumn(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName columnarTableBooleanColumn = 
+			QualifiedName.make(
+				CAL_Sql.MODULE_NAME, 
+				"columnarTableBooleanColumn");
+
+		/**
+		 * Returns the names of the columns of a <code>Cal.Data.Sql.ColumnarTable</code>.
+		 * @param table (CAL type: <code>Cal.Data.Sql.ColumnarTable</code>)
+		 *          a columnar table
+		 * @return (CAL type: <code>[Cal.Core.Prelude.String]</code>) 
+		 *          the column names, in order
+		 */
+		public static final SourceModel.Expr columnarTableColumnNames(SourceModel.Expr table) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.columnarTableColumnNames), table});
+		}
+
+		/**
+		 * Name binding for function: columnarTableColumnNames.
+		 * @see #columnarTableColumnNames(org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName columnarTableColumnNames = 
+			QualifiedName.make(CAL_Sql.MODULE_NAME, "columnarTableColumnNames");
+
+		/**
+		 * Returns the values of a numeric column of a <code>Cal.Data.Sql.ColumnarTable</code>.
+		 * The column names are matched case-insensitively if there is no exact match.
+		 * @param table (CAL type: <code>Cal.Data.Sql.ColumnarTable</code>)
+		 *          a columnar table
+		 * @param columnName (CAL type: <code>Cal.Core.Prelude.String</code>)
+		 *          the name of a numeric column
+		 * @return (CAL type: <code>[Cal.Core.Prelude.Maybe Cal.Core.Prelude.Double]</code>) 
+		 *          the column values, with <code>Cal.Core.Prelude.Nothing</code> for null values
+		 */
+		public static final SourceModel.Expr columnarTableNumberColumn(SourceModel.Expr table, SourceModel.Expr columnName) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.columnarTableNumberColumn), table, columnName});
+		}
+
+		/**
+		 * @see #columnarTableNumberColumn(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 * @param table
+		 * @param columnName
+		 * @return the SourceModel.Expr representing an application of columnarTableNumberColumn
+		 */
+		public static final SourceModel.Expr columnarTableNumberColumn(SourceModel.Expr table, java.lang.String columnName) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.columnarTableNumberColumn), table, SourceModel.Expr.makeStringValue(columnName)});
+		}
+
+		/**
+		 * Name binding for function: columnarTableNumberColumn.
+		 * @see #columnarTableNumberColumn(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName columnarTableNumberColumn = 
+			QualifiedName.make(CAL_Sql.MODULE_NAME, "columnarTableNumberColumn");
+
+		/**
+		 * Returns the number of rows in a <code>Cal.Data.Sql.ColumnarTable</code>.
+		 * @param table (CAL type: <code>Cal.Data.Sql.ColumnarTable</code>)
+		 *          a columnar table
+		 * @return (CAL type: <code>Cal.Core.Prelude.Int</code>) 
+		 *          the number of rows in the table
+		 */
+		public static final SourceModel.Expr columnarTableRowCount(SourceModel.Expr table) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.columnarTableRowCount), table});
+		}
+
+		/**
+		 * Name binding for function: columnarTableRowCount.
+		 * @see #columnarTableRowCount(org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName columnarTableRowCount = 
+			QualifiedName.make(CAL_Sql.MODULE_NAME, "columnarTableRowCount");
+
+		/**
+		 * Returns the values of a string column of a <code>Cal.Data.Sql.ColumnarTable</code>.
+		 * The column names are matched case-insensitively if there is no exact match.
+		 * @param table (CAL type: <code>Cal.Data.Sql.ColumnarTable</code>)
+		 *          a columnar table
+		 * @param columnName (CAL type: <code>Cal.Core.Prelude.String</code>)
+		 *          the name of a string column
+		 * @return (CAL type: <code>[Cal.Core.Prelude.Maybe Cal.Core.Prelude.String]</code>) 
+		 *          the column values, with <code>Cal.Core.Prelude.Nothing</code> for null values
+		 */
+		public static final SourceModel.Expr columnarTableStringColumn(SourceModel.Expr table, SourceModel.Expr columnName) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.columnarTableStringColumn), table, columnName});
+		}
+
+		/**
+		 * @see #columnarTableStringColumn(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 * @param table
+		 * @param columnName
+		 * @return the SourceModel.Expr representing an application of columnarTableStringColumn
+		 */
+		public static final SourceModel.Expr columnarTableStringColumn(SourceModel.Expr table, java.lang.String columnName) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.columnarTableStringColumn), table, SourceModel.Expr.makeStringValue(columnName)});
+		}
+
+		/**
+		 * Name binding for function: columnarTableStringColumn.
+		 * @see #columnarTableStringColumn(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName columnarTableStringColumn = 
+			QualifiedName.make(CAL_Sql.MODULE_NAME, "columnarTableStringColumn");
+
+		/**
+		 * Returns the values of a time column of a <code>Cal.Data.Sql.ColumnarTable</code>.
+		 * The column names are matched case-insensitively if there is no exact match.
+		 * @param table (CAL type: <code>Cal.Data.Sql.ColumnarTable</code>)
+		 *          a columnar table
+		 * @param columnName (CAL type: <code>Cal.Core.Prelude.String</code>)
+		 *          the name of a time column
+		 * @return (CAL type: <code>[Cal.Core.Prelude.Maybe Cal.Utilities.Time.Time]</code>) 
+		 *          the column values, with <code>Cal.Core.Prelude.Nothing</code> for null values
+		 */
+		public static final SourceModel.Expr columnarTableTimeColumn(SourceModel.Expr table, SourceModel.Expr columnName) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.columnarTableTimeColumn), table, columnName});
+		}
+
+		/**
+		 * @see #columnarTableTimeColumn(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 * @param table
+		 * @param columnName
+		 * @return the SourceModel.Expr representing an application of columnarTableTimeColumn
+		 */
+		public static final SourceModel.Expr columnarTableTimeColumn(SourceModel.Expr table, java.lang.String columnName) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.columnarTableTimeColumn), table, SourceModel.Expr.makeStringValue(columnName)});
+		}
+
+		/**
+		 * Name binding for function: columnarTableTimeColumn.
+		 * @see #columnarTableTimeColumn(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName columnarTableTimeColumn = 
+			QualifiedName.make(CAL_Sql.MODULE_NAME, "columnarTableTimeColumn");
+
 		/**
 		 * Constructs a database expression to concatenate two string operand expressions.
 		 * @param expr1 (CAL type: <code>Cal.Data.Sql.TypedExpr Cal.Core.Prelude.String</code>)
@@ -4135,6 +4511,30 @@ public final class CAL_Sql {
 		public static final QualifiedName eqExpr = 
 			QualifiedName.make(CAL_Sql.MODULE_NAME, "eqExpr");
 
+		/**
+		 * Evaluates a query against the tables of an <code>Cal.Data.Sql.InMemoryDatabase</code>.
+		 * The result columns are named by the column aliases of the query, or by the field names for unaliased fields,
+		 * or else by the default aliases (COL_VALUE1, COL_VALUE2, ...).
+		 * @param database (CAL type: <code>Cal.Data.Sql.InMemoryDatabase</code>)
+		 *          the in-memory database
+		 * @param query (CAL type: <code>Cal.Data.Sql.Query</code>)
+		 *          the query to be evaluated
+		 * @return (CAL type: <code>Cal.Data.Sql.ColumnarTable</code>) 
+		 *          the query results
+		 */
+		public static final SourceModel.Expr evaluateQueryInMemory(SourceModel.Expr database, SourceModel.Expr query) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.evaluateQueryInMemory), database, query});
+		}
+
+		/**
+		 * Name binding for function: evaluateQueryInMemory.
+		 * @see #evaluateQueryInMemory(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName evaluateQueryInMemory = 
+			QualifiedName.make(CAL_Sql.MODULE_NAME, "evaluateQueryInMemory");
+
 		/**
 		 * Constructs a database expression to test whether the argument subquery expression returns any rows.
 		 * @param subqueryExpr (CAL type: <code>Cal.Data.Sql.TypedExpr [a]</code>)
@@ -4744,6 +5144,26 @@ public final class CAL_Sql {
 		public static final QualifiedName getQueryTableName = 
 			QualifiedName.make(CAL_Sql.MODULE_NAME, "getQueryTableName");
 
+		/**
+		 * Returns the names of the database tables read by the query, including the tables read by its subqueries.
+		 * These can be used to invalidate cached results of the query when the tables are updated.
+		 * <code>Cal.Core.Prelude.Nothing</code> is returned if the query uses an opaque subquery, since the tables read by the subquery are not known.
+		 * @param query (CAL type: <code>Cal.Data.Sql.Query</code>)
+		 * @return (CAL type: <code>Cal.Core.Prelude.Maybe [Cal.Core.Prelude.String]</code>) 
+		 */
+		public static final SourceModel.Expr getQueryTableNames(SourceModel.Expr query) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.getQueryTableNames), query});
+		}
+
+		/**
+		 * Name binding for function: getQueryTableNames.
+		 * @see #getQueryTableNames(org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName getQueryTableNames = 
+			QualifiedName.make(CAL_Sql.MODULE_NAME, "getQueryTableNames");
+
 		/**
 		 * Returns a list of the tables used in the query.
 		 * This will only include fields used in subqueries if the option is specified.
@@ -5856,6 +6276,27 @@ public final class CAL_Sql {
 		public static final QualifiedName ltrimExpr = 
 			QualifiedName.make(CAL_Sql.MODULE_NAME, "ltrimExpr");
 
+		/**
+		 * Constructs a <code>Cal.Data.Sql.ColumnarTable</code> from the values of its columns.
+		 * All the columns must have the same number of values.
+		 * @param columns (CAL type: <code>[Cal.Data.Sql.ColumnarColumn]</code>)
+		 *          the columns of the table
+		 * @return (CAL type: <code>Cal.Data.Sql.ColumnarTable</code>) 
+		 *          a table with the specified columns
+		 */
+		public static final SourceModel.Expr makeColumnarTable(SourceModel.Expr columns) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.makeColumnarTable), columns});
+		}
+
+		/**
+		 * Name binding for function: makeColumnarTable.
+		 * @see #makeColumnarTable(org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName makeColumnarTable = 
+			QualifiedName.make(CAL_Sql.MODULE_NAME, "makeColumnarTable");
+
 		/**
 		 * Helper binding method for function: makeCommitStatement. 
 		 * @return the SourceModule.expr representing an application of makeCommitStatement
@@ -6100,6 +6541,29 @@ public final class CAL_Sql {
 		public static final QualifiedName makeDropViewStatement = 
 			QualifiedName.make(CAL_Sql.MODULE_NAME, "makeDropViewStatement");
 
+		/**
+		 * Constructs an <code>Cal.Data.Sql.InMemoryDatabase</code> holding the specified tables.
+		 * The base tables of a query are looked up by their table names (case-insensitively if there is no exact match).
+		 * @param timeZone (CAL type: <code>Cal.Utilities.TimeZone.TimeZone</code>)
+		 *          the time zone in which the date parts of time values (such as the year or month) are determined
+		 * @param tables (CAL type: <code>[(Cal.Core.Prelude.String, Cal.Data.Sql.ColumnarTable)]</code>)
+		 *          the names of the tables and the table values
+		 * @return (CAL type: <code>Cal.Data.Sql.InMemoryDatabase</code>) 
+		 *          a database holding the tables
+		 */
+		public static final SourceModel.Expr makeInMemoryDatabase(SourceModel.Expr timeZone, SourceModel.Expr tables) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.makeInMemoryDatabase), timeZone, tables});
+		}
+
+		/**
+		 * Name binding for function: makeInMemoryDatabase.
+		 * @see #makeInMemoryDatabase(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName makeInMemoryDatabase = 
+			QualifiedName.make(CAL_Sql.MODULE_NAME, "makeInMemoryDatabase");
+
 		/**
 		 * Helper binding method for function: makeInsertQueryValuesByColumnStatement. 
 		 * @param tableRef
@@ -8797,6 +9261,6 @@ public final class CAL_Sql {
 	 * A hash of the concatenated JavaDoc for this class (including inner classes).
 	 * This value is used when checking for changes to generated binding classes.
 	 */
-	public static final int javaDocHash = 1231102455;
+	public static final int javaDocHash = 2009929327;
 
 }
@@ -12,7 +12,7 @@
  * The constants and methods provided are intended to facilitate accessing the
  * Cal.Experimental.Concurrent.Parallel module from Java code.
  *  
- * Creation date: Tue Oct 23 09:52:35 PDT 2007
+ * Creation date: Sun Oct 18 01:18:00 UTC 2026
  * --!>
  *  
  */
@@ -25,7 +25,7 @@ import org.openquark.cal.compiler.SourceModel;
 
 /**
  * Various functions for parallel evaluation in CAL. CAL must be started with
- * the system propery org.openquark.cal.runtime.lecc.concurrent_runtime for the
+ * the system propery org.openquark.cal.machine.lecc.concurrent_runtime for the
  * functions in this module to truly behave in a parallel fashion. Otherwise
  * they result in a sequential approximations of the parallel functionality.
  * @author Bo Ilic
@@ -86,14 +86,21 @@ public final class CAL_Parallel {
 
 		/**
 		 * If CAL is started with the system property
-		 * org.openquark.cal.runtime.lecc.concurrent_runtime then this function provides
-		 * a way of spawning a new thread to perform a computation in parallel. It is
-		 * often used in conjunction with <code>Prelude.seq</code> to precisely specify how
-		 * a problem is sequenced and parallelized. In particular, if <code>par x y</code>
-		 * is evaluated to weak-head normal form, then a thread is spawned to evaluate
-		 * <code>x</code> to WHNF, and in parallel, <code>y</code> is also evaluated to WHNF
-		 * with the function then returning <code>y</code>. Note this function may return
-		 * before <code>x</code> has actually finished evaluating to WHNF.
+		 * org.openquark.cal.machine.lecc.concurrent_runtime then this function provides
+		 * a way of performing a computation in parallel. It is often used in
+		 * conjunction with <code>Prelude.seq</code> to precisely specify how a problem is
+		 * sequenced and parallelized. In particular, if <code>par x y</code> is evaluated
+		 * to weak-head normal form, then a spark is created to evaluate <code>x</code> to
+		 * WHNF, and in parallel, <code>y</code> is also evaluated to WHNF with the function
+		 * then returning <code>y</code>. Note this function may return before <code>x</code>
+		 * has actually finished evaluating to WHNF.
+		 * <p>
+		 * Sparks are evaluated by the spark pool of the current execution context,
+		 * which uses at most one worker thread per processor. If all the workers are
+		 * busy, <code>x</code> is evaluated on the calling thread before <code>y</code>. If
+		 * <code>x</code> is already evaluated, or is being evaluated by another thread, the
+		 * spark is simply dropped. Use <code>Cal.Experimental.Concurrent.Parallel.parallelExecute</code> to evaluate <code>x</code>
+		 * using a specific executor instead.
 		 * <p>
 		 * If CAL is not started with the above system property then this function just
 		 * returns <code>y</code> without touching <code>x</code>.
@@ -101,7 +108,7 @@ public final class CAL_Parallel {
 		 * @param x (CAL type: <code>a</code>)
 		 * @param y (CAL type: <code>b</code>)
 		 * @return (CAL type: <code>b</code>) 
-		 *          <code>y</code>, but a thread is spawned to evaluate <code>x</code> to WHNF in
+		 *          <code>y</code>, but a spark is created to evaluate <code>x</code> to WHNF in
 		 * parallel.
 		 */
 		public static final SourceModel.Expr par(SourceModel.Expr x, SourceModel.Expr y) {
@@ -119,7 +126,7 @@ public final class CAL_Parallel {
 
 		/**
 		 * If CAL is started with the system property
-		 * org.openquark.cal.runtime.lecc.concurrent_runtime then this function provides
+		 * org.openquark.cal.machine.lecc.concurrent_runtime then this function provides
 		 * a way of performing a computation in parallel using the specified executor. 
 		 * It is often used in conjunction with <code>Prelude.seq</code> to precisely specify how
 		 * a problem is sequenced and parallelized. In particular, if <code>par x y</code>
@@ -156,11 +163,12 @@ public final class CAL_Parallel {
 
 		/**
 		 * If CAL is started with the system property
-		 * org.openquark.cal.runtime.lecc.concurrent_runtime then this function provides
+		 * org.openquark.cal.machine.lecc.concurrent_runtime then this function provides
 		 * a parallel version of <code>Cal.Collections.List.map</code>. This function will not terminate for
-		 * infinite lists, unlike <code>Cal.Collections.List.map</code>. A separate evaluation thread is
-		 * created for each element of <code>list</code> to begin evaluating the application
-		 * of <code>mapFunction</code> to each element to weak-head normal form (WHNF).
+		 * infinite lists, unlike <code>Cal.Collections.List.map</code>. A spark is created (see <code>Cal.Experimental.Concurrent.Parallel.par</code>)
+		 * for each element of <code>list</code> to begin evaluating the application of
+		 * <code>mapFunction</code> to each element to weak-head normal form (WHNF). The
+		 * number of threads used does not depend on the length of <code>list</code>.
 		 * <p>
 		 * If CAL is not started with the above system property then this function
 		 * behaves similar to <code>Cal.Collections.List.map</code> except that the elements of the list are
@@ -192,7 +200,7 @@ public final class CAL_Parallel {
 
 		/**
 		 * If CAL is started with the system property
-		 * org.openquark.cal.runtime.lecc.concurrent_runtime then this function returns
+		 * org.openquark.cal.machine.lecc.concurrent_runtime then this function returns
 		 * the original pair, except that a thread is started for each component to
 		 * evaluate it to weak-head normal form (WHNF). These 2 threads may not be
 		 * finished doing so before this function returns, but if a component is needed
@@ -260,6 +268,6 @@ public final class CAL_Parallel {
 	 * A hash of the concatenated JavaDoc for this class (including inner classes).
 	 * This value is used when checking for changes to generated binding classes.
 	 */
-	public static final int javaDocHash = -1499113264;
+	public static final int javaDocHash = 1428472671;
 
 }
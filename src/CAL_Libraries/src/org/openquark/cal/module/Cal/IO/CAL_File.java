@@ -12,7 +12,7 @@
  * The constants and methods provided are intended to facilitate accessing the
  * Cal.IO.File module from Java code.
  *  
- * Creation date: Tue Oct 23 09:50:00 PDT 2007
+ * Creation date: Sun Oct 18 11:12:38 UTC 2026
  * --!>
  *  
  */
@@ -150,6 +150,52 @@ public final class CAL_File {
 		public static final QualifiedName appendFileBinary = 
 			QualifiedName.make(CAL_File.MODULE_NAME, "appendFileBinary");
 
+		/**
+		 * Appends the specified binary chunks to the file specified by the file name. The chunks
+		 * are written through a buffer as the list is traversed.
+		 * @param fileName (CAL type: <code>Cal.IO.File.FileName</code>)
+		 *          the path of the file to be appended.
+		 * @param chunks (CAL type: <code>[Cal.Collections.Array.Array Cal.Core.Prelude.Byte]</code>)
+		 *          the chunks to be appended.
+		 * @return (CAL type: <code>Cal.Core.Prelude.Either Cal.IO.File.IOError ()</code>) 
+		 *          either a <code>Cal.Core.Prelude.Left ioError</code> indicating that the operation has failed, or a <code>Cal.Core.Prelude.Right ()</code> indicating success.
+		 */
+		public static final SourceModel.Expr appendFileChunks(SourceModel.Expr fileName, SourceModel.Expr chunks) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.appendFileChunks), fileName, chunks});
+		}
+
+		/**
+		 * Name binding for function: appendFileChunks.
+		 * @see #appendFileChunks(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName appendFileChunks = 
+			QualifiedName.make(CAL_File.MODULE_NAME, "appendFileChunks");
+
+		/**
+		 * Appends the specified lines to the file specified by the file name, each followed by the
+		 * platform line separator. The lines are written through a buffer as the list is traversed.
+		 * @param fileName (CAL type: <code>Cal.IO.File.FileName</code>)
+		 *          the path of the file to be appended.
+		 * @param lines (CAL type: <code>[Cal.Core.Prelude.String]</code>)
+		 *          the lines to be appended.
+		 * @return (CAL type: <code>Cal.Core.Prelude.Either Cal.IO.File.IOError ()</code>) 
+		 *          either a <code>Cal.Core.Prelude.Left ioError</code> indicating that the operation has failed, or a <code>Cal.Core.Prelude.Right ()</code> indicating success.
+		 */
+		public static final SourceModel.Expr appendFileLines(SourceModel.Expr fileName, SourceModel.Expr lines) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.appendFileLines), fileName, lines});
+		}
+
+		/**
+		 * Name binding for function: appendFileLines.
+		 * @see #appendFileLines(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName appendFileLines = 
+			QualifiedName.make(CAL_File.MODULE_NAME, "appendFileLines");
+
 		/**
 		 * Constructs a file path from a list of components. For example, a Windows path
 		 * 'C:\windows\explorer.exe' would have as components the list
@@ -354,6 +400,89 @@ public final class CAL_File {
 		public static final QualifiedName extendPath = 
 			QualifiedName.make(CAL_File.MODULE_NAME, "extendPath");
 
+		/**
+		 * Applies a strict left fold to the chunks of the specified file. Only one chunk is held in
+		 * memory at a time, so the fold runs in constant memory regardless of the size of the file
+		 * (provided the accumulated value does not grow). The file is closed when the end of the input
+		 * is reached.
+		 * 
+		 * <dl><dt><b>See Also:</b>
+		 * <dd><b>Functions and Class Methods:</b> Cal.IO.File.readFileChunks
+		 * </dl>
+		 * 
+		 * @param foldFunction (CAL type: <code>a -> Cal.Collections.Array.Array Cal.Core.Prelude.Byte -> a</code>)
+		 *          the function combining the accumulated value with each chunk.
+		 * @param initialValue (CAL type: <code>a</code>)
+		 *          the initial accumulated value.
+		 * @param fileName (CAL type: <code>Cal.IO.File.FileName</code>)
+		 *          the path of the file to be read.
+		 * @param chunkSize (CAL type: <code>Cal.Core.Prelude.Int</code>)
+		 *          the number of bytes in each chunk. Each chunk except the last one has exactly this size.
+		 * If not positive, a default of 64K is used.
+		 * @return (CAL type: <code>Cal.Core.Prelude.Either Cal.IO.File.IOError a</code>) 
+		 *          either a <code>Cal.Core.Prelude.Left ioError</code> indicating that the operation has failed, or a <code>Cal.Core.Prelude.Right result</code> encapsulating
+		 * the result of the fold.
+		 */
+		public static final SourceModel.Expr foldFileChunks(SourceModel.Expr foldFunction, SourceModel.Expr initialValue, SourceModel.Expr fileName, SourceModel.Expr chunkSize) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.foldFileChunks), foldFunction, initialValue, fileName, chunkSize});
+		}
+
+		/**
+		 * @see #foldFileChunks(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 * @param foldFunction
+		 * @param initialValue
+		 * @param fileName
+		 * @param chunkSize
+		 * @return the SourceModel.Expr representing an application of foldFileChunks
+		 */
+		public static final SourceModel.Expr foldFileChunks(SourceModel.Expr foldFunction, SourceModel.Expr initialValue, SourceModel.Expr fileName, int chunkSize) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.foldFileChunks), foldFunction, initialValue, fileName, SourceModel.Expr.makeIntValue(chunkSize)});
+		}
+
+		/**
+		 * Name binding for function: foldFileChunks.
+		 * @see #foldFileChunks(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName foldFileChunks = 
+			QualifiedName.make(CAL_File.MODULE_NAME, "foldFileChunks");
+
+		/**
+		 * Applies a strict left fold to the lines of the specified text file. The lines are read in
+		 * batches and are not retained, so the fold runs in constant memory regardless of the size
+		 * of the file (provided the accumulated value does not grow). The file is closed when the
+		 * end of the input is reached.
+		 * 
+		 * <dl><dt><b>See Also:</b>
+		 * <dd><b>Functions and Class Methods:</b> Cal.IO.File.readFileLines
+		 * </dl>
+		 * 
+		 * @param foldFunction (CAL type: <code>a -> Cal.Core.Prelude.String -> a</code>)
+		 *          the function combining the accumulated value with each line.
+		 * @param initialValue (CAL type: <code>a</code>)
+		 *          the initial accumulated value.
+		 * @param fileName (CAL type: <code>Cal.IO.File.FileName</code>)
+		 *          the path of the file to be read.
+		 * @return (CAL type: <code>Cal.Core.Prelude.Either Cal.IO.File.IOError a</code>) 
+		 *          either a <code>Cal.Core.Prelude.Left ioError</code> indicating that the operation has failed, or a <code>Cal.Core.Prelude.Right result</code> encapsulating
+		 * the result of the fold.
+		 */
+		public static final SourceModel.Expr foldFileLines(SourceModel.Expr foldFunction, SourceModel.Expr initialValue, SourceModel.Expr fileName) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.foldFileLines), foldFunction, initialValue, fileName});
+		}
+
+		/**
+		 * Name binding for function: foldFileLines.
+		 * @see #foldFileLines(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName foldFileLines = 
+			QualifiedName.make(CAL_File.MODULE_NAME, "foldFileLines");
+
 		/**
 		 * Extracts the return value from an
 		 * <code>(Cal.Core.Prelude.Either Cal.IO.File.IOError a)</code> value. If the supplied
@@ -1151,6 +1280,50 @@ public final class CAL_File {
 		public static final QualifiedName readFileBinary = 
 			QualifiedName.make(CAL_File.MODULE_NAME, "readFileBinary");
 
+		/**
+		 * Reads the specified file as a lazy list of byte arrays. Each array except the last one
+		 * has exactly <code>chunkSize</code> bytes, so the function can also be used to iterate over a
+		 * file of fixed-length binary records. Only the chunks which are still referenced are held
+		 * in memory, so a file much larger than the heap can be processed provided the list is
+		 * consumed incrementally. The file will be closed when the end of the input is reached.
+		 * 
+		 * <dl><dt><b>See Also:</b>
+		 * <dd><b>Functions and Class Methods:</b> Cal.IO.File.foldFileChunks
+		 * </dl>
+		 * 
+		 * @param fileName (CAL type: <code>Cal.IO.File.FileName</code>)
+		 *          the path of the file to be read
+		 * @param chunkSize (CAL type: <code>Cal.Core.Prelude.Int</code>)
+		 *          the number of bytes in each chunk. If not positive, a default of 64K is used.
+		 * @return (CAL type: <code>Cal.Core.Prelude.Either Cal.IO.File.IOError [Cal.Collections.Array.Array Cal.Core.Prelude.Byte]</code>) 
+		 *          either a <code>Cal.Core.Prelude.Left ioError</code> indicating that the operation has failed, or a 
+		 * <code>Cal.Core.Prelude.Right chunks</code> encapsulating the contents of the file
+		 */
+		public static final SourceModel.Expr readFileChunks(SourceModel.Expr fileName, SourceModel.Expr chunkSize) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.readFileChunks), fileName, chunkSize});
+		}
+
+		/**
+		 * @see #readFileChunks(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 * @param fileName
+		 * @param chunkSize
+		 * @return the SourceModel.Expr representing an application of readFileChunks
+		 */
+		public static final SourceModel.Expr readFileChunks(SourceModel.Expr fileName, int chunkSize) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.readFileChunks), fileName, SourceModel.Expr.makeIntValue(chunkSize)});
+		}
+
+		/**
+		 * Name binding for function: readFileChunks.
+		 * @see #readFileChunks(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName readFileChunks = 
+			QualifiedName.make(CAL_File.MODULE_NAME, "readFileChunks");
+
 		/**
 		 * Reads the lines of the specified text file.
 		 * The file will be closes when the end of the input is reached.
@@ -1173,6 +1346,46 @@ public final class CAL_File {
 		public static final QualifiedName readFileLines = 
 			QualifiedName.make(CAL_File.MODULE_NAME, "readFileLines");
 
+		/**
+		 * Reads a region of the specified file, by mapping the region into memory rather than
+		 * reading the file from the start. The region is clipped to the end of the file.
+		 * @param fileName (CAL type: <code>Cal.IO.File.FileName</code>)
+		 *          the path of the file to be read.
+		 * @param offset (CAL type: <code>Cal.Core.Prelude.Long</code>)
+		 *          the position in the file of the first byte to be read. Must not be negative.
+		 * @param length (CAL type: <code>Cal.Core.Prelude.Int</code>)
+		 *          the maximum number of bytes to be read. Must not be negative.
+		 * @return (CAL type: <code>Cal.Core.Prelude.Either Cal.IO.File.IOError (Cal.Collections.Array.Array Cal.Core.Prelude.Byte)</code>) 
+		 *          either a <code>Cal.Core.Prelude.Left ioError</code> indicating that the operation has failed (including
+		 * because <code>offset</code> or <code>length</code> is negative), or a <code>Cal.Core.Prelude.Right region</code> encapsulating
+		 * the bytes read, which is empty if <code>offset</code> is at or beyond the end of the file.
+		 */
+		public static final SourceModel.Expr readFileRegion(SourceModel.Expr fileName, SourceModel.Expr offset, SourceModel.Expr length) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.readFileRegion), fileName, offset, length});
+		}
+
+		/**
+		 * @see #readFileRegion(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 * @param fileName
+		 * @param offset
+		 * @param length
+		 * @return the SourceModel.Expr representing an application of readFileRegion
+		 */
+		public static final SourceModel.Expr readFileRegion(SourceModel.Expr fileName, long offset, int length) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.readFileRegion), fileName, SourceModel.Expr.makeLongValue(offset), SourceModel.Expr.makeIntValue(length)});
+		}
+
+		/**
+		 * Name binding for function: readFileRegion.
+		 * @see #readFileRegion(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName readFileRegion = 
+			QualifiedName.make(CAL_File.MODULE_NAME, "readFileRegion");
+
 		/**
 		 * Renames the specified directory.
 		 * @param sourceDirName (CAL type: <code>Cal.IO.File.FileName</code>)
@@ -1297,11 +1510,61 @@ public final class CAL_File {
 		public static final QualifiedName writeFileBinary = 
 			QualifiedName.make(CAL_File.MODULE_NAME, "writeFileBinary");
 
+		/**
+		 * Writes the specified binary chunks into the file specified by the file name. The chunks
+		 * are written through a buffer as the list is traversed, so a lazily generated list need
+		 * not be held in memory. If the file already exists, it will be overwritten with by the new
+		 * contents.
+		 * @param fileName (CAL type: <code>Cal.IO.File.FileName</code>)
+		 *          the path of the file to be written.
+		 * @param chunks (CAL type: <code>[Cal.Collections.Array.Array Cal.Core.Prelude.Byte]</code>)
+		 *          the chunks to be written.
+		 * @return (CAL type: <code>Cal.Core.Prelude.Either Cal.IO.File.IOError ()</code>) 
+		 *          either a <code>Cal.Core.Prelude.Left ioError</code> indicating that the operation has failed, or a <code>Cal.Core.Prelude.Right ()</code> indicating success.
+		 */
+		public static final SourceModel.Expr writeFileChunks(SourceModel.Expr fileName, SourceModel.Expr chunks) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.writeFileChunks), fileName, chunks});
+		}
+
+		/**
+		 * Name binding for function: writeFileChunks.
+		 * @see #writeFileChunks(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName writeFileChunks = 
+			QualifiedName.make(CAL_File.MODULE_NAME, "writeFileChunks");
+
+		/**
+		 * Writes the specified lines into the file specified by the file name, each followed by the
+		 * platform line separator. The lines are written through a buffer as the list is traversed,
+		 * so a lazily generated list need not be held in memory. If the file already exists, it will
+		 * be overwritten with by the new contents.
+		 * @param fileName (CAL type: <code>Cal.IO.File.FileName</code>)
+		 *          the path of the file to be written.
+		 * @param lines (CAL type: <code>[Cal.Core.Prelude.String]</code>)
+		 *          the lines to be written.
+		 * @return (CAL type: <code>Cal.Core.Prelude.Either Cal.IO.File.IOError ()</code>) 
+		 *          either a <code>Cal.Core.Prelude.Left ioError</code> indicating that the operation has failed, or a <code>Cal.Core.Prelude.Right ()</code> indicating success.
+		 */
+		public static final SourceModel.Expr writeFileLines(SourceModel.Expr fileName, SourceModel.Expr lines) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.writeFileLines), fileName, lines});
+		}
+
+		/**
+		 * Name binding for function: writeFileLines.
+		 * @see #writeFileLines(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName writeFileLines = 
+			QualifiedName.make(CAL_File.MODULE_NAME, "writeFileLines");
+
 	}
 	/**
 	 * A hash of the concatenated JavaDoc for this class (including inner classes).
 	 * This value is used when checking for changes to generated binding classes.
 	 */
-	public static final int javaDocHash = -2063738510;
+	public static final int javaDocHash = -893626619;
 
 }
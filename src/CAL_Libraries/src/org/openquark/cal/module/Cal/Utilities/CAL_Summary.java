@@ -12,7 +12,7 @@
  * The constants and methods provided are intended to facilitate accessing the
  * Cal.Utilities.Summary module from Java code.
  *  
- * Creation date: Fri May 11 17:18:20 PDT 2007
+ * Creation date: Sun Oct 18 05:29:35 UTC 2026
  * --!>
  *  
  */
@@ -42,6 +42,23 @@ public final class CAL_Summary {
 		public static final QualifiedName Quartile = 
 			QualifiedName.make(CAL_Summary.MODULE_NAME, "Quartile");
 
+		/**
+		 * The state of a single-pass computation of summary statistics over a set of values.
+		 * <p>
+		 * A <code>SummaryStatistics</code> value holds the count, sum, mean, minimum and maximum of the
+		 * values, the sum of squared deviations from the mean (updated with Welford's method, which
+		 * is numerically stable), a HyperLogLog sketch for estimating the number of distinct values
+		 * and a t-digest for estimating percentiles. All of these take constant space, so any number
+		 * of statistics can be computed in one strict pass over a large data set, for example with
+		 * <code>Cal.Utilities.Summary.summaryStatistics</code> or <code>Cal.Utilities.Summary.summaryStatisticsAccumulator</code>.
+		 * <p>
+		 * Two <code>SummaryStatistics</code> values can be combined with <code>Cal.Utilities.Summary.mergeSummaryStatistics</code>,
+		 * so the data set can be split into chunks which are summarized independently (and in parallel)
+		 * before their statistics are merged.
+		 */
+		public static final QualifiedName SummaryStatistics = 
+			QualifiedName.make(CAL_Summary.MODULE_NAME, "SummaryStatistics");
+
 	}
 	/**
 	 * This inner class (DataConstructors) contains constants
@@ -179,6 +196,47 @@ public final class CAL_Summary {
 	 * and methods related to binding to CAL functions in the Cal.Utilities.Summary module.
 	 */
 	public static final class Functions {
+		/**
+		 * Adds a value to summary statistics. This takes constant time and space.
+		 * <p>
+		 * NaN values are counted and propagate to the sum, mean and variance (as they do for
+		 * <code>Cal.Utilities.Summary.average</code> and <code>Cal.Utilities.Summary.populationVariance</code>), but are ignored by the minimum,
+		 * maximum and percentile estimates.
+		 * 
+		 * @param statistics (CAL type: <code>Cal.Utilities.Summary.SummaryStatistics</code>)
+		 *          the statistics of a set of values.
+		 * @param value (CAL type: <code>Cal.Core.Prelude.Double</code>)
+		 *          the value to add.
+		 * @return (CAL type: <code>Cal.Utilities.Summary.SummaryStatistics</code>) 
+		 *          the statistics of the set of values with the value added.
+		 */
+		public static final SourceModel.Expr addToSummaryStatistics(SourceModel.Expr statistics, SourceModel.Expr value) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.addToSummaryStatistics), statistics, value});
+		}
+
+		/**
+		 * @see #addToSummaryStatistics(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 * @param statistics
+		 * @param value
+		 * @return the SourceModel.Expr representing an application of addToSummaryStatistics
+		 */
+		public static final SourceModel.Expr addToSummaryStatistics(SourceModel.Expr statistics, double value) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.addToSummaryStatistics), statistics, SourceModel.Expr.makeDoubleValue(value)});
+		}
+
+		/**
+		 * Name binding for function: addToSummaryStatistics.
+		 * @see #addToSummaryStatistics(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName addToSummaryStatistics = 
+			QualifiedName.make(
+				CAL_Summary.MODULE_NAME, 
+				"addToSummaryStatistics");
+
 		/**
 		 * Computes the average value of a list by first converting all elements of the list to <code>Cal.Core.Prelude.Double</code>
 		 * values and then averaging them. It return <code>Cal.Core.Prelude.notANumber</code> for an empty list.
@@ -322,6 +380,23 @@ public final class CAL_Summary {
 		public static final QualifiedName distinctCount = 
 			QualifiedName.make(CAL_Summary.MODULE_NAME, "distinctCount");
 
+		/**
+		 * The summary statistics of an empty set of values.
+		 * @return (CAL type: <code>Cal.Utilities.Summary.SummaryStatistics</code>) 
+		 */
+		public static final SourceModel.Expr emptySummaryStatistics() {
+			return SourceModel.Expr.Var.make(Functions.emptySummaryStatistics);
+		}
+
+		/**
+		 * Name binding for function: emptySummaryStatistics.
+		 * @see #emptySummaryStatistics()
+		 */
+		public static final QualifiedName emptySummaryStatistics = 
+			QualifiedName.make(
+				CAL_Summary.MODULE_NAME, 
+				"emptySummaryStatistics");
+
 		/**
 		 * A custom version of <code>Cal.Collections.List.maximum</code> that ignores NaN values.  The NaN values in the list will not contribute
 		 * to either the summation or the maximum and will have no effect on the result.  If the list is empty, or
@@ -364,6 +439,36 @@ public final class CAL_Summary {
 		public static final QualifiedName median = 
 			QualifiedName.make(CAL_Summary.MODULE_NAME, "median");
 
+		/**
+		 * Combines the statistics of two sets of values into the statistics of their union.
+		 * This allows the statistics of chunks of a data set to be computed independently.
+		 * <p>
+		 * The count, sum, minimum and maximum of the result are exactly those of the union. The mean and
+		 * variance are combined with the parallel form of Welford's method. The distinct count and percentile
+		 * estimates are those of the merged sketches.
+		 * 
+		 * @param statistics1 (CAL type: <code>Cal.Utilities.Summary.SummaryStatistics</code>)
+		 *          the statistics of the first set of values.
+		 * @param statistics2 (CAL type: <code>Cal.Utilities.Summary.SummaryStatistics</code>)
+		 *          the statistics of the second set of values.
+		 * @return (CAL type: <code>Cal.Utilities.Summary.SummaryStatistics</code>) 
+		 *          the statistics of the union of the two sets of values.
+		 */
+		public static final SourceModel.Expr mergeSummaryStatistics(SourceModel.Expr statistics1, SourceModel.Expr statistics2) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.mergeSummaryStatistics), statistics1, statistics2});
+		}
+
+		/**
+		 * Name binding for function: mergeSummaryStatistics.
+		 * @see #mergeSummaryStatistics(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName mergeSummaryStatistics = 
+			QualifiedName.make(
+				CAL_Summary.MODULE_NAME, 
+				"mergeSummaryStatistics");
+
 		/**
 		 * A custom version of <code>Cal.Collections.List.minimum</code> that ignores NaN values.  The NaN values in the list will not contribute
 		 * to either the summation or the minimum and will have no effect on the result.  If the list is empty, or
@@ -668,6 +773,278 @@ public final class CAL_Summary {
 				CAL_Summary.MODULE_NAME, 
 				"selectNthRankedElement");
 
+		/**
+		 * Estimates the number of distinct values. The estimate has a standard error of about 3%, and
+		 * is exact for most sets of up to a few dozen distinct values. See <code>Cal.Utilities.Summary.distinctCount</code>.
+		 * @param statistics (CAL type: <code>Cal.Utilities.Summary.SummaryStatistics</code>)
+		 *          the statistics of a set of values.
+		 * @return (CAL type: <code>Cal.Core.Prelude.Int</code>) 
+		 *          the estimated number of distinct values.
+		 */
+		public static final SourceModel.Expr statisticsApproximateDistinctCount(SourceModel.Expr statistics) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.statisticsApproximateDistinctCount), statistics});
+		}
+
+		/**
+		 * Name binding for function: statisticsApproximateDistinctCount.
+		 * @see #statisticsApproximateDistinctCount(org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName statisticsApproximateDistinctCount = 
+			QualifiedName.make(
+				CAL_Summary.MODULE_NAME, 
+				"statisticsApproximateDistinctCount");
+
+		/**
+		 * Estimates the median of the values. See <code>Cal.Utilities.Summary.statisticsApproximatePercentile</code> and <code>Cal.Utilities.Summary.median</code>.
+		 * @param statistics (CAL type: <code>Cal.Utilities.Summary.SummaryStatistics</code>)
+		 *          the statistics of a set of values.
+		 * @return (CAL type: <code>Cal.Core.Prelude.Double</code>) 
+		 *          the estimated median, or <code>Cal.Core.Prelude.notANumber</code> if there are no values other than NaN.
+		 */
+		public static final SourceModel.Expr statisticsApproximateMedian(SourceModel.Expr statistics) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.statisticsApproximateMedian), statistics});
+		}
+
+		/**
+		 * Name binding for function: statisticsApproximateMedian.
+		 * @see #statisticsApproximateMedian(org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName statisticsApproximateMedian = 
+			QualifiedName.make(
+				CAL_Summary.MODULE_NAME, 
+				"statisticsApproximateMedian");
+
+		/**
+		 * Estimates a percentile of the values, interpolating in the same way as <code>Cal.Utilities.Summary.percentile</code>.
+		 * The estimate is exact for small sets of values, and is most accurate near the extremes of
+		 * the distribution.
+		 * @param statistics (CAL type: <code>Cal.Utilities.Summary.SummaryStatistics</code>)
+		 *          the statistics of a set of values.
+		 * @param rank (CAL type: <code>Cal.Core.Prelude.Double</code>)
+		 *          the rank of the percentile, between 0 and 1 inclusive.
+		 * @return (CAL type: <code>Cal.Core.Prelude.Double</code>) 
+		 *          the estimated percentile, or <code>Cal.Core.Prelude.notANumber</code> if there are no values other than NaN
+		 * or the rank is out of range.
+		 */
+		public static final SourceModel.Expr statisticsApproximatePercentile(SourceModel.Expr statistics, SourceModel.Expr rank) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.statisticsApproximatePercentile), statistics, rank});
+		}
+
+		/**
+		 * @see #statisticsApproximatePercentile(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 * @param statistics
+		 * @param rank
+		 * @return the SourceModel.Expr representing an application of statisticsApproximatePercentile
+		 */
+		public static final SourceModel.Expr statisticsApproximatePercentile(SourceModel.Expr statistics, double rank) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.statisticsApproximatePercentile), statistics, SourceModel.Expr.makeDoubleValue(rank)});
+		}
+
+		/**
+		 * Name binding for function: statisticsApproximatePercentile.
+		 * @see #statisticsApproximatePercentile(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName statisticsApproximatePercentile = 
+			QualifiedName.make(
+				CAL_Summary.MODULE_NAME, 
+				"statisticsApproximatePercentile");
+
+		/**
+		 * 
+		 * @param statistics (CAL type: <code>Cal.Utilities.Summary.SummaryStatistics</code>)
+		 *          the statistics of a set of values.
+		 * @return (CAL type: <code>Cal.Core.Prelude.Double</code>) 
+		 *          the average of the values, or <code>Cal.Core.Prelude.notANumber</code> if there are none. See <code>Cal.Utilities.Summary.average</code>.
+		 */
+		public static final SourceModel.Expr statisticsAverage(SourceModel.Expr statistics) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.statisticsAverage), statistics});
+		}
+
+		/**
+		 * Name binding for function: statisticsAverage.
+		 * @see #statisticsAverage(org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName statisticsAverage = 
+			QualifiedName.make(CAL_Summary.MODULE_NAME, "statisticsAverage");
+
+		/**
+		 * 
+		 * @param statistics (CAL type: <code>Cal.Utilities.Summary.SummaryStatistics</code>)
+		 *          the statistics of a set of values.
+		 * @return (CAL type: <code>Cal.Core.Prelude.Int</code>) 
+		 *          the number of values.
+		 */
+		public static final SourceModel.Expr statisticsCount(SourceModel.Expr statistics) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.statisticsCount), statistics});
+		}
+
+		/**
+		 * Name binding for function: statisticsCount.
+		 * @see #statisticsCount(org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName statisticsCount = 
+			QualifiedName.make(CAL_Summary.MODULE_NAME, "statisticsCount");
+
+		/**
+		 * 
+		 * @param statistics (CAL type: <code>Cal.Utilities.Summary.SummaryStatistics</code>)
+		 *          the statistics of a set of values.
+		 * @return (CAL type: <code>Cal.Core.Prelude.Double</code>) 
+		 *          the largest value other than NaN, or <code>Cal.Core.Prelude.notANumber</code> if there are none.
+		 */
+		public static final SourceModel.Expr statisticsMaximum(SourceModel.Expr statistics) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.statisticsMaximum), statistics});
+		}
+
+		/**
+		 * Name binding for function: statisticsMaximum.
+		 * @see #statisticsMaximum(org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName statisticsMaximum = 
+			QualifiedName.make(CAL_Summary.MODULE_NAME, "statisticsMaximum");
+
+		/**
+		 * 
+		 * @param statistics (CAL type: <code>Cal.Utilities.Summary.SummaryStatistics</code>)
+		 *          the statistics of a set of values.
+		 * @return (CAL type: <code>Cal.Core.Prelude.Double</code>) 
+		 *          the smallest value other than NaN, or <code>Cal.Core.Prelude.notANumber</code> if there are none.
+		 */
+		public static final SourceModel.Expr statisticsMinimum(SourceModel.Expr statistics) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.statisticsMinimum), statistics});
+		}
+
+		/**
+		 * Name binding for function: statisticsMinimum.
+		 * @see #statisticsMinimum(org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName statisticsMinimum = 
+			QualifiedName.make(CAL_Summary.MODULE_NAME, "statisticsMinimum");
+
+		/**
+		 * 
+		 * @param statistics (CAL type: <code>Cal.Utilities.Summary.SummaryStatistics</code>)
+		 *          the statistics of a set of values.
+		 * @return (CAL type: <code>Cal.Core.Prelude.Double</code>) 
+		 *          the population standard deviation of the values. See <code>Cal.Utilities.Summary.populationStandardDeviation</code>.
+		 */
+		public static final SourceModel.Expr statisticsPopulationStandardDeviation(SourceModel.Expr statistics) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.statisticsPopulationStandardDeviation), statistics});
+		}
+
+		/**
+		 * Name binding for function: statisticsPopulationStandardDeviation.
+		 * @see #statisticsPopulationStandardDeviation(org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName statisticsPopulationStandardDeviation = 
+			QualifiedName.make(
+				CAL_Summary.MODULE_NAME, 
+				"statisticsPopulationStandardDeviation");
+
+		/**
+		 * 
+		 * @param statistics (CAL type: <code>Cal.Utilities.Summary.SummaryStatistics</code>)
+		 *          the statistics of a set of values.
+		 * @return (CAL type: <code>Cal.Core.Prelude.Double</code>) 
+		 *          the population variance of the values, or 0 if there are none. See <code>Cal.Utilities.Summary.populationVariance</code>.
+		 */
+		public static final SourceModel.Expr statisticsPopulationVariance(SourceModel.Expr statistics) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.statisticsPopulationVariance), statistics});
+		}
+
+		/**
+		 * Name binding for function: statisticsPopulationVariance.
+		 * @see #statisticsPopulationVariance(org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName statisticsPopulationVariance = 
+			QualifiedName.make(
+				CAL_Summary.MODULE_NAME, 
+				"statisticsPopulationVariance");
+
+		/**
+		 * 
+		 * @param statistics (CAL type: <code>Cal.Utilities.Summary.SummaryStatistics</code>)
+		 *          the statistics of a set of values.
+		 * @return (CAL type: <code>Cal.Core.Prelude.Double</code>) 
+		 *          the sample standard deviation of the values. See <code>Cal.Utilities.Summary.sampleStandardDeviation</code>.
+		 */
+		public static final SourceModel.Expr statisticsSampleStandardDeviation(SourceModel.Expr statistics) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.statisticsSampleStandardDeviation), statistics});
+		}
+
+		/**
+		 * Name binding for function: statisticsSampleStandardDeviation.
+		 * @see #statisticsSampleStandardDeviation(org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName statisticsSampleStandardDeviation = 
+			QualifiedName.make(
+				CAL_Summary.MODULE_NAME, 
+				"statisticsSampleStandardDeviation");
+
+		/**
+		 * 
+		 * @param statistics (CAL type: <code>Cal.Utilities.Summary.SummaryStatistics</code>)
+		 *          the statistics of a set of values.
+		 * @return (CAL type: <code>Cal.Core.Prelude.Double</code>) 
+		 *          the sample variance of the values, or 0 if there are fewer than two. See <code>Cal.Utilities.Summary.sampleVariance</code>.
+		 */
+		public static final SourceModel.Expr statisticsSampleVariance(SourceModel.Expr statistics) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.statisticsSampleVariance), statistics});
+		}
+
+		/**
+		 * Name binding for function: statisticsSampleVariance.
+		 * @see #statisticsSampleVariance(org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName statisticsSampleVariance = 
+			QualifiedName.make(
+				CAL_Summary.MODULE_NAME, 
+				"statisticsSampleVariance");
+
+		/**
+		 * 
+		 * @param statistics (CAL type: <code>Cal.Utilities.Summary.SummaryStatistics</code>)
+		 *          the statistics of a set of values.
+		 * @return (CAL type: <code>Cal.Core.Prelude.Double</code>) 
+		 *          the sum of the values, or 0 if there are none.
+		 */
+		public static final SourceModel.Expr statisticsSum(SourceModel.Expr statistics) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.statisticsSum), statistics});
+		}
+
+		/**
+		 * Name binding for function: statisticsSum.
+		 * @see #statisticsSum(org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName statisticsSum = 
+			QualifiedName.make(CAL_Summary.MODULE_NAME, "statisticsSum");
+
 		/**
 		 * A custom version of <code>Cal.Collections.List.sum</code> that ignores NaN values.  The NaN values in the list will not contribute
 		 * to the summation and will have no effect on the result.  If the list is empty, or contains only NaN
@@ -691,6 +1068,75 @@ public final class CAL_Summary {
 		public static final QualifiedName sumIgnoreNaN = 
 			QualifiedName.make(CAL_Summary.MODULE_NAME, "sumIgnoreNaN");
 
+		/**
+		 * Computes the summary statistics of a list of numbers, by first converting all of the elements
+		 * to <code>Cal.Core.Prelude.Double</code>s. All the statistics are computed in a single strict pass over the list, in
+		 * constant space.
+		 * <p>
+		 * Runtime performance is O(n).  Only one pass over the data is required.
+		 * 
+		 * @param values (CAL type: <code>Cal.Core.Prelude.Num a => [a]</code>)
+		 * @return (CAL type: <code>Cal.Utilities.Summary.SummaryStatistics</code>) 
+		 */
+		public static final SourceModel.Expr summaryStatistics(SourceModel.Expr values) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.summaryStatistics), values});
+		}
+
+		/**
+		 * Name binding for function: summaryStatistics.
+		 * @see #summaryStatistics(org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName summaryStatistics = 
+			QualifiedName.make(CAL_Summary.MODULE_NAME, "summaryStatistics");
+
+		/**
+		 * An accumulator description record, as used by the functions of the <code>Cal.Utilities.Accumulate</code> module,
+		 * which computes the summary statistics of a set of values. For example, 
+		 * <code>Accumulate.accumulate2Strict (summaryStatisticsAccumulator, summaryStatisticsAccumulator) values</code>
+		 * computes the summary statistics of two columns of a list of pairs in a single pass, given converters which
+		 * select the columns.
+		 * @return (CAL type: <code>Cal.Core.Prelude.Num a => {accumulator :: Cal.Utilities.Summary.SummaryStatistics -> Cal.Core.Prelude.Double -> Cal.Utilities.Summary.SummaryStatistics, converter :: a -> Cal.Core.Prelude.Double, finalizer :: Cal.Utilities.Summary.SummaryStatistics -> Cal.Utilities.Summary.SummaryStatistics, runningValue :: Cal.Utilities.Summary.SummaryStatistics}</code>) 
+		 */
+		public static final SourceModel.Expr summaryStatisticsAccumulator() {
+			return 
+				SourceModel.Expr.Var.make(
+					Functions.summaryStatisticsAccumulator);
+		}
+
+		/**
+		 * Name binding for function: summaryStatisticsAccumulator.
+		 * @see #summaryStatisticsAccumulator()
+		 */
+		public static final QualifiedName summaryStatisticsAccumulator = 
+			QualifiedName.make(
+				CAL_Summary.MODULE_NAME, 
+				"summaryStatisticsAccumulator");
+
+		/**
+		 * Computes the summary statistics of a list of chunks of numbers. The statistics of each chunk
+		 * are computed independently and then merged, so the chunks can be summarized in parallel, e.g. by 
+		 * evaluating the elements of <code>map summaryStatistics chunks</code> with <code>Parallel.parallelMap</code>
+		 * and merging the results with <code>Cal.Utilities.Summary.mergeSummaryStatistics</code>.
+		 * @param chunks (CAL type: <code>Cal.Core.Prelude.Num a => [[a]]</code>)
+		 * @return (CAL type: <code>Cal.Utilities.Summary.SummaryStatistics</code>) 
+		 */
+		public static final SourceModel.Expr summaryStatisticsOfChunks(SourceModel.Expr chunks) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.summaryStatisticsOfChunks), chunks});
+		}
+
+		/**
+		 * Name binding for function: summaryStatisticsOfChunks.
+		 * @see #summaryStatisticsOfChunks(org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName summaryStatisticsOfChunks = 
+			QualifiedName.make(
+				CAL_Summary.MODULE_NAME, 
+				"summaryStatisticsOfChunks");
+
 		/**
 		 * Helper binding method for function: testSummaryModule. 
 		 * @return the SourceModule.expr representing an application of testSummaryModule
@@ -766,6 +1212,6 @@ public final class CAL_Summary {
 	 * A hash of the concatenated JavaDoc for this class (including inner classes).
 	 * This value is used when checking for changes to generated binding classes.
 	 */
-	public static final int javaDocHash = -1498800844;
+	public static final int javaDocHash = -1092686191;
 
 }
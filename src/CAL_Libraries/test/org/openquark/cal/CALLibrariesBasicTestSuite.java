@@ -42,6 +42,11 @@ import junit.extensions.TestSetup;
 import junit.framework.Test;
 import junit.framework.TestSuite;
 
+import org.openquark.cal.foreignsupport.module.DataGems.BatchedPreparedStatement_Test;
+import org.openquark.cal.foreignsupport.module.DataGems.JDBCConnection_Test;
+import org.openquark.cal.foreignsupport.module.DataGems.QueryResultCache_Test;
+import org.openquark.cal.foreignsupport.module.DataGems.ResultBatchReader_Test;
+import org.openquark.cal.foreignsupport.module.DataGems.ResultBatch_Test;
 import org.openquark.cal.services.CALServicesTestUtilities;
 
 /**
@@ -141,6 +146,11 @@ public class CALLibrariesBasicTestSuite extends TestSuite {
         TestSuite suite = new TestSuite();
         
         suite.addTestSuite(CALLibrariesWorkspaceValidity_Test.class);
+        suite.addTestSuite(ResultBatch_Test.class);
+        suite.addTestSuite(ResultBatchReader_Test.class);
+        suite.addTestSuite(JDBCConnection_Test.class);
+        suite.addTestSuite(BatchedPreparedStatement_Test.class);
+        suite.addTestSuite(QueryResultCache_Test.class);
         
         // Return the completed suite
         return new TestSetup(suite) {
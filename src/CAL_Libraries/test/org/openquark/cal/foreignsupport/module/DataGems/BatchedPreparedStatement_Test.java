@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2007 BUSINESS OBJECTS SOFTWARE LIMITED
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *  
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *  
+ *     * Neither the name of Business Objects nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+/*
+ * BatchedPreparedStatement_Test.java
+ * Creation date: Oct 18, 2026
+ */
+package org.openquark.cal.foreignsupport.module.DataGems;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.openquark.cal.foreignsupport.module.DataGems.JDBCTestUtilities.TestConnection;
+import org.openquark.cal.foreignsupport.module.DataGems.JDBCTestUtilities.TestPreparedStatement;
+
+
+/**
+ * A set of JUnit test cases for {@link BatchedPreparedStatement}, writing through a proxy JDBC connection.
+ */
+public class BatchedPreparedStatement_Test extends TestCase {
+
+    private static final String INSERT_SQL = "INSERT INTO t (a, b) VALUES (?, ?)";
+    
+    /**
+     * Constructor for BatchedPreparedStatement_Test.
+     * @param name the name of the test
+     */
+    public BatchedPreparedStatement_Test(String name) {
+        super(name);
+    }
+    
+    /**
+     * Writes the given number of rows through a batched statement, and checks the order
+     * in which they were executed and the update counts returned.
+     */
+    private static void helpTestWrite(int batchSize, boolean asynchronous, int nRows) throws DatabaseException {
+        TestConnection testConnection = new TestConnection();
+        JDBC.Connection connection = new JDBC.Connection(testConnection.connection);
+        
+        JDBCPreparedStatement statement = connection.createBatchedPreparedStatement(INSERT_SQL, batchSize, asynchronous);
+        for (int i = 0; i < nRows; ++i) {
+            statement.setInt(1, i).setString(2, "row " + i);
+            statement.addBatch();
+        }
+        int[] counts = statement.executeBatch();
+        statement.close();
+        
+        assertEquals(nRows, counts.length);
+        for (int i = 0; i < nRows; ++i) {
+            assertEquals(i, counts[i]);
+        }
+        
+        List<List<Object>> rows = testConnection.executedRows;
+        assertEquals(nRows, rows.size());
+        for (int i = 0; i < nRows; ++i) {
+            assertEquals(Integer.valueOf(i), rows.get(i).get(0));
+            assertEquals("row " + i, rows.get(i).get(1));
+        }
+        
+        assertEquals(nRows, statement.getRowCount());
+        if (batchSize > 0) {
+            assertEquals((nRows + batchSize - 1) / batchSize, statement.getExecutionCount());
+        }
+        
+        // Each parameter of each row was bound once.
+        assertEquals(1, testConnection.preparedStatements.size());
+        assertEquals(2 * nRows, testConnection.preparedStatements.get(0).setCount);
+        
+        // The underlying statement has been returned to the cache of the connection.
+        assertEquals(0, testConnection.preparedStatements.get(0).closeCount);
+        assertFalse(testConnection.preparedStatements.get(0).concurrentUse);
+        JDBCPreparedStatement cached = connection.getCachedPreparedStatement(INSERT_SQL);
+        assertEquals(1, testConnection.preparedStatements.size());
+        cached.close();
+    }
+    
+    public void testSynchronousFixedBatches() throws DatabaseException {
+        helpTestWrite(100, false, 1050);
+    }
+    
+    public void testAsynchronousFixedBatches() throws DatabaseException {
+        helpTestWrite(100, true, 1050);
+    }
+    
+    public void testSynchronousAutomaticBatches() throws DatabaseException {
+        helpTestWrite(0, false, 20000);
+    }
+    
+    public void testAsynchronousAutomaticBatches() throws DatabaseException {
+        helpTestWrite(0, true, 20000);
+    }
+    
+    public void testEmptyWrite() throws DatabaseException {
+        helpTestWrite(10, true, 0);
+    }
+    
+    /**
+     * Tests that batched writers using the same SQL at the same time have their own underlying statements.
+     */
+    public void testConcurrentWritersUseSeparateStatements() throws DatabaseException {
+        TestConnection testConnection = new TestConnection();
+        testConnection.executeDelay = 5;
+        JDBC.Connection connection = new JDBC.Connection(testConnection.connection);
+        
+        JDBCPreparedStatement first = connection.createBatchedPreparedStatement(INSERT_SQL, 10, true);
+        JDBCPreparedStatement second = connection.createBatchedPreparedStatement(INSERT_SQL, 10, true);
+        for (int i = 0; i < 200; ++i) {
+            first.setInt(1, i).setString(2, "first");
+            first.addBatch();
+            second.setInt(1, i).setString(2, "second");
+            second.addBatch();
+        }
+        first.close();
+        second.close();
+        
+        assertEquals(400, testConnection.executedRows.size());
+        assertEquals(2, testConnection.preparedStatements.size());
+        for (final TestPreparedStatement testStatement : testConnection.preparedStatements) {
+            assertFalse(testStatement.concurrentUse);
+        }
+    }
+    
+    public void testExecuteUpdateFlushesBatchedRows() throws DatabaseException {
+        TestConnection testConnection = new TestConnection();
+        JDBC.Connection connection = new JDBC.Connection(testConnection.connection);
+        
+        JDBCPreparedStatement statement = connection.createBatchedPreparedStatement(INSERT_SQL, 100, true);
+        statement.setInt(1, 1).setString(2, "batched");
+        statement.addBatch();
+        statement.setInt(1, 2).setString(2, "update");
+        assertEquals(2, statement.executeUpdate());
+        statement.close();
+        
+        assertEquals(2, testConnection.executedRows.size());
+        assertEquals("batched", testConnection.executedRows.get(0).get(1));
+        assertEquals("update", testConnection.executedRows.get(1).get(1));
+    }
+    
+    public void testPartialBatchIsWrittenOnlyByExecuteBatch() throws DatabaseException {
+        TestConnection testConnection = new TestConnection();
+        JDBC.Connection connection = new JDBC.Connection(testConnection.connection);
+        
+        JDBCPreparedStatement statement = connection.createBatchedPreparedStatement(INSERT_SQL, 100, false);
+        for (int i = 1; i <= 3; ++i) {
+            statement.setInt(1, i).setString(2, "row");
+            statement.addBatch();
+        }
+        assertEquals(0, testConnection.executedRows.size());
+        
+        assertTrue(Arrays.equals(new int[] {1, 2, 3}, statement.executeBatch()));
+        assertEquals(3, testConnection.executedRows.size());
+        statement.close();
+        assertEquals(3, testConnection.executedRows.size());
+    }
+    
+    public void testAsynchronousFailureIsReported() throws DatabaseException {
+        TestConnection testConnection = new TestConnection();
+        testConnection.executeFailure = new SQLException("write failed");
+        JDBC.Connection connection = new JDBC.Connection(testConnection.connection);
+        
+        JDBCPreparedStatement statement = connection.createBatchedPreparedStatement(INSERT_SQL, 10, true);
+        try {
+            for (int i = 0; i < 100; ++i) {
+                statement.setInt(1, i).setString(2, "x");
+                statement.addBatch();
+            }
+            statement.executeBatch();
+            fail("The write failure should have been reported");
+        } catch (DatabaseException e) {
+            assertSame(testConnection.executeFailure, e.getCause());
+        }
+        
+        try {
+            statement.close();
+        } catch (DatabaseException e) {
+            // The rows still buffered fail in the same way when they are flushed.
+            assertSame(testConnection.executeFailure, e.getCause());
+        }
+        try {
+            statement.addBatch();
+            fail("A closed statement should not accept rows");
+        } catch (DatabaseException e) {
+            // Expected.
+        }
+        
+        // The underlying statement was still returned to the cache.
+        assertEquals(1, testConnection.preparedStatements.size());
+        assertEquals(0, testConnection.preparedStatements.get(0).closeCount);
+    }
+}
@@ -0,0 +1,299 @@
+/*
+ * Copyright (c) 2007 BUSINESS OBJECTS SOFTWARE LIMITED
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *  
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *  
+ *     * Neither the name of Business Objects nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+/*
+ * JDBCConnection_Test.java
+ * Creation date: Oct 18, 2026
+ */
+package org.openquark.cal.foreignsupport.module.DataGems;
+
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import junit.framework.TestCase;
+
+import org.openquark.cal.foreignsupport.module.DataGems.JDBCTestUtilities.TestConnection;
+import org.openquark.cal.foreignsupport.module.DataGems.JDBCTestUtilities.TestPreparedStatement;
+import org.openquark.cal.foreignsupport.module.DataGems.JDBCTestUtilities.TestResultSet;
+
+
+/**
+ * A set of JUnit test cases for the prepared statement cache of {@link JDBC.Connection},
+ * using a proxy JDBC connection.
+ */
+public class JDBCConnection_Test extends TestCase {
+
+    private static final String INSERT_SQL = "INSERT INTO t (a, b) VALUES (?, ?)";
+    
+    /**
+     * Constructor for JDBCConnection_Test.
+     * @param name the name of the test
+     */
+    public JDBCConnection_Test(String name) {
+        super(name);
+    }
+    
+    public void testClosedStatementIsReused() throws DatabaseException {
+        TestConnection testConnection = new TestConnection();
+        JDBC.Connection connection = new JDBC.Connection(testConnection.connection);
+        
+        JDBCPreparedStatement first = connection.getCachedPreparedStatement(INSERT_SQL);
+        first.setInt(1, 1).setString(2, "x").executeUpdate();
+        first.close();
+        
+        JDBCPreparedStatement second = connection.getCachedPreparedStatement(INSERT_SQL);
+        assertEquals(1, testConnection.preparedStatements.size());
+        
+        // The statement was reset when it was returned, and its statistics cover the new checkout.
+        TestPreparedStatement testStatement = testConnection.preparedStatements.get(0);
+        assertEquals(1, testStatement.clearParametersCount);
+        assertEquals(0, testStatement.closeCount);
+        assertEquals(0, second.getExecutionCount());
+        assertEquals(0, second.getRowCount());
+        assertEquals(1, first.getExecutionCount());
+        assertEquals(1, first.getRowCount());
+    }
+    
+    public void testCheckedOutStatementsAreNotShared() throws DatabaseException {
+        TestConnection testConnection = new TestConnection();
+        JDBC.Connection connection = new JDBC.Connection(testConnection.connection);
+        
+        JDBCPreparedStatement first = connection.getCachedPreparedStatement(INSERT_SQL);
+        JDBCPreparedStatement second = connection.getCachedPreparedStatement(INSERT_SQL);
+        assertNotSame(first, second);
+        assertEquals(2, testConnection.preparedStatements.size());
+        
+        // Binding parameters to the second statement does not disturb the first.
+        first.setInt(1, 1).setString(2, "first");
+        second.setInt(1, 2).setString(2, "second");
+        first.executeUpdate();
+        assertEquals(Arrays.<Object>asList(Integer.valueOf(1), "first"), testConnection.executedRows.get(0));
+        
+        // Only one idle statement is kept for the SQL, so the other is closed when it is returned.
+        first.close();
+        second.close();
+        assertEquals(1, testConnection.getOpenStatements().size());
+        connection.getCachedPreparedStatement(INSERT_SQL);
+        assertEquals(2, testConnection.preparedStatements.size());
+    }
+    
+    public void testClosedReferenceCannotAffectNextUser() throws DatabaseException {
+        TestConnection testConnection = new TestConnection();
+        JDBC.Connection connection = new JDBC.Connection(testConnection.connection);
+        
+        JDBCPreparedStatement first = connection.getCachedPreparedStatement(INSERT_SQL);
+        first.close();
+        JDBCPreparedStatement second = connection.getCachedPreparedStatement(INSERT_SQL);
+        assertEquals(1, testConnection.preparedStatements.size());
+        
+        // Closing the first client's reference again must not return the second client's statement.
+        first.close();
+        assertEquals(0, testConnection.preparedStatements.get(0).closeCount);
+        connection.getCachedPreparedStatement(INSERT_SQL);
+        assertEquals(2, testConnection.preparedStatements.size());
+        
+        // Nor can the first client use the statement any more.
+        try {
+            first.setInt(1, 1);
+            fail("A returned statement should not be usable");
+        } catch (DatabaseException e) {
+            // Expected.
+        }
+        second.setInt(1, 1).setString(2, "x").executeUpdate();
+    }
+    
+    public void testUnexecutedBatchIsClearedOnReturn() throws DatabaseException {
+        TestConnection testConnection = new TestConnection();
+        JDBC.Connection connection = new JDBC.Connection(testConnection.connection);
+        
+        JDBCPreparedStatement statement = connection.getCachedPreparedStatement(INSERT_SQL);
+        statement.setInt(1, 1).setString(2, "abandoned");
+        statement.addBatch();
+        statement.close();
+        
+        statement = connection.getCachedPreparedStatement(INSERT_SQL);
+        statement.setInt(1, 2).setString(2, "kept");
+        statement.addBatch();
+        assertTrue(Arrays.equals(new int[] {2}, statement.executeBatch()));
+        assertEquals(1, testConnection.executedRows.size());
+        assertEquals(1, testConnection.preparedStatements.get(0).clearBatchCount);
+    }
+    
+    public void testFailedUpdateInvalidatesCachedResults() throws DatabaseException {
+        TestConnection testConnection = new TestConnection();
+        JDBC.Connection connection = new JDBC.Connection(testConnection.connection);
+        connection.enableQueryResultCache(10, 0, 0);
+        QueryResultCache cache = connection.getQueryResultCache();
+        testConnection.executeFailure = new SQLException("write failed");
+        
+        // The rows may have been written before the update or batch failed, so the results reading the table are discarded.
+        JDBCPreparedStatement statement = connection.getCachedPreparedStatement(INSERT_SQL);
+        storeResult(cache);
+        try {
+            statement.setInt(1, 1).setString(2, "x").executeUpdate();
+            fail("The update should have failed.");
+        } catch (DatabaseException e) {
+            // Expected.
+        }
+        assertEquals(0, cache.getEntryCount());
+        
+        storeResult(cache);
+        statement.setInt(1, 2).setString(2, "y");
+        statement.addBatch();
+        try {
+            statement.executeBatch();
+            fail("The batch should have failed.");
+        } catch (DatabaseException e) {
+            // Expected.
+        }
+        assertEquals(0, cache.getEntryCount());
+    }
+    
+    /**
+     * Stores a result for a query reading the table written by INSERT_SQL.
+     */
+    private static void storeResult(QueryResultCache cache) throws DatabaseException {
+        TestResultSet resultSet = new TestResultSet(new int[] {Types.INTEGER}, new Object[][] {{Integer.valueOf(1)}});
+        CachedQueryResult result = CachedQueryResult.readFrom(new JDBC.Connection.JDBCQueryResult(resultSet.resultSet));
+        assertTrue(cache.store("SELECT a FROM t", null, Collections.singletonList("t"), result));
+        assertEquals(1, cache.getEntryCount());
+    }
+    
+    public void testEvictionClosesOnlyIdleStatements() throws DatabaseException {
+        TestConnection testConnection = new TestConnection();
+        JDBC.Connection connection = new JDBC.Connection(testConnection.connection);
+        
+        JDBCPreparedStatement inUse = connection.getCachedPreparedStatement(INSERT_SQL);
+        TestPreparedStatement inUseTestStatement = testConnection.preparedStatements.get(0);
+        
+        int nStatements = JDBC.Connection.MAX_CACHED_STATEMENTS + 10;
+        for (int i = 0; i < nStatements; ++i) {
+            connection.getCachedPreparedStatement("SELECT " + i).close();
+        }
+        
+        // The least recently used idle statements were evicted and closed, but not the one in use.
+        assertEquals(0, inUseTestStatement.closeCount);
+        assertEquals(JDBC.Connection.MAX_CACHED_STATEMENTS + 1, testConnection.getOpenStatements().size());
+        for (int i = 0; i < nStatements; ++i) {
+            TestPreparedStatement testStatement = testConnection.preparedStatements.get(i + 1);
+            assertEquals(testStatement.sql, i < 10 ? 1 : 0, testStatement.closeCount);
+        }
+        
+        inUse.setInt(1, 1).setString(2, "x").executeUpdate();
+        inUse.close();
+        assertEquals(0, inUseTestStatement.closeCount);
+    }
+    
+    public void testConnectionCloseClosesIdleStatements() throws DatabaseException {
+        TestConnection testConnection = new TestConnection();
+        JDBC.Connection connection = new JDBC.Connection(testConnection.connection);
+        
+        connection.getCachedPreparedStatement("SELECT 1").close();
+        JDBCPreparedStatement inUse = connection.getCachedPreparedStatement(INSERT_SQL);
+        
+        connection.close();
+        assertTrue(testConnection.closed);
+        assertEquals(1, testConnection.preparedStatements.get(0).closeCount);
+        assertEquals(0, testConnection.preparedStatements.get(1).closeCount);
+        
+        // A statement returned after the connection was closed is closed rather than cached.
+        inUse.close();
+        assertEquals(1, testConnection.preparedStatements.get(1).closeCount);
+    }
+    
+    public void testUncachedStatementIsClosed() throws DatabaseException {
+        TestConnection testConnection = new TestConnection();
+        JDBC.Connection connection = new JDBC.Connection(testConnection.connection);
+        connection.createPreparedStatement(INSERT_SQL).close();
+        assertEquals(1, testConnection.preparedStatements.get(0).closeCount);
+    }
+    
+    /**
+     * Tests that threads which use the same SQL at the same time never share a statement.
+     */
+    public void testConcurrentClients() throws Exception {
+        final TestConnection testConnection = new TestConnection();
+        final JDBC.Connection connection = new JDBC.Connection(testConnection.connection);
+        
+        final int nThreads = 8;
+        final int nRowsPerThread = 200;
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Throwable> failures = new ArrayList<Throwable>();
+        Thread[] threads = new Thread[nThreads];
+        for (int i = 0; i < nThreads; ++i) {
+            final int threadNumber = i;
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        for (int row = 0; row < nRowsPerThread; ++row) {
+                            JDBCPreparedStatement statement = connection.getCachedPreparedStatement(INSERT_SQL);
+                            try {
+                                int value = threadNumber * nRowsPerThread + row;
+                                statement.setInt(1, value).setString(2, String.valueOf(value));
+                                if (statement.executeUpdate() != value) {
+                                    throw new AssertionError("Unexpected update count for row " + value);
+                                }
+                            } finally {
+                                statement.close();
+                            }
+                        }
+                    } catch (Throwable e) {
+                        synchronized (failures) {
+                            failures.add(e);
+                        }
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        start.countDown();
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        
+        assertEquals(failures.toString(), 0, failures.size());
+        assertEquals(nThreads * nRowsPerThread, testConnection.executedRows.size());
+        for (final TestPreparedStatement testStatement : testConnection.preparedStatements) {
+            assertFalse(testStatement.concurrentUse);
+        }
+        for (final List<Object> row : testConnection.executedRows) {
+            assertEquals(row.get(0).toString(), row.get(1));
+        }
+    }
+}
@@ -0,0 +1,465 @@
+/*
+ * Copyright (c) 2007 BUSINESS OBJECTS SOFTWARE LIMITED
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *  
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *  
+ *     * Neither the name of Business Objects nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+/*
+ * JDBCTestUtilities.java
+ * Creation date: Oct 18, 2026
+ */
+package org.openquark.cal.foreignsupport.module.DataGems;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * In-memory stand-ins for JDBC objects, so that the DataGems classes which read
+ * and write through JDBC can be tested without a database.
+ * <p>
+ * The stand-ins are dynamic proxies which implement just the methods used by the
+ * DataGems classes. Any other method returns the default value for its return type.
+ */
+final class JDBCTestUtilities {
+
+    /** Not intended to be instantiated. */
+    private JDBCTestUtilities() {
+    }
+    
+    /**
+     * Returns the default value of a method's return type.
+     */
+    static Object defaultValue(Method method) {
+        Class<?> returnType = method.getReturnType();
+        if (returnType == Boolean.TYPE) {
+            return Boolean.FALSE;
+        } else if (returnType == Integer.TYPE) {
+            return Integer.valueOf(0);
+        } else if (returnType == Long.TYPE) {
+            return Long.valueOf(0);
+        } else if (returnType == Double.TYPE) {
+            return Double.valueOf(0);
+        } else if (returnType == Float.TYPE) {
+            return Float.valueOf(0);
+        } else if (returnType == Short.TYPE) {
+            return Short.valueOf((short)0);
+        } else if (returnType == Byte.TYPE) {
+            return Byte.valueOf((byte)0);
+        }
+        return null;
+    }
+    
+    /**
+     * Handles the methods of Object for a proxy.
+     * @return the result of the method, or null if the method is not a method of Object.
+     */
+    static Object invokeObjectMethod(Object proxy, Method method, Object[] args) {
+        String name = method.getName();
+        if (name.equals("equals") && args != null && args.length == 1) {
+            return Boolean.valueOf(proxy == args[0]);
+        } else if (name.equals("hashCode") && args == null) {
+            return Integer.valueOf(System.identityHashCode(proxy));
+        } else if (name.equals("toString") && args == null) {
+            return proxy.getClass().getName() + "@" + Integer.toHexString(System.identityHashCode(proxy));
+        }
+        return null;
+    }
+
+    /**
+     * A statement which records whether it has been closed.
+     */
+    static final class TestStatement implements InvocationHandler {
+        
+        /** The proxy statement. */
+        final Statement statement = (Statement)Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[] {Statement.class}, this);
+        
+        /** If not null, the exception thrown by close(). */
+        SQLException closeFailure;
+        
+        /** The number of times close() has been called. */
+        int closeCount = 0;
+
+        /** {@inheritDoc} */
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = invokeObjectMethod(proxy, method, args);
+            if (result != null) {
+                return result;
+            }
+            if (method.getName().equals("close")) {
+                ++closeCount;
+                if (closeFailure != null) {
+                    throw closeFailure;
+                }
+                return null;
+            }
+            return defaultValue(method);
+        }
+    }
+    
+    /**
+     * A forward-only resultset over rows held in memory.
+     * Column values are given as Java objects (e.g. an Integer for an INTEGER column), with null for a null value.
+     */
+    static final class TestResultSet implements InvocationHandler {
+        
+        /** The proxy resultset. */
+        final ResultSet resultSet = (ResultSet)Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[] {ResultSet.class}, this);
+        
+        /** The JDBC type of each column. */
+        private final int[] columnTypes;
+        
+        /** The values of each row. */
+        private final Object[][] rows;
+        
+        /** The index of the current row, or -1 before the first row. */
+        private int currentRow = -1;
+        
+        /** Whether the last value read was null. */
+        private boolean wasNull = false;
+        
+        /** If not negative, next() fails with nextFailure when moving to the row with this index. */
+        int failingRow = -1;
+        
+        /** The exception thrown by next() when moving to the failing row. */
+        SQLException nextFailure;
+        
+        /** If not null, the exception thrown by close(). */
+        SQLException closeFailure;
+        
+        /** The number of times close() has been called. */
+        int closeCount = 0;
+        
+        /** The number of times next() has been called. */
+        int nextCount = 0;
+
+        /**
+         * Constructor for a TestResultSet.
+         * @param columnTypes  the JDBC type of each column
+         * @param rows         the values of each row
+         */
+        TestResultSet(int[] columnTypes, Object[][] rows) {
+            this.columnTypes = columnTypes;
+            this.rows = rows;
+        }
+        
+        /** {@inheritDoc} */
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = invokeObjectMethod(proxy, method, args);
+            if (result != null) {
+                return result;
+            }
+            
+            String name = method.getName();
+            if (name.equals("next")) {
+                ++nextCount;
+                if (currentRow + 1 == failingRow) {
+                    throw nextFailure;
+                }
+                if (currentRow < rows.length) {
+                    ++currentRow;
+                }
+                return Boolean.valueOf(currentRow < rows.length);
+                
+            } else if (name.equals("close")) {
+                ++closeCount;
+                if (closeFailure != null) {
+                    throw closeFailure;
+                }
+                return null;
+                
+            } else if (name.equals("getMetaData")) {
+                return Proxy.newProxyInstance(ResultSetMetaData.class.getClassLoader(), new Class<?>[] {ResultSetMetaData.class}, new InvocationHandler() {
+                    public Object invoke(Object metaDataProxy, Method metaDataMethod, Object[] metaDataArgs) {
+                        Object objectMethodResult = invokeObjectMethod(metaDataProxy, metaDataMethod, metaDataArgs);
+                        if (objectMethodResult != null) {
+                            return objectMethodResult;
+                        }
+                        String metaDataMethodName = metaDataMethod.getName();
+                        if (metaDataMethodName.equals("getColumnCount")) {
+                            return Integer.valueOf(columnTypes.length);
+                        } else if (metaDataMethodName.equals("getColumnType")) {
+                            return Integer.valueOf(columnTypes[((Integer)metaDataArgs[0]).intValue() - 1]);
+                        } else if (metaDataMethodName.equals("getColumnName") || metaDataMethodName.equals("getColumnLabel")) {
+                            return "COLUMN" + metaDataArgs[0];
+                        }
+                        return defaultValue(metaDataMethod);
+                    }
+                });
+                
+            } else if (name.equals("wasNull")) {
+                return Boolean.valueOf(wasNull);
+                
+            } else if (name.startsWith("get") && args != null && args.length == 1 && args[0] instanceof Integer) {
+                if (currentRow < 0 || currentRow >= rows.length) {
+                    throw new SQLException("The resultset is not positioned on a row.");
+                }
+                Object value = rows[currentRow][((Integer)args[0]).intValue() - 1];
+                wasNull = (value == null);
+                return convertValue(value, method);
+            }
+            
+            return defaultValue(method);
+        }
+        
+        /**
+         * Converts a column value to the type returned by a resultset getter, as a JDBC driver would.
+         */
+        private static Object convertValue(Object value, Method method) {
+            Class<?> returnType = method.getReturnType();
+            if (value == null) {
+                return defaultValue(method);
+            } else if (returnType == Integer.TYPE) {
+                return Integer.valueOf(((Number)value).intValue());
+            } else if (returnType == Long.TYPE) {
+                return Long.valueOf(((Number)value).longValue());
+            } else if (returnType == Double.TYPE) {
+                return Double.valueOf(((Number)value).doubleValue());
+            } else if (returnType == BigDecimal.class) {
+                return value instanceof BigDecimal ? value : new BigDecimal(value.toString());
+            } else if (returnType == Timestamp.class) {
+                return value;
+            } else if (returnType == String.class) {
+                return value.toString();
+            }
+            return value;
+        }
+    }
+    
+    /**
+     * A connection which prepares {@link TestPreparedStatement}s, and records the rows they execute.
+     */
+    static final class TestConnection implements InvocationHandler {
+        
+        /** The proxy connection. */
+        final Connection connection = (Connection)Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class}, this);
+        
+        /** The statements prepared on the connection, in the order in which they were prepared. */
+        final List<TestPreparedStatement> preparedStatements = Collections.synchronizedList(new ArrayList<TestPreparedStatement>());
+        
+        /** The rows executed through the statements of the connection, in the order in which they were executed. */
+        final List<List<Object>> executedRows = Collections.synchronizedList(new ArrayList<List<Object>>());
+        
+        /** The time for which executeBatch() blocks, in milli-seconds. */
+        volatile long executeDelay = 0;
+        
+        /** If not null, the exception thrown by executeBatch() and executeUpdate(). */
+        volatile SQLException executeFailure;
+        
+        /** Whether the connection has been closed. */
+        volatile boolean closed = false;
+
+        /** {@inheritDoc} */
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = invokeObjectMethod(proxy, method, args);
+            if (result != null) {
+                return result;
+            }
+            
+            String name = method.getName();
+            if (name.equals("prepareStatement")) {
+                TestPreparedStatement statement = new TestPreparedStatement(this, (String)args[0]);
+                preparedStatements.add(statement);
+                return statement.statement;
+            } else if (name.equals("close")) {
+                closed = true;
+                return null;
+            } else if (name.equals("isClosed")) {
+                return Boolean.valueOf(closed);
+            }
+            return defaultValue(method);
+        }
+        
+        /**
+         * @return the prepared statements which have not been closed.
+         */
+        List<TestPreparedStatement> getOpenStatements() {
+            List<TestPreparedStatement> openStatements = new ArrayList<TestPreparedStatement>();
+            synchronized (preparedStatements) {
+                for (final TestPreparedStatement statement : preparedStatements) {
+                    if (statement.closeCount == 0) {
+                        openStatements.add(statement);
+                    }
+                }
+            }
+            return openStatements;
+        }
+    }
+    
+    /**
+     * A prepared statement which records the parameters bound to it and the rows it executes.
+     * The update count of each row is the value of its first parameter if that is an integer, and 1 otherwise.
+     * <p>
+     * The statement also records whether it was ever used by two threads at the same time.
+     */
+    static final class TestPreparedStatement implements InvocationHandler {
+        
+        /** The proxy statement. */
+        final PreparedStatement statement = (PreparedStatement)Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(), new Class<?>[] {PreparedStatement.class}, this);
+        
+        /** The connection which prepared the statement. */
+        private final TestConnection connection;
+        
+        /** The SQL of the statement. */
+        final String sql;
+        
+        /** The parameters currently bound, by parameter index. */
+        private final Map<Integer, Object> parameters = new TreeMap<Integer, Object>();
+        
+        /** The rows added to the current batch. */
+        private final List<List<Object>> batch = new ArrayList<List<Object>>();
+        
+        /** The number of threads currently calling methods of the statement. */
+        private final AtomicInteger activeCalls = new AtomicInteger();
+        
+        /** Whether two threads have used the statement at the same time. */
+        volatile boolean concurrentUse = false;
+        
+        /** The number of times close() has been called. */
+        volatile int closeCount = 0;
+        
+        /** The number of parameter values which have been set. */
+        volatile int setCount = 0;
+        
+        /** The number of times clearParameters() has been called. */
+        volatile int clearParametersCount = 0;
+        
+        /** The number of times clearBatch() has been called. */
+        volatile int clearBatchCount = 0;
+        
+        /**
+         * Constructor for a TestPreparedStatement.
+         * @param connection  the connection which prepared the statement
+         * @param sql         the SQL of the statement
+         */
+        TestPreparedStatement(TestConnection connection, String sql) {
+            this.connection = connection;
+            this.sql = sql;
+        }
+        
+        /** {@inheritDoc} */
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = invokeObjectMethod(proxy, method, args);
+            if (result != null) {
+                return result;
+            }
+            
+            if (activeCalls.incrementAndGet() > 1) {
+                concurrentUse = true;
+            }
+            try {
+                return invokeStatementMethod(method, args);
+            } finally {
+                activeCalls.decrementAndGet();
+            }
+        }
+        
+        /**
+         * Performs a method of the statement.
+         */
+        private Object invokeStatementMethod(Method method, Object[] args) throws SQLException, InterruptedException {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                if (closeCount > 0) {
+                    throw new SQLException("The statement is closed.");
+                }
+                ++setCount;
+                parameters.put((Integer)args[0], name.equals("setNull") ? null : args[1]);
+                return null;
+                
+            } else if (name.equals("clearParameters")) {
+                ++clearParametersCount;
+                parameters.clear();
+                return null;
+                
+            } else if (name.equals("addBatch") && args == null) {
+                batch.add(new ArrayList<Object>(parameters.values()));
+                return null;
+                
+            } else if (name.equals("clearBatch")) {
+                ++clearBatchCount;
+                batch.clear();
+                return null;
+                
+            } else if (name.equals("executeBatch")) {
+                if (connection.executeDelay > 0) {
+                    Thread.sleep(connection.executeDelay);
+                }
+                if (connection.executeFailure != null) {
+                    batch.clear();
+                    throw connection.executeFailure;
+                }
+                int[] counts = new int[batch.size()];
+                for (int i = 0; i < counts.length; ++i) {
+                    counts[i] = execute(batch.get(i));
+                }
+                batch.clear();
+                return counts;
+                
+            } else if (name.equals("executeUpdate") && args == null) {
+                if (connection.executeFailure != null) {
+                    throw connection.executeFailure;
+                }
+                return Integer.valueOf(execute(new ArrayList<Object>(parameters.values())));
+                
+            } else if (name.equals("close")) {
+                ++closeCount;
+                return null;
+            }
+            return defaultValue(method);
+        }
+        
+        /**
+         * Records the execution of a row.
+         * @return the update count for the row
+         */
+        private int execute(List<Object> row) {
+            connection.executedRows.add(row);
+            if (!row.isEmpty() && row.get(0) instanceof Integer) {
+                return ((Integer)row.get(0)).intValue();
+            }
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,315 @@
+/*
+ * Copyright (c) 2007 BUSINESS OBJECTS SOFTWARE LIMITED
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *  
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *  
+ *     * Neither the name of Business Objects nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/*
+ * QueryResultCache_Test.java
+ * Creation date: Oct 18, 2026
+ */
+package org.openquark.cal.foreignsupport.module.DataGems;
+
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.openquark.cal.foreignsupport.module.DataGems.JDBCTestUtilities.TestResultSet;
+
+
+/**
+ * A set of JUnit test cases for {@link QueryResultCache}.
+ */
+public class QueryResultCache_Test extends TestCase {
+
+    private static final String CUSTOMER_SQL = "SELECT * FROM Customer";
+    private static final String ORDERS_SQL = "SELECT * FROM Orders WHERE Amount > ?";
+    
+    /**
+     * Constructor for QueryResultCache_Test.
+     * @param name the name of the test
+     */
+    public QueryResultCache_Test(String name) {
+        super(name);
+    }
+    
+    /**
+     * Builds a cached result with one integer column, whose rows hold the values from 1 to nRows.
+     */
+    private static CachedQueryResult makeResult(int nRows) throws DatabaseException {
+        Object[][] rows = new Object[nRows][];
+        for (int row = 0; row < nRows; ++row) {
+            rows[row] = new Object[] {Integer.valueOf(row + 1)};
+        }
+        TestResultSet resultSet = new TestResultSet(new int[] {Types.INTEGER}, rows);
+        return CachedQueryResult.readFrom(new JDBC.Connection.JDBCQueryResult(resultSet.resultSet));
+    }
+    
+    private static List<String> tables(String... tableNames) {
+        return Arrays.asList(tableNames);
+    }
+    
+    public void testLookupReplaysResult() throws DatabaseException {
+        QueryResultCache cache = new QueryResultCache(10, 0, 0);
+        assertNull(cache.lookup(CUSTOMER_SQL, null));
+        assertTrue(cache.store(CUSTOMER_SQL, null, tables("Customer"), makeResult(3)));
+        
+        // Each lookup has its own cursor over the rows.
+        for (int i = 0; i < 2; ++i) {
+            QueryResult result = cache.lookup(CUSTOMER_SQL, null);
+            assertNotNull(result);
+            for (int row = 1; row <= 3; ++row) {
+                assertTrue(result.moveNext());
+                assertEquals(row, result.getCurrentRowInt(1));
+            }
+            assertFalse(result.moveNext());
+        }
+        assertEquals(1, cache.getEntryCount());
+        assertEquals(3, cache.getCachedRowCount());
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+    
+    public void testParametersAreKeys() throws DatabaseException {
+        QueryResultCache cache = new QueryResultCache(10, 0, 0);
+        cache.store(ORDERS_SQL, Arrays.asList(Integer.valueOf(10)), tables("Orders"), makeResult(1));
+        cache.store(ORDERS_SQL, Arrays.asList(Integer.valueOf(20)), tables("Orders"), makeResult(2));
+        
+        assertEquals(2, cache.getEntryCount());
+        assertNotNull(cache.lookup(ORDERS_SQL, Arrays.asList(Integer.valueOf(10))));
+        assertNotNull(cache.lookup(ORDERS_SQL, Arrays.asList(Integer.valueOf(20))));
+        assertNull(cache.lookup(ORDERS_SQL, Arrays.asList(Integer.valueOf(30))));
+        assertNull(cache.lookup(ORDERS_SQL, null));
+        
+        // A null parameter list is the same as an empty one.
+        cache.store(CUSTOMER_SQL, null, tables("Customer"), makeResult(1));
+        assertNotNull(cache.lookup(CUSTOMER_SQL, Collections.emptyList()));
+    }
+    
+    public void testStoreReplacesResult() throws DatabaseException {
+        QueryResultCache cache = new QueryResultCache(10, 0, 0);
+        cache.store(CUSTOMER_SQL, null, tables("Customer"), makeResult(3));
+        cache.store(CUSTOMER_SQL, null, tables("Orders"), makeResult(5));
+        
+        assertEquals(1, cache.getEntryCount());
+        assertEquals(5, cache.getCachedRowCount());
+        
+        // The replaced result is no longer recorded against its tables.
+        assertEquals(0, cache.invalidateTable("Customer"));
+        assertEquals(1, cache.invalidateTable("Orders"));
+    }
+    
+    public void testLeastRecentlyUsedEviction() throws DatabaseException {
+        QueryResultCache cache = new QueryResultCache(2, 0, 0);
+        cache.store("SELECT 1", null, tables("a"), makeResult(1));
+        cache.store("SELECT 2", null, tables("b"), makeResult(2));
+        
+        // Using the first result makes the second the least recently used.
+        assertNotNull(cache.lookup("SELECT 1", null));
+        cache.store("SELECT 3", null, tables("c"), makeResult(3));
+        
+        assertEquals(2, cache.getEntryCount());
+        assertEquals(4, cache.getCachedRowCount());
+        assertNotNull(cache.lookup("SELECT 1", null));
+        assertNull(cache.lookup("SELECT 2", null));
+        assertNotNull(cache.lookup("SELECT 3", null));
+        assertEquals(0, cache.invalidateTable("b"));
+    }
+    
+    public void testTimeToLive() throws DatabaseException, InterruptedException {
+        QueryResultCache cache = new QueryResultCache(10, 0, 50);
+        cache.store(CUSTOMER_SQL, null, tables("Customer"), makeResult(1));
+        assertNotNull(cache.lookup(CUSTOMER_SQL, null));
+        
+        Thread.sleep(100);
+        assertNull(cache.lookup(CUSTOMER_SQL, null));
+        assertEquals(0, cache.getEntryCount());
+        assertEquals(0, cache.getCachedRowCount());
+        
+        cache.store(CUSTOMER_SQL, null, tables("Customer"), makeResult(1));
+        cache.store(ORDERS_SQL, null, tables("Orders"), makeResult(1));
+        Thread.sleep(100);
+        assertEquals(2, cache.removeExpiredEntries());
+        assertEquals(0, cache.getEntryCount());
+    }
+    
+    public void testResultsDoNotExpireWithoutTimeToLive() throws DatabaseException, InterruptedException {
+        QueryResultCache cache = new QueryResultCache(10, 0, 0);
+        cache.store(CUSTOMER_SQL, null, tables("Customer"), makeResult(1));
+        Thread.sleep(20);
+        assertEquals(0, cache.removeExpiredEntries());
+        assertNotNull(cache.lookup(CUSTOMER_SQL, null));
+    }
+    
+    public void testMaxRows() throws DatabaseException {
+        QueryResultCache cache = new QueryResultCache(10, 3, 0);
+        assertTrue(cache.store("SELECT 3", null, tables("a"), makeResult(3)));
+        assertFalse(cache.store("SELECT 4", null, tables("a"), makeResult(4)));
+        assertNotNull(cache.lookup("SELECT 3", null));
+        assertNull(cache.lookup("SELECT 4", null));
+        assertEquals(3, cache.getCachedRowCount());
+        
+        // A result which is too large does not replace a cached result.
+        assertFalse(cache.store("SELECT 3", null, tables("a"), makeResult(10)));
+        assertEquals(3, cache.getCachedRowCount());
+    }
+    
+    public void testInvalidateTable() throws DatabaseException {
+        QueryResultCache cache = new QueryResultCache(10, 0, 0);
+        cache.store(CUSTOMER_SQL, null, tables("Customer"), makeResult(1));
+        cache.store(ORDERS_SQL, null, tables("Orders", "dbo.Customer"), makeResult(1));
+        cache.store("SELECT * FROM Products", null, tables("Products"), makeResult(1));
+        
+        // Table names are matched without their qualifiers, quotes or case.
+        assertEquals(2, cache.invalidateTable("\"SALES\".[customer]"));
+        assertNull(cache.lookup(CUSTOMER_SQL, null));
+        assertNull(cache.lookup(ORDERS_SQL, null));
+        assertNotNull(cache.lookup("SELECT * FROM Products", null));
+        assertEquals(0, cache.invalidateTable("Customer"));
+    }
+    
+    public void testUnknownTablesAreAlwaysInvalidated() throws DatabaseException {
+        QueryResultCache cache = new QueryResultCache(10, 0, 0);
+        cache.store(CUSTOMER_SQL, null, null, makeResult(1));
+        cache.store("SELECT * FROM Products", null, tables("Products"), makeResult(1));
+        
+        assertEquals(1, cache.invalidateTable("Orders"));
+        assertNull(cache.lookup(CUSTOMER_SQL, null));
+        assertNotNull(cache.lookup("SELECT * FROM Products", null));
+    }
+    
+    public void testInvalidateForUpdate() throws DatabaseException {
+        QueryResultCache cache = new QueryResultCache(10, 0, 0);
+        cache.store(CUSTOMER_SQL, null, tables("Customer"), makeResult(1));
+        cache.store(ORDERS_SQL, null, tables("Orders"), makeResult(1));
+        
+        assertEquals(1, cache.invalidateForUpdate("UPDATE Orders SET Amount = 0"));
+        assertNotNull(cache.lookup(CUSTOMER_SQL, null));
+        
+        // Statements which may modify other tables discard all the results.
+        cache.store(ORDERS_SQL, null, tables("Orders"), makeResult(1));
+        cache.store("SELECT * FROM Products", null, tables("Products"), makeResult(1));
+        assertEquals(3, cache.invalidateForUpdate("UPDATE Products p JOIN Orders o ON p.ID = o.ProductID SET o.Amount = 0"));
+        assertEquals(0, cache.getEntryCount());
+        assertEquals(0, cache.getCachedRowCount());
+    }
+    
+    public void testInvalidateAll() throws DatabaseException {
+        QueryResultCache cache = new QueryResultCache(10, 0, 0);
+        cache.store(CUSTOMER_SQL, null, tables("Customer"), makeResult(2));
+        cache.store(ORDERS_SQL, null, null, makeResult(3));
+        
+        assertEquals(2, cache.invalidateAll());
+        assertEquals(0, cache.getEntryCount());
+        assertEquals(0, cache.getCachedRowCount());
+        assertEquals(0, cache.invalidateTable("Customer"));
+    }
+    
+    public void testNormalizedSqlSharesResult() throws DatabaseException {
+        QueryResultCache cache = new QueryResultCache(10, 0, 0);
+        cache.store("SELECT *\n  FROM   Customer\tWHERE Name = 'A  B';", null, tables("Customer"), makeResult(1));
+        
+        assertNotNull(cache.lookup("  SELECT * FROM Customer WHERE Name = 'A  B'  ", null));
+        assertNotNull(cache.lookup("SELECT * FROM Customer WHERE Name = 'A  B' ;;", null));
+        
+        // Whitespace within quotes is significant.
+        assertNull(cache.lookup("SELECT * FROM Customer WHERE Name = 'A B'", null));
+    }
+    
+    public void testNormalizeSql() {
+        assertEquals("SELECT a FROM t", QueryResultCache.normalizeSql("  SELECT\ta \r\n FROM  t ; "));
+        assertEquals("SELECT 'a  b', \"c  d\", [e  f], `g  h`", QueryResultCache.normalizeSql("SELECT 'a  b',  \"c  d\",  [e  f],  `g  h`"));
+        assertEquals("SELECT 'a;'", QueryResultCache.normalizeSql("SELECT 'a;';"));
+        assertEquals("", QueryResultCache.normalizeSql("   "));
+    }
+    
+    public void testNormalizeTableName() {
+        assertEquals("CUSTOMER", QueryResultCache.normalizeTableName("Customer"));
+        assertEquals("CUSTOMER", QueryResultCache.normalizeTableName(" dbo.Customer "));
+        assertEquals("MY.TABLE", QueryResultCache.normalizeTableName("\"sales\".\"my.table\""));
+        assertEquals("ORDER DETAILS", QueryResultCache.normalizeTableName("[db].[dbo].[Order Details]"));
+        assertEquals("T", QueryResultCache.normalizeTableName("`t`"));
+    }
+    
+    public void testGetModifiedTableForSingleTableStatements() {
+        assertEquals("t", QueryResultCache.getModifiedTable("INSERT INTO t (a, b) VALUES (1, 2)"));
+        assertEquals("t", QueryResultCache.getModifiedTable("insert into t(a) select a from u"));
+        assertEquals("t", QueryResultCache.getModifiedTable("INSERT INTO t VALUES (1)"));
+        assertEquals("dbo.t", QueryResultCache.getModifiedTable("INSERT INTO dbo . t VALUES (1)"));
+        assertEquals("\"my table\"", QueryResultCache.getModifiedTable("INSERT INTO \"my table\" DEFAULT VALUES"));
+        assertEquals("t", QueryResultCache.getModifiedTable("  UPDATE t\n  SET a = 1 WHERE b IN (SELECT b FROM u)"));
+        assertEquals("t", QueryResultCache.getModifiedTable("UPDATE t AS x SET a = 1"));
+        assertEquals("t", QueryResultCache.getModifiedTable("UPDATE t x SET a = 1"));
+        assertEquals("t", QueryResultCache.getModifiedTable("DELETE FROM t"));
+        assertEquals("t", QueryResultCache.getModifiedTable("DELETE FROM t WHERE a = 1;"));
+        assertEquals("t", QueryResultCache.getModifiedTable("DELETE FROM t x WHERE x.a = 1"));
+        assertEquals("t", QueryResultCache.getModifiedTable("DELETE t WHERE a = 1"));
+        assertEquals("[t]", QueryResultCache.getModifiedTable("MERGE INTO [t] AS target USING u ON target.a = u.a WHEN MATCHED THEN DELETE"));
+        assertEquals("t", QueryResultCache.getModifiedTable("TRUNCATE TABLE t"));
+        assertEquals("t", QueryResultCache.getModifiedTable("DROP TABLE t"));
+        assertEquals("t", QueryResultCache.getModifiedTable("DROP TABLE IF EXISTS t"));
+        assertEquals("t", QueryResultCache.getModifiedTable("CREATE TABLE t (a INT)"));
+        assertEquals("t", QueryResultCache.getModifiedTable("CREATE TABLE IF NOT EXISTS t (a INT)"));
+        assertEquals("t", QueryResultCache.getModifiedTable("CREATE TABLE t AS SELECT * FROM u"));
+        assertEquals("t", QueryResultCache.getModifiedTable("ALTER TABLE t ADD COLUMN c INT"));
+    }
+    
+    public void testGetModifiedTableForOtherStatements() {
+        // Statements which modify several tables.
+        assertNull(QueryResultCache.getModifiedTable("UPDATE t1 JOIN t2 ON t1.a = t2.a SET t2.b = 1"));
+        assertNull(QueryResultCache.getModifiedTable("UPDATE t1, t2 SET t1.a = t2.a"));
+        assertNull(QueryResultCache.getModifiedTable("DELETE a, b FROM a JOIN b ON a.id = b.id"));
+        assertNull(QueryResultCache.getModifiedTable("DELETE a FROM a JOIN b ON a.id = b.id"));
+        assertNull(QueryResultCache.getModifiedTable("DELETE FROM t1, t2 USING t1 JOIN t2"));
+        assertNull(QueryResultCache.getModifiedTable("TRUNCATE TABLE a, b"));
+        assertNull(QueryResultCache.getModifiedTable("TRUNCATE TABLE a CASCADE"));
+        assertNull(QueryResultCache.getModifiedTable("DROP TABLE a, b"));
+        assertNull(QueryResultCache.getModifiedTable("DROP TABLE a CASCADE"));
+        assertNull(QueryResultCache.getModifiedTable("INSERT ALL INTO a VALUES (1) INTO b VALUES (2) SELECT * FROM dual"));
+        assertNull(QueryResultCache.getModifiedTable("ALTER TABLE a SWITCH TO b"));
+        
+        // Keywords which are not table names.
+        assertNull(QueryResultCache.getModifiedTable("UPDATE ONLY t SET a = 1"));
+        assertNull(QueryResultCache.getModifiedTable("UPDATE LOW_PRIORITY t SET a = 1"));
+        assertNull(QueryResultCache.getModifiedTable("DELETE TOP (10) FROM t"));
+        
+        // Several statements, or comments which could hide them.
+        assertNull(QueryResultCache.getModifiedTable("DELETE FROM a; DELETE FROM b"));
+        assertNull(QueryResultCache.getModifiedTable("UPDATE a SET x = 1 -- comment"));
+        assertNull(QueryResultCache.getModifiedTable("UPDATE a /* comment */ SET x = 1"));
+        assertEquals("a", QueryResultCache.getModifiedTable("UPDATE a SET x = '--;/*'"));
+        
+        // Statements which are not recognized.
+        assertNull(QueryResultCache.getModifiedTable("WITH x AS (SELECT 1) INSERT INTO t SELECT * FROM x"));
+        assertNull(QueryResultCache.getModifiedTable("CALL refresh_all()"));
+        assertNull(QueryResultCache.getModifiedTable(""));
+    }
+}
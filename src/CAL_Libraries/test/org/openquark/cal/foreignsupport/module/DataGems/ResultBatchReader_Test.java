@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2007 BUSINESS OBJECTS SOFTWARE LIMITED
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *  
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *  
+ *     * Neither the name of Business Objects nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+/*
+ * ResultBatchReader_Test.java
+ * Creation date: Oct 18, 2026
+ */
+package org.openquark.cal.foreignsupport.module.DataGems;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+import org.openquark.cal.foreignsupport.module.DataGems.JDBCTestUtilities.TestResultSet;
+import org.openquark.cal.foreignsupport.module.DataGems.JDBCTestUtilities.TestStatement;
+import org.openquark.util.time.Time;
+
+
+/**
+ * A set of JUnit test cases for {@link ResultBatchReader}, reading from an in-memory resultset.
+ */
+public class ResultBatchReader_Test extends TestCase {
+
+    /**
+     * Constructor for ResultBatchReader_Test.
+     * @param name the name of the test
+     */
+    public ResultBatchReader_Test(String name) {
+        super(name);
+    }
+    
+    /**
+     * Builds a resultset of the given number of rows, with an INTEGER column holding the row number
+     * and a VARCHAR column holding its string form. Every third value of the VARCHAR column is null.
+     */
+    private static TestResultSet makeNumberedResultSet(int nRows) {
+        Object[][] rows = new Object[nRows][];
+        for (int i = 0; i < nRows; ++i) {
+            rows[i] = new Object[] {Integer.valueOf(i), i % 3 == 0 ? null : String.valueOf(i)};
+        }
+        return new TestResultSet(new int[] {Types.INTEGER, Types.VARCHAR}, rows);
+    }
+    
+    public void testBatching() throws DatabaseException {
+        TestResultSet resultSet = makeNumberedResultSet(10);
+        TestStatement statement = new TestStatement();
+        ResultBatchReader reader = new ResultBatchReader(resultSet.resultSet, statement.statement, 4);
+        
+        int[] expectedSizes = new int[] {4, 4, 2};
+        int nextRow = 0;
+        for (int expectedSize : expectedSizes) {
+            ResultBatch batch = reader.readBatch();
+            assertNotNull(batch);
+            assertEquals(expectedSize, batch.getRowCount());
+            int[] numbers = batch.getIntColumn(1);
+            String[] strings = batch.getStringColumn(2);
+            boolean[] nulls = batch.getNullColumn(2);
+            assertEquals(expectedSize, numbers.length);
+            assertEquals(expectedSize, nulls.length);
+            for (int i = 0; i < expectedSize; ++i, ++nextRow) {
+                assertEquals(nextRow, numbers[i]);
+                assertEquals(nextRow % 3 == 0, nulls[i]);
+                assertEquals(nextRow % 3 == 0 ? "" : String.valueOf(nextRow), strings[i]);
+            }
+        }
+        assertEquals(10, reader.getRowsRead());
+        
+        // The short final batch closes the reader.
+        assertEquals(1, resultSet.closeCount);
+        assertEquals(1, statement.closeCount);
+        assertNull(reader.readBatch());
+        assertEquals(1, resultSet.closeCount);
+    }
+    
+    public void testExactMultipleOfBatchSize() throws DatabaseException {
+        TestResultSet resultSet = makeNumberedResultSet(8);
+        ResultBatchReader reader = new ResultBatchReader(resultSet.resultSet, null, 4);
+        assertEquals(4, reader.readBatch().getRowCount());
+        assertEquals(4, reader.readBatch().getRowCount());
+        assertEquals(0, resultSet.closeCount);
+        assertNull(reader.readBatch());
+        assertEquals(1, resultSet.closeCount);
+        assertEquals(8, reader.getRowsRead());
+    }
+    
+    public void testEmptyResultSet() throws DatabaseException {
+        TestResultSet resultSet = makeNumberedResultSet(0);
+        ResultBatchReader reader = new ResultBatchReader(resultSet.resultSet, null, 0);
+        assertNull(reader.readBatch());
+        assertEquals(1, resultSet.closeCount);
+        assertEquals(0, reader.getRowsRead());
+    }
+    
+    public void testDefaultBatchSize() throws DatabaseException {
+        TestResultSet resultSet = makeNumberedResultSet(ResultBatchReader.DEFAULT_BATCH_SIZE + 1);
+        ResultBatchReader reader = new ResultBatchReader(resultSet.resultSet, null, -1);
+        assertEquals(ResultBatchReader.DEFAULT_BATCH_SIZE, reader.readBatch().getRowCount());
+        assertEquals(1, reader.readBatch().getRowCount());
+    }
+    
+    /**
+     * Tests that rows are only fetched from the resultset when a batch is requested.
+     */
+    public void testRowsAreFetchedOnDemand() throws DatabaseException {
+        TestResultSet resultSet = makeNumberedResultSet(100);
+        ResultBatchReader reader = new ResultBatchReader(resultSet.resultSet, null, 10);
+        assertEquals(0, resultSet.nextCount);
+        reader.readBatch();
+        assertEquals(10, resultSet.nextCount);
+        reader.readBatch();
+        assertEquals(20, resultSet.nextCount);
+        reader.close();
+        assertEquals(1, resultSet.closeCount);
+        assertNull(reader.readBatch());
+    }
+    
+    public void testColumnTypes() throws DatabaseException {
+        Timestamp timestamp = Timestamp.valueOf("2026-10-18 12:34:56");
+        TestResultSet resultSet = new TestResultSet(
+            new int[] {Types.SMALLINT, Types.BIGINT, Types.REAL, Types.DECIMAL, Types.BOOLEAN, Types.TIMESTAMP, Types.CLOB},
+            new Object[][] {
+                {Integer.valueOf(7), Long.valueOf(1L << 40), Double.valueOf(0.5), new BigDecimal("3.25"), Boolean.TRUE, timestamp, "x"},
+                {null, null, null, null, null, null, null}
+            });
+        ResultBatch batch = new ResultBatchReader(resultSet.resultSet, null, 10).readBatch();
+        assertEquals(2, batch.getRowCount());
+        assertEquals(7, batch.getColumnCount());
+        
+        assertTrue(Arrays.equals(new int[] {7, JDBC.Connection.NULL_INT}, batch.getIntColumn(1)));
+        assertTrue(Arrays.equals(new long[] {1L << 40, JDBC.Connection.NULL_LONG}, batch.getLongColumn(2)));
+        assertEquals(0.5, batch.getDoubleColumn(3)[0], 0.0);
+        assertTrue(Double.isNaN(batch.getDoubleColumn(3)[1]));
+        assertTrue(Arrays.equals(new BigDecimal[] {new BigDecimal("3.25"), JDBC.Connection.NULL_DECIMAL}, batch.getDecimalColumn(4)));
+        assertTrue(Arrays.equals(new boolean[] {true, JDBC.Connection.NULL_BOOLEAN}, batch.getBooleanColumn(5)));
+        assertTrue(Arrays.equals(new Time[] {Time.fromTimeStamp(timestamp), JDBC.Connection.NULL_TIME}, batch.getTimeColumn(6)));
+        assertTrue(Arrays.equals(new String[] {"x", JDBC.Connection.NULL_STRING}, batch.getStringColumn(7)));
+        for (int col = 1; col <= 7; ++col) {
+            assertTrue(Arrays.equals(new boolean[] {false, true}, batch.getNullColumn(col)));
+        }
+    }
+    
+    /**
+     * Tests that a read failure closes the reader, and is reported even if closing fails too.
+     */
+    public void testReadFailureIsNotHiddenByCloseFailure() {
+        TestResultSet resultSet = makeNumberedResultSet(10);
+        resultSet.failingRow = 6;
+        resultSet.nextFailure = new SQLException("read failed");
+        resultSet.closeFailure = new SQLException("close failed");
+        TestStatement statement = new TestStatement();
+        ResultBatchReader reader = new ResultBatchReader(resultSet.resultSet, statement.statement, 4);
+        
+        try {
+            assertEquals(4, reader.readBatch().getRowCount());
+            reader.readBatch();
+            fail("The read failure should have been reported");
+        } catch (DatabaseException e) {
+            assertSame(resultSet.nextFailure, e.getCause());
+        }
+        
+        // The statement is closed even though closing the resultset failed.
+        assertEquals(1, resultSet.closeCount);
+        assertEquals(1, statement.closeCount);
+    }
+    
+    public void testCloseFailure() {
+        TestResultSet resultSet = makeNumberedResultSet(10);
+        TestStatement statement = new TestStatement();
+        statement.closeFailure = new SQLException("close failed");
+        ResultBatchReader reader = new ResultBatchReader(resultSet.resultSet, statement.statement, 4);
+        try {
+            reader.close();
+            fail("The close failure should have been reported");
+        } catch (DatabaseException e) {
+            assertSame(statement.closeFailure, e.getCause());
+        }
+        assertEquals(1, resultSet.closeCount);
+        assertEquals(1, statement.closeCount);
+    }
+}
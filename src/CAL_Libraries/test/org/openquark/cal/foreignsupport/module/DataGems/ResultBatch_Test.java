@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2007 BUSINESS OBJECTS SOFTWARE LIMITED
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *  
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *  
+ *     * Neither the name of Business Objects nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+/*
+ * ResultBatch_Test.java
+ * Creation date: Oct 18, 2026
+ */
+package org.openquark.cal.foreignsupport.module.DataGems;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+import org.openquark.util.time.Time;
+
+
+/**
+ * A set of JUnit test cases for the column accessors and conversions of {@link ResultBatch}.
+ */
+public class ResultBatch_Test extends TestCase {
+
+    /**
+     * Constructor for ResultBatch_Test.
+     * @param name the name of the test
+     */
+    public ResultBatch_Test(String name) {
+        super(name);
+    }
+    
+    /**
+     * Builds a batch with one column of each kind. The second of the three rows is null in every column.
+     */
+    private static ResultBatch makeBatch() {
+        int[] kinds = new int[] {
+            ResultBatch.INT_COLUMN, ResultBatch.LONG_COLUMN, ResultBatch.DOUBLE_COLUMN, ResultBatch.BOOLEAN_COLUMN,
+            ResultBatch.DECIMAL_COLUMN, ResultBatch.TIME_COLUMN, ResultBatch.STRING_COLUMN
+        };
+        Object[] values = new Object[] {
+            new int[] {1, JDBC.Connection.NULL_INT, -3},
+            new long[] {10000000000L, JDBC.Connection.NULL_LONG, -5L},
+            new double[] {2.75, JDBC.Connection.NULL_DOUBLE, -1.5},
+            new boolean[] {true, JDBC.Connection.NULL_BOOLEAN, false},
+            new BigDecimal[] {new BigDecimal("12.5"), JDBC.Connection.NULL_DECIMAL, new BigDecimal("-7")},
+            new Time[] {new Time(2026, 10, 18, 12, 0, 0), JDBC.Connection.NULL_TIME, new Time(2000, 1, 1, 0, 0, 0)},
+            new String[] {"a", JDBC.Connection.NULL_STRING, "c"}
+        };
+        boolean[][] nulls = new boolean[kinds.length][];
+        for (int i = 0; i < kinds.length; ++i) {
+            nulls[i] = new boolean[] {false, true, false};
+        }
+        return new ResultBatch(3, kinds, values, nulls);
+    }
+    
+    public void testShape() {
+        ResultBatch batch = makeBatch();
+        assertEquals(3, batch.getRowCount());
+        assertEquals(7, batch.getColumnCount());
+        for (int col = 1; col <= 7; ++col) {
+            assertTrue(Arrays.equals(new boolean[] {false, true, false}, batch.getNullColumn(col)));
+        }
+    }
+    
+    public void testMakeColumnArray() {
+        assertTrue(ResultBatch.makeColumnArray(ResultBatch.INT_COLUMN, 4) instanceof int[]);
+        assertTrue(ResultBatch.makeColumnArray(ResultBatch.LONG_COLUMN, 4) instanceof long[]);
+        assertTrue(ResultBatch.makeColumnArray(ResultBatch.DOUBLE_COLUMN, 4) instanceof double[]);
+        assertTrue(ResultBatch.makeColumnArray(ResultBatch.BOOLEAN_COLUMN, 4) instanceof boolean[]);
+        assertTrue(ResultBatch.makeColumnArray(ResultBatch.DECIMAL_COLUMN, 4) instanceof BigDecimal[]);
+        assertTrue(ResultBatch.makeColumnArray(ResultBatch.TIME_COLUMN, 4) instanceof Time[]);
+        assertTrue(ResultBatch.makeColumnArray(ResultBatch.STRING_COLUMN, 4) instanceof String[]);
+        assertEquals(4, ((int[])ResultBatch.makeColumnArray(ResultBatch.INT_COLUMN, 4)).length);
+    }
+    
+    public void testNativeColumns() throws DatabaseException {
+        ResultBatch batch = makeBatch();
+        assertTrue(Arrays.equals(new int[] {1, JDBC.Connection.NULL_INT, -3}, batch.getIntColumn(1)));
+        assertTrue(Arrays.equals(new long[] {10000000000L, JDBC.Connection.NULL_LONG, -5L}, batch.getLongColumn(2)));
+        
+        double[] doubles = batch.getDoubleColumn(3);
+        assertEquals(2.75, doubles[0], 0.0);
+        assertTrue(Double.isNaN(doubles[1]));
+        assertEquals(-1.5, doubles[2], 0.0);
+        
+        assertTrue(Arrays.equals(new boolean[] {true, false, false}, batch.getBooleanColumn(4)));
+        assertEquals(new BigDecimal("12.5"), batch.getDecimalColumn(5)[0]);
+        assertEquals(new Time(2026, 10, 18, 12, 0, 0), batch.getTimeColumn(6)[0]);
+        assertTrue(Arrays.equals(new String[] {"a", "", "c"}, batch.getStringColumn(7)));
+    }
+    
+    public void testNumericConversions() throws DatabaseException {
+        ResultBatch batch = makeBatch();
+        
+        // Narrowing conversions behave as a Java cast.
+        assertEquals((int)10000000000L, batch.getIntColumn(2)[0]);
+        assertEquals(2, batch.getIntColumn(3)[0]);
+        assertEquals(-1, batch.getIntColumn(3)[2]);
+        assertEquals(12, batch.getIntColumn(5)[0]);
+        assertEquals(2L, batch.getLongColumn(3)[0]);
+        assertEquals(-7L, batch.getLongColumn(5)[2]);
+        
+        // Widening conversions are exact.
+        assertTrue(Arrays.equals(new long[] {1L, JDBC.Connection.NULL_LONG, -3L}, batch.getLongColumn(1)));
+        assertEquals(BigDecimal.valueOf(-3), batch.getDecimalColumn(1)[2]);
+        assertEquals(BigDecimal.valueOf(10000000000L), batch.getDecimalColumn(2)[0]);
+    }
+    
+    public void testNullsBecomeNaNInDoubleColumns() throws DatabaseException {
+        ResultBatch batch = makeBatch();
+        for (int col : new int[] {1, 2, 5}) {
+            double[] doubles = batch.getDoubleColumn(col);
+            assertFalse(Double.isNaN(doubles[0]));
+            assertTrue("column " + col, Double.isNaN(doubles[1]));
+            assertFalse(Double.isNaN(doubles[2]));
+        }
+        assertEquals(12.5, batch.getDoubleColumn(5)[0], 0.0);
+        assertEquals(-3.0, batch.getDoubleColumn(1)[2], 0.0);
+    }
+    
+    public void testNullsBecomeNullValueOfRequestedType() throws DatabaseException {
+        ResultBatch batch = makeBatch();
+        for (int col : new int[] {1, 2, 3, 5}) {
+            assertEquals("column " + col, JDBC.Connection.NULL_INT, batch.getIntColumn(col)[1]);
+            assertEquals("column " + col, JDBC.Connection.NULL_LONG, batch.getLongColumn(col)[1]);
+            assertTrue("column " + col, Double.isNaN(batch.getDoubleColumn(col)[1]));
+        }
+        for (int col : new int[] {1, 2, 5}) {
+            assertEquals("column " + col, JDBC.Connection.NULL_DECIMAL, batch.getDecimalColumn(col)[1]);
+        }
+    }
+    
+    public void testIsNull() {
+        ResultBatch batch = makeBatch();
+        for (int col = 1; col <= 7; ++col) {
+            assertFalse(batch.isNull(0, col));
+            assertTrue(batch.isNull(1, col));
+            assertFalse(batch.isNull(2, col));
+        }
+        
+        // A value equal to the null value of its type is not null.
+        ResultBatch minValueBatch = new ResultBatch(1, new int[] {ResultBatch.INT_COLUMN},
+            new Object[] {new int[] {Integer.MIN_VALUE}}, new boolean[][] {new boolean[] {false}});
+        assertFalse(minValueBatch.isNull(0, 1));
+    }
+    
+    public void testStringConversions() {
+        ResultBatch batch = makeBatch();
+        assertTrue(Arrays.equals(new String[] {"1", "", "-3"}, batch.getStringColumn(1)));
+        assertTrue(Arrays.equals(new String[] {"10000000000", "", "-5"}, batch.getStringColumn(2)));
+        assertTrue(Arrays.equals(new String[] {"2.75", "", "-1.5"}, batch.getStringColumn(3)));
+        assertTrue(Arrays.equals(new String[] {"true", "", "false"}, batch.getStringColumn(4)));
+        assertTrue(Arrays.equals(new String[] {"12.5", "", "-7"}, batch.getStringColumn(5)));
+        assertEquals(new Time(2026, 10, 18, 12, 0, 0).toString(), batch.getStringColumn(6)[0]);
+    }
+    
+    public void testIncompatibleColumns() {
+        ResultBatch batch = makeBatch();
+        assertColumnTypeException(batch, 4, "int");
+        assertColumnTypeException(batch, 6, "int");
+        assertColumnTypeException(batch, 7, "long");
+        assertColumnTypeException(batch, 4, "double");
+        assertColumnTypeException(batch, 1, "boolean");
+        assertColumnTypeException(batch, 3, "decimal");
+        assertColumnTypeException(batch, 7, "time");
+    }
+    
+    /**
+     * Checks that reading a column as the given type fails with a DatabaseException.
+     */
+    private static void assertColumnTypeException(ResultBatch batch, int col, String type) {
+        try {
+            if (type.equals("int")) {
+                batch.getIntColumn(col);
+            } else if (type.equals("long")) {
+                batch.getLongColumn(col);
+            } else if (type.equals("double")) {
+                batch.getDoubleColumn(col);
+            } else if (type.equals("boolean")) {
+                batch.getBooleanColumn(col);
+            } else if (type.equals("decimal")) {
+                batch.getDecimalColumn(col);
+            } else {
+                batch.getTimeColumn(col);
+            }
+            fail("Column " + col + " should not be readable as " + type);
+        } catch (DatabaseException e) {
+            assertTrue(e.getMessage().indexOf(type) >= 0);
+        }
+    }
+}
@@ -221,6 +221,9 @@ import org.openquark.util.TextEncodingUtilities;
  * <dt>org.openquark.cal.machine.g.call_counts
  *   <dd>Defining this generates runtime statistics for function call frequency.");
  * 
+ * <dt>org.openquark.cal.machine.g.uncached_foreign_calls
+ *   <dd>Defining this makes the g machine resolve foreign functions on every call instead of once per call site.
+ * 
  * <dt>org.openquark.cal.machine.lecc.static_runtime 
  *   <dd>if this is defined, the lecc runtime will generate bytecode statically to disk, and load runtime classes from disk.
  *   <dd>if not defined, runtime classes will be generated and provided on demand.
@@ -230,6 +233,9 @@ import org.openquark.util.TextEncodingUtilities;
  * 
  * <dt>org.openquark.cal.machine.lecc.strict_foreign_entity_loading
  *   <dd>if this is defined, foreign entities corresponding to foreign types and foreign functions will be loaded eagerly during deserialization.
+ * 
+ * <dt>org.openquark.cal.machine.lecc.bytecode_cache_directory
+ *   <dd>The value of this variable is a directory in which the dynamic lecc runtime caches generated byte code, to be shared with other workspaces and processes.
  * </dl>
  * 
  * Creation: Aug 19, 2002 at 2:16:12 PM
@@ -5785,6 +5791,9 @@ public class ICE implements Runnable {
             logWrappedEnvironmentSettingsName (LECCMachineConfiguration.USE_LAZY_FOREIGN_ENTITY_LOADING_PROP);
             logWrappedEnvironmentSettingsDescription ("If this is defined, foreign entities corresponding to foreign types and foreign functions will be loaded eagerly during deserialization.");
 
+            logWrappedEnvironmentSettingsName (LECCMachineConfiguration.BYTECODE_CACHE_DIR_PROP);
+            logWrappedEnvironmentSettingsDescription ("The value of this variable is a directory in which the dynamic lecc runtime caches generated byte code, to be shared with other workspaces and processes.");
+
             logWrappedEnvironmentSettingsName(LECCMachineConfiguration.CONCURRENT_RUNTIME_PROP);
             logWrappedEnvironmentSettingsDescription("If this is defined, LECC runtime supports concurrent reduction of CAL programs on a single execution context.");
 
@@ -5795,6 +5804,9 @@ public class ICE implements Runnable {
             logWrappedEnvironmentSettingsName (GMachineConfiguration.CALL_COUNTS_PROP);
             logWrappedEnvironmentSettingsDescription ("Defining this generates runtime statistics for function call frequency.");
 
+            logWrappedEnvironmentSettingsName (GMachineConfiguration.UNCACHED_FOREIGN_CALLS_PROP);
+            logWrappedEnvironmentSettingsDescription ("Defining this makes the G-machine resolve foreign functions on every call instead of once per call site.");
+
         }
     }
     
@@ -6400,11 +6412,15 @@ public class ICE implements Runnable {
                 (System.getProperty(LECCMachineConfiguration.OUTPUT_DIR_PROP) != null ?
                     System.getProperty(LECCMachineConfiguration.OUTPUT_DIR_PROP) : "not defined"));
             logInfo("    Using output directory: " + getWorkspaceManager().getRepository().getLocationString());
+            logInfo(LECCMachineConfiguration.BYTECODE_CACHE_DIR_PROP + " => " + 
+                (System.getProperty(LECCMachineConfiguration.BYTECODE_CACHE_DIR_PROP) != null ?
+                    System.getProperty(LECCMachineConfiguration.BYTECODE_CACHE_DIR_PROP) : "not defined"));
 
         } else
         if (getMachineType() == MachineType.G) {
             logInfo(definedStatusString(GMachineConfiguration.RUNTIME_STATISTICS_PROP));
             logInfo(definedStatusString(GMachineConfiguration.CALL_COUNTS_PROP));
+            logInfo(definedStatusString(GMachineConfiguration.UNCACHED_FOREIGN_CALLS_PROP));
         }
     }
     
@@ -43,6 +43,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
 import java.io.StringReader;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -123,6 +124,9 @@ final class CALCompiler {
     /** The time stamp for the source of the currently compiling module. */
     private long currentModuleTimeStamp;  
     
+    /** If non-null, parses the modules being compiled ahead of the compiler. */
+    private ModuleParseScheduler parseScheduler;
+    
     /** 
      * used to debug the SourceModel model of CAL's source - how this is done depends on 
      * the value of DEBUG_SOURCE_MODEL_TEXT
@@ -269,8 +273,8 @@ final class CALCompiler {
         /** The timestamp from the compiled module source, or -1 if this has not yet been determined. */
         private long timeStamp = -1;
         
-        /** (Set of ModuleName) The imported modules names from the compiled module source, or null if this has not yet been determined. */
-        private Set<ModuleName> importedModuleNames;
+        /** The import information from the compiled module source, or null if this has not yet been determined. */
+        private Module.ImportsInfo importsInfo;
 
         /** The generated code info from the compiled module source, or null if this has not yet been determined. */
         private GeneratedCodeInfo codeInfo;
@@ -290,7 +294,7 @@ final class CALCompiler {
         private void initCompiledDefinitionHeaderInfo() throws IOException {
             
             // Check whether initialization has already occurred.
-            if (importedModuleNames != null) {
+            if (importsInfo != null) {
                 return;
             }
             
@@ -313,7 +317,7 @@ final class CALCompiler {
                 ris.skipRestOfRecord();
 
                 // Read the imports information.
-                this.importedModuleNames = Module.readDependencies(ris);
+                this.importsInfo = Module.readImports(ris);
             
             } finally {
                 try {
@@ -346,7 +350,18 @@ final class CALCompiler {
          */
         Set<ModuleName> getImportedModuleNames() throws IOException {
             initCompiledDefinitionHeaderInfo();
-            return new HashSet<ModuleName>(importedModuleNames);
+            return importsInfo.getImportedModuleNames();
+        }
+        
+        /**
+         * @param importedModuleName the name of an imported module.
+         * @return the interface hash of the imported module which the compiled module source was compiled against,
+         * or null if this was not recorded.
+         * @throws IOException if there was a problem reading the compiled module source.
+         */
+        Long getImportInterfaceHash(ModuleName importedModuleName) throws IOException {
+            initCompiledDefinitionHeaderInfo();
+            return importsInfo.getImportInterfaceHash(importedModuleName);
         }
 
         /**
@@ -828,10 +843,15 @@ final class CALCompiler {
     /**
      * Determine whether a compiled module source is valid by comparing its timestamp
      * to timestamps of the things it depends on.
+     * <p>
+     * An imported module which is more recent than the compiled module source does not invalidate it
+     * if the interface hash of the imported module is the same as the one the compiled module source was compiled against.
+     * 
      * @param compiledDefinitionInfo - the compiledDefinitionInfo for the source being checked
      * @param msd - ModuleSourceDefintion for the current module.
      * @param validCompiledDefinitionInfoMap map from module name to CompiledDefinitionInfo
      * @param importedModules - naming the modules imported by the module being checked
+     * @param allExistingModules - A map of ModuleName -> Module for all currently existing modules.
      * @param sourceDefinitionsInfo info about source definitions to compile
      * @return a status reporting whether if the compiled module source is up to date.
      */
@@ -840,6 +860,7 @@ final class CALCompiler {
             ModuleSourceDefinition msd, 
             Map<ModuleName, CompiledDefinitionInfo> validCompiledDefinitionInfoMap, 
             Set<ModuleName> importedModules,
+            Map<ModuleName, Module> allExistingModules,
             SourceDefinitionsInfo sourceDefinitionsInfo) {
 
         CompiledModuleSourceDefinition cmsd = compiledDefinitionInfo.getCompiledModuleSourceDefinition();
@@ -864,6 +885,19 @@ final class CALCompiler {
         // If the compiled source for any imported module is more recent than the compiled
         // source for this module than the compiled source for this module is not valid.
         for (final ModuleName importName : importedModules) {
+            
+            // If the imported module's interface is the one this module was compiled against,
+            // it doesn't matter whether or when the imported module was recompiled.
+            try {
+                if (isImportInterfaceUnchanged(compiledDefinitionInfo, importName, allExistingModules)) {
+                    continue;
+                }
+            } catch (IOException e) {
+                // Log compiler error message.
+                ModuleName moduleName = cmsd.getModuleName();
+                logMessage(new CompilerMessage(new SourceRange(moduleName), new MessageKind.Fatal.CompilationAbortedDueToInternalModuleLoadingError(moduleName, e.getLocalizedMessage()), e));
+                return new TimestampCheckStatus.ExceptionCaught();
+            }
            
             CompiledDefinitionInfo importCompiledDefinitionInfo = validCompiledDefinitionInfoMap.get(importName);
             
@@ -892,6 +926,38 @@ final class CALCompiler {
         
         return new TimestampCheckStatus.UpToDate();
     }
+    
+    /**
+     * Determine whether the interface of an imported module is the same as the one a compiled module source was compiled against.
+     * @param compiledDefinitionInfo the compiledDefinitionInfo for the source being checked.
+     * @param importName the name of the imported module.
+     * @param allExistingModules a map of ModuleName -> Module for all currently existing modules.
+     * @return true if the imported module exists and has the interface hash recorded in the compiled module source.
+     * False if the interface hash differs, or if either hash is unavailable.
+     * @throws IOException if there was a problem reading the compiled module source.
+     */
+    private static boolean isImportInterfaceUnchanged(CompiledDefinitionInfo compiledDefinitionInfo, ModuleName importName, Map<ModuleName, Module> allExistingModules) throws IOException {
+        if (!areInterfaceHashesChecked()) {
+            return false;
+        }
+        
+        Module importedModule = allExistingModules.get(importName);
+        if (importedModule == null) {
+            return false;
+        }
+        
+        Long recordedInterfaceHash = compiledDefinitionInfo.getImportInterfaceHash(importName);
+        return recordedInterfaceHash != null && recordedInterfaceHash.longValue() == importedModule.getInterfaceHash();
+    }
+    
+    /**
+     * @return whether a compiled module source can remain valid when an imported module is recompiled, as long as the
+     * interface hash of the imported module is unchanged.
+     * This is not the case when the CAL optimizer is enabled, since it may inline definitions across modules.
+     */
+    private static boolean areInterfaceHashesChecked() {
+        return Packager.getOptimizerLevel() == 0;
+    }
 
     /**
      * Load a module from a compiled module source.
@@ -942,21 +1008,25 @@ final class CALCompiler {
                 Set<ModuleName> importedModules = compiledDefinitionInfo.getImportedModuleNames();
 
                 final TimestampCheckStatus compiledModuleTimestampCheckStatus =
-                    isCompiledSourceUpToDate (compiledDefinitionInfo, sourceDef, validCompiledDefinitionInfoMap, importedModules, sourceDefinitionsInfo);
+                    isCompiledSourceUpToDate (compiledDefinitionInfo, sourceDef, validCompiledDefinitionInfoMap, importedModules, allExistingModules, sourceDefinitionsInfo);
                 
                 // If the compiled source is up-to-date, try to load the module.
                 // Otherwise, translate the status from isCompiledSourceUpToDate into an appropriate CompiledModuleLoadStatus to be returned.
                 
                 if (compiledModuleTimestampCheckStatus instanceof TimestampCheckStatus.UpToDate) {
                     
-                    InputStream fis = compiledModuleSourceDefinition.getInputStream(status);
-                    if (fis == null) {
+                    // Read through a mapped buffer if possible.  
+                    // In this case decoding of function expressions is deferred until they are needed.
+                    ByteBuffer mappedContents = compiledModuleSourceDefinition.mapContents();
+                    InputStream fis = (mappedContents == null) ? compiledModuleSourceDefinition.getInputStream(status) : null;
+                    
+                    if (mappedContents == null && fis == null) {
                         logMessage(new CompilerMessage(new SourceRange(moduleName), new MessageKind.Fatal.CompilationAbortedDueToInternalModuleLoadingError(moduleName, " Unable to access backing store.")));
                         return new CompiledModuleLoadStatus.ExceptionCaughtOrInternalError();
 
                     } else {
                         // Get a record import stream.
-                        RecordInputStream rs = new RecordInputStream(fis);
+                        RecordInputStream rs = (mappedContents != null) ? new RecordInputStream(mappedContents) : new RecordInputStream(fis);
 
                         try {
                             Module m = Module.load(rs, allExistingModules, foreignClassLoader, compiledDefinitionInfo.getCodeInfo(), msgLogger);
@@ -1132,6 +1202,11 @@ final class CALCompiler {
             for (final ModuleName brokenParseModuleName : preparseBrokenModuleNameSet) {                
                 addDependentModulesToSet(moduleDependencyGraph, brokenParseModuleName, dependentBrokenModulesSet);
             }
+            
+            // Start parsing the modules which will be compiled from source.
+            parseScheduler = ModuleParseScheduler.make(
+                    getSourceDefinitionsToCompile(moduleNamesInCompileOrder, moduleDependencyGraph, sourceDefinitionsInfo, validCompiledDefinitionInfoMap, 
+                                                  packagedModuleNamesSet, dependentBrokenModulesSet));
 
             //
             // Compile modules in dependency order.
@@ -1139,6 +1214,9 @@ final class CALCompiler {
             for (final ModuleName moduleName : moduleNamesInCompileOrder) {
                 // skip if dependent on a broken module
                 if (dependentBrokenModulesSet.contains(moduleName)) {
+                    if (parseScheduler != null) {
+                        parseScheduler.moduleDone(moduleName);
+                    }
                     continue;
                 }
                 
@@ -1243,7 +1321,8 @@ final class CALCompiler {
                     allExistingModules.put (currentModule.getName(), currentModule);
 
                     // If we're here, the module shouldn't be loaded, which means that any previous CompiledDefinitionInfo for it will be out of date
-                    // Note that because we compile modules in dependency order, modules which depend on this one will also be found to need regeneration.
+                    // Note that because we compile modules in dependency order, modules which depend on this one will also be found to need regeneration,
+                    // unless the module's interface hash is the same as the one they were compiled against.
                     validCompiledDefinitionInfoMap.remove(moduleName);
                     
                 } catch (CompilerMessage.AbortCompilation e) {
@@ -1286,6 +1365,10 @@ final class CALCompiler {
                     }
                 
                 } finally {
+                    if (parseScheduler != null) {
+                        parseScheduler.moduleDone(moduleName);
+                    }
+                    
                     // now replace back the compiler's message logger, after adding all the messages from this module.
                     try {
                         compileModuleLogger.logMessages(msgLogger);
@@ -1327,6 +1410,11 @@ final class CALCompiler {
             }
 
         } finally {
+            if (parseScheduler != null) {
+                parseScheduler.shutdown();
+                parseScheduler = null;
+            }
+            
             msgLogger = oldLogger;
             
             try {
@@ -1355,6 +1443,61 @@ final class CALCompiler {
         return compileLogger.getMaxSeverity();
     }
     
+    /**
+     * Determines which modules will be compiled from source, rather than loaded from their compiled module sources.
+     * These are the modules which have no up-to-date compiled module source and, unless interface hashes are checked,
+     * the modules which depend on them.
+     * 
+     * @param moduleNamesInCompileOrder the names of the modules in the order in which they will be compiled.
+     * @param moduleDependencyGraph the module dependency graph.
+     * @param sourceDefinitionsInfo info for the source definitions to compile.
+     * @param validCompiledDefinitionInfoMap map from module name to the CompiledDefinitionInfo for the module, for modules which may be loaded.
+     * @param packagedModuleNamesSet the names of already packaged modules.
+     * @param dependentBrokenModulesSet the names of modules which are known to be broken.
+     * @return the source definitions of the modules which will be compiled from source, in compilation order.
+     */
+    private static List<ModuleSourceDefinition> getSourceDefinitionsToCompile(
+            ModuleName[] moduleNamesInCompileOrder,
+            Graph<ModuleName> moduleDependencyGraph,
+            SourceDefinitionsInfo sourceDefinitionsInfo,
+            Map<ModuleName, CompiledDefinitionInfo> validCompiledDefinitionInfoMap,
+            Set<ModuleName> packagedModuleNamesSet,
+            Set<ModuleName> dependentBrokenModulesSet) {
+        
+        Set<ModuleName> modulesToCompile = new HashSet<ModuleName>();
+        List<ModuleSourceDefinition> result = new ArrayList<ModuleSourceDefinition>();
+        
+        for (final ModuleName moduleName : moduleNamesInCompileOrder) {
+            
+            if (dependentBrokenModulesSet.contains(moduleName) || packagedModuleNamesSet.contains(moduleName)) {
+                continue;
+            }
+            
+            ModuleSourceDefinition sourceDef = sourceDefinitionsInfo.getDefinition(moduleName);
+            if (sourceDef == null || sourceDefinitionsInfo.isEmptyModuleSource(sourceDef)) {
+                continue;
+            }
+            
+            if (!modulesToCompile.contains(moduleName)) {
+                CompiledDefinitionInfo compiledDefinitionInfo = validCompiledDefinitionInfoMap.get(moduleName);
+                if (compiledDefinitionInfo != null && compiledDefinitionInfo.getCompiledModuleSourceDefinition().getTimeStamp() >= sourceDef.getTimeStamp()) {
+                    // The module will probably be loaded.  If not, the compiler will parse it itself.
+                    continue;
+                }
+                
+                // Once this module is compiled, the compiled module sources of its dependents will be out of date.
+                // If interface hashes are checked, they will probably still be loaded, since most changes leave the interface alone.
+                if (!areInterfaceHashesChecked()) {
+                    addDependentModulesToSet(moduleDependencyGraph, moduleName, modulesToCompile);
+                }
+            }
+            
+            result.add(sourceDef);
+        }
+        
+        return result;
+    }
+    
     /**
      * Adds the dependent modules of the given module to a set.
      * @param moduleDependencyGraph the graph.
@@ -1384,11 +1527,23 @@ final class CALCompiler {
         this.currentModuleTimeStamp = sourceDef.getTimeStamp();
         
         int nErrorsBefore = msgLogger.getNErrors();
+        
+        long startTime = System.currentTimeMillis();
+        long parseTimeMillis;
 
         //
-        // Parse the module's source definition.
+        // Parse the module's source definition, or take it from the parse scheduler if it has been parsed ahead.
         //
-        Pair<ParseTreeNode, SourceModel.ModuleDefn> parseResultPair = parseModule(sourceDef);
+        Pair<ParseTreeNode, SourceModel.ModuleDefn> parseResultPair;
+        ModuleParseScheduler.ParsedModule parsedModule = (parseScheduler == null) ? null : parseScheduler.takeParsedModule(moduleName);
+        if (parsedModule != null) {
+            msgLogger.logMessages(parsedModule.getMessageLogger());
+            parseResultPair = parsedModule.getParseResult();
+            parseTimeMillis = parsedModule.getParseTimeMillis();
+        } else {
+            parseResultPair = parseModule(sourceDef);
+            parseTimeMillis = System.currentTimeMillis() - startTime;
+        }
 
         // Check for parse failure.
         if (msgLogger.getNErrors() > nErrorsBefore) {
@@ -1438,6 +1593,8 @@ final class CALCompiler {
         // Notify the packager that the module is done.
         //
         packager.wrapModule(msgLogger);     // throws PackagerException..
+        
+        packager.setModuleTiming(moduleName, parseTimeMillis, System.currentTimeMillis() - startTime);
 
         // Return whether the module compiled successfully.
         return (msgLogger.getNErrors() == nErrorsBefore);
@@ -1827,6 +1984,35 @@ final class CALCompiler {
         return new Pair<ParseTreeNode, SourceModel.ModuleDefn>(moduleDefnNode, moduleDefnSourceModel);
     }
     
+    /**
+     * Parse a module from its source definition, for the parse scheduler.
+     * Messages are logged to a new logger for the module rather than to the compiler's message logger.
+     * 
+     * @param sourceDef the module's source definition.
+     * @return the result of parsing the module.
+     */
+    ModuleParseScheduler.ParsedModule parseModuleForScheduler(ModuleSourceDefinition sourceDef) {
+        
+        CompilerMessageLogger oldLogger = msgLogger;
+        CompilerMessageLogger parseLogger = new MessageLogger(true);
+        msgLogger = parseLogger;
+        
+        long startTime = System.currentTimeMillis();
+        Pair<ParseTreeNode, SourceModel.ModuleDefn> parseResultPair = null;
+        try {
+            parseResultPair = parseModule(sourceDef);
+            
+        } catch (CompilerMessage.AbortCompilation e) {
+            // The messages which caused the abort are in the logger, and will abort the compilation 
+            // when they are copied into the compiler's logger.
+            
+        } finally {
+            msgLogger = oldLogger;
+        }
+        
+        return new ModuleParseScheduler.ParsedModule(parseResultPair, parseLogger, System.currentTimeMillis() - startTime);
+    }
+    
     /**
      * Compile an adjunct from an AdjunctSource.
      * @param adjunctSource the adjunct source to compile.
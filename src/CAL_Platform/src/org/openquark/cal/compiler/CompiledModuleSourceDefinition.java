@@ -37,6 +37,9 @@
  */
 package org.openquark.cal.compiler;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
 import org.openquark.cal.services.CALFeatureName;
 import org.openquark.cal.services.ResourceIdentifier;
 import org.openquark.cal.services.WorkspaceResource;
@@ -75,4 +78,16 @@ public abstract class CompiledModuleSourceDefinition extends WorkspaceResource {
     public final ModuleName getModuleName() {
         return moduleName;
     }
+    
+    /**
+     * Map the compiled module definition into memory, if it can be.
+     * Reading through a mapped buffer avoids copying the definition onto the heap, and allows parts of it to be decoded later on demand.
+     * 
+     * @return a read-only buffer on the compiled module definition, or null if the definition cannot be mapped.
+     * In that case the definition should be read through {@link #getInputStream}.
+     * @throws IOException if there was a problem mapping the definition.
+     */
+    public ByteBuffer mapContents() throws IOException {
+        return null;
+    }
 }
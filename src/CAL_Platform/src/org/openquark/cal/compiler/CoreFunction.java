@@ -130,6 +130,12 @@ public final class CoreFunction {
     
     private Expression expression;          
     
+    /**
+     * Where to find the serialized expression, if decoding it has been deferred until it is first needed.
+     * Null if the expression has been decoded or set, or was never deferred.
+     */
+    private volatile DeferredExpression deferredExpression;
+    
     private long timeStamp;
 
     /** true if this core function contains a fully saturated call to itself. */
@@ -556,6 +562,10 @@ public final class CoreFunction {
                 literalValue = null;
             }
         }
+        
+        // Any deferred expression is superseded.
+        // Note: this must come after the expression is set, for the benefit of getExpression() on other threads.
+        deferredExpression = null;
     }
     
     
@@ -579,9 +589,38 @@ public final class CoreFunction {
      * @return Expression
      */
     public Expression getExpression () {
+        if (deferredExpression != null) {
+            decodeDeferredExpression();
+        }
         return expression;
     }
     
+    /**
+     * Decode the expression whose decoding was deferred when this CoreFunction was loaded.
+     */
+    private synchronized void decodeDeferredExpression() {
+        DeferredExpression deferred = deferredExpression;
+        if (deferred == null) {
+            // Decoded on another thread.
+            return;
+        }
+        
+        MessageLogger logger = new MessageLogger();
+        Expression expr;
+        try {
+            expr = Expression.load (deferred.stream.openAt(deferred.bookmark), deferred.moduleTypeInfo, logger);
+            
+        } catch (IOException e) {
+            throw new IllegalStateException("Error loading the expression for " + name.getQualifiedName() + ": " + e.getLocalizedMessage(), e);
+        }
+        
+        if (logger.getNErrors() > 0) {
+            throw new IllegalStateException("Error loading the expression for " + name.getQualifiedName() + ": " + logger.getFirstError().getMessage());
+        }
+        
+        setExpression (expr);
+    }
+    
     /**
      * Return the timestamp associated with this record.
      * @return long
@@ -648,6 +687,17 @@ public final class CoreFunction {
      * @throws IOException
      */
     public final void write (RecordOutputStream s) throws IOException {
+        write(s, true);
+    }
+    
+    /**
+     * Write this instance of CoreFunction to the RecordOutputStream.
+     * @param s
+     * @param includeTimeStamp if false, 0 is written in place of the time stamp.  This is for output which identifies
+     * the definition of the function rather than persisting it, since the time stamp does not affect the definition.
+     * @throws IOException
+     */
+    public final void write (RecordOutputStream s, boolean includeTimeStamp) throws IOException {
         s.startRecord (ModuleSerializationTags.CORE_FUNCTION, serializationSchema);
 
         // name
@@ -703,7 +753,7 @@ public final class CoreFunction {
         }
         
         // timestamp
-        s.writeLong (timeStamp);
+        s.writeLong (includeTimeStamp ? timeStamp : 0);
         
         s.writeShortCompressed(connectedComponents.size());
         for (final String componentName : connectedComponents) {
@@ -756,7 +806,7 @@ public final class CoreFunction {
         s.writeBoolean(isForAdjunct);
         s.writeBoolean(hadUnsafeCoerce);
         
-        expression.write(s);
+        getExpression().write(s);
         
         s.endRecord ();
     }
@@ -893,8 +943,15 @@ public final class CoreFunction {
             }
             
             if (mti.getModule().mustLoadExpressions()) {
-                Expression expr = Expression.load (s, mti, msgLogger);
-                cf.setExpression (expr);
+                if (s.isBufferBacked()) {
+                    // The expression can be read again from the buffer later, so don't decode it until it's needed.
+                    // Often only a small fraction of a module's functions are ever run.
+                    cf.deferredExpression = new DeferredExpression(s, s.bookmark(), mti);
+                    
+                } else {
+                    Expression expr = Expression.load (s, mti, msgLogger);
+                    cf.setExpression (expr);
+                }
             }
             
             return cf;
@@ -970,4 +1027,24 @@ public final class CoreFunction {
     public void setHadUnsafeCoerce(){
         hadUnsafeCoerce = true;
     }
+    
+    /**
+     * The location of a serialized expression whose decoding has been deferred.
+     */
+    private static final class DeferredExpression {
+        /** The stream from which the CoreFunction was loaded.  This must be backed by a buffer. */
+        private final RecordInputStream stream;
+        
+        /** The position of the expression record in the stream. */
+        private final RecordInputStream.Bookmark bookmark;
+        
+        /** The type info for the module containing the function. */
+        private final ModuleTypeInfo moduleTypeInfo;
+        
+        DeferredExpression(RecordInputStream stream, RecordInputStream.Bookmark bookmark, ModuleTypeInfo moduleTypeInfo) {
+            this.stream = stream;
+            this.bookmark = bookmark;
+            this.moduleTypeInfo = moduleTypeInfo;
+        }
+    }
 }
\ No newline at end of file
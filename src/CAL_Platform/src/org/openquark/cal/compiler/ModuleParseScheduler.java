@@ -0,0 +1,312 @@
+/*
+ * Copyright (c) 2007 BUSINESS OBJECTS SOFTWARE LIMITED
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *  
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *  
+ *     * Neither the name of Business Objects nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+/*
+ * ModuleParseScheduler.java
+ * Creation date: (Oct 18, 2026)
+ */
+package org.openquark.cal.compiler;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openquark.util.Pair;
+
+
+/**
+ * Parses the source definitions of modules on a bounded pool of threads, ahead of the
+ * compiler's type checking and code generation of those modules.
+ * <p>
+ * Parsing a module depends only on its source, so the modules in a compilation can be parsed in any order
+ * and at the same time.  Type checking and code generation on the other hand depend on the type info of the imported
+ * modules, and go through the packager's current module, so the CALCompiler still does them one module at a time in
+ * dependency order.  The scheduler is given the modules to be compiled from source in that order and keeps a limited
+ * number of them parsing or parsed ahead of the compiler, since parse trees are potentially very bulky objects.
+ * <p>
+ * Each worker thread parses with its own CALCompiler, and logs to a separate logger for each module.  The compiler
+ * copies these messages into its own logger when it takes the parsed module, so that messages are reported in the same
+ * order as for a sequential compilation.
+ * <p>
+ * This class is not thread-safe: only the compiling thread should call its methods.
+ */
+final class ModuleParseScheduler {
+    
+    /**
+     * System property for the number of threads used to parse modules ahead of type checking.
+     * If this is 0 the compiler parses each module itself, just before type checking it.
+     * If not defined, one less than the number of available processors is used.
+     */
+    static final String PARSE_THREADS_PROP = "org.openquark.cal.compiler.parse_threads";
+    
+    /** The maximum number of modules that each thread may have parsing or parsed ahead of the compiler. */
+    private static final int MODULES_AHEAD_PER_THREAD = 2;
+    
+    /** Used to number the parse threads. */
+    private static final AtomicInteger threadCount = new AtomicInteger();
+    
+    /** The number of modules parsed on a parse thread and taken by the compiler.  For testing. */
+    private static final AtomicInteger nParsedModulesTaken = new AtomicInteger();
+    
+    /**
+     * The result of parsing a module on a parse thread.
+     */
+    static final class ParsedModule {
+        
+        /** The parse tree node and source model for the module.  As returned by CALCompiler.parseModule(). */
+        private final Pair<ParseTreeNode, SourceModel.ModuleDefn> parseResult;
+        
+        /** The messages logged while parsing the module. */
+        private final CompilerMessageLogger messageLogger;
+        
+        /** The time taken to parse the module. */
+        private final long parseTimeMillis;
+        
+        ParsedModule(Pair<ParseTreeNode, SourceModel.ModuleDefn> parseResult, CompilerMessageLogger messageLogger, long parseTimeMillis) {
+            this.parseResult = parseResult;
+            this.messageLogger = messageLogger;
+            this.parseTimeMillis = parseTimeMillis;
+        }
+        
+        /**
+         * @return the parse tree node and source model for the module.
+         * Null if the module source could not be read.  If parsing failed, one or both elements of the pair may be null.
+         */
+        Pair<ParseTreeNode, SourceModel.ModuleDefn> getParseResult() {
+            return parseResult;
+        }
+        
+        /**
+         * @return the messages logged while parsing the module.
+         */
+        CompilerMessageLogger getMessageLogger() {
+            return messageLogger;
+        }
+        
+        /**
+         * @return the time taken to parse the module, in milliseconds.
+         */
+        long getParseTimeMillis() {
+            return parseTimeMillis;
+        }
+    }
+    
+    /** The threads doing the parsing. */
+    private final ExecutorService threadPool;
+    
+    /** The compiler used by each of the parse threads. */
+    private final ThreadLocal<CALCompiler> parseThreadCompiler = new ThreadLocal<CALCompiler>() {
+        @Override
+        protected CALCompiler initialValue() {
+            return new CALCompiler();
+        }
+    };
+    
+    /** The source definitions which have yet to be handed to the thread pool, in compilation order. */
+    private final LinkedList<ModuleSourceDefinition> unscheduledSourceDefinitions;
+    
+    /** Map from module name to the pending parse for modules handed to the thread pool but not yet taken by the compiler. */
+    private final Map<ModuleName, Future<ParsedModule>> scheduledParses = new HashMap<ModuleName, Future<ParsedModule>>();
+    
+    /** The maximum size of scheduledParses. */
+    private final int maxScheduled;
+    
+    /**
+     * Private constructor.  Instances are created with make().
+     * @param sourceDefinitions the source definitions of the modules to parse, in compilation order.
+     * @param nThreads the number of parse threads.
+     */
+    private ModuleParseScheduler(List<ModuleSourceDefinition> sourceDefinitions, int nThreads) {
+        
+        this.unscheduledSourceDefinitions = new LinkedList<ModuleSourceDefinition>(sourceDefinitions);
+        this.maxScheduled = nThreads * MODULES_AHEAD_PER_THREAD;
+        
+        this.threadPool = new ThreadPoolExecutor(nThreads, nThreads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "CAL module parser " + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        
+        scheduleParses();
+    }
+    
+    /**
+     * Creates a scheduler to parse the given modules, if parsing on separate threads is enabled and worthwhile.
+     * @param sourceDefinitions the source definitions of the modules to parse, in the order in which they will be compiled.
+     * @return a new scheduler, or null if the modules should be parsed by the compiler as it reaches them.
+     */
+    static ModuleParseScheduler make(List<ModuleSourceDefinition> sourceDefinitions) {
+        
+        int nThreads = getNParseThreads();
+        
+        // There's no gain from parsing ahead unless there are at least two modules to parse.
+        if (nThreads <= 0 || sourceDefinitions.size() < 2) {
+            return null;
+        }
+        
+        return new ModuleParseScheduler(sourceDefinitions, Math.min(nThreads, sourceDefinitions.size()));
+    }
+    
+    /**
+     * @return the number of parse threads to use, as set by the PARSE_THREADS_PROP system property.
+     */
+    private static int getNParseThreads() {
+        String nThreadsString = System.getProperty(PARSE_THREADS_PROP);
+        if (nThreadsString != null) {
+            try {
+                return Integer.parseInt(nThreadsString.trim());
+            } catch (NumberFormatException e) {
+                CALCompiler.COMPILER_LOGGER.warning("Invalid value for " + PARSE_THREADS_PROP + ": " + nThreadsString);
+            }
+        }
+        return Runtime.getRuntime().availableProcessors() - 1;
+    }
+    
+    /**
+     * @return the number of modules which have been parsed on a parse thread and taken by the compiler
+     * since the class was loaded.  For testing.
+     */
+    static int getNParsedModulesTaken() {
+        return nParsedModulesTaken.get();
+    }
+    
+    /**
+     * Hand source definitions to the thread pool until the maximum number of modules are scheduled.
+     */
+    private void scheduleParses() {
+        while (scheduledParses.size() < maxScheduled && !unscheduledSourceDefinitions.isEmpty()) {
+            
+            final ModuleSourceDefinition sourceDef = unscheduledSourceDefinitions.removeFirst();
+            
+            Future<ParsedModule> parse = threadPool.submit(new Callable<ParsedModule>() {
+                public ParsedModule call() {
+                    return parseThreadCompiler.get().parseModuleForScheduler(sourceDef);
+                }
+            });
+            
+            scheduledParses.put(sourceDef.getModuleName(), parse);
+        }
+    }
+    
+    /**
+     * Takes the result of parsing the given module, waiting for the parse to finish if necessary.
+     * @param moduleName the name of the module.
+     * @return the parsed module, or null if the module has not been handed to the thread pool.  In this case the
+     * caller should parse the module itself.
+     */
+    ParsedModule takeParsedModule(ModuleName moduleName) {
+        
+        Future<ParsedModule> parse = scheduledParses.remove(moduleName);
+        if (parse == null) {
+            return null;
+        }
+        
+        // A slot has opened up.
+        scheduleParses();
+        
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    ParsedModule parsedModule = parse.get();
+                    nParsedModulesTaken.incrementAndGet();
+                    return parsedModule;
+                
+                } catch (InterruptedException e) {
+                    // Keep waiting, but remember to restore the interrupt status.
+                    interrupted = true;
+                }
+            }
+            
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            } else if (cause instanceof Error) {
+                throw (Error)cause;
+            }
+            throw new IllegalStateException("Unexpected exception parsing module " + moduleName + ": " + cause);
+            
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
+    /**
+     * Notifies the scheduler that the compiler is done with the given module.
+     * If the module was not taken (for instance because it was loaded from a compiled module or depends on a broken module)
+     * its parse is abandoned, so that it doesn't prevent later modules from being parsed ahead.
+     * @param moduleName the name of the module.
+     */
+    void moduleDone(ModuleName moduleName) {
+        
+        Future<ParsedModule> parse = scheduledParses.remove(moduleName);
+        
+        if (parse != null) {
+            parse.cancel(false);
+            scheduleParses();
+            
+        } else {
+            // Make sure we don't parse it later.
+            for (final Iterator<ModuleSourceDefinition> it = unscheduledSourceDefinitions.iterator(); it.hasNext(); ) {
+                if (it.next().getModuleName().equals(moduleName)) {
+                    it.remove();
+                    break;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Stops the parse threads.  Any parses which have not been taken are abandoned.
+     */
+    void shutdown() {
+        threadPool.shutdownNow();
+        scheduledParses.clear();
+        unscheduledSourceDefinitions.clear();
+    }
+}
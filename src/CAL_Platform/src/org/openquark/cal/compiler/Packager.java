@@ -270,6 +270,21 @@ public abstract class Packager {
         }
     }
     
+    /**
+     * Informs any interested status listeners of the time taken to compile a module from source.
+     * @param name the name of the module.
+     * @param parseTimeMillis the time taken to parse the module.  The module may have been parsed on another thread.
+     * @param compileTimeMillis the time taken by the compiler to compile the module, including any time spent
+     * parsing or waiting for the module to be parsed.
+     */
+    void setModuleTiming(ModuleName name, long parseTimeMillis, long compileTimeMillis) {
+        for (final StatusListener l : statusListeners) {
+            if (l instanceof StatusListener.ModuleTimingListener) {
+                ((StatusListener.ModuleTimingListener)l).setModuleTiming(name, parseTimeMillis, compileTimeMillis);
+            }
+        }
+    }
+    
     /**
      * Return the compiled program object.
      */
@@ -37,8 +37,12 @@
  */
 package org.openquark.cal.internal.machine;
 
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
 import org.openquark.cal.compiler.CompiledModuleSourceDefinition;
 import org.openquark.cal.compiler.ModuleName;
@@ -52,6 +56,27 @@ import org.openquark.cal.services.Status;
  * @author rcypher
  */
 public class RepositoryResourceCompiledModuleSourceDefinition extends CompiledModuleSourceDefinition {
+    
+    /**
+     * The system property which controls whether compiled module files are memory-mapped when they are loaded.
+     * Set this to "false" to read them through streams instead.
+     * <p>
+     * By default files are mapped, except on Windows, where a file cannot be replaced while it is mapped.
+     * This would prevent a module from being recompiled while the previously loaded version is still in use.
+     */
+    public static final String MAP_COMPILED_MODULES_PROP = "org.openquark.cal.machine.map_compiled_modules";
+    
+    /** Whether compiled module files should be mapped. */
+    private static final boolean MAP_COMPILED_MODULES;
+    static {
+        String mapProperty = System.getProperty(MAP_COMPILED_MODULES_PROP);
+        if (mapProperty != null) {
+            MAP_COMPILED_MODULES = !mapProperty.equals("false");
+        } else {
+            String osName = System.getProperty("os.name");
+            MAP_COMPILED_MODULES = osName == null || !osName.startsWith("Windows");
+        }
+    }
 
     /** The locator for the compiled source definition */
     private ProgramResourceLocator.File fileLocator;
@@ -96,6 +121,31 @@ public class RepositoryResourceCompiledModuleSourceDefinition extends CompiledMo
         return null;
     }
     
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ByteBuffer mapContents() throws IOException {
+        if (!MAP_COMPILED_MODULES || fileLocator == null) {
+            return null;
+        }
+        
+        // Only resources in the file system can be mapped.  For instance, resources in a Car cannot.
+        File file = repository.getFile(fileLocator);
+        if (file == null || !file.isFile()) {
+            return null;
+        }
+        
+        // The mapping remains valid after the channel is closed.
+        FileInputStream fis = new FileInputStream(file);
+        try {
+            FileChannel channel = fis.getChannel();
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } finally {
+            fis.close();
+        }
+    }
+    
     /**
      * {@inheritDoc}
      */
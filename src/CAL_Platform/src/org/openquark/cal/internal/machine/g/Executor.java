@@ -56,7 +56,6 @@ import org.openquark.cal.compiler.DataConstructor;
 import org.openquark.cal.compiler.Expression;
 import org.openquark.cal.compiler.ForeignFunctionInfo;
 import org.openquark.cal.compiler.QualifiedName;
-import org.openquark.cal.compiler.UnableToResolveForeignEntityException;
 import org.openquark.cal.compiler.io.EntryPoint;
 import org.openquark.cal.internal.machine.DynamicRuntimeEnvironment;
 import org.openquark.cal.internal.machine.EntryPointImpl;
@@ -66,7 +65,6 @@ import org.openquark.cal.machine.MachineFunction;
 import org.openquark.cal.machine.Program;
 import org.openquark.cal.machine.StatsGenerator;
 import org.openquark.cal.machine.StatsGenerator.StatsObject;
-import org.openquark.cal.module.Cal.Core.CAL_Prelude;
 import org.openquark.cal.runtime.CALExecutorException;
 import org.openquark.cal.runtime.CalValue;
 import org.openquark.cal.runtime.ExecutionContext;
@@ -89,6 +87,7 @@ public class Executor implements CALExecutor {
     static boolean EXEC_DIAG = false;  // At some point we will want to make this a final value.
     static boolean RUNTIME_STATS = System.getProperty (GMachineConfiguration.RUNTIME_STATISTICS_PROP) != null;
     static final boolean CALL_COUNTS = System.getProperty(GMachineConfiguration.CALL_COUNTS_PROP) != null;
+    static final boolean UNCACHED_FOREIGN_CALLS = System.getProperty(GMachineConfiguration.UNCACHED_FOREIGN_CALLS_PROP) != null;
     
     // Turn on space use diagnostics.
     static final boolean SPACE_DIAG = false;
@@ -249,11 +248,37 @@ public class Executor implements CALExecutor {
     
     /**
      * Do the ForeignSCCall state transition.
+     * Foreign methods, fields and constructors are called through the invoker cached on the instruction,
+     * so that the reflective lookups and the choice of result node are only done once per call site.
+     * @param instruction the foreign function call instruction
+     * @throws CALExecutorException
+     */
+    void i_foreignSCCall(Instruction.I_ForeignFunctionCall instruction) throws CALExecutorException {
+        
+        final ForeignFunctionInfo foreignFunctionInfo = (ForeignFunctionInfo)instruction.getInfo();
+        
+        if (!UNCACHED_FOREIGN_CALLS) {
+            final ForeignFunctionInfo.JavaKind kind = foreignFunctionInfo.getJavaKind();
+            if (kind.isMethod() || kind.isField() || kind.isConstructor()) {
+                try {
+                    instruction.getInvoker().invoke(this);
+                    return;
+                } catch (Exception e) {
+                    throw makeForeignCallException(foreignFunctionInfo, e);
+                }
+            }
+        }
+        
+        i_foreignSCCall(foreignFunctionInfo);
+    }
+    
+    /**
+     * Do the ForeignSCCall state transition, resolving the foreign function on each call.
      * Creation date: (May 3, 2002)
      * @param foreignFunctionInfo ForeignFunctionInfo
      * @throws CALExecutorException
      */
-    void i_foreignSCCall(ForeignFunctionInfo foreignFunctionInfo) throws CALExecutorException {
+    private void i_foreignSCCall(ForeignFunctionInfo foreignFunctionInfo) throws CALExecutorException {
 
         // NOTE: Generally speaking arguments to foreign functions need to be unboxed before the
         // foreign function is invoked.  However, some foreign functions take arguments of
@@ -475,32 +500,31 @@ public class Executor implements CALExecutor {
                 throw new IllegalStateException("unrecognized kind " + kind);
             }
             
-        } catch (java.lang.reflect.InvocationTargetException e) {
+        } catch (Exception e) {
+            throw makeForeignCallException(foreignFunctionInfo, e);
+        }
+    }
+    
+    /**
+     * Wraps an exception thrown while calling a foreign function.
+     * @param foreignFunctionInfo the foreign function being called
+     * @param e the exception thrown
+     * @return the CALExecutorException to throw.
+     */
+    private static CALExecutorException makeForeignCallException(ForeignFunctionInfo foreignFunctionInfo, Exception e) {
+        
+        if (e instanceof java.lang.reflect.InvocationTargetException) {
             
             Throwable targetException = e.getCause();
-            throw new CALExecutorException.ExternalException.ForeignOrPrimitiveFunctionException("The exception " + targetException.getClass().getName() + " occurred while calling " + foreignFunctionInfo.getCalName() + ".", targetException);         
+            return new CALExecutorException.ExternalException.ForeignOrPrimitiveFunctionException("The exception " + targetException.getClass().getName() + " occurred while calling " + foreignFunctionInfo.getCalName() + ".", targetException);         
             
-        } catch (IllegalAccessException e) {
+        } else if (e instanceof IllegalAccessException) {
             
-            throw new CALExecutorException.ExternalException.ForeignOrPrimitiveFunctionException("The foreign function " + foreignFunctionInfo.getCalName() + " is not accessible.", e);
-            
-        } catch (InstantiationException e) {
-            
-            throw new CALExecutorException.ExternalException.ForeignOrPrimitiveFunctionException("An exception occurred while calling " + foreignFunctionInfo.getCalName() + ".", e);
-            
-        } catch (ClassCastException e) {
-            
-            throw new CALExecutorException.ExternalException.ForeignOrPrimitiveFunctionException("An exception occurred while calling " + foreignFunctionInfo.getCalName() + ".", e);
-            
-        } catch (UnableToResolveForeignEntityException e) {
-            
-            throw new CALExecutorException.ExternalException.ForeignOrPrimitiveFunctionException("An exception occurred while calling " + foreignFunctionInfo.getCalName() + ".", e);
-            
-        } catch (Exception e) {
-            
-            throw new CALExecutorException.ExternalException.ForeignOrPrimitiveFunctionException("An exception occurred while calling " + foreignFunctionInfo.getCalName() + ".", e);
+            return new CALExecutorException.ExternalException.ForeignOrPrimitiveFunctionException("The foreign function " + foreignFunctionInfo.getCalName() + " is not accessible.", e);
             
         }
+        
+        return new CALExecutorException.ExternalException.ForeignOrPrimitiveFunctionException("An exception occurred while calling " + foreignFunctionInfo.getCalName() + ".", e);
     }
     
     /**
@@ -576,41 +600,7 @@ public class Executor implements CALExecutor {
      * @param result
      */
     private void pushForeignResult (Class<?> returnType, Object result) {
-        if (result == null && (returnType == Void.TYPE || returnType.getName().equals("void"))) {
-            // We treat Unit as an enum data type so it is simply the int value of zero.
-            stack.push(new NValInt(0));
-            return;
-        }
-        
-        if (returnType == boolean.class) {
-            stack.pushBoolean(((Boolean)result).booleanValue());           
-        } else 
-        if (returnType == double.class) {
-            stack.pushDouble (((Double)result).doubleValue());
-        } else 
-        if (returnType == char.class) {
-            stack.pushChar (((Character)result).charValue());
-        } else 
-        if (returnType == int.class) {
-            stack.pushInt (((Integer)result).intValue ());
-        } else 
-        if (returnType == long.class) {
-            stack.pushLong (((Long)result).longValue());
-        } else 
-        if (returnType == short.class) {
-            stack.pushShort(((Short)result).shortValue());
-        } else 
-        if (returnType == byte.class) {
-            stack.pushByte (((Byte)result).byteValue());
-        } else 
-        if (returnType == float.class) {
-            stack.pushFloat (((Float)result).floatValue());
-        } else 
-        if (returnType == CalValue.class) {
-            stack.push ((Node)result);
-        } else {
-            stack.push (new NValObject(result));
-        }
+        ForeignFunctionInvoker.pushResult(stack, ForeignFunctionInvoker.getResultKind(returnType), result);
     }
     
     /**    
@@ -640,21 +630,7 @@ public class Executor implements CALExecutor {
      * @return the foreign argument value.
      */
     private Object getForeignArgument(Class<?> argType) {
-        Node n = stack.pop();
-        Object argValue = n;
-        if (argType != CalValue.class) {
-            if (n instanceof NVal) {
-                argValue = n.getValue ();
-            }
-            
-            if (argValue instanceof DataConstructor) {
-                if (((DataConstructor)argValue).getName().equals(CAL_Prelude.TypeConstructors.CalValue)) {
-                    argValue = n;
-                }
-            }
-        }
-        
-        return argValue;
+        return ForeignFunctionInvoker.getArgument(stack, argType != CalValue.class);
     }
       
     /**    
@@ -701,7 +677,7 @@ public class Executor implements CALExecutor {
             break;
             
             case Instruction.T_ForeignFunctionCall:
-                i_foreignSCCall((ForeignFunctionInfo)inst.getInfo());
+                i_foreignSCCall((Instruction.I_ForeignFunctionCall)inst);
             break;
             
             case Instruction.T_ClearStack:
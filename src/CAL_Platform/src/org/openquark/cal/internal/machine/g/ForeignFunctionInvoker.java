@@ -0,0 +1,296 @@
+/*
+ * Copyright (c) 2007 BUSINESS OBJECTS SOFTWARE LIMITED
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *  
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *  
+ *     * Neither the name of Business Objects nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+/*
+ * ForeignFunctionInvoker.java
+ * Created: Oct 18, 2026
+ */
+package org.openquark.cal.internal.machine.g;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import org.openquark.cal.compiler.DataConstructor;
+import org.openquark.cal.compiler.ForeignFunctionInfo;
+import org.openquark.cal.compiler.UnableToResolveForeignEntityException;
+import org.openquark.cal.module.Cal.Core.CAL_Prelude;
+import org.openquark.cal.runtime.CalValue;
+
+
+/**
+ * A ForeignFunctionInvoker is the pre-resolved form of a foreign method, field or constructor
+ * call site in the g-machine.
+ * <p>
+ * Everything about a foreign call which depends only on the ForeignFunctionInfo is worked out once
+ * when the invoker is created: the reflective proxy is fetched and made accessible if required, the
+ * arguments which are passed through as CalValue (rather than unboxed) are recorded, and the
+ * Java return type is reduced to a result kind.  Invoking a call site then only needs to pop the
+ * arguments, perform the reflective call and switch on the result kind to push the matching NVal node.
+ * <p>
+ * Invokers are created lazily by {@link Instruction.I_ForeignFunctionCall#getInvoker()}, and are
+ * immutable so that they can be shared by all executors running the same program.
+ */
+final class ForeignFunctionInvoker {
+    
+    /*
+     * Result kinds.  These determine the type of node pushed for the result of the call.
+     */
+    private static final int R_UNIT = 0;
+    private static final int R_BOOLEAN = 1;
+    private static final int R_CHAR = 2;
+    private static final int R_BYTE = 3;
+    private static final int R_SHORT = 4;
+    private static final int R_INT = 5;
+    private static final int R_LONG = 6;
+    private static final int R_FLOAT = 7;
+    private static final int R_DOUBLE = 8;
+    private static final int R_CALVALUE = 9;
+    private static final int R_OBJECT = 10;
+    
+    /** The foreign method, if this invoker is for a method call. */
+    private final Method method;
+    
+    /** The foreign field, if this invoker is for a field access. */
+    private final Field field;
+    
+    /** The foreign constructor, if this invoker is for a constructor call. */
+    private final Constructor<?> constructor;
+    
+    /** True if the foreign entity is static (i.e. there is no instance argument on the stack). */
+    private final boolean isStatic;
+    
+    /** 
+     * unboxArgument[i] is true if the i-th Java argument should be unboxed before the call.
+     * Arguments of type CalValue are passed as the graph node itself. 
+     */
+    private final boolean[] unboxArgument;
+    
+    /** True if the instance argument (for non-static methods and fields) should be unboxed. */
+    private final boolean unboxInstance;
+    
+    /** One of the R_* constants, determined by the Java return type. */
+    private final int resultKind;
+    
+    private ForeignFunctionInvoker(Method method, Field field, Constructor<?> constructor, boolean isStatic, 
+                                   Class<?>[] argTypes, Class<?> instanceType, Class<?> returnType) {
+        this.method = method;
+        this.field = field;
+        this.constructor = constructor;
+        this.isStatic = isStatic;
+        
+        unboxArgument = new boolean[argTypes.length];
+        for (int i = 0; i < argTypes.length; ++i) {
+            unboxArgument[i] = argTypes[i] != CalValue.class;
+        }
+        unboxInstance = instanceType != CalValue.class;
+        
+        resultKind = getResultKind(returnType);
+    }
+    
+    /**
+     * Builds the invoker for a foreign function call site.
+     * @param foreignFunctionInfo
+     * @return the invoker, or null if the foreign function is not a method, field or constructor.  Other
+     *    kinds of foreign function (casts, array operations etc.) are handled directly by the Executor.
+     * @throws UnableToResolveForeignEntityException
+     */
+    static ForeignFunctionInvoker make(ForeignFunctionInfo foreignFunctionInfo) throws UnableToResolveForeignEntityException {
+        
+        final ForeignFunctionInfo.JavaKind kind = foreignFunctionInfo.getJavaKind();
+        
+        if (kind.isMethod()) {
+            
+            final ForeignFunctionInfo.Invocation invocationInfo = (ForeignFunctionInfo.Invocation)foreignFunctionInfo;
+            final Method method = (Method)invocationInfo.getJavaProxy();
+            
+            if (invocationInfo.getInvocationClass() != method.getDeclaringClass()) {
+                //if package scope class A defines public method f (static or non-static), and public class B extends A,
+                //we want to call B.f and not A.f. There is no way to do this via reflection, so we explicitly disable
+                //Java language access controls in this case.
+                method.setAccessible(true);
+            }
+            
+            return new ForeignFunctionInvoker(method, null, null, kind.isStatic(), method.getParameterTypes(), method.getDeclaringClass(), method.getReturnType());
+            
+        } else if (kind.isField()) {
+            
+            final ForeignFunctionInfo.Invocation invocationInfo = (ForeignFunctionInfo.Invocation)foreignFunctionInfo;
+            final Field field = (Field)invocationInfo.getJavaProxy();
+            
+            if (invocationInfo.getInvocationClass() != field.getDeclaringClass()) {
+                //see the comment for methods above.
+                field.setAccessible(true);
+            }
+            
+            return new ForeignFunctionInvoker(null, field, null, kind.isStatic(), new Class<?>[0], field.getDeclaringClass(), field.getType());
+            
+        } else if (kind.isConstructor()) {
+            
+            final ForeignFunctionInfo.Invocation invocationInfo = (ForeignFunctionInfo.Invocation)foreignFunctionInfo;
+            final Constructor<?> constructor = (Constructor<?>)invocationInfo.getJavaProxy();
+            
+            return new ForeignFunctionInvoker(null, null, constructor, true, constructor.getParameterTypes(), null, constructor.getDeclaringClass());
+        }
+        
+        return null;
+    }
+    
+    /**
+     * Pops the arguments of the foreign call off the executor's stack, performs the call and pushes the result.
+     * @param executor
+     * @throws IllegalAccessException
+     * @throws InvocationTargetException
+     * @throws InstantiationException
+     */
+    void invoke(Executor executor) throws IllegalAccessException, InvocationTargetException, InstantiationException {
+        
+        final Executor.GStack stack = executor.stack;
+        
+        // Note: arguments on the stack are in the reverse of the order that they are expected,
+        // and the instance object (if any) is below the arguments.
+        final int nArgs = unboxArgument.length;
+        final Object[] args = new Object[nArgs];
+        for (int i = nArgs - 1; i >= 0; --i) {
+            args[i] = getArgument(stack, unboxArgument[i]);
+        }
+        
+        final Object instanceObject = isStatic ? null : getArgument(stack, unboxInstance);
+        
+        final Object result;
+        if (method != null) {
+            result = method.invoke(instanceObject, args);
+        } else if (field != null) {
+            result = field.get(instanceObject);
+        } else {
+            result = constructor.newInstance(args);
+        }
+        
+        pushResult(stack, resultKind, result);
+    }
+    
+    /**
+     * Retrieve a foreign argument off the top of the stack, unboxing it if required.
+     * @param stack
+     * @param unbox false if the argument is of type CalValue.
+     * @return the foreign argument value.
+     */
+    static Object getArgument(Executor.GStack stack, boolean unbox) {
+        final Node n = stack.pop();
+        if (!unbox) {
+            return n;
+        }
+        
+        final Object argValue = (n instanceof NVal) ? n.getValue() : n;
+        if (argValue instanceof DataConstructor 
+            && ((DataConstructor)argValue).getName().equals(CAL_Prelude.TypeConstructors.CalValue)) {
+            return n;
+        }
+        
+        return argValue;
+    }
+    
+    /**
+     * @param returnType the Java return type of a foreign call.
+     * @return the R_* constant used to push a result of the given type.
+     */
+    static int getResultKind(Class<?> returnType) {
+        if (returnType == void.class) {
+            return R_UNIT;
+        } else if (returnType == boolean.class) {
+            return R_BOOLEAN;
+        } else if (returnType == char.class) {
+            return R_CHAR;
+        } else if (returnType == byte.class) {
+            return R_BYTE;
+        } else if (returnType == short.class) {
+            return R_SHORT;
+        } else if (returnType == int.class) {
+            return R_INT;
+        } else if (returnType == long.class) {
+            return R_LONG;
+        } else if (returnType == float.class) {
+            return R_FLOAT;
+        } else if (returnType == double.class) {
+            return R_DOUBLE;
+        } else if (returnType == CalValue.class) {
+            return R_CALVALUE;
+        }
+        return R_OBJECT;
+    }
+    
+    /**
+     * Wrap the result of a foreign call in the node type for the given result kind and push it onto the stack.
+     * @param stack
+     * @param resultKind one of the R_* constants.
+     * @param result
+     */
+    static void pushResult(Executor.GStack stack, int resultKind, Object result) {
+        switch (resultKind) {
+            case R_UNIT:
+                // We treat Unit as an enum data type so it is simply the int value of zero.
+                stack.push(new NValInt(0));
+                break;
+            case R_BOOLEAN:
+                stack.pushBoolean(((Boolean)result).booleanValue());
+                break;
+            case R_CHAR:
+                stack.pushChar(((Character)result).charValue());
+                break;
+            case R_BYTE:
+                stack.pushByte(((Byte)result).byteValue());
+                break;
+            case R_SHORT:
+                stack.pushShort(((Short)result).shortValue());
+                break;
+            case R_INT:
+                stack.pushInt(((Integer)result).intValue());
+                break;
+            case R_LONG:
+                stack.pushLong(((Long)result).longValue());
+                break;
+            case R_FLOAT:
+                stack.pushFloat(((Float)result).floatValue());
+                break;
+            case R_DOUBLE:
+                stack.pushDouble(((Double)result).doubleValue());
+                break;
+            case R_CALVALUE:
+                stack.push((Node)result);
+                break;
+            default:
+                stack.push(new NValObject(result));
+                break;
+        }
+    }
+}
@@ -58,4 +58,10 @@ public class GMachineConfiguration {
      */
     public static final String CALL_COUNTS_PROP = "org.openquark.cal.machine.g.call_counts";
     
+    /**
+     * System property for resolving foreign functions on every call, rather than once per call site.
+     * This is mainly useful for measuring the benefit of the per call site caching.
+     */
+    public static final String UNCACHED_FOREIGN_CALLS_PROP = "org.openquark.cal.machine.g.uncached_foreign_calls";
+    
 }
@@ -44,6 +44,7 @@ import java.util.Map;
 import org.openquark.cal.compiler.DataConstructor;
 import org.openquark.cal.compiler.ForeignFunctionInfo;
 import org.openquark.cal.compiler.QualifiedName;
+import org.openquark.cal.compiler.UnableToResolveForeignEntityException;
 import org.openquark.cal.internal.serialization.ModuleSerializationTags;
 import org.openquark.cal.internal.serialization.RecordOutputStream;
 import org.openquark.cal.machine.CALExecutor;
@@ -1624,12 +1625,31 @@ abstract class Instruction {
      */
     static class I_ForeignFunctionCall extends Instruction {
         
+        /** 
+         * The pre-resolved form of the foreign call.  This is created the first time the instruction is executed.
+         * Racing threads may each create an invoker, but they are equivalent so it doesn't matter which one is kept.
+         */
+        private volatile ForeignFunctionInvoker invoker;
+        
         /**
          * @param foreignSCInfo ForeignFunctionInfo 
          */
         I_ForeignFunctionCall(ForeignFunctionInfo foreignSCInfo) {
             super (T_ForeignFunctionCall, foreignSCInfo);
         }
+        
+        /**
+         * @return the invoker for this call site, or null if the foreign function is not a method, field or constructor.
+         * @throws UnableToResolveForeignEntityException
+         */
+        ForeignFunctionInvoker getInvoker() throws UnableToResolveForeignEntityException {
+            ForeignFunctionInvoker result = invoker;
+            if (result == null) {
+                result = ForeignFunctionInvoker.make((ForeignFunctionInfo)getInfo());
+                invoker = result;
+            }
+            return result;
+        }
 
         /**
          * Provide description of instruction.
@@ -0,0 +1,291 @@
+/*
+ * Copyright (c) 2007 BUSINESS OBJECTS SOFTWARE LIMITED
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *  
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *  
+ *     * Neither the name of Business Objects nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+/*
+ * BytecodeCache.java
+ * Created: Oct 18, 2026
+ */
+
+package org.openquark.cal.internal.machine.lecc;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import org.openquark.cal.compiler.ModuleTypeInfo;
+import org.openquark.cal.internal.runtime.lecc.LECCMachineConfiguration;
+import org.openquark.cal.internal.serialization.RecordOutputStream;
+import org.openquark.cal.machine.Module;
+import org.openquark.util.NakedByteArrayOutputStream;
+
+
+/**
+ * A content-addressed cache on disk of the bytecode generated for CAL modules, which can be shared by the workspaces
+ * and processes on a machine.  When the bytecode for a class is needed, the dynamic runtime looks in this cache before
+ * generating the class, and saves what it generates to the cache.  A process starting up with a warm cache can then
+ * skip code generation entirely.
+ * <p>
+ * The classes for a module are filed under a key which is a digest of the code generation settings, the compiled
+ * definition of the module, and the keys of the modules it imports.  The interface hash of an imported module is not
+ * enough, since the generated code also depends on details of the imported module which don't affect its interface,
+ * such as the function groups (and so the classes) in which its functions are generated.  Since the key of a module
+ * includes the keys of its imports, it changes when any module it depends on, directly or indirectly, is changed.
+ * Anything which changes the generated code therefore changes the key, so that entries never need to be invalidated:
+ * stale entries are just never looked up again.
+ * <p>
+ * The cache is only used with the dynamic runtime.  The static runtime has its own generated files in the workspace,
+ * and also disambiguates truncated class names with a counter which is not the same from one process to the next.
+ * Adjunct classes are not cached.
+ * <p>
+ * Each class is written to a temporary file which is then renamed to its place in the cache, so that a reader in
+ * this or another process never sees a partially-written file.  The processes which generate the same class write the
+ * same bytes, so it doesn't matter which one wins.  Each file also records the name of its class, so that a file which
+ * can't be read back, or which turns out to belong to another class (e.g. on a case-insensitive file system), is treated
+ * as a miss.  Problems reading or writing the cache are never reported: the class is just generated as usual.
+ * <p>
+ * The cache is enabled by setting the system property {@link LECCMachineConfiguration#BYTECODE_CACHE_DIR_PROP}
+ * to the directory to use.  Nothing is ever removed from the directory, so it should be cleared out from time to time.
+ */
+final class BytecodeCache {
+    
+    /** Marks the start of each class file in the cache. */
+    private static final int FILE_MAGIC = 0x4C454343;
+    
+    /** The extension of the class files in the cache. */
+    private static final String CLASS_FILE_EXTENSION = ".class";
+    
+    /** The prefix for the temporary files in the cache, while they are being written. */
+    private static final String TEMP_FILE_PREFIX = "lecc";
+    
+    /** The instance used by the runtime, or null if the cache is not used. */
+    private static final BytecodeCache instance = makeInstance();
+    
+    /** The root directory of the cache. */
+    private final File rootDirectory;
+    
+    /**
+     * Constructor for a BytecodeCache.
+     * @param rootDirectory the root directory of the cache.
+     */
+    BytecodeCache(File rootDirectory) {
+        if (rootDirectory == null) {
+            throw new NullPointerException();
+        }
+        this.rootDirectory = rootDirectory;
+    }
+    
+    /**
+     * @return the cache to use according to the machine configuration, or null if the cache is not used.
+     */
+    private static BytecodeCache makeInstance() {
+        String directoryName = LECCMachineConfiguration.bytecodeCacheDirectory();
+        if (directoryName == null || directoryName.length() == 0 ||
+            !LECCMachineConfiguration.generateBytecode() || LECCMachineConfiguration.isLeccRuntimeStatic()) {
+            return null;
+        }
+        return new BytecodeCache(new File(directoryName));
+    }
+    
+    /**
+     * @return the cache used by the runtime, or null if the cache is not used.
+     */
+    static BytecodeCache getInstance() {
+        return instance;
+    }
+    
+    /**
+     * Compute the key under which the classes of a module are filed in the cache.
+     * @param module the module.
+     * @return the key, or null if the definition of the module or of a module it depends on could not be written out.
+     */
+    static String computeModuleKey(LECCModule module) {
+        // The keys of the imported modules.  These are computed once per module, so computing the key of each module
+        // in a workspace only writes out the definition of each module once.
+        ModuleTypeInfo moduleTypeInfo = module.getModuleTypeInfo();
+        int nImports = moduleTypeInfo.getNImportedModules();
+        String[] importedModuleKeys = new String[nImports];
+        for (int i = 0; i < nImports; ++i) {
+            Module importedModule = moduleTypeInfo.getNthImportedModule(i).getModule();
+            if (!(importedModule instanceof LECCModule)) {
+                return null;
+            }
+            importedModuleKeys[i] = ((LECCModule)importedModule).getBytecodeCacheKey();
+            if (importedModuleKeys[i] == null) {
+                return null;
+            }
+        }
+        
+        NakedByteArrayOutputStream bos = new NakedByteArrayOutputStream(8192);
+        RecordOutputStream ros = new RecordOutputStream(bos);
+        try {
+            // The code generation settings.  These do not include a source time stamp since no module is given.
+            CodeGenerator.getNewCodeInfo(null).write(ros);
+            ros.writeBoolean(LECCMachineConfiguration.useLazyForeignEntityLoading());
+            
+            // The compiled definition of the module.
+            module.writeDefinition(ros);
+            
+            // The keys of the imported modules, in import order.
+            ros.writeInt(nImports);
+            for (final String importedModuleKey : importedModuleKeys) {
+                ros.writeUTF(importedModuleKey);
+            }
+            ros.close();
+            
+        } catch (IOException e) {
+            return null;
+        }
+        
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-1.
+            throw new IllegalStateException("SHA-1 is not available: " + e.getLocalizedMessage());
+        }
+        digest.update(bos.getByteArray(), 0, bos.getCount());
+        
+        byte[] bytes = digest.digest();
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (final byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+            sb.append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+    
+    /**
+     * Look up the bytecode for a class in the cache.
+     * @param moduleKey the key of the module to which the class belongs.
+     * @param unqualifiedClassName the unqualified name of the class.
+     * @return the bytecode for the class, or null if it is not in the cache.
+     */
+    byte[] lookup(String moduleKey, String unqualifiedClassName) {
+        File classFile = getClassFile(moduleKey, unqualifiedClassName);
+        
+        DataInputStream dis;
+        try {
+            dis = new DataInputStream(new BufferedInputStream(new FileInputStream(classFile)));
+        } catch (FileNotFoundException e) {
+            return null;
+        }
+        
+        try {
+            if (dis.readInt() != FILE_MAGIC || !dis.readUTF().equals(unqualifiedClassName)) {
+                return null;
+            }
+            int length = dis.readInt();
+            if (length < 0 || length > classFile.length()) {
+                return null;
+            }
+            byte[] bytecode = new byte[length];
+            dis.readFully(bytecode);
+            return bytecode;
+            
+        } catch (IOException e) {
+            return null;
+            
+        } finally {
+            try {
+                dis.close();
+            } catch (IOException e) {
+                // Ignore this particular exception
+            }
+        }
+    }
+    
+    /**
+     * Save the bytecode for a class to the cache, unless it is already there.
+     * @param moduleKey the key of the module to which the class belongs.
+     * @param unqualifiedClassName the unqualified name of the class.
+     * @param bytecode the bytecode for the class.
+     */
+    void store(String moduleKey, String unqualifiedClassName, byte[] bytecode) {
+        File classFile = getClassFile(moduleKey, unqualifiedClassName);
+        if (classFile.exists()) {
+            return;
+        }
+        
+        File moduleDirectory = classFile.getParentFile();
+        File tempFile = null;
+        try {
+            // Another process may be creating the directory at the same time.
+            if (!moduleDirectory.mkdirs() && !moduleDirectory.isDirectory()) {
+                return;
+            }
+            tempFile = File.createTempFile(TEMP_FILE_PREFIX, null, moduleDirectory);
+            
+            DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile), bytecode.length + 256));
+            try {
+                dos.writeInt(FILE_MAGIC);
+                dos.writeUTF(unqualifiedClassName);
+                dos.writeInt(bytecode.length);
+                dos.write(bytecode);
+            } finally {
+                dos.close();
+            }
+            
+            // If this fails, the class has most likely been saved in the meantime by another process.
+            if (tempFile.renameTo(classFile)) {
+                tempFile = null;
+            }
+            
+        } catch (IOException e) {
+            // The class will just be generated again next time.
+            
+        } finally {
+            if (tempFile != null) {
+                tempFile.delete();
+            }
+        }
+    }
+    
+    /**
+     * @param moduleKey the key of the module to which a class belongs.
+     * @param unqualifiedClassName the unqualified name of the class.
+     * @return the file in which the bytecode for the class is cached.
+     */
+    private File getClassFile(String moduleKey, String unqualifiedClassName) {
+        // Spread the module directories over subdirectories named by the first two characters of their keys,
+        // so that no one directory grows too large.
+        File moduleDirectory = new File(new File(rootDirectory, moduleKey.substring(0, 2)), moduleKey);
+        return new File(moduleDirectory, unqualifiedClassName + CLASS_FILE_EXTENSION);
+    }
+}
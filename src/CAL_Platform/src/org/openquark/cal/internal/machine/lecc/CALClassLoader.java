@@ -50,11 +50,14 @@ import java.nio.channels.ReadableByteChannel;
 import java.security.ProtectionDomain;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.Vector;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.zip.DataFormatException;
 import java.util.zip.Inflater;
 import java.util.zip.ZipEntry;
@@ -87,6 +90,12 @@ import org.openquark.cal.runtime.ExecutionContext;
  * CALClassLoader.loadClass() checks for a class itself before delegating to its parent's loadClass() method.  The parent
  * may or may not follow the regular delegation model (depending mostly on whether or not the parent is another instance
  * of CALClassLoader).
+ * 
+ * <P>Where the platform supports it (Java 7 and later), the loader is registered as parallel capable, and class loading
+ * is not serialized on the class loader instance.  Instead, loading and defining a class is guarded by a lock for the
+ * class name, so that threads asking for different classes can generate and define them at the same time.
+ * On earlier platforms the VM locks the loader instance when it loads classes through it, so class loading is guarded
+ * by the loader instance as well, since locking only the class name could deadlock with the VM's locking.
  */
 final class CALClassLoader extends ClassLoader {
     private static final boolean DEBUG_OUTPUT = false;
@@ -94,6 +103,33 @@ final class CALClassLoader extends ClassLoader {
     static final boolean PERFORM_TIMING = false;
     
     private static final boolean DUMP_LOADED_CLASS_NAMES = false;
+    
+    /** Whether this class loader class is registered with the VM as parallel capable. */
+    private static final boolean PARALLEL_CAPABLE = tryRegisterAsParallelCapable();
+    
+    /**
+     * Registers this class loader class as parallel capable, if the platform supports it.
+     * ClassLoader.registerAsParallelCapable() was added in Java 7, so it is invoked reflectively.
+     * It has to be called from the static initializer of the class loader class being registered.
+     * @return whether the class loader class was registered.
+     */
+    private static boolean tryRegisterAsParallelCapable() {
+        try {
+            Method registerMethod = ClassLoader.class.getDeclaredMethod("registerAsParallelCapable", new Class[0]);
+            registerMethod.setAccessible(true);
+            return Boolean.TRUE.equals(registerMethod.invoke(null, new Object[0]));
+            
+        } catch (NoSuchMethodException e) {
+            // Not available on this platform.  Class loading through this loader will be serialized by the VM.
+        } catch (IllegalAccessException e) {
+            // Not registered.
+        } catch (InvocationTargetException e) {
+            // Not registered.
+        } catch (SecurityException e) {
+            // Not registered.
+        }
+        return false;
+    }
 
     /** The file extension for generated class files. */
     private static final String CLASS_FILE_EXTENSION = ".class";
@@ -116,13 +152,24 @@ final class CALClassLoader extends ClassLoader {
     /** The module for which the classloader is responsible for loading classes. */ 
     private final LECCModule module;
     
-    /** classes which are generated for an adjunct to the module. 
+    /** classes which are generated for an adjunct to the module, as the keys of a map to Boolean.TRUE.
      * This should always be empty for a module loader. */
-    private final Set<String> adjunctClasses;
+    private final Map<String, Boolean> adjunctClasses;
     
-    /** A list used to track the classes already loaded by this class loader. 
-     * Note: We use a vector because it is a synchronized list. */
-    private final List<Class<?>> loadedClasses = new Vector<Class<?>>();
+    /** A queue used to track the classes already loaded by this class loader. */
+    private final Queue<Class<?>> loadedClasses = new ConcurrentLinkedQueue<Class<?>>();
+    
+    /** 
+     * Map from class name to the lock object used to guard the loading and definition of the class.
+     * Only used if the loader is parallel capable.  Entries are removed once their class has been loaded.
+     */
+    private final ConcurrentMap<String, Object> classLoadingLocks = new ConcurrentHashMap<String, Object>();
+    
+    /** 
+     * Map from class name to bytecode which has been generated (or looked up) ahead of the definition of the class, 
+     * by generateClassDataAhead().  Entries are removed when the class is defined.
+     */
+    private final ConcurrentMap<String, byte[]> generatedClassData = new ConcurrentHashMap<String, byte[]>();
 
     /** Flag indicating if this class loader is responsible for adjunct classes. */
     private final boolean adjunctLoader;
@@ -133,19 +180,19 @@ final class CALClassLoader extends ClassLoader {
     private final Inflater inflater = new Inflater();
     
     /** The number of classes loaded by this class loader. */
-    private int nClassesLoaded = 0;
+    private final AtomicInteger nClassesLoaded = new AtomicInteger();
     
     /** The number of bytes loaded by this class loader. */
-    private int nBytesLoaded = 0;
+    private final AtomicInteger nBytesLoaded = new AtomicInteger();
     
     /** The number of milliseconds spent in generating class file data. */
-    private long generateClassDataTimeMS = 0;
+    private final AtomicLong generateClassDataTimeMS = new AtomicLong();
     
     /** The number of milliseconds spent in looking up class file data. */
-    private long lookupClassDataTimeMS = 0;
+    private final AtomicLong lookupClassDataTimeMS = new AtomicLong();
     
     /** The number of milliseconds spent in findClass(). */
-    private long findClassTimeMS = 0;
+    private final AtomicLong findClassTimeMS = new AtomicLong();
 
     /*
      * The following are objects which are relatively expensive to construct, are not small, and cannot be accessed synchronously.
@@ -235,7 +282,7 @@ final class CALClassLoader extends ClassLoader {
         }
         
         this.adjunctLoader = false;
-        adjunctClasses = Collections.<String>emptySet();
+        adjunctClasses = Collections.<String, Boolean>emptyMap();
     }
     
     private CALClassLoader (ProgramResourceRepository resourceRepository, ProgramResourceLocator moduleParentLocator, CALClassLoader parent, LECCModule module) {
@@ -246,7 +293,7 @@ final class CALClassLoader extends ClassLoader {
         this.module = module;
         
         dependeeModuleLoaders = Collections.emptyMap();
-        adjunctClasses = Collections.synchronizedSet(new HashSet<String>());
+        adjunctClasses = new ConcurrentHashMap<String, Boolean>();
     }
 
     /**
@@ -279,7 +326,7 @@ final class CALClassLoader extends ClassLoader {
         }
         
         // The adjunct loader should only return the class if it's in the set of adjunct classes.
-        if (adjunctLoader && !adjunctClasses.contains(name) && (name.indexOf('$') < 0 || !adjunctClasses.contains(name.substring(0, name.indexOf('$'))))) {
+        if (adjunctLoader && !adjunctClasses.containsKey(name) && (name.indexOf('$') < 0 || !adjunctClasses.containsKey(name.substring(0, name.indexOf('$'))))) {
             throw new ClassNotFoundException();
         }
         
@@ -292,7 +339,11 @@ final class CALClassLoader extends ClassLoader {
         // Check if we handle this package.
         if (classModuleName.equals(getModuleName())) {
 
-            byte[] data = getBytecodeForClassInternal(name);
+            // Use the bytecode generated ahead of time, if any.
+            byte[] data = generatedClassData.remove(name);
+            if (data == null) {
+                data = getBytecodeForClassInternal(name);
+            }
             
             // Instantiate the class.
             if (data == null) {
@@ -303,8 +354,8 @@ final class CALClassLoader extends ClassLoader {
             }
             // Increment the number of classes and bytes loaded
 
-            nClassesLoaded++;
-            nBytesLoaded += data.length;
+            nClassesLoaded.incrementAndGet();
+            nBytesLoaded.addAndGet(data.length);
             
             Class<?> c = defineClass(name, data, 0, data.length);
             
@@ -313,7 +364,7 @@ final class CALClassLoader extends ClassLoader {
             
             if (PERFORM_TIMING) {
                 long afterFindClass = System.currentTimeMillis();
-                findClassTimeMS += (afterFindClass - beforeFindClass);
+                findClassTimeMS.addAndGet(afterFindClass - beforeFindClass);
             }
             
             if (DUMP_LOADED_CLASS_NAMES) {
@@ -355,7 +406,7 @@ final class CALClassLoader extends ClassLoader {
                 final long before = System.currentTimeMillis();
                 data = lookupClassData(className);
                 final long after = System.currentTimeMillis();
-                lookupClassDataTimeMS += (after - before);
+                lookupClassDataTimeMS.addAndGet(after - before);
                 
             } else {
                 data = lookupClassData(className);
@@ -370,17 +421,32 @@ final class CALClassLoader extends ClassLoader {
                 throw new ClassNotFoundException("Unable to find class: " + className);
             }
             final String unqualifiedClassName = className.substring(lastPeriodIndex + 1);
+            
+            // Look in the shared bytecode cache first.  Adjunct classes are not cached.
+            final BytecodeCache bytecodeCache = adjunctLoader ? null : BytecodeCache.getInstance();
+            final String moduleKey = bytecodeCache == null ? null : module.getBytecodeCacheKey();
+            if (moduleKey != null) {
+                final byte[] cachedData = bytecodeCache.lookup(moduleKey, unqualifiedClassName);
+                if (cachedData != null) {
+                    return cachedData;
+                }
+            }
+            
             try {
                 
                 if (PERFORM_TIMING) {
                     final long before = System.currentTimeMillis();
                     data = LECCJavaBytecodeGenerator.generateClassData(module, unqualifiedClassName);
                     final long after = System.currentTimeMillis();
-                    generateClassDataTimeMS += (after - before);
+                    generateClassDataTimeMS.addAndGet(after - before);
                     
                 } else {
                     data = LECCJavaBytecodeGenerator.generateClassData(module, unqualifiedClassName);
                 }
+                
+                if (moduleKey != null && data != null) {
+                    bytecodeCache.store(moduleKey, unqualifiedClassName, data);
+                }
             
             } catch (final CodeGenerationException e) {
                 // Badness occurred.  This is a runtime exception.
@@ -416,10 +482,50 @@ final class CALClassLoader extends ClassLoader {
             // We want to use the module class loader, and not the adjunct class loader, for fetching the bytecode.
             return ((CALClassLoader)getParent()).getBytecodeForClass(className);
         } else {
+            byte[] data = generatedClassData.get(className);
+            if (data != null) {
+                return data;
+            }
             return getBytecodeForClassInternal(className);
         }
     }
     
+    /**
+     * Generates (or looks up) the bytecode for the specified class ahead of its definition, so that a later request to
+     * load the class only needs to define it.  This is meant to be called by the {@link CALClassPreloader}, 
+     * possibly on several threads at once.
+     * 
+     * @param className the class for which bytecode is to be fetched/generated.
+     * @return the bytecode for the specified class, or null if the class has already been defined, 
+     * or is not a class of this loader's module.
+     * @throws ClassNotFoundException
+     */
+    byte[] generateClassDataAhead(final String className) throws ClassNotFoundException {
+        if (adjunctLoader) {
+            // Classes reachable from entry points are module classes, which are defined by the module class loader.
+            return ((CALClassLoader)getParent()).generateClassDataAhead(className);
+        }
+        
+        if (!getModuleName().equals(CALToJavaNames.getModuleNameFromPackageName(className))) {
+            return null;
+        }
+        
+        synchronized (getClassNameLock(className)) {
+            if (findLoadedClass(className) != null) {
+                return null;
+            }
+            
+            byte[] data = generatedClassData.get(className);
+            if (data == null) {
+                data = getBytecodeForClassInternal(className);
+                if (data != null) {
+                    generatedClassData.put(className, data);
+                }
+            }
+            return data;
+        }
+    }
+    
     /**
      * Returns the representation for the specified class. This is meant to be called by the {@link StandaloneJarBuilder}
      * to generate the source for classes required for building a standalone jar.
@@ -458,25 +564,66 @@ final class CALClassLoader extends ClassLoader {
      * In fact, this is safer, since we don't want other parts of the system to define lecc classes.
      */
     @Override
-    protected synchronized Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
-        // First, check if the class has already been loaded
-        Class<?> c = findLoadedClass(name);
-        if (c == null) {
-            try {
-                // Look in this classloader first..
-                c = findClass(name);
-                
-            } catch (ClassNotFoundException e) {
-                // Not found by this classloader.  Delegate to parent's loadClass().
-                c = getParent().loadClass(name);
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        Object lock = getClassNameLock(name);
+        synchronized (lock) {
+            // First, check if the class has already been loaded
+            Class<?> c = findLoadedClass(name);
+            if (c == null) {
+                try {
+                    // Look in this classloader first..
+                    c = findClass(name);
+                    
+                } catch (ClassNotFoundException e) {
+                    // Not found by this classloader.  Delegate to parent's loadClass().
+                    c = getParent().loadClass(name);
+                }
+            }
+            
+            if (resolve) {
+                resolveClass(c);
             }
+            
+            discardClassNameLock(name, lock);
+            return c;
         }
-        
-        if (resolve) {
-            resolveClass(c);
+    }
+    
+    /**
+     * Returns the lock object guarding the loading and definition of the named class by this class loader.
+     * Note: this serves the same purpose as ClassLoader.getClassLoadingLock() in Java 7.
+     * @param className the name of the class.
+     * @return the lock object for the class name, or the loader itself if the loader is not parallel capable.
+     */
+    private Object getClassNameLock(String className) {
+        if (!PARALLEL_CAPABLE) {
+            // The VM locks the loader while it loads classes through it and while it defines classes, so loading
+            // must be guarded by the loader here too, or the two lock orders could deadlock.
+            return this;
         }
         
-        return c;
+        Object lock = classLoadingLocks.get(className);
+        if (lock == null) {
+            Object newLock = new Object();
+            lock = classLoadingLocks.putIfAbsent(className, newLock);
+            if (lock == null) {
+                lock = newLock;
+            }
+        }
+        return lock;
+    }
+    
+    /**
+     * Discards the lock for a class name once the class has been loaded, so that the map of locks doesn't grow without
+     * bound.  This must be called while holding the lock.  Any thread which then gets a new lock for the class name
+     * finds the loaded class, so it doesn't matter that the new lock is not the same as the discarded one.
+     * @param className the name of the class.
+     * @param lock the lock returned by getClassNameLock() for the class name.
+     */
+    private void discardClassNameLock(String className, Object lock) {
+        if (lock != this) {
+            classLoadingLocks.remove(className, lock);
+        }
     }
 
     /**
@@ -527,27 +674,30 @@ final class CALClassLoader extends ClassLoader {
                     return null;
                 }
                 
-                // uncompress the data..
-                inflater.reset();
-                inflater.setInput(fileData);
-
                 // Reusing this baos should be ok, since its only other use is in loadFileData(), which we've finished calling.
                 ByteArrayOutputStream baos = threadLocalByteArrayOutputStream.get();
                 baos.reset();
                 
-                try {
-                    // Reusing this bytearray should be ok, since its only other use is in loadFileData(), which we've finished calling.
-                    byte[] buf = threadLocalByteArray.get();
-                    while (!inflater.finished()) {
-                        int len = inflater.inflate(buf);
-                        baos.write(buf, 0, len);
-                    }
-                    
-                } catch (DataFormatException e) {
-                    // Can't read the compressed class..
+                // uncompress the data..
+                // The inflater is shared by the threads loading classes through this loader.
+                synchronized (inflater) {
+                    inflater.reset();
+                    inflater.setInput(fileData);
                     
-                    // return null;
-                    throw new IllegalStateException("Can't read compressed class: " + className);
+                    try {
+                        // Reusing this bytearray should be ok, since its only other use is in loadFileData(), which we've finished calling.
+                        byte[] buf = threadLocalByteArray.get();
+                        while (!inflater.finished()) {
+                            int len = inflater.inflate(buf);
+                            baos.write(buf, 0, len);
+                        }
+                        
+                    } catch (DataFormatException e) {
+                        // Can't read the compressed class..
+                        
+                        // return null;
+                        throw new IllegalStateException("Can't read compressed class: " + className);
+                    }
                 }
                 
                 return baos.toByteArray();
@@ -719,9 +869,14 @@ final class CALClassLoader extends ClassLoader {
         }
         
         // Define the class.
-        Class<?> c = defineClass(className, data, 0, data.length, makeProtectionDomain());
-        nClassesLoaded++;
-        nBytesLoaded += data.length;
+        Class<?> c;
+        Object lock = getClassNameLock(className);
+        synchronized (lock) {
+            c = defineClass(className, data, 0, data.length, makeProtectionDomain());
+            discardClassNameLock(className, lock);
+        }
+        nClassesLoaded.incrementAndGet();
+        nBytesLoaded.addAndGet(data.length);
         
         // Add to the list of loaded classes.  This is used when resetting cached CAF results.
         loadedClasses.add(c);
@@ -759,7 +914,7 @@ final class CALClassLoader extends ClassLoader {
         // The module loader is the parent of the adjunct loader, so if this is called on the module loader, 
         //   the adjunct loader can't be accessed, and there's nothing we can do about it.
         if (adjunctLoader) {
-            adjunctClasses.add (className);
+            adjunctClasses.put (className, Boolean.TRUE);
         } else {
             // A module loader should never have adjunct class names in the adjunct classes set.
             throw new IllegalStateException("An module class loader was asked to mark an adjunct class.");
@@ -779,9 +934,8 @@ final class CALClassLoader extends ClassLoader {
             ((CALClassLoader)getParent()).resetCachedResults(context);
         }
 
-        // use "i < vector.size()" to handle the off chance that findClass() is called while this method is running..
-        for (int i = 0; i < loadedClasses.size(); ++i) {
-            Class<?> c = loadedClasses.get(i);
+        // The iterator is weakly consistent, so it handles the off chance that findClass() is called while this method is running..
+        for (final Class<?> c : loadedClasses) {
             if (RTCAF.class.isAssignableFrom(c)) {
                 try {
                     Method m = c.getMethod("resetCachedResults", new Class[]{context.getClass()});
@@ -897,7 +1051,7 @@ final class CALClassLoader extends ClassLoader {
         if (adjunctLoader && !forAdjunct) {
             return ((CALClassLoader)getParent()).getNClassesLoaded(forAdjunct);
         } else {
-            return nClassesLoaded;
+            return nClassesLoaded.get();
         }
     }
     
@@ -909,7 +1063,7 @@ final class CALClassLoader extends ClassLoader {
         if (adjunctLoader && !forAdjunct) {
             return ((CALClassLoader)getParent()).getNClassBytesLoaded(forAdjunct);
         } else {
-            return nBytesLoaded;
+            return nBytesLoaded.get();
         }
     }
     
@@ -921,7 +1075,7 @@ final class CALClassLoader extends ClassLoader {
         if (adjunctLoader && !forAdjunct) {
             return ((CALClassLoader)getParent()).getGenerateClassDataTimeMS(forAdjunct);
         } else {
-            return generateClassDataTimeMS;
+            return generateClassDataTimeMS.get();
         }
     }
     
@@ -933,7 +1087,7 @@ final class CALClassLoader extends ClassLoader {
         if (adjunctLoader && !forAdjunct) {
             return ((CALClassLoader)getParent()).getLookupClassDataTimeMS(forAdjunct);
         } else {
-            return lookupClassDataTimeMS;
+            return lookupClassDataTimeMS.get();
         }
     }
     
@@ -945,7 +1099,7 @@ final class CALClassLoader extends ClassLoader {
         if (adjunctLoader && !forAdjunct) {
             return ((CALClassLoader)getParent()).getFindClassTimeMS(forAdjunct);
         } else {
-            return findClassTimeMS;
+            return findClassTimeMS.get();
         }
     }
     
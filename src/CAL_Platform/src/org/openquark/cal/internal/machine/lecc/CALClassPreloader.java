@@ -0,0 +1,378 @@
+/*
+ * Copyright (c) 2007 BUSINESS OBJECTS SOFTWARE LIMITED
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *  
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *  
+ *     * Neither the name of Business Objects nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+
+/*
+ * CALClassPreloader.java
+ * Created: Oct 18, 2026
+ */
+package org.openquark.cal.internal.machine.lecc;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+
+import org.openquark.cal.compiler.DataConstructor;
+import org.openquark.cal.compiler.ModuleName;
+import org.openquark.cal.compiler.QualifiedName;
+import org.openquark.cal.compiler.TypeExpr;
+import org.openquark.cal.internal.runtime.lecc.LECCMachineConfiguration;
+import org.openquark.cal.machine.MachineFunction;
+
+
+/**
+ * Generates and defines, on a pool of threads, the classes for a set of entry points together with every generated
+ * class reachable from them, so that the first evaluation of the entry points doesn't have to wait for the classes
+ * to be generated and loaded one at a time as they are first touched.
+ * <p>
+ * This is done in two phases.  First the bytecode for each class is generated (or looked up) by the class loader
+ * for its module, and held by the loader until the class is defined.  The bytecode is scanned for the generated classes
+ * it refers to, and these are generated in turn.  Once the bytecode for all the reachable classes is available, the
+ * classes are defined through their class loaders.  Both phases run on the thread pool, relying on the CALClassLoader 
+ * locking per class name rather than per loader.
+ * <p>
+ * Failures to generate or define a class are not reported here, other than being logged to the lecc machine logger.
+ * The class is simply left to be loaded on demand, when the failure will be reported to the code which needs the class.
+ * <p>
+ * This class is not thread-safe: only the thread which created an instance should call its methods.
+ */
+final class CALClassPreloader {
+    
+    /**
+     * System property for the number of threads used to generate and define classes ahead of their use.
+     * If not defined, the number of available processors is used.
+     */
+    static final String PRELOAD_THREADS_PROP = "org.openquark.cal.machine.lecc.preload_threads";
+    
+    /** Used to number the preloading threads. */
+    private static final AtomicInteger threadCount = new AtomicInteger();
+    
+    /** The program whose classes are to be preloaded. */
+    private final LECCProgram program;
+    
+    /** The threads generating and defining the classes. */
+    private final ExecutorService threadPool;
+    
+    /**
+     * Private constructor.  Instances are created by preload().
+     * @param program the program whose classes are to be preloaded.
+     * @param nThreads the number of threads to use.
+     */
+    private CALClassPreloader(LECCProgram program, int nThreads) {
+        this.program = program;
+        this.threadPool = new ThreadPoolExecutor(nThreads, nThreads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "CAL class preloader " + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+    
+    /**
+     * Generates and defines the classes for the given entry points, and all the generated classes reachable from them.
+     * Classes which have already been defined, and the classes reachable only through them, are not visited.
+     * 
+     * @param program the program containing the entry points.
+     * @param entryPointNames the names of the functions and data constructors to be run.
+     * @return the number of classes defined.
+     */
+    static int preload(LECCProgram program, Collection<QualifiedName> entryPointNames) {
+        
+        List<String> entryPointClassNames = new ArrayList<String>();
+        for (final QualifiedName entryPointName : entryPointNames) {
+            String className = getEntryPointClassName(program, entryPointName);
+            if (className != null) {
+                entryPointClassNames.add(className);
+            }
+        }
+        
+        if (entryPointClassNames.isEmpty()) {
+            return 0;
+        }
+        
+        CALClassPreloader preloader = new CALClassPreloader(program, getNPreloadThreads());
+        try {
+            List<String> generatedClassNames = preloader.generateClassesReachableFrom(entryPointClassNames);
+            return preloader.defineClasses(generatedClassNames);
+            
+        } catch (InterruptedException e) {
+            // Give up, leaving the rest of the classes to be loaded on demand.
+            Thread.currentThread().interrupt();
+            return 0;
+            
+        } finally {
+            preloader.threadPool.shutdownNow();
+        }
+    }
+    
+    /**
+     * @return the number of preloading threads to use, as set by the PRELOAD_THREADS_PROP system property.
+     */
+    private static int getNPreloadThreads() {
+        String nThreadsString = System.getProperty(PRELOAD_THREADS_PROP);
+        if (nThreadsString != null) {
+            try {
+                return Math.max(1, Integer.parseInt(nThreadsString.trim()));
+            } catch (NumberFormatException e) {
+                // Fall through to the default.
+            }
+        }
+        return Runtime.getRuntime().availableProcessors();
+    }
+    
+    /**
+     * Returns the name of the class which the Executor loads to run the given entry point.
+     * @param program the program containing the entry point.
+     * @param entryPointName the name of the function or data constructor.
+     * @return the name of the generated class, or null if there is no generated class for the entry point.
+     */
+    /*
+     * @implementation
+     * This follows Executor.getInstanceOfGeneratedClass().
+     */
+    private static String getEntryPointClassName(LECCProgram program, QualifiedName entryPointName) {
+        
+        LECCModule module = (LECCModule)program.getModule(entryPointName.getModuleName());
+        if (module == null) {
+            return null;
+        }
+        MachineFunction machineFunction = module.getFunction(entryPointName);
+        if (machineFunction == null || machineFunction.getLiteralValue() != null) {
+            return null;
+        }
+        
+        if (machineFunction.getAliasOf() != null) {
+            entryPointName = machineFunction.getAliasOf();
+            module = (LECCModule)program.getModule(entryPointName.getModuleName());
+            if (module == null) {
+                return null;
+            }
+            machineFunction = module.getFunction(entryPointName);
+            if (machineFunction == null) {
+                return null;
+            }
+        }
+        
+        if (machineFunction.isDataConstructor()) {
+            DataConstructor dc = module.getModuleTypeInfo().getDataConstructor(entryPointName.getUnqualifiedName());
+            if (LECCMachineConfiguration.TREAT_ENUMS_AS_INTS && TypeExpr.isEnumType(dc.getTypeConstructor())) {
+                return null;
+            }
+            
+            String className = CALToJavaNames.createFullClassNameFromDC(entryPointName, module);
+            if (className.endsWith("$TagDC")) {
+                className = className.substring(0, className.length() - 6);
+            }
+            return className;
+        }
+        
+        return CALToJavaNames.createFullClassNameFromSC(entryPointName, module);
+    }
+    
+    /**
+     * @param className the name of a generated class.
+     * @return the class loader for the module of the class, or null if the module is not in the program.
+     */
+    private CALClassLoader getClassLoader(String className) {
+        ModuleName moduleName = CALToJavaNames.getModuleNameFromPackageName(className);
+        if (moduleName == null) {
+            return null;
+        }
+        LECCModule module = (LECCModule)program.getModule(moduleName);
+        if (module == null) {
+            return null;
+        }
+        return module.getClassLoader();
+    }
+    
+    /**
+     * Generates the bytecode for the given classes, and for the generated classes reachable from them.
+     * @param rootClassNames the names of the classes from which to start.
+     * @return the names of the classes for which bytecode was generated, and which have yet to be defined.
+     * @throws InterruptedException
+     */
+    private List<String> generateClassesReachableFrom(List<String> rootClassNames) throws InterruptedException {
+        
+        CompletionService<GeneratedClass> completionService = new ExecutorCompletionService<GeneratedClass>(threadPool);
+        
+        Set<String> visitedClassNames = new HashSet<String>();
+        int nPending = 0;
+        
+        for (final String className : rootClassNames) {
+            if (visitedClassNames.add(className)) {
+                completionService.submit(makeGenerateTask(className));
+                nPending++;
+            }
+        }
+        
+        List<String> generatedClassNames = new ArrayList<String>();
+        
+        while (nPending > 0) {
+            GeneratedClass generatedClass = getResult(completionService);
+            nPending--;
+            
+            if (generatedClass == null || generatedClass.bytecode == null) {
+                continue;
+            }
+            generatedClassNames.add(generatedClass.className);
+            
+            for (final String dependeeClassName : generatedClass.dependeeClassNames) {
+                if (visitedClassNames.add(dependeeClassName)) {
+                    completionService.submit(makeGenerateTask(dependeeClassName));
+                    nPending++;
+                }
+            }
+        }
+        
+        return generatedClassNames;
+    }
+    
+    /**
+     * Defines the given classes, whose bytecode has already been generated.
+     * @param classNames the names of the classes to define.
+     * @return the number of classes defined.
+     * @throws InterruptedException
+     */
+    private int defineClasses(List<String> classNames) throws InterruptedException {
+        
+        CompletionService<Boolean> completionService = new ExecutorCompletionService<Boolean>(threadPool);
+        
+        for (final String className : classNames) {
+            completionService.submit(new Callable<Boolean>() {
+                public Boolean call() {
+                    CALClassLoader classLoader = getClassLoader(className);
+                    if (classLoader == null) {
+                        return Boolean.FALSE;
+                    }
+                    try {
+                        classLoader.loadClass(className);
+                        return Boolean.TRUE;
+                        
+                    } catch (ClassNotFoundException e) {
+                        return Boolean.FALSE;
+                    } catch (LinkageError e) {
+                        return Boolean.FALSE;
+                    }
+                }
+            });
+        }
+        
+        int nDefined = 0;
+        for (int i = 0, n = classNames.size(); i < n; i++) {
+            if (Boolean.TRUE.equals(getResult(completionService))) {
+                nDefined++;
+            }
+        }
+        return nDefined;
+    }
+    
+    /**
+     * @param className the name of a class.
+     * @return a task which generates the bytecode for the class, and finds the generated classes on which it depends.
+     */
+    private Callable<GeneratedClass> makeGenerateTask(final String className) {
+        return new Callable<GeneratedClass>() {
+            public GeneratedClass call() {
+                CALClassLoader classLoader = getClassLoader(className);
+                if (classLoader == null) {
+                    return new GeneratedClass(className, null);
+                }
+                try {
+                    return new GeneratedClass(className, classLoader.generateClassDataAhead(className));
+                    
+                } catch (ClassNotFoundException e) {
+                    return new GeneratedClass(className, null);
+                } catch (NoClassDefFoundError e) {
+                    // Code generation failed.
+                    return new GeneratedClass(className, null);
+                }
+            }
+        };
+    }
+    
+    /**
+     * Takes the next result from a completion service, waiting for it if necessary.
+     * If the task failed, the failure is logged and null is returned.
+     * @param <T> the type of the result.
+     * @param completionService the completion service.
+     * @return the result of the task, or null if the task failed.
+     * @throws InterruptedException
+     */
+    private static <T> T getResult(CompletionService<T> completionService) throws InterruptedException {
+        try {
+            return completionService.take().get();
+            
+        } catch (ExecutionException e) {
+            CodeGenerator.MACHINE_LOGGER.log(Level.FINE, "Unable to preload a class.", e.getCause());
+            return null;
+        }
+    }
+    
+    /**
+     * The result of generating the bytecode for a class on a preloading thread.
+     */
+    private static final class GeneratedClass {
+        
+        /** The name of the class. */
+        private final String className;
+        
+        /** The bytecode for the class.  Null if the class has already been defined, or couldn't be generated. */
+        private final byte[] bytecode;
+        
+        /** The names of the generated classes referred to by the bytecode. */
+        private final Set<String> dependeeClassNames;
+        
+        GeneratedClass(String className, byte[] bytecode) {
+            this.className = className;
+            this.bytecode = bytecode;
+            if (bytecode == null) {
+                this.dependeeClassNames = null;
+            } else {
+                this.dependeeClassNames = StandaloneJarBuilder.findClassDependencies(bytecode);
+            }
+        }
+    }
+}
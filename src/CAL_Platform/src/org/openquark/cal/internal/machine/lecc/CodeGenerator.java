@@ -704,6 +704,11 @@ final class CodeGenerator extends org.openquark.cal.machine.CodeGenerator  {
         // Create an input stream on the byte array, and use this to set the file contents.
         InputStream is = new ByteArrayInputStream(bos.getByteArray(), 0, bos.getCount());
         try {
+            // Replace the existing file rather than overwriting it in place, since the previous version of the module may have been
+            // loaded from a memory-mapped file, and may still read from it.
+            if (resourceRepository.exists(compileModuleInfoFileLocator)) {
+                resourceRepository.delete(compileModuleInfoFileLocator);
+            }
             resourceRepository.setContents(compileModuleInfoFileLocator, is);
         } catch (IOException e) {
             logger.logMessage(new CompilerMessage(new MessageKind.Warning.DebugMessage("Failed saving compiled module info for " + module.getName()), e));
@@ -990,10 +990,10 @@ public class Executor implements CALExecutor {
 
             Map<QualifiedName, CallCount> allCounts = mStats.counts;
 
-            for (final Map.Entry<QualifiedName, CallCount> entry : allCounts.entrySet()) {
+            for (final Map.Entry<QualifiedName, CallCount> entry : counts.entrySet()) {
                 QualifiedName key = entry.getKey();
-                CallCount pc = counts.get(key);
-                CallCount tc = entry.getValue();
+                CallCount pc = entry.getValue();
+                CallCount tc = allCounts.get(key);
                 if (tc == null) {
                     tc = new CallCount(pc.getName(), 0);
                     allCounts.put(key, tc);
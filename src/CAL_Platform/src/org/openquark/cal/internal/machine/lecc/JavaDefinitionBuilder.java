@@ -724,6 +724,11 @@ final class JavaDefinitionBuilder {
                     javaDefn.genS_SC_Boxed();
                 }
 
+                // Set up the loops for functions which make tail calls to each other.  This generates
+                // the loop bodies for the functions involved, so it also needs to happen before the
+                // fields are created.
+                List<MutualTailCallLoop> mutualTailCallLoops = buildMutualTailCallLoops(scJavaDefns);
+
                 // Now that we have the information about referenced values
                 // across the set of CAL functions we can create the class fields.
                 createFields(sharedValues);
@@ -780,10 +785,7 @@ final class JavaDefinitionBuilder {
                      * a graph node for fully saturated applications will be
                      * generated, so we are not limited in the arity.
                      */
-                    boolean generateFnMethods = javaDefn.getArity() > 0
-                            && (javaDefn.getArity() <= LECCMachineConfiguration.OPTIMIZED_APP_CHAIN_LENGTH
-                                    || javaDefn.isTailRecursive() || javaDefn
-                                    .hasStrictUnboxableArguments());
+                    boolean generateFnMethods = generateFnMethods(javaDefn);
 
 
                     /*
@@ -829,12 +831,22 @@ final class JavaDefinitionBuilder {
                             // Function body used when dealing with a fully saturated application in a strict context.
                             createMethod_fUnboxedSaturatedStrict(javaDefn);
                         }
+
+                        // If the return type of the CAL function is a tuple or record which can be
+                        // taken apart directly by the caller we need to generate the fRecordnS method.
+                        if (javaDefn.genS_SC_Record() != null) {
+                            createMethod_fRecordSaturatedStrict(javaDefn);
+                        }
                     }
 
 
 
                 }
 
+                for (final MutualTailCallLoop mutualTailCallLoop : mutualTailCallLoops) {
+                    createMethod_mutualTailCallLoop(mutualTailCallLoop);
+                }
+
                 if (functions.getNFunctions() > 1) {
                     createMethod_fSwitching();
                 }
@@ -855,6 +867,219 @@ final class JavaDefinitionBuilder {
             }
         }
 
+        /**
+         * @param javaDefn
+         * @return true if the fnL and fnS methods are generated for the given function.
+         * @throws CodeGenerationException
+         */
+        private static boolean generateFnMethods(SCJavaDefn javaDefn) throws CodeGenerationException {
+            return javaDefn.getArity() > 0
+                    && (javaDefn.getArity() <= LECCMachineConfiguration.OPTIMIZED_APP_CHAIN_LENGTH
+                            || javaDefn.isTailRecursive() || javaDefn
+                            .hasStrictUnboxableArguments());
+        }
+
+        /**
+         * Find the sets of functions in this group which make saturated tail calls to other
+         * functions in the same strongly connected component, and set up a MutualTailCallLoop
+         * for each set.  The loop body code is generated for each function in a loop.
+         * <p>
+         * Only functions which have an fnS method are considered, since the loop method is
+         * entered from the fnS methods.  Functions which neither make nor receive a tail call
+         * within their component are left out of the loop.
+         * @param scJavaDefns
+         * @return the loops for this group.  May be empty.
+         * @throws CodeGenerationException
+         */
+        private List<MutualTailCallLoop> buildMutualTailCallLoops(List<SCJavaDefn> scJavaDefns) throws CodeGenerationException {
+            List<MutualTailCallLoop> mutualTailCallLoops = new ArrayList<MutualTailCallLoop>();
+            if (!LECCMachineConfiguration.MUTUAL_TAIL_CALL_LOOPS) {
+                return mutualTailCallLoops;
+            }
+
+            // Group the candidate functions by strongly connected component.
+            Map<Set<String>, List<SCJavaDefn>> componentToCandidates = new LinkedHashMap<Set<String>, List<SCJavaDefn>>();
+            for (final SCJavaDefn javaDefn : scJavaDefns) {
+                Set<String> component = javaDefn.getStronglyConnectedComponents();
+                if (component.size() < 2 || !generateFnMethods(javaDefn)) {
+                    continue;
+                }
+
+                List<SCJavaDefn> candidates = componentToCandidates.get(component);
+                if (candidates == null) {
+                    candidates = new ArrayList<SCJavaDefn>();
+                    componentToCandidates.put(component, candidates);
+                }
+                candidates.add(javaDefn);
+            }
+
+            for (final List<SCJavaDefn> candidates : componentToCandidates.values()) {
+
+                List<SCJavaDefn> members = candidates;
+                while (members.size() > 1) {
+                    String methodName = functions.getFnNamePrefix(members.get(0).getFunctionName()) + "fLoopS";
+                    MutualTailCallLoop mutualTailCallLoop = new MutualTailCallLoop(methodName, members);
+
+                    // Generate the loop bodies, and find the functions which are tail called.
+                    Set<String> calledOrCalling = new HashSet<String>();
+                    for (final SCJavaDefn javaDefn : members) {
+                        javaDefn.setMutualTailCallLoop(mutualTailCallLoop);
+                        javaDefn.genS_SC_MutualTailCallLoopBody();
+
+                        Set<String> targets = javaDefn.getMutualTailCallTargets();
+                        if (!targets.isEmpty()) {
+                            calledOrCalling.add(javaDefn.getFunctionName());
+                            calledOrCalling.addAll(targets);
+                        }
+                    }
+
+                    if (calledOrCalling.size() == members.size()) {
+                        mutualTailCallLoops.add(mutualTailCallLoop);
+                        break;
+                    }
+
+                    // Drop the functions which aren't involved in any tail calls and try again.
+                    // Removing them doesn't change the tail calls between the remaining functions,
+                    // but it does change the tags and argument slots.
+                    List<SCJavaDefn> involved = new ArrayList<SCJavaDefn>();
+                    for (final SCJavaDefn javaDefn : members) {
+                        javaDefn.setMutualTailCallLoop(null);
+                        if (calledOrCalling.contains(javaDefn.getFunctionName())) {
+                            involved.add(javaDefn);
+                        }
+                    }
+                    members = involved;
+                }
+            }
+
+            return mutualTailCallLoops;
+        }
+
+        /**
+         * Create the loop method for a set of functions which make tail calls to each other.
+         * The loop method is passed the tag of the function to run, along with the argument slots.
+         * The body of each function is in its own case of a switch on the tag, and a tail call
+         * to another function in the set re-assigns the argument slots and the tag and continues the loop.
+         * @param mutualTailCallLoop
+         * @throws CodeGenerationException
+         */
+        private void createMethod_mutualTailCallLoop(MutualTailCallLoop mutualTailCallLoop) throws CodeGenerationException {
+            int modifiers = Modifier.PUBLIC | Modifier.FINAL;
+
+            String methodName = mutualTailCallLoop.getMethodName();
+            int nSlots = mutualTailCallLoop.getNSlots();
+
+            // The arguments are the tag, the argument slots, and the execution context.
+            String[] argNames = new String[nSlots + 2];
+            JavaTypeName[] argTypes = new JavaTypeName[nSlots + 2];
+
+            argNames[0] = MutualTailCallLoop.TAG_NAME;
+            argTypes[0] = JavaTypeName.INT;
+
+            for (int i = 0; i < nSlots; ++i) {
+                argNames[i + 1] = mutualTailCallLoop.getNthSlotName(i);
+                argTypes[i + 1] = mutualTailCallLoop.getNthSlotType(i);
+            }
+
+            argNames[nSlots + 1] = SCJavaDefn.EXECUTION_CONTEXT_NAME;
+            argTypes[nSlots + 1] = JavaTypeNames.RTEXECUTION_CONTEXT;
+
+            // Add the method to the class.
+            JavaMethod javaMethod = new JavaMethod(modifiers, JavaTypeNames.RTVALUE, argNames, argTypes, null, methodName);
+            javaClassRep.addMethod(javaMethod);
+
+            // Add the throws declaration
+            javaMethod.addThrows(JavaTypeName.CAL_EXECUTOR_EXCEPTION);
+
+            JavaDocComment comment = new JavaDocComment(methodName);
+            comment.addLine("This method implements the function logic of the CAL functions which make tail calls to each other:");
+            for (int i = 0, n = mutualTailCallLoop.getNMembers(); i < n; ++i) {
+                SCJavaDefn javaDefn = mutualTailCallLoop.getNthMember(i);
+                comment.addLine("    " + i + ": " + javaDefn.getModuleName() + "." + javaDefn.getFunctionName());
+            }
+            javaMethod.setJavaDocComment(comment);
+
+            SwitchStatement switchStatement = new SwitchStatement(new MethodVariable(MutualTailCallLoop.TAG_NAME));
+
+            for (int tag = 0, n = mutualTailCallLoop.getNMembers(); tag < n; ++tag) {
+                SCJavaDefn javaDefn = mutualTailCallLoop.getNthMember(tag);
+                final int arity = javaDefn.getArity();
+
+                Block caseBlock = new Block();
+
+                // Unpack the arguments from their slots.
+                String[] memberArgNames = new String[arity];
+                JavaTypeName[] memberArgTypes = new JavaTypeName[arity];
+                for (int i = 0; i < arity; ++i) {
+                    int slot = mutualTailCallLoop.getArgumentSlot(javaDefn.getFunctionName(), i);
+                    memberArgNames[i] = javaDefn.getJavaArgumentName(i);
+                    memberArgTypes[i] = mutualTailCallLoop.getNthSlotType(slot);
+
+                    MethodVariable slotVar = new MethodVariable(mutualTailCallLoop.getNthSlotName(slot));
+                    JavaExpression slotValue = slotVar;
+                    if (memberArgTypes[i].equals(JavaTypeNames.RTVALUE)) {
+                        slotValue = callLastRef(slotVar, slotVar);
+                    }
+                    caseBlock.addStatement(new LocalVariableDeclaration(new LocalVariable(memberArgNames[i], memberArgTypes[i]), slotValue));
+                }
+
+                Block bodyBlock = javaDefn.genS_SC_MutualTailCallLoopBody();
+
+                // Add the body.  This follows what is done in the fnS method.
+                if (javaDefn.isTailRecursive()) {
+
+                    Block loopBodyBlock = new Block();
+
+                    if (!LECCMachineConfiguration.nonInterruptibleRuntime()) {
+                        // Add a check of the quit flag at the top of the loop body.
+                        loopBodyBlock.addStatement(checkForQuit());
+                    }
+
+                    if (LECCMachineConfiguration.SANITY_CHECK_LET_VARS) {
+                        loopBodyBlock.addStatement(resetLetVarFlags(javaDefn.getFunctionName()));
+                    }
+
+                    if (LECCMachineConfiguration.generateDebugCode()) {
+                        loopBodyBlock.addStatement(generateDebugCode(javaDefn, memberArgNames, memberArgTypes));
+                    }
+
+                    loopBodyBlock.addStatement(bodyBlock);
+                    caseBlock.addStatement(new UnconditionalLoop (SCJavaDefn.TAIL_RECURSION_LOOP_LABEL, loopBodyBlock));
+                } else {
+
+                    if (LECCMachineConfiguration.SANITY_CHECK_LET_VARS) {
+                        caseBlock.addStatement(resetLetVarFlags(javaDefn.getFunctionName()));
+                    }
+
+                    if (LECCMachineConfiguration.generateDebugCode()) {
+                        caseBlock.addStatement(generateDebugCode(javaDefn, memberArgNames, memberArgTypes));
+                    }
+
+                    caseBlock.addStatement(bodyBlock);
+                }
+
+                switchStatement.addCase(new SwitchStatement.IntCaseGroup(tag, caseBlock));
+            }
+
+            // Handle a bad tag.
+            final MethodInvocation badValue =
+                new MethodInvocation.Static (JavaTypeNames.RTVALUE,
+                                               "badValue",
+                                               LiteralWrapper.make("Bad tag in '" + methodName + "'."),
+                                               JavaTypeName.STRING,
+                                               JavaTypeNames.RTVALUE);
+            switchStatement.addCase(new SwitchStatement.DefaultCase(new ReturnStatement(badValue)));
+
+            Block loopBodyBlock = new Block();
+            if (!LECCMachineConfiguration.nonInterruptibleRuntime()) {
+                // Add a check of the quit flag at the top of the loop body.
+                loopBodyBlock.addStatement(checkForQuit());
+            }
+            loopBodyBlock.addStatement(switchStatement);
+
+            javaMethod.addStatement(new UnconditionalLoop(MutualTailCallLoop.LOOP_LABEL, loopBodyBlock));
+        }
+
         /**
          * If this generated class represents multiple supercombinators we may
          * need to generate a series of fnS functions, where n is the arity.
@@ -1133,6 +1358,39 @@ final class JavaDefinitionBuilder {
 
             }
 
+            if (sharedValues.getNCallCountSlots() > 0) {
+                javaClassRep.addComment(new JavaStatement.MultiLineComment("Runtime statistics counter slots."));
+            }
+            for (final String name : sharedValues.getCallCountSlotNames()) {
+
+                final JavaExpression initializer = sharedValues.getCallCountSlot(name);
+                final int slotModifiers = Modifier.PRIVATE | Modifier.STATIC | Modifier.FINAL;
+                final JavaFieldDeclaration slotDeclaration = new JavaFieldDeclaration(slotModifiers, JavaTypeName.INT, name, initializer);
+                javaClassRep.addFieldDeclaration(slotDeclaration);
+            }
+
+            if (sharedValues.getNRecordFieldSelectors() > 0) {
+                javaClassRep.addComment(new JavaStatement.MultiLineComment("Inline caches for textual record field selections."));
+            }
+            for (final String name : sharedValues.getRecordFieldSelectorNames()) {
+
+                final JavaExpression initializer = sharedValues.getRecordFieldSelector(name);
+                final int selectorModifiers = Modifier.PRIVATE | Modifier.STATIC | Modifier.FINAL;
+                final JavaFieldDeclaration selectorDeclaration = new JavaFieldDeclaration(selectorModifiers, JavaTypeNames.RTRECORD_FIELD_SELECTOR, name, initializer);
+                javaClassRep.addFieldDeclaration(selectorDeclaration);
+            }
+
+            if (sharedValues.getNRecordShapes() > 0) {
+                javaClassRep.addComment(new JavaStatement.MultiLineComment("Shapes of record literals having textual fields."));
+            }
+            for (final String name : sharedValues.getRecordShapeNames()) {
+
+                final JavaExpression initializer = sharedValues.getRecordShape(name);
+                final int shapeModifiers = Modifier.PRIVATE | Modifier.STATIC | Modifier.FINAL;
+                final JavaFieldDeclaration shapeDeclaration = new JavaFieldDeclaration(shapeModifiers, JavaTypeNames.RTRECORD_SHAPE, name, initializer);
+                javaClassRep.addFieldDeclaration(shapeDeclaration);
+            }
+
             // If this function references other supercombinators we need to set
             // up a field for each referenced SC, a flag to indicate the
             // initialization state of the referenced SC fields, and potentially an
@@ -1946,6 +2204,48 @@ final class JavaDefinitionBuilder {
             addStatsBlock (javaMethod, javaDefn);
 
             // Add the body
+            MutualTailCallLoop mutualTailCallLoop = javaDefn.getMutualTailCallLoop();
+            if (mutualTailCallLoop != null) {
+
+                // The logic is in the loop method shared with the functions this function makes
+                // tail calls to, or which make tail calls to this function.
+                int nSlots = mutualTailCallLoop.getNSlots();
+                JavaExpression[] loopArgs = new JavaExpression[nSlots + 2];
+                JavaTypeName[] loopArgTypes = new JavaTypeName[nSlots + 2];
+
+                loopArgs[0] = LiteralWrapper.make(Integer.valueOf(mutualTailCallLoop.getTag(javaDefn.getFunctionName())));
+                loopArgTypes[0] = JavaTypeName.INT;
+
+                for (int i = 0; i < nSlots; ++i) {
+                    loopArgTypes[i + 1] = mutualTailCallLoop.getNthSlotType(i);
+                    loopArgs[i + 1] = getDefaultValueForType(loopArgTypes[i + 1]);
+                }
+
+                for (int i = 0; i < arity; ++i) {
+                    int slot = mutualTailCallLoop.getArgumentSlot(javaDefn.getFunctionName(), i);
+                    MethodVariable mv = new MethodVariable(argNames[i]);
+                    if (argTypes[i].equals(JavaTypeNames.RTVALUE)) {
+                        loopArgs[slot + 1] = callLastRef(mv, mv);
+                    } else {
+                        loopArgs[slot + 1] = mv;
+                    }
+                }
+
+                loopArgs[nSlots + 1] = SCJavaDefn.EXECUTION_CONTEXT_VAR;
+                loopArgTypes[nSlots + 1] = JavaTypeNames.RTEXECUTION_CONTEXT;
+
+                MethodInvocation mi =
+                    new MethodInvocation.Instance (
+                            null,
+                            mutualTailCallLoop.getMethodName(),
+                            loopArgs,
+                            loopArgTypes,
+                            JavaTypeNames.RTVALUE,
+                            MethodInvocation.InvocationType.VIRTUAL);
+
+                javaMethod.addStatement(new ReturnStatement(mi));
+
+            } else
             if (javaDefn.isTailRecursive()) {
 
                 Block loopBodyBlock = new Block();
@@ -1987,9 +2287,6 @@ final class JavaDefinitionBuilder {
          * @throws CodeGenerationException
          */
         private void createMethod_fUnboxedSaturatedStrict(SCJavaDefn javaDefn) throws CodeGenerationException {
-            int modifiers = Modifier.PUBLIC | Modifier.FINAL;
-            JavaTypeName returnType = javaDefn.getResultType();
-
             // Figure out the methodName
             final int arity = javaDefn.getArity();
             String methodName = functions.getFnNamePrefix(javaDefn.getFunctionName()) + "fUnboxed";
@@ -1997,7 +2294,43 @@ final class JavaDefinitionBuilder {
                 methodName = methodName + arity + "S";
             }
 
-            Block bodyBlock = javaDefn.genS_SC_Unboxed();
+            createMethod_fSaturatedStrictVariant(javaDefn, methodName, javaDefn.getResultType(), javaDefn.genS_SC_Unboxed(),
+                                                 "This version of the logic returns an unboxed value.");
+        }
+
+        /**
+         * Create the version of the 'f' method used when we encounter a fully saturated
+         * application, the strict arguments are already evaluated, and the tuple or record
+         * result is immediately taken apart by the caller.
+         * The field values of the result are passed back through the record result slots of
+         * the execution context.
+         * @param javaDefn
+         * @throws CodeGenerationException
+         */
+        private void createMethod_fRecordSaturatedStrict(SCJavaDefn javaDefn) throws CodeGenerationException {
+            String methodName = functions.getFnNamePrefix(javaDefn.getFunctionName()) + "fRecord" + javaDefn.getArity() + "S";
+
+            createMethod_fSaturatedStrictVariant(javaDefn, methodName, JavaTypeNames.RTVALUE_ARRAY, javaDefn.genS_SC_Record(),
+                                                 "This version of the logic returns the field values of the record result in the record result slots.");
+        }
+
+        /**
+         * Create a variant of the fnS method, with a different return type, for a fully saturated
+         * application where the strict arguments are already evaluated.
+         * @param javaDefn
+         * @param methodName the name of the method.
+         * @param returnType the return type of the method.
+         * @param bodyBlock the transformed function body.
+         * @param commentLine a description of the variant for the method comment.
+         * @throws CodeGenerationException
+         */
+        private void createMethod_fSaturatedStrictVariant(SCJavaDefn javaDefn,
+                                                          String methodName,
+                                                          JavaTypeName returnType,
+                                                          Block bodyBlock,
+                                                          String commentLine) throws CodeGenerationException {
+            int modifiers = Modifier.PUBLIC | Modifier.FINAL;
+            final int arity = javaDefn.getArity();
 
             // Figure out the arg names and types.
             String[] argNames = new String[arity + 1];
@@ -2030,7 +2363,7 @@ final class JavaDefinitionBuilder {
             // corresponds to.
             JavaDocComment comment = new JavaDocComment(methodName);
             comment.addLine("This method implements the logic of the CAL function " + javaDefn.getModuleName() + "." + javaDefn.getFunctionName());
-            comment.addLine("This version of the logic returns an unboxed value.");
+            comment.addLine(commentLine);
             javaMethod.setJavaDocComment(comment);
 
             // Add the throws declaration
@@ -2230,12 +2563,7 @@ final class JavaDefinitionBuilder {
                 javaMethod.addStatement(new ExpressionStatement(mi));
             }
             if (LECCMachineConfiguration.generateCallCounts()) {
-                JavaExpression args[] = new JavaExpression[2];
-                JavaTypeName argTypes[] = new JavaTypeName[2];
-                args[0] = LiteralWrapper.make(javaDefn.getModuleName().toSourceText());
-                args[1] = LiteralWrapper.make(javaDefn.getFunctionName());
-                argTypes[0] = argTypes[1] = JavaTypeName.STRING;
-                MethodInvocation mi = new MethodInvocation.Instance(SCJavaDefn.EXECUTION_CONTEXT_VAR, "scCalled", args, argTypes, JavaTypeName.VOID, MethodInvocation.InvocationType.VIRTUAL);
+                MethodInvocation mi = new MethodInvocation.Instance(SCJavaDefn.EXECUTION_CONTEXT_VAR, "scCalled", javaDefn.getCallCountSlotField(), JavaTypeName.INT, JavaTypeName.VOID, MethodInvocation.InvocationType.VIRTUAL);
                 javaMethod.addStatement(new ExpressionStatement(mi));
             }
         }
@@ -4391,6 +4719,9 @@ final class JavaDefinitionBuilder {
          */
         private final LECCModule module;
 
+        /** The name of the static field holding the runtime statistics counter slot for the data constructor. */
+        private static final String CALL_COUNT_SLOT_FIELD_NAME = "$callCountSlot";
+
         /** The name to use for the singleton instance field. */
         private final String instanceName;
 
@@ -4782,6 +5113,20 @@ final class JavaDefinitionBuilder {
                 selfInitializer = new ClassInstanceCreationExpression(className);
             }
             JavaFieldDeclaration selfFieldDeclaration = new JavaFieldDeclaration(modifiers, className, instanceName, selfInitializer);
+
+            if (LECCMachineConfiguration.generateCallCounts()) {
+                // The counter slot is declared before the singleton instance, so that it is initialized before the instance is created.
+                JavaExpression slotInitializer =
+                    new MethodInvocation.Static(
+                        JavaTypeNames.RTSTATISTICS_COUNTERS,
+                        "getCounterSlot",
+                        new JavaExpression[] {LiteralWrapper.make(dc.getName().getModuleName().toSourceText()), LiteralWrapper.make(dc.getName().getUnqualifiedName())},
+                        new JavaTypeName[] {JavaTypeName.STRING, JavaTypeName.STRING},
+                        JavaTypeName.INT);
+                javaClassRep.addFieldDeclaration(
+                    new JavaFieldDeclaration(Modifier.PRIVATE | Modifier.STATIC | Modifier.FINAL, JavaTypeName.INT, CALL_COUNT_SLOT_FIELD_NAME, slotInitializer));
+            }
+
             javaClassRep.addFieldDeclaration(selfFieldDeclaration);
 
         }
@@ -5085,16 +5430,11 @@ final class JavaDefinitionBuilder {
             javaMethod.addThrows(JavaTypeName.CAL_EXECUTOR_EXCEPTION);
 
             if (LECCMachineConfiguration.generateCallCounts()) {
-                JavaExpression args[] = new JavaExpression[2];
-                JavaTypeName argTypes[] = new JavaTypeName[2];
-                args[0] = LiteralWrapper.make(dc.getName().getModuleName().toSourceText());
-                args[1] = LiteralWrapper.make(dc.getName().getUnqualifiedName());
-                argTypes[0] = argTypes[1] = JavaTypeName.STRING;
                 MethodInvocation mi =
                     new MethodInvocation.Instance(SCJavaDefn.EXECUTION_CONTEXT_VAR,
                                          "dcFunctionCalled",
-                                         args,
-                                         argTypes,
+                                         getCallCountSlotField(),
+                                         JavaTypeName.INT,
                                          JavaTypeName.VOID,
                                          MethodInvocation.InvocationType.VIRTUAL);
                 javaMethod.addStatement(new ExpressionStatement(mi));
@@ -5235,16 +5575,11 @@ final class JavaDefinitionBuilder {
             javaMethod.addThrows(JavaTypeName.CAL_EXECUTOR_EXCEPTION);
 
             if (LECCMachineConfiguration.generateCallCounts()) {
-                JavaExpression args[] = new JavaExpression[2];
-                JavaTypeName ccArgTypes[] = new JavaTypeName[2];
-                args[0] = LiteralWrapper.make(dc.getName().getModuleName().toSourceText());
-                args[1] = LiteralWrapper.make(dc.getName().getUnqualifiedName());
-                ccArgTypes[0] = ccArgTypes[1] = JavaTypeName.STRING;
                 MethodInvocation mi =
                     new MethodInvocation.Instance(SCJavaDefn.EXECUTION_CONTEXT_VAR,
                                          "dcFunctionCalled",
-                                         args,
-                                         ccArgTypes,
+                                         getCallCountSlotField(),
+                                         JavaTypeName.INT,
                                          JavaTypeName.VOID,
                                          MethodInvocation.InvocationType.VIRTUAL);
 
@@ -5704,6 +6039,13 @@ final class JavaDefinitionBuilder {
 
         }
 
+        /**
+         * @return a reference to the static field holding the runtime statistics counter slot for the data constructor.
+         */
+        private JavaField getCallCountSlotField() {
+            return new JavaField.Static(className, CALL_COUNT_SLOT_FIELD_NAME, JavaTypeName.INT);
+        }
+
         /**
          * If generation of statistics is turned on this method
          * adds the appropriate code to augment the statistics.
@@ -5715,12 +6057,7 @@ final class JavaDefinitionBuilder {
                 javaCons.addStatement(new ExpressionStatement(mi));
             }
             if (LECCMachineConfiguration.generateCallCounts()) {
-                JavaExpression args[] = new JavaExpression[2];
-                JavaTypeName argTypes[] = new JavaTypeName[2];
-                args[0] = LiteralWrapper.make(dc.getName().getModuleName().toSourceText());
-                args[1] = LiteralWrapper.make(dc.getName().getUnqualifiedName());
-                argTypes[0] = argTypes[1] = JavaTypeName.STRING;
-                MethodInvocation mi = new MethodInvocation.Instance(SCJavaDefn.EXECUTION_CONTEXT_VAR, "dcConstructorCalled", args, argTypes, JavaTypeName.VOID, MethodInvocation.InvocationType.VIRTUAL);
+                MethodInvocation mi = new MethodInvocation.Instance(SCJavaDefn.EXECUTION_CONTEXT_VAR, "dcConstructorCalled", getCallCountSlotField(), JavaTypeName.INT, JavaTypeName.VOID, MethodInvocation.InvocationType.VIRTUAL);
                 javaCons.addStatement(new ExpressionStatement(mi));
             }
 
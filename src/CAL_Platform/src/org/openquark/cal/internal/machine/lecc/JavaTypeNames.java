@@ -53,10 +53,13 @@ import org.openquark.cal.internal.runtime.lecc.RTIndirection;
 import org.openquark.cal.internal.runtime.lecc.RTOApp2;
 import org.openquark.cal.internal.runtime.lecc.RTOApp3;
 import org.openquark.cal.internal.runtime.lecc.RTRecordExtension;
+import org.openquark.cal.internal.runtime.lecc.RTRecordFieldSelector;
+import org.openquark.cal.internal.runtime.lecc.RTRecordShape;
 import org.openquark.cal.internal.runtime.lecc.RTRecordSelection;
 import org.openquark.cal.internal.runtime.lecc.RTRecordUpdate;
 import org.openquark.cal.internal.runtime.lecc.RTRecordValue;
 import org.openquark.cal.internal.runtime.lecc.RTResultFunction;
+import org.openquark.cal.internal.runtime.lecc.RTStatisticsCounters;
 import org.openquark.cal.internal.runtime.lecc.RTSupercombinator;
 import org.openquark.cal.internal.runtime.lecc.RTValue;
 import org.openquark.cal.internal.runtime.lecc.functions.RTAppendRecordPrimitive;
@@ -158,12 +161,15 @@ final class JavaTypeNames {
     static final JavaTypeName RTOAPP3 = JavaTypeName.make(RTOApp3.class);
     static final JavaTypeName RTRECORD_UPDATE = JavaTypeName.make(RTRecordUpdate.class);
     static final JavaTypeName RTRECORD_EXTENSION = JavaTypeName.make(RTRecordExtension.class);
+    static final JavaTypeName RTRECORD_FIELD_SELECTOR = JavaTypeName.make(RTRecordFieldSelector.class);
+    static final JavaTypeName RTRECORD_SHAPE = JavaTypeName.make(RTRecordShape.class);
     static final JavaTypeName RTRECORD_SELECTION = JavaTypeName.make(RTRecordSelection.class);
     static final JavaTypeName RTRECORD_SELECTION_ORDINAL_FIELD = JavaTypeName.make(RTRecordSelection.Ordinal.class);
     static final JavaTypeName RTRECORD_SELECTION_TEXTUAL_FIELD = JavaTypeName.make(RTRecordSelection.Textual.class);
     static final JavaTypeName RTRECORD_VALUE = JavaTypeName.make(RTRecordValue.class);
     static final JavaTypeName RTRESULT_FUNCTION = JavaTypeName.make(RTResultFunction.class);    
     static final JavaTypeName RTSUPERCOMBINATOR = JavaTypeName.make(RTSupercombinator.class);
+    static final JavaTypeName RTSTATISTICS_COUNTERS = JavaTypeName.make(RTStatisticsCounters.class);
     static final JavaTypeName RTVALUE = JavaTypeName.make(RTValue.class);
     static final JavaTypeName RTVALUE_ARRAY = JavaTypeName.make(RTValue[].class);      
     
@@ -117,8 +117,14 @@ public final class LECCModule extends Module {
      * or the file system.
      */
     private final ClassNameMapper classNameMapper = new ClassNameMapper();
+    
+    /**
+     * The key identifying the classes of this module in the shared bytecode cache, or the empty string if the
+     * classes of this module cannot be cached.  Null if the key hasn't been calculated.
+     */
+    private volatile String bytecodeCacheKey;
        
-    private final Map<String, FunctionGroupInfo> functionNameToFunctionGroup = new HashMap<String, FunctionGroupInfo>();
+    private final Map<String, FunctionGroupInfo> functionNameToFunctionGroup = Collections.synchronizedMap(new HashMap<String, FunctionGroupInfo>());
     
     private boolean coarseGrouping = false;
     
@@ -506,6 +512,22 @@ public final class LECCModule extends Module {
         return classNameMapper;
     }
     
+    /**
+     * @return the key identifying the classes of this module in the shared bytecode cache,
+     * or null if the classes of this module cannot be cached.
+     */
+    String getBytecodeCacheKey() {
+        String key = bytecodeCacheKey;
+        if (key == null) {
+            key = BytecodeCache.computeModuleKey(this);
+            if (key == null) {
+                key = "";
+            }
+            bytecodeCacheKey = key;
+        }
+        return key.length() == 0 ? null : key;
+    }
+    
     /**
      * @return Returns whether the resource repoository is set.
      */
@@ -634,63 +656,69 @@ public final class LECCModule extends Module {
             
             FunctionGroupInfo fgi = functionNameToFunctionGroup.get(mf.getName());
             if (fgi == null) {
-                if (coarseGrouping) {
+                // Function groups are created on demand, possibly by several threads generating classes for this module at once.
+                synchronized (functionNameToFunctionGroup) {
+                    fgi = functionNameToFunctionGroup.get(mf.getName());
+                    if (fgi == null) {
+                        if (coarseGrouping) {
                     
-                    if (mf.isPrimitiveFunction() ||
-                        mf.isDataConstructor() ||
-                        mf.isForAdjunct()) {
+                            if (mf.isPrimitiveFunction() ||
+                                mf.isDataConstructor() ||
+                                mf.isForAdjunct()) {
 
-                        List<MachineFunction> machineFunctions = new ArrayList<MachineFunction>();
-                        machineFunctions.add(mf);
+                                List<MachineFunction> machineFunctions = new ArrayList<MachineFunction>();
+                                machineFunctions.add(mf);
                         
-                        fgi = new FunctionGroupInfo(this, machineFunctions);
-                    } else {
-                        // Group the non-primitive functions into a single group.
+                                fgi = new FunctionGroupInfo(this, machineFunctions);
+                            } else {
+                                // Group the non-primitive functions into a single group.
                          
-                        List<MachineFunction> machineFunctions = new ArrayList<MachineFunction>();
+                                List<MachineFunction> machineFunctions = new ArrayList<MachineFunction>();
                         
-                        for (final MachineFunction mf2 : getFunctions()) {
+                                for (final MachineFunction mf2 : getFunctions()) {
                             
-                            if (mf2.isDataConstructor()) {
-                                continue;
-                            }
+                                    if (mf2.isDataConstructor()) {
+                                        continue;
+                                    }
     
-                            if (mf2.getAliasOf() != null || mf2.getLiteralValue() != null) {
-                                continue;
-                            }
+                                    if (mf2.getAliasOf() != null || mf2.getLiteralValue() != null) {
+                                        continue;
+                                    }
                             
-                            // Check to see if this is a primitive function.
-                            // Functions marked as primitive can be one of two things:
-                            // 1) a primitive function implemented as a machine specific operator
-                            // 2) a primitive function for which a hard coded machine specific implementation is provided.
-                            // If the function falls into category two we don't want to generate anything for it.
-                            if (mf2.isPrimitiveFunction()) {
-                                continue;
-                            }
+                                    // Check to see if this is a primitive function.
+                                    // Functions marked as primitive can be one of two things:
+                                    // 1) a primitive function implemented as a machine specific operator
+                                    // 2) a primitive function for which a hard coded machine specific implementation is provided.
+                                    // If the function falls into category two we don't want to generate anything for it.
+                                    if (mf2.isPrimitiveFunction()) {
+                                        continue;
+                                    }
                             
-                            if (mf.isForAdjunct() != mf2.isForAdjunct()) {
-                                continue;
-                            }
+                                    if (mf.isForAdjunct() != mf2.isForAdjunct()) {
+                                        continue;
+                                    }
                             
-                            machineFunctions.add(mf2);
-                        }
+                                    machineFunctions.add(mf2);
+                                }
                         
-                        fgi = new LECCModule.FunctionGroupInfo(this, machineFunctions);
-                        for (final MachineFunction mf2 : machineFunctions) {                           
-                            functionNameToFunctionGroup.put(mf2.getName(), fgi);
-                        }
-                    }
-                } else {
-                    List<MachineFunction> machineFunctions = new ArrayList<MachineFunction>();
-                    Set<String> connectedComponents = mf.getStronglyConnectedComponents();
-                    for (final String functionName : connectedComponents) {
-                        MachineFunction mf2 = getFunction(functionName);
-                        machineFunctions.add(mf2);
-                    }
+                                fgi = new LECCModule.FunctionGroupInfo(this, machineFunctions);
+                                for (final MachineFunction mf2 : machineFunctions) {                           
+                                    functionNameToFunctionGroup.put(mf2.getName(), fgi);
+                                }
+                            }
+                        } else {
+                            List<MachineFunction> machineFunctions = new ArrayList<MachineFunction>();
+                            Set<String> connectedComponents = mf.getStronglyConnectedComponents();
+                            for (final String functionName : connectedComponents) {
+                                MachineFunction mf2 = getFunction(functionName);
+                                machineFunctions.add(mf2);
+                            }
                     
-                    fgi = new LECCModule.FunctionGroupInfo(this, machineFunctions);
-                    for (final MachineFunction mf2 : machineFunctions) {                       
-                        functionNameToFunctionGroup.put(mf2.getName(), fgi);
+                            fgi = new LECCModule.FunctionGroupInfo(this, machineFunctions);
+                            for (final MachineFunction mf2 : machineFunctions) {                       
+                                functionNameToFunctionGroup.put(mf2.getName(), fgi);
+                            }
+                        }
                     }
                 }
             }
@@ -37,11 +37,13 @@
  */
 package org.openquark.cal.internal.machine.lecc;
 
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
 import org.openquark.cal.compiler.ModuleName;
+import org.openquark.cal.compiler.QualifiedName;
 import org.openquark.cal.machine.Module;
 import org.openquark.cal.machine.Program;
 import org.openquark.cal.machine.ProgramResourceRepository;
@@ -148,6 +150,16 @@ final class LECCProgram extends Program {
         }
     }
     
+    /**
+     * {@inheritDoc}
+     * Generates and defines the classes for the entry points, and the classes reachable from them, on a pool of threads.
+     * Note: this is not synchronized on the program, so that the program remains available while the classes are loaded.
+     */
+    @Override
+    public void preloadEntryPoints(Collection<QualifiedName> entryPointNames) {
+        CALClassPreloader.preload(this, entryPointNames);
+    }
+    
     /**
      * @return the machine statistics associated with this program.
      */
@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2007 BUSINESS OBJECTS SOFTWARE LIMITED
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *  
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *  
+ *     * Neither the name of Business Objects nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+
+
+/*
+ * MutualTailCallLoop.java
+ * Created: Oct 18, 2026
+ */
+package org.openquark.cal.internal.machine.lecc;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openquark.cal.internal.javamodel.JavaTypeName;
+import org.openquark.cal.internal.machine.CodeGenerationException;
+
+
+/**
+ * Describes a set of functions from the same strongly connected component which make
+ * saturated tail calls to one another.  The logic of all the functions in the set is
+ * generated into a single loop method in the class for the function group.  The fnS
+ * method of each function simply calls the loop method, passing its arguments and the
+ * tag identifying the function.  A tail call from one function in the set to another
+ * is then compiled as an assignment of the argument slots and the tag, followed by a
+ * continuation of the loop, rather than as a strict application node which is returned
+ * to be reduced by the caller.
+ * <p>
+ * The arguments of the functions share a set of slots, which are the parameters of the
+ * loop method.  A slot is allocated for each Java type used for the arguments, as many
+ * times as the function using the most arguments of that type needs.  The nth argument
+ * of a given type, in each function, is passed in the nth slot of that type.
+ */
+final class MutualTailCallLoop {
+
+    /** The label of the loop in the generated loop method. */
+    static final String LOOP_LABEL = "MTLoop";
+
+    /** The name of the loop method parameter holding the tag of the function to be run. */
+    static final String TAG_NAME = "$mtTag";
+
+    /** The prefix for the names of the loop method parameters holding the argument slots. */
+    private static final String SLOT_NAME_PREFIX = "$mtArg";
+
+    /** The functions in the loop.  The index of a function is its tag. */
+    private final List<SCJavaDefn> members;
+
+    /** The name of the generated loop method. */
+    private final String methodName;
+
+    /** The Java types of the argument slots. */
+    private final List<JavaTypeName> slotTypes = new ArrayList<JavaTypeName>();
+
+    /** Map of function name to the indices of the slots used for its arguments. */
+    private final Map<String, int[]> functionNameToSlots = new HashMap<String, int[]>();
+
+    /**
+     * Constructor for a MutualTailCallLoop.
+     * @param methodName the name of the generated loop method.
+     * @param members the functions in the loop.
+     * @throws CodeGenerationException
+     */
+    MutualTailCallLoop(String methodName, List<SCJavaDefn> members) throws CodeGenerationException {
+        if (methodName == null || members == null) {
+            throw new NullPointerException();
+        }
+        this.methodName = methodName;
+        this.members = new ArrayList<SCJavaDefn>(members);
+
+        for (final SCJavaDefn member : this.members) {
+            // The number of slots of each type used so far by this function.
+            Map<JavaTypeName, Integer> typeToCount = new HashMap<JavaTypeName, Integer>();
+
+            int[] slots = new int[member.getArity()];
+            for (int i = 0; i < slots.length; ++i) {
+                JavaTypeName argType = getArgumentSlotType(member, i);
+
+                Integer count = typeToCount.get(argType);
+                int nthOfType = (count == null) ? 0 : count.intValue();
+                typeToCount.put(argType, Integer.valueOf(nthOfType + 1));
+
+                // Find the nth slot of the argument type, adding a new slot if there is no such slot yet.
+                int slot = -1;
+                for (int j = 0, seen = 0, n = slotTypes.size(); j < n; ++j) {
+                    if (slotTypes.get(j).equals(argType)) {
+                        if (seen == nthOfType) {
+                            slot = j;
+                            break;
+                        }
+                        seen++;
+                    }
+                }
+                if (slot == -1) {
+                    slot = slotTypes.size();
+                    slotTypes.add(argType);
+                }
+
+                slots[i] = slot;
+            }
+
+            functionNameToSlots.put(member.getFunctionName(), slots);
+        }
+    }
+
+    /**
+     * @param javaDefn
+     * @param argN
+     * @return the Java type used to pass the given argument of the function: the unboxed type
+     * for strict unboxable arguments, RTValue otherwise.
+     * @throws CodeGenerationException
+     */
+    static JavaTypeName getArgumentSlotType(SCJavaDefn javaDefn, int argN) throws CodeGenerationException {
+        if (javaDefn.isArgStrict(argN) && javaDefn.isArgUnboxable(argN)) {
+            return javaDefn.getArgumentTypeName(argN);
+        }
+        return JavaTypeNames.RTVALUE;
+    }
+
+    /**
+     * @return the name of the generated loop method.
+     */
+    String getMethodName() {
+        return methodName;
+    }
+
+    /**
+     * @return the number of functions in the loop.
+     */
+    int getNMembers() {
+        return members.size();
+    }
+
+    /**
+     * @param n
+     * @return the nth function in the loop.  This is the function with tag n.
+     */
+    SCJavaDefn getNthMember(int n) {
+        return members.get(n);
+    }
+
+    /**
+     * @param functionName the unqualified name of a function.
+     * @return the function in the loop with the given name, or null if the function is not in the loop.
+     */
+    SCJavaDefn getMember(String functionName) {
+        int tag = getTag(functionName);
+        return (tag == -1) ? null : members.get(tag);
+    }
+
+    /**
+     * @param functionName the unqualified name of a function.
+     * @return the tag of the given function in the loop, or -1 if the function is not in the loop.
+     */
+    int getTag(String functionName) {
+        for (int i = 0, n = members.size(); i < n; ++i) {
+            if (members.get(i).getFunctionName().equals(functionName)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the number of argument slots.
+     */
+    int getNSlots() {
+        return slotTypes.size();
+    }
+
+    /**
+     * @param n
+     * @return the name of the loop method parameter for the nth argument slot.
+     */
+    String getNthSlotName(int n) {
+        return SLOT_NAME_PREFIX + n;
+    }
+
+    /**
+     * @param n
+     * @return the Java type of the nth argument slot.
+     */
+    JavaTypeName getNthSlotType(int n) {
+        return slotTypes.get(n);
+    }
+
+    /**
+     * @param functionName the unqualified name of a function in the loop.
+     * @param argN
+     * @return the index of the argument slot used for the given argument of the function.
+     */
+    int getArgumentSlot(String functionName, int argN) {
+        return functionNameToSlots.get(functionName)[argN];
+    }
+}
@@ -65,6 +65,7 @@ import org.openquark.cal.compiler.ForeignFunctionInfo;
 import org.openquark.cal.compiler.ForeignTypeInfo;
 import org.openquark.cal.compiler.ModuleName;
 import org.openquark.cal.compiler.QualifiedName;
+import org.openquark.cal.compiler.RecordType;
 import org.openquark.cal.compiler.StringEncoder;
 import org.openquark.cal.compiler.TypeConsApp;
 import org.openquark.cal.compiler.TypeConstructor;
@@ -193,6 +194,7 @@ final class SCJavaDefn {
     /** The generated code for the body */
     private Block bodyCode = null;
     private Block unboxedBodyCode = null;
+    private Block recordBodyCode = null;
 
     /** List of ExceptionBlock */
     private List<JavaExceptionHandler> exceptionInfo = new ArrayList<JavaExceptionHandler>();
@@ -272,6 +274,18 @@ final class SCJavaDefn {
     private final Map<ReturnStatement, Set<VarInfo>> returnStatementToLocalVars =
         new HashMap<ReturnStatement, Set<VarInfo>>();
 
+    /** The mutual tail call loop containing this function.  May be null. */
+    private MutualTailCallLoop mutualTailCallLoop = null;
+
+    /** The generated code for the body, as it appears in the mutual tail call loop method. */
+    private Block mutualTailCallLoopBodyCode = null;
+
+    /** Flag indicating that the body code for the mutual tail call loop method is being generated. */
+    private boolean generatingMutualTailCallLoopBody = false;
+
+    /** Set of String.  Names of the functions in the mutual tail call loop which are tail called by this function. */
+    private final Set<String> mutualTailCallTargets = new HashSet<String>();
+
     /**
      * Create an SCJavaDefn from a MachineFunction
      * @param label
@@ -448,10 +462,72 @@ final class SCJavaDefn {
      * @throws CodeGenerationException
      */
     Block genS_SC_Boxed() throws CodeGenerationException {
+        if (LECCMachineConfiguration.generateCallCounts()) {
+            // Intern the counter slot now, so that the field holding it is created along with the other shared values.
+            getCallCountSlotField();
+        }
+
         genS_SC();
         return bodyCode;
     }
 
+    /**
+     * Set the mutual tail call loop which contains this function.
+     * Any previously generated loop body code is discarded.
+     * @param mutualTailCallLoop the loop, may be null.
+     */
+    void setMutualTailCallLoop(MutualTailCallLoop mutualTailCallLoop) {
+        this.mutualTailCallLoop = mutualTailCallLoop;
+        this.mutualTailCallLoopBodyCode = null;
+        this.mutualTailCallTargets.clear();
+    }
+
+    /**
+     * @return the mutual tail call loop which contains this function, null if there is none.
+     */
+    MutualTailCallLoop getMutualTailCallLoop() {
+        return mutualTailCallLoop;
+    }
+
+    /**
+     * @return Set of String.  The names of the functions in the mutual tail call loop which
+     * are tail called by this function.  This is only populated once the loop body has been generated.
+     */
+    Set<String> getMutualTailCallTargets() {
+        return Collections.unmodifiableSet(mutualTailCallTargets);
+    }
+
+    /**
+     * The SC scheme deals with entire supercombinators.
+     * This version generates the function body as it appears in the loop method of the
+     * containing mutual tail call loop.  Saturated tail calls to the other functions in the loop
+     * are generated as a re-assignment of the loop arguments and a continuation of the loop.
+     * @return StatementBlock the resulting code contribution (SC body), null if this function
+     *    is not part of a mutual tail call loop.
+     * @throws CodeGenerationException
+     */
+    Block genS_SC_MutualTailCallLoopBody() throws CodeGenerationException {
+        if (mutualTailCallLoop == null) {
+            return null;
+        }
+
+        if (mutualTailCallLoopBodyCode == null) {
+            // Generate the body from scratch, leaving the regular body code untouched.
+            Block savedBodyCode = bodyCode;
+            bodyCode = null;
+            generatingMutualTailCallLoopBody = true;
+            try {
+                genS_SC();
+                mutualTailCallLoopBodyCode = bodyCode;
+            } finally {
+                bodyCode = savedBodyCode;
+                generatingMutualTailCallLoopBody = false;
+            }
+        }
+
+        return mutualTailCallLoopBodyCode;
+    }
+
     /**
      * The SC scheme deals with entire supercombinators.
      * This version generates a function which returns unboxed values.
@@ -478,62 +554,115 @@ final class SCJavaDefn {
                 // Fall back on calling fNS.
 
                 Block body = new Block();
+                LocalVariable result = addFnSCall(body);
 
-                JavaExpression argValues[] = new JavaExpression[getArity() + 1];
-                JavaTypeName argTypes[] = new JavaTypeName[argValues.length];
+                MethodInvocation eval = createInvocation(result, SCJavaDefn.EVALUATE, SCJavaDefn.EXECUTION_CONTEXT_VAR);
+                JavaExpression unbox = SCJavaDefn.unboxValue(SCJavaDefn.typeExprToTypeName(resultType), eval);
 
-                argValues[argValues.length-1] = SCJavaDefn.EXECUTION_CONTEXT_VAR;
+                body.addStatement(new ReturnStatement(unbox));
 
-                Arrays.fill(argTypes, JavaTypeNames.RTVALUE);
-                argTypes[argTypes.length-1] = JavaTypeNames.RTEXECUTION_CONTEXT;
+                unboxedBodyCode = body;
+            }
 
-                for (int i = 0, n = getArity(); i < n; ++i) {
-                    argValues[i] = new JavaExpression.MethodVariable(getJavaArgumentName(i));
-                    if (isArgStrict(i) && SCJavaDefn.canTypeBeUnboxed(getArgumentType(i))) {
-                        argTypes[i] = typeExprToTypeName(getArgumentType(i));
-                    }
-                }
+        }
 
-                LECCModule.FunctionGroupInfo fgi = module.getFunctionGroupInfo(getQualifiedName());
-                String functionName = fgi.getFnNamePrefix(getFunctionName()) + "f";
-                if (getArity() > 0) {
-                    functionName = functionName + getArity() + "S";
-                }
+        return unboxedBodyCode;
+    }
 
-                MethodInvocation fNS =
-                    new MethodInvocation.Instance(
-                            null,
-                            functionName,
-                            argValues,
-                            argTypes,
-                            JavaTypeNames.RTVALUE,
-                            MethodInvocation.InvocationType.VIRTUAL);
+    /**
+     * The SC scheme deals with entire supercombinators.
+     * This version generates a function which passes the field values of its tuple or record
+     * result back through the record result slots of the execution context, instead of
+     * returning the record.
+     * @return StatementBlock the resulting code contribution (SC body), null if the result
+     *    type of this function can't be returned this way.
+     * @throws CodeGenerationException
+     */
+    Block genS_SC_Record() throws CodeGenerationException {
+        final int nFields = SCJavaDefn.getNDirectRecordReturnFields(resultType);
+        if (nFields < 0) {
+            return null;
+        }
 
-                LocalVariable result = new LocalVariable("$result", JavaTypeNames.RTVALUE);
-                LocalVariableDeclaration resultDecl = new LocalVariableDeclaration(result, fNS);
+        if (recordBodyCode == null) {
 
-                body.addStatement(resultDecl);
+            // First we need to generate the body code for the boxed case.
+            genS_SC();
 
-                for (int i = 0, n = getArity(); i < n; ++i) {
-                    if (!isArgStrict(i) || !SCJavaDefn.canTypeBeUnboxed(getArgumentType(i))) {
-                        // Null out the argument value.
-                        Assignment nullOut =
-                            new Assignment((JavaExpression.Nameable)argValues[i], LiteralWrapper.NULL);
-                        body.addStatement(new ExpressionStatement(nullOut));
-                    }
-                }
+            // Now try to do a copy/transformation of the boxed body code.
+            RecordReturnCopier copier = new RecordReturnCopier(nFields);
+            try {
+                recordBodyCode = (JavaStatement.Block)bodyCode.accept(copier, null);
+            } catch (UnboxingTransformationError e) {
+                // Unable to transform function body to directly return the field values.
+                // Fall back on calling fNS.
 
-                MethodInvocation eval = createInvocation(result, SCJavaDefn.EVALUATE, SCJavaDefn.EXECUTION_CONTEXT_VAR);
-                JavaExpression unbox = SCJavaDefn.unboxValue(SCJavaDefn.typeExprToTypeName(resultType), eval);
+                Block body = new Block();
+                LocalVariable result = addFnSCall(body);
+                body.addStatement(new ReturnStatement(createRecordResultFromRecord(result, nFields)));
 
-                body.addStatement(new ReturnStatement(unbox));
+                recordBodyCode = body;
+            }
+        }
 
-                unboxedBodyCode = body;
+        return recordBodyCode;
+    }
+
+    /**
+     * Add a call to the fNS method of this function to the given block.
+     * The result of the call is assigned to a local variable and the boxed arguments
+     * are then nulled out.
+     * @param body the block to add the call to.
+     * @return the local variable holding the result of the call.
+     * @throws CodeGenerationException
+     */
+    private LocalVariable addFnSCall(Block body) throws CodeGenerationException {
+
+        JavaExpression argValues[] = new JavaExpression[getArity() + 1];
+        JavaTypeName argTypes[] = new JavaTypeName[argValues.length];
+
+        argValues[argValues.length-1] = SCJavaDefn.EXECUTION_CONTEXT_VAR;
+
+        Arrays.fill(argTypes, JavaTypeNames.RTVALUE);
+        argTypes[argTypes.length-1] = JavaTypeNames.RTEXECUTION_CONTEXT;
+
+        for (int i = 0, n = getArity(); i < n; ++i) {
+            argValues[i] = new JavaExpression.MethodVariable(getJavaArgumentName(i));
+            if (isArgStrict(i) && SCJavaDefn.canTypeBeUnboxed(getArgumentType(i))) {
+                argTypes[i] = typeExprToTypeName(getArgumentType(i));
             }
+        }
 
+        LECCModule.FunctionGroupInfo fgi = module.getFunctionGroupInfo(getQualifiedName());
+        String functionName = fgi.getFnNamePrefix(getFunctionName()) + "f";
+        if (getArity() > 0) {
+            functionName = functionName + getArity() + "S";
         }
 
-        return unboxedBodyCode;
+        MethodInvocation fNS =
+            new MethodInvocation.Instance(
+                    null,
+                    functionName,
+                    argValues,
+                    argTypes,
+                    JavaTypeNames.RTVALUE,
+                    MethodInvocation.InvocationType.VIRTUAL);
+
+        LocalVariable result = new LocalVariable("$result", JavaTypeNames.RTVALUE);
+        LocalVariableDeclaration resultDecl = new LocalVariableDeclaration(result, fNS);
+
+        body.addStatement(resultDecl);
+
+        for (int i = 0, n = getArity(); i < n; ++i) {
+            if (!isArgStrict(i) || !SCJavaDefn.canTypeBeUnboxed(getArgumentType(i))) {
+                // Null out the argument value.
+                Assignment nullOut =
+                    new Assignment((JavaExpression.Nameable)argValues[i], LiteralWrapper.NULL);
+                body.addStatement(new ExpressionStatement(nullOut));
+            }
+        }
+
+        return result;
     }
 
     /**
@@ -1724,6 +1853,15 @@ final class SCJavaDefn {
         // e is an application?
         Expression.Appl appl = e.asAppl();
         if (appl != null) {
+            if (generatingMutualTailCallLoopBody) {
+                // Is e a tail call to another function in the mutual tail call loop?
+                JavaStatement mutualTailCall = buildMutualTailCallLoopCall(appl, variableContext);
+                if (mutualTailCall != null) {
+                    // As with a tail recursive call there is no 'return'.
+                    return mutualTailCall;
+                }
+            }
+
             JavaStatement topLevelSeq = buildTopLevelSeq (appl, false, variableContext);
             if (topLevelSeq != null) {
                 return topLevelSeq;
@@ -2152,8 +2290,9 @@ final class SCJavaDefn {
                 if (hasTupleOrdinalPart) {
                     //in the non-extension case, create code for:
                     //RTRecordValue.makeTupleMixedRecord(new RTValue[] {ordinalValues1, ..., ordinalValuesN},
-                    //    new String[] {textualFieldName1, ..., textualFieldNameM},
+                    //    $recordShapeK,
                     //    new RTValue[] {textualFieldValue1, ..., textualFieldValueM}
+                    //where $recordShapeK is a static field holding the shape of the textual fields
                     MethodInvocation mi;
                     if (baseRecordExpr != null) {
                         mi = new MethodInvocation.Instance(
@@ -2167,15 +2306,15 @@ final class SCJavaDefn {
                             JavaTypeNames.RTRECORD_VALUE,
                             InvocationType.VIRTUAL);
                     } else {
-                        //static invocation
+                        //static invocation, using the shape of the record literal held in a static field
                         mi = new MethodInvocation.Static(
                             JavaTypeNames.RTRECORD_VALUE,
                             makeRecordCreationName("makeTupleMixedRecord", null),
                             new JavaExpression[] {
                                 createOrdinalValuesArray(extensionFieldsData, recordExtensionBlock, variableContext),
-                                createTextualNamesArray(extensionFieldsData.getTextualNames()),
+                                getRecordShapeField(extensionFieldsData.getTextualNames()),
                                 createTextualValuesArray(extensionFieldsData, recordExtensionBlock, variableContext)},
-                            new JavaTypeName[] {JavaTypeNames.RTVALUE_ARRAY, JavaTypeName.STRING_ARRAY, JavaTypeNames.RTVALUE_ARRAY},
+                            new JavaTypeName[] {JavaTypeNames.RTVALUE_ARRAY, JavaTypeNames.RTRECORD_SHAPE, JavaTypeNames.RTVALUE_ARRAY},
                             JavaTypeNames.RTRECORD_VALUE);
                     }
                     return new ExpressionContextPair (mi, recordExtensionBlock);
@@ -2201,9 +2340,9 @@ final class SCJavaDefn {
                         new JavaExpression[] {
                             createOrdinalNamesArray(extensionFieldsData.getOrdinalNames()),
                             createOrdinalValuesArray(extensionFieldsData, recordExtensionBlock, variableContext),
-                            createTextualNamesArray(extensionFieldsData.getTextualNames()),
+                            getRecordShapeField(extensionFieldsData.getTextualNames()),
                             createTextualValuesArray(extensionFieldsData, recordExtensionBlock, variableContext)},
-                        new JavaTypeName[] {JavaTypeName.INT_ARRAY, JavaTypeNames.RTVALUE_ARRAY, JavaTypeName.STRING_ARRAY, JavaTypeNames.RTVALUE_ARRAY},
+                        new JavaTypeName[] {JavaTypeName.INT_ARRAY, JavaTypeNames.RTVALUE_ARRAY, JavaTypeNames.RTRECORD_SHAPE, JavaTypeNames.RTVALUE_ARRAY},
                         JavaTypeNames.RTRECORD_VALUE);
                 }
 
@@ -2261,9 +2400,8 @@ final class SCJavaDefn {
         if (nTextualFields > 0) {
 
             //create code for:
-            //RTRecordValue.makeTextualRecord(new String[] {textualFieldName1, ..., textualFieldNameN},
-            //    new RTValue[] {valueExpr1, ...., valueExprN})
-            //or
+            //RTRecordValue.makeTextualRecord($recordShapeK, new RTValue[] {valueExpr1, ...., valueExprN})
+            //where $recordShapeK is a static field holding the shape of the record literal, or
             //baseRecordExpr.makeTextualRecordExtension(new String[] {textualFieldName1, ..., textualFieldNameN},
             //    new RTValue[] {valueExpr1, ...., valueExprN})
 
@@ -2281,9 +2419,9 @@ final class SCJavaDefn {
                 mi = new MethodInvocation.Static(
                     JavaTypeNames.RTRECORD_VALUE,
                     makeRecordCreationName("makeTextualRecord", null),
-                    new JavaExpression[] {createTextualNamesArray(extensionFieldsData.getTextualNames()),
+                    new JavaExpression[] {getRecordShapeField(extensionFieldsData.getTextualNames()),
                         createTextualValuesArray(extensionFieldsData, recordExtensionBlock, variableContext)},
-                    new JavaTypeName[] {JavaTypeName.STRING_ARRAY, JavaTypeNames.RTVALUE_ARRAY},
+                    new JavaTypeName[] {JavaTypeNames.RTRECORD_SHAPE, JavaTypeNames.RTVALUE_ARRAY},
                     JavaTypeNames.RTRECORD_VALUE);
             }
 
@@ -2500,7 +2638,7 @@ final class SCJavaDefn {
         //for ordinal fields
         //((RTRecordValue) (codeForRecordExpr.evaluate($ec))).getOrdinalFieldValue(ordinal)
         //for textual fields
-        //((RTRecordValue) (codeForRecordExpr.evaluate($ec))).getTextualFieldValue(textualFieldName)
+        //$recordSelectorN_textualFieldName.select((RTRecordValue) (codeForRecordExpr.evaluate($ec)))
 
         Expression recordExpr = recordSelectionExpr.getRecordExpr();
         FieldName fieldName = recordSelectionExpr.getFieldName();
@@ -2517,8 +2655,8 @@ final class SCJavaDefn {
 
         MethodInvocation getValueInvocation;
         if (fieldName instanceof FieldName.Textual) {
-            getValueInvocation = new MethodInvocation.Instance(javaRecordExpr, "getTextualFieldValue",
-                LiteralWrapper.make(fieldName.getCalSourceForm()), JavaTypeName.STRING,
+            getValueInvocation = new MethodInvocation.Instance(getRecordFieldSelectorField((FieldName.Textual)fieldName), "select",
+                javaRecordExpr, JavaTypeNames.RTRECORD_VALUE,
                 JavaTypeNames.RTVALUE, InvocationType.VIRTUAL);
         } else {
             int ordinal = ((FieldName.Ordinal)fieldName).getOrdinal();
@@ -2549,7 +2687,7 @@ final class SCJavaDefn {
 
         //for the CAL code recordExpr.fieldName we generate (roughly)
         //for textual field names
-        //new RTRecordSelection.Textual(codeForRecordExpr, textualFieldName);
+        //new RTRecordSelection.Textual(codeForRecordExpr, $recordSelectorN_textualFieldName);
         //for ordinal field names
         //new RTRecordSelection.Ordinal(codeForRecordExpr, ordinal);
 
@@ -2574,8 +2712,8 @@ final class SCJavaDefn {
         if (fieldName instanceof FieldName.Textual) {
 
             createLazyRecordSelection = new ClassInstanceCreationExpression(JavaTypeNames.RTRECORD_SELECTION_TEXTUAL_FIELD,
-                new JavaExpression[] {javaRecordExpr, LiteralWrapper.make(fieldName.getCalSourceForm())},
-                new JavaTypeName[] {JavaTypeNames.RTVALUE, JavaTypeName.STRING});
+                new JavaExpression[] {javaRecordExpr, getRecordFieldSelectorField((FieldName.Textual)fieldName)},
+                new JavaTypeName[] {JavaTypeNames.RTVALUE, JavaTypeNames.RTRECORD_FIELD_SELECTOR});
 
         } else {
 
@@ -2588,6 +2726,120 @@ final class SCJavaDefn {
         return new ExpressionContextPair(createLazyRecordSelection, recordSelectionBlock);
     }
 
+    /**
+     * Determine whether the given expression is a fully saturated call to a function which can
+     * pass the field values of its tuple or record result back through the record result slots
+     * of the execution context, by calling its fRecordnS method.
+     * @param e
+     * @param variableContext
+     * @return the called function if this is the case, null otherwise.
+     * @throws CodeGenerationException
+     */
+    private MachineFunction getDirectRecordReturnFunction(Expression e, VariableContext variableContext) throws CodeGenerationException {
+
+        // We have to be dealing with an application.
+        if (e.asAppl() == null) {
+            return null;
+        }
+
+        Expression[] chain = appChain (e.asAppl());
+        if (chain[0].asVar() == null) {
+            return null;
+        }
+
+        Expression.Var var = (Expression.Var)chain[0];
+        if (var.getDataConstructor() != null || var.getForeignFunctionInfo() != null) {
+            return null;
+        }
+        if (variableContext.isLocalVariable(var.getName())) {
+            return null;
+        }
+
+        // Lifted let variable definitions are generated as static methods rather than as supercombinators.
+        MachineFunction mf = module.getFunction(var.getName());
+        if (mf == null || mf instanceof LECCLiftedLetVarMachineFunction) {
+            return null;
+        }
+
+        if (SCJavaDefn.getNDirectRecordReturnFields(mf.getResultType()) < 0) {
+            return null;
+        }
+
+        // We only generate fRecord methods under the same conditions we generate the fNL and fNS methods.
+        boolean generateFnMethods = mf.getArity() > 0
+        && (mf.getArity() <= LECCMachineConfiguration.OPTIMIZED_APP_CHAIN_LENGTH
+                || mf.isTailRecursive() || hasStrictUnboxableArguments(mf));
+
+        if (!generateFnMethods) {
+            return null;
+        }
+
+        // It must be a fully saturated application.
+        if (mf.getArity() != chain.length - 1) {
+            return null;
+        }
+
+        return mf;
+    }
+
+    /**
+     * Generate a direct call to the fRecordnS method of a function which returns a tuple or record.
+     * The call returns the record result slots of the execution context, holding the field values.
+     * @param e a fully saturated application of calledFunction.
+     * @param calledFunction the called function, as returned by getDirectRecordReturnFunction().
+     * @param variableContext
+     * @return the call to the fRecordnS method and its context.
+     * @throws CodeGenerationException
+     */
+    private ExpressionContextPair buildDirectRecordReturnCall(Expression e, MachineFunction calledFunction, VariableContext variableContext) throws CodeGenerationException {
+
+        Expression[] chain = appChain (e.asAppl());
+        Expression.Var var = (Expression.Var)chain[0];
+
+        //  Get information about the arguments of the called function.
+        boolean[] calledArgStrictness = calledFunction.getParameterStrictness();
+        TypeExpr[] calledArgTypes = calledFunction.getParameterTypes();
+        int calledArity = calledFunction.getArity();
+
+        // First generate the java expressions for the argument values.
+        Block newContext = new Block();
+        JavaExpression[] args = new JavaExpression[calledArity + 1];
+        JavaTypeName[] argTypes = new JavaTypeName[calledArity + 1];
+        for (int i = 0; i < calledArity; ++i) {
+            ExpressionContextPair argECP;
+            argTypes[i] = JavaTypeNames.RTVALUE;
+            if (calledArgStrictness[i]) {
+                if (SCJavaDefn.canTypeBeUnboxed(calledArgTypes[i])) {
+                    argTypes[i] = SCJavaDefn.typeExprToTypeName(calledArgTypes[i]);
+                    argECP = generateUnboxedArgument(argTypes[i], chain[i + 1], variableContext);
+                } else {
+                    argECP = genS_E(chain[i + 1], variableContext);
+                }
+            } else {
+                argECP = genS_C(chain[i + 1], variableContext);
+            }
+
+            newContext.addStatement(argECP.getContextBlock());
+            args[i] = argECP.getJavaExpression();
+        }
+        args[calledArity] = EXECUTION_CONTEXT_VAR;
+        argTypes[calledArity] = JavaTypeNames.RTEXECUTION_CONTEXT;
+
+        if (this.codeGenerationStats != null) {
+            this.codeGenerationStats.incrementDirectSCCalls();
+        }
+
+        JavaExpression root = expressionVarToJavaDef(var, Scheme.E_SCHEME, variableContext);
+
+        // Get the method name to call.
+        LECCModule.FunctionGroupInfo fgi = module.getFunctionGroupInfo(var.getName());
+        String functionName = fgi.getFnNamePrefix(var.getName().getUnqualifiedName()) + "fRecord" + calledArity + "S";
+
+        root = new MethodInvocation.Instance(root, functionName, args, argTypes, JavaTypeNames.RTVALUE_ARRAY, InvocationType.VIRTUAL);
+
+        return new ExpressionContextPair(root, newContext);
+    }
+
     /**
      * Generates code for record case.
      * The prototypical record case is:
@@ -2610,21 +2862,47 @@ final class SCJavaDefn {
         nestedCaseLevel++;
 
         Expression conditionExpr = recordCaseExpr.getConditionExpr();
-
-        ExpressionContextPair conditionExprContextPair = genS_E(conditionExpr, variableContext);
+        String baseRecordPatternVarName = recordCaseExpr.getBaseRecordPatternVarName();
 
         Block recordCaseBlock = new Block();
 
-        JavaExpression javaConditionExpr = conditionExprContextPair.getJavaExpression();
-        recordCaseBlock.addStatement(conditionExprContextPair.getContextBlock());
+        // If the condition is a call to a function which can pass back the field values of its
+        // result directly, and the record itself is not needed, we can avoid creating the record.
+        //RTValue[] $recordResult = function.fRecordnS(arg1, ..., argn, $ec)
+        MachineFunction directRecordFunction = null;
+        if (baseRecordPatternVarName == null ||
+            baseRecordPatternVarName.equals(Expression.RecordCase.WILDCARD_VAR)) {
+            directRecordFunction = getDirectRecordReturnFunction(conditionExpr, variableContext);
+        }
+
+        LocalVariable conditionVar = null;
+        LocalVariable recordResultVar = null;
+        List<FieldName> recordResultFieldNames = null;
+        if (directRecordFunction != null) {
 
-        //the compiler ensures that evaluating conditionExpr will result in a RTRecordValue.
-        javaConditionExpr = new CastExpression(JavaTypeNames.RTRECORD_VALUE, javaConditionExpr);
+            ExpressionContextPair directCallContextPair = buildDirectRecordReturnCall(conditionExpr, directRecordFunction, variableContext);
+            recordCaseBlock.addStatement(directCallContextPair.getContextBlock());
 
-        LocalVariable conditionVar = new LocalVariable("$recordCase" + nestedCaseLevel, JavaTypeNames.RTRECORD_VALUE);
+            recordResultVar = new LocalVariable("$recordResult" + nestedCaseLevel, JavaTypeNames.RTVALUE_ARRAY);
+            recordCaseBlock.addStatement(new LocalVariableDeclaration(recordResultVar, directCallContextPair.getJavaExpression()));
+
+            recordResultFieldNames = directRecordFunction.getResultType().rootRecordType().getHasFieldNames();
+
+        } else {
 
-        LocalVariableDeclaration conditionVarDeclaration = new LocalVariableDeclaration(conditionVar, javaConditionExpr);
-        recordCaseBlock.addStatement(conditionVarDeclaration);
+            ExpressionContextPair conditionExprContextPair = genS_E(conditionExpr, variableContext);
+
+            JavaExpression javaConditionExpr = conditionExprContextPair.getJavaExpression();
+            recordCaseBlock.addStatement(conditionExprContextPair.getContextBlock());
+
+            //the compiler ensures that evaluating conditionExpr will result in a RTRecordValue.
+            javaConditionExpr = new CastExpression(JavaTypeNames.RTRECORD_VALUE, javaConditionExpr);
+
+            conditionVar = new LocalVariable("$recordCase" + nestedCaseLevel, JavaTypeNames.RTRECORD_VALUE);
+
+            LocalVariableDeclaration conditionVarDeclaration = new LocalVariableDeclaration(conditionVar, javaConditionExpr);
+            recordCaseBlock.addStatement(conditionVarDeclaration);
+        }
 
         //now encode the extraction of the pattern bound variables from the condition record expr.
 
@@ -2635,7 +2913,6 @@ final class SCJavaDefn {
         //FieldName -> String
         SortedMap<FieldName, String> fieldBindingVarMap = recordCaseExpr.getFieldBindingVarMap();
 
-        String baseRecordPatternVarName = recordCaseExpr.getBaseRecordPatternVarName();
         if (baseRecordPatternVarName != null &&
             !baseRecordPatternVarName.equals(Expression.RecordCase.WILDCARD_VAR)) {
 
@@ -2757,10 +3034,20 @@ final class SCJavaDefn {
                 LocalVariable bindingVar = new LocalVariable(javaBindingVarName, JavaTypeNames.RTVALUE);
 
                 JavaExpression javaExtractValueExpr;
-                if (fieldName instanceof FieldName.Textual) {
-                    //javaBindingVarName = $recordCase.getTextualFieldValue(fieldName);
-                    javaExtractValueExpr = new MethodInvocation.Instance(conditionVar, "getTextualFieldValue",
-                        LiteralWrapper.make(fieldName.getCalSourceForm()), JavaTypeName.STRING,
+                if (recordResultVar != null) {
+                    //javaBindingVarName = RTValue.lastRef($recordResult[n], $recordResult[n] = null);
+                    JavaExpression.ArrayAccess resultSlot =
+                        new JavaExpression.ArrayAccess(recordResultVar, LiteralWrapper.make(Integer.valueOf(recordResultFieldNames.indexOf(fieldName))));
+                    javaExtractValueExpr = new MethodInvocation.Static(
+                            JavaTypeNames.RTVALUE,
+                            "lastRef",
+                            new JavaExpression[]{resultSlot, new Assignment(resultSlot, LiteralWrapper.NULL)},
+                            new JavaTypeName[]{JavaTypeNames.RTVALUE, JavaTypeNames.RTVALUE},
+                            JavaTypeNames.RTVALUE);
+                } else if (fieldName instanceof FieldName.Textual) {
+                    //javaBindingVarName = $recordSelectorN_fieldName.select($recordCase);
+                    javaExtractValueExpr = new MethodInvocation.Instance(getRecordFieldSelectorField((FieldName.Textual)fieldName), "select",
+                        conditionVar, JavaTypeNames.RTRECORD_VALUE,
                         JavaTypeNames.RTVALUE, InvocationType.VIRTUAL);
                 } else {
                     int ordinal = ((FieldName.Ordinal)fieldName).getOrdinal();
@@ -2774,6 +3061,18 @@ final class SCJavaDefn {
             }
         }
 
+        if (recordResultVar != null) {
+            // Clear the result slots of fields which weren't bound, so that the slots don't hold on to their values.
+            for (int i = 0, n = recordResultFieldNames.size(); i < n; ++i) {
+                String bindingVarName = fieldBindingVarMap.get(recordResultFieldNames.get(i));
+                if (bindingVarName == null || bindingVarName.equals(Expression.RecordCase.WILDCARD_VAR)) {
+                    JavaExpression.ArrayAccess resultSlot =
+                        new JavaExpression.ArrayAccess(recordResultVar, LiteralWrapper.make(Integer.valueOf(i)));
+                    recordCaseBlock.addStatement(new ExpressionStatement(new Assignment(resultSlot, LiteralWrapper.NULL)));
+                }
+            }
+        }
+
 
         //encode the result expression in the context of the extended variable scope.
         Expression resultExpr = recordCaseExpr.getResultExpr();
@@ -4049,6 +4348,75 @@ final class SCJavaDefn {
         return new JavaField.Static(thisTypeName, errorVarName, JavaTypeName.ERRORINFO);
     }
 
+    /**
+     * Get a reference to a new static field holding the inline cache for a selection of the given textual field,
+     * adding the field to the shared values. Each call site gets its own selector, so that its cache only
+     * sees the shapes of the records selected from at that call site.
+     * @param fieldName the selected textual field.
+     * @return the field holding the selector.
+     */
+    private JavaField getRecordFieldSelectorField(FieldName.Textual fieldName) {
+        final String textualFieldName = fieldName.getCalSourceForm();
+        final String selectorVarName = "$recordSelector" + (sharedValues.getNRecordFieldSelectors() + 1) + "_" + textualFieldName;
+
+        final JavaExpression selectorInitializer =
+            new ClassInstanceCreationExpression(
+                JavaTypeNames.RTRECORD_FIELD_SELECTOR,
+                LiteralWrapper.make(textualFieldName),
+                JavaTypeName.STRING);
+
+        sharedValues.addRecordFieldSelector(selectorVarName, selectorInitializer);
+
+        return new JavaField.Static(thisTypeName, selectorVarName, JavaTypeNames.RTRECORD_FIELD_SELECTOR);
+    }
+
+    /**
+     * Get a reference to a new static field holding the shape of a record literal with the given textual fields,
+     * adding the field to the shared values. The shape is looked up once, when the generated class is initialized,
+     * rather than each time the record is created.
+     * @param textualNames the textual field names of the record literal, in ascending alphabetical order.
+     * @return the field holding the shape.
+     */
+    private JavaField getRecordShapeField(String[] textualNames) {
+        final String shapeVarName = "$recordShape" + (sharedValues.getNRecordShapes() + 1);
+
+        final JavaExpression shapeInitializer =
+            new MethodInvocation.Static(
+                JavaTypeNames.RTRECORD_SHAPE,
+                "make",
+                createTextualNamesArray(textualNames),
+                JavaTypeName.STRING_ARRAY,
+                JavaTypeNames.RTRECORD_SHAPE);
+
+        sharedValues.addRecordShape(shapeVarName, shapeInitializer);
+
+        return new JavaField.Static(thisTypeName, shapeVarName, JavaTypeNames.RTRECORD_SHAPE);
+    }
+
+    /**
+     * Get a reference to the static field holding the runtime statistics counter slot for this function,
+     * adding the field to the shared values if necessary. The slot is interned once, when the generated class
+     * is initialized, so that the generated code can count calls by slot rather than by name.
+     * @return the field holding the counter slot.
+     */
+    JavaField getCallCountSlotField() {
+        final String slotVarName = CALToJavaNames.cleanSCName(functionName) + "$callCountSlot";
+
+        if (sharedValues.getCallCountSlot(slotVarName) == null) {
+            final JavaExpression slotInitializer =
+                new MethodInvocation.Static(
+                    JavaTypeNames.RTSTATISTICS_COUNTERS,
+                    "getCounterSlot",
+                    new JavaExpression[] {LiteralWrapper.make(currentModuleName.toSourceText()), LiteralWrapper.make(functionName)},
+                    new JavaTypeName[] {JavaTypeName.STRING, JavaTypeName.STRING},
+                    JavaTypeName.INT);
+
+            sharedValues.addCallCountSlot(slotVarName, slotInitializer);
+        }
+
+        return new JavaField.Static(thisTypeName, slotVarName, JavaTypeName.INT);
+    }
+
     /**
      * Generate a call to RTSupercombinator.badSwitchIndex.
      *
@@ -4851,6 +5219,47 @@ final class SCJavaDefn {
         return false;
     }
 
+    /**
+     * Returns the number of fields in the given result type if a function with this result type
+     * can pass the field values of its result back through the record result slots of the
+     * execution context.  This is the case for tuples and non record-polymorphic records with
+     * between 2 and LECCMachineConfiguration.MAX_DIRECT_RECORD_RETURN_FIELDS fields.
+     * @param resultType
+     * @return the number of fields in the result type, -1 if the result can't be returned this way.
+     */
+    static int getNDirectRecordReturnFields (TypeExpr resultType) {
+        if (!LECCMachineConfiguration.DIRECT_RECORD_RETURNS || resultType == null) {
+            return -1;
+        }
+
+        RecordType recordType = resultType.rootRecordType();
+        if (recordType == null || recordType.isRecordPolymorphic()) {
+            return -1;
+        }
+
+        int nFields = recordType.getNHasFields();
+        if (nFields < 2 || nFields > LECCMachineConfiguration.MAX_DIRECT_RECORD_RETURN_FIELDS) {
+            return -1;
+        }
+
+        return nFields;
+    }
+
+    /**
+     * @param record an expression which evaluates to a record.
+     * @param nFields the number of fields in the record.
+     * @return creates the expression "$ec.recordResultFromRecord(record, nFields)".
+     */
+    private static JavaExpression createRecordResultFromRecord (JavaExpression record, int nFields) {
+        return new MethodInvocation.Instance(
+                SCJavaDefn.EXECUTION_CONTEXT_VAR,
+                "recordResultFromRecord",
+                new JavaExpression[] {record, LiteralWrapper.make(Integer.valueOf(nFields))},
+                new JavaTypeName[] {JavaTypeNames.RTVALUE, JavaTypeName.INT},
+                JavaTypeNames.RTVALUE_ARRAY,
+                InvocationType.VIRTUAL);
+    }
+
     /**
      * An enumeration type is a:
      * -non parametric type (i.e. the type has 0 arity)
@@ -6822,6 +7231,87 @@ final class SCJavaDefn {
         return newContext;
     }
 
+    /**
+     * Generate the code for a saturated tail call to another function in the mutual tail call loop
+     * containing this function.  The arguments are evaluated according to the strictness of the
+     * called function and assigned to the corresponding argument slots of the loop method.
+     * The tag is then set to the called function and the loop is continued.
+     * @param appl
+     * @param variableContext
+     * @return the generated code, null if the application is not such a tail call.
+     * @throws CodeGenerationException
+     */
+    private JavaStatement buildMutualTailCallLoopCall (Expression.Appl appl, VariableContext variableContext) throws CodeGenerationException {
+
+        Expression[] chain = appChain (appl);
+        Expression.Var var = chain[0].asVar();
+        if (var == null ||
+            var.getDataConstructor() != null ||
+            variableContext.isLocalVariable(var.getName()) ||
+            !var.getName().getModuleName().equals(currentModuleName)) {
+            return null;
+        }
+
+        String calledName = var.getName().getUnqualifiedName();
+        SCJavaDefn called = mutualTailCallLoop.getMember(calledName);
+        if (called == null || called == this || called.getArity() != chain.length - 1) {
+            return null;
+        }
+
+        Block newContext = new Block ();
+
+        // Generate the java expressions for the arguments, according to the strictness of the called function.
+        int calledArity = called.getArity();
+        ExpressionContextPair[] ecps = new ExpressionContextPair[calledArity];
+        for (int i = 0; i < calledArity; ++i) {
+            Expression arg = chain[i + 1];
+            if (called.isArgStrict(i)) {
+                if (called.isArgUnboxable(i)) {
+                    ecps[i] = generateUnboxedArgument(called.getArgumentTypeName(i), arg, variableContext);
+                } else {
+                    ecps[i] = genS_E(arg, variableContext);
+                }
+            } else {
+                ecps[i] = genS_C(arg, variableContext);
+            }
+        }
+
+        for (int i = 0; i < calledArity; ++i) {
+            newContext.addStatement(ecps[i].getContextBlock());
+        }
+
+        // Assign the arguments to their slots.  Since the slots are distinct from the variables
+        // of the function body no temporaries are needed.
+        boolean[] slotAssigned = new boolean[mutualTailCallLoop.getNSlots()];
+        for (int i = 0; i < calledArity; ++i) {
+            int slot = mutualTailCallLoop.getArgumentSlot(calledName, i);
+            slotAssigned[slot] = true;
+
+            Assignment a = new Assignment(new JavaExpression.LocalName(mutualTailCallLoop.getNthSlotName(slot), mutualTailCallLoop.getNthSlotType(slot)),
+                                          ecps[i].getJavaExpression());
+            newContext.addStatement(new ExpressionStatement(a));
+        }
+
+        // Release any values held in the slots which aren't used by the called function.
+        for (int i = 0; i < slotAssigned.length; ++i) {
+            if (!slotAssigned[i] && mutualTailCallLoop.getNthSlotType(i).equals(JavaTypeNames.RTVALUE)) {
+                Assignment a = new Assignment(new JavaExpression.LocalName(mutualTailCallLoop.getNthSlotName(i), JavaTypeNames.RTVALUE),
+                                              LiteralWrapper.NULL);
+                newContext.addStatement(new ExpressionStatement(a));
+            }
+        }
+
+        Assignment tagAssignment = new Assignment(new JavaExpression.LocalName(MutualTailCallLoop.TAG_NAME, JavaTypeName.INT),
+                                                  LiteralWrapper.make(Integer.valueOf(mutualTailCallLoop.getTag(calledName))));
+        newContext.addStatement(new ExpressionStatement(tagAssignment));
+
+        newContext.addStatement(new JavaStatement.LabelledContinue(MutualTailCallLoop.LOOP_LABEL));
+
+        mutualTailCallTargets.add(calledName);
+
+        return newContext;
+    }
+
     /**
      * Generate the code corresponding to a fully saturated application encountered in a strict context.
      * @param chain
@@ -9624,62 +10114,193 @@ final class SCJavaDefn {
                 !((JavaExpression.MethodInvocation)newReturnValue).getMethodName().equals("evaluate")) {
 
                 // If all arguments and locals are not self referential types we can continue.
-                boolean problematicType = false;
-                for (int i = 0, n = getArity(); i < n; ++i) {
-                    TypeExpr argType = getArgumentType(i);
-                    if (argType != null) {
-                        if (argType instanceof TypeVar) {
-                            problematicType = true;
-                            break;
-                        } else if (argType instanceof TypeConsApp) {
-                            if (SCJavaDefn.isSelfReferentialDataType(argType)) {
-                                problematicType = true;
-                                break;
-                            }
-                        }
-                    }
+                if (hasProblematicTypeInScope(returnStatement)) {
+                    throw new UnboxingTransformationError("Unable to transform function body.");
                 }
 
-                if (!problematicType) {
-                    // Check local variables.
-                    Set<VarInfo> localVars = returnStatementToLocalVars.get(returnStatement);
-                    if (localVars == null) {
-                        problematicType = true;
-                    } else {
-                        for (final VarInfo vi : localVars) {
-                            TypeExpr argType = vi.getVarType();
-                            if (argType != null) {
-                                if (argType instanceof TypeVar) {
-                                    problematicType = true;
-                                    break;
-                                } else if (argType instanceof TypeConsApp) {
-                                    if (SCJavaDefn.isSelfReferentialDataType(argType)) {
-                                        problematicType = true;
-                                        break;
-                                    }
-                                }
-                            }
-                        }
-                    }
+                newReturnValue = createInvocation(newReturnValue, SCJavaDefn.EVALUATE, SCJavaDefn.EXECUTION_CONTEXT_VAR);
+            }
+
+            newReturnValue = SCJavaDefn.unboxValue(resultTypeName, newReturnValue);
+
+            return new ReturnStatement(newReturnValue);
+        }
+    }
+
+    /**
+     * This class transforms an instance of the JavaModel.
+     * The transformation is applied to return statements.
+     * Return statements are modified to pass the field values of the returned tuple or
+     * record back through the record result slots of the execution context.
+     */
+    final class RecordReturnCopier extends JavaModelCopier<Void> {
+        /** The number of fields in the record result. */
+        private final int nFields;
+
+        RecordReturnCopier (int nFields) {
+            this.nFields = nFields;
+        }
+
+        /**
+         * @param returnValue
+         * @return the field values, in field name order, if the return value creates a new record.  Null otherwise.
+         */
+        private JavaExpression[] getCreatedRecordFieldValues(JavaExpression returnValue) {
+            if (!(returnValue instanceof MethodInvocation.Static)) {
+                return null;
+            }
+
+            MethodInvocation.Static mis = (MethodInvocation.Static)returnValue;
+            if (!mis.getInvocationClass().equals(JavaTypeNames.RTRECORD_VALUE)) {
+                return null;
+            }
+
+            // The arguments which hold the ordinal and textual field values.
+            final int[] valueArgs;
+            String methodName = mis.getMethodName();
+            if (methodName.equals("makeTupleRecord")) {
+                valueArgs = new int[] {0};
+            } else if (methodName.equals("makeOrdinalRecord") || methodName.equals("makeTextualRecord")) {
+                valueArgs = new int[] {1};
+            } else if (methodName.equals("makeTupleMixedRecord")) {
+                valueArgs = new int[] {0, 2};
+            } else if (methodName.equals("makeMixedRecord")) {
+                valueArgs = new int[] {1, 3};
+            } else {
+                return null;
+            }
+
+            List<JavaExpression> fieldValues = new ArrayList<JavaExpression>();
+            for (final int valueArg : valueArgs) {
+                if (!(mis.getArg(valueArg) instanceof ArrayCreationExpression)) {
+                    return null;
+                }
+                ArrayCreationExpression values = (ArrayCreationExpression)mis.getArg(valueArg);
+                for (int i = 0, n = values.getNElementValues(); i < n; ++i) {
+                    fieldValues.add(values.getElementValue(i));
+                }
+            }
+
+            if (fieldValues.size() != nFields) {
+                return null;
+            }
+
+            return fieldValues.toArray(new JavaExpression[nFields]);
+        }
+
+        /* (non-Javadoc)
+         * @see org.openquark.cal.internal.runtime.lecc.JavaModelVisitor#visitReturnStatement(org.openquark.cal.internal.runtime.lecc.JavaStatement.ReturnStatement, java.lang.Object)
+         */
+        @Override
+        public JavaStatement visitReturnStatement(ReturnStatement returnStatement,
+                Void arg) {
+
+            JavaExpression returnValue = returnStatement.getReturnExpression();
+
+            // First we want to get rid of any indirections.
+            while (returnValue instanceof JavaExpression.PlaceHolder) {
+                returnValue = ((JavaExpression.PlaceHolder)returnValue).getActualExpression();
+            }
+
+            // If the record is created by the return statement we can pass back the
+            // field values without creating it.
+            JavaExpression[] fieldValues = getCreatedRecordFieldValues(returnValue);
+            if (fieldValues != null) {
+                JavaTypeName[] argTypes = new JavaTypeName[nFields];
+                Arrays.fill(argTypes, JavaTypeNames.RTVALUE);
+                for (int i = 0; i < nFields; ++i) {
+                    fieldValues[i] = (JavaExpression)fieldValues[i].accept(this, arg);
                 }
 
-                if (problematicType) {
+                return new ReturnStatement(
+                        new MethodInvocation.Instance(
+                                SCJavaDefn.EXECUTION_CONTEXT_VAR,
+                                "recordResult",
+                                fieldValues,
+                                argTypes,
+                                JavaTypeNames.RTVALUE_ARRAY,
+                                InvocationType.VIRTUAL));
+            }
+
+            // Otherwise the returned value is evaluated and the field values taken from the record.
+            // A call to one of the error functions will throw an exception, so it is always safe
+            // to evaluate.
+            JavaExpression newReturnValue = (JavaExpression)returnValue.accept(this, arg);
+
+            boolean isErrorCall = false;
+            if (returnValue instanceof MethodInvocation) {
+                MethodInvocation mi = (MethodInvocation)returnValue;
+                isErrorCall =
+                    (mi instanceof MethodInvocation.Instance || ((MethodInvocation.Static)mi).getInvocationClass().equals(JavaTypeNames.RTVALUE)) &&
+                    (mi.getMethodName().equals("errorCall") ||
+                     mi.getMethodName().equals("badValue") ||
+                     mi.getMethodName().equals("badSwitchIndex"));
+            }
+
+            if (!isErrorCall &&
+                (!(newReturnValue instanceof JavaExpression.MethodInvocation.Instance) ||
+                 !((JavaExpression.MethodInvocation)newReturnValue).getMethodName().equals("evaluate"))) {
+
+                if (hasProblematicTypeInScope(returnStatement)) {
                     throw new UnboxingTransformationError("Unable to transform function body.");
                 }
+            }
 
-                newReturnValue = createInvocation(newReturnValue, SCJavaDefn.EVALUATE, SCJavaDefn.EXECUTION_CONTEXT_VAR);
+            return new ReturnStatement(createRecordResultFromRecord(newReturnValue, nFields));
+        }
+    }
+
+    /**
+     * Determine whether any of the arguments, or the locals in scope at the given return statement,
+     * have a type which is a type variable or a self referential data type.
+     * If so, evaluating the returned value before returning could hold on to the roots of a data
+     * structure, such as a list, which is consumed by the evaluation.
+     * @param returnStatement a return statement in the body code of this function.
+     * @return true if there is a problematic type in scope at the return statement.
+     */
+    private boolean hasProblematicTypeInScope(ReturnStatement returnStatement) {
+        for (int i = 0, n = getArity(); i < n; ++i) {
+            TypeExpr argType = getArgumentType(i);
+            if (argType != null) {
+                if (argType instanceof TypeVar) {
+                    return true;
+                } else if (argType instanceof TypeConsApp) {
+                    if (SCJavaDefn.isSelfReferentialDataType(argType)) {
+                        return true;
+                    }
+                }
             }
+        }
 
-            newReturnValue = SCJavaDefn.unboxValue(resultTypeName, newReturnValue);
+        // Check local variables.
+        Set<VarInfo> localVars = returnStatementToLocalVars.get(returnStatement);
+        if (localVars == null) {
+            return true;
+        }
 
-            return new ReturnStatement(newReturnValue);
+        for (final VarInfo vi : localVars) {
+            TypeExpr argType = vi.getVarType();
+            if (argType != null) {
+                if (argType instanceof TypeVar) {
+                    return true;
+                } else if (argType instanceof TypeConsApp) {
+                    if (SCJavaDefn.isSelfReferentialDataType(argType)) {
+                        return true;
+                    }
+                }
+            }
         }
+
+        return false;
     }
 
     static class SharedValues {
         private final Map<Object, KernelLiteral> literalObjectToKernelLiteralMap = new LinkedHashMap<Object, KernelLiteral>();
         Set<ReferencedDCInfo> referencedDCs = new TreeSet<ReferencedDCInfo>();
         Map<String, JavaExpression> staticErrorInfo = new TreeMap<String, JavaExpression>();
+        Map<String, JavaExpression> callCountSlots = new TreeMap<String, JavaExpression>();
+        Map<String, JavaExpression> recordFieldSelectors = new LinkedHashMap<String, JavaExpression>();
+        Map<String, JavaExpression> recordShapes = new LinkedHashMap<String, JavaExpression>();
 
         KernelLiteral addKernelLiteral (Object literalValue, JavaTypeName containingClass) throws CodeGenerationException {
             KernelLiteral kl = literalObjectToKernelLiteralMap.get(literalValue);
@@ -9729,6 +10350,54 @@ final class SCJavaDefn {
             return staticErrorInfo.size();
         }
 
+        JavaExpression getCallCountSlot (String slotVarName) {
+            return callCountSlots.get(slotVarName);
+        }
+
+        void addCallCountSlot (String slotVarName, JavaExpression slotInitializer) {
+            callCountSlots.put (slotVarName, slotInitializer);
+        }
+
+        Set<String> getCallCountSlotNames () {
+            return callCountSlots.keySet();
+        }
+
+        int getNCallCountSlots () {
+            return callCountSlots.size();
+        }
+
+        JavaExpression getRecordFieldSelector (String selectorVarName) {
+            return recordFieldSelectors.get(selectorVarName);
+        }
+
+        void addRecordFieldSelector (String selectorVarName, JavaExpression selectorInitializer) {
+            recordFieldSelectors.put (selectorVarName, selectorInitializer);
+        }
+
+        Set<String> getRecordFieldSelectorNames () {
+            return recordFieldSelectors.keySet();
+        }
+
+        int getNRecordFieldSelectors () {
+            return recordFieldSelectors.size();
+        }
+
+        JavaExpression getRecordShape (String shapeVarName) {
+            return recordShapes.get(shapeVarName);
+        }
+
+        void addRecordShape (String shapeVarName, JavaExpression shapeInitializer) {
+            recordShapes.put (shapeVarName, shapeInitializer);
+        }
+
+        Set<String> getRecordShapeNames () {
+            return recordShapes.keySet();
+        }
+
+        int getNRecordShapes () {
+            return recordShapes.size();
+        }
+
 
     }
 
@@ -1623,7 +1623,7 @@ public final class StandaloneJarBuilder {
      * @param bytecode the bytecode to be scanned for its dependencies.
      * @return a set of the names the generated classes depended upon by the specified bytecode.
      */
-    private static SortedSet<String> findClassDependencies(final byte[] bytecode) {
+    static SortedSet<String> findClassDependencies(final byte[] bytecode) {
         final ClassReader classReader = new ClassReader(bytecode);
         final GeneratedClassDependencyFindingVisitor visitor = new GeneratedClassDependencyFindingVisitor();
         classReader.accept(visitor, ClassReader.SKIP_FRAMES);
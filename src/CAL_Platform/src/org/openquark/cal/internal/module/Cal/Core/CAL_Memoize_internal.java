@@ -12,7 +12,7 @@
  * The constants and methods provided are intended to facilitate accessing the
  * Cal.Core.Memoize module from Java code.
  *  
- * Creation date: Fri Mar 16 13:11:57 PST 2007
+ * Creation date: Sun Oct 18 01:42:07 UTC 2026
  * --!>
  *  
  */
@@ -33,6 +33,12 @@ import org.openquark.cal.compiler.SourceModel;
  * The key idea in this module is to provide a function: <code>memo :: (Ord a) =&gt; (a -&gt; b) -&gt; (a -&gt; b); </code>
  * When applied to a function <code>Cal.Core.Memoize.memo</code> returns an equivalent memoized function.  When  all
  * references to this new function have been dropped the cached values will be discarded.
+ * <p>
+ * The cache used by <code>Cal.Core.Memoize.memo</code> grows without bound for as long as the memoized function is referenced.
+ * For long-lived memoized functions, <code>Cal.Core.Memoize.boundedMemo</code> and <code>Cal.Core.Memoize.memoWithCache</code> instead use a
+ * <code>Cal.Core.Memoize.BoundedMemoCache</code>, a concurrent hash table that holds at most a given number of results, evicting the
+ * least recently used results once it is full. Its hit, miss and eviction counts can be read with
+ * <code>Cal.Core.Memoize.memoCacheHitCount</code>, <code>Cal.Core.Memoize.memoCacheMissCount</code> and <code>Cal.Core.Memoize.memoCacheEvictionCount</code>.
  * 
  * @author Raymond Cypher
  */
@@ -69,6 +75,82 @@ public final class CAL_Memoize_internal {
 		public static final QualifiedName access = 
 			QualifiedName.make(CAL_Memoize_internal.MODULE_NAME, "access");
 
+		/**
+		 * Access the bounded cache using the argument value.
+		 * If a result is already cached return it.
+		 * If no result is cached create a new result, add it to the cache, and return it.
+		 * <p>
+		 * Results are held in the cache wrapped in <code>Cal.Core.Prelude.Just</code>, so that a lookup that finds nothing can
+		 * return <code>Cal.Core.Prelude.Nothing</code>, and so that a result is added to the cache unevaluated.
+		 * 
+		 * @param fctn (CAL type: <code>Cal.Core.Prelude.Outputable a => a -> b</code>)
+		 *          the memoized function.
+		 * @param cache (CAL type: <code>Cal.Core.Memoize.BoundedMemoCache</code>)
+		 *          the cache associated with <code>fctn</code>.
+		 * @param argument (CAL type: <code>Cal.Core.Prelude.Outputable a => a</code>)
+		 *          the argument to the memoized function.
+		 * @return (CAL type: <code>b</code>) 
+		 *          a cached result of applying the memoized function to the argument
+		 */
+		public static final SourceModel.Expr boundedAccess(SourceModel.Expr fctn, SourceModel.Expr cache, SourceModel.Expr argument) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.boundedAccess), fctn, cache, argument});
+		}
+
+		/**
+		 * Name binding for function: boundedAccess.
+		 * @see #boundedAccess(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName boundedAccess = 
+			QualifiedName.make(
+				CAL_Memoize_internal.MODULE_NAME, 
+				"boundedAccess");
+
+		/**
+		 * Helper binding method for function: boundedMemoCache_get. 
+		 * @param boundedMemoCache
+		 * @param arg_2
+		 * @param arg_3
+		 * @return the SourceModule.expr representing an application of boundedMemoCache_get
+		 */
+		public static final SourceModel.Expr boundedMemoCache_get(SourceModel.Expr boundedMemoCache, SourceModel.Expr arg_2, SourceModel.Expr arg_3) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.boundedMemoCache_get), boundedMemoCache, arg_2, arg_3});
+		}
+
+		/**
+		 * Name binding for function: boundedMemoCache_get.
+		 * @see #boundedMemoCache_get(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName boundedMemoCache_get = 
+			QualifiedName.make(
+				CAL_Memoize_internal.MODULE_NAME, 
+				"boundedMemoCache_get");
+
+		/**
+		 * Helper binding method for function: boundedMemoCache_putIfAbsent. 
+		 * @param boundedMemoCache
+		 * @param arg_2
+		 * @param arg_3
+		 * @return the SourceModule.expr representing an application of boundedMemoCache_putIfAbsent
+		 */
+		public static final SourceModel.Expr boundedMemoCache_putIfAbsent(SourceModel.Expr boundedMemoCache, SourceModel.Expr arg_2, SourceModel.Expr arg_3) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.boundedMemoCache_putIfAbsent), boundedMemoCache, arg_2, arg_3});
+		}
+
+		/**
+		 * Name binding for function: boundedMemoCache_putIfAbsent.
+		 * @see #boundedMemoCache_putIfAbsent(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName boundedMemoCache_putIfAbsent = 
+			QualifiedName.make(
+				CAL_Memoize_internal.MODULE_NAME, 
+				"boundedMemoCache_putIfAbsent");
+
 		/**
 		 * Retrieve the current result map from the <code>Cal.Core.Memoize.MemoCache</code>.
 		 * @param memoCache (CAL type: <code>Cal.Core.Memoize.MemoCache</code>)
@@ -92,13 +174,13 @@ public final class CAL_Memoize_internal {
 		/**
 		 * Set the current result map into the <code>Cal.Core.Memoize.MemoCache</code>.
 		 * @param memoCache (CAL type: <code>Cal.Core.Memoize.MemoCache</code>)
-		 * @param map (CAL type: <code>Cal.Core.Prelude.CalValue</code>)
+		 * @param arg_2 (CAL type: <code>Cal.Core.Prelude.CalValue</code>)
 		 * @return (CAL type: <code>()</code>) 
 		 */
-		public static final SourceModel.Expr memoCache_setMap(SourceModel.Expr memoCache, SourceModel.Expr map) {
+		public static final SourceModel.Expr memoCache_setMap(SourceModel.Expr memoCache, SourceModel.Expr arg_2) {
 			return 
 				SourceModel.Expr.Application.make(
-					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.memoCache_setMap), memoCache, map});
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.memoCache_setMap), memoCache, arg_2});
 		}
 
 		/**
@@ -113,13 +195,13 @@ public final class CAL_Memoize_internal {
 		/**
 		 * Constructor for the foreign type <code>Cal.Core.Memoize.MemoCache</code>.  It takes an <code>Cal.Core.Prelude.CalValue</code> which will be an instance of
 		 * <code>Cal.Collections.Map.Map</code>.
-		 * @param map (CAL type: <code>Cal.Core.Prelude.CalValue</code>)
+		 * @param arg_1 (CAL type: <code>Cal.Core.Prelude.CalValue</code>)
 		 * @return (CAL type: <code>Cal.Core.Memoize.MemoCache</code>) 
 		 */
-		public static final SourceModel.Expr newMemoCache(SourceModel.Expr map) {
+		public static final SourceModel.Expr newMemoCache(SourceModel.Expr arg_1) {
 			return 
 				SourceModel.Expr.Application.make(
-					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.newMemoCache), map});
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.newMemoCache), arg_1});
 		}
 
 		/**
@@ -134,6 +216,6 @@ public final class CAL_Memoize_internal {
 	 * A hash of the concatenated JavaDoc for this class (including inner classes).
 	 * This value is used when checking for changes to generated binding classes.
 	 */
-	public static final int javaDocHash = -1935662654;
+	public static final int javaDocHash = 1971657878;
 
 }
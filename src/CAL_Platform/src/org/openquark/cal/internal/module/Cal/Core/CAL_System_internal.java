@@ -242,6 +242,25 @@ public final class CAL_System_internal {
 				CAL_System_internal.MODULE_NAME, 
 				"jRegisterCleanableFunction");
 
+		/**
+		 * Helper binding method for function: jSpark. 
+		 * @param executionContext
+		 * @param arg_2
+		 * @return the SourceModule.expr representing an application of jSpark
+		 */
+		public static final SourceModel.Expr jSpark(SourceModel.Expr executionContext, SourceModel.Expr arg_2) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.jSpark), executionContext, arg_2});
+		}
+
+		/**
+		 * Name binding for function: jSpark.
+		 * @see #jSpark(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName jSpark = 
+			QualifiedName.make(CAL_System_internal.MODULE_NAME, "jSpark");
+
 		/**
 		 * Helper binding method for function: showCleanable. 
 		 * @param cleanable
@@ -260,11 +279,39 @@ public final class CAL_System_internal {
 		public static final QualifiedName showCleanable = 
 			QualifiedName.make(CAL_System_internal.MODULE_NAME, "showCleanable");
 
+		/**
+		 * Creates a spark for <code>value</code> i.e. a hint to the run-time that <code>value</code> may profitably
+		 * be evaluated to weak-head normal form (WHNF) in parallel. Not a pure function.
+		 * <p>
+		 * If the concurrent run-time is enabled (see <code>Cal.Core.System.concurrentRuntime</code>) the spark is handed to the spark
+		 * pool of the current execution context. It is evaluated by an idle worker thread, or on the calling
+		 * thread if all of the pool's workers are busy. The spark fizzles, i.e. is dropped, if <code>value</code> is already
+		 * in WHNF or is being evaluated by some other thread. Otherwise the spark is simply dropped.
+		 * 
+		 * @param value (CAL type: <code>a</code>)
+		 *          the value to evaluate to WHNF in parallel. It is not evaluated by the calling thread, unless
+		 * the spark pool is saturated.
+		 * @return (CAL type: <code>()</code>) 
+		 *          <code>()</code>, possibly before <code>value</code> has finished being evaluated.
+		 */
+		public static final SourceModel.Expr spark(SourceModel.Expr value) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.spark), value});
+		}
+
+		/**
+		 * Name binding for function: spark.
+		 * @see #spark(org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName spark = 
+			QualifiedName.make(CAL_System_internal.MODULE_NAME, "spark");
+
 	}
 	/**
 	 * A hash of the concatenated JavaDoc for this class (including inner classes).
 	 * This value is used when checking for changes to generated binding classes.
 	 */
-	public static final int javaDocHash = 1302459931;
+	public static final int javaDocHash = 1539580795;
 
 }
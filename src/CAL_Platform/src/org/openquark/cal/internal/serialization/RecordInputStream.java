@@ -43,6 +43,7 @@ import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UTFDataFormatException;
+import java.nio.ByteBuffer;
 import java.security.InvalidParameterException;
 import java.util.IdentityHashMap;
 
@@ -79,6 +80,52 @@ public class RecordInputStream {
     public RecordInputStream (InputStream s) {
         this.in = new FullyBufferedInputStream(s);
     }
+    
+    /**
+     * Construct a RecordInputStream which reads directly from a buffer, typically a memory-mapped file.
+     * The content of the buffer is not copied, and records read from this stream can be read again later
+     * through {@link #openAt(Bookmark)}.
+     * @param buffer the buffer holding the records.  Its content from position 0 up to its limit is read.
+     * The buffer's position is used by the stream, so the buffer should not be shared.
+     */
+    public RecordInputStream (ByteBuffer buffer) {
+        this.in = new ByteBufferInputStream(buffer);
+    }
+    
+    /**
+     * @return whether this stream reads directly from a buffer, so that {@link #openAt(Bookmark)} is supported.
+     */
+    public boolean isBufferBacked() {
+        return in instanceof ByteBufferInputStream;
+    }
+    
+    /**
+     * Open a new stream on the same buffer as this stream, starting at the given position.
+     * The new stream is independent of this one, except that it shares the pooled values, and is not inside any record.
+     * This is used to defer decoding parts of a record until they are needed.
+     * 
+     * @param bookmark a bookmark in this stream.
+     * @return the new stream.
+     * @throws IOException
+     * @throws UnsupportedOperationException if this stream does not read directly from a buffer.
+     */
+    public RecordInputStream openAt(Bookmark bookmark) throws IOException {
+        if (!isBufferBacked()) {
+            throw new UnsupportedOperationException("Only a RecordInputStream on a buffer can be reopened.");
+        }
+        
+        // Set up the pools now, so that they can be shared with the new stream.
+        setupPools();
+        
+        // Give the new stream its own duplicate of the buffer, since reading changes the buffer's position.
+        RecordInputStream newStream = new RecordInputStream(((ByteBufferInputStream)in).buffer.duplicate());
+        newStream.stringPool = stringPool;
+        newStream.qualifiedNamePool = qualifiedNamePool;
+        newStream.poolsInitialized = true;
+        newStream.reposition(bookmark);
+        
+        return newStream;
+    }
 
     private final void setupPools () throws IOException {
         if (poolsInitialized) {
@@ -743,7 +790,7 @@ public class RecordInputStream {
      * This is an InputStream which fully buffers its contents.
      * The full buffering allows for rewinding the stream to a previous point.
      */
-    private static final class FullyBufferedInputStream extends FilterInputStream {
+    private static class FullyBufferedInputStream extends FilterInputStream {
         /**
          * The binary data that is buffered. Only the first nValidBytes bytes of this array are valid - the length
          * of this array can be longer than nValidBytes.
@@ -752,7 +799,7 @@ public class RecordInputStream {
         /**
          * The current read position within the buffered data. Its value is always less than nValidBytes.
          */
-        private int position = 0;
+        int position = 0;
         /**
          * The number of bytes in the data array which are validly read from the underlying stream.
          */
@@ -819,7 +866,7 @@ public class RecordInputStream {
          * @param lengthFromCurrentPos the number of bytes requested past the current position.
          * @throws IOException
          */
-        private void fillBuffer(int lengthFromCurrentPos) throws IOException {
+        void fillBuffer(int lengthFromCurrentPos) throws IOException {
             
             int nDesiredValidBytes = position + lengthFromCurrentPos;
             
@@ -910,6 +957,100 @@ public class RecordInputStream {
         }
     }
 
+    /**
+     * This is a FullyBufferedInputStream which reads directly from a ByteBuffer, rather than copying
+     * the content of an underlying stream into an array.
+     * All of the data is available from the outset.
+     */
+    private static final class ByteBufferInputStream extends FullyBufferedInputStream {
+        /** 
+         * The buffer holding the data.  
+         * Single bytes are read with absolute gets, and the buffer's position is only set for bulk gets.
+         */
+        final ByteBuffer buffer;
+        
+        /**
+         * Constructs a ByteBufferInputStream.
+         * @param buffer the buffer holding the data.
+         */
+        ByteBufferInputStream (ByteBuffer buffer) {
+            super(null);
+            this.buffer = buffer;
+            nValidBytes = buffer.limit();
+        }
+        
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int read () {
+            if (position >= nValidBytes) {
+                return -1;
+            }
+            return (buffer.get(position++) & 0xff);
+        }
+        
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int read (byte[] b) throws IOException {
+            return read(b, 0, b.length);
+        }
+        
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int read (byte[] b, int off, int len) throws IOException {
+            if (b.length - off < len) {
+                throw new IOException ("Insufficient sized buffer.");
+            }
+            if (position >= nValidBytes) {
+                return -1;
+            }
+            int nToRead = Math.min(len, nValidBytes - position);
+            
+            buffer.position(position);
+            buffer.get(b, off, nToRead);
+            
+            position += nToRead;
+            return nToRead;
+        }
+        
+        /**
+         * All of the data is available, so there is nothing to fill.
+         */
+        @Override
+        void fillBuffer(int lengthFromCurrentPos) {
+        }
+        
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int available() {
+            return Math.max(0, nValidBytes - position);
+        }
+        
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public long skip(long n) {
+            int nToSkip = (int)Math.max(0, Math.min(n, nValidBytes - position));
+            position += nToSkip;
+            return nToSkip;
+        }
+        
+        /**
+         * There is no underlying stream to close.  A mapped buffer is released when it is garbage collected.
+         */
+        @Override
+        public void close() {
+        }
+    }
+    
     public static final boolean[] bitArrayToBooleans (byte[] b) {
         return bitArrayToBooleans(b, b.length);
     }
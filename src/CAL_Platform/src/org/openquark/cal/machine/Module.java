@@ -45,6 +45,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 
 import org.openquark.cal.compiler.CompilerMessageLogger;
 import org.openquark.cal.compiler.ModuleName;
@@ -82,7 +83,7 @@ abstract public class Module {
     };
 
     private static final int moduleSerializationSchema = 0;
-    private static final int importSerializationSchema = 1;
+    private static final int importSerializationSchema = 2;
     private static final int generatedCodeInfoSerializationSchema = 0;
     
     /**
@@ -122,6 +123,12 @@ abstract public class Module {
      */
     private GeneratedCodeInfo generatedCodeInfo;
     
+    /**
+     * The interface hash for this module, or null if this has not yet been determined.
+     * For a module loaded from its persisted form, this is the hash recorded when the module was compiled.
+     */
+    private volatile Long interfaceHash;
+    
     /**
      * Constructor for a Module.
      *
@@ -320,6 +327,14 @@ abstract public class Module {
             ModuleTypeInfo mti = moduleTypeInfo.getNthImportedModule(i);
             s.writeModuleName(mti.getModuleName());
         }
+        
+        // Write out the interface hash for this module, followed by the interface hashes of the
+        // imported modules which this module was compiled against.
+        s.writeLong(getInterfaceHash());
+        for (int i = 0; i < nImports; ++i) {
+            ModuleTypeInfo mti = moduleTypeInfo.getNthImportedModule(i);
+            s.writeLong(mti.getModule().getInterfaceHash());
+        }
         s.endRecord();
         
     }
@@ -391,6 +406,31 @@ abstract public class Module {
         writeActual(s);
     }
     
+    /**
+     * Write the compiled definition of this Module instance to the RecordOutputStream.
+     * <p>
+     * Unlike {@link #write}, the output is not meant to be read back.  It is a canonical form of the module,
+     * for use in computing a digest which identifies its definition.  The serialization info (which records when
+     * the module was serialized) and the source time stamps of the functions are left out, and the functions are
+     * written in name order, so that the same definition writes the same bytes regardless of when or in which
+     * process it was compiled.
+     * @param s
+     * @throws IOException
+     */
+    public final void writeDefinition (RecordOutputStream s) throws IOException {
+        writeImports(s);
+        moduleTypeInfo.write(s);
+        
+        Map<String, MachineFunction> sortedFunctionMap;
+        synchronized (lock) {
+            sortedFunctionMap = new TreeMap<String, MachineFunction>(functionNameToFunctionMap);
+        }
+        s.writeInt(sortedFunctionMap.size());
+        for (final MachineFunction machineFunction : sortedFunctionMap.values()) {
+            ((MachineFunctionImpl)machineFunction).getCoreFunction().write(s, false);
+        }
+    }
+    
     /**
      * Write out the Module instance.
      * @param s
@@ -451,27 +491,147 @@ abstract public class Module {
      * @throws IOException
      */
     public static Set<ModuleName> readDependencies (RecordInputStream s) throws IOException {
+        return readImports(s).getImportedModuleNames();
+    }
+    
+    /**
+     * Read module import information, including the interface hashes recorded for the module and its imports.
+     * @param s
+     * @return the import information.
+     * @throws IOException
+     */
+    public static ImportsInfo readImports (RecordInputStream s) throws IOException {
         RecordHeaderInfo rhi = s.findRecord(ModuleSerializationTags.MODULE_IMPORTS);
         if (rhi == null) {
             throw new IOException ("Unable to find module dependencies record.");
         }
+        return readImportsContent(s, rhi);
+    }
+    
+    /**
+     * Read the content of the module imports record.
+     * The read position will be at the beginning of the record content, and will be after the record on return.
+     * @param s
+     * @param rhi the header of the module imports record.
+     * @return the import information.
+     * @throws IOException
+     */
+    private static ImportsInfo readImportsContent (RecordInputStream s, RecordHeaderInfo rhi) throws IOException {
         if (rhi.getSchema() > importSerializationSchema) {
             throw new IOException("Saved schema is greather than current schema in Module.");
         }
-        if (rhi.getSchema() < importSerializationSchema) {
+        if (rhi.getSchema() < 1) {
             throw new IOException("Saved schema is less than current schema in Module. Earlier import serialization schemas are not supported.");
         }
         /* ModuleName moduleName = */ s.readModuleName();
         int nImports = s.readInt();
-        Set<ModuleName> set = new HashSet<ModuleName>();
+        ModuleName[] importedModuleNames = new ModuleName[nImports];
         for (int i = 0; i < nImports; ++i) {
-            ModuleName imported = s.readModuleName();
-            set.add(imported);
+            importedModuleNames[i] = s.readModuleName();
+        }
+        
+        // Schema 1 predates interface hashes.
+        ImportsInfo importsInfo;
+        if (rhi.getSchema() < 2) {
+            importsInfo = new ImportsInfo(importedModuleNames, null, null);
+            
+        } else {
+            Long interfaceHash = Long.valueOf(s.readLong());
+            Map<ModuleName, Long> importInterfaceHashes = new HashMap<ModuleName, Long>();
+            for (int i = 0; i < nImports; ++i) {
+                importInterfaceHashes.put(importedModuleNames[i], Long.valueOf(s.readLong()));
+            }
+            importsInfo = new ImportsInfo(importedModuleNames, interfaceHash, importInterfaceHashes);
         }
         
         s.skipRestOfRecord();
         
-        return set;
+        return importsInfo;
+    }
+    
+    /**
+     * The import information recorded with a persisted module.
+     * 
+     * Besides the names of the imported modules, this holds the interface hash of the module at the time it was compiled,
+     * and the interface hashes of the imported modules it was compiled against.  These are not available for modules
+     * persisted before interface hashes were recorded.
+     * 
+     * @see Module#getInterfaceHash()
+     */
+    public static final class ImportsInfo {
+        
+        /** The names of the imported modules. */
+        private final ModuleName[] importedModuleNames;
+        
+        /** The interface hash of the module, or null if not recorded. */
+        private final Long interfaceHash;
+        
+        /** (ModuleName->Long) Map from imported module name to its interface hash, or null if not recorded. */
+        private final Map<ModuleName, Long> importInterfaceHashes;
+        
+        /**
+         * Constructor for an ImportsInfo.
+         * @param importedModuleNames
+         * @param interfaceHash
+         * @param importInterfaceHashes
+         */
+        private ImportsInfo(ModuleName[] importedModuleNames, Long interfaceHash, Map<ModuleName, Long> importInterfaceHashes) {
+            this.importedModuleNames = importedModuleNames;
+            this.interfaceHash = interfaceHash;
+            this.importInterfaceHashes = importInterfaceHashes;
+        }
+        
+        /**
+         * @return (Set of ModuleName) the names of the imported modules.
+         */
+        public Set<ModuleName> getImportedModuleNames() {
+            Set<ModuleName> set = new HashSet<ModuleName>();
+            for (final ModuleName importedModuleName : importedModuleNames) {
+                set.add(importedModuleName);
+            }
+            return set;
+        }
+        
+        /**
+         * @return the interface hash of the module when it was compiled, or null if this was not recorded.
+         */
+        public Long getInterfaceHash() {
+            return interfaceHash;
+        }
+        
+        /**
+         * @param importedModuleName the name of an imported module.
+         * @return the interface hash of the imported module which the module was compiled against,
+         * or null if this was not recorded.
+         */
+        public Long getImportInterfaceHash(ModuleName importedModuleName) {
+            if (importInterfaceHashes == null) {
+                return null;
+            }
+            return importInterfaceHashes.get(importedModuleName);
+        }
+    }
+    
+    /**
+     * Get the interface hash for this module.
+     * <p>
+     * This is a digest of everything that code compiled against the module can depend on, including the interface hashes
+     * of its own imports.  If the interface hash of a module is the same as that recorded by a dependent module when that
+     * module was compiled, the dependent module does not need to be recompiled.
+     * 
+     * @return the interface hash for this module.
+     */
+    public final long getInterfaceHash() {
+        Long hash = interfaceHash;
+        if (hash == null) {
+            List<MachineFunction> functions;
+            synchronized (lock) {
+                functions = new ArrayList<MachineFunction>(functionNameToFunctionMap.values());
+            }
+            hash = Long.valueOf(ModuleInterfaceHash.compute(this, functions));
+            interfaceHash = hash;
+        }
+        return hash.longValue();
     }
 
     /**
@@ -519,6 +679,13 @@ abstract public class Module {
     public final static Module load (RecordInputStream s, Map<ModuleName, Module> loadedModules, ClassLoader foreignClassLoader, 
             GeneratedCodeInfo generatedCodeInfo, CompilerMessageLogger msgLogger) throws IOException {
         
+        // Pick up the interface hash which was recorded with the module's imports when the module was compiled.
+        Long recordedInterfaceHash = null;
+        RecordHeaderInfo importsRhi = s.findRecord(ModuleSerializationTags.MODULE_IMPORTS);
+        if (importsRhi != null) {
+            recordedInterfaceHash = readImportsContent(s, importsRhi).getInterfaceHash();
+        }
+        
         // Load the record header and determine which class this is.
         RecordHeaderInfo rhi = s.findRecord(MODULE_RECORD_TAGS);
         if (rhi == null) {
@@ -526,7 +693,11 @@ abstract public class Module {
         }
         
         if (rhi.getRecordTag() == ModuleSerializationTags.LECC_MODULE) {
-            return LECCModule.load(s, rhi.getSchema(), loadedModules, foreignClassLoader, generatedCodeInfo, msgLogger);
+            Module module = LECCModule.load(s, rhi.getSchema(), loadedModules, foreignClassLoader, generatedCodeInfo, msgLogger);
+            if (module != null) {
+                module.interfaceHash = recordedInterfaceHash;
+            }
+            return module;
         } else 
         if (rhi.getRecordTag() == ModuleSerializationTags.G_MODULE) {
             throw new IOException ("Loading of g-machine specific compiled modules is not yet supported.");
@@ -0,0 +1,258 @@
+/*
+ * Copyright (c) 2007 BUSINESS OBJECTS SOFTWARE LIMITED
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *  
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *  
+ *     * Neither the name of Business Objects nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+/*
+ * ModuleInterfaceHash.java
+ * Created: Oct 18, 2026
+ */
+package org.openquark.cal.machine;
+
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+
+import org.openquark.cal.compiler.ClassInstance;
+import org.openquark.cal.compiler.ClassMethod;
+import org.openquark.cal.compiler.DataConstructor;
+import org.openquark.cal.compiler.ForeignFunctionInfo;
+import org.openquark.cal.compiler.ForeignTypeInfo;
+import org.openquark.cal.compiler.Function;
+import org.openquark.cal.compiler.ModuleTypeInfo;
+import org.openquark.cal.compiler.QualifiedName;
+import org.openquark.cal.compiler.TypeClass;
+import org.openquark.cal.compiler.TypeConstructor;
+import org.openquark.cal.compiler.TypeExpr;
+
+
+/**
+ * Warning- this class should only be used by the CAL runtime implementation. It is not part of the
+ * external API of the CAL platform.
+ * <p>
+ * Computes the interface hash of a module: a digest of everything about the module which code compiled
+ * against it can depend on.
+ * <p>
+ * This covers the module's type constructors (including data constructor layout and strictness), type classes,
+ * class instances, function types and foreign function info, friend modules, and for each machine function
+ * its arity, argument strictness, types, alias and literal value, whether it can be eagerly evaluated,
+ * whether it is tail recursive and which strongly connected component it belongs to.
+ * The last two are needed by the lecc machine: the strongly connected component determines the name of the
+ * class implementing the function, and together with the arity, strictness and types, tail recursion
+ * determines whether callers in other modules can call its fnS and fRecordnS methods directly.
+ * The interface hashes of the imported modules are folded in too, so that a change to an interface
+ * ripples through to modules which only depend on it indirectly.
+ * <p>
+ * Function bodies are not part of the interface, so a change which only affects the definition of a function
+ * (and not, for instance, its inferred strictness or whether it is tail recursive) leaves the hash unchanged.
+ * 
+ * @see Module#getInterfaceHash()
+ */
+final class ModuleInterfaceHash {
+    
+    /** Not intended to be instantiated. */
+    private ModuleInterfaceHash() {
+    }
+
+    /**
+     * Compute the interface hash for a module.
+     * @param module the module.
+     * @param functions the (non-adjunct) machine functions in the module.
+     * @return the interface hash.
+     */
+    static long compute(Module module, Collection<MachineFunction> functions) {
+        
+        ModuleTypeInfo moduleTypeInfo = module.getModuleTypeInfo();
+        
+        // Describe each entity on its own line, then sort the lines so that the result does not
+        // depend on the order in which the entities happen to be stored.
+        List<String> lines = new ArrayList<String>();
+        
+        for (int i = 0, n = moduleTypeInfo.getNImportedModules(); i < n; ++i) {
+            ModuleTypeInfo importedModuleTypeInfo = moduleTypeInfo.getNthImportedModule(i);
+            lines.add("import " + importedModuleTypeInfo.getModuleName() + " " + importedModuleTypeInfo.getModule().getInterfaceHash());
+        }
+        
+        for (int i = 0, n = moduleTypeInfo.getNFriendModules(); i < n; ++i) {
+            lines.add("friend " + moduleTypeInfo.getNthFriendModule(i));
+        }
+        
+        for (int i = 0, n = moduleTypeInfo.getNTypeConstructors(); i < n; ++i) {
+            TypeConstructor typeCons = moduleTypeInfo.getNthTypeConstructor(i);
+            
+            StringBuilder sb = new StringBuilder("type ");
+            sb.append(typeCons.getName()).append(' ').append(typeCons.getScope()).append(' ').append(typeCons.getTypeArity());
+            
+            ForeignTypeInfo foreignTypeInfo = typeCons.getForeignTypeInfo();
+            if (foreignTypeInfo != null) {
+                sb.append(" foreign ").append(foreignTypeInfo);
+            }
+            
+            for (int j = 0, nDCs = typeCons.getNDataConstructors(); j < nDCs; ++j) {
+                DataConstructor dc = typeCons.getNthDataConstructor(j);
+                sb.append(" | ").append(dc.getName()).append(' ').append(dc.getScope()).append(' ').append(dc.getOrdinal());
+                
+                boolean[] argStrictness = dc.getArgStrictness();
+                for (int k = 0, arity = dc.getArity(); k < arity; ++k) {
+                    sb.append(' ').append(dc.getNthFieldName(k)).append(argStrictness[k] ? "!" : "");
+                }
+                sb.append(" :: ").append(dc.getTypeExpr());
+            }
+            lines.add(sb.toString());
+        }
+        
+        for (int i = 0, n = moduleTypeInfo.getNTypeClasses(); i < n; ++i) {
+            TypeClass typeClass = moduleTypeInfo.getNthTypeClass(i);
+            
+            StringBuilder sb = new StringBuilder("class ");
+            sb.append(typeClass.getName()).append(' ').append(typeClass.getScope());
+            
+            for (int j = 0, nParents = typeClass.getNParentClasses(); j < nParents; ++j) {
+                sb.append(" < ").append(typeClass.getNthParentClass(j).getName());
+            }
+            
+            for (int j = 0, nMethods = typeClass.getNClassMethods(); j < nMethods; ++j) {
+                ClassMethod classMethod = typeClass.getNthClassMethod(j);
+                sb.append(" | ").append(classMethod.getName()).append(' ').append(classMethod.getScope())
+                  .append(' ').append(classMethod.getOrdinal()).append(" :: ").append(classMethod.getTypeExpr())
+                  .append(" default ").append(classMethod.getDefaultClassMethodName());
+            }
+            lines.add(sb.toString());
+        }
+        
+        for (int i = 0, n = moduleTypeInfo.getNClassInstances(); i < n; ++i) {
+            ClassInstance classInstance = moduleTypeInfo.getNthClassInstance(i);
+            
+            StringBuilder sb = new StringBuilder("instance ");
+            sb.append(classInstance.getIdentifier()).append(' ').append(classInstance.getInstanceStyle());
+            
+            for (int j = 0, nMethods = classInstance.getNInstanceMethods(); j < nMethods; ++j) {
+                sb.append(" | ").append(classInstance.getInstanceMethod(j));
+            }
+            lines.add(sb.toString());
+        }
+        
+        for (int i = 0, n = moduleTypeInfo.getNFunctions(); i < n; ++i) {
+            Function function = moduleTypeInfo.getNthFunction(i);
+            
+            StringBuilder sb = new StringBuilder("function ");
+            sb.append(function.getName()).append(' ').append(function.getScope()).append(" :: ").append(function.getTypeExpr());
+            
+            ForeignFunctionInfo foreignFunctionInfo = function.getForeignFunctionInfo();
+            if (foreignFunctionInfo != null) {
+                sb.append(' ').append(foreignFunctionInfo);
+            }
+            lines.add(sb.toString());
+        }
+        
+        for (final MachineFunction machineFunction : functions) {
+            
+            StringBuilder sb = new StringBuilder("machineFunction ");
+            sb.append(machineFunction.getName()).append(' ').append(machineFunction.getArity());
+            
+            boolean[] parameterStrictness = machineFunction.getParameterStrictness();
+            if (parameterStrictness != null) {
+                for (final boolean isStrict : parameterStrictness) {
+                    sb.append(isStrict ? " !" : " _");
+                }
+            }
+            
+            TypeExpr[] type = machineFunction.getType();
+            if (type != null) {
+                for (final TypeExpr typeExpr : type) {
+                    sb.append(" :: ").append(typeExpr);
+                }
+            }
+            
+            QualifiedName aliasOf = machineFunction.getAliasOf();
+            if (aliasOf != null) {
+                sb.append(" alias ").append(aliasOf);
+            }
+            
+            Object literalValue = machineFunction.getLiteralValue();
+            if (literalValue != null) {
+                sb.append(" literal ").append(literalValue.getClass().getName()).append(' ').append(literalValue);
+            }
+            
+            if (machineFunction.canFunctionBeEagerlyEvaluated()) {
+                sb.append(" eager");
+            }
+            if (machineFunction.isPrimitiveFunction()) {
+                sb.append(" primitive");
+            }
+            if (machineFunction.isForeignFunction()) {
+                sb.append(" foreign");
+            }
+            if (machineFunction.isTailRecursive()) {
+                sb.append(" tailRecursive");
+            }
+            
+            sb.append(" group");
+            for (final String connectedFunctionName : new TreeSet<String>(machineFunction.getStronglyConnectedComponents())) {
+                sb.append(' ').append(connectedFunctionName);
+            }
+            lines.add(sb.toString());
+        }
+        
+        Collections.sort(lines);
+        
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-1.
+            throw new IllegalStateException("SHA-1 is not available: " + e.getLocalizedMessage());
+        }
+        
+        try {
+            digest.update(module.getName().toSourceText().getBytes("UTF-8"));
+            for (final String line : lines) {
+                digest.update((byte)'\n');
+                digest.update(line.getBytes("UTF-8"));
+            }
+        } catch (UnsupportedEncodingException e) {
+            // Every Java platform is required to support UTF-8.
+            throw new IllegalStateException("UTF-8 is not available: " + e.getLocalizedMessage());
+        }
+        
+        // Fold the first eight bytes of the digest into a long.
+        byte[] bytes = digest.digest();
+        long hash = 0;
+        for (int i = 0; i < 8; ++i) {
+            hash = (hash << 8) | (bytes[i] & 0xFF);
+        }
+        return hash;
+    }
+}
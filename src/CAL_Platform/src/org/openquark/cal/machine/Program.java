@@ -38,6 +38,7 @@
 package org.openquark.cal.machine;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -325,6 +326,15 @@ public abstract class Program {
      */
     public abstract void resetMachineState(ModuleName moduleName, ExecutionContext context);
     
+    /**
+     * Prepare the machine for running the given entry points, by doing ahead of time the work (such as generating and
+     * loading code) which would otherwise be done on demand when they are first run.
+     * By default this does nothing.
+     * @param entryPointNames the names of the functions and data constructors which are to be run.
+     */
+    public void preloadEntryPoints(Collection<QualifiedName> entryPointNames) {
+    }
+    
     /**
      * Program exception
      */
@@ -37,6 +37,7 @@
  */
 package org.openquark.cal.machine;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
@@ -244,6 +245,19 @@ public abstract class ProgramManager {
         theProgram.resetMachineState(moduleName, context);
     }
     
+    /**
+     * Prepares the machine for running the given entry points, by doing ahead of
+     * time the work (such as generating and loading code) which would otherwise
+     * be done on demand when they are first run.
+     * 
+     * @param entryPointNames
+     *            the names of the functions and data constructors which are
+     *            to be run.
+     */
+    public void preloadEntryPoints(Collection<QualifiedName> entryPointNames) {
+        theProgram.preloadEntryPoints(entryPointNames);
+    }
+    
     /**
      * Returns true iff the specified module is in the Program instance
      * encapsulated by this ProgramManager.
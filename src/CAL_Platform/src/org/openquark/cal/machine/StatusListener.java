@@ -156,6 +156,22 @@ public interface StatusListener {
         public void incrementCompleted (double d) {
         }
     }
+    /**
+     * A status listener which is also told how long each module took to compile from source.
+     */
+    public interface ModuleTimingListener extends StatusListener {
+        /**
+         * Communicate the time taken to compile a module from source.
+         * Modules are reported in the order in which they are compiled.
+         * @param moduleName the name of the module.
+         * @param parseTimeMillis the time taken to parse the module.  Modules may be parsed ahead of being
+         * compiled, on other threads, so this time may overlap the compilation of other modules.
+         * @param compileTimeMillis the time taken by the compiler to compile the module, including any time spent 
+         * parsing or waiting for the module to be parsed.
+         */
+        public void setModuleTiming(ModuleName moduleName, long parseTimeMillis, long compileTimeMillis);
+    }
+    
     /**
      * Communicate a module's compilation status.
      * @param moduleStatus the module's updated status.
@@ -12,7 +12,7 @@
  * The constants and methods provided are intended to facilitate accessing the
  * Cal.Core.Memoize module from Java code.
  *  
- * Creation date: Fri Mar 16 13:11:56 PST 2007
+ * Creation date: Sun Oct 18 01:42:06 UTC 2026
  * --!>
  *  
  */
@@ -33,6 +33,12 @@ import org.openquark.cal.compiler.SourceModel;
  * The key idea in this module is to provide a function: <code>memo :: (Ord a) =&gt; (a -&gt; b) -&gt; (a -&gt; b); </code>
  * When applied to a function <code>Cal.Core.Memoize.memo</code> returns an equivalent memoized function.  When  all
  * references to this new function have been dropped the cached values will be discarded.
+ * <p>
+ * The cache used by <code>Cal.Core.Memoize.memo</code> grows without bound for as long as the memoized function is referenced.
+ * For long-lived memoized functions, <code>Cal.Core.Memoize.boundedMemo</code> and <code>Cal.Core.Memoize.memoWithCache</code> instead use a
+ * <code>Cal.Core.Memoize.BoundedMemoCache</code>, a concurrent hash table that holds at most a given number of results, evicting the
+ * least recently used results once it is full. Its hit, miss and eviction counts can be read with
+ * <code>Cal.Core.Memoize.memoCacheHitCount</code>, <code>Cal.Core.Memoize.memoCacheMissCount</code> and <code>Cal.Core.Memoize.memoCacheEvictionCount</code>.
  * 
  * @author Raymond Cypher
  */
@@ -45,6 +51,22 @@ public final class CAL_Memoize {
 	 * and methods related to binding to CAL TypeConstructors in the Cal.Core.Memoize module.
 	 */
 	public static final class TypeConstructors {
+		/**
+		 * A mutable, size bounded cache of memoized results, used by <code>Cal.Core.Memoize.boundedMemo</code> and <code>Cal.Core.Memoize.memoWithCache</code>.
+		 * <p>
+		 * Results are keyed by the Java value obtained by applying <code>Cal.Core.Prelude.output</code> to the argument value,
+		 * so the argument type's <code>Cal.Core.Prelude.Outputable</code> instance must produce Java values whose <code>equals</code> and <code>hashCode</code>
+		 * agree with equality on the CAL values. This holds for the primitive types, <code>Cal.Core.Prelude.String</code>, and lists,
+		 * tuples and records of such types.
+		 * <p>
+		 * The cache is safe to use from concurrent evaluations. Once it holds its maximum number of results,
+		 * memoizing a new result evicts the least recently used one.
+		 * <p>
+		 * A cache should only be used by a single memoized function.
+		 */
+		public static final QualifiedName BoundedMemoCache = 
+			QualifiedName.make(CAL_Memoize.MODULE_NAME, "BoundedMemoCache");
+
 		/**
 		 * This is the type of the actual cache object. 
 		 * Essentially it is a foreign type which holds on to an <code>Cal.Core.Prelude.CalValue</code>.  The held
@@ -59,6 +81,79 @@ public final class CAL_Memoize {
 	 * and methods related to binding to CAL functions in the Cal.Core.Memoize module.
 	 */
 	public static final class Functions {
+		/**
+		 * Creates a memoizing version of a function that holds at most <code>maxSize</code> results, evicting the least
+		 * recently used results once it is full. Unlike the cache used by <code>Cal.Core.Memoize.memo</code>, the cache is a concurrent hash table,
+		 * so the argument type must be an instance of <code>Cal.Core.Prelude.Outputable</code>. See <code>Cal.Core.Memoize.BoundedMemoCache</code> for the
+		 * requirements on its instance.
+		 * <p>
+		 * Use <code>Cal.Core.Memoize.memoWithCache</code> to be able to read the hit, miss and eviction counts of the cache.
+		 * 
+		 * @param maxSize (CAL type: <code>Cal.Core.Prelude.Int</code>)
+		 *          the maximum number of results to cache. Must be positive.
+		 * @param f (CAL type: <code>Cal.Core.Prelude.Outputable a => a -> b</code>)
+		 *          the function to be memoized.
+		 * @param arg_3 (CAL type: <code>Cal.Core.Prelude.Outputable a => a</code>)
+		 * @return (CAL type: <code>b</code>) 
+		 *          a memoizing version of <code>f</code>.
+		 */
+		public static final SourceModel.Expr boundedMemo(SourceModel.Expr maxSize, SourceModel.Expr f, SourceModel.Expr arg_3) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.boundedMemo), maxSize, f, arg_3});
+		}
+
+		/**
+		 * @see #boundedMemo(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 * @param maxSize
+		 * @param f
+		 * @param arg_3
+		 * @return the SourceModel.Expr representing an application of boundedMemo
+		 */
+		public static final SourceModel.Expr boundedMemo(int maxSize, SourceModel.Expr f, SourceModel.Expr arg_3) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.boundedMemo), SourceModel.Expr.makeIntValue(maxSize), f, arg_3});
+		}
+
+		/**
+		 * Name binding for function: boundedMemo.
+		 * @see #boundedMemo(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName boundedMemo = 
+			QualifiedName.make(CAL_Memoize.MODULE_NAME, "boundedMemo");
+
+		/**
+		 * Creates a new, empty <code>Cal.Core.Memoize.BoundedMemoCache</code>.
+		 * @param maxSize (CAL type: <code>Cal.Core.Prelude.Int</code>)
+		 *          the maximum number of memoized results held by the cache. Must be positive.
+		 * @return (CAL type: <code>Cal.Core.Memoize.BoundedMemoCache</code>) 
+		 *          a new cache.
+		 */
+		public static final SourceModel.Expr makeBoundedMemoCache(SourceModel.Expr maxSize) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.makeBoundedMemoCache), maxSize});
+		}
+
+		/**
+		 * @see #makeBoundedMemoCache(org.openquark.cal.compiler.SourceModel.Expr)
+		 * @param maxSize
+		 * @return the SourceModel.Expr representing an application of makeBoundedMemoCache
+		 */
+		public static final SourceModel.Expr makeBoundedMemoCache(int maxSize) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.makeBoundedMemoCache), SourceModel.Expr.makeIntValue(maxSize)});
+		}
+
+		/**
+		 * Name binding for function: makeBoundedMemoCache.
+		 * @see #makeBoundedMemoCache(org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName makeBoundedMemoCache = 
+			QualifiedName.make(CAL_Memoize.MODULE_NAME, "makeBoundedMemoCache");
+
 		/**
 		 * Creates a memoizing version of a function.
 		 * This new function will cache/retrieve results in a <code>MemoCache</code>
@@ -90,11 +185,117 @@ public final class CAL_Memoize {
 		public static final QualifiedName memo = 
 			QualifiedName.make(CAL_Memoize.MODULE_NAME, "memo");
 
+		/**
+		 * 
+		 * @param cache (CAL type: <code>Cal.Core.Memoize.BoundedMemoCache</code>)
+		 *          the cache.
+		 * @return (CAL type: <code>Cal.Core.Prelude.Long</code>) 
+		 *          the number of results evicted to keep the cache within its maximum size.
+		 */
+		public static final SourceModel.Expr memoCacheEvictionCount(SourceModel.Expr cache) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.memoCacheEvictionCount), cache});
+		}
+
+		/**
+		 * Name binding for function: memoCacheEvictionCount.
+		 * @see #memoCacheEvictionCount(org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName memoCacheEvictionCount = 
+			QualifiedName.make(
+				CAL_Memoize.MODULE_NAME, 
+				"memoCacheEvictionCount");
+
+		/**
+		 * 
+		 * @param cache (CAL type: <code>Cal.Core.Memoize.BoundedMemoCache</code>)
+		 *          the cache.
+		 * @return (CAL type: <code>Cal.Core.Prelude.Long</code>) 
+		 *          the number of applications of the memoized function that found a cached result.
+		 */
+		public static final SourceModel.Expr memoCacheHitCount(SourceModel.Expr cache) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.memoCacheHitCount), cache});
+		}
+
+		/**
+		 * Name binding for function: memoCacheHitCount.
+		 * @see #memoCacheHitCount(org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName memoCacheHitCount = 
+			QualifiedName.make(CAL_Memoize.MODULE_NAME, "memoCacheHitCount");
+
+		/**
+		 * 
+		 * @param cache (CAL type: <code>Cal.Core.Memoize.BoundedMemoCache</code>)
+		 *          the cache.
+		 * @return (CAL type: <code>Cal.Core.Prelude.Long</code>) 
+		 *          the number of applications of the memoized function that did not find a cached result.
+		 */
+		public static final SourceModel.Expr memoCacheMissCount(SourceModel.Expr cache) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.memoCacheMissCount), cache});
+		}
+
+		/**
+		 * Name binding for function: memoCacheMissCount.
+		 * @see #memoCacheMissCount(org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName memoCacheMissCount = 
+			QualifiedName.make(CAL_Memoize.MODULE_NAME, "memoCacheMissCount");
+
+		/**
+		 * 
+		 * @param cache (CAL type: <code>Cal.Core.Memoize.BoundedMemoCache</code>)
+		 *          the cache.
+		 * @return (CAL type: <code>Cal.Core.Prelude.Int</code>) 
+		 *          the number of results currently held by the cache.
+		 */
+		public static final SourceModel.Expr memoCacheSize(SourceModel.Expr cache) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.memoCacheSize), cache});
+		}
+
+		/**
+		 * Name binding for function: memoCacheSize.
+		 * @see #memoCacheSize(org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName memoCacheSize = 
+			QualifiedName.make(CAL_Memoize.MODULE_NAME, "memoCacheSize");
+
+		/**
+		 * Creates a memoizing version of a function that caches its results in the given <code>Cal.Core.Memoize.BoundedMemoCache</code>.
+		 * The cache should not be used by any other memoized function.
+		 * @param cache (CAL type: <code>Cal.Core.Memoize.BoundedMemoCache</code>)
+		 *          the cache in which to hold results.
+		 * @param f (CAL type: <code>Cal.Core.Prelude.Outputable a => a -> b</code>)
+		 *          the function to be memoized.
+		 * @param arg_3 (CAL type: <code>Cal.Core.Prelude.Outputable a => a</code>)
+		 * @return (CAL type: <code>b</code>) 
+		 *          a memoizing version of <code>f</code>.
+		 */
+		public static final SourceModel.Expr memoWithCache(SourceModel.Expr cache, SourceModel.Expr f, SourceModel.Expr arg_3) {
+			return 
+				SourceModel.Expr.Application.make(
+					new SourceModel.Expr[] {SourceModel.Expr.Var.make(Functions.memoWithCache), cache, f, arg_3});
+		}
+
+		/**
+		 * Name binding for function: memoWithCache.
+		 * @see #memoWithCache(org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr, org.openquark.cal.compiler.SourceModel.Expr)
+		 */
+		public static final QualifiedName memoWithCache = 
+			QualifiedName.make(CAL_Memoize.MODULE_NAME, "memoWithCache");
+
 	}
 	/**
 	 * A hash of the concatenated JavaDoc for this class (including inner classes).
 	 * This value is used when checking for changes to generated binding classes.
 	 */
-	public static final int javaDocHash = 2077119856;
+	public static final int javaDocHash = 1348032198;
 
 }
@@ -37,10 +37,14 @@
  */
 package org.openquark.cal.services;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
 
 import org.openquark.cal.compiler.Compiler;
 import org.openquark.cal.compiler.CompilerMessage;
@@ -535,6 +539,27 @@ public final class BasicCALServices {
         return visibleEntitySet;
     }
     
+    /**
+     * Returns the given gems that match the given filter.
+     * 
+     * @param gemEntities the gems to filter.
+     * @param filter a gem filter.
+     * @param sortGems If true, then the gems will be sorted alphabetically.
+     * @return the gems which pass the filter.
+     */
+    private static Set<GemEntity> getMatchingGems(Collection<GemEntity> gemEntities, GemFilter filter, boolean sortGems) {
+        GemViewer gemViewer = new GemViewer();
+
+        // Sort the gems alphabetically, if specified.
+        if (sortGems) {
+            gemViewer.setSorter (new GemQualifiedNameCaseInsensitiveSorter ());
+        }
+    
+        gemViewer.addFilter(filter);
+    
+        return new LinkedHashSet<GemEntity>(gemViewer.view(gemEntities));
+    }
+    
     /**
      * Returns a Set containing the public gems in the workspace 
      * which have the specified type signature. 
@@ -551,6 +576,7 @@ public final class BasicCALServices {
         }
 
         // Find all gems matching this type.
+        // Only the gems whose types have a compatible shape need to be pattern matched.
         final ModuleTypeInfo targetModuleTypeInfo = getModuleTypeInfo(scopeModule);
         GemFilter filter = new GemFilter() {
             @Override
@@ -559,7 +585,7 @@ public final class BasicCALServices {
                 return TypeExpr.canPatternMatch(gemType, typeExpr, targetModuleTypeInfo);
             }
         };
-        return getMatchingGems(filter, sortGems);
+        return getMatchingGems(getCALWorkspace().getGemTypeIndex().getCandidateGemsOfType(typeExpr), filter, sortGems);
     }
 
     /**
@@ -578,6 +604,7 @@ public final class BasicCALServices {
         }
 
         // Find all gems matching this type.
+        // Only the gems whose result types have a compatible root type constructor need to be pattern matched.
         final ModuleTypeInfo targetModuleTypeInfo = getModuleTypeInfo(scopeModule);
         GemFilter filter = new GemFilter() {
             @Override
@@ -586,7 +613,7 @@ public final class BasicCALServices {
                 return TypeExpr.canPatternMatch(gemResultType, returnTypeExpr, targetModuleTypeInfo);
             }
         };
-        return getMatchingGems(filter, sortGems);
+        return getMatchingGems(getCALWorkspace().getGemTypeIndex().getCandidateGemsByReturnType(returnTypeExpr), filter, sortGems);
     }
 
     /**
@@ -729,6 +756,60 @@ public final class BasicCALServices {
         entryPointCache.cacheEntryPoints(entryPointSpecs);
     }
     
+    /**
+     * This method does the same as {@link #prepareFunctions}, and then also generates and loads the code for the
+     * functions, and for all the functions they depend on, so that the first call to runFunction doesn't have to wait 
+     * for this to be done on demand.  The code is generated on several threads at once.
+     * <p>
+     * This can take much longer than prepareFunctions, since the code for everything the functions could possibly
+     * call is loaded, whether or not it is needed when they are run.  Code which can't be generated or loaded
+     * is skipped, and left to be loaded on demand.
+     * 
+     * @param entryPointSpecs a list of entry point specs that will be used later by runFunction.
+     * @throws GemCompilationException
+     */
+    public void prepareAndPreloadFunctions(List<EntryPointSpec> entryPointSpecs) throws GemCompilationException { 
+        prepareFunctions(entryPointSpecs);
+        
+        List<QualifiedName> functionNames = new ArrayList<QualifiedName>(entryPointSpecs.size());
+        for (final EntryPointSpec entryPointSpec : entryPointSpecs) {
+            functionNames.add(entryPointSpec.getFunctionalAgentName());
+        }
+        workspaceManager.preloadEntryPoints(functionNames);
+    }
+    
+    /**
+     * This method does the same as {@link #prepareFunctions}, but on a background thread, so that the caller 
+     * is not held up while the entry points are compiled and their code loaded. 
+     * Calls to runFunction for entry points which are still being prepared wait for them to be prepared, rather 
+     * than compiling them again.
+     * 
+     * @param entryPointSpecs a list of entry point specs that will be used later by runFunction.
+     * @return a future which completes when the functions have been prepared. Getting its result will throw an
+     *   ExecutionException wrapping the GemCompilationException if the entry points could not be compiled.
+     */
+    public Future<Void> prepareFunctionsInBackground(final List<EntryPointSpec> entryPointSpecs) {
+        if (entryPointSpecs == null) {
+            throw new NullPointerException("Argument entryPointSpecs must not be null.");
+        }
+        
+        final List<EntryPointSpec> entryPointSpecsCopy = new ArrayList<EntryPointSpec>(entryPointSpecs);
+        
+        return entryPointCache.submitBackgroundTask(new Callable<Void>() {
+            public Void call() throws GemCompilationException {
+                prepareFunctions(entryPointSpecsCopy);
+                return null;
+            }
+        });
+    }
+    
+    /**
+     * @return a snapshot of the hit, miss and compilation statistics of the cache of entry points used by runFunction.
+     */
+    public EntryPointCacheStatistics getEntryPointCacheStatistics() {
+        return entryPointCache.getStatistics();
+    }
+    
     /**
      * Get compiler options
      */
@@ -164,6 +164,9 @@ public abstract class CALWorkspace implements ResourceAccess, ProgramChangeListe
     /** The source metrics for the workspace */
     private final SourceMetricsManager sourceMetrics;
     
+    /** The index of the public gems in the workspace by type, kept up to date as modules are loaded and removed. */
+    private final GemTypeIndex gemTypeIndex = new GemTypeIndex();
+    
     /** The module container for this workspace */
     private final ModuleContainer moduleContainer;
     
@@ -558,6 +561,7 @@ public abstract class CALWorkspace implements ResourceAccess, ProgramChangeListe
 
         nameToMetaModuleMap.put(module.getName(), module);
         metaModuleList.add(module);
+        gemTypeIndex.addModule(module);
     }
 
     /**
@@ -567,6 +571,7 @@ public abstract class CALWorkspace implements ResourceAccess, ProgramChangeListe
     synchronized private final MetaModule removeMetaModule(ModuleName moduleName) {
         MetaModule module = nameToMetaModuleMap.remove(moduleName);
         metaModuleList.remove(module);
+        gemTypeIndex.removeModule(moduleName);
         return module;
     }
 
@@ -1537,6 +1542,13 @@ public abstract class CALWorkspace implements ResourceAccess, ProgramChangeListe
         return sourceMetrics;
     }
     
+    /**
+     * @return the index of the public gems in the workspace by type.
+     */
+    GemTypeIndex getGemTypeIndex() {
+        return gemTypeIndex;
+    }
+    
     /**
      * @param moduleName the name of a module.
      * @return the source definition for the specified module, or null if there is no source definition for that module.
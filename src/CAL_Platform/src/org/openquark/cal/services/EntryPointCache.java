@@ -41,9 +41,24 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -72,6 +87,21 @@ import org.openquark.util.General;
  * function calls to use. This will often be more efficient than
  * BasicCalServices.runFunction() since repeated calls to the same functions
  * with different arguments is a common usage pattern.
+ * <p>
+ * The cache is striped by module. Each module has its own lock, so running functions or
+ * compiling entry points in one module does not hold up callers using other modules. 
+ * Looking up a cached entry point does not take any exclusive lock.
+ * <p>
+ * Compiling the entry points of a module (as an adjunct to the module) replaces all the 
+ * previously compiled entry points of the module, and so cannot happen while functions of the module are running.
+ * Entry points that are not in the cache are compiled in batches: callers which miss the cache while a compilation 
+ * of the module is pending (i.e. waiting for running functions to finish) join that compilation rather than 
+ * compiling the module again afterwards. Each entry point is compiled once, by a single batch, and all the
+ * callers needing it wait for that batch through its future.
+ * An entry point which fails to compile only fails the callers needing it: the other entry points of its batch 
+ * are compiled again without it.
+ * <p>
+ * Entry points can also be compiled in the background, using {@link #submitBackgroundTask}.
  * 
  * @author Robin Salkeld, Magnus Byne
  */
@@ -85,62 +115,183 @@ final class EntryPointCache {
      */
     private final int numEntryPointsToCachePerModule;
     
+    /** this limits the number of modules for which entry points are cached. */
+    private final int numModulesToCache;
+    
     /**
-     * This is used to map from ModuleName to a module caches.
-     * A LRU cache is used, so that we only cache entry points in a fixed
-     * number of modules. Once this number is exceeded, all the entry points for
-     * the first module referenced are removed.
+     * This is used to map from ModuleName to a module caches. 
+     * Module caches are never removed from this map, since the module cache holds the lock used to 
+     * keep compilation and execution in the module apart. The entry points of the module caches are 
+     * discarded instead, both on flushing and when too many modules have cached entry points.
      */
-    final private LRUCache<ModuleName, ModuleCache> cache;
+    private final ConcurrentMap<ModuleName, ModuleCache> moduleCaches = new ConcurrentHashMap<ModuleName, ModuleCache>();
     
     /**
-     * this lock is used to protect the cache
+     * The modules whose module caches have entry points, in order of their last compilation.
+     * Once there are more than numModulesToCache of them, the entry points of the least recently compiled module are discarded. 
+     * Guarded by itself.
+     */
+    private final Set<ModuleName> modulesWithEntryPoints = new LinkedHashSet<ModuleName>();
+    
+    /**
+     * this lock is used to keep running functions and compiling entry points apart from changes to the
+     * workspace (which are done while holding the write lock, see {@link #lockCache()}). It is always acquired 
+     * before the lock of a module cache.
      */
     final private ReadWriteLock cacheLock = new ReentrantReadWriteLock();
 
+    /** Used to number the background compilation threads. */
+    private static final AtomicInteger threadCount = new AtomicInteger();
+
+    /** The thread running background tasks. Created when the first background task is submitted. Guarded by this. */
+    private ExecutorService backgroundExecutor;
+    
+    /** The number of runFunction calls which found their entry point in the cache. */
+    private final AtomicLong nHits = new AtomicLong();
+    
+    /** The number of runFunction calls which did not find their entry point in the cache. */
+    private final AtomicLong nMisses = new AtomicLong();
+    
+    /** The number of entry points which were needed while a compilation of them was already pending or in progress. */
+    private final AtomicLong nJoinedCompilations = new AtomicLong();
+    
+    /** The number of adjunct compilations. */
+    private final AtomicLong nCompilations = new AtomicLong();
+    
+    /** The number of adjunct compilations which failed. */
+    private final AtomicLong nFailedCompilations = new AtomicLong();
+    
+    /** The total number of entry points compiled, including previously cached entry points compiled again. */
+    private final AtomicLong nEntryPointsCompiled = new AtomicLong();
+    
+    /** The total time spent compiling adjuncts, in nanoseconds. This does not include waiting for the module lock. */
+    private final AtomicLong compileTimeNanos = new AtomicLong();
+    
+    /** The longest time spent on a single adjunct compilation, in nanoseconds. */
+    private final AtomicLong maxCompileTimeNanos = new AtomicLong();
+    
     /**
-     * this is used for the caching  - 
-     * the least recently added items are removed from the cache
-     * when the max size is exceeded
+     * The result of a compilation of the entry points of a module.
      *
      * @author Magnus Byne
      */
-    private static class LRUCache<K,V> extends java.util.LinkedHashMap<K,V> {
-        private static final long serialVersionUID = -2300095914974540766L;
-
-        /** this is the maximum number of items the map will hold*/
-        protected int cacheSize;
+    private static final class CompileResult {
+        
+        /** The generation of the module cache made by the compilation. */
+        private final int generation;
+        
+        /** The compiled entry points. */
+        private final Map<EntryPointSpec, EntryPoint> entryPoints;
+        
+        /** The error messages of the entry points which failed to compile, by entry point. */
+        private final Map<EntryPointSpec, String> failures;
+        
+        CompileResult(int generation, Map<EntryPointSpec, EntryPoint> entryPoints, Map<EntryPointSpec, String> failures) {
+            this.generation = generation;
+            this.entryPoints = entryPoints;
+            this.failures = failures;
+        }
         
         /**
-         * Create the cache
-         * @param cacheSize the number of items to store
+         * @param entryPointSpecs the entry points needed by the caller.
+         * @throws GemCompilationException if any of the given entry points failed to compile.
          */
-        LRUCache(int cacheSize) {
-            this.cacheSize = cacheSize;
+        void checkCompiled(Collection<EntryPointSpec> entryPointSpecs) throws GemCompilationException {
+            for (final EntryPointSpec spec : entryPointSpecs) {
+                String failure = failures.get(spec);
+                if (failure != null) {
+                    throw new GemCompilationException(failure);
+                }
+            }
         }
-        
-        @Override
-        protected boolean removeEldestEntry(Map.Entry<K,V> eldest) { return size() >= cacheSize; }
     }
     
- 
     /**
      * This class is used to cache entry points for a single module
      * @author mbyne
      */
     private final class ModuleCache {
-        /** the cache of entrypointspec -> entrypoint*/
-        final private LRUCache<EntryPointSpec, EntryPoint> cache;
+        /** 
+         * the cache of entrypointspec -> entrypoint. 
+         * Only changed while holding the write lock, except that the entry points may be discarded at any time.
+         */
+        final private ConcurrentMap<EntryPointSpec, EntryPoint> cache = new ConcurrentHashMap<EntryPointSpec, EntryPoint>();
+        
+        /** The specs of the cached entry points, in the order that they were first added to the cache. Guarded by the write lock. */
+        final private List<EntryPointSpec> cacheOrder = new ArrayList<EntryPointSpec>();
+        
+        /** 
+         * The number of times the entry points of this module have been compiled or flushed. 
+         * An entry point can only be run if the generation hasn't changed since it was compiled. 
+         * Only changed while holding the write lock of this module cache, or of the entry point cache.
+         */
+        private int generation;
         
         /** the name of the module that entry points are cached for*/
         final private ModuleName moduleName;
         
-        /**lock used to gate access to the cache*/
+        /**lock used to keep running functions and compiling entry points in the module apart*/
         final private ReadWriteLock cacheLock = new ReentrantReadWriteLock();
         
-        ModuleCache(ModuleName name, int size) {
+        /** The compilation which has not yet started compiling, and so can take more entry points. Guarded by this. */
+        private CompileBatch pendingBatch;
+        
+        /** The entry points being compiled, or waiting to be compiled, and the compilation they are part of. Guarded by this. */
+        final private Map<EntryPointSpec, CompileBatch> batchesBySpec = new HashMap<EntryPointSpec, CompileBatch>();
+        
+        /**
+         * A compilation of the entry points of the module. 
+         * Entry points can be added to the compilation until it acquires the write lock of the module cache.
+         *
+         * @author Magnus Byne
+         */
+        private final class CompileBatch implements Callable<CompileResult> {
+            
+            /** The entry points to be compiled. Guarded by the module cache. */
+            private final List<EntryPointSpec> specs = new ArrayList<EntryPointSpec>();
+            
+            /** The future for the result of the compilation. The compilation is run by running the future. */
+            private final FutureTask<CompileResult> future = new FutureTask<CompileResult>(this);
+            
+            /**
+             * Compiles the entry points of the batch, along with the entry points already in the cache.
+             * @return the result of the compilation.
+             * @throws GemCompilationException
+             */
+            public CompileResult call() throws GemCompilationException {
+                EntryPointCache.this.cacheLock.readLock().lock();
+                try {
+                    ModuleCache.this.cacheLock.writeLock().lock();
+                    try {
+                        List<EntryPointSpec> newSpecs;
+                        synchronized (ModuleCache.this) {
+                            // No more entry points can be added to the batch from here on.
+                            if (pendingBatch == this) {
+                                pendingBatch = null;
+                            }
+                            newSpecs = new ArrayList<EntryPointSpec>(specs);
+                        }
+                        
+                        return compileEntryPoints(newSpecs);
+                        
+                    } finally {
+                        synchronized (ModuleCache.this) {
+                            for (final EntryPointSpec spec : specs) {
+                                if (batchesBySpec.get(spec) == this) {
+                                    batchesBySpec.remove(spec);
+                                }
+                            }
+                        }
+                        ModuleCache.this.cacheLock.writeLock().unlock();
+                    }
+                } finally {
+                    EntryPointCache.this.cacheLock.readLock().unlock();
+                }
+            }
+        }
+        
+        ModuleCache(ModuleName name) {
             moduleName = name;
-            cache = new LRUCache<EntryPointSpec, EntryPoint>(size);
         }
         
         /**
@@ -153,138 +304,351 @@ final class EntryPointCache {
          * @throws CALExecutorException
          * @throws GemCompilationException
          */
-        Object runFunction(EntryPointSpec entryPointSpec, Object[] arguments, ExecutionContext executionContext) throws CALExecutorException, GemCompilationException {            
-            cacheLock.readLock().lock();
-            try {
-                EntryPoint ep = cache.get(entryPointSpec);
-                if (ep == null) {
-                    addEntryPoints(Collections.singletonList(entryPointSpec), true);
-                    ep = cache.get(entryPointSpec);
-                }       
-                CALExecutor executor = programModelManager.makeExecutor(executionContext);
-
-                return executor.exec(ep, arguments);
-
-            } finally {
-                cacheLock.readLock().unlock();
+        Object runFunction(EntryPointSpec entryPointSpec, Object[] arguments, ExecutionContext executionContext) throws CALExecutorException, GemCompilationException {
+            
+            CompileResult compileResult = null;
+            while (true) {
+                EntryPointCache.this.cacheLock.readLock().lock();
+                try {
+                    cacheLock.readLock().lock();
+                    try {
+                        EntryPoint ep = cache.get(entryPointSpec);
+                        if (ep == null && compileResult != null && compileResult.generation == generation) {
+                            // The entry point was compiled for this call, but has already been discarded from the cache.
+                            // It is still valid since the module hasn't been compiled again since.
+                            ep = compileResult.entryPoints.get(entryPointSpec);
+                        }
+                        
+                        if (ep != null) {
+                            if (compileResult == null) {
+                                nHits.incrementAndGet();
+                            }
+                            
+                            CALExecutor executor = programModelManager.makeExecutor(executionContext);
+                            
+                            return executor.exec(ep, arguments);
+                        }
+                    } finally {
+                        cacheLock.readLock().unlock();
+                    }
+                } finally {
+                    EntryPointCache.this.cacheLock.readLock().unlock();
+                }
+                
+                if (compileResult == null) {
+                    nMisses.incrementAndGet();
+                }
+                
+                // Compile the entry point, or wait for the compilation already compiling it. 
+                // No locks may be held here, since the compilation may be done by another thread.
+                compileResult = addEntryPoint(entryPointSpec);
             }
         }
         
+        /**
+         * Adds an entry point to the module cache, and waits until it has been compiled.
+         * @param entryPointSpec
+         * @return the result of the compilation which compiled the entry point.
+         * @throws GemCompilationException
+         */
+        private CompileResult addEntryPoint(EntryPointSpec entryPointSpec) throws GemCompilationException {
+            CompileBatch newBatch = null;
+            CompileBatch batch;
+            synchronized (this) {
+                batch = batchesBySpec.get(entryPointSpec);
+                if (batch != null) {
+                    nJoinedCompilations.incrementAndGet();
+                } else {
+                    batch = pendingBatch;
+                    if (batch == null) {
+                        batch = newBatch = pendingBatch = new CompileBatch();
+                    } else {
+                        nJoinedCompilations.incrementAndGet();
+                    }
+                    batch.specs.add(entryPointSpec);
+                    batchesBySpec.put(entryPointSpec, batch);
+                }
+            }
+            
+            if (newBatch != null) {
+                newBatch.future.run();
+            }
+            
+            CompileResult compileResult = getCompileResult(batch);
+            compileResult.checkCompiled(Collections.singletonList(entryPointSpec));
+            return compileResult;
+        }
+        
         /** 
-         * Add a list of entrypointspecs to the module cache
-         * assumes that a read lock is already held on the cache
+         * Add a list of entrypointspecs to the module cache, and wait until they have been compiled.
+         * The locks of the entry point cache must not be held by the caller.
          * @param entryPointSpecs
+         * @throws GemCompilationException
          */
         void addEntryPoints(Collection<EntryPointSpec> entryPointSpecs) throws GemCompilationException {
-            addEntryPoints(entryPointSpecs, false);
+            
+            CompileBatch newBatch = null;
+            Set<CompileBatch> batches = new HashSet<CompileBatch>();
+            synchronized (this) {
+                for (final EntryPointSpec spec : entryPointSpecs) {
+                    CompileBatch batch = batchesBySpec.get(spec);
+                    if (batch == null) {
+                        if (cache.containsKey(spec)) {
+                            continue;
+                        }
+                        
+                        batch = pendingBatch;
+                        if (batch == null) {
+                            batch = newBatch = pendingBatch = new CompileBatch();
+                        }
+                        batch.specs.add(spec);
+                        batchesBySpec.put(spec, batch);
+                    }
+                    batches.add(batch);
+                }
+            }
+
+            if (newBatch != null) {
+                newBatch.future.run();
+            }
+            
+            for (final CompileBatch batch : batches) {
+                getCompileResult(batch).checkCompiled(entryPointSpecs);
+            }
         }
         
         /** 
-         * Add a list of entrypointspecs to the module cache
-         * assumes that a read lock is already held on the cache
-         * @param entryPointSpecs
-         * @param haveRead - this param indicates if we already have a read lock on the cache
+         * Compile the given entry points along with the entry points in the module cache, and replace the
+         * contents of the cache with the compiled entry points.
+         * <p>
+         * The entry points may have been requested by different callers, so if the compilation fails, the entry points
+         * which fail to compile on their own are left out and the others are compiled again. The failed entry points are
+         * reported in the result, and only fail the callers which need them.
+         * Assumes that the write lock of the module cache is held.
+         * @param newSpecs the entry points to be added to the cache.
+         * @return the result of the compilation.
+         * @throws GemCompilationException if the entry points which compile on their own fail to compile together.
          */
-        private void addEntryPoints(Collection<EntryPointSpec> entryPointSpecs, boolean haveRead) throws GemCompilationException {
-            //upgrade to a write lock
-            if (haveRead) {
-                cacheLock.readLock().unlock();
+        private CompileResult compileEntryPoints(List<EntryPointSpec> newSpecs) throws GemCompilationException {
+            
+            // The entry points still in the cache, oldest first, followed by the new ones.
+            // If there are too many, the oldest entry points are left out.
+            List<EntryPointSpec> requiredList = new ArrayList<EntryPointSpec>();
+            for (final EntryPointSpec spec : cacheOrder) {
+                if (cache.containsKey(spec) && !newSpecs.contains(spec)) {
+                    requiredList.add(spec);
+                }
             }
-            cacheLock.writeLock().lock();
-            try {
-
-                HashSet<EntryPointSpec> required = new HashSet<EntryPointSpec>();
+            int nToDrop = Math.min(requiredList.size(), requiredList.size() + newSpecs.size() - numEntryPointsToCachePerModule);
+            if (nToDrop > 0) {
+                requiredList.subList(0, nToDrop).clear();
+            }
+            requiredList.addAll(newSpecs);
 
-                required.addAll(cache.keySet());
-                required.addAll(entryPointSpecs);
+            CompilerMessageLogger compilerLogger = new MessageLogger();
+            
+            //compile the entry points
+            List<EntryPoint> entryPoints = compile(requiredList, compilerLogger);
 
-                CompilerMessageLogger compilerLogger = new MessageLogger();
-                       
-                List<EntryPointSpec> requiredList = new ArrayList<EntryPointSpec>(required);
-                //compile the entry points
-                List<EntryPoint> entryPoints 
-                = programModelManager.getCompiler().getEntryPoints(requiredList, moduleName, compilerLogger);
+            //all of the cached entry points are replaced (or invalid) now.
+            cache.clear();
+            cacheOrder.clear();
+            ++generation;
 
-                if (compilerLogger.getMaxSeverity().compareTo(CompilerMessage.Severity.ERROR) >= 0) {
-                    StringBuffer sb = new StringBuffer();
-                    sb.append("Failed to generate entry points for module '");
-                    sb.append(moduleName);
-                    sb.append(General.SYSTEM_EOL);
-                    for(CompilerMessage msg : compilerLogger.getCompilerMessages()) {
-                        sb.append(msg);
-                        sb.append(General.SYSTEM_EOL);
+            Map<EntryPointSpec, String> failures = new HashMap<EntryPointSpec, String>();
+            if (entryPoints == null && requiredList.size() > 1) {
+                // Find the entry points which fail on their own, and compile the others again without them.
+                List<EntryPointSpec> compilableList = new ArrayList<EntryPointSpec>();
+                for (final EntryPointSpec spec : requiredList) {
+                    CompilerMessageLogger specLogger = new MessageLogger();
+                    if (compile(Collections.singletonList(spec), specLogger) == null) {
+                        failures.put(spec, getFailureMessage(specLogger));
+                    } else {
+                        compilableList.add(spec);
                     }
-
-                    //all of the cached entry points are invalid now.
-                    cache.clear();
-                    throw new GemCompilationException(sb.toString());
                 }
+                
+                requiredList = compilableList;
+                if (requiredList.isEmpty()) {
+                    entryPoints = Collections.emptyList();
+                } else {
+                    compilerLogger = new MessageLogger();
+                    entryPoints = compile(requiredList, compilerLogger);
+                }
+            }
+            
+            if (entryPoints == null) {
+                throw new GemCompilationException(getFailureMessage(compilerLogger));
+            }
 
-                //update the cache with the new entry points
-                // entry point spec
-                for (int i = 0, n = entryPoints.size(); i < n; i++) {
-                    EntryPointSpec entryPointSpec = requiredList.get(i);
-                    EntryPoint entryPoint = entryPoints.get(i);
-                    if (entryPoint != null) {
-                        cache.put(entryPointSpec, entryPoint);
-                    } else {
-                        cache.remove(entryPointSpec);
-                    }
+            //update the cache with the new entry points
+            Map<EntryPointSpec, EntryPoint> compiledEntryPoints = new HashMap<EntryPointSpec, EntryPoint>();
+            for (int i = 0, n = entryPoints.size(); i < n; i++) {
+                EntryPointSpec entryPointSpec = requiredList.get(i);
+                EntryPoint entryPoint = entryPoints.get(i);
+                if (entryPoint != null) {
+                    cache.put(entryPointSpec, entryPoint);
+                    cacheOrder.add(entryPointSpec);
+                    compiledEntryPoints.put(entryPointSpec, entryPoint);
                 }
-            } finally {
-                if (haveRead) {
-                    cacheLock.readLock().lock();
+            }
+            
+            moduleCompiled(moduleName);
+            
+            return new CompileResult(generation, compiledEntryPoints, failures);
+        }
+        
+        /**
+         * Compiles the given entry points, and updates the statistics.
+         * Assumes that the write lock of the module cache is held.
+         * @param specs the entry points to compile.
+         * @param compilerLogger the logger for the compiler messages.
+         * @return the compiled entry points, or null if the compilation failed.
+         */
+        private List<EntryPoint> compile(List<EntryPointSpec> specs, CompilerMessageLogger compilerLogger) {
+            long startTime = System.nanoTime();
+            List<EntryPoint> entryPoints 
+            = programModelManager.getCompiler().getEntryPoints(specs, moduleName, compilerLogger);
+            long compileTime = System.nanoTime() - startTime;
+            
+            nCompilations.incrementAndGet();
+            nEntryPointsCompiled.addAndGet(specs.size());
+            compileTimeNanos.addAndGet(compileTime);
+            for (long max = maxCompileTimeNanos.get(); compileTime > max; max = maxCompileTimeNanos.get()) {
+                if (maxCompileTimeNanos.compareAndSet(max, compileTime)) {
+                    break;
                 }
-                cacheLock.writeLock().unlock();
             }
+            
+            if (entryPoints == null || compilerLogger.getMaxSeverity().compareTo(CompilerMessage.Severity.ERROR) >= 0) {
+                nFailedCompilations.incrementAndGet();
+                return null;
+            }
+            return entryPoints;
+        }
+        
+        /**
+         * @param compilerLogger the logger of a failed compilation.
+         * @return the error message for the failed compilation.
+         */
+        private String getFailureMessage(CompilerMessageLogger compilerLogger) {
+            StringBuffer sb = new StringBuffer();
+            sb.append("Failed to generate entry points for module '");
+            sb.append(moduleName);
+            sb.append("'");
+            sb.append(General.SYSTEM_EOL);
+            for(CompilerMessage msg : compilerLogger.getCompilerMessages()) {
+                sb.append(msg);
+                sb.append(General.SYSTEM_EOL);
+            }
+            return sb.toString();
+        }
+        
+        /**
+         * Discard the entry points of the module cache. This can be done without holding any locks.
+         */
+        void discardEntryPoints() {
+            cache.clear();
+        }
+        
+        /**
+         * Discard the entry points of the module cache, and make sure that entry points compiled before 
+         * are not used. Assumes that the write lock of the entry point cache is held.
+         */
+        void flush() {
+            cache.clear();
+            ++generation;
         }
     }
     
-    Object runFunction(EntryPointSpec entryPointSpec, Object[] arguments, ExecutionContext executionContext) throws CALExecutorException, GemCompilationException {
-        cacheLock.readLock().lock();
+    /**
+     * Waits for a compilation to complete.
+     * @param batch
+     * @return the result of the compilation.
+     * @throws GemCompilationException if the compilation failed.
+     */
+    private static CompileResult getCompileResult(ModuleCache.CompileBatch batch) throws GemCompilationException {
+        boolean interrupted = false;
         try {
-            ModuleName moduleName = entryPointSpec.getFunctionalAgentName().getModuleName();
-            ModuleCache moduleCache = getModuleCache(moduleName);
-            
-            return moduleCache.runFunction(entryPointSpec, arguments, executionContext);
+            while (true) {
+                try {
+                    return batch.future.get();
+                    
+                } catch (InterruptedException e) {
+                    // The compilation is shared with other callers, so it is waited for regardless.
+                    interrupted = true;
+                    
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof GemCompilationException) {
+                        throw (GemCompilationException)cause;
+                    } else if (cause instanceof RuntimeException) {
+                        throw (RuntimeException)cause;
+                    } else if (cause instanceof Error) {
+                        throw (Error)cause;
+                    }
+                    throw new IllegalStateException("Unexpected exception compiling entry points: " + cause);
+                }
+            }
         } finally {
-            cacheLock.readLock().unlock(); 
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
         }
     }
+    
+    Object runFunction(EntryPointSpec entryPointSpec, Object[] arguments, ExecutionContext executionContext) throws CALExecutorException, GemCompilationException {
+        ModuleName moduleName = entryPointSpec.getFunctionalAgentName().getModuleName();
+        ModuleCache moduleCache = getModuleCache(moduleName);
+
+        return moduleCache.runFunction(entryPointSpec, arguments, executionContext);
+    }
    
     /**
-     * gets the module cache for the specified module. It assumes there is already
-     * a read lock on the module cache. If there is no entry for the module
+     * gets the module cache for the specified module. If there is no entry for the module
      * it is created.
      * @param moduleName
      * @return the module cache
      */
     private ModuleCache getModuleCache(ModuleName moduleName)
     {
-        ModuleCache moduleCache = cache.get(moduleName);
+        ModuleCache moduleCache = moduleCaches.get(moduleName);
 
         if (moduleCache != null) {
             return moduleCache;
         }
         
-        cacheLock.readLock().unlock();
-        cacheLock.writeLock().lock();
-        try {
-            //make sure it hasn't been inserted by someone while the lock was being upgraded
-            moduleCache = cache.get(moduleName);
-            if (moduleCache != null) {
-                return moduleCache;
-            }
-            
-            moduleCache = new ModuleCache(moduleName, numEntryPointsToCachePerModule);
-            cache.put(moduleName, moduleCache);
+        moduleCache = new ModuleCache(moduleName);
+        ModuleCache existingModuleCache = moduleCaches.putIfAbsent(moduleName, moduleCache);
+        if (existingModuleCache != null) {
+            return existingModuleCache;
+        }
+        
+        return moduleCache;
+    }
+    
+    /**
+     * Records that the entry points of a module have been compiled, and discards the entry points of the least recently
+     * compiled modules if there are too many modules with cached entry points.
+     * @param moduleName
+     */
+    private void moduleCompiled(ModuleName moduleName) {
+        List<ModuleName> modulesToDiscard = new ArrayList<ModuleName>();
+        synchronized (modulesWithEntryPoints) {
+            modulesWithEntryPoints.remove(moduleName);
+            modulesWithEntryPoints.add(moduleName);
             
-            return moduleCache;
-        } finally {
-            cacheLock.readLock().lock();
-            cacheLock.writeLock().unlock();
+            for (Iterator<ModuleName> it = modulesWithEntryPoints.iterator(); modulesWithEntryPoints.size() > numModulesToCache && it.hasNext(); ) {
+                modulesToDiscard.add(it.next());
+                it.remove();
+            }
+        }
+        
+        for (final ModuleName moduleToDiscard : modulesToDiscard) {
+            moduleCaches.get(moduleToDiscard).discardEntryPoints();
         }
     }
+    
     /**
      * Pre-caches entry points - can be used to cut down initial time taken to run functions.
      * @param entryPointSpecs
@@ -309,18 +673,51 @@ final class EntryPointCache {
         }
 
         //update each of the module caches
-        cacheLock.readLock().lock();
-        try {
-            for(ModuleName moduleName : specs.keySet()) {
-                ModuleCache moduleCache = getModuleCache(moduleName);
-                moduleCache.addEntryPoints(specs.get(moduleName));
+        for(ModuleName moduleName : specs.keySet()) {
+            ModuleCache moduleCache = getModuleCache(moduleName);
+            moduleCache.addEntryPoints(specs.get(moduleName));
+        }
+    }
+    
+    /**
+     * Runs a task on the background thread of the entry point cache. This is used to compile entry points
+     * without holding up the caller. Tasks are run one at a time, in the order they are submitted.
+     * @param task
+     * @return the future for the result of the task.
+     */
+    <T> Future<T> submitBackgroundTask(Callable<T> task) {
+        ExecutorService executor;
+        synchronized (this) {
+            if (backgroundExecutor == null) {
+                backgroundExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                    public Thread newThread(Runnable r) {
+                        Thread thread = new Thread(r, "CAL entry point compiler " + threadCount.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
             }
-        } finally {
-            cacheLock.readLock().unlock(); 
-        }       
+            executor = backgroundExecutor;
+        }
         
+        return executor.submit(task);
     }
     
+    /**
+     * @return a snapshot of the statistics of the entry point cache.
+     */
+    EntryPointCacheStatistics getStatistics() {
+        int nCachedEntryPoints = 0;
+        for (final ModuleCache moduleCache : moduleCaches.values()) {
+            nCachedEntryPoints += moduleCache.cache.size();
+        }
+        
+        return new EntryPointCacheStatistics(
+            nHits.get(), nMisses.get(), nJoinedCompilations.get(),
+            nCompilations.get(), nFailedCompilations.get(), nEntryPointsCompiled.get(),
+            compileTimeNanos.get() / 1000000, maxCompileTimeNanos.get() / 1000000, 
+            nCachedEntryPoints);
+    }
  
     /**
      * EntryPointCache constructor.
@@ -329,7 +726,7 @@ final class EntryPointCache {
     EntryPointCache(ProgramModelManager programModelManager, int numEntryPointsToCachePerModule, int numModulesToCache) {
         this.programModelManager = programModelManager;
         this.numEntryPointsToCachePerModule = numEntryPointsToCachePerModule;
-        cache = new LRUCache<ModuleName, ModuleCache>(numModulesToCache);
+        this.numModulesToCache = numModulesToCache;
     }
     
     
@@ -349,6 +746,11 @@ final class EntryPointCache {
      * Must have acquired the module lock first.
      */
     void flush() {
-        cache.clear();
+        for (final ModuleCache moduleCache : moduleCaches.values()) {
+            moduleCache.flush();
+        }
+        synchronized (modulesWithEntryPoints) {
+            modulesWithEntryPoints.clear();
+        }
     }
 }
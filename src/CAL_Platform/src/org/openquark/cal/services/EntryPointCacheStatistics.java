@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2007 BUSINESS OBJECTS SOFTWARE LIMITED
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *  
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *  
+ *     * Neither the name of Business Objects nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+/*
+ * EntryPointCacheStatistics.java
+ * Created: Oct 18, 2026
+ */
+
+package org.openquark.cal.services;
+
+
+/**
+ * A snapshot of the statistics of the entry point cache used by {@link BasicCALServices#runFunction}.
+ * <p>
+ * A cache miss causes the entry points of the function's module to be compiled, unless a compilation 
+ * of the entry point is already pending or in progress, in which case the miss joins that compilation.
+ * Each compilation compiles the new entry points along with the entry points already cached for the module.
+ * 
+ * @see BasicCALServices#getEntryPointCacheStatistics()
+ */
+public final class EntryPointCacheStatistics {
+    
+    private final long nHits;
+    private final long nMisses;
+    private final long nJoinedCompilations;
+    private final long nCompilations;
+    private final long nFailedCompilations;
+    private final long nEntryPointsCompiled;
+    private final long compileTimeMS;
+    private final long maxCompileTimeMS;
+    private final int nCachedEntryPoints;
+    
+    EntryPointCacheStatistics(long nHits, long nMisses, long nJoinedCompilations, 
+                              long nCompilations, long nFailedCompilations, long nEntryPointsCompiled,
+                              long compileTimeMS, long maxCompileTimeMS, 
+                              int nCachedEntryPoints) {
+        this.nHits = nHits;
+        this.nMisses = nMisses;
+        this.nJoinedCompilations = nJoinedCompilations;
+        this.nCompilations = nCompilations;
+        this.nFailedCompilations = nFailedCompilations;
+        this.nEntryPointsCompiled = nEntryPointsCompiled;
+        this.compileTimeMS = compileTimeMS;
+        this.maxCompileTimeMS = maxCompileTimeMS;
+        this.nCachedEntryPoints = nCachedEntryPoints;
+    }
+    
+    /**
+     * @return the number of calls to run a function which found the entry point in the cache.
+     */
+    public long getNHits() {
+        return nHits;
+    }
+    
+    /**
+     * @return the number of calls to run a function which did not find the entry point in the cache.
+     */
+    public long getNMisses() {
+        return nMisses;
+    }
+    
+    /**
+     * @return the number of entry points needed while a compilation of them was already pending or in progress, 
+     *   and so which did not need a compilation of their own.
+     */
+    public long getNJoinedCompilations() {
+        return nJoinedCompilations;
+    }
+    
+    /**
+     * @return the number of compilations of entry points.
+     */
+    public long getNCompilations() {
+        return nCompilations;
+    }
+    
+    /**
+     * @return the number of compilations of entry points which failed.
+     */
+    public long getNFailedCompilations() {
+        return nFailedCompilations;
+    }
+    
+    /**
+     * @return the total number of entry points compiled, including cached entry points compiled again 
+     *   along with new entry points for the same module.
+     */
+    public long getNEntryPointsCompiled() {
+        return nEntryPointsCompiled;
+    }
+    
+    /**
+     * @return the total time spent compiling entry points, in milliseconds.
+     */
+    public long getCompileTimeMS() {
+        return compileTimeMS;
+    }
+    
+    /**
+     * @return the longest time spent on a single compilation of entry points, in milliseconds.
+     */
+    public long getMaxCompileTimeMS() {
+        return maxCompileTimeMS;
+    }
+    
+    /**
+     * @return the number of entry points currently in the cache.
+     */
+    public int getNCachedEntryPoints() {
+        return nCachedEntryPoints;
+    }
+    
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return "EntryPointCacheStatistics: hits = " + nHits + ", misses = " + nMisses + ", joined compilations = " + nJoinedCompilations
+            + ", compilations = " + nCompilations + " (" + nFailedCompilations + " failed, " + nEntryPointsCompiled + " entry points, "
+            + compileTimeMS + " ms, max " + maxCompileTimeMS + " ms), cached entry points = " + nCachedEntryPoints;
+    }
+}
@@ -0,0 +1,330 @@
+/*
+ * Copyright (c) 2007 BUSINESS OBJECTS SOFTWARE LIMITED
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *  
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *  
+ *     * Neither the name of Business Objects nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+/*
+ * GemTypeIndex.java
+ * Created: Oct 18, 2026
+ */
+
+package org.openquark.cal.services;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openquark.cal.compiler.ModuleName;
+import org.openquark.cal.compiler.QualifiedName;
+import org.openquark.cal.compiler.Scope;
+import org.openquark.cal.compiler.TypeConsApp;
+import org.openquark.cal.compiler.TypeExpr;
+import org.openquark.cal.module.Cal.Core.CAL_Prelude;
+
+
+/**
+ * An index of the public gems in a workspace by the shape of their types, used to narrow down the
+ * gems which need to be type checked when searching for gems by type.
+ * <p>
+ * The shape of a type t1 -> t2 -> ... -> tn -> r is its arity n, along with the root type constructors
+ * of the argument types t1 ... tn and of the result type r. Where a type is not a type constructor application
+ * (eg. a type variable, a type variable application, or a record type) its root type constructor is unknown.
+ * Two types can only match if their shapes are compatible: where the root type constructors are known on both sides,
+ * they must be the same. So the index only ever rules out gems which can't match, and the candidates 
+ * it returns must still be matched against the type being searched for.
+ * <p>
+ * The index for a module is built the first time it is searched, and discarded when the module is
+ * recompiled or removed from the workspace.
+ * 
+ * @see BasicCALServices#findGemsOfType(ModuleName, String, boolean)
+ * @see BasicCALServices#findGemsByReturnType(ModuleName, String, boolean)
+ */
+final class GemTypeIndex {
+
+    /** Map from module name to the index for the module, in the order in which the modules were added. */
+    private final Map<ModuleName, ModuleIndex> moduleNameToIndexMap = new LinkedHashMap<ModuleName, ModuleIndex>();
+    
+    /**
+     * The shape of a type.
+     */
+    private static final class TypeShape {
+        
+        /** The root type constructors of the argument types.  An element is null if it is unknown. */
+        private final QualifiedName[] argumentRoots;
+        
+        /** The root type constructor of the result type, or null if it is unknown. */
+        private final QualifiedName resultRoot;
+        
+        TypeShape(TypeExpr typeExpr) {
+            TypeExpr[] typePieces = typeExpr.getTypePieces();
+            int arity = typePieces.length - 1;
+            
+            argumentRoots = new QualifiedName[arity];
+            for (int i = 0; i < arity; i++) {
+                argumentRoots[i] = getRootTypeConsName(typePieces[i]);
+            }
+            resultRoot = getResultRootTypeConsName(typePieces[arity]);
+        }
+        
+        /**
+         * @return the number of arguments of the type.
+         */
+        int getArity() {
+            return argumentRoots.length;
+        }
+        
+        /**
+         * @param otherShape the shape of another type.
+         * @return false if the types with the two shapes definitely can't match, true if they might.
+         */
+        boolean isCompatibleWith(TypeShape otherShape) {
+            
+            int arity = getArity();
+            int otherArity = otherShape.getArity();
+            
+            for (int i = 0, n = Math.min(arity, otherArity); i < n; i++) {
+                if (!isCompatible(argumentRoots[i], otherShape.argumentRoots[i])) {
+                    return false;
+                }
+            }
+            
+            if (arity == otherArity) {
+                return isCompatible(resultRoot, otherShape.resultRoot);
+            }
+            
+            // The result type of the type with fewer arguments has to match a function type, which
+            // a type with a known root type constructor (other than Function) can't.
+            if (arity < otherArity) {
+                return resultRoot == null;
+            } else {
+                return otherShape.resultRoot == null;
+            }
+        }
+        
+        private static boolean isCompatible(QualifiedName root, QualifiedName otherRoot) {
+            return root == null || otherRoot == null || root.equals(otherRoot);
+        }
+    }
+
+    /**
+     * An indexed gem.
+     */
+    private static final class Entry {
+        
+        /** The position of the gem in its module's index, used to preserve the module's gem order. */
+        final int position;
+        final GemEntity gemEntity;
+        final TypeShape typeShape;
+        
+        Entry(int position, GemEntity gemEntity) {
+            this.position = position;
+            this.gemEntity = gemEntity;
+            this.typeShape = new TypeShape(gemEntity.getTypeExpr());
+        }
+    }
+    
+    /**
+     * The index of the public gems in a module.
+     */
+    private static final class ModuleIndex {
+        
+        /** The module being indexed. */
+        private final MetaModule metaModule;
+        
+        /** The number of gem entities in the module when it was indexed, or -1 if it hasn't been indexed yet. */
+        private int nIndexedGemEntities = -1;
+        
+        /** The entries for the public gems in the module, in the module's gem order. */
+        private final List<Entry> entries = new ArrayList<Entry>();
+        
+        /** Map from result root type constructor to the entries whose result types have that root, in the module's gem order. */
+        private final Map<QualifiedName, List<Entry>> resultRootToEntriesMap = new HashMap<QualifiedName, List<Entry>>();
+        
+        /** The entries whose result root type constructor is unknown, in the module's gem order. */
+        private final List<Entry> unknownResultRootEntries = new ArrayList<Entry>();
+        
+        ModuleIndex(MetaModule metaModule) {
+            this.metaModule = metaModule;
+        }
+        
+        /**
+         * Index the module's gems if this hasn't been done yet.
+         * The index is also rebuilt if gems have since been added to the module.
+         */
+        private void ensureIndexed() {
+            int nGemEntities = metaModule.getNGemEntities();
+            if (nIndexedGemEntities == nGemEntities) {
+                return;
+            }
+            
+            entries.clear();
+            resultRootToEntriesMap.clear();
+            unknownResultRootEntries.clear();
+            
+            for (int i = 0; i < nGemEntities; i++) {
+                GemEntity gemEntity = metaModule.getNthGemEntity(i);
+                if (gemEntity.getScope() != Scope.PUBLIC) {
+                    continue;
+                }
+                
+                Entry entry = new Entry(entries.size(), gemEntity);
+                entries.add(entry);
+                
+                QualifiedName resultRoot = entry.typeShape.resultRoot;
+                if (resultRoot == null) {
+                    unknownResultRootEntries.add(entry);
+                } else {
+                    List<Entry> resultRootEntries = resultRootToEntriesMap.get(resultRoot);
+                    if (resultRootEntries == null) {
+                        resultRootEntries = new ArrayList<Entry>();
+                        resultRootToEntriesMap.put(resultRoot, resultRootEntries);
+                    }
+                    resultRootEntries.add(entry);
+                }
+            }
+            
+            nIndexedGemEntities = nGemEntities;
+        }
+        
+        /**
+         * @param resultRoot the root type constructor of a result type, or null if it is unknown.
+         * @return the entries whose result types might match a result type with the given root, in the module's gem order.
+         */
+        List<Entry> getEntriesWithResultRoot(QualifiedName resultRoot) {
+            ensureIndexed();
+            
+            if (resultRoot == null) {
+                return entries;
+            }
+            
+            List<Entry> resultRootEntries = resultRootToEntriesMap.get(resultRoot);
+            if (resultRootEntries == null) {
+                return unknownResultRootEntries;
+            }
+            if (unknownResultRootEntries.isEmpty()) {
+                return resultRootEntries;
+            }
+            
+            // Merge the two lists, keeping the module's gem order.
+            List<Entry> mergedEntries = new ArrayList<Entry>(resultRootEntries.size() + unknownResultRootEntries.size());
+            int i = 0;
+            int j = 0;
+            while (i < resultRootEntries.size() && j < unknownResultRootEntries.size()) {
+                if (resultRootEntries.get(i).position < unknownResultRootEntries.get(j).position) {
+                    mergedEntries.add(resultRootEntries.get(i++));
+                } else {
+                    mergedEntries.add(unknownResultRootEntries.get(j++));
+                }
+            }
+            mergedEntries.addAll(resultRootEntries.subList(i, resultRootEntries.size()));
+            mergedEntries.addAll(unknownResultRootEntries.subList(j, unknownResultRootEntries.size()));
+            return mergedEntries;
+        }
+    }
+    
+    /**
+     * Add a module to the index, replacing any previous version of the module.
+     * The module's gems are indexed the first time the module is searched.
+     * @param metaModule the module to add.
+     */
+    synchronized void addModule(MetaModule metaModule) {
+        // Remove first, so that the order of the modules is the order in which they were (last) added.
+        moduleNameToIndexMap.remove(metaModule.getName());
+        moduleNameToIndexMap.put(metaModule.getName(), new ModuleIndex(metaModule));
+    }
+    
+    /**
+     * Remove a module from the index.
+     * @param moduleName the name of the module to remove.
+     */
+    synchronized void removeModule(ModuleName moduleName) {
+        moduleNameToIndexMap.remove(moduleName);
+    }
+    
+    /**
+     * Get the public gems whose types might match the given type.
+     * @param typeExpr the type to match.
+     * @return the candidate gems, in module order.
+     */
+    synchronized List<GemEntity> getCandidateGemsOfType(TypeExpr typeExpr) {
+        TypeShape typeShape = new TypeShape(typeExpr);
+        
+        List<GemEntity> candidates = new ArrayList<GemEntity>();
+        for (final ModuleIndex moduleIndex : moduleNameToIndexMap.values()) {
+            for (final Entry entry : moduleIndex.getEntriesWithResultRoot(typeShape.resultRoot)) {
+                if (entry.typeShape.isCompatibleWith(typeShape)) {
+                    candidates.add(entry.gemEntity);
+                }
+            }
+        }
+        return candidates;
+    }
+    
+    /**
+     * Get the public gems whose result types might match the given type.
+     * @param returnTypeExpr the result type to match.
+     * @return the candidate gems, in module order.
+     */
+    synchronized List<GemEntity> getCandidateGemsByReturnType(TypeExpr returnTypeExpr) {
+        QualifiedName resultRoot = getResultRootTypeConsName(returnTypeExpr);
+        
+        List<GemEntity> candidates = new ArrayList<GemEntity>();
+        for (final ModuleIndex moduleIndex : moduleNameToIndexMap.values()) {
+            for (final Entry entry : moduleIndex.getEntriesWithResultRoot(resultRoot)) {
+                candidates.add(entry.gemEntity);
+            }
+        }
+        return candidates;
+    }
+    
+    /**
+     * @param typeExpr a type.
+     * @return the name of the type constructor at the root of the type, or null if the root is not a type constructor application.
+     */
+    private static QualifiedName getRootTypeConsName(TypeExpr typeExpr) {
+        TypeConsApp typeConsApp = typeExpr.rootTypeConsApp();
+        return typeConsApp == null ? null : typeConsApp.getName();
+    }
+    
+    /**
+     * @param typeExpr a result type.
+     * @return the name of the type constructor at the root of the type, or null if it is unknown.
+     *   A partially applied Function type constructor is treated as unknown, since it may be part of a function type.
+     */
+    private static QualifiedName getResultRootTypeConsName(TypeExpr typeExpr) {
+        QualifiedName rootTypeConsName = getRootTypeConsName(typeExpr);
+        if (CAL_Prelude.TypeConstructors.Function.equals(rootTypeConsName)) {
+            return null;
+        }
+        return rootTypeConsName;
+    }
+}
@@ -37,6 +37,7 @@
  */
 package org.openquark.cal.services;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
@@ -397,6 +398,15 @@ public class ProgramModelManager {
     public void resetMachineState(ModuleName moduleName, ExecutionContext context) {
         programManager.resetMachineState(moduleName, context);
     }
+    
+    /**
+     * Prepare the machine for running the given entry points, by generating and loading ahead of time the code
+     * which would otherwise be generated and loaded on demand when they are first run.
+     * @param entryPointNames the names of the functions and data constructors which are to be run.
+     */
+    public void preloadEntryPoints(Collection<QualifiedName> entryPointNames) {
+        programManager.preloadEntryPoints(entryPointNames);
+    }
 
     /**
      * Remove a module from the program.
@@ -56,6 +56,7 @@ import org.openquark.cal.compiler.LocalNameRenamer_Test;
 import org.openquark.cal.compiler.LocalPatternMatch_Test;
 import org.openquark.cal.compiler.MessageKind_Test;
 import org.openquark.cal.compiler.ModuleNameResolver_Test;
+import org.openquark.cal.compiler.ModuleParseScheduler_Test;
 import org.openquark.cal.compiler.Optimizer_Test;
 import org.openquark.cal.compiler.SourceMetricFinder_Test;
 import org.openquark.cal.compiler.SourceModelCodeFormatter_Test;
@@ -65,11 +66,18 @@ import org.openquark.cal.compiler.StringEncoder_Test;
 import org.openquark.cal.compiler.TypeDeclarationInserter_Test;
 import org.openquark.cal.compiler.TypeExpr_Test;
 import org.openquark.cal.compiler.TypeVariableRenamer_Test;
+import org.openquark.cal.internal.machine.lecc.BytecodeCache_Test;
 import org.openquark.cal.internal.machine.lecc.CALClassLoader_Test;
 import org.openquark.cal.internal.machine.lecc.RTSupercombinator_Test;
 import org.openquark.cal.internal.machine.lecc.functions.RuntimeStringConstantsTest;
+import org.openquark.cal.internal.runtime.lecc.RTRecordFieldSelector_Test;
+import org.openquark.cal.internal.runtime.lecc.RTRecordShape_Test;
+import org.openquark.cal.internal.runtime.lecc.RTResultFunction_Test;
+import org.openquark.cal.internal.runtime.lecc.RTSparkPool_Test;
+import org.openquark.cal.internal.serialization.RecordInputStream_Test;
 import org.openquark.cal.machine.ExecutionContextProperties_Test;
 import org.openquark.cal.machine.ExecutionContext_Test;
+import org.openquark.cal.machine.ModuleInterfaceHash_Test;
 import org.openquark.cal.services.BasicCALServices_Test;
 import org.openquark.cal.services.CALServicesTestUtilities;
 import org.openquark.cal.services.EntryPointCache_Test;
@@ -150,14 +158,22 @@ public class CALPlatformBasicTestSuite extends TestSuite {
         
         // machine package
         suite.addTest(CALClassLoader_Test.suite());
+        suite.addTest(BytecodeCache_Test.suite());
         suite.addTest(ExecutionContextProperties_Test.suite());
         suite.addTest(ExecutionContext_Test.suite());
+        suite.addTest(ModuleInterfaceHash_Test.suite());
         suite.addTest(RTSupercombinator_Test.suite());
         suite.addTestSuite(RuntimeStringConstantsTest.class);
+        suite.addTestSuite(RTResultFunction_Test.class);
+        suite.addTestSuite(RTSparkPool_Test.class);
+        suite.addTestSuite(RTRecordFieldSelector_Test.class);
+        suite.addTest(RTRecordShape_Test.suite());
+        suite.addTestSuite(RecordInputStream_Test.class);
         
         // compiler package
         suite.addTest(CALCompiler_Test.suite());
         suite.addTest(ModuleNameResolver_Test.suite());
+        suite.addTest(ModuleParseScheduler_Test.suite());
         suite.addTest(Deprecation_Test.suite());
         suite.addTest(LocalPatternMatch_Test.suite());
         suite.addTest(CALTypeChecker_Test.suite());
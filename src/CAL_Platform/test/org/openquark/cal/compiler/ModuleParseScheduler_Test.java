@@ -0,0 +1,307 @@
+/*
+ * Copyright (c) 2007 BUSINESS OBJECTS SOFTWARE LIMITED
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *  
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *  
+ *     * Neither the name of Business Objects nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+/*
+ * ModuleParseScheduler_Test.java
+ * Creation date: Oct 18, 2026
+ */
+package org.openquark.cal.compiler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.extensions.TestSetup;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.openquark.cal.compiler.CompilerMessage.Severity;
+import org.openquark.cal.machine.Module;
+import org.openquark.cal.runtime.MachineType;
+import org.openquark.cal.services.BasicCALServices;
+import org.openquark.cal.services.CALServicesTestUtilities;
+import org.openquark.cal.services.Status;
+import org.openquark.cal.services.StringModuleSourceDefinition;
+import org.openquark.cal.services.WorkspaceManager;
+
+
+/**
+ * A set of JUnit test cases for the ModuleParseScheduler, which parses modules on separate threads
+ * ahead of the compiler.  A compilation in which the modules are parsed ahead must give the same results
+ * as one in which the compiler parses each module itself.
+ */
+public class ModuleParseScheduler_Test extends TestCase {
+
+    /** The name of the module imported by the other test modules. */
+    private static final ModuleName BASE_MODULE_NAME = ModuleName.make("TEST_ParseSchedulerBase");
+    
+    /** The name of a module importing the base module. */
+    private static final ModuleName FIRST_MODULE_NAME = ModuleName.make("TEST_ParseSchedulerFirst");
+    
+    /** The name of another module importing the base module. */
+    private static final ModuleName SECOND_MODULE_NAME = ModuleName.make("TEST_ParseSchedulerSecond");
+    
+    /** The name of a module importing both of the modules which import the base module. */
+    private static final ModuleName COMBINED_MODULE_NAME = ModuleName.make("TEST_ParseSchedulerCombined");
+    
+    /** The name of a module with a syntax error in its body. */
+    private static final ModuleName BROKEN_MODULE_NAME = ModuleName.make("TEST_ParseSchedulerBroken");
+    
+    /** The name of a module importing the module with the syntax error. */
+    private static final ModuleName BROKEN_DEPENDENT_MODULE_NAME = ModuleName.make("TEST_ParseSchedulerBrokenDependent");
+    
+    /** The names of all the test modules, in an order in which they can be removed. */
+    private static final ModuleName[] MODULE_NAMES = {
+        BROKEN_DEPENDENT_MODULE_NAME, BROKEN_MODULE_NAME, COMBINED_MODULE_NAME, SECOND_MODULE_NAME, FIRST_MODULE_NAME, BASE_MODULE_NAME
+    };
+    
+    /** The number of parse threads used for the compilation which parses modules ahead. */
+    private static final int N_PARSE_THREADS = 3;
+    
+    /**
+     * A copy of CAL services for use in the test cases.
+     */
+    private static BasicCALServices leccCALServices;
+
+    /**
+     * @return a test suite containing all the test cases for this test suite.
+     */
+    public static Test suite() {
+
+        TestSuite suite = new TestSuite(ModuleParseScheduler_Test.class);
+
+        return new TestSetup(suite) {
+
+            @Override
+            protected void setUp() {
+                oneTimeSetUp();
+                
+            }
+    
+            @Override
+            protected void tearDown() {
+                oneTimeTearDown();
+            }
+        };
+    }
+    
+    /**
+     * Performs the setup for the test suite.
+     */
+    private static void oneTimeSetUp() {
+        leccCALServices = CALServicesTestUtilities.getCommonCALServices(MachineType.LECC, "cal.platform.test.cws");
+    }
+    
+    /**
+     * Performs the tear down for the test suite.
+     */
+    private static void oneTimeTearDown() {
+        leccCALServices = null;
+    }
+    
+    /**
+     * Constructor for ModuleParseScheduler_Test.
+     * 
+     * @param name the name of the test
+     */
+    public ModuleParseScheduler_Test(String name) {
+        super(name);
+    }
+    
+    /**
+     * Tests that compiling a set of modules with the modules parsed ahead on separate threads gives the same
+     * severity, compiler messages and module type info as compiling them with the compiler parsing each module itself,
+     * where one of the modules has a parse error.
+     */
+    public void testParallelParseMatchesSequentialParse() {
+        
+        String sequentialResult = compileModules(0);
+        
+        int nParsedModulesTakenBefore = ModuleParseScheduler.getNParsedModulesTaken();
+        String parallelResult = compileModules(N_PARSE_THREADS);
+        
+        // All the modules but the dependent of the broken module, which is skipped, are parsed ahead.
+        assertTrue(ModuleParseScheduler.getNParsedModulesTaken() > nParsedModulesTakenBefore);
+        
+        assertEquals(sequentialResult, parallelResult);
+    }
+    
+    /**
+     * Compiles the test modules with the given number of parse threads.
+     * The test modules are removed from the workspace afterwards.
+     * @param nParseThreads the number of threads to parse modules ahead of the compiler. If 0 the compiler parses each module itself.
+     * @return a description of the result of the compilation: its severity, the messages logged, and the type info of each module
+     * which compiled.
+     */
+    private static String compileModules(int nParseThreads) {
+        
+        String baseModuleText =
+            "module " + BASE_MODULE_NAME + ";\n" +
+            "import Cal.Core.Prelude using typeConstructor = Int, String; typeClass = Eq; function = intToString; ;\n" +
+            "data public Shape = public Circle radius :: !Int | public Square side :: !Int deriving Eq;\n" +
+            "public class Sized a where\n" +
+            "    public size :: a -> Int;\n" +
+            "    ;\n" +
+            "instance Sized Shape where\n" +
+            "    size = shapeSize;\n" +
+            "    ;\n" +
+            "shapeSize :: Shape -> Int;\n" +
+            "shapeSize !shape = case shape of Circle r -> 3 * r * r; Square s -> s * s;;\n" +
+            "describe :: Sized a => a -> String;\n" +
+            "public describe x = intToString (size x);\n";
+        
+        String firstModuleText =
+            "module " + FIRST_MODULE_NAME + ";\n" +
+            "import Cal.Core.Prelude;\n" +
+            "import " + BASE_MODULE_NAME + ";\n" +
+            "public unitCircle = " + BASE_MODULE_NAME + ".Circle 1;\n" +
+            "public twice f x = f (f x);\n";
+        
+        String secondModuleText =
+            "module " + SECOND_MODULE_NAME + ";\n" +
+            "import Cal.Core.Prelude;\n" +
+            "import " + BASE_MODULE_NAME + ";\n" +
+            "public squares = [" + BASE_MODULE_NAME + ".Square 1, " + BASE_MODULE_NAME + ".Square 2];\n" +
+            "unusedLocal x = let y = x; in 1 :: Prelude.Int;\n";
+        
+        String combinedModuleText =
+            "module " + COMBINED_MODULE_NAME + ";\n" +
+            "import Cal.Core.Prelude;\n" +
+            "import " + BASE_MODULE_NAME + ";\n" +
+            "import " + FIRST_MODULE_NAME + ";\n" +
+            "import " + SECOND_MODULE_NAME + ";\n" +
+            "public descriptions = (" + BASE_MODULE_NAME + ".describe " + FIRST_MODULE_NAME + ".unitCircle, " + SECOND_MODULE_NAME + ".squares);\n";
+        
+        String brokenModuleText =
+            "module " + BROKEN_MODULE_NAME + ";\n" +
+            "import Cal.Core.Prelude;\n" +
+            "import " + BASE_MODULE_NAME + ";\n" +
+            "public broken x = (x + ;\n";
+        
+        String brokenDependentModuleText =
+            "module " + BROKEN_DEPENDENT_MODULE_NAME + ";\n" +
+            "import Cal.Core.Prelude;\n" +
+            "import " + BROKEN_MODULE_NAME + ";\n" +
+            "public alsoBroken = " + BROKEN_MODULE_NAME + ".broken;\n";
+        
+        ModuleSourceDefinition[] moduleSourceDefns = {
+            new StringModuleSourceDefinition(BASE_MODULE_NAME, baseModuleText),
+            new StringModuleSourceDefinition(FIRST_MODULE_NAME, firstModuleText),
+            new StringModuleSourceDefinition(SECOND_MODULE_NAME, secondModuleText),
+            new StringModuleSourceDefinition(COMBINED_MODULE_NAME, combinedModuleText),
+            new StringModuleSourceDefinition(BROKEN_MODULE_NAME, brokenModuleText),
+            new StringModuleSourceDefinition(BROKEN_DEPENDENT_MODULE_NAME, brokenDependentModuleText)
+        };
+        
+        ModuleName[] moduleNamesToCompile = {
+            BASE_MODULE_NAME, FIRST_MODULE_NAME, SECOND_MODULE_NAME, COMBINED_MODULE_NAME, BROKEN_MODULE_NAME, BROKEN_DEPENDENT_MODULE_NAME
+        };
+        
+        WorkspaceManager workspaceManager = leccCALServices.getWorkspaceManager();
+        String oldParseThreads = System.getProperty(ModuleParseScheduler.PARSE_THREADS_PROP);
+        System.setProperty(ModuleParseScheduler.PARSE_THREADS_PROP, String.valueOf(nParseThreads));
+        try {
+            CompilerMessageLogger logger = new MessageLogger();
+            Severity severity = workspaceManager.makeModules(moduleNamesToCompile, new ModuleSourceDefinitionGroup(moduleSourceDefns), logger);
+            
+            // The syntax error must have been reported, and the modules which don't depend on the broken module compiled.
+            assertEquals(Severity.ERROR, severity);
+            assertNotNull(workspaceManager.getModule(COMBINED_MODULE_NAME));
+            
+            StringBuilder result = new StringBuilder();
+            result.append("severity: ").append(severity).append('\n');
+            
+            List<String> messages = new ArrayList<String>();
+            for (final CompilerMessage message : logger.getCompilerMessages()) {
+                messages.add(message.toString());
+            }
+            result.append("messages: ").append(messages).append('\n');
+            
+            for (final ModuleName moduleName : moduleNamesToCompile) {
+                Module module = workspaceManager.getModule(moduleName);
+                result.append(describeModuleTypeInfo(moduleName, module == null ? null : module.getModuleTypeInfo()));
+            }
+            
+            return result.toString();
+            
+        } finally {
+            if (oldParseThreads == null) {
+                System.clearProperty(ModuleParseScheduler.PARSE_THREADS_PROP);
+            } else {
+                System.setProperty(ModuleParseScheduler.PARSE_THREADS_PROP, oldParseThreads);
+            }
+            
+            Status status = new Status("Removal of test modules");
+            for (final ModuleName moduleName : MODULE_NAMES) {
+                workspaceManager.removeModule(moduleName, status);
+            }
+        }
+    }
+    
+    /**
+     * @param moduleName the name of a module.
+     * @param moduleTypeInfo the type info for the module. May be null if the module did not compile.
+     * @return a description of the imports, type constructors, type classes, class instances and functions of the module.
+     */
+    private static String describeModuleTypeInfo(ModuleName moduleName, ModuleTypeInfo moduleTypeInfo) {
+        
+        StringBuilder result = new StringBuilder();
+        result.append("module ").append(moduleName).append('\n');
+        
+        if (moduleTypeInfo == null) {
+            result.append("not compiled\n");
+            return result.toString();
+        }
+        
+        for (int i = 0, n = moduleTypeInfo.getNImportedModules(); i < n; ++i) {
+            result.append("import ").append(moduleTypeInfo.getNthImportedModule(i).getModuleName()).append('\n');
+        }
+        
+        for (int i = 0, n = moduleTypeInfo.getNTypeConstructors(); i < n; ++i) {
+            result.append(moduleTypeInfo.getNthTypeConstructor(i)).append('\n');
+        }
+        
+        for (int i = 0, n = moduleTypeInfo.getNTypeClasses(); i < n; ++i) {
+            result.append(moduleTypeInfo.getNthTypeClass(i)).append('\n');
+        }
+        
+        for (int i = 0, n = moduleTypeInfo.getNClassInstances(); i < n; ++i) {
+            result.append(moduleTypeInfo.getNthClassInstance(i)).append('\n');
+        }
+        
+        for (int i = 0, n = moduleTypeInfo.getNFunctions(); i < n; ++i) {
+            result.append(moduleTypeInfo.getNthFunction(i)).append('\n');
+        }
+        
+        return result.toString();
+    }
+}
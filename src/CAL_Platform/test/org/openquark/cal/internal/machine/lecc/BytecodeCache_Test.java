@@ -0,0 +1,279 @@
+/*
+ * Copyright (c) 2007 BUSINESS OBJECTS SOFTWARE LIMITED
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *  
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *  
+ *     * Neither the name of Business Objects nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+/*
+ * BytecodeCache_Test.java
+ * Created: Oct 18, 2026
+ */
+
+package org.openquark.cal.internal.machine.lecc;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import junit.extensions.TestSetup;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.openquark.cal.CALPlatformTestModuleNames;
+import org.openquark.cal.compiler.CompilerMessageLogger;
+import org.openquark.cal.compiler.MessageLogger;
+import org.openquark.cal.compiler.ModuleName;
+import org.openquark.cal.compiler.ModuleSourceDefinition;
+import org.openquark.cal.compiler.ModuleSourceDefinitionGroup;
+import org.openquark.cal.compiler.QualifiedName;
+import org.openquark.cal.compiler.CompilerMessage.Severity;
+import org.openquark.cal.runtime.MachineType;
+import org.openquark.cal.services.BasicCALServices;
+import org.openquark.cal.services.CALServicesTestUtilities;
+import org.openquark.cal.services.Status;
+import org.openquark.cal.services.StringModuleSourceDefinition;
+import org.openquark.cal.services.WorkspaceManager;
+
+
+/**
+ * A set of JUnit test cases that tests the behaviour of the BytecodeCache class.
+ */
+public class BytecodeCache_Test extends TestCase {
+
+    /** The name of a module imported by the dependent module. */
+    private static final ModuleName IMPORTED_MODULE_NAME = ModuleName.make("TEST_BytecodeCacheImported");
+    
+    /** The name of a module which calls a function in the imported module. */
+    private static final ModuleName DEPENDENT_MODULE_NAME = ModuleName.make("TEST_BytecodeCacheDependent");
+    
+    /** A definition of sumTo. */
+    private static final String SUM_TO =
+        "public sumTo !n !acc = if n <= 0 then acc else sumTo (n - 1) (acc + n);";
+    
+    /** A different definition of sumTo, with the same interface. */
+    private static final String OTHER_SUM_TO =
+        "public sumTo !n !acc = if n < 1 then acc else sumTo (n - 1) (n + acc);";
+
+    /**
+     * A copy of CAL services for use in the test cases.
+     */
+    private static BasicCALServices leccCALServices;
+
+    /**
+     * @return a test suite containing all the test cases for this test suite.
+     */
+    public static Test suite() {
+
+        TestSuite suite = new TestSuite(BytecodeCache_Test.class);
+
+        return new TestSetup(suite) {
+
+            @Override
+            protected void setUp() {
+                oneTimeSetUp();
+                
+            }
+    
+            @Override
+            protected void tearDown() {
+                oneTimeTearDown();
+            }
+        };
+    }
+    
+    /**
+     * Performs the setup for the test suite.
+     */
+    private static void oneTimeSetUp() {
+        leccCALServices = CALServicesTestUtilities.getCommonCALServices(MachineType.LECC, "cal.platform.test.cws");
+    }
+    
+    /**
+     * Performs the tear down for the test suite.
+     */
+    private static void oneTimeTearDown() {
+        leccCALServices = null;
+    }
+    
+    /**
+     * Constructor for BytecodeCache_Test.
+     * 
+     * @param name the name of the test
+     */
+    public BytecodeCache_Test(String name) {
+        super(name);
+    }
+    
+    /**
+     * Tests that the key for a module is the same each time it is computed, and differs between modules.
+     */
+    public void testModuleKey() {
+        LECCModule m1 = getModule(CALPlatformTestModuleNames.M1);
+        LECCModule m2 = getModule(CALPlatformTestModuleNames.M2);
+        
+        String m1Key = BytecodeCache.computeModuleKey(m1);
+        assertNotNull(m1Key);
+        assertEquals(40, m1Key.length());
+        assertEquals(m1Key, BytecodeCache.computeModuleKey(m1));
+        
+        assertFalse(m1Key.equals(BytecodeCache.computeModuleKey(m2)));
+    }
+    
+    /**
+     * Tests that a change to the body of a function in an imported module changes the key of a dependent module,
+     * even though neither the interface of the imported module nor the definition of the dependent module changes.
+     */
+    public void testModuleKeyDependsOnImports() {
+        try {
+            compileModules(SUM_TO);
+            long importedInterfaceHash = getModule(IMPORTED_MODULE_NAME).getInterfaceHash();
+            String importedKey = BytecodeCache.computeModuleKey(getModule(IMPORTED_MODULE_NAME));
+            String dependentKey = BytecodeCache.computeModuleKey(getModule(DEPENDENT_MODULE_NAME));
+            assertNotNull(dependentKey);
+            
+            compileModules(OTHER_SUM_TO);
+            assertEquals(importedInterfaceHash, getModule(IMPORTED_MODULE_NAME).getInterfaceHash());
+            assertFalse(importedKey.equals(BytecodeCache.computeModuleKey(getModule(IMPORTED_MODULE_NAME))));
+            assertFalse(dependentKey.equals(BytecodeCache.computeModuleKey(getModule(DEPENDENT_MODULE_NAME))));
+            
+            // Compiling the original definitions again gives the original keys.
+            compileModules(SUM_TO);
+            assertEquals(importedKey, BytecodeCache.computeModuleKey(getModule(IMPORTED_MODULE_NAME)));
+            assertEquals(dependentKey, BytecodeCache.computeModuleKey(getModule(DEPENDENT_MODULE_NAME)));
+            
+        } finally {
+            Status status = new Status("Removal of test modules");
+            WorkspaceManager workspaceManager = leccCALServices.getWorkspaceManager();
+            workspaceManager.removeModule(DEPENDENT_MODULE_NAME, status);
+            workspaceManager.removeModule(IMPORTED_MODULE_NAME, status);
+        }
+    }
+    
+    /**
+     * Tests that the bytecode generated for a class can be stored in and looked up from the cache, 
+     * and that classes which have not been stored are not found.
+     */
+    public void testStoreAndLookup() throws Exception {
+        LECCModule module = getModule(CALPlatformTestModuleNames.M1);
+        String moduleKey = BytecodeCache.computeModuleKey(module);
+        
+        String className = CALToJavaNames.createFullClassNameFromSC(QualifiedName.make(CALPlatformTestModuleNames.M1, "callNot"), module);
+        String unqualifiedClassName = className.substring(className.lastIndexOf('.') + 1);
+        byte[] bytecode = LECCJavaBytecodeGenerator.generateClassData(module, unqualifiedClassName);
+        assertNotNull(bytecode);
+        
+        File cacheDirectory = makeTempDirectory();
+        try {
+            BytecodeCache cache = new BytecodeCache(cacheDirectory);
+            assertNull(cache.lookup(moduleKey, unqualifiedClassName));
+            
+            cache.store(moduleKey, unqualifiedClassName, bytecode);
+            assertTrue(Arrays.equals(bytecode, cache.lookup(moduleKey, unqualifiedClassName)));
+            
+            // Another instance on the same directory (e.g. in another process) sees the same class.
+            assertTrue(Arrays.equals(bytecode, new BytecodeCache(cacheDirectory).lookup(moduleKey, unqualifiedClassName)));
+            
+            // The class is not found under another name or another module key.
+            assertNull(cache.lookup(moduleKey, unqualifiedClassName + "_"));
+            assertNull(cache.lookup(BytecodeCache.computeModuleKey(getModule(CALPlatformTestModuleNames.M2)), unqualifiedClassName));
+            
+            // Only the class file is left behind in the module directory.
+            File moduleDirectory = new File(new File(cacheDirectory, moduleKey.substring(0, 2)), moduleKey);
+            assertEquals(1, moduleDirectory.listFiles().length);
+            
+        } finally {
+            deleteRecursively(cacheDirectory);
+        }
+    }
+    
+    /**
+     * Compile the imported module with the given definition of sumTo, together with the dependent module.
+     * @param sumToDefinition the definition of sumTo.
+     */
+    private static void compileModules(String sumToDefinition) {
+        String importedModuleText =
+            "module " + IMPORTED_MODULE_NAME + ";\n" +
+            "import Cal.Core.Prelude using typeConstructor = Int; ;\n" +
+            "sumTo :: Int -> Int -> Int;\n" +
+            sumToDefinition + "\n";
+        
+        String dependentModuleText =
+            "module " + DEPENDENT_MODULE_NAME + ";\n" +
+            "import Cal.Core.Prelude using typeConstructor = Int; ;\n" +
+            "import " + IMPORTED_MODULE_NAME + ";\n" +
+            "total :: Int;\n" +
+            "public total = " + IMPORTED_MODULE_NAME + ".sumTo 100 0;\n";
+        
+        ModuleSourceDefinition[] moduleSourceDefns = {
+            new StringModuleSourceDefinition(IMPORTED_MODULE_NAME, importedModuleText),
+            new StringModuleSourceDefinition(DEPENDENT_MODULE_NAME, dependentModuleText)
+        };
+        
+        WorkspaceManager workspaceManager = leccCALServices.getWorkspaceManager();
+        CompilerMessageLogger logger = new MessageLogger();
+        Severity severity = workspaceManager.makeModules(
+            new ModuleName[] { IMPORTED_MODULE_NAME, DEPENDENT_MODULE_NAME }, new ModuleSourceDefinitionGroup(moduleSourceDefns), logger);
+        assertTrue(logger.getCompilerMessages().toString(), severity.compareTo(Severity.ERROR) < 0);
+    }
+    
+    /**
+     * @param moduleName the name of a module in the test workspace.
+     * @return the module.
+     */
+    private static LECCModule getModule(ModuleName moduleName) {
+        return (LECCModule)leccCALServices.getWorkspaceManager().getModule(moduleName);
+    }
+    
+    /**
+     * @return a new empty temporary directory.
+     * @throws IOException
+     */
+    private static File makeTempDirectory() throws IOException {
+        File directory = File.createTempFile("BytecodeCache_Test", "");
+        if (!directory.delete() || !directory.mkdir()) {
+            throw new IOException("Unable to create temporary directory " + directory);
+        }
+        return directory;
+    }
+    
+    /**
+     * Delete a file, and if it is a directory, its contents.
+     * @param file the file to delete.
+     */
+    private static void deleteRecursively(File file) {
+        File[] members = file.listFiles();
+        if (members != null) {
+            for (final File member : members) {
+                deleteRecursively(member);
+            }
+        }
+        file.delete();
+    }
+}
@@ -38,6 +38,8 @@
 package org.openquark.cal.internal.machine.lecc;
 
 
+import java.util.Collections;
+
 import junit.extensions.TestSetup;
 import junit.framework.Test;
 import junit.framework.TestCase;
@@ -56,6 +58,7 @@ import org.openquark.cal.compiler.io.EntryPointSpec;
 import org.openquark.cal.compiler.io.InputPolicy;
 import org.openquark.cal.compiler.io.OutputPolicy;
 import org.openquark.cal.module.Cal.Core.CAL_Prelude;
+import org.openquark.cal.runtime.ExecutionContext;
 import org.openquark.cal.runtime.MachineType;
 import org.openquark.cal.services.BasicCALServices;
 import org.openquark.cal.services.CALServicesTestUtilities;
@@ -197,6 +200,82 @@ public class CALClassLoader_Test extends TestCase {
 
     }
     
+    /**
+     * Tests that preloading an entry point defines the classes for the entry point and the functions it depends on,
+     * so that loading them afterwards doesn't define any more classes.
+     */
+    public void testPreloadEntryPoints() {
+        
+        ModuleName moduleName = CALPlatformTestModuleNames.M1;
+        QualifiedName entryPointName = QualifiedName.make(moduleName, "sumNPrimes");
+        QualifiedName dependeeFunctionName = QualifiedName.make(moduleName, "sieve");
+        
+        WorkspaceManager workspaceManager = leccCALServices.getWorkspaceManager();
+        
+        // Discard any classes already loaded for the module.
+        ExecutionContext executionContext = workspaceManager.makeExecutionContextWithDefaultProperties();
+        workspaceManager.resetMachineState(moduleName, executionContext);
+        
+        LECCModule module = (LECCModule)workspaceManager.getModuleTypeInfo(moduleName).getModule();
+        assertEquals(0, module.getNClassesLoaded(false));
+        
+        workspaceManager.preloadEntryPoints(Collections.singleton(entryPointName));
+        
+        int nClassesPreloaded = module.getNClassesLoaded(false);
+        assertTrue(nClassesPreloaded > 1);
+        
+        CALClassLoader adjunctModuleClassLoader = module.getClassLoader();
+        Class<?> entryPointClass = getClassForFunction(entryPointName, adjunctModuleClassLoader, module);
+        Class<?> dependeeFunctionClass = getClassForFunction(dependeeFunctionName, adjunctModuleClassLoader, module);
+        
+        assertSame(adjunctModuleClassLoader.getParent(), entryPointClass.getClassLoader());
+        assertSame(adjunctModuleClassLoader.getParent(), dependeeFunctionClass.getClassLoader());
+        assertEquals(nClassesPreloaded, module.getNClassesLoaded(false));
+    }
+    
+    /**
+     * Tests that a class requested by several threads at once is defined only once.
+     * @throws InterruptedException
+     */
+    public void testConcurrentLoadingOfSameClass() throws InterruptedException {
+        
+        ModuleName moduleName = CALPlatformTestModuleNames.M1;
+        final QualifiedName functionName = QualifiedName.make(moduleName, "allPrimes");
+        
+        WorkspaceManager workspaceManager = leccCALServices.getWorkspaceManager();
+        
+        ExecutionContext executionContext = workspaceManager.makeExecutionContextWithDefaultProperties();
+        workspaceManager.resetMachineState(moduleName, executionContext);
+        
+        final LECCModule module = (LECCModule)workspaceManager.getModuleTypeInfo(moduleName).getModule();
+        final CALClassLoader adjunctModuleClassLoader = module.getClassLoader();
+        
+        final int nThreads = 4;
+        final Class<?>[] loadedClasses = new Class<?>[nThreads];
+        Thread[] threads = new Thread[nThreads];
+        for (int i = 0; i < nThreads; i++) {
+            final int threadIndex = i;
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    loadedClasses[threadIndex] = getClassForFunction(functionName, adjunctModuleClassLoader, module);
+                }
+            };
+        }
+        for (final Thread thread : threads) {
+            thread.start();
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        
+        assertNotNull(loadedClasses[0]);
+        for (int i = 1; i < nThreads; i++) {
+            assertSame(loadedClasses[0], loadedClasses[i]);
+        }
+        assertEquals(1, module.getNClassesLoaded(false));
+    }
+    
     /**
      * Check whether the given class loader is an adjunct classloader.
      * @param calClassLoader the classloader to check.
@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2007 BUSINESS OBJECTS SOFTWARE LIMITED
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *  
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *  
+ *     * Neither the name of Business Objects nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+/*
+ * RTRecordFieldSelector_Test.java
+ * Creation date: Oct 18, 2026
+ */
+package org.openquark.cal.internal.runtime.lecc;
+
+import junit.framework.TestCase;
+
+
+/**
+ * A set of JUnit test cases for the inline caching of textual field selections by RTRecordFieldSelector.
+ * <p>
+ * The records of each shape used by a test are derived from a single record using makeFromValues, so that they share
+ * a shape object whether or not the shape is interned.
+ */
+public class RTRecordFieldSelector_Test extends TestCase {
+
+    /**
+     * Constructor for RTRecordFieldSelector_Test.
+     * @param name the name of the test.
+     */
+    public RTRecordFieldSelector_Test(String name) {
+        super(name);
+    }
+    
+    /**
+     * Makes a textual record with fields named "field0", "field1", ... and the given values.
+     * @param prefixes names of additional fields, which are given the value -1. These come alphabetically before
+     *     the "field" fields, and so change the slots of the "field" fields.
+     * @param values the values of the "field" fields.
+     * @return the record.
+     */
+    private static RTRecordValue makeRecord(String[] prefixes, int[] values) {
+        int nPrefixes = prefixes.length;
+        String[] names = new String[nPrefixes + values.length];
+        RTValue[] fieldValues = new RTValue[names.length];
+        
+        for (int i = 0; i < nPrefixes; ++i) {
+            names[i] = prefixes[i];
+            fieldValues[i] = RTData.CAL_Int.make(-1);
+        }
+        for (int i = 0; i < values.length; ++i) {
+            names[nPrefixes + i] = "field" + i;
+            fieldValues[nPrefixes + i] = RTData.CAL_Int.make(values[i]);
+        }
+        
+        return RTRecordValue.makeTextualRecord(names, fieldValues);
+    }
+    
+    /**
+     * @return the int value of the given field selected from the given record by the given selector.
+     */
+    private static int selectInt(RTRecordFieldSelector selector, RTRecordValue recordValue) {
+        return ((RTData.CAL_Int)selector.select(recordValue)).getIntValue();
+    }
+    
+    /**
+     * Tests a call site which always selects from records of a single shape.
+     */
+    public void testMonomorphicSite() {
+        RTRecordFieldSelector selector = new RTRecordFieldSelector("field1");
+        RTRecordValue record = makeRecord(new String[0], new int[] {10, 11, 12});
+        
+        for (int i = 0; i < 100; ++i) {
+            RTRecordValue recordValue = record.makeFromValues(null, new RTValue[] {
+                RTData.CAL_Int.make(i), RTData.CAL_Int.make(i + 1000), RTData.CAL_Int.make(i + 2000)});
+            
+            assertEquals(i + 1000, selectInt(selector, recordValue));
+        }
+        
+        assertEquals(11, selectInt(selector, record));
+        assertFalse(selector.isMegamorphic());
+    }
+    
+    /**
+     * Tests a call site which alternates between records of a few shapes, in which the field is at different slots.
+     */
+    public void testPolymorphicSite() {
+        RTRecordFieldSelector selector = new RTRecordFieldSelector("field1");
+        RTRecordValue[] records = new RTRecordValue[] {
+            makeRecord(new String[0], new int[] {10, 11}),
+            makeRecord(new String[] {"a"}, new int[] {20, 21, 22}),
+            makeRecord(new String[] {"a", "b"}, new int[] {30, 31}),
+            makeRecord(new String[] {"a", "b", "c", "d", "e", "ea", "eb", "ec", "ed"}, new int[] {40, 41})
+        };
+        
+        // each change of shape is a cache miss, so stop short of the number of misses after which the site is megamorphic.
+        for (int i = 0; i < RTRecordFieldSelector.MAX_CACHE_MISSES / records.length - 1; ++i) {
+            assertEquals(11, selectInt(selector, records[0]));
+            assertEquals(21, selectInt(selector, records[1]));
+            assertEquals(31, selectInt(selector, records[2]));
+            assertEquals(41, selectInt(selector, records[3]));
+        }
+        
+        // selecting from the same shape several times in a row should only miss the first time.
+        for (int i = 0; i < 100; ++i) {
+            assertEquals(41, selectInt(selector, records[3]));
+        }
+        
+        // records of the same shape as an earlier record should be selected from the same slot.
+        assertEquals(22, selectInt(selector, records[1].makeFromValues(null, new RTValue[] {
+            RTData.CAL_Int.make(-1), RTData.CAL_Int.make(0), RTData.CAL_Int.make(22), RTData.CAL_Int.make(0)})));
+        assertFalse(selector.isMegamorphic());
+        
+        // a site which keeps alternating shapes eventually stops updating its cache, but still selects correctly.
+        for (int i = 0; i < 2; ++i) {
+            assertEquals(11, selectInt(selector, records[0]));
+            assertEquals(21, selectInt(selector, records[1]));
+            assertEquals(31, selectInt(selector, records[2]));
+            assertEquals(41, selectInt(selector, records[3]));
+        }
+        assertTrue(selector.isMegamorphic());
+        assertEquals(11, selectInt(selector, records[0]));
+    }
+    
+    /**
+     * Tests a call site which selects from records of more shapes than it will cache.
+     */
+    public void testMegamorphicSite() {
+        RTRecordFieldSelector selector = new RTRecordFieldSelector("field0");
+        
+        int nShapes = RTRecordFieldSelector.MAX_CACHE_MISSES * 2;
+        RTRecordValue[] records = new RTRecordValue[nShapes];
+        for (int i = 0; i < nShapes; ++i) {
+            String[] prefixes = new String[i % 4];
+            for (int j = 0; j < prefixes.length; ++j) {
+                prefixes[j] = "a" + j;
+            }
+            // the number of "field" fields also differs between shapes, so every shape is different.
+            int[] values = new int[i / 4 + 1];
+            values[0] = i;
+            records[i] = makeRecord(prefixes, values);
+        }
+        
+        for (int pass = 0; pass < 3; ++pass) {
+            for (int i = 0; i < nShapes; ++i) {
+                assertEquals(i, selectInt(selector, records[i]));
+            }
+        }
+        
+        assertTrue(selector.isMegamorphic());
+        
+        // the selector is still correct for a shape it has not seen.
+        assertEquals(7, selectInt(selector, makeRecord(new String[] {"a", "b", "c", "d", "e"}, new int[] {7, 8})));
+    }
+    
+    /**
+     * Tests that a selection gives the same value as looking up the field by name, for records having ordinal fields
+     * as well as textual fields.
+     */
+    public void testMixedRecords() {
+        RTRecordFieldSelector selector = new RTRecordFieldSelector("name");
+        
+        RTRecordValue tupleMixed = RTRecordValue.makeTupleMixedRecord(
+            new RTValue[] {RTData.CAL_Int.make(1), RTData.CAL_Int.make(2)},
+            new String[] {"count", "name"},
+            new RTValue[] {RTData.CAL_Int.make(3), RTData.CAL_Int.make(4)});
+        RTRecordValue mixed = RTRecordValue.makeMixedRecord(
+            new int[] {2},
+            new RTValue[] {RTData.CAL_Int.make(5)},
+            new String[] {"name"},
+            new RTValue[] {RTData.CAL_Int.make(6)});
+        
+        for (int i = 0; i < 3; ++i) {
+            assertSame(tupleMixed.getTextualFieldValue("name"), selector.select(tupleMixed));
+            assertEquals(4, selectInt(selector, tupleMixed));
+            assertSame(mixed.getTextualFieldValue("name"), selector.select(mixed));
+            assertEquals(6, selectInt(selector, mixed));
+        }
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2007 BUSINESS OBJECTS SOFTWARE LIMITED
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *  
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *  
+ *     * Neither the name of Business Objects nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+/*
+ * RTRecordShape_Test.java
+ * Creation date: Oct 18, 2026
+ */
+package org.openquark.cal.internal.runtime.lecc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+
+/**
+ * A set of JUnit test cases for the interning of record shapes, and the lookup of textual fields in a shape.
+ */
+public class RTRecordShape_Test extends TestCase {
+
+    /**
+     * Constructor for RTRecordShape_Test.
+     * @param name the name of the test.
+     */
+    public RTRecordShape_Test(String name) {
+        super(name);
+    }
+    
+    /**
+     * @return a test suite containing all the test cases for this test suite. The test of the bound on the number
+     *     of interned shapes is run last, since the other tests depend on their shapes being interned.
+     */
+    public static Test suite() {
+        TestSuite suite = new TestSuite();
+        suite.addTest(new RTRecordShape_Test("testInterning"));
+        suite.addTest(new RTRecordShape_Test("testNamesAreCopied"));
+        suite.addTest(new RTRecordShape_Test("testIndexOfSmallShape"));
+        suite.addTest(new RTRecordShape_Test("testIndexOfLargeShape"));
+        suite.addTest(new RTRecordShape_Test("testRecordsMadeFromShape"));
+        suite.addTest(new RTRecordShape_Test("testInterningCap"));
+        return suite;
+    }
+    
+    /**
+     * Tests that shapes having the same field names are the same shape, even when made from different arrays.
+     */
+    public void testInterning() {
+        RTRecordShape shape = RTRecordShape.make(new String[] {"internA", "internB"});
+        
+        assertSame(shape, RTRecordShape.make(new String[] {"internA", "internB"}));
+        assertSame(shape, RTRecordShape.make(new String[] {new String("internA"), new String("internB")}));
+        assertNotSame(shape, RTRecordShape.make(new String[] {"internA"}));
+        assertNotSame(shape, RTRecordShape.make(new String[] {"internA", "internC"}));
+        
+        assertSame(RTRecordShape.EMPTY, RTRecordShape.make(new String[0]));
+    }
+    
+    /**
+     * Tests that the names array passed to make is not retained by the shape.
+     */
+    public void testNamesAreCopied() {
+        String[] names = new String[] {"copiedA", "copiedB"};
+        RTRecordShape shape = RTRecordShape.make(names);
+        names[1] = "copiedC";
+        
+        assertEquals("copiedB", shape.getTextualNames()[1]);
+        assertSame(shape, RTRecordShape.make(new String[] {"copiedA", "copiedB"}));
+        assertNotSame(shape, RTRecordShape.make(names));
+    }
+    
+    /**
+     * Tests the slots of fields in a small shape, which are found by an identity scan when the field names are
+     * the same String objects, and otherwise by comparing the names.
+     */
+    public void testIndexOfSmallShape() {
+        RTRecordShape shape = RTRecordShape.make(new String[] {"alpha", "beta", "gamma"});
+        
+        assertEquals(0, shape.indexOf("alpha"));
+        assertEquals(1, shape.indexOf("beta"));
+        assertEquals(2, shape.indexOf("gamma"));
+        
+        // names which are equal to the field names, but not the same objects.
+        assertEquals(0, shape.indexOf(new String("alpha")));
+        assertEquals(1, shape.indexOf(new String("beta")));
+        assertEquals(2, shape.indexOf(new String("gamma")));
+        
+        assertTrue(shape.indexOf("delta") < 0);
+        assertTrue(shape.indexOf("a") < 0);
+        assertTrue(RTRecordShape.EMPTY.indexOf("alpha") < 0);
+    }
+    
+    /**
+     * Tests that the records made from a shape (as the generated code does for record literals) have that shape,
+     * and the same fields as records made from the field names.
+     */
+    public void testRecordsMadeFromShape() {
+        String[] names = new String[] {"literalA", "literalB"};
+        RTRecordShape shape = RTRecordShape.make(names);
+        RTValue[] textualValues = new RTValue[] {RTData.CAL_Int.make(1), RTData.CAL_Int.make(2)};
+        RTValue[] ordinalValues = new RTValue[] {RTData.CAL_Int.make(3)};
+        
+        RTRecordValue[] records = new RTRecordValue[] {
+            RTRecordValue.makeTextualRecord(shape, textualValues),
+            RTRecordValue.makeTupleMixedRecord(ordinalValues, shape, textualValues),
+            RTRecordValue.makeMixedRecord(new int[] {2}, ordinalValues, shape, textualValues)
+        };
+        RTRecordValue[] recordsFromNames = new RTRecordValue[] {
+            RTRecordValue.makeTextualRecord(names, textualValues),
+            RTRecordValue.makeTupleMixedRecord(ordinalValues, names, textualValues),
+            RTRecordValue.makeMixedRecord(new int[] {2}, ordinalValues, names, textualValues)
+        };
+        
+        for (int i = 0; i < records.length; ++i) {
+            RTRecordValue record = records[i];
+            assertSame(shape, record.getTextualShape());
+            assertSame(recordsFromNames[i].getTextualShape(), record.getTextualShape());
+            assertSame(textualValues[0], record.getTextualFieldValue("literalA"));
+            assertSame(textualValues[1], record.getTextualFieldValue("literalB"));
+            assertEquals(recordsFromNames[i].getNOrdinalFields(), record.getNOrdinalFields());
+            if (i > 0) {
+                assertSame(ordinalValues[0], record.getNthOrdinalValue(0));
+            }
+        }
+    }
+    
+    /**
+     * Tests the slots of fields in a shape having more fields than are searched linearly.
+     */
+    public void testIndexOfLargeShape() {
+        int nFields = RTRecordShape.LINEAR_SEARCH_LIMIT * 3;
+        String[] names = new String[nFields];
+        for (int i = 0; i < nFields; ++i) {
+            names[i] = "field" + (char)('a' + i);
+        }
+        RTRecordShape shape = RTRecordShape.make(names);
+        
+        for (int i = 0; i < nFields; ++i) {
+            assertEquals(i, shape.indexOf(names[i]));
+            assertEquals(i, shape.indexOf(new String(names[i])));
+        }
+        assertTrue(shape.indexOf("field") < 0);
+        assertTrue(shape.indexOf("fieldzz") < 0);
+    }
+    
+    /**
+     * Tests that once the bound on the number of interned shapes is reached, new shapes are still made correctly
+     * but are not interned, and that shapes interned before the bound was reached are still returned.
+     * <p>
+     * Note that this leaves the interned shapes table full for the remainder of the test run. This only affects
+     * the speed of later record field selections, not their results.
+     */
+    public void testInterningCap() {
+        RTRecordShape internedShape = RTRecordShape.make(new String[] {"capA", "capB"});
+        
+        List<RTRecordShape> shapes = new ArrayList<RTRecordShape>();
+        for (int i = 0; RTRecordShape.getNInternedShapes() < RTRecordShape.MAX_INTERNED_SHAPES; ++i) {
+            shapes.add(RTRecordShape.make(new String[] {"capFiller" + i}));
+        }
+        assertEquals(RTRecordShape.MAX_INTERNED_SHAPES, RTRecordShape.getNInternedShapes());
+        
+        String[] names = new String[] {"capX", "capY"};
+        RTRecordShape shape1 = RTRecordShape.make(names);
+        RTRecordShape shape2 = RTRecordShape.make(names);
+        
+        assertNotSame(shape1, shape2);
+        assertEquals(RTRecordShape.MAX_INTERNED_SHAPES, RTRecordShape.getNInternedShapes());
+        assertEquals(2, shape1.getNTextualFields());
+        assertEquals(1, shape1.indexOf("capY"));
+        assertEquals(1, shape2.indexOf(new String("capY")));
+        assertTrue(shape1.indexOf("capZ") < 0);
+        
+        assertSame(internedShape, RTRecordShape.make(new String[] {"capA", "capB"}));
+        assertSame(shapes.get(0), RTRecordShape.make(new String[] {"capFiller0"}));
+    }
+}
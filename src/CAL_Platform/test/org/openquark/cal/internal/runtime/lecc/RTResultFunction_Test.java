@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2007 BUSINESS OBJECTS SOFTWARE LIMITED
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *  
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *  
+ *     * Neither the name of Business Objects nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+/*
+ * RTResultFunction_Test.java
+ * Creation date: Oct 18, 2026
+ */
+package org.openquark.cal.internal.runtime.lecc;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+import org.openquark.cal.runtime.CALExecutorException;
+
+
+/**
+ * A set of JUnit test cases for the compare-and-set claiming of RTResultFunction nodes
+ * used by the concurrent runtime.
+ */
+public class RTResultFunction_Test extends TestCase {
+
+    /** The number of threads demanding each shared node. */
+    private static final int N_THREADS = 8;
+    
+    /** The number of shared nodes evaluated in each test. */
+    private static final int N_NODES = 200;
+    
+    /**
+     * A node whose reduction counts the number of times its value is computed.
+     * Like generated code, it computes its value only if it does not already have a result.
+     */
+    private static final class CountingNode extends RTResultFunction {
+        
+        /** The number of times the value of this node has been computed. */
+        final AtomicInteger nEvaluations = new AtomicInteger();
+        
+        /** The number of threads which are reducing this node at the same time, and the maximum seen. */
+        private final AtomicInteger nReducing = new AtomicInteger();
+        final AtomicInteger maxReducing = new AtomicInteger();
+        
+        /** The value of the node. */
+        private final int value;
+        
+        CountingNode(int value) {
+            this.value = value;
+        }
+        
+        @Override
+        protected RTValue reduce(RTExecutionContext ec) throws CALExecutorException {
+            int reducing = nReducing.incrementAndGet();
+            int max;
+            while (reducing > (max = maxReducing.get()) && !maxReducing.compareAndSet(max, reducing)) {
+            }
+            try {
+                if (result == null) {
+                    nEvaluations.incrementAndGet();
+                    // Give the other threads a chance to find the node claimed.
+                    Thread.yield();
+                    setResult(RTData.CAL_Int.make(value));
+                }
+                return result;
+            } finally {
+                nReducing.decrementAndGet();
+            }
+        }
+        
+        @Override
+        public void clearMembers() {
+        }
+    }
+    
+    /**
+     * Constructor for RTResultFunction_Test.
+     * @param name the name of the test.
+     */
+    public RTResultFunction_Test(String name) {
+        super(name);
+    }
+    
+    /**
+     * Tests that when several threads reduce the same shared nodes at once, each node is reduced
+     * by one thread at a time, its value is computed exactly once, and every thread sees that value.
+     * @throws Exception
+     */
+    public void testSharedNodeEvaluatedOnce() throws Exception {
+        final CountingNode[] nodes = new CountingNode[N_NODES];
+        for (int i = 0; i < N_NODES; ++i) {
+            nodes[i] = new CountingNode(1000 + i);
+        }
+        
+        final CountDownLatch startSignal = new CountDownLatch(1);
+        final List<Throwable> failures = new ArrayList<Throwable>();
+        Thread[] threads = new Thread[N_THREADS];
+        for (int i = 0; i < N_THREADS; ++i) {
+            threads[i] = new Thread("RTResultFunction_Test " + i) {
+                @Override
+                public void run() {
+                    try {
+                        startSignal.await();
+                        for (int j = 0; j < N_NODES; ++j) {
+                            RTValue value = nodes[j].synchronizedReduce(null);
+                            assertEquals(1000 + j, ((RTData.CAL_Int)value).getIntValue());
+                        }
+                    } catch (Throwable t) {
+                        synchronized (failures) {
+                            failures.add(t);
+                        }
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        
+        startSignal.countDown();
+        for (int i = 0; i < N_THREADS; ++i) {
+            threads[i].join(60000);
+            assertFalse("thread did not finish", threads[i].isAlive());
+        }
+        
+        if (!failures.isEmpty()) {
+            fail("evaluation failed: " + failures.get(0));
+        }
+        
+        for (int i = 0; i < N_NODES; ++i) {
+            assertEquals(1, nodes[i].nEvaluations.get());
+            assertEquals(1, nodes[i].maxReducing.get());
+            assertFalse(nodes[i].isUnderEvaluation());
+        }
+        assertEquals(0, RTResultFunction.getNClaimedNodes());
+    }
+    
+    /**
+     * Tests that the claim state of the concurrent runtime is not held in fields of the nodes, so that
+     * nodes are no larger than they need to be in the single-threaded runtime.
+     */
+    public void testNoClaimStateInNodes() {
+        Set<String> instanceFields = new HashSet<String>();
+        for (final Field field : RTResultFunction.class.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers())) {
+                instanceFields.add(field.getName());
+            }
+        }
+        assertEquals(new HashSet<String>(Arrays.asList(new String[] {"result", "parent"})), instanceFields);
+    }
+    
+    /**
+     * Tests that a thread re-entering a node it has already claimed does not block, and that
+     * the node is only released by the outermost claim.
+     */
+    public void testReentrantClaim() {
+        CountingNode node = new CountingNode(1);
+        assertFalse(node.isUnderEvaluation());
+        
+        assertTrue(node.claim());
+        assertTrue(node.isUnderEvaluation());
+        
+        // Re-entrant claim by the owner.
+        assertFalse(node.claim());
+        assertTrue(node.isUnderEvaluation());
+        
+        node.release();
+        assertFalse(node.isUnderEvaluation());
+        assertTrue(node.claim());
+        node.release();
+    }
+    
+    /**
+     * Tests that a thread demanding a node claimed by another thread waits until it is released.
+     * @throws Exception
+     */
+    public void testWaiterWokenOnRelease() throws Exception {
+        final CountingNode node = new CountingNode(7);
+        assertTrue(node.claim());
+        
+        final AtomicInteger claimed = new AtomicInteger();
+        Thread waiter = new Thread("RTResultFunction_Test waiter") {
+            @Override
+            public void run() {
+                if (node.claim()) {
+                    claimed.incrementAndGet();
+                    node.release();
+                }
+            }
+        };
+        waiter.start();
+        
+        // The waiter cannot claim the node while this thread owns it.
+        waiter.join(200);
+        assertTrue(waiter.isAlive());
+        assertEquals(0, claimed.get());
+        
+        node.release();
+        waiter.join(60000);
+        assertFalse(waiter.isAlive());
+        assertEquals(1, claimed.get());
+        assertFalse(node.isUnderEvaluation());
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2007 BUSINESS OBJECTS SOFTWARE LIMITED
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *  
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *  
+ *     * Neither the name of Business Objects nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+/*
+ * RTSparkPool_Test.java
+ * Creation date: Oct 18, 2026
+ */
+package org.openquark.cal.internal.runtime.lecc;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+import org.openquark.cal.runtime.CALExecutorException;
+import org.openquark.cal.runtime.ExecutionContextProperties;
+
+
+/**
+ * A set of JUnit test cases for the pool used to evaluate sparks in the concurrent runtime.
+ */
+public class RTSparkPool_Test extends TestCase {
+
+    /** The maximum time to wait for a worker to evaluate a spark, in milliseconds. */
+    private static final long SPARK_TIMEOUT_MILLIS = 60000;
+    
+    /**
+     * A node whose reduction counts the number of times it is reduced, and fails with the given exception
+     * if there is one.
+     */
+    private static final class TestNode extends RTResultFunction {
+        
+        /** The number of times this node has been reduced. */
+        final AtomicInteger nReductions = new AtomicInteger();
+        
+        /** The exception thrown by reducing this node. Null if the node reduces to an Int. */
+        private final RuntimeException failure;
+        
+        TestNode(RuntimeException failure) {
+            this.failure = failure;
+        }
+        
+        @Override
+        protected RTValue reduce(RTExecutionContext ec) throws CALExecutorException {
+            nReductions.incrementAndGet();
+            if (failure != null) {
+                throw failure;
+            }
+            setResult(RTData.CAL_Int.make(1));
+            return result;
+        }
+        
+        @Override
+        public void clearMembers() {
+        }
+    }
+    
+    /**
+     * Constructor for RTSparkPool_Test.
+     * @param name the name of the test.
+     */
+    public RTSparkPool_Test(String name) {
+        super(name);
+    }
+    
+    /**
+     * @return a new execution context without a runtime environment, which is enough to evaluate test nodes.
+     */
+    private static RTExecutionContext makeExecutionContext() {
+        return new RTExecutionContext(new ExecutionContextProperties.Builder().toProperties(), null);
+    }
+    
+    /**
+     * Tests that the failure of a spark is rethrown, once, to the thread which then demands the spark's value,
+     * rather than being swallowed.
+     * @throws Exception
+     */
+    public void testFailedSparkRethrownToDemandingThread() throws Exception {
+        RTExecutionContext executionContext = makeExecutionContext();
+        try {
+            RTSparkPool sparkPool = executionContext.getSparkPool();
+            
+            RuntimeException failure = new IllegalStateException("spark failed");
+            TestNode node = new TestNode(failure);
+            sparkPool.spark(node);
+            
+            long deadline = System.currentTimeMillis() + SPARK_TIMEOUT_MILLIS;
+            while (sparkPool.getNSparksFailed() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, sparkPool.getNSparksFailed());
+            assertEquals(1, node.nReductions.get());
+            
+            try {
+                executionContext.rethrowSparkFailure(node);
+                fail("the failure of the spark was not rethrown");
+            } catch (IllegalStateException e) {
+                assertSame(failure, e);
+            }
+            
+            // The failure is only rethrown once. The node is still unevaluated, so demanding it again evaluates it.
+            executionContext.rethrowSparkFailure(node);
+            assertNull(node.result);
+            
+        } finally {
+            executionContext.cleanup();
+        }
+    }
+    
+    /**
+     * Tests that a spark which evaluates successfully leaves nothing to be rethrown.
+     * @throws Exception
+     */
+    public void testSuccessfulSparkNotRethrown() throws Exception {
+        RTExecutionContext executionContext = makeExecutionContext();
+        try {
+            RTSparkPool sparkPool = executionContext.getSparkPool();
+            
+            TestNode node = new TestNode(null);
+            sparkPool.spark(node);
+            
+            long deadline = System.currentTimeMillis() + SPARK_TIMEOUT_MILLIS;
+            while (node.getValue() == node && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, ((RTData.CAL_Int)node.getValue()).getIntValue());
+            assertEquals(0, sparkPool.getNSparksFailed());
+            
+            executionContext.rethrowSparkFailure(node);
+            
+        } finally {
+            executionContext.cleanup();
+        }
+    }
+    
+    /**
+     * Tests that the spark pool is shut down when its execution context is cleaned up, that sparks created on the old
+     * pool are dropped, and that the execution context creates a new pool for later sparks.
+     */
+    public void testPoolShutDownOnCleanup() {
+        RTExecutionContext executionContext = makeExecutionContext();
+        try {
+            RTSparkPool sparkPool = executionContext.getSparkPool();
+            assertSame(sparkPool, executionContext.getSparkPool());
+            assertFalse(sparkPool.isShutdown());
+            
+            executionContext.cleanup();
+            assertTrue(sparkPool.isShutdown());
+            
+            TestNode node = new TestNode(null);
+            sparkPool.spark(node);
+            assertEquals(1, sparkPool.getNSparksFizzled());
+            assertEquals(0, node.nReductions.get());
+            
+            RTSparkPool newSparkPool = executionContext.getSparkPool();
+            assertNotSame(sparkPool, newSparkPool);
+            assertFalse(newSparkPool.isShutdown());
+            
+        } finally {
+            executionContext.cleanup();
+        }
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2007 BUSINESS OBJECTS SOFTWARE LIMITED
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *  
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *  
+ *     * Neither the name of Business Objects nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+/*
+ * RecordInputStream_Test.java
+ * Creation date: Oct 18, 2026
+ */
+package org.openquark.cal.internal.serialization;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import junit.framework.TestCase;
+
+import org.openquark.cal.compiler.ModuleName;
+import org.openquark.cal.internal.serialization.RecordInputStream.Bookmark;
+import org.openquark.cal.internal.serialization.RecordInputStream.RecordHeaderInfo;
+import org.openquark.util.NakedByteArrayOutputStream;
+
+
+/**
+ * A set of JUnit test cases for reading records through a RecordInputStream, 
+ * both from an input stream and directly from a buffer.
+ */
+public class RecordInputStream_Test extends TestCase {
+
+    /**
+     * Constructor for RecordInputStream_Test.
+     * @param name the name of the test.
+     */
+    public RecordInputStream_Test(String name) {
+        super(name);
+    }
+    
+    /**
+     * @return the serialized form of a few records.
+     * @throws IOException
+     */
+    private static byte[] writeRecords() throws IOException {
+        NakedByteArrayOutputStream bos = new NakedByteArrayOutputStream(128);
+        RecordOutputStream ros = new RecordOutputStream(bos);
+        
+        ros.startRecord(ModuleSerializationTags.SERIALIZATION_INFO, 0);
+        ros.writeLong(1234567890123L);
+        ros.endRecord();
+        
+        ros.startRecord(ModuleSerializationTags.MODULE_IMPORTS, 2);
+        ros.writeModuleName(ModuleName.make("Cal.Core.Prelude"));
+        ros.writeInt(42);
+        ros.writeUTF("a pooled string");
+        ros.endRecord();
+        
+        ros.close();
+        
+        byte[] bytes = new byte[bos.getCount()];
+        System.arraycopy(bos.getByteArray(), 0, bytes, 0, bytes.length);
+        return bytes;
+    }
+    
+    /**
+     * Read and check the records written by writeRecords().
+     * @param ris the stream to read from.
+     * @throws IOException
+     */
+    private static void checkRecords(RecordInputStream ris) throws IOException {
+        assertNotNull(ris.findRecord(ModuleSerializationTags.SERIALIZATION_INFO));
+        assertEquals(1234567890123L, ris.readLong());
+        ris.skipRestOfRecord();
+        
+        RecordHeaderInfo rhi = ris.findRecord(ModuleSerializationTags.MODULE_IMPORTS);
+        assertNotNull(rhi);
+        assertEquals(2, rhi.getSchema());
+        assertEquals(ModuleName.make("Cal.Core.Prelude"), ris.readModuleName());
+        assertEquals(42, ris.readInt());
+        assertEquals("a pooled string", ris.readUTF());
+        assertTrue(ris.atEndOfRecord());
+        ris.skipRestOfRecord();
+    }
+    
+    /**
+     * Tests that records read through an input stream and directly from a buffer are the same.
+     * @throws IOException
+     */
+    public void testReadFromStreamAndBuffer() throws IOException {
+        byte[] bytes = writeRecords();
+        
+        RecordInputStream streamRis = new RecordInputStream(new ByteArrayInputStream(bytes));
+        assertFalse(streamRis.isBufferBacked());
+        checkRecords(streamRis);
+        streamRis.close();
+        
+        RecordInputStream bufferRis = new RecordInputStream(ByteBuffer.wrap(bytes));
+        assertTrue(bufferRis.isBufferBacked());
+        checkRecords(bufferRis);
+        bufferRis.close();
+    }
+    
+    /**
+     * Tests that a buffer-backed stream can be reopened at a bookmark, independently of the original stream.
+     * @throws IOException
+     */
+    public void testOpenAt() throws IOException {
+        RecordInputStream ris = new RecordInputStream(ByteBuffer.wrap(writeRecords()));
+        
+        Bookmark start = ris.bookmark();
+        
+        assertNotNull(ris.findRecord(ModuleSerializationTags.SERIALIZATION_INFO));
+        ris.skipRestOfRecord();
+        Bookmark importsRecord = ris.bookmark();
+        
+        // Read the imports record through the original stream, and then again through a reopened one.
+        assertNotNull(ris.findRecord(ModuleSerializationTags.MODULE_IMPORTS));
+        ris.readModuleName();
+        assertEquals(42, ris.readInt());
+        
+        RecordInputStream reopened = ris.openAt(importsRecord);
+        assertNotNull(reopened.findRecord(ModuleSerializationTags.MODULE_IMPORTS));
+        assertEquals(ModuleName.make("Cal.Core.Prelude"), reopened.readModuleName());
+        assertEquals(42, reopened.readInt());
+        assertEquals("a pooled string", reopened.readUTF());
+        
+        // The original stream is unaffected by the reopened one.
+        assertEquals("a pooled string", ris.readUTF());
+        ris.skipRestOfRecord();
+        
+        // Read everything again from the start.
+        checkRecords(ris.openAt(start));
+    }
+    
+    /**
+     * Tests that a stream on an input stream can't be reopened.
+     * @throws IOException
+     */
+    public void testOpenAtUnsupported() throws IOException {
+        RecordInputStream ris = new RecordInputStream(new ByteArrayInputStream(writeRecords()));
+        try {
+            ris.openAt(ris.bookmark());
+            fail("Expected UnsupportedOperationException");
+        } catch (UnsupportedOperationException e) {
+            // Expected.
+        }
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2007 BUSINESS OBJECTS SOFTWARE LIMITED
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *  
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *  
+ *     * Neither the name of Business Objects nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+/*
+ * ModuleInterfaceHash_Test.java
+ * Creation date: Oct 18, 2026
+ */
+package org.openquark.cal.machine;
+
+import junit.extensions.TestSetup;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.openquark.cal.compiler.CompilerMessageLogger;
+import org.openquark.cal.compiler.MessageLogger;
+import org.openquark.cal.compiler.ModuleName;
+import org.openquark.cal.compiler.ModuleSourceDefinition;
+import org.openquark.cal.compiler.ModuleSourceDefinitionGroup;
+import org.openquark.cal.compiler.QualifiedName;
+import org.openquark.cal.compiler.CompilerMessage.Severity;
+import org.openquark.cal.runtime.MachineType;
+import org.openquark.cal.services.BasicCALServices;
+import org.openquark.cal.services.CALServicesTestUtilities;
+import org.openquark.cal.services.Status;
+import org.openquark.cal.services.StringModuleSourceDefinition;
+import org.openquark.cal.services.WorkspaceManager;
+
+
+/**
+ * A set of JUnit test cases for the interface hash of a module, which decides whether
+ * modules compiled against it need to be recompiled when it changes.
+ */
+public class ModuleInterfaceHash_Test extends TestCase {
+
+    /** The name of the module whose interface hash is checked. */
+    private static final ModuleName IMPORTED_MODULE_NAME = ModuleName.make("TEST_InterfaceHashImported");
+    
+    /** The name of a module which calls a function in the imported module. */
+    private static final ModuleName DEPENDENT_MODULE_NAME = ModuleName.make("TEST_InterfaceHashDependent");
+    
+    /** A tail recursive definition of sumTo. */
+    private static final String TAIL_RECURSIVE_SUM_TO =
+        "public sumTo !n !acc = if n <= 0 then acc else sumTo (n - 1) (acc + n);";
+    
+    /** A different tail recursive definition of sumTo. */
+    private static final String OTHER_TAIL_RECURSIVE_SUM_TO =
+        "public sumTo !n !acc = if n < 1 then acc else sumTo (n - 1) (n + acc);";
+    
+    /** A definition of sumTo with the same type and strictness, which is not tail recursive. */
+    private static final String NON_TAIL_RECURSIVE_SUM_TO =
+        "public sumTo !n !acc = if n <= 0 then acc else n + sumTo (n - 1) acc;";
+    
+    /**
+     * A copy of CAL services for use in the test cases.
+     */
+    private static BasicCALServices leccCALServices;
+
+    /**
+     * @return a test suite containing all the test cases for this test suite.
+     */
+    public static Test suite() {
+
+        TestSuite suite = new TestSuite(ModuleInterfaceHash_Test.class);
+
+        return new TestSetup(suite) {
+
+            @Override
+            protected void setUp() {
+                oneTimeSetUp();
+                
+            }
+    
+            @Override
+            protected void tearDown() {
+                oneTimeTearDown();
+            }
+        };
+    }
+    
+    /**
+     * Performs the setup for the test suite.
+     */
+    private static void oneTimeSetUp() {
+        leccCALServices = CALServicesTestUtilities.getCommonCALServices(MachineType.LECC, "cal.platform.test.cws");
+    }
+    
+    /**
+     * Performs the tear down for the test suite.
+     */
+    private static void oneTimeTearDown() {
+        leccCALServices = null;
+    }
+    
+    /**
+     * Constructor for ModuleInterfaceHash_Test.
+     * 
+     * @param name the name of the test
+     */
+    public ModuleInterfaceHash_Test(String name) {
+        super(name);
+    }
+    
+    /**
+     * Tests that a change to the body of a function which changes whether it is tail recursive changes the
+     * interface hash of its module, since callers in other modules depend on it, and that a dependent module
+     * compiled against the new definition still links and runs.
+     * A change to the body which does not change whether the function is tail recursive leaves the hash unchanged.
+     */
+    public void testTailRecursionChangesInterfaceHash() throws Exception {
+        try {
+            long tailRecursiveHash = compileModules(TAIL_RECURSIVE_SUM_TO);
+            assertEquals(Integer.valueOf(5050), runTotal());
+            
+            long otherTailRecursiveHash = compileModules(OTHER_TAIL_RECURSIVE_SUM_TO);
+            assertEquals(Integer.valueOf(5050), runTotal());
+            assertEquals(tailRecursiveHash, otherTailRecursiveHash);
+            
+            long nonTailRecursiveHash = compileModules(NON_TAIL_RECURSIVE_SUM_TO);
+            assertEquals(Integer.valueOf(5050), runTotal());
+            assertFalse(tailRecursiveHash == nonTailRecursiveHash);
+            
+        } finally {
+            Status status = new Status("Removal of test modules");
+            WorkspaceManager workspaceManager = leccCALServices.getWorkspaceManager();
+            workspaceManager.removeModule(DEPENDENT_MODULE_NAME, status);
+            workspaceManager.removeModule(IMPORTED_MODULE_NAME, status);
+        }
+    }
+    
+    /**
+     * Compile the imported module with the given definition of sumTo, together with the dependent module.
+     * @param sumToDefinition the definition of sumTo.
+     * @return the interface hash of the imported module.
+     */
+    private static long compileModules(String sumToDefinition) {
+        String importedModuleText =
+            "module " + IMPORTED_MODULE_NAME + ";\n" +
+            "import Cal.Core.Prelude using typeConstructor = Int; ;\n" +
+            "sumTo :: Int -> Int -> Int;\n" +
+            sumToDefinition + "\n";
+        
+        String dependentModuleText =
+            "module " + DEPENDENT_MODULE_NAME + ";\n" +
+            "import Cal.Core.Prelude using typeConstructor = Int; ;\n" +
+            "import " + IMPORTED_MODULE_NAME + ";\n" +
+            "total :: Int;\n" +
+            "public total = " + IMPORTED_MODULE_NAME + ".sumTo 100 0;\n";
+        
+        ModuleSourceDefinition[] moduleSourceDefns = {
+            new StringModuleSourceDefinition(IMPORTED_MODULE_NAME, importedModuleText),
+            new StringModuleSourceDefinition(DEPENDENT_MODULE_NAME, dependentModuleText)
+        };
+        
+        WorkspaceManager workspaceManager = leccCALServices.getWorkspaceManager();
+        CompilerMessageLogger logger = new MessageLogger();
+        Severity severity = workspaceManager.makeModules(
+            new ModuleName[] { IMPORTED_MODULE_NAME, DEPENDENT_MODULE_NAME }, new ModuleSourceDefinitionGroup(moduleSourceDefns), logger);
+        assertTrue(logger.getCompilerMessages().toString(), severity.compareTo(Severity.ERROR) < 0);
+        
+        return workspaceManager.getModule(IMPORTED_MODULE_NAME).getInterfaceHash();
+    }
+    
+    /**
+     * @return the result of running the function in the dependent module.
+     */
+    private static Object runTotal() throws Exception {
+        return CALServicesTestUtilities.runNamedFunction(QualifiedName.make(DEPENDENT_MODULE_NAME, "total"), leccCALServices);
+    }
+}
@@ -37,10 +37,12 @@
  */
 package org.openquark.cal.services;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 
 import junit.extensions.TestSetup;
 import junit.framework.Test;
@@ -53,11 +55,14 @@ import org.openquark.cal.compiler.CompilerMessage;
 import org.openquark.cal.compiler.CompilerMessageLogger;
 import org.openquark.cal.compiler.CompilerTestUtilities;
 import org.openquark.cal.compiler.MessageLogger;
+import org.openquark.cal.compiler.ModuleName;
+import org.openquark.cal.compiler.ModuleTypeInfo;
 import org.openquark.cal.compiler.QualifiedName;
 import org.openquark.cal.compiler.Scope;
 import org.openquark.cal.compiler.SourceModel;
 import org.openquark.cal.compiler.SourceModelModuleSource;
 import org.openquark.cal.compiler.SourceModelUtilities;
+import org.openquark.cal.compiler.TypeExpr;
 import org.openquark.cal.compiler.io.EntryPoint;
 import org.openquark.cal.compiler.io.EntryPointSpec;
 import org.openquark.cal.internal.machine.EntryPointImpl;
@@ -198,6 +203,44 @@ public class BasicCALServices_Test extends TestCase {
         assertTrue(hasSubtract);        
     }
 
+    /**
+     * Tests that the gems found through the type index by BasicCALServices.findGemsOfType() and
+     * BasicCALServices.findGemsByReturnType() are the same as the gems found by matching against every gem.
+     */
+    public void testTypeIndexedGemSearch() {
+        help_testTypeIndexedGemSearch(leccCALServices);
+    }
+    
+    private void help_testTypeIndexedGemSearch(BasicCALServices calServices) {
+        final ModuleName scopeModule = CALServicesTestUtilities.DEFAULT_UNIT_TEST_MODULE;
+        final ModuleTypeInfo scopeModuleTypeInfo = calServices.getModuleTypeInfo(scopeModule);
+        
+        String[] typeStrings = {
+            "Int -> Int", "[a] -> Int", "Int", "Maybe a", "String -> Boolean", "a -> a", "(a -> b) -> [a] -> [b]", "(a, b) -> a"
+        };
+        
+        for (final String typeString : typeStrings) {
+            final TypeExpr typeExpr = calServices.getTypeFromString(scopeModule, typeString);
+            assertNotNull(typeString, typeExpr);
+            
+            Set<GemEntity> gemsOfType = calServices.getMatchingGems(new GemFilter() {
+                @Override
+                public boolean select(GemEntity gemEntity) {
+                    return TypeExpr.canPatternMatch(gemEntity.getTypeExpr(), typeExpr, scopeModuleTypeInfo);
+                }
+            });
+            assertEquals(typeString, new ArrayList<GemEntity>(gemsOfType), new ArrayList<GemEntity>(calServices.findGemsOfType(scopeModule, typeString, true)));
+            
+            Set<GemEntity> gemsByReturnType = calServices.getMatchingGems(new GemFilter() {
+                @Override
+                public boolean select(GemEntity gemEntity) {
+                    return TypeExpr.canPatternMatch(gemEntity.getTypeExpr().getResultType(), typeExpr, scopeModuleTypeInfo);
+                }
+            });
+            assertEquals(typeString, new ArrayList<GemEntity>(gemsByReturnType), new ArrayList<GemEntity>(calServices.findGemsByReturnType(scopeModule, typeString, true)));
+        }
+    }
+
     /**
      * Runs the expression (1 :: Int) + (2 :: Int), and compares the result
      * of BasicCALServices' runCode with the expected result, namely the
@@ -413,6 +456,25 @@ public class BasicCALServices_Test extends TestCase {
         }
     }
     
+    /**
+     * Tests that functions prepared with prepareAndPreloadFunctions can be run, with both machines.
+     * Only the lecc machine actually loads the code ahead of time.
+     */
+    public void testPrepareAndPreloadFunctions() throws GemCompilationException, CALExecutorException {
+        help_testPrepareAndPreloadFunctions(leccCALServices);
+        help_testPrepareAndPreloadFunctions(gCALServices);
+    }
+    
+    private void help_testPrepareAndPreloadFunctions(BasicCALServices calServices) throws GemCompilationException, CALExecutorException {
+        EntryPointSpec notSpec = EntryPointSpec.make(CAL_Prelude.Functions.not);
+        EntryPointSpec intToStringSpec = EntryPointSpec.make(CAL_Prelude.Functions.intToString);
+        
+        calServices.prepareAndPreloadFunctions(Arrays.asList(notSpec, intToStringSpec));
+        
+        assertEquals(Boolean.FALSE, calServices.runFunction(notSpec, new Object[] { Boolean.TRUE }));
+        assertEquals("42", calServices.runFunction(intToStringSpec, new Object[] { new Integer(42) }));
+    }
+    
     /**
      * Tests the executor's handling of an entry point based on an enumeration data cons.
      * @throws CALExecutorException
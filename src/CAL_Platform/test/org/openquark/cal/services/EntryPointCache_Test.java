@@ -40,10 +40,13 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
 
 import junit.framework.TestCase;
 
 import org.openquark.cal.compiler.ModuleName;
+import org.openquark.cal.compiler.QualifiedName;
 import org.openquark.cal.compiler.SourceModel.TypeExprDefn;
 import org.openquark.cal.compiler.io.EntryPointSpec;
 import org.openquark.cal.compiler.io.InputPolicy;
@@ -196,4 +199,217 @@ public class EntryPointCache_Test extends TestCase {
         assertEquals(TEST_LIST.subList(1, 3),           entryPointCache.runFunction(tailString, new Object[] { TEST_LIST }, executionContext));
         assertEquals(reversedList,                      entryPointCache.runFunction(reverseString, new Object[] { TEST_LIST }, executionContext));
     }
+    
+    public void testBackgroundCaching() throws Exception {
+        final EntryPointSpec headString = EntryPointSpec.make(CAL_List.Functions.head, 
+                OutputPolicy.makeTypedDefaultOutputPolicy(STRING_TYPE));
+        
+        final ExecutionContext executionContext = calServices.getWorkspaceManager().makeExecutionContextWithDefaultProperties();
+
+        Future<Void> cached = entryPointCache.submitBackgroundTask(new Callable<Void>() {
+            public Void call() throws GemCompilationException {
+                entryPointCache.cacheEntryPoints(Collections.singletonList(headString));
+                return null;
+            }
+        });
+        cached.get();
+        
+        // Use a status listener to assert that the List adjunct module doesn't get recompiled
+        calServices.getWorkspaceManager().addStatusListener(listCompilationListener);
+        
+        assertEquals("one", entryPointCache.runFunction(headString, new Object[] { TEST_LIST }, executionContext));
+        
+        EntryPointCacheStatistics statistics = entryPointCache.getStatistics();
+        assertEquals(1, statistics.getNHits());
+        assertEquals(0, statistics.getNMisses());
+        assertEquals(1, statistics.getNCompilations());
+        assertEquals(1, statistics.getNCachedEntryPoints());
+    }
+    
+    public void testConcurrentMissesShareCompilation() throws InterruptedException {
+        final EntryPointSpec[] entryPointSpecs = new EntryPointSpec[] {
+            EntryPointSpec.make(CAL_List.Functions.head, OutputPolicy.makeTypedDefaultOutputPolicy(STRING_TYPE)),
+            EntryPointSpec.make(CAL_List.Functions.last, OutputPolicy.makeTypedDefaultOutputPolicy(STRING_TYPE)),
+            EntryPointSpec.make(CAL_List.Functions.tail, OutputPolicy.makeTypedDefaultOutputPolicy(STRING_LIST_TYPE)),
+            EntryPointSpec.make(CAL_List.Functions.reverse, OutputPolicy.makeTypedDefaultOutputPolicy(STRING_LIST_TYPE)),
+            EntryPointSpec.make(CAL_List.Functions.length, 
+                new InputPolicy[] { InputPolicy.makeTypedDefaultInputPolicy(STRING_LIST_TYPE)},
+                OutputPolicy.DEFAULT_OUTPUT_POLICY)
+        };
+        List<String> reversedList = new ArrayList<String>(TEST_LIST);
+        Collections.reverse(reversedList);
+        final Object[] expectedResults = new Object[] { "one", "three ", TEST_LIST.subList(1, 3), reversedList, new Integer(3) };
+        
+        final int nCalls = entryPointSpecs.length;
+        final ExecutionContext executionContext = calServices.getWorkspaceManager().makeExecutionContextWithDefaultProperties();
+        
+        // Hold up the first compilation until the callers it doesn't include have missed the cache
+        // and joined a single compilation pending behind it.
+        // The adjunct module isn't always reloaded, so this is only done if the List module load is seen.
+        final boolean[] heldCompilation = new boolean[] { false };
+        StatusListener blockingListener = new StatusListenerAdapter() {
+            private boolean firstCompilation = true;
+            
+            @Override
+            public void setModuleStatus(Module moduleStatus, ModuleName moduleName) {
+                if (moduleStatus.equals(StatusListener.SM_LOADED) && moduleName.equals(CAL_List.MODULE_NAME) && firstCompilation) {
+                    firstCompilation = false;
+                    long deadline = System.currentTimeMillis() + 60000;
+                    while (entryPointCache.getStatistics().getNJoinedCompilations() < nCalls - 2 && System.currentTimeMillis() < deadline) {
+                        try {
+                            Thread.sleep(10);
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                    }
+                    heldCompilation[0] = entryPointCache.getStatistics().getNJoinedCompilations() >= nCalls - 2;
+                }
+            }
+        };
+        calServices.getWorkspaceManager().addStatusListener(blockingListener);
+        
+        final Object[] results = new Object[nCalls];
+        Thread[] callThreads = new Thread[nCalls];
+        try {
+            for (int i = 0; i < nCalls; i++) {
+                final int callN = i;
+                callThreads[i] = new Thread() {
+                    @Override
+                    public void run() {
+                        try {
+                            results[callN] = entryPointCache.runFunction(entryPointSpecs[callN], new Object[] { TEST_LIST }, executionContext);
+                        } catch (Exception e) {
+                            results[callN] = e;
+                        }
+                    }
+                };
+                callThreads[i].start();
+            }
+            
+            for (Thread element : callThreads) {
+                element.join();
+            }
+        } finally {
+            calServices.getWorkspaceManager().removeStatusListener(blockingListener);
+        }
+        
+        for (int i = 0; i < nCalls; i++) {
+            assertEquals(expectedResults[i], results[i]);
+        }
+        
+        EntryPointCacheStatistics statistics = entryPointCache.getStatistics();
+        assertEquals(nCalls, statistics.getNMisses());
+        assertEquals(nCalls, statistics.getNCompilations() + statistics.getNJoinedCompilations());
+        if (heldCompilation[0]) {
+            assertEquals(2, statistics.getNCompilations());
+        }
+        assertEquals(nCalls, statistics.getNCachedEntryPoints());
+    }
+    
+    public void testFailedEntryPointDoesNotFailItsBatch() throws Exception {
+        final EntryPointSpec lengthString = EntryPointSpec.make(CAL_List.Functions.length, 
+                new InputPolicy[] { InputPolicy.makeTypedDefaultInputPolicy(STRING_LIST_TYPE)},
+                OutputPolicy.DEFAULT_OUTPUT_POLICY);
+        final EntryPointSpec headString = EntryPointSpec.make(CAL_List.Functions.head, 
+                OutputPolicy.makeTypedDefaultOutputPolicy(STRING_TYPE));
+        final EntryPointSpec noSuchFunction = EntryPointSpec.make(QualifiedName.make(CAL_List.MODULE_NAME, "noSuchFunction"), 
+                OutputPolicy.makeTypedDefaultOutputPolicy(STRING_TYPE));
+        
+        final ExecutionContext executionContext = calServices.getWorkspaceManager().makeExecutionContextWithDefaultProperties();
+        
+        // Hold up the compilation of the first entry point until the valid and the invalid entry point
+        // have both missed the cache, and so share the compilation pending behind it.
+        final boolean[] heldCompilation = new boolean[] { false };
+        StatusListener blockingListener = new StatusListenerAdapter() {
+            private boolean firstCompilation = true;
+            
+            @Override
+            public void setModuleStatus(Module moduleStatus, ModuleName moduleName) {
+                if (moduleStatus.equals(StatusListener.SM_LOADED) && moduleName.equals(CAL_List.MODULE_NAME) && firstCompilation) {
+                    firstCompilation = false;
+                    long deadline = System.currentTimeMillis() + 60000;
+                    while (entryPointCache.getStatistics().getNJoinedCompilations() < 1 && System.currentTimeMillis() < deadline) {
+                        try {
+                            Thread.sleep(10);
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                    }
+                    heldCompilation[0] = entryPointCache.getStatistics().getNJoinedCompilations() >= 1;
+                }
+            }
+        };
+        calServices.getWorkspaceManager().addStatusListener(blockingListener);
+        
+        final EntryPointSpec[] entryPointSpecs = new EntryPointSpec[] { lengthString, headString, noSuchFunction };
+        final Object[] results = new Object[entryPointSpecs.length];
+        Thread[] callThreads = new Thread[entryPointSpecs.length];
+        try {
+            for (int i = 0; i < entryPointSpecs.length; i++) {
+                final int callN = i;
+                callThreads[i] = new Thread() {
+                    @Override
+                    public void run() {
+                        try {
+                            results[callN] = entryPointCache.runFunction(entryPointSpecs[callN], new Object[] { TEST_LIST }, executionContext);
+                        } catch (Exception e) {
+                            results[callN] = e;
+                        }
+                    }
+                };
+                callThreads[i].start();
+                
+                if (i == 0) {
+                    // Let the first call start its compilation before the others miss the cache.
+                    long deadline = System.currentTimeMillis() + 60000;
+                    while (entryPointCache.getStatistics().getNMisses() < 1 && System.currentTimeMillis() < deadline) {
+                        Thread.sleep(10);
+                    }
+                }
+            }
+            
+            for (Thread element : callThreads) {
+                element.join();
+            }
+        } finally {
+            calServices.getWorkspaceManager().removeStatusListener(blockingListener);
+        }
+        
+        assertEquals(new Integer(3), results[0]);
+        assertEquals("one", results[1]);
+        assertTrue("Unexpected result: " + results[2], results[2] instanceof GemCompilationException);
+        
+        EntryPointCacheStatistics statistics = entryPointCache.getStatistics();
+        if (heldCompilation[0]) {
+            assertTrue(statistics.getNFailedCompilations() > 0);
+        }
+        assertEquals(2, statistics.getNCachedEntryPoints());
+        
+        // The valid entry points are still cached, and the invalid one still fails.
+        assertEquals("one", entryPointCache.runFunction(headString, new Object[] { TEST_LIST }, executionContext));
+        assertEquals(new Integer(3), entryPointCache.runFunction(lengthString, new Object[] { TEST_LIST }, executionContext));
+        try {
+            entryPointCache.runFunction(noSuchFunction, new Object[] { TEST_LIST }, executionContext);
+            fail("Expected a GemCompilationException");
+        } catch (GemCompilationException e) {
+            // expected
+        }
+        
+        // Missing together in one batch fails only the invalid entry point.
+        entryPointCache.lockCache();
+        try {
+            entryPointCache.flush();
+        } finally {
+            entryPointCache.unlockCache();
+        }
+        try {
+            entryPointCache.cacheEntryPoints(Arrays.asList(new EntryPointSpec[] { headString, noSuchFunction }));
+            fail("Expected a GemCompilationException");
+        } catch (GemCompilationException e) {
+            // expected
+        }
+        long nHits = entryPointCache.getStatistics().getNHits();
+        assertEquals("one", entryPointCache.runFunction(headString, new Object[] { TEST_LIST }, executionContext));
+        assertEquals(nHits + 1, entryPointCache.getStatistics().getNHits());
+    }
 }
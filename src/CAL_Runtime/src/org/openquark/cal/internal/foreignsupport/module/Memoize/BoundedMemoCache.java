@@ -0,0 +1,249 @@
+/*
+ * Copyright (c) 2007 BUSINESS OBJECTS SOFTWARE LIMITED
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *  
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *  
+ *     * Neither the name of Business Objects nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+/*
+ * BoundedMemoCache.java
+ * Created: Oct 18, 2026
+ */
+
+package org.openquark.cal.internal.foreignsupport.module.Memoize;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openquark.cal.runtime.CalValue;
+
+/**
+ * NOTE: This class is for internal use only.
+ * BoundedMemoCache is the class for holding memoized values for functions memoized with
+ * a size bound. Unlike {@link MemoCache}, which holds a persistent CAL map, it is a mutable hash table
+ * keyed by the Java representation (the result of Prelude.output) of the argument value.
+ * <p>
+ * The table is split into independently locked segments, each of which evicts its least recently
+ * used entry once it is full, so that the cache never holds more than its maximum number of entries
+ * and can be shared by concurrent evaluations.
+ * <p>
+ * A key may be null, since the Java representation of some values (such as a foreign value holding null) is null.
+ * The null key is held in the first segment.
+ * <p>
+ * Hit, miss and eviction counts are kept for the lifetime of the cache.
+ */
+public final class BoundedMemoCache {
+
+    /** The maximum number of segments. Small caches use fewer so that each segment holds a useful number of entries. */
+    private static final int MAX_SEGMENTS = 16;
+
+    /** The minimum number of entries per segment. */
+    private static final int MIN_SEGMENT_SIZE = 16;
+
+    /** The maximum number of entries held by the cache. */
+    private final int maxSize;
+
+    /** The segments of the cache. The length is a power of 2. */
+    private final Segment[] segments;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    /**
+     * A segment of the cache: a least recently used ordered map with a fixed capacity.
+     * All access must be synchronized on the segment.
+     */
+    private final class Segment extends LinkedHashMap<Object, CalValue> {
+
+        private static final long serialVersionUID = -3617383934227440227L;
+
+        private final int capacity;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Object, CalValue> eldest) {
+            if (size() > capacity) {
+                evictionCount.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Create a BoundedMemoCache.
+     * @param maxSize the maximum number of memoized results held. Must be positive.
+     */
+    public BoundedMemoCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("The maximum size of a memo cache must be positive.");
+        }
+
+        int nSegments = 1;
+        while (nSegments < MAX_SEGMENTS && maxSize / (nSegments * 2) >= MIN_SEGMENT_SIZE) {
+            nSegments *= 2;
+        }
+
+        this.maxSize = maxSize;
+        this.segments = new Segment[nSegments];
+        for (int i = 0; i < nSegments; ++i) {
+            //distribute the remainder so that the capacities sum to exactly maxSize
+            segments[i] = new Segment(maxSize / nSegments + (i < maxSize % nSegments ? 1 : 0));
+        }
+    }
+
+    /**
+     * @param key the key. May be null.
+     * @return the segment holding the given key.
+     */
+    private Segment segmentFor(Object key) {
+        if (key == null) {
+            return segments[0];
+        }
+
+        int h = key.hashCode();
+        //spread the high bits, since the segment is chosen using the low bits
+        h ^= (h >>> 20) ^ (h >>> 12);
+        h ^= (h >>> 7) ^ (h >>> 4);
+        return segments[h & (segments.length - 1)];
+    }
+
+    /**
+     * Look up a memoized result.
+     * @param key the Java representation of the argument value. May be null.
+     * @param ifAbsent the value to return if there is no memoized result for key.
+     * @return the memoized result for key, or ifAbsent.
+     */
+    public CalValue get(Object key, CalValue ifAbsent) {
+        Segment segment = segmentFor(key);
+        CalValue value;
+        synchronized (segment) {
+            value = segment.get(key);
+        }
+
+        if (value == null) {
+            missCount.incrementAndGet();
+            return ifAbsent;
+        }
+
+        hitCount.incrementAndGet();
+        return value;
+    }
+
+    /**
+     * Memoize a result, unless a result for the same key has been memoized since it was looked up.
+     * @param key the Java representation of the argument value. May be null.
+     * @param value the result.
+     * @return the result now memoized for key. This is value, unless a result was already present.
+     */
+    public CalValue putIfAbsent(Object key, CalValue value) {
+        if (value == null) {
+            throw new NullPointerException("The argument 'value' cannot be null.");
+        }
+
+        Segment segment = segmentFor(key);
+        synchronized (segment) {
+            CalValue existing = segment.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            segment.put(key, value);
+            return value;
+        }
+    }
+
+    /**
+     * Discard all memoized results. The counts are not reset.
+     */
+    public void clear() {
+        for (final Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * @return the number of memoized results currently held.
+     */
+    public int getSize() {
+        int size = 0;
+        for (final Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return the maximum number of memoized results held.
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * @return the number of lookups that found a memoized result.
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * @return the number of lookups that did not find a memoized result.
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * @return the number of memoized results discarded to keep the cache within its maximum size.
+     */
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "BoundedMemoCache (size = " + getSize() + " of " + maxSize + ", hits = " + getHitCount()
+            + ", misses = " + getMissCount() + ", evictions = " + getEvictionCount() + ")";
+    }
+}
@@ -393,6 +393,19 @@ public abstract class ExecutionContextImpl extends ExecutionContext {
         return runtimeEnvironment.getForeignClass(qualifiedTypeConsName, foreignName);
     }
 
+    /**
+     * Creates a spark for the given CAL value i.e. a hint that the value may profitably be evaluated to
+     * weak-head normal form in parallel. This function is referenced by Cal.Core.System.spark.
+     * <p>
+     * Machines that do not support concurrent evaluation on a single execution context simply drop the spark,
+     * which is what this default implementation does.
+     * 
+     * @param value the CAL value (typically unevaluated) to be evaluated in parallel.
+     */
+    public void spark(Object value) {
+        //sparks are only hints, so dropping them is always safe.
+    }
+
     /**
      * Registers a cleanup hook to be run whenever the execution context is cleaned up
      * (explicitly via cleanup() or Program.resetCachedResults()).
@@ -67,12 +67,13 @@ public final class LECCMachineConfiguration {
     public static final String OUTPUT_DIR_PROP = "org.openquark.cal.machine.lecc.output_directory";
     public static final String BYTECODE_SPACE_OPTIMIZATION_PROP = "org.openquark.cal.machine.lecc.bytecode_space_optimization";
     public static final String SOURCE_CODE_SPACE_OPTIMIZATION_PROP = "org.openquark.cal.machine.lecc.source_code_space_optimization";
+    public static final String BYTECODE_CACHE_DIR_PROP = "org.openquark.cal.machine.lecc.bytecode_cache_directory";
 
     /** Version of code generation schemas.
      *  Changing this value will force all existing
      *  generated sources to be re-generated.
      */
-    public static final int CODEGEN_VERSION = 1612;
+    public static final int CODEGEN_VERSION = 1616;
 
     /** Whether to directly generate bytecode, or go to source first. */
     private static final boolean GEN_BYTECODE = System.getProperty(GEN_BYTECODE_PROP) == null;
@@ -169,6 +170,12 @@ public final class LECCMachineConfiguration {
      */
     private static final boolean SOURCE_CODE_SPACE_OPTIMIZATION = System.getProperty(SOURCE_CODE_SPACE_OPTIMIZATION_PROP) != null;
 
+    /**
+     * The directory holding the shared cache of generated bytecode, or null if the cache is not used.
+     * This only has an effect if the runtime is not static.
+     */
+    private static final String BYTECODE_CACHE_DIRECTORY = System.getProperty(BYTECODE_CACHE_DIR_PROP);
+
     /**
      * The different lazy body functions for the supercombinators (f, fLn) simply refer to the strict body fSn.
      */
@@ -222,6 +229,25 @@ public final class LECCMachineConfiguration {
      */
     public static final boolean OPTIMIZE_GENERAL_APP_CHAINS = true;
 
+    /**
+     * Turns on compilation of mutual tail calls between the functions of a strongly
+     * connected component into a single loop method shared by those functions.
+     */
+    public static final boolean MUTUAL_TAIL_CALL_LOOPS = true;
+
+    /**
+     * Generate and call function bodies which return the fields of a tuple or record result
+     * through the result slots of the execution context, rather than allocating the record.
+     * This is used when the result of a call is immediately taken apart by a record case.
+     */
+    public static final boolean DIRECT_RECORD_RETURNS = true;
+
+    /**
+     * The maximum number of fields in a tuple or record result which can be returned
+     * through the result slots of the execution context.
+     */
+    public static final int MAX_DIRECT_RECORD_RETURN_FIELDS = 4;
+
     /**
      * Treat the data constructors in an 'enumeration' data type as ints.
      */
@@ -342,10 +368,19 @@ public final class LECCMachineConfiguration {
      * <ol>
      *   <li> access to CAFs is synchronized (this holds true even without this flag on)
      *   <li> The rootNode, held by the execution context, is held in thread local storage
-     *   <li> RTValue.evaluate and reduce methods are synchronized in RTResultFunction subclasses.
+     *   <li> RTValue.evaluate and reduce methods on RTResultFunction subclasses claim the node for the evaluating thread
+     *        with a compare-and-set rather than a monitor. Other threads demanding a claimed node park until it is released.
      * </ol>
      */
     public static boolean concurrentRuntime() {
         return CONCURRENT_RUNTIME;
     }
+
+    /**
+     * @return the directory holding the cache of generated bytecode shared between workspaces and processes,
+     * or null if the cache is not used.
+     */
+    public static String bytecodeCacheDirectory() {
+        return BYTECODE_CACHE_DIRECTORY;
+    }
 }
@@ -38,16 +38,13 @@
 
 package org.openquark.cal.internal.runtime.lecc;
 
-import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.atomic.AtomicInteger;
 
-import org.openquark.cal.compiler.ModuleName;
 import org.openquark.cal.compiler.QualifiedName;
 import org.openquark.cal.internal.runtime.ExecutionContextImpl;
 import org.openquark.cal.internal.runtime.RuntimeEnvironment;
+import org.openquark.cal.runtime.CALExecutorException;
+import org.openquark.cal.runtime.Cleanable;
 import org.openquark.cal.runtime.ExecutionContextProperties;
 
 
@@ -64,15 +61,9 @@ public final class RTExecutionContext extends ExecutionContextImpl {
 
 
     // Some member/methods used for collecting runtime statistics.
-    //Since the execution context can be accessed by multiple threads while executing in concurrency enabled mode, 
-    //these must be synchronized.
-    private final AtomicInteger nReductions = new AtomicInteger(-1);
-    private final AtomicInteger nMethodCalls = new AtomicInteger(-1);
-    private final AtomicInteger nDataTypeInstances = new AtomicInteger(-1);          
-    //use ConcurretMap/AtomicInteger to get synchronization + efficient creation of count objects
-    private final ConcurrentMap<QualifiedName, AtomicInteger> callCounts = new ConcurrentHashMap<QualifiedName, AtomicInteger>(); 
-    private final ConcurrentMap<QualifiedName, AtomicInteger> dcConstructorCounts = new ConcurrentHashMap<QualifiedName, AtomicInteger>();
-    private final ConcurrentMap<QualifiedName, AtomicInteger> dcFunctionCounts = new ConcurrentHashMap<QualifiedName, AtomicInteger>();
+    //Since the execution context can be accessed by multiple threads while executing in concurrency enabled mode,
+    //the counters are sharded by thread. They are replaced, rather than cleared, when the context is reset.
+    private volatile RTStatisticsCounters statisticsCounters = new RTStatisticsCounters();
 
     /**
      * Used by the client to tell the executor to stop prematurely.
@@ -92,6 +83,28 @@ public final class RTExecutionContext extends ExecutionContextImpl {
     /** Interval at which the actual volatile boolean quit flag is accessed. */
     private static final int CHECK_QUIT_INTERVAL = 20;
 
+    /**
+     * The pool used to evaluate sparks created by the program when running with the concurrent runtime.
+     * Lazily created by getSparkPool() since most programs never create a spark, and shut down when the
+     * execution context is cleaned up.
+     */
+    private volatile RTSparkPool sparkPool;
+
+    /**
+     * The slots used by the fRecord methods of functions which return a tuple or record to pass the
+     * field values back to the caller, in field name order, without allocating the record.
+     * The caller takes the values out of the slots immediately after the call returns.
+     * When running with the concurrent runtime the execution context is shared by the threads
+     * evaluating sparks, so each thread gets its own slots.
+     */
+    private final RTValue[] recordResultSlots = new RTValue[LECCMachineConfiguration.MAX_DIRECT_RECORD_RETURN_FIELDS];
+    private final ThreadLocal<RTValue[]> threadRecordResultSlots = new ThreadLocal<RTValue[]>() {
+        @Override
+        protected RTValue[] initialValue() {
+            return new RTValue[LECCMachineConfiguration.MAX_DIRECT_RECORD_RETURN_FIELDS];
+        }
+    };
+
 
     /**
      * Constructs an instance of this class with the specified properties.
@@ -135,89 +148,204 @@ public final class RTExecutionContext extends ExecutionContextImpl {
         return false;
     }
 
+    /**
+     * Returns the spark pool for this execution context, creating it if necessary. The spark pool is only
+     * used to evaluate sparks in parallel when the concurrent runtime is enabled.
+     * A new spark pool is shut down when the execution context is next cleaned up.
+     * @return the spark pool for this execution context.
+     */
+    public RTSparkPool getSparkPool() {
+        RTSparkPool pool = sparkPool;
+        if (pool == null) {
+            boolean created = false;
+            synchronized (this) {
+                pool = sparkPool;
+                if (pool == null) {
+                    sparkPool = pool = new RTSparkPool(this);
+                    created = true;
+                }
+            }
+
+            //registered outside the lock on this, since cleanup holds the lock on the cleanables while it runs them
+            if (created) {
+                final RTSparkPool newPool = pool;
+                registerCleanable(new Cleanable() {
+                    public void cleanup() {
+                        shutdownSparkPool(newPool);
+                    }
+                });
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * Shuts down the given spark pool, so that its worker threads are retired. If it is the current spark pool of
+     * this execution context, the next spark creates a new pool.
+     * @param pool a spark pool created by this execution context.
+     */
+    private void shutdownSparkPool(RTSparkPool pool) {
+        synchronized (this) {
+            if (sparkPool == pool) {
+                sparkPool = null;
+            }
+        }
+        pool.shutdown();
+    }
+
+    /**
+     * Rethrows the failure of a spark for the given node, if the node was evaluated for a spark and the
+     * evaluation failed. Only used in the concurrent runtime.
+     * @param node an unevaluated node whose value is being demanded.
+     * @throws CALExecutorException the failure of the spark for the node, if any.
+     */
+    void rethrowSparkFailure(RTResultFunction node) throws CALExecutorException {
+        final RTSparkPool pool = sparkPool;
+        if (pool != null) {
+            pool.rethrowSparkFailure(node);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * The spark is evaluated using the spark pool of this execution context if the concurrent runtime is
+     * enabled, and is dropped otherwise.
+     */
+    @Override
+    public void spark(Object value) {
+        if (LECCMachineConfiguration.concurrentRuntime() && value instanceof RTValue) {
+            getSparkPool().spark((RTValue)value);
+        }
+    }
+
+    /**
+     * @return the record result slots for the current thread.
+     */
+    private RTValue[] getRecordResultSlots() {
+        if (LECCMachineConfiguration.concurrentRuntime()) {
+            return threadRecordResultSlots.get();
+        }
+        return recordResultSlots;
+    }
+
+    /*
+     * Methods used by the fRecord methods to return the field values of a tuple or record.
+     * The returned array is the result slots of the current thread.
+     */
+    public final RTValue[] recordResult(RTValue value0, RTValue value1) {
+        RTValue[] slots = getRecordResultSlots();
+        slots[0] = value0;
+        slots[1] = value1;
+        return slots;
+    }
+    public final RTValue[] recordResult(RTValue value0, RTValue value1, RTValue value2) {
+        RTValue[] slots = getRecordResultSlots();
+        slots[0] = value0;
+        slots[1] = value1;
+        slots[2] = value2;
+        return slots;
+    }
+    public final RTValue[] recordResult(RTValue value0, RTValue value1, RTValue value2, RTValue value3) {
+        RTValue[] slots = getRecordResultSlots();
+        slots[0] = value0;
+        slots[1] = value1;
+        slots[2] = value2;
+        slots[3] = value3;
+        return slots;
+    }
+
+    /**
+     * Evaluate a record value and return its field values through the result slots of the current thread.
+     * This is used by the fRecord methods when the function body does not directly build the record.
+     * @param record a value which evaluates to a record with nFields fields.
+     * @param nFields the number of fields in the record.
+     * @return the result slots, holding the field values in field name order.
+     * @throws CALExecutorException
+     */
+    public final RTValue[] recordResultFromRecord(RTValue record, int nFields) throws CALExecutorException {
+        RTRecordValue recordValue = (RTRecordValue)record.evaluate(this);
+        RTValue[] slots = getRecordResultSlots();
+        for (int i = 0; i < nFields; ++i) {
+            slots[i] = recordValue.getNthValue(i);
+        }
+        return slots;
+    }
+
     /*
      * Some methods used to track runtime statistics.
      */
     public final void incrementNReductions(){
-        nReductions.incrementAndGet();        
+        statisticsCounters.incrementNReductions();
     }
     public final void incrementNMethodCalls(){
-        nMethodCalls.incrementAndGet();
+        statisticsCounters.incrementNMethodCalls();
     }
     public final void incrementNDataTypeInstances(){
-        nDataTypeInstances.incrementAndGet();
+        statisticsCounters.incrementNDataTypeInstances();
+    }
+
+    /**
+     * Count a call of a supercombinator.
+     * @param counterSlot the counter slot of the supercombinator, from {@link RTStatisticsCounters#getCounterSlot}.
+     */
+    public final void scCalled (int counterSlot) {
+        statisticsCounters.scCalled(counterSlot);
+    }
+    public final void dcConstructorCalled (int counterSlot) {
+        statisticsCounters.dcConstructorCalled(counterSlot);
+    }
+    public final void dcFunctionCalled (int counterSlot) {
+        statisticsCounters.dcFunctionCalled(counterSlot);
     }
 
+    /*
+     * Counting by name is slower than counting by slot, but is kept for code generated before counter slots.
+     */
     public final void scCalled (String moduleName, String unqualifiedName) {
-        incrementCounts(moduleName, unqualifiedName, callCounts);         
+        scCalled(RTStatisticsCounters.getCounterSlot(moduleName, unqualifiedName));
     }
     public final void dcConstructorCalled (String moduleName, String unqualifiedName) {
-        incrementCounts(moduleName, unqualifiedName, dcConstructorCounts);      
+        dcConstructorCalled(RTStatisticsCounters.getCounterSlot(moduleName, unqualifiedName));
     }
     public final void dcFunctionCalled (String moduleName, String unqualifiedName) {
-        incrementCounts(moduleName, unqualifiedName, dcFunctionCounts);        
-    }
-    private static void incrementCounts(
-            final String moduleName,
-            final String unqualifiedName,
-            final ConcurrentMap<QualifiedName, AtomicInteger> countsMap) {
-        
-        final QualifiedName qualifiedName = QualifiedName.make(ModuleName.make(moduleName), unqualifiedName);
-        AtomicInteger callCount = countsMap.get(qualifiedName);
-        if (callCount != null) {
-            callCount.incrementAndGet();
-        } else {
-            callCount = countsMap.putIfAbsent(qualifiedName, new AtomicInteger(1));
-            if (callCount != null) {
-                callCount.incrementAndGet();
-            }
-        }      
+        dcFunctionCalled(RTStatisticsCounters.getCounterSlot(moduleName, unqualifiedName));
     }
-    
+
     /**
      * @return Returns the nReductions.
      */
     public final int getNReductions() {
-        return nReductions.get();
+        return statisticsCounters.getNReductions();
     }
     /**
      * @return Returns the nMethodCalls.
      */
     public final int getNMethodCalls() {
-        return nMethodCalls.get();
+        return statisticsCounters.getNMethodCalls();
     }
     /**
      * @return Returns the nDataTypeInstances.
      */
     public final int getNDataTypeInstances() {
-        return nDataTypeInstances.get();
+        return statisticsCounters.getNDataTypeInstances();
     }
     /**
      * @return Returns the callCounts. This is a copy and can be freely modified.
      */
     public final Map<QualifiedName, Integer> getCallCounts() {
-        return copyMap(callCounts);        
+        return statisticsCounters.getCallCounts();
     }
     /**
      * @return Returns the dcConstructorCounts. This is a copy and can be freely modified.
      */
     public final Map<QualifiedName, Integer> getDcConstructorCounts() {
-        return copyMap(dcConstructorCounts);        
+        return statisticsCounters.getDcConstructorCounts();
     }
     /**
      * @return Returns the dcFunctionCounts. This is a copy and can be freely modified.
      */
     public final Map<QualifiedName, Integer> getDcFunctionCounts() {
-        return copyMap(dcFunctionCounts);
-    }
-    
-    private static Map<QualifiedName, Integer> copyMap(ConcurrentMap<QualifiedName, AtomicInteger> map) {
-        Map<QualifiedName, Integer> result = new HashMap<QualifiedName, Integer>();
-        for (Map.Entry<QualifiedName, AtomicInteger> entry : map.entrySet()) {
-            result.put(entry.getKey(), entry.getValue().intValue());
-        }
-        
-        return result;
+        return statisticsCounters.getDcFunctionCounts();
     }
 
     /**
@@ -229,12 +357,7 @@ public final class RTExecutionContext extends ExecutionContextImpl {
             throw new NullPointerException("Invalid RuntimeEnvironment reference in RTExecutionContext.");
         }       
 
-        nReductions.set(-1);
-        nMethodCalls.set(-1);
-        nDataTypeInstances.set(-1);
-        callCounts.clear();
-        dcConstructorCounts.clear();
-        dcFunctionCounts.clear();
+        statisticsCounters = new RTStatisticsCounters();
         continueAction = ACTION_CONTINUE;
         setRuntimeEnvironment(newRuntimeEnvironment);
     }
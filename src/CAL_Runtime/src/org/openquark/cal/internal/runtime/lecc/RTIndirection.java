@@ -90,14 +90,22 @@ public class RTIndirection extends RTResultFunction {
     @Override
     public final RTValue evaluate(RTExecutionContext ec) throws CALExecutorException {
        if (LECCMachineConfiguration.concurrentRuntime()) {
-           return synchronizedEvaluate(ec);
+           return concurrentEvaluate(ec);
        } 
        
        return unsynchronizedEvaluate(ec);             
     }
     
-    synchronized private final RTValue synchronizedEvaluate(RTExecutionContext ec) throws CALExecutorException {
-        return unsynchronizedEvaluate(ec);
+    private final RTValue concurrentEvaluate(RTExecutionContext ec) throws CALExecutorException {
+        if (!claim()) {
+            return unsynchronizedEvaluate(ec);
+        }
+
+        try {
+            return unsynchronizedEvaluate(ec);
+        } finally {
+            release();
+        }
     }
 
     private final RTValue unsynchronizedEvaluate(RTExecutionContext ec) throws CALExecutorException {
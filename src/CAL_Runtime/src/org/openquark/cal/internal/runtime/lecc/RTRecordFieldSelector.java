@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2007 BUSINESS OBJECTS SOFTWARE LIMITED
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *  
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *  
+ *     * Neither the name of Business Objects nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+/*
+ * RTRecordFieldSelector.java
+ * Created: Oct 18, 2026
+ */
+
+package org.openquark.cal.internal.runtime.lecc;
+
+
+/**
+ * An inline cache for the selection of a textual field from record values.
+ * <p>
+ * The generated code creates one selector for each place (call site) in which it selects a textual field,
+ * and holds it in a static field of the generated class. For example, for the CAL code recordExpr.fieldName
+ * the generated code is (roughly)
+ * <pre>
+ * $recordSelector1_fieldName.select((RTRecordValue)codeForRecordExpr.evaluate($ec))
+ * </pre>
+ * The selector remembers the {@link RTRecordShape shape} of the last record it selected from, and the slot of the
+ * field in that shape. Most selections are from records of the same shape as the previous selection at that
+ * call site, and so are resolved by an identity comparison of shapes followed by an array access,
+ * without comparing any field names.
+ * <p>
+ * A call site that selects from records of many different shapes stops updating its cache after a number of
+ * misses, and simply looks up the field in each record.
+ * <p>
+ * Selectors are safe to use from multiple threads. The cache is an immutable (shape, slot) pair, so a thread
+ * reading a stale or racing cache entry will at worst miss the cache.
+ * 
+ * @see RTRecordShape
+ */
+public final class RTRecordFieldSelector {
+    
+    /** The number of cache misses after which the call site is considered to be megamorphic. */
+    static final int MAX_CACHE_MISSES = 32;
+    
+    /** The textual field name selected by this selector. */
+    private final String textualFieldName;
+    
+    /** The shape of the last record selected from, and the slot of the field in that shape. May be null. */
+    private CacheEntry cacheEntry;
+    
+    /** The number of times the cache has missed. Not synchronized, since it only needs to be approximate. */
+    private int nCacheMisses;
+    
+    /**
+     * An immutable (shape, slot) pair.
+     */
+    private static final class CacheEntry {
+        
+        private final RTRecordShape shape;
+        private final int slot;
+        
+        CacheEntry(RTRecordShape shape, int slot) {
+            this.shape = shape;
+            this.slot = slot;
+        }
+    }
+    
+    /**
+     * @param textualFieldName the textual field name selected by this selector.
+     */
+    public RTRecordFieldSelector(String textualFieldName) {
+        if (textualFieldName == null) {
+            throw new NullPointerException("The argument 'textualFieldName' cannot be null.");
+        }
+        
+        this.textualFieldName = textualFieldName;
+    }
+    
+    /**
+     * Selects the value of the textual field from the given record value.
+     * This is equivalent to recordValue.getTextualFieldValue(textualFieldName).
+     * 
+     * @param recordValue a record value having the textual field.
+     * @return the value of the textual field, with indirection chains removed.
+     */
+    public RTValue select(RTRecordValue recordValue) {
+        
+        RTRecordShape shape = recordValue.getTextualShape();
+        
+        CacheEntry entry = cacheEntry;
+        if (entry != null && entry.shape == shape) {
+            return recordValue.getNthTextualValue(entry.slot);
+        }
+        
+        int slot = shape.indexOf(textualFieldName);
+        if (nCacheMisses < MAX_CACHE_MISSES) {
+            ++nCacheMisses;
+            cacheEntry = new CacheEntry(shape, slot);
+        }
+        
+        return recordValue.getNthTextualValue(slot);
+    }
+    
+    /**
+     * @return the textual field name selected by this selector.
+     */
+    public String getTextualFieldName() {
+        return textualFieldName;
+    }
+
+    /**
+     * @return true if this call site has missed the cache often enough that it no longer updates the cache.
+     */
+    boolean isMegamorphic() {
+        return nCacheMisses >= MAX_CACHE_MISSES;
+    }
+}
@@ -110,11 +110,20 @@ public abstract class RTRecordSelection extends RTResultFunction {
     public final static class Textual extends RTRecordSelection {
 
         private String textualFieldName;
+        
+        /** the inline cache of the call site creating this selection. May be null. */
+        private RTRecordFieldSelector selector;
 
         public Textual(RTValue recordExpr, String textualFieldName) {
             super(recordExpr);
             this.textualFieldName = textualFieldName;
         }
+        
+        public Textual(RTValue recordExpr, RTRecordFieldSelector selector) {
+            super(recordExpr);
+            this.textualFieldName = selector.getTextualFieldName();
+            this.selector = selector;
+        }
 
         /*
          * (non-Javadoc)
@@ -126,7 +135,12 @@ public abstract class RTRecordSelection extends RTResultFunction {
 
             // Update and return result
             if (super.recordExpr != null) {
-                setResult(((RTRecordValue) super.recordExpr.evaluate(ec)).getTextualFieldValue(textualFieldName));
+                RTRecordValue recordValue = (RTRecordValue) super.recordExpr.evaluate(ec);
+                if (selector != null) {
+                    setResult(selector.select(recordValue));
+                } else {
+                    setResult(recordValue.getTextualFieldValue(textualFieldName));
+                }
                 clearMembers();
                 if (result == null) {
                     throw new NullPointerException ("Invalid reduction state in record selection.  This is probably caused by a circular record definition.");
@@ -144,6 +158,7 @@ public abstract class RTRecordSelection extends RTResultFunction {
         public void clearMembers() {
             super.recordExpr = null;
             textualFieldName = null;
+            selector = null;
         }
         
         /**
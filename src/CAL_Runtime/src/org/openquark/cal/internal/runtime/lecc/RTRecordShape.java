@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2007 BUSINESS OBJECTS SOFTWARE LIMITED
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *  
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *  
+ *     * Neither the name of Business Objects nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+/*
+ * RTRecordShape.java
+ * Created: Oct 18, 2026
+ */
+
+package org.openquark.cal.internal.runtime.lecc;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+
+/**
+ * The shape of the textual part of a record value i.e. its textual field names, in ascending alphabetical order.
+ * <p>
+ * Shapes are interned, so that all record values having the same textual field names share a single shape
+ * object (and a single textual field names array). This means that two record values can be checked for having
+ * the same textual fields by an identity comparison of their shapes, and that the slot of a textual field
+ * within the textual values of a record depends only on the shape of the record. {@link RTRecordFieldSelector}
+ * uses this to resolve a field selection to a slot once per call site, rather than searching the field names on
+ * each selection.
+ * <p>
+ * The number of interned shapes is bounded. Once the bound is reached, new shapes are created without being
+ * interned. Such shapes are correct, but do not benefit from identity comparisons or inline caching.
+ * <p>
+ * The generated code holds the shape of each record literal having textual fields in a static field of the
+ * generated class, so that creating the record does not need to look up its shape.
+ * 
+ * @see RTRecordFieldSelector
+ */
+public final class RTRecordShape {
+
+    /** The maximum number of shapes that will be interned. */
+    static final int MAX_INTERNED_SHAPES = 16384;
+    
+    /** The number of textual fields below which field names are searched linearly, comparing by identity first. */
+    static final int LINEAR_SEARCH_LIMIT = 8;
+    
+    /** The shape of records having no textual fields. */
+    static final RTRecordShape EMPTY = new RTRecordShape(new String[0]);
+    
+    /** The interned shapes, keyed by their textual field names. */
+    private static final ConcurrentMap<Key, RTRecordShape> internedShapes = new ConcurrentHashMap<Key, RTRecordShape>();
+    
+    /** the textual field names of the shape, in ascending alphabetical order. This array must not be modified. */
+    private final String[] textualNames;
+    
+    /**
+     * A key for looking up an interned shape from an array of textual field names, without copying the array.
+     * The array of a key used for a lookup may be modified afterwards, so the keys stored in the interned shapes map
+     * always hold the (unmodifiable) textual names array of their shape.
+     */
+    private static final class Key {
+        
+        private final String[] textualNames;
+        private final int hashCode;
+        
+        Key(String[] textualNames) {
+            this.textualNames = textualNames;
+            
+            int hash = 1;
+            for (int i = 0, n = textualNames.length; i < n; ++i) {
+                hash = 31 * hash + textualNames[i].hashCode();
+            }
+            this.hashCode = hash;
+        }
+        
+        /** {@inheritDoc} */
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+        
+        /** {@inheritDoc} */
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            
+            Key otherKey = (Key)other;
+            if (hashCode != otherKey.hashCode) {
+                return false;
+            }
+            
+            String[] otherNames = otherKey.textualNames;
+            int nNames = textualNames.length;
+            if (nNames != otherNames.length) {
+                return false;
+            }
+            
+            for (int i = 0; i < nNames; ++i) {
+                // field names are usually String literals, and so can usually be compared by identity.
+                String name = textualNames[i];
+                String otherName = otherNames[i];
+                if (name != otherName && !name.equals(otherName)) {
+                    return false;
+                }
+            }
+            
+            return true;
+        }
+    }
+    
+    private RTRecordShape(String[] textualNames) {
+        this.textualNames = textualNames;
+    }
+    
+    /**
+     * Returns the shape having the given textual field names.
+     * @param textualNames the textual field names, in ascending alphabetical order. This array is not retained,
+     *     and so may be modified by the caller afterwards.
+     * @return the shape having the given textual field names. This is the interned shape, unless the bound on
+     *     the number of interned shapes has been reached.
+     */
+    public static RTRecordShape make(String[] textualNames) {
+        
+        if (textualNames.length == 0) {
+            return EMPTY;
+        }
+        
+        RTRecordShape shape = internedShapes.get(new Key(textualNames));
+        if (shape != null) {
+            return shape;
+        }
+        
+        String[] shapeNames = textualNames.clone();
+        shape = new RTRecordShape(shapeNames);
+        
+        if (internedShapes.size() >= MAX_INTERNED_SHAPES) {
+            return shape;
+        }
+        
+        RTRecordShape existingShape = internedShapes.putIfAbsent(new Key(shapeNames), shape);
+        if (existingShape != null) {
+            return existingShape;
+        }
+        
+        return shape;
+    }
+    
+    /**
+     * @return the textual field names of this shape, in ascending alphabetical order. The returned array is shared
+     *     by all the record values of this shape, and must not be modified.
+     */
+    String[] getTextualNames() {
+        return textualNames;
+    }
+    
+    /**
+     * @return the number of textual fields of this shape.
+     */
+    int getNTextualFields() {
+        return textualNames.length;
+    }
+    
+    /**
+     * Returns the slot of the given textual field name i.e. its index within the textual field names (and values)
+     * of the record values of this shape.
+     * @param textualFieldName
+     * @return the slot of the field, or a negative value if this shape does not have the field. 
+     */
+    int indexOf(String textualFieldName) {
+        
+        String[] names = textualNames;
+        int nNames = names.length;
+        
+        if (nNames <= LINEAR_SEARCH_LIMIT) {
+            // field names are usually String literals, so for small records an identity scan will usually
+            // find the field without any String comparisons.
+            for (int i = 0; i < nNames; ++i) {
+                if (names[i] == textualFieldName) {
+                    return i;
+                }
+            }
+        }
+        
+        return Arrays.binarySearch(names, textualFieldName);
+    }
+    
+    /**
+     * @return the number of shapes that are currently interned.
+     */
+    static int getNInternedShapes() {
+        return internedShapes.size();
+    }
+    
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return "RTRecordShape " + Arrays.asList(textualNames);
+    }
+}
@@ -65,6 +65,9 @@ import org.openquark.cal.runtime.CalValue;
  *  are stored as arrays with O(1) access to the ordinal fields, and no storage for ordinal field names.
  * -even if a record's ordinal part is not of tuple form, the field names are stored as unboxed ints.
  * -storage for records is space efficient.
+ * -the textual field names are held by an interned RTRecordShape, which is shared by all records having
+ *  the same textual fields. Textual field selection in generated code goes through an RTRecordFieldSelector,
+ *  which caches the slot of the field for the shape last selected from.
  * 
  * @author Bo Ilic
  */
@@ -261,6 +264,11 @@ public abstract class RTRecordValue extends RTValue implements RecordType {
         }
         
         /** {@inheritDoc} */
+        @Override
+        RTRecordShape getTextualShape() {
+            return RTRecordShape.EMPTY;
+        }
+
         @Override
         public RTValue getTextualFieldValue(String textualFieldName) {
             throw new UnsupportedOperationException();            
@@ -524,6 +532,11 @@ public abstract class RTRecordValue extends RTValue implements RecordType {
             return new TupleRecord(newOrdinalValues);
         }        
                         
+        @Override
+        RTRecordShape getTextualShape() {
+            return RTRecordShape.EMPTY;
+        }
+
         @Override
         public RTValue getTextualFieldValue(String textualFieldName) {
             throw new UnsupportedOperationException();            
@@ -905,6 +918,11 @@ public abstract class RTRecordValue extends RTValue implements RecordType {
             return new OrdinalRecord(this.ordinalNames, newOrdinalValues);
         }          
         
+        @Override
+        RTRecordShape getTextualShape() {
+            return RTRecordShape.EMPTY;
+        }
+
         @Override
         public RTValue getTextualFieldValue(String textualFieldName) {
             throw new UnsupportedOperationException();            
@@ -1216,6 +1234,9 @@ public abstract class RTRecordValue extends RTValue implements RecordType {
         
         /** the textual field names of the record, in ascending alphabetical order. Will have positive length. */
         private final String[] textualNames;   
+
+        /** the interned shape of the textual part of the record. Its textual names are textualNames. */
+        private final RTRecordShape textualShape;
         
         /** 
          * the ith element of textualValues is the field value corresponding to the textual field name
@@ -1224,11 +1245,16 @@ public abstract class RTRecordValue extends RTValue implements RecordType {
         private final RTValue[] textualValues;
         
         private TextualRecord(String[] textualNames, RTValue[] textualValues) {
+            this(RTRecordShape.make(textualNames), textualValues);
+        }
+
+        private TextualRecord(RTRecordShape textualShape, RTValue[] textualValues) {
             
-            assert RTRecordValue.verifyTextualData(textualNames, textualValues) :
+            assert RTRecordValue.verifyTextualData(textualShape.getTextualNames(), textualValues) :
                 "Invalid textual data in TextualRecord constructor.";
             
-            this.textualNames = textualNames;
+            this.textualShape = textualShape;
+            this.textualNames = textualShape.getTextualNames();
             this.textualValues = textualValues;
         }
         
@@ -1237,12 +1263,17 @@ public abstract class RTRecordValue extends RTValue implements RecordType {
             assert (ordinalValues == null) :
                 "Illegal argument in TextualRecord.makeFromValues.";
             
-            return new TextualRecord(this.textualNames, newTextualValues);
+            return new TextualRecord(textualShape, newTextualValues);
         }         
         
+        @Override
+        RTRecordShape getTextualShape() {
+            return textualShape;
+        }
+
         @Override
         public RTValue getTextualFieldValue(String textualFieldName) {
-            int index = Arrays.binarySearch(textualNames, textualFieldName);
+            int index = textualShape.indexOf(textualFieldName);
             
             // Update value to remove indirection chains.
             RTValue textualValue  = textualValues[index];
@@ -1287,12 +1318,12 @@ public abstract class RTRecordValue extends RTValue implements RecordType {
                               
         @Override
         public boolean hasTextualField(String textualFieldName) {
-            return Arrays.binarySearch(textualNames, textualFieldName) >= 0;      
+            return textualShape.indexOf(textualFieldName) >= 0;      
         }
         
         @Override
         public int indexOfField(String fieldName) {
-            int index = Arrays.binarySearch(textualNames, fieldName); 
+            int index = textualShape.indexOf(fieldName); 
             if(index < 0) {
                 return -1;
             }
@@ -1423,7 +1454,7 @@ public abstract class RTRecordValue extends RTValue implements RecordType {
             
             TextualRecord otherTextualRecord = (TextualRecord)otherRecordType;
 
-            return Arrays.equals(otherTextualRecord.textualNames, textualNames);            
+            return otherTextualRecord.textualShape == textualShape || Arrays.equals(otherTextualRecord.textualNames, textualNames);            
         }
         
         /** {@inheritDoc} */
@@ -1444,10 +1475,10 @@ public abstract class RTRecordValue extends RTValue implements RecordType {
         /** {@inheritDoc} */
         @Override
         public RTRecordValue updateTextualField(String textualFieldName, RTValue fieldValue) {            
-            int index = Arrays.binarySearch(textualNames, textualFieldName);
+            int index = textualShape.indexOf(textualFieldName);
             RTValue[] newTextualValues = textualValues.clone();
             newTextualValues[index] = fieldValue;            
-            return new TextualRecord(textualNames, newTextualValues);           
+            return new TextualRecord(textualShape, newTextualValues);           
         }
         
         /** {@inheritDoc} */
@@ -1459,7 +1490,7 @@ public abstract class RTRecordValue extends RTValue implements RecordType {
         /** {@inheritDoc} */
         @Override
         public RTRecordValue mutateTextualField(String textualFieldName, RTValue fieldValue) {            
-            int index = Arrays.binarySearch(textualNames, textualFieldName);           
+            int index = textualShape.indexOf(textualFieldName);           
             textualValues[index] = fieldValue;            
             return this;           
         }        
@@ -1491,7 +1522,7 @@ public abstract class RTRecordValue extends RTValue implements RecordType {
                 newTextualValues[i] = getNthTextualValue(i).apply(argument);
             }
             
-            return new TextualRecord(this.textualNames, newTextualValues);                  
+            return new TextualRecord(textualShape, newTextualValues);                  
         }        
         
         /**
@@ -1531,6 +1562,9 @@ public abstract class RTRecordValue extends RTValue implements RecordType {
          * order. Will have positive length.
          */
         private final String[] textualNames;   
+
+        /** the interned shape of the textual part of the record. Its textual names are textualNames. */
+        private final RTRecordShape textualShape;
         
         /**
          * the ith element of textualValues is the field value corresponding to
@@ -1539,25 +1573,35 @@ public abstract class RTRecordValue extends RTValue implements RecordType {
         private final RTValue[] textualValues;
         
         private TupleMixedRecord(RTValue[] ordinalValues, String[] textualNames, RTValue[] textualValues) {
+            this(ordinalValues, RTRecordShape.make(textualNames), textualValues);
+        }
+
+        private TupleMixedRecord(RTValue[] ordinalValues, RTRecordShape textualShape, RTValue[] textualValues) {
             
             assert RTRecordValue.verifyTupleData(ordinalValues) :
                 "Invalid tuple data in TupleMixedRecord constructor.";
-            assert RTRecordValue.verifyTextualData(textualNames, textualValues) :
+            assert RTRecordValue.verifyTextualData(textualShape.getTextualNames(), textualValues) :
                 "Invalid textual data in TupleMixedRecord constructor.";
             
             this.ordinalValues = ordinalValues;
-            this.textualNames = textualNames;
+            this.textualShape = textualShape;
+            this.textualNames = textualShape.getTextualNames();
             this.textualValues = textualValues;
         }
         
         @Override
         public RTRecordValue makeFromValues(RTValue[] newOrdinalValues, RTValue[] newTextualValues) {           
-            return new TupleMixedRecord(newOrdinalValues, this.textualNames, newTextualValues);
+            return new TupleMixedRecord(newOrdinalValues, textualShape, newTextualValues);
         }          
         
+        @Override
+        RTRecordShape getTextualShape() {
+            return textualShape;
+        }
+
         @Override
         public RTValue getTextualFieldValue(String textualFieldName) {
-            int index = Arrays.binarySearch(textualNames, textualFieldName);
+            int index = textualShape.indexOf(textualFieldName);
             // Update the value to remove indirection chains.
             RTValue textualValue = textualValues[index];
             if (textualValue instanceof RTResultFunction) {
@@ -1622,7 +1666,7 @@ public abstract class RTRecordValue extends RTValue implements RecordType {
                               
         @Override
         public boolean hasTextualField(String textualFieldName) {
-            return Arrays.binarySearch(textualNames, textualFieldName) >= 0;      
+            return textualShape.indexOf(textualFieldName) >= 0;      
         }
         
         @Override
@@ -1637,7 +1681,7 @@ public abstract class RTRecordValue extends RTValue implements RecordType {
                 return ordinal - 1;
             
             } else {
-                int index = Arrays.binarySearch(textualNames, fieldName);
+                int index = textualShape.indexOf(fieldName);
                 if(index < 0) {
                     return -1;
                 }
@@ -1827,7 +1871,7 @@ public abstract class RTRecordValue extends RTValue implements RecordType {
                 return false;
             }
             
-            return Arrays.equals(otherTupleMixedRecord.textualNames, textualNames);         
+            return otherTupleMixedRecord.textualShape == textualShape || Arrays.equals(otherTupleMixedRecord.textualNames, textualNames);         
         }
         
         /** {@inheritDoc} */
@@ -1836,7 +1880,7 @@ public abstract class RTRecordValue extends RTValue implements RecordType {
             RTValue[] newOrdinalValues = ordinalValues.clone();
             newOrdinalValues[ordinal - 1] = fieldValue;
             
-            return new TupleMixedRecord(newOrdinalValues, textualNames, textualValues);           
+            return new TupleMixedRecord(newOrdinalValues, textualShape, textualValues);           
         }
         
         /** {@inheritDoc} */
@@ -1851,17 +1895,17 @@ public abstract class RTRecordValue extends RTValue implements RecordType {
             RTValue[] newTextualValues = new RTValue[textualValues.length];
             System.arraycopy(textualValues, 0, newTextualValues, 0, newTextualValues.length);
             
-            return new TupleMixedRecord(newOrdinalValues, textualNames, newTextualValues);           
+            return new TupleMixedRecord(newOrdinalValues, textualShape, newTextualValues);           
         }
                 
         /** {@inheritDoc} */
         @Override
         public RTRecordValue updateTextualField(String textualFieldName, RTValue fieldValue) {            
-            int index = Arrays.binarySearch(textualNames, textualFieldName);
+            int index = textualShape.indexOf(textualFieldName);
             RTValue[] newTextualValues = textualValues.clone();
             newTextualValues[index] = fieldValue;
 
-            return new TupleMixedRecord(ordinalValues, textualNames, newTextualValues);           
+            return new TupleMixedRecord(ordinalValues, textualShape, newTextualValues);           
         } 
         
         /** {@inheritDoc} */
@@ -1874,7 +1918,7 @@ public abstract class RTRecordValue extends RTValue implements RecordType {
         /** {@inheritDoc} */
         @Override
         public RTRecordValue mutateTextualField(String textualFieldName, RTValue fieldValue) {            
-            int index = Arrays.binarySearch(textualNames, textualFieldName);           
+            int index = textualShape.indexOf(textualFieldName);           
             textualValues[index] = fieldValue;     
             return this;           
         }         
@@ -1912,7 +1956,7 @@ public abstract class RTRecordValue extends RTValue implements RecordType {
                 newTextualValues[i] = getNthTextualValue(i).apply(argument);
             }
             
-            return new TupleMixedRecord(newOrdinalValues, this.textualNames, newTextualValues);
+            return new TupleMixedRecord(newOrdinalValues, textualShape, newTextualValues);
                   
         }        
         
@@ -1973,6 +2017,9 @@ public abstract class RTRecordValue extends RTValue implements RecordType {
          */
         private final String[] textualNames;
 
+        /** the interned shape of the textual part of the record. Its textual names are textualNames. */
+        private final RTRecordShape textualShape;
+
         /**
          * the ith element of textualValues is the field value corresponding to
          * the textual field name held at the ith element of ordinalNames.
@@ -1980,26 +2027,36 @@ public abstract class RTRecordValue extends RTValue implements RecordType {
         private final RTValue[] textualValues;
 
         private MixedRecord(int[] ordinalNames, RTValue[] ordinalValues, String[] textualNames, RTValue[] textualValues) {
+            this(ordinalNames, ordinalValues, RTRecordShape.make(textualNames), textualValues);
+        }
+
+        private MixedRecord(int[] ordinalNames, RTValue[] ordinalValues, RTRecordShape textualShape, RTValue[] textualValues) {
             
             assert RTRecordValue.verifyOrdinalData(ordinalNames, ordinalValues) :
                 "Invalid ordinal data in MixedRecord constructor.";
-            assert RTRecordValue.verifyTextualData(textualNames, textualValues) :
+            assert RTRecordValue.verifyTextualData(textualShape.getTextualNames(), textualValues) :
                 "Invalid textual data in MixedRecord constructor.";
             
             this.ordinalNames = ordinalNames;
             this.ordinalValues = ordinalValues;
-            this.textualNames = textualNames;
+            this.textualShape = textualShape;
+            this.textualNames = textualShape.getTextualNames();
             this.textualValues = textualValues;
         }
         
         @Override
         public RTRecordValue makeFromValues(RTValue[] newOrdinalValues, RTValue[] newTextualValues) {           
-            return new MixedRecord(this.ordinalNames, newOrdinalValues, this.textualNames, newTextualValues);
+            return new MixedRecord(this.ordinalNames, newOrdinalValues, textualShape, newTextualValues);
         }        
 
+        @Override
+        RTRecordShape getTextualShape() {
+            return textualShape;
+        }
+
         @Override
         public RTValue getTextualFieldValue(String textualFieldName) {
-            int index = Arrays.binarySearch(textualNames, textualFieldName);
+            int index = textualShape.indexOf(textualFieldName);
             // Update the value to remove any indirection chains.
             RTValue textualValue = textualValues[index];
             if (textualValue instanceof RTResultFunction) {
@@ -2093,7 +2150,7 @@ public abstract class RTRecordValue extends RTValue implements RecordType {
                
         @Override
         public boolean hasTextualField(String textualFieldName) {
-            return Arrays.binarySearch(textualNames, textualFieldName) >= 0;      
+            return textualShape.indexOf(textualFieldName) >= 0;      
         }
         
         @Override
@@ -2111,7 +2168,7 @@ public abstract class RTRecordValue extends RTValue implements RecordType {
                 return index;
             
             } else {
-                int index = Arrays.binarySearch(textualNames, fieldName);
+                int index = textualShape.indexOf(fieldName);
                 if(index < 0) {
                     return -1;
                 }
@@ -2299,7 +2356,7 @@ public abstract class RTRecordValue extends RTValue implements RecordType {
             MixedRecord otherMixedRecord = (MixedRecord)otherRecordType;
             
             return Arrays.equals(otherMixedRecord.ordinalNames, ordinalNames)
-                && Arrays.equals(otherMixedRecord.textualNames, textualNames);
+                && (otherMixedRecord.textualShape == textualShape || Arrays.equals(otherMixedRecord.textualNames, textualNames));
         }
         
         /** {@inheritDoc} */
@@ -2309,17 +2366,17 @@ public abstract class RTRecordValue extends RTValue implements RecordType {
             RTValue[] newOrdinalValues = ordinalValues.clone();
             newOrdinalValues[index] = fieldValue;
 
-            return new MixedRecord(ordinalNames, newOrdinalValues, textualNames, textualValues);           
+            return new MixedRecord(ordinalNames, newOrdinalValues, textualShape, textualValues);           
         }
         
         /** {@inheritDoc} */
         @Override
         public RTRecordValue updateTextualField(String textualFieldName, RTValue fieldValue) {            
-            int index = Arrays.binarySearch(textualNames, textualFieldName);
+            int index = textualShape.indexOf(textualFieldName);
             RTValue[] newTextualValues = textualValues.clone();
             newTextualValues[index] = fieldValue;            
 
-            return new MixedRecord(ordinalNames, ordinalValues, textualNames, newTextualValues);           
+            return new MixedRecord(ordinalNames, ordinalValues, textualShape, newTextualValues);           
         }   
         
         /** {@inheritDoc} */
@@ -2335,7 +2392,7 @@ public abstract class RTRecordValue extends RTValue implements RecordType {
             RTValue[] newTextualValues = new RTValue[textualValues.length];
             System.arraycopy(textualValues, 0, newTextualValues, 0, newTextualValues.length);
             
-            return new MixedRecord(ordinalNames, newOrdinalValues, textualNames, newTextualValues);           
+            return new MixedRecord(ordinalNames, newOrdinalValues, textualShape, newTextualValues);           
             
         }
         
@@ -2350,7 +2407,7 @@ public abstract class RTRecordValue extends RTValue implements RecordType {
         /** {@inheritDoc} */
         @Override
         public RTRecordValue mutateTextualField(String textualFieldName, RTValue fieldValue) {            
-            int index = Arrays.binarySearch(textualNames, textualFieldName);            
+            int index = textualShape.indexOf(textualFieldName);            
             textualValues[index] = fieldValue;            
             return this;           
         }           
@@ -2388,7 +2445,7 @@ public abstract class RTRecordValue extends RTValue implements RecordType {
                 newTextualValues[i] = getNthTextualValue(i).apply(argument);
             }
             
-            return new MixedRecord(this.ordinalNames, newOrdinalValues, this.textualNames, newTextualValues);                 
+            return new MixedRecord(this.ordinalNames, newOrdinalValues, textualShape, newTextualValues);                 
         }
     }
                   
@@ -2404,14 +2461,48 @@ public abstract class RTRecordValue extends RTValue implements RecordType {
         return new TextualRecord(textualNames, textualValues);
     }
     
+    /**
+     * Makes a record with textual fields only, whose shape is already known (e.g. the shape of a record literal,
+     * held in a static field of the generated code).
+     * @param textualShape the shape of the record. Must have at least one textual field.
+     * @param textualValues the field values, in the order of the textual names of the shape.
+     * @return the record value.
+     */
+    public static RTRecordValue makeTextualRecord(RTRecordShape textualShape, RTValue[] textualValues) {
+        return new TextualRecord(textualShape, textualValues);
+    }
+    
     public static RTRecordValue makeTupleMixedRecord(RTValue[] ordinalValues, String[] textualNames, RTValue[] textualValues) {
         return new TupleMixedRecord(ordinalValues, textualNames, textualValues);
     }    
     
+    /**
+     * Makes a record with a tuple ordinal part and textual fields, whose textual shape is already known.
+     * @param ordinalValues the values of the ordinal fields #1, ..., #n.
+     * @param textualShape the shape of the textual part of the record. Must have at least one textual field.
+     * @param textualValues the textual field values, in the order of the textual names of the shape.
+     * @return the record value.
+     */
+    public static RTRecordValue makeTupleMixedRecord(RTValue[] ordinalValues, RTRecordShape textualShape, RTValue[] textualValues) {
+        return new TupleMixedRecord(ordinalValues, textualShape, textualValues);
+    }    
+    
     public static RTRecordValue makeMixedRecord(int[] ordinalNames, RTValue[] ordinalValues, String[] textualNames, RTValue[] textualValues) {
         return new MixedRecord(ordinalNames, ordinalValues, textualNames, textualValues);
     }
     
+    /**
+     * Makes a record with ordinal and textual fields, whose textual shape is already known.
+     * @param ordinalNames the ordinal field names, in ascending order.
+     * @param ordinalValues the ordinal field values, in the order of ordinalNames.
+     * @param textualShape the shape of the textual part of the record. Must have at least one textual field.
+     * @param textualValues the textual field values, in the order of the textual names of the shape.
+     * @return the record value.
+     */
+    public static RTRecordValue makeMixedRecord(int[] ordinalNames, RTValue[] ordinalValues, RTRecordShape textualShape, RTValue[] textualValues) {
+        return new MixedRecord(ordinalNames, ordinalValues, textualShape, textualValues);
+    }
+    
 
     /**
      * Makes a new RTRecordValue having the same field names as this record value, but with the values obtained
@@ -2427,6 +2518,13 @@ public abstract class RTRecordValue extends RTValue implements RecordType {
     abstract public RTValue getTextualFieldValue(String textualFieldName);    
     abstract public RTValue getOrdinalFieldValue(int ordinal);
     
+    /**
+     * @return the interned shape of the textual part of this record. Record values having the same textual
+     *    field names have the same shape, and the slot of a textual field (as used by getNthTextualValue) 
+     *    depends only on the shape. Records with no textual fields have the shape RTRecordShape.EMPTY.
+     */
+    abstract RTRecordShape getTextualShape();
+    
     /**
      * @return the number of fields that are in this record. This includes textual as well as ordinal fields.
      */
@@ -38,6 +38,11 @@
 
 package org.openquark.cal.internal.runtime.lecc;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
 import org.openquark.cal.runtime.CALExecutorException;
 import org.openquark.cal.runtime.CalValue;
 
@@ -55,6 +60,17 @@ public abstract class RTResultFunction extends RTFunction {
     /** Back pointer used to avoid indirection chains. */
     private RTResultFunction parent;
 
+    /**
+     * The claims of the nodes currently being evaluated in the concurrent runtime, keyed by node (nodes do not
+     * override equals and hashCode, so this is by identity). A thread claims a node (blackholing it) by atomically
+     * adding its claim to this map, and publishes the node's result by removing it again.
+     * <p>
+     * The claim state is held here rather than in fields of the node, so that the (many) nodes of the
+     * single-threaded runtime do not pay for it. Only nodes under evaluation in the concurrent runtime have an entry,
+     * so the map stays small. Always empty if the concurrent runtime is not enabled.
+     */
+    private static final ConcurrentMap<RTResultFunction, Claim> claims = new ConcurrentHashMap<RTResultFunction, Claim>(64, 0.75f, 64);
+
     /** true if runtime stats are being generated, which results in a slower evaluate method. */
     private static final boolean HAS_RUNTIME_STATS =
          LECCMachineConfiguration.generateStatistics();
@@ -97,13 +113,13 @@ public abstract class RTResultFunction extends RTFunction {
     @Override
     public RTValue evaluate(RTExecutionContext ec) throws CALExecutorException {
        if (LECCMachineConfiguration.concurrentRuntime()) {
-           return synchronizedEvaluate(ec);
+           return concurrentEvaluate(ec);
        }
 
        return unsynchronizedEvaluate(ec);
     }
 
-    //WARNING: the implementation of this method must be kept compatible with synchronizedEvaluate
+    //WARNING: the implementation of this method must be kept compatible with concurrentEvaluate
     private final RTValue unsynchronizedEvaluate(RTExecutionContext ec) throws CALExecutorException {
         if (!LECCMachineConfiguration.nonInterruptibleRuntime() && ec.isQuitRequested()) {
             throw RTValue.INTERRUPT_EXCEPTION;
@@ -145,11 +161,30 @@ public abstract class RTResultFunction extends RTFunction {
     }
 
     //WARNING: the implementation of this method must be kept compatible with unsynchronizedEvaluate
-    synchronized private final RTValue synchronizedEvaluate(RTExecutionContext ec) throws CALExecutorException {
+    private final RTValue concurrentEvaluate(RTExecutionContext ec) throws CALExecutorException {
         if (!LECCMachineConfiguration.nonInterruptibleRuntime() && ec.isQuitRequested()) {
             throw RTValue.INTERRUPT_EXCEPTION;
         }
 
+        //reentrant evaluation by the thread that already owns this node
+        if (!claim()) {
+            return concurrentEvaluateHelper(ec);
+        }
+
+        try {
+            //if evaluating this node for a spark failed, the failure is surfaced here rather than being swallowed
+            if (result == null) {
+                ec.rethrowSparkFailure(this);
+            }
+            return concurrentEvaluateHelper(ec);
+        } finally {
+            release();
+        }
+    }
+
+    //must only be called from concurrentEvaluate
+    private final RTValue concurrentEvaluateHelper(RTExecutionContext ec) throws CALExecutorException {
+
         RTValue newResult = result == null ? this : result;
         RTValue lastResult;
 
@@ -186,8 +221,69 @@ public abstract class RTResultFunction extends RTFunction {
     }
 
     @Override
-    synchronized final protected RTValue synchronizedReduce(RTExecutionContext ec) throws CALExecutorException {
-        return reduce(ec);
+    final protected RTValue synchronizedReduce(RTExecutionContext ec) throws CALExecutorException {
+        if (!claim()) {
+            return reduce(ec);
+        }
+
+        try {
+            return reduce(ec);
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Claims this node for the current thread. If another thread owns the node, the current thread parks
+     * until it is released. Every successful claim must be paired with a call to {@link #release()}.
+     * Only used in the concurrent runtime.
+     * @return true if the node was claimed, false if the current thread already owned it.
+     */
+    final boolean claim() {
+        final Thread current = Thread.currentThread();
+        Claim newClaim = null;
+        while (true) {
+            Claim claim = claims.get(this);
+            if (claim == null) {
+                if (newClaim == null) {
+                    newClaim = new Claim(current);
+                }
+                claim = claims.putIfAbsent(this, newClaim);
+                if (claim == null) {
+                    return true;
+                }
+            }
+
+            if (claim.owner == current) {
+                return false;
+            }
+            claim.awaitRelease();
+        }
+    }
+
+    /**
+     * Releases a node claimed by the current thread, publishing its result, and wakes any waiting threads.
+     */
+    final void release() {
+        final Claim claim = claims.remove(this);
+        if (claim != null) {
+            claim.release();
+        }
+    }
+
+    /**
+     * @return true if some thread is currently evaluating this node in the concurrent runtime.
+     *    Always false if the concurrent runtime is not enabled.
+     */
+    final boolean isUnderEvaluation() {
+        return claims.containsKey(this);
+    }
+
+    /**
+     * @return the number of nodes currently claimed by threads in the concurrent runtime.
+     */
+    static int getNClaimedNodes() {
+        return claims.size();
     }
 
     /**
@@ -323,5 +419,70 @@ public abstract class RTResultFunction extends RTFunction {
             return DataType.OTHER;
         }
     }
-}
 
+    /**
+     * The claim of a node by the thread evaluating it in the concurrent runtime. A claim is used once: when it is
+     * released, the threads waiting on it try to claim the node again with a claim of their own.
+     */
+    private static final class Claim {
+
+        /** The thread evaluating the node. */
+        final Thread owner;
+
+        /** Whether the owner has released the node. */
+        private volatile boolean released;
+
+        /** Threads parked waiting for the owner to release the node. */
+        private volatile Waiter waiters;
+
+        private static final AtomicReferenceFieldUpdater<Claim, Waiter> WAITERS_UPDATER =
+            AtomicReferenceFieldUpdater.newUpdater(Claim.class, Waiter.class, "waiters");
+
+        Claim(final Thread owner) {
+            this.owner = owner;
+        }
+
+        /**
+         * Parks the current thread until the owner releases this claim.
+         */
+        void awaitRelease() {
+            final Waiter waiter = new Waiter(Thread.currentThread());
+            Waiter head;
+            do {
+                head = waiters;
+                waiter.next = head;
+            } while (!WAITERS_UPDATER.compareAndSet(this, head, waiter));
+
+            //the owner may have released the claim before the waiter was pushed, so check before each park.
+            while (!released) {
+                LockSupport.park();
+            }
+        }
+
+        /**
+         * Marks this claim as released, and wakes the waiting threads.
+         */
+        void release() {
+            released = true;
+
+            if (waiters != null) {
+                for (Waiter waiter = WAITERS_UPDATER.getAndSet(this, null); waiter != null; waiter = waiter.next) {
+                    LockSupport.unpark(waiter.thread);
+                }
+            }
+        }
+    }
+
+    /**
+     * A thread parked on a claim owned by another thread. Waiters form a lock-free stack that the owner
+     * drains when it releases the claim.
+     */
+    private static final class Waiter {
+        final Thread thread;
+        Waiter next;
+
+        Waiter(final Thread thread) {
+            this.thread = thread;
+        }
+    }
+}
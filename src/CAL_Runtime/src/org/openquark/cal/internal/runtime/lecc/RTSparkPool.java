@@ -0,0 +1,312 @@
+/*
+ * Copyright (c) 2007 BUSINESS OBJECTS SOFTWARE LIMITED
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *  
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *  
+ *     * Neither the name of Business Objects nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+/*
+ * RTSparkPool.java
+ * Created: Oct 18, 2026
+ */
+
+package org.openquark.cal.internal.runtime.lecc;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openquark.cal.runtime.CALExecutorException;
+
+
+/**
+ * A pool of worker threads used to evaluate sparks i.e. values that the program has indicated
+ * may profitably be evaluated to weak-head normal form in parallel (such as via Parallel.par).
+ * There is at most one spark pool per execution context, and it is only used when the lecc
+ * machine is running with the concurrent runtime enabled.
+ * <p>
+ * The pool has at most one worker per available processor. A spark is handed directly to an idle
+ * worker; if all workers are busy the pool is saturated and the spark is instead evaluated inline on
+ * the sparking thread. This bounds the number of threads regardless of how many sparks are created,
+ * and keeps the sparking thread doing useful work while the workers catch up. Workers that have been idle
+ * for a while are retired, so an execution context that stops sparking does not hold on to threads.
+ * <p>
+ * A spark fizzles (i.e. is dropped) if, at the time it is created or at the time a worker gets to it,
+ * its value is already in weak-head normal form or is under evaluation by another thread. Evaluating it
+ * in that case would at best be wasted work and at worst would block a worker on the evaluating thread.
+ * <p>
+ * If evaluating a spark fails, its value is not updated and the failure is recorded with the pool. The first thread
+ * to then demand the value gets the failure rethrown, rather than evaluating the value again. The value is left
+ * unevaluated, so a later demand evaluates it again (and will normally fail in the same way).
+ * <p>
+ * The pool is tied to the lifecycle of its execution context: it is shut down when the execution context is cleaned up
+ * (for example by Program.resetCachedResults()), and a new pool is created if the program sparks again.
+ */
+public final class RTSparkPool {
+
+    /** The number of seconds that an idle worker waits for a spark before it is retired. */
+    private static final long WORKER_KEEP_ALIVE_SECONDS = 10;
+
+    /** The execution context in which sparks are evaluated. */
+    private final RTExecutionContext executionContext;
+
+    /** The workers. Sparks are handed off directly to idle workers, and run inline when none are available. */
+    private final ThreadPoolExecutor workers;
+
+    /**
+     * The failures of sparks which have not yet been demanded by the program, keyed by the node that failed to evaluate.
+     * Weakly keyed, so that the failure of a spark that is never demanded does not keep its graph alive.
+     */
+    private final Map<RTResultFunction, Throwable> failedSparks = Collections.synchronizedMap(new WeakHashMap<RTResultFunction, Throwable>());
+
+    /** Whether any spark has failed. Avoids locking failedSparks in the common case where no spark has failed. */
+    private volatile boolean hasFailedSparks;
+
+    /*
+     * Some counters used to track how sparks are disposed of. Sparks can be created by many threads
+     * at once, so these must be thread-safe.
+     */
+    private final AtomicInteger nSparksConverted = new AtomicInteger();
+    private final AtomicInteger nSparksFizzled = new AtomicInteger();
+    private final AtomicInteger nSparksInlined = new AtomicInteger();
+    private final AtomicInteger nSparksFailed = new AtomicInteger();
+
+    /**
+     * Used to give the worker threads of all spark pools distinct names.
+     */
+    private static final AtomicInteger workerThreadCount = new AtomicInteger();
+
+    /**
+     * A spark is a value that is to be evaluated to weak-head normal form by a worker.
+     */
+    private final class Spark implements Runnable {
+
+        private final RTValue value;
+
+        private Spark(RTValue value) {
+            this.value = value;
+        }
+
+        /** {@inheritDoc} */
+        public void run() {
+            evaluateSpark(value);
+        }
+    }
+
+    /**
+     * Constructs a spark pool with one worker per available processor.
+     * @param executionContext the execution context in which sparks are to be evaluated.
+     */
+    RTSparkPool(RTExecutionContext executionContext) {
+        this(executionContext, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a spark pool.
+     * @param executionContext the execution context in which sparks are to be evaluated.
+     * @param maxWorkers the maximum number of worker threads. Must be at least 1.
+     */
+    RTSparkPool(RTExecutionContext executionContext, int maxWorkers) {
+        if (executionContext == null) {
+            throw new NullPointerException("The argument 'executionContext' cannot be null.");
+        }
+        if (maxWorkers < 1) {
+            throw new IllegalArgumentException("The argument 'maxWorkers' must be at least 1.");
+        }
+
+        this.executionContext = executionContext;
+
+        final ThreadFactory threadFactory = new ThreadFactory() {
+            public Thread newThread(Runnable runnable) {
+                final Thread thread = new Thread(runnable, "CAL spark worker " + workerThreadCount.incrementAndGet());
+                //a pending spark should never keep the JVM alive
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+
+        final RejectedExecutionHandler saturationHandler = new RejectedExecutionHandler() {
+            public void rejectedExecution(Runnable spark, ThreadPoolExecutor executor) {
+                if (executor.isShutdown()) {
+                    //sparks are only hints, so a spark created while the pool is being shut down can be dropped
+                    nSparksFizzled.incrementAndGet();
+                    return;
+                }
+
+                //all workers are busy, so evaluate the spark on the sparking thread
+                nSparksInlined.incrementAndGet();
+                spark.run();
+            }
+        };
+
+        //The SynchronousQueue means that sparks are never queued: a spark is either taken by an idle worker,
+        //given to a newly created worker (while there are fewer than maxWorkers) or rejected (and run inline).
+        workers = new ThreadPoolExecutor(0, maxWorkers, WORKER_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+            new SynchronousQueue<Runnable>(), threadFactory, saturationHandler);
+    }
+
+    /**
+     * Creates a spark for the given value. The value will be evaluated to weak-head normal form either
+     * by a worker, or on the calling thread if the pool is saturated, unless the spark fizzles.
+     * @param value the value to evaluate in parallel.
+     */
+    public void spark(RTValue value) {
+        if (value == null) {
+            throw new NullPointerException("The argument 'value' cannot be null.");
+        }
+
+        if (fizzles(value)) {
+            nSparksFizzled.incrementAndGet();
+            return;
+        }
+
+        workers.execute(new Spark(value));
+    }
+
+    /**
+     * Evaluates a spark to weak-head normal form, unless it has fizzled in the meantime.
+     * @param value
+     */
+    private void evaluateSpark(RTValue value) {
+        if (fizzles(value)) {
+            nSparksFizzled.incrementAndGet();
+            return;
+        }
+
+        final RTValue node = value.getValue();
+
+        nSparksConverted.incrementAndGet();
+        try {
+            value.evaluate(executionContext);
+        } catch (CALExecutorException e) {
+            sparkFailed(node, e);
+        } catch (RuntimeException e) {
+            sparkFailed(node, e);
+        }
+    }
+
+    /**
+     * Records the failure of a spark, so that it can be rethrown to the thread that demands the spark's value.
+     * @param node the node that was evaluated for the spark.
+     * @param failure the exception raised by evaluating the node.
+     */
+    private void sparkFailed(RTValue node, Throwable failure) {
+        //a CAF which fails is evaluated again when demanded, and so raises the error again
+        if (node instanceof RTResultFunction && !workers.isShutdown()) {
+            failedSparks.put((RTResultFunction)node, failure);
+            hasFailedSparks = true;
+        }
+        nSparksFailed.incrementAndGet();
+    }
+
+    /**
+     * Rethrows the failure of a spark for the given node, if evaluating the node for a spark failed and the
+     * failure has not yet been rethrown. Called by the concurrent runtime when a thread demands the value of an
+     * unevaluated node.
+     * @param node the node being demanded.
+     * @throws CALExecutorException the failure of the spark for the node, if any.
+     */
+    void rethrowSparkFailure(RTResultFunction node) throws CALExecutorException {
+        if (!hasFailedSparks) {
+            return;
+        }
+
+        final Throwable failure = failedSparks.remove(node);
+        if (failure instanceof CALExecutorException) {
+            throw (CALExecutorException)failure;
+        } else if (failure instanceof RuntimeException) {
+            throw (RuntimeException)failure;
+        }
+    }
+
+    /**
+     * Shuts down the pool. Sparks being evaluated are allowed to finish, idle workers are retired, and sparks created
+     * after this call are dropped. The failures of sparks which have not been demanded are discarded.
+     */
+    void shutdown() {
+        workers.shutdown();
+        failedSparks.clear();
+    }
+
+    /**
+     * @return true if the pool has been shut down.
+     */
+    boolean isShutdown() {
+        return workers.isShutdown();
+    }
+
+    /**
+     * @param value
+     * @return true if evaluating value in parallel would be pointless, either because it is already in weak-head normal
+     *    form, or because it is already under evaluation by some other thread.
+     */
+    private static boolean fizzles(RTValue value) {
+        final RTValue currentValue = value.getValue();
+        if (currentValue instanceof RTResultFunction) {
+            return ((RTResultFunction)currentValue).isUnderEvaluation();
+        }
+
+        //CAFs are evaluated (and cached) on demand, so they are not in weak-head normal form just because they are a supercombinator.
+        return !(currentValue instanceof RTCAF);
+    }
+
+    /**
+     * @return the number of sparks that have been evaluated (either by a worker or inline).
+     */
+    public int getNSparksConverted() {
+        return nSparksConverted.get();
+    }
+
+    /**
+     * @return the number of sparks that fizzled i.e. were dropped because their value was already evaluated
+     *    or under evaluation.
+     */
+    public int getNSparksFizzled() {
+        return nSparksFizzled.get();
+    }
+
+    /**
+     * @return the number of sparks that were evaluated on the sparking thread because the pool was saturated.
+     */
+    public int getNSparksInlined() {
+        return nSparksInlined.get();
+    }
+
+    /**
+     * @return the number of sparks whose evaluation failed.
+     */
+    public int getNSparksFailed() {
+        return nSparksFailed.get();
+    }
+}
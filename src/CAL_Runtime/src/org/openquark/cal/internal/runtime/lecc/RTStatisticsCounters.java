@@ -0,0 +1,261 @@
+/*
+ * Copyright (c) 2007 BUSINESS OBJECTS SOFTWARE LIMITED
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *  
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *  
+ *     * Neither the name of Business Objects nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+/*
+ * RTStatisticsCounters.java
+ * Created: Oct 18, 2026
+ */
+
+package org.openquark.cal.internal.runtime.lecc;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openquark.cal.compiler.ModuleName;
+import org.openquark.cal.compiler.QualifiedName;
+
+
+/**
+ * Holds the runtime statistics and call counts gathered by an execution context when
+ * runtime statistics or call counts are enabled.
+ * <p>
+ * Each thread doing CAL evaluation increments the counters in its own shard, so that counting is
+ * a thread-local increment without synchronization or contention. The shards are only merged when
+ * the totals are read. The merged totals are exact once the counting threads have finished, and may
+ * lag slightly behind threads that are still evaluating.
+ * <p>
+ * Call counts are kept by counter slot rather than by name. A slot is interned for each function or data constructor
+ * by the static initializer of its generated class, so that the generated code does not need to look up the name
+ * on each call.
+ */
+public final class RTStatisticsCounters {
+
+    /** The value of the reduction, method call and data type instance totals before anything has been counted. */
+    private static final int INITIAL_TOTAL = -1;
+
+    private static final int[] EMPTY_COUNTS = new int[0];
+
+    /** Counter slot -> name of the function or data constructor counted in that slot. Guarded by itself. */
+    private static final List<QualifiedName> slotNames = new ArrayList<QualifiedName>();
+
+    /** Name of a function or data constructor -> its counter slot. Guarded by slotNames. */
+    private static final Map<QualifiedName, Integer> nameToSlotMap = new HashMap<QualifiedName, Integer>();
+
+    /** The shards of all threads that have counted anything. Guarded by itself. */
+    private final List<Shard> shards = new ArrayList<Shard>();
+
+    /** The shard of the current thread. */
+    private final ThreadLocal<Shard> threadShard = new ThreadLocal<Shard>() {
+        @Override
+        protected Shard initialValue() {
+            final Shard shard = new Shard();
+            synchronized (shards) {
+                shards.add(shard);
+            }
+            return shard;
+        }
+    };
+
+    /**
+     * The counters incremented by a single thread. Only the owning thread writes to a shard.
+     */
+    private static final class Shard {
+        private int nReductions;
+        private int nMethodCalls;
+        private int nDataTypeInstances;
+        private int[] callCounts = EMPTY_COUNTS;
+        private int[] dcConstructorCounts = EMPTY_COUNTS;
+        private int[] dcFunctionCounts = EMPTY_COUNTS;
+
+        /**
+         * @param counts
+         * @param slot
+         * @return counts, or a larger copy of counts if slot was out of its range, with the count for slot incremented.
+         */
+        private static int[] increment(int[] counts, final int slot) {
+            if (slot >= counts.length) {
+                final int[] newCounts = new int[Math.max(slot + 1, counts.length * 2)];
+                System.arraycopy(counts, 0, newCounts, 0, counts.length);
+                counts = newCounts;
+            }
+            ++counts[slot];
+            return counts;
+        }
+    }
+
+    /**
+     * Get the counter slot for a function or data constructor, interning one if none exists.
+     * Slots are shared by all execution contexts.
+     * @param moduleName
+     * @param unqualifiedName
+     * @return the counter slot for the named function or data constructor.
+     */
+    public static int getCounterSlot(final String moduleName, final String unqualifiedName) {
+        final QualifiedName name = QualifiedName.make(ModuleName.make(moduleName), unqualifiedName);
+        synchronized (slotNames) {
+            Integer slot = nameToSlotMap.get(name);
+            if (slot == null) {
+                slot = Integer.valueOf(slotNames.size());
+                slotNames.add(name);
+                nameToSlotMap.put(name, slot);
+            }
+            return slot.intValue();
+        }
+    }
+
+    public void incrementNReductions() {
+        ++threadShard.get().nReductions;
+    }
+    public void incrementNMethodCalls() {
+        ++threadShard.get().nMethodCalls;
+    }
+    public void incrementNDataTypeInstances() {
+        ++threadShard.get().nDataTypeInstances;
+    }
+
+    public void scCalled(final int slot) {
+        final Shard shard = threadShard.get();
+        shard.callCounts = Shard.increment(shard.callCounts, slot);
+    }
+    public void dcConstructorCalled(final int slot) {
+        final Shard shard = threadShard.get();
+        shard.dcConstructorCounts = Shard.increment(shard.dcConstructorCounts, slot);
+    }
+    public void dcFunctionCalled(final int slot) {
+        final Shard shard = threadShard.get();
+        shard.dcFunctionCounts = Shard.increment(shard.dcFunctionCounts, slot);
+    }
+
+    /**
+     * @return a snapshot of the shards of all threads that have counted anything.
+     */
+    private Shard[] getShards() {
+        synchronized (shards) {
+            return shards.toArray(new Shard[shards.size()]);
+        }
+    }
+
+    /**
+     * @return the total number of reductions.
+     */
+    public int getNReductions() {
+        int total = INITIAL_TOTAL;
+        for (final Shard shard : getShards()) {
+            total += shard.nReductions;
+        }
+        return total;
+    }
+    /**
+     * @return the total number of method calls.
+     */
+    public int getNMethodCalls() {
+        int total = INITIAL_TOTAL;
+        for (final Shard shard : getShards()) {
+            total += shard.nMethodCalls;
+        }
+        return total;
+    }
+    /**
+     * @return the total number of data type instances.
+     */
+    public int getNDataTypeInstances() {
+        int total = INITIAL_TOTAL;
+        for (final Shard shard : getShards()) {
+            total += shard.nDataTypeInstances;
+        }
+        return total;
+    }
+
+    /**
+     * @return the merged supercombinator call counts. This is a new map and can be freely modified.
+     */
+    public Map<QualifiedName, Integer> getCallCounts() {
+        final Shard[] shardArray = getShards();
+        final int[][] counts = new int[shardArray.length][];
+        for (int i = 0; i < shardArray.length; ++i) {
+            counts[i] = shardArray[i].callCounts;
+        }
+        return mergeCounts(counts);
+    }
+    /**
+     * @return the merged data constructor instance counts. This is a new map and can be freely modified.
+     */
+    public Map<QualifiedName, Integer> getDcConstructorCounts() {
+        final Shard[] shardArray = getShards();
+        final int[][] counts = new int[shardArray.length][];
+        for (int i = 0; i < shardArray.length; ++i) {
+            counts[i] = shardArray[i].dcConstructorCounts;
+        }
+        return mergeCounts(counts);
+    }
+    /**
+     * @return the merged data constructor function form counts. This is a new map and can be freely modified.
+     */
+    public Map<QualifiedName, Integer> getDcFunctionCounts() {
+        final Shard[] shardArray = getShards();
+        final int[][] counts = new int[shardArray.length][];
+        for (int i = 0; i < shardArray.length; ++i) {
+            counts[i] = shardArray[i].dcFunctionCounts;
+        }
+        return mergeCounts(counts);
+    }
+
+    /**
+     * @param shardCounts the counts of each shard, indexed by counter slot.
+     * @return a map of the name of each counted function or data constructor to the sum of its counts across the shards.
+     */
+    private static Map<QualifiedName, Integer> mergeCounts(final int[][] shardCounts) {
+        int nSlots = 0;
+        for (final int[] counts : shardCounts) {
+            nSlots = Math.max(nSlots, counts.length);
+        }
+
+        final int[] totals = new int[nSlots];
+        for (final int[] counts : shardCounts) {
+            for (int slot = 0; slot < counts.length; ++slot) {
+                totals[slot] += counts[slot];
+            }
+        }
+
+        final Map<QualifiedName, Integer> result = new HashMap<QualifiedName, Integer>();
+        synchronized (slotNames) {
+            for (int slot = 0; slot < nSlots; ++slot) {
+                if (totals[slot] != 0) {
+                    result.put(slotNames.get(slot), Integer.valueOf(totals[slot]));
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -576,7 +576,11 @@ public class GemGraph implements TypeStringProvider {
         argumentManager.retargetForConnect(conn);
         
         // Check for graph validity..
-        boolean canConnect = checkGraphValid(typeCheckInfo);
+        // Only the trees whose types can be affected by the connection have to be checked, since the rest of the graph is unchanged.
+        Set<Gem> connectedGems = new HashSet<Gem>();
+        connectedGems.add(from.getGem());
+        connectedGems.add(to.getGem());
+        boolean canConnect = checkGraphValid(typeCheckInfo, obtainTypeDependentRoots(connectedGems));
 
         // Revert any changes we made.
         from.bindConnection(null);
@@ -1569,6 +1573,50 @@ public class GemGraph implements TypeStringProvider {
         }
         return forestRootObtainer.getRoots();
     }
+
+    /**
+     * Obtain the roots of the trees whose types may depend on the given gems.
+     *   This is the forest of which the gems are part, along with the forests of the collectors enclosing any of its trees,
+     *   and of the collectors defined in the scope of those collectors.
+     * The trees of the gem graph outside of this set do not share any type constraints with the given gems, 
+     *   so an edit to the given gems can be validated by type checking only these trees.
+     * 
+     * @param gemsInForest gems in the gem graph.
+     * @return the set of roots gathered, including broken trees and their ancestors.
+     */
+    Set<Gem> obtainTypeDependentRoots(Set<Gem> gemsInForest) {
+        Set<Gem> rootSet = obtainForestRoots(gemsInForest, true);
+        
+        Set<CollectorGem> collectorsVisited = new HashSet<CollectorGem>();
+        List<Gem> rootsToVisit = new ArrayList<Gem>(rootSet);
+        
+        while (!rootsToVisit.isEmpty()) {
+            Gem root = rootsToVisit.remove(rootsToVisit.size() - 1);
+            
+            for (final CollectorGem enclosingCollector : obtainEnclosingCollectors(root)) {
+                if (!collectorsVisited.add(enclosingCollector)) {
+                    continue;
+                }
+                
+                // The enclosing collector's forest, and the forests of any collectors defined in its scope.
+                Set<Gem> relatedGems = new HashSet<Gem>();
+                relatedGems.add(enclosingCollector);
+                for (final CollectorGem collectorGem : collectorSet) {
+                    if (collectorGem.getTargetCollectorGem() == enclosingCollector) {
+                        relatedGems.add(collectorGem);
+                    }
+                }
+                
+                for (final Gem relatedRoot : obtainForestRoots(relatedGems, true)) {
+                    if (rootSet.add(relatedRoot)) {
+                        rootsToVisit.add(relatedRoot);
+                    }
+                }
+            }
+        }
+        
+        return rootSet;
+    }
     
     /**
      * Obtain unconnected inputs of the Gem tree of which this Gem is the root as well as (optionally) in descendant subtrees at the
@@ -1741,10 +1789,11 @@ public class GemGraph implements TypeStringProvider {
     /**
      * Disconnects all the valueGems, (this is a helper method that should be used in conjunction with reconnectValueGems()
      * @param parametricsOnly whether to disconnect only parametric value gems, or all value gems.
+     * @param typeCheckRoots if non-null, only value gems connected into the trees with these roots will be disconnected.
      * @return the connections which were disconnected. 
      *   The iteration order remains constant with time.
      */
-    private Set<Connection> disconnectValueGems(boolean parametricsOnly) {
+    private Set<Connection> disconnectValueGems(boolean parametricsOnly, Set<Gem> typeCheckRoots) {
         Set<Connection> oldConnections = new LinkedHashSet<Connection>();
 
         // Go through all the gems in the graph
@@ -1754,7 +1803,8 @@ public class GemGraph implements TypeStringProvider {
                 ValueGem valueGem = (ValueGem)gem;
         
                 // Disconnect.
-                if (gem.isConnected() && (!parametricsOnly || valueGem.getValueNode().containsParametricValue())) {
+                if (gem.isConnected() && (!parametricsOnly || valueGem.getValueNode().containsParametricValue()) &&
+                        (typeCheckRoots == null || typeCheckRoots.contains(gem.getRootGem()))) {
                     Connection connection = gem.getOutputPart().getConnection();
                     oldConnections.add(connection);
                     connection.getSource().bindConnection(null);
@@ -1775,10 +1825,24 @@ public class GemGraph implements TypeStringProvider {
      *   null if the value gem types could not be inferred.
      */
     private Map<ValueGem, TypeExpr> inferValueGemTypes(boolean parametricsOnly, TypeCheckInfo info) {
+        return inferValueGemTypes(parametricsOnly, info, null);
+    }
+    
+    /**
+     * Infer the types of the value gem outputs connected into the given trees.
+     *   ie. return what the types of the inputs would be if those value gems were disconnected.
+     * @param parametricsOnly whether to calculate on the basis of all value gems being disconnected, or only parametric value gems.
+     * @param info the info to use for typing the tree. 
+     * @param typeCheckRoots the roots of the trees to type, or null to type the whole gem graph.
+     *   If non-null, this should be closed under type dependency (see obtainTypeDependentRoots()).
+     * @return map from value gem to its inferred type.
+     *   null if the value gem types could not be inferred.
+     */
+    private Map<ValueGem, TypeExpr> inferValueGemTypes(boolean parametricsOnly, TypeCheckInfo info, Set<Gem> typeCheckRoots) {
 
         // We must update/switch value gem values according to the types of the inputs to which they are connected.
         // To do this, we disconnect them, type the tree, and then reconnect each valuegem, retyping them as appropriate. 
-        Set<Connection> oldConnections = disconnectValueGems(parametricsOnly);
+        Set<Connection> oldConnections = disconnectValueGems(parametricsOnly, typeCheckRoots);
         
         // the map which will be returned.
         Map<ValueGem, TypeExpr> resultMap = new HashMap<ValueGem, TypeExpr>();
@@ -1808,9 +1872,16 @@ public class GemGraph implements TypeStringProvider {
             tempTarget.addArguments(0, freedArgumentSet);
 
             // Type the resulting graph..
+            Set<Gem> rootSet;
+            if (typeCheckRoots == null) {
+                rootSet = getRoots();
+            } else {
+                rootSet = new HashSet<Gem>(typeCheckRoots);
+                rootSet.add(tempTarget);
+            }
             Map<Object, TypeExpr> unboundPartTypeMap = null;
             try {
-                unboundPartTypeMap = getUnboundPartTypes(info);
+                unboundPartTypeMap = getUnboundPartTypes(info, rootSet);
             } catch (TypeException e) {
                 // Can't do much about this..
                 GemCutter.CLIENT_LOGGER.log(Level.WARNING, "Unable to infer value gem types.", e);
@@ -2176,6 +2247,17 @@ public class GemGraph implements TypeStringProvider {
      * @return whether the gem graph is valid as it is currently defined.
      */
     public boolean checkGraphValid(TypeCheckInfo info) {
+        return checkGraphValid(info, null);
+    }
+    
+    /**
+     * Determine whether the trees with the given roots are valid as they are currently defined.
+     * @param info the type check info to use to validate the trees.
+     * @param typeCheckRoots the roots of the trees to validate, or null to validate the whole gem graph.
+     *   If non-null, this should be closed under type dependency (see obtainTypeDependentRoots()).
+     * @return whether the trees are valid as they are currently defined.
+     */
+    private boolean checkGraphValid(TypeCheckInfo info, Set<Gem> typeCheckRoots) {
         
         // value gem connections temporarily disconnected from their destination.
         Set<Connection> disconnectedValueGemConnections = new HashSet<Connection>();
@@ -2183,7 +2265,7 @@ public class GemGraph implements TypeStringProvider {
             // TODOEL: This checking only has to happen on connect / disconnect (/ burn?) (switching does its own value gem updating..).
             // We must update/switch value gem values according to the types of the inputs to which they are connected (eg. update on connect).
             // To do this, we infer their types, and check according to the newly-inferred types.
-            Map<ValueGem, TypeExpr> valueGemToInferredTypeMap = inferValueGemTypes(true, info);
+            Map<ValueGem, TypeExpr> valueGemToInferredTypeMap = inferValueGemTypes(true, info, typeCheckRoots);
             if (valueGemToInferredTypeMap != null) {
                 // Get the updated value gem types.
                 Map<ValueGem, TypeExpr> valueGemTypeMap = getUnifiedValueGemTypes(valueGemToInferredTypeMap, info);
@@ -2220,7 +2302,7 @@ public class GemGraph implements TypeStringProvider {
             }
     
             // Test whether the unbound parts can be typed.
-            getUnboundPartTypes(info);
+            getUnboundPartTypes(info, typeCheckRoots == null ? getRoots() : new HashSet<Gem>(typeCheckRoots));
         
         } catch (TypeException te) {
             // If there's a type exception, the resulting gem graph can't be typed.
@@ -2260,7 +2342,7 @@ public class GemGraph implements TypeStringProvider {
         }
 
         // Get the types of the parts to be typed.
-        Map<Object, TypeExpr> unboundPartToTypeMap = getUnboundPartTypes(info);
+        Map<Object, TypeExpr> unboundPartToTypeMap = getUnboundPartTypes(info, getRoots());
 
         // Set the types on the updated graph.
         for (final Map.Entry<Object, TypeExpr> mapEntry : unboundPartToTypeMap.entrySet()) {
@@ -2279,17 +2361,18 @@ public class GemGraph implements TypeStringProvider {
     }
 
     /**
-     * Get the types of all the unbound parts in the gem graph as it is currently defined, except for value gem output parts.
+     * Get the types of all the unbound parts in the trees with the given roots as they are currently defined, except for value gem output parts.
      * @param info
+     * @param rootSet the roots of the trees to type.  This set will be modified.
+     *   To type the whole gem graph, pass getRoots().  Otherwise the set should be closed under type dependency (see obtainTypeDependentRoots()).
      * @return a Map which contains two types of mappings to associated type expr. Map from the associated input or map from the associated root. 
      *         This corresponds to the output type. In the case of collectors, it will be the collector type.
      * @throws TypeException
      */
-    private Map<Object, TypeExpr> getUnboundPartTypes(TypeCheckInfo info) throws TypeException {
+    private Map<Object, TypeExpr> getUnboundPartTypes(TypeCheckInfo info, Set<Gem> rootSet) throws TypeException {
         
         Map<Object, TypeExpr> unboundPartToTypeMap = new HashMap<Object, TypeExpr>();
         
-        Set<Gem> rootSet = getRoots();
         Set<Gem> valueRoots = getValueRoots();
         
         // we only want to get new types for non-value roots
@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2007 BUSINESS OBJECTS SOFTWARE LIMITED
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *  
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *  
+ *     * Neither the name of Business Objects nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+/*
+ * GemGraph_Test.java
+ * Created: Oct 18, 2026
+ */
+package org.openquark.gems.client;
+
+import java.util.Collections;
+import java.util.Set;
+
+import junit.extensions.TestSetup;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.openquark.cal.CALPlatformTestModuleNames;
+import org.openquark.cal.compiler.MessageLogger;
+import org.openquark.cal.compiler.ModuleName;
+import org.openquark.cal.compiler.TypeException;
+import org.openquark.cal.compiler.TypeChecker.TypeCheckInfo;
+import org.openquark.cal.module.Cal.Core.CAL_Prelude;
+import org.openquark.cal.services.BasicCALServices;
+import org.openquark.gems.client.services.GemFactory;
+
+
+/**
+ * JUnit test cases for the type checking of connections in a GemGraph.
+ */
+public class GemGraph_Test extends TestCase {
+    
+    /**
+     * used to create gems for the test cases
+     */
+    private static GemFactory gemFactory;
+    
+    /**
+     * A copy of the CAL services used in the test cases
+     */
+    private static BasicCALServices calServices;
+    
+    private static final ModuleName testModule = CALPlatformTestModuleNames.M2;
+
+    /**
+     * @return a test suite containing all the test cases for gem graph type checking.
+     */
+    public static Test suite() {
+
+        TestSuite suite = new TestSuite(GemGraph_Test.class);
+
+        return new TestSetup(suite) {
+
+            @Override
+            protected void setUp() {
+                oneTimeSetUp();
+            }
+    
+            @Override
+            protected void tearDown() {
+                oneTimeTearDown();
+            }
+        };
+    }
+    
+    /**
+     * Performs the setup for the test suite.
+     */
+    private static void oneTimeSetUp() {
+        calServices = BasicCALServices.make(GemCutter.GEMCUTTER_PROP_WORKSPACE_FILE, "cal.platform.test.cws", null);                   
+        calServices.compileWorkspace(null, new MessageLogger());        
+        gemFactory = new GemFactory(calServices);
+    }
+    
+    /**
+     * Performs the tear down for the test suite.
+     */
+    private static void oneTimeTearDown() {
+        calServices = null;
+        gemFactory = null;
+    }
+
+    /**
+     * Constructor for GemGraph_Test.
+     * 
+     * @param name
+     *            the name of the test.
+     */
+    public GemGraph_Test(String name) {
+        super(name);
+    }
+    
+    /**
+     * Connects the source gem's output to one of the sink gem's inputs, and retypes the gem graph.
+     */
+    private static void connect(GemGraph gemGraph, Gem source, Gem sink, int inputPos) {
+        try {
+            gemGraph.connectGems(source.getOutputPart(), sink.getInputPart(inputPos));
+            gemGraph.typeGemGraph(calServices.getTypeCheckInfo(testModule));
+        } catch (TypeException e) {
+            fail("The gem graph fails to typecheck");
+        }
+    }
+
+    /**
+     * Tests that canConnect() only accepts connections which result in a valid gem graph, where the 
+     * trees being connected are independent of the rest of the gem graph.
+     */
+    public void testCanConnectIndependentTrees() {
+        TypeCheckInfo typeCheckInfo = calServices.getTypeCheckInfo(testModule);
+        GemGraph gemGraph = new GemGraph();
+        
+        Gem absGem = gemFactory.makeFunctionalAgentGem(CAL_Prelude.Functions.abs);
+        Gem notGem1 = gemFactory.makeFunctionalAgentGem(CAL_Prelude.Functions.not);
+        Gem notGem2 = gemFactory.makeFunctionalAgentGem(CAL_Prelude.Functions.not);
+        gemGraph.addGem(absGem);
+        gemGraph.addGem(notGem1);
+        gemGraph.addGem(notGem2);
+        
+        // An unrelated tree connected to the target.
+        Gem negateGem = gemFactory.makeFunctionalAgentGem(CAL_Prelude.Functions.negate);
+        gemGraph.addGem(negateGem);
+        connect(gemGraph, negateGem, gemGraph.getTargetCollector(), 0);
+        
+        // The free trees don't depend on the target.
+        Set<Gem> dependentRoots = gemGraph.obtainTypeDependentRoots(Collections.singleton(notGem1));
+        assertEquals(Collections.singleton(notGem1), dependentRoots);
+        
+        // Boolean isn't a Num type.
+        assertFalse(gemGraph.canConnect(new Connection(absGem.getOutputPart(), notGem1.getInputPart(0)), typeCheckInfo));
+        assertFalse(gemGraph.canConnect(new Connection(notGem1.getOutputPart(), absGem.getInputPart(0)), typeCheckInfo));
+        assertTrue(gemGraph.canConnect(new Connection(notGem1.getOutputPart(), notGem2.getInputPart(0)), typeCheckInfo));
+        
+        // Checking the connections should have left the graph as it was.
+        assertFalse(notGem1.getOutputPart().isConnected());
+        assertFalse(notGem2.getInputPart(0).isConnected());
+        assertTrue(gemGraph.checkGraphValid(typeCheckInfo));
+    }
+    
+    /**
+     * Tests that canConnect() checks the trees depending on a collector when connecting one of its emitters.
+     */
+    public void testCanConnectEmitter() {
+        TypeCheckInfo typeCheckInfo = calServices.getTypeCheckInfo(testModule);
+        GemGraph gemGraph = new GemGraph();
+        
+        // A collector with a Num type.
+        CollectorGem collectorGem = new CollectorGem();
+        gemGraph.addGem(collectorGem);
+        Gem absGem = gemFactory.makeFunctionalAgentGem(CAL_Prelude.Functions.abs);
+        gemGraph.addGem(absGem);
+        connect(gemGraph, absGem, collectorGem, 0);
+        
+        ReflectorGem emitterGem = new ReflectorGem(collectorGem);
+        gemGraph.addGem(emitterGem);
+        
+        Gem notGem = gemFactory.makeFunctionalAgentGem(CAL_Prelude.Functions.not);
+        Gem negateGem = gemFactory.makeFunctionalAgentGem(CAL_Prelude.Functions.negate);
+        gemGraph.addGem(notGem);
+        gemGraph.addGem(negateGem);
+
+        Set<Gem> dependentRoots = gemGraph.obtainTypeDependentRoots(Collections.<Gem>singleton(emitterGem));
+        assertTrue(dependentRoots.contains(collectorGem));
+        assertFalse(dependentRoots.contains(notGem));
+        
+        assertFalse(gemGraph.canConnect(new Connection(emitterGem.getOutputPart(), notGem.getInputPart(0)), typeCheckInfo));
+        assertTrue(gemGraph.canConnect(new Connection(emitterGem.getOutputPart(), negateGem.getInputPart(0)), typeCheckInfo));
+        
+        // Constraining the collector's type to Boolean through the emitter would make the graph invalid.
+        connect(gemGraph, emitterGem, negateGem, 0);
+        assertFalse(gemGraph.canConnect(new Connection(negateGem.getOutputPart(), notGem.getInputPart(0)), typeCheckInfo));
+        assertTrue(gemGraph.checkGraphValid(typeCheckInfo));
+    }
+}
@@ -112,6 +112,7 @@ public class QuarkGemsBasicTestSuite extends TestSuite {
         
         suite.addTest(Autoburn_Test.suite());
         suite.addTest(CALSourceGenerator_Test.suite());
+        suite.addTest(GemGraph_Test.suite());
         
         // Return the completed suite
         return new TestSetup(suite) {